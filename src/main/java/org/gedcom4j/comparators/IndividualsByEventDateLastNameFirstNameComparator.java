@@ -32,6 +32,7 @@ import java.util.List;
 import org.gedcom4j.model.Individual;
 import org.gedcom4j.model.IndividualEvent;
 import org.gedcom4j.model.enumerations.IndividualEventType;
+import org.gedcom4j.parser.DateParseCache;
 import org.gedcom4j.parser.DateParser;
 import org.gedcom4j.parser.DateParser.ImpreciseDatePreference;
 
@@ -57,7 +58,7 @@ public class IndividualsByEventDateLastNameFirstNameComparator extends Individua
     /**
      * Date parser
      */
-    private final DateParser dp = new DateParser();
+    private final DateParser dp = DateParseCache.getSharedInstance().getParser();
 
     /**
      * The imprecise date handling preference
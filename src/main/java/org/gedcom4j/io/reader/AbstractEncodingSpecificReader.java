@@ -39,6 +39,11 @@ import org.gedcom4j.parser.GedcomParser;
  */
 abstract class AbstractEncodingSpecificReader {
 
+    /**
+     * The smallest buffer to read a stream through
+     */
+    private static final int MIN_BUFFER_SIZE = 1024;
+
     /**
      * The stream of bytes to read
      */
@@ -73,6 +78,24 @@ abstract class AbstractEncodingSpecificReader {
         this.byteStream = byteStream;
     }
 
+    /**
+     * Work out how big a buffer to read a stream through. Streams of bytes that are already in memory know exactly how much data
+     * is left, so small amounts of data - such as a single record - don't get a large buffer that takes longer to allocate than
+     * the data takes to decode.
+     * 
+     * @param byteStream
+     *            the stream of bytes to be read
+     * @param maxSize
+     *            the size of buffer to use if the stream doesn't know how much data it has, and the largest size to use
+     * @return the size of buffer to use
+     */
+    static int bufferSize(InputStream byteStream, int maxSize) {
+        if (byteStream instanceof ByteBufferInputStream && ((ByteBufferInputStream) byteStream).holdsAllData()) {
+            return Math.max(MIN_BUFFER_SIZE, Math.min(maxSize, ((ByteBufferInputStream) byteStream).available()));
+        }
+        return maxSize;
+    }
+
     /**
      * Get the next line of the file. Must not return empty strings, or lines that are not left-trimmed.
      * 
@@ -92,4 +115,25 @@ abstract class AbstractEncodingSpecificReader {
      */
     abstract void cleanUp() throws IOException;
 
+    /**
+     * Get the next line of the file into the supplied buffer, replacing whatever line it held before. Unless overridden, the line
+     * is held as text.
+     * 
+     * @param line
+     *            the buffer to hold the line
+     * @return true if a line was read, or false if there are no more lines to read
+     * @throws IOException
+     *             if the file cannot be read
+     * @throws GedcomParserException
+     *             if the file is malformed and cannot be parsed as a GEDCOM file for some reason
+     */
+    boolean nextLine(LineBuffer line) throws IOException, GedcomParserException {
+        String result = nextLine();
+        if (result == null) {
+            return false;
+        }
+        line.setText(result);
+        return true;
+    }
+
 }
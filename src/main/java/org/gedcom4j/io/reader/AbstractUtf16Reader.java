@@ -0,0 +1,218 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.io.reader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+
+import org.gedcom4j.exception.GedcomParserException;
+import org.gedcom4j.parser.GedcomParser;
+
+/**
+ * <p>
+ * A base class for readers of UTF-16 data, in either byte order. Two bytes per character, with characters outside the basic
+ * multilingual plane represented as surrogate pairs.
+ * </p>
+ * <p>
+ * Blocks of bytes are read from the stream and decoded in bulk into a char buffer by a {@link CharsetDecoder}, which keeps
+ * surrogate pairs (and the two bytes of a single character) together even when they straddle the end of a block. Lines are then
+ * found by scanning the char buffer for line breaks, and each line costs one String.
+ * </p>
+ * 
+ * @author frizbog
+ */
+abstract class AbstractUtf16Reader extends AbstractEncodingSpecificReader {
+
+    /**
+     * The size of the blocks of bytes read from the stream
+     */
+    private static final int BLOCK_SIZE = 65536;
+
+    /**
+     * The unicode byte order marker character
+     */
+    private static final char BYTE_ORDER_MARKER = '\uFEFF';
+
+    /**
+     * The decoder for the specific byte order
+     */
+    private final CharsetDecoder decoder;
+
+    /**
+     * The bytes read from the stream that have not been decoded yet. Kept ready for reading (i.e., flipped).
+     */
+    private final ByteBuffer undecoded = ByteBuffer.allocate(bufferSize(byteStream, BLOCK_SIZE));
+
+    /**
+     * The decoded characters. This grows if a single line is too long to fit.
+     */
+    private char[] chars = new char[undecoded.capacity()];
+
+    /**
+     * The position in {@link #chars} of the next character to be scanned
+     */
+    private int charPos;
+
+    /**
+     * The number of valid characters in {@link #chars}
+     */
+    private int charLimit;
+
+    /**
+     * Has the stream been read to the end?
+     */
+    private boolean streamExhausted;
+
+    /**
+     * Has everything been decoded?
+     */
+    private boolean decodingFinished;
+
+    /**
+     * Constructor
+     * 
+     * @param parser
+     *            the {@link GedcomParser} which is using this object to read files
+     * @param byteStream
+     *            the stream of data to be read
+     * @param charset
+     *            the UTF-16 charset for the specific byte order, which must not expect or skip a byte order marker itself
+     * @throws IOException
+     *             if the data cannot be read
+     */
+    AbstractUtf16Reader(GedcomParser parser, InputStream byteStream, Charset charset) throws IOException {
+        super(parser, byteStream);
+        decoder = charset.newDecoder().onMalformedInput(CodingErrorAction.REPLACE).onUnmappableCharacter(
+                CodingErrorAction.REPLACE);
+        undecoded.flip();
+
+        // If there's a byte order marker at the beginning of the file, discard it
+        if (decodeMore() && chars[0] == BYTE_ORDER_MARKER) {
+            charPos = 1;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String nextLine() throws IOException, GedcomParserException {
+        // Skip leading whitespace, including the line breaks at the end of the previous line
+        while (true) {
+            while (charPos < charLimit && Character.isWhitespace(chars[charPos])) {
+                charPos++;
+            }
+            if (charPos < charLimit) {
+                break;
+            }
+            if (!decodeMore()) {
+                return null;
+            }
+        }
+
+        // Look for the end of the line
+        int scanned = 0;
+        while (true) {
+            for (int i = charPos + scanned; i < charLimit; i++) {
+                if (chars[i] == '\r' || chars[i] == '\n') {
+                    return takeLine(i);
+                }
+            }
+            scanned = charLimit - charPos;
+            if (!decodeMore()) {
+                // Last line of the file, with no line break after it
+                return takeLine(charLimit);
+            }
+        }
+    }
+
+    /**
+     * Decode more characters into {@link #chars}, after the ones not yet scanned, reading more bytes from the stream as needed.
+     * This may move the unscanned characters to the front of the buffer, or make the buffer bigger.
+     * 
+     * @return true if more characters were decoded, false if the end of the data has been reached
+     * @throws IOException
+     *             if the stream cannot be read
+     */
+    private boolean decodeMore() throws IOException {
+        if (decodingFinished) {
+            return false;
+        }
+        if (charLimit == chars.length) {
+            if (charPos > 0) {
+                System.arraycopy(chars, charPos, chars, 0, charLimit - charPos);
+                charLimit -= charPos;
+                charPos = 0;
+            } else {
+                char[] newChars = new char[chars.length * 2];
+                System.arraycopy(chars, 0, newChars, 0, charLimit);
+                chars = newChars;
+            }
+        }
+        CharBuffer out = CharBuffer.wrap(chars, charLimit, chars.length - charLimit);
+        while (out.position() == charLimit && !decodingFinished) {
+            if (!streamExhausted) {
+                undecoded.compact();
+                int n = byteStream.read(undecoded.array(), undecoded.position(), undecoded.remaining());
+                if (n < 0) {
+                    streamExhausted = true;
+                } else {
+                    undecoded.position(undecoded.position() + n);
+                    bytesRead += n;
+                }
+                undecoded.flip();
+            }
+            decoder.decode(undecoded, out, streamExhausted);
+            if (streamExhausted) {
+                decoder.flush(out);
+                decodingFinished = true;
+            }
+        }
+        boolean decoded = out.position() > charLimit;
+        charLimit = out.position();
+        return decoded;
+    }
+
+    /**
+     * Take the line from the current position up to (but not including) the supplied position
+     * 
+     * @param end
+     *            the position just after the end of the line
+     * @return the line
+     */
+    private String takeLine(int end) {
+        String result = new String(chars, charPos, end - charPos);
+        charPos = end;
+        linesRead++;
+        return result;
+    }
+}
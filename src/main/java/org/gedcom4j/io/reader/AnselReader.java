@@ -28,15 +28,22 @@ package org.gedcom4j.io.reader;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.Arrays;
 
 import org.gedcom4j.exception.GedcomParserException;
 import org.gedcom4j.io.encoding.AnselHandler;
 import org.gedcom4j.parser.GedcomParser;
 
 /**
+ * <p>
  * A reader that reads a single line from an ANSEL-encoded file. This implementation handles ANSEL encoding (1 byte per character,
  * some extended character support).
+ * </p>
+ * <p>
+ * The data is read from the stream in large blocks. Most lines are found by scanning the block for the next line break, and are
+ * decoded straight out of the block. Lines that need special handling - those that are too long and need to be split with a
+ * synthetic CONC tag, those that end with combining diacritics whose base character is on the next line, and those that straddle
+ * the end of the data - are instead assembled a byte at a time.
+ * </p>
  * 
  * @author frizbog
  */
@@ -47,11 +54,46 @@ final class AnselReader extends AbstractEncodingSpecificReader {
      */
     private static final char ANSEL_DIACRITICS_BEGIN_AT = 0x00E0;
 
+    /**
+     * The length at which lines are split with a synthetic CONC tag
+     */
+    private static final int MAX_LINE_LENGTH = 250;
+
+    /**
+     * The size of the blocks read from the stream
+     */
+    private static final int BLOCK_SIZE = 65536;
+
     /**
      * Helper class
      */
     private final AnselHandler anselHandler = new AnselHandler();
 
+    /**
+     * The block of bytes most recently read from the stream
+     */
+    private final byte[] block = new byte[bufferSize(byteStream, BLOCK_SIZE)];
+
+    /**
+     * The position in the block of the next byte to be read
+     */
+    private int blockPos = 0;
+
+    /**
+     * The number of valid bytes in the block
+     */
+    private int blockLimit = 0;
+
+    /**
+     * The number of bytes from the stream that were discarded from the front of the block to make room for more
+     */
+    private int bytesDiscarded = 0;
+
+    /**
+     * Has the stream been read to the end?
+     */
+    private boolean streamExhausted = false;
+
     /**
      * Index into the line buffer
      */
@@ -68,9 +110,14 @@ final class AnselReader extends AbstractEncodingSpecificReader {
     private boolean eof = false;
 
     /**
-     * The line buffer
+     * The line buffer, for lines that are assembled a byte at a time
+     */
+    private final byte[] lineBuffer = new byte[256];
+
+    /**
+     * The buffer that lines are decoded into
      */
-    private final char[] lineBuffer = new char[256];
+    private final char[] decodeBuffer = new char[256];
 
     /**
      * Prior character read
@@ -86,7 +133,7 @@ final class AnselReader extends AbstractEncodingSpecificReader {
      * A holding bin for combining diacritics that are separated from the base character by a line break. This makes it possible for
      * us to keep the diacritics and the base character together.
      */
-    private final char[] holdingBin = new char[2];
+    private final byte[] holdingBin = new byte[2];
 
     /**
      * Constructor
@@ -105,19 +152,93 @@ final class AnselReader extends AbstractEncodingSpecificReader {
      * {@inheritDoc}
      */
     @Override
-    @SuppressWarnings("PMD.AvoidDeeplyNestedIfStmts")
     public String nextLine() throws IOException, GedcomParserException {
         if (eof) {
             return null;
         }
+        String result = null;
+        if (lineBufferIdx == 0 && holdingBinIdx == 0) {
+            result = nextLineFromBlock();
+        }
+        if (result == null) {
+            result = assembleNextLine();
+        }
+        bytesRead = bytesDiscarded + blockPos;
+        return result;
+    }
+
+    @Override
+    void cleanUp() throws IOException {
+        // do nothing
+    }
+
+    /**
+     * Determine what level was in use on the provided line
+     * 
+     * @param line
+     *            the line to determine the level of
+     * 
+     * @return what level the supplied line was
+     * @throws GedcomParserException
+     *             if the line level can't be determined, because the file doesn't begin with a 1 or 2 digit number followed by a
+     *             space.
+     */
+    int getLevelFromLine(String line) throws GedcomParserException {
+        int level = -1;
+        char[] lineChars = line.toCharArray();
+        if (Character.isDigit(lineChars[0])) {
+            if (Character.isDigit(lineChars[1])) {
+                if (lineChars[2] == ' ') {
+                    level = Character.getNumericValue(lineChars[0]) * 10 + Character.getNumericValue(lineChars[1]);
+
+                } else {
+                    /*
+                     * Line is too long and doesn't begin with a 1 or 2 digit number followed by a space, so we can't put in CONC's
+                     * on the fly (because we don't know what level we're at)
+                     */
+                    throw new GedcomParserException("Line " + linesRead + " does not begin with a 1 or 2 digit number. "
+                            + "Can't split automatically.");
+                }
+            } else {
+                if (lineChars[1] == ' ') {
+                    level = Character.getNumericValue(lineChars[0]);
+                } else {
+                    /*
+                     * Line is too long and doesn't begin with a 1 or 2 digit number followed by a space, so we can't put in CONC's
+                     * on the fly (because we don't know what level we're at)
+                     */
+                    throw new GedcomParserException("Line " + linesRead + " does not begin with a 1 or 2 digit number. "
+                            + "Can't split automatically.");
+                }
+            }
+        } else {
+            /*
+             * Line is too long and doesn't begin with a 1 or 2 digit number followed by a space, so we can't put in CONC's on the
+             * fly (because we don't know what level we're at)
+             */
+            throw new GedcomParserException("Line " + linesRead
+                    + " does not begin with a 1 or 2 digit number. Can't split automatically.");
+        }
+        return level;
+    }
+
+    /**
+     * Assemble the next line a byte at a time, dealing with diacritics separated from their base character by a line break, and
+     * splitting lines that are too long
+     * 
+     * @return the next line, or null if there are no more lines
+     * @throws IOException
+     *             if the stream cannot be read
+     * @throws GedcomParserException
+     *             if a line needs to be split but its level can't be determined
+     */
+    @SuppressWarnings("PMD.AvoidDeeplyNestedIfStmts")
+    private String assembleNextLine() throws IOException, GedcomParserException {
         String result = null;
         while (!eof) {
             int twoCharsBack = oneCharBack;
             oneCharBack = currChar;
-            currChar = byteStream.read();
-            if (currChar >= 0) {
-                bytesRead++;
-            }
+            currChar = nextByte();
 
             // Check for EOF
             if (currChar < 0) {
@@ -136,29 +257,29 @@ final class AnselReader extends AbstractEncodingSpecificReader {
 
                 // Check for line breaks between combining diacritics and the base characters
                 if (oneCharBack >= ANSEL_DIACRITICS_BEGIN_AT) {
+                    // Any diacritics still held from an earlier line never found a CONC line to go on, so are discarded
+                    holdingBinIdx = 0;
                     if (twoCharsBack >= ANSEL_DIACRITICS_BEGIN_AT) {
                         /*
                          * Two diacritics at end of line, already in the lineBuffer, and presumably the base character is at the
                          * beginning of the next line (after a CONC tag) - store in holding bin
                          */
-                        holdingBin[holdingBinIdx++] = (char) twoCharsBack;
-                        twoCharsBack = -1; // Keeps from holding characters in reserve repeatedly
+                        holdingBin[holdingBinIdx++] = (byte) twoCharsBack;
                     }
                     /*
                      * One diacritic at end of line, already in the lineBuffer, and presumably the base character is at the
                      * beginning of the next line (after a CONC tag) - store in holding bin
                      */
-                    holdingBin[holdingBinIdx++] = (char) oneCharBack;
+                    holdingBin[holdingBinIdx++] = (byte) oneCharBack;
                     oneCharBack = -1; // Keeps from holding characters in reserve repeatedly
                 }
 
-                // If we have a line break and contents in the buffer, return the string
-                if (lineBufferIdx > 0) {
-                    result = getThisLine();
+                // We have a line break and contents in the buffer, so return the string - unless all it had was held-over
+                // diacritics
+                result = getThisLine();
+                if (result != null) {
                     break;
                 }
-
-                // Otherwise, ignore the extra line break characters
                 continue;
             }
 
@@ -170,13 +291,10 @@ final class AnselReader extends AbstractEncodingSpecificReader {
                     lineBuffer[lineBufferIdx++] = holdingBin[1];
                 }
                 holdingBinIdx = 0;
-                holdingBin[0] = ' ';
-                holdingBin[1] = ' ';
-
             }
 
             // Split line if it's too long, but don't split diactrics apart from their base characters
-            if (lineBufferIdx >= 250 && currChar < ANSEL_DIACRITICS_BEGIN_AT) {
+            if (lineBufferIdx >= MAX_LINE_LENGTH && currChar < ANSEL_DIACRITICS_BEGIN_AT) {
                 result = getThisLine();
                 insertSyntheticConcTag(result);
                 break;
@@ -184,81 +302,51 @@ final class AnselReader extends AbstractEncodingSpecificReader {
 
             // All other characters are treated the same at this point,
             // regardless of encoding, and added as is
-            lineBuffer[lineBufferIdx++] = (char) currChar;
+            lineBuffer[lineBufferIdx++] = (byte) currChar;
 
         }
         return result;
-
-    }
-
-    @Override
-    void cleanUp() throws IOException {
-        // do nothing
     }
 
     /**
-     * Determine what level was in use on the provided line
-     * 
-     * @param line
-     *            the line to determine the level of
+     * Read more of the stream into the block, after the bytes not yet read. If the block is used up, it is reused from the start; if
+     * it is full, the unread bytes are moved to the front first.
      * 
-     * @return what level the supplied line was
-     * @throws GedcomParserException
-     *             if the line level can't be determined, because the file doesn't begin with a 1 or 2 digit number followed by a
-     *             space.
+     * @return true if more bytes were read, false if the end of the stream has been reached
+     * @throws IOException
+     *             if the stream cannot be read
      */
-    int getLevelFromLine(String line) throws GedcomParserException {
-        int level = -1;
-        char[] lineChars = line.toCharArray();
-        if (Character.isDigit(lineChars[0])) {
-            if (Character.isDigit(lineChars[1])) {
-                if (lineChars[2] == ' ') {
-                    level = Character.getNumericValue(lineChars[0]) * 10 + Character.getNumericValue(lineChars[1]);
-
-                } else {
-                    /*
-                     * Line is too long and doesn't begin with a 1 or 2 digit number followed by a space, so we can't put in CONC's
-                     * on the fly (because we don't know what level we're at)
-                     */
-                    throw new GedcomParserException("Line " + linesRead + " does not begin with a 1 or 2 digit number. "
-                            + "Can't split automatically.");
-                }
-            } else {
-                if (lineChars[1] == ' ') {
-                    level = Character.getNumericValue(lineChars[0]);
-                } else {
-                    /*
-                     * Line is too long and doesn't begin with a 1 or 2 digit number followed by a space, so we can't put in CONC's
-                     * on the fly (because we don't know what level we're at)
-                     */
-                    throw new GedcomParserException("Line " + linesRead + " does not begin with a 1 or 2 digit number. "
-                            + "Can't split automatically.");
-                }
-            }
-        } else {
-            /*
-             * Line is too long and doesn't begin with a 1 or 2 digit number followed by a space, so we can't put in CONC's on the
-             * fly (because we don't know what level we're at)
-             */
-            throw new GedcomParserException("Line " + linesRead
-                    + " does not begin with a 1 or 2 digit number. Can't split automatically.");
+    private boolean fillBlock() throws IOException {
+        if (streamExhausted) {
+            return false;
         }
-        return level;
+        if (blockPos == blockLimit || blockLimit == block.length) {
+            System.arraycopy(block, blockPos, block, 0, blockLimit - blockPos);
+            bytesDiscarded += blockPos;
+            blockLimit -= blockPos;
+            blockPos = 0;
+        }
+        int n = byteStream.read(block, blockLimit, block.length - blockLimit);
+        if (n < 0) {
+            streamExhausted = true;
+            return false;
+        }
+        blockLimit += n;
+        return true;
     }
 
     /**
      * Get the current line buffer's contents
      * 
-     * @return the current line buffer's contents
+     * @return the current line buffer's contents, less any diacritics in the holding bin, or null if that leaves nothing
      */
     private String getThisLine() {
         String result = null;
-        if (lineBufferIdx > 0) {
-            String s = new String(lineBuffer).substring(0, lineBufferIdx - holdingBinIdx);
-            result = anselHandler.toUtf16(s);
+        if (lineBufferIdx > holdingBinIdx) {
+            int len = anselHandler.toUtf16(lineBuffer, 0, lineBufferIdx - holdingBinIdx, decodeBuffer, 0);
+            result = new String(decodeBuffer, 0, len);
         }
         linesRead++;
-        Arrays.fill(lineBuffer, ' ');
         lineBufferIdx = 0;
         return result;
     }
@@ -278,10 +366,10 @@ final class AnselReader extends AbstractEncodingSpecificReader {
         parser.getWarnings().add("Line " + linesRead + " exceeds max length - introducing synthetic CONC tag to split line");
         level++;
         if (level > 9) {
-            lineBuffer[lineBufferIdx++] = Character.forDigit(level / 10, 10);
-            lineBuffer[lineBufferIdx++] = Character.forDigit(level % 10, 10);
+            lineBuffer[lineBufferIdx++] = (byte) Character.forDigit(level / 10, 10);
+            lineBuffer[lineBufferIdx++] = (byte) Character.forDigit(level % 10, 10);
         } else {
-            lineBuffer[lineBufferIdx++] = Character.forDigit(level, 10);
+            lineBuffer[lineBufferIdx++] = (byte) Character.forDigit(level, 10);
         }
         lineBuffer[lineBufferIdx++] = ' ';
         lineBuffer[lineBufferIdx++] = 'C';
@@ -289,7 +377,7 @@ final class AnselReader extends AbstractEncodingSpecificReader {
         lineBuffer[lineBufferIdx++] = 'N';
         lineBuffer[lineBufferIdx++] = 'C';
         lineBuffer[lineBufferIdx++] = ' ';
-        lineBuffer[lineBufferIdx++] = (char) currChar;
+        lineBuffer[lineBufferIdx++] = (byte) currChar;
     }
 
     /**
@@ -304,4 +392,78 @@ final class AnselReader extends AbstractEncodingSpecificReader {
                         - 3] == 'N' && lineBuffer[lineBufferIdx - 2] == 'C' && lineBuffer[lineBufferIdx - 1] == ' ';
     }
 
+    /**
+     * Get the next byte from the block, reading another block from the stream if needed
+     * 
+     * @return the next byte, as an unsigned value, or -1 if the end of the stream has been reached
+     * @throws IOException
+     *             if the stream cannot be read
+     */
+    private int nextByte() throws IOException {
+        if (blockPos == blockLimit && !fillBlock()) {
+            return -1;
+        }
+        return block[blockPos++] & 0xFF;
+    }
+
+    /**
+     * Try to get the next line by scanning the block for the next line break and decoding the line straight out of the block. This
+     * only works for lines that need no special handling.
+     * 
+     * @return the next line, or null if the next line needs to be assembled a byte at a time instead (in which case nothing but
+     *         leading whitespace has been consumed)
+     * @throws IOException
+     *             if the stream cannot be read
+     */
+    private String nextLineFromBlock() throws IOException {
+        // Skip leading whitespace
+        while (true) {
+            while (blockPos < blockLimit && Character.isWhitespace(block[blockPos] & 0xFF)) {
+                currChar = block[blockPos++] & 0xFF;
+            }
+            if (blockPos < blockLimit) {
+                break;
+            }
+            if (!fillBlock()) {
+                return null;
+            }
+        }
+
+        // Look for the line break
+        int scanned = 0;
+        while (true) {
+            int stop = Math.min(blockLimit, blockPos + MAX_LINE_LENGTH + 1);
+            for (int i = blockPos + scanned; i < stop; i++) {
+                if (block[i] == 0x0D || block[i] == 0x0A) {
+                    return decodeFromBlock(i);
+                }
+            }
+            scanned = stop - blockPos;
+            if (scanned > MAX_LINE_LENGTH || !fillBlock()) {
+                // Too long, and will need splitting - or at the end of the data
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Decode the line from the current position in the block up to the line break at the supplied position, unless it ends with a
+     * combining diacritic
+     * 
+     * @param lineBreakPos
+     *            the position of the line break in the block
+     * @return the decoded line, or null if the line ends with a combining diacritic and needs to be assembled a byte at a time
+     */
+    private String decodeFromBlock(int lineBreakPos) {
+        int lastChar = block[lineBreakPos - 1] & 0xFF;
+        if (lastChar >= ANSEL_DIACRITICS_BEGIN_AT) {
+            return null;
+        }
+        int len = anselHandler.toUtf16(block, blockPos, lineBreakPos, decodeBuffer, 0);
+        blockPos = lineBreakPos;
+        oneCharBack = lastChar;
+        currChar = block[lineBreakPos];
+        linesRead++;
+        return new String(decodeBuffer, 0, len);
+    }
 }
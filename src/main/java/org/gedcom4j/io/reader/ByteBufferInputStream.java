@@ -0,0 +1,179 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.io.reader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * <p>
+ * An input stream that reads bytes directly out of a {@link ByteBuffer}, such as a memory-mapped file, optionally refilling the
+ * buffer from a {@link ReadableByteChannel} as it is used up.
+ * </p>
+ * <p>
+ * Unlike a {@link java.io.BufferedInputStream}, this class is not synchronized, and the bytes at the front of the data can be
+ * examined with {@link #peek(byte[])} without the mark/reset dance.
+ * </p>
+ * 
+ * @author frizbog
+ */
+final class ByteBufferInputStream extends InputStream {
+
+    /**
+     * The buffer of bytes being read. When reading from a channel, this is refilled each time it is used up.
+     */
+    private final ByteBuffer buffer;
+
+    /**
+     * The channel the buffer is refilled from. Null if the buffer holds all the data to be read.
+     */
+    private final ReadableByteChannel channel;
+
+    /**
+     * Has the channel been read to the end?
+     */
+    private boolean channelExhausted;
+
+    /**
+     * Constructor for reading bytes that are all already in a buffer, such as a memory-mapped file. The buffer's position and
+     * limit are not changed.
+     * 
+     * @param buffer
+     *            the buffer of bytes to read, from its current position to its limit
+     */
+    ByteBufferInputStream(ByteBuffer buffer) {
+        this.buffer = buffer.duplicate();
+        channel = null;
+        channelExhausted = true;
+    }
+
+    /**
+     * Constructor for reading bytes from a channel, through a buffer of the specified size
+     * 
+     * @param channel
+     *            the channel to read from. It is not closed by this class.
+     * @param bufferSize
+     *            the size of the buffer to read the channel through
+     */
+    ByteBufferInputStream(ReadableByteChannel channel, int bufferSize) {
+        buffer = ByteBuffer.allocateDirect(bufferSize);
+        buffer.flip();
+        this.channel = channel;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int available() {
+        return buffer.remaining();
+    }
+
+    /**
+     * Does the buffer hold all the data to be read, so that {@link #available()} is the exact amount of data left?
+     * 
+     * @return true if and only if the data is not being read from a channel
+     */
+    boolean holdsAllData() {
+        return channel == null;
+    }
+
+    /**
+     * Copy bytes from the front of the unread data into an array, without consuming them. When reading from a channel, the channel
+     * is read until the array can be filled or the channel is exhausted.
+     * 
+     * @param dest
+     *            the array to copy bytes into. Must not be larger than the buffer.
+     * @return the number of bytes copied, which is less than the length of the array only if there is not that much data left
+     * @throws IOException
+     *             if the channel cannot be read
+     */
+    int peek(byte[] dest) throws IOException {
+        while (buffer.remaining() < dest.length && !channelExhausted) {
+            buffer.compact();
+            int read = channel.read(buffer);
+            if (read < 0) {
+                channelExhausted = true;
+            }
+            buffer.flip();
+        }
+        int n = Math.min(dest.length, buffer.remaining());
+        ByteBuffer view = buffer.duplicate();
+        view.get(dest, 0, n);
+        return n;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int read() throws IOException {
+        if (!buffer.hasRemaining() && !refill()) {
+            return -1;
+        }
+        return buffer.get() & 0xFF;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (!buffer.hasRemaining() && !refill()) {
+            return -1;
+        }
+        int n = Math.min(len, buffer.remaining());
+        buffer.get(b, off, n);
+        return n;
+    }
+
+    /**
+     * Refill the empty buffer from the channel, if there is one
+     * 
+     * @return true if there are now bytes in the buffer to read, false if the end of the data has been reached
+     * @throws IOException
+     *             if the channel cannot be read
+     */
+    private boolean refill() throws IOException {
+        while (!channelExhausted) {
+            buffer.clear();
+            int read = channel.read(buffer);
+            buffer.flip();
+            if (read < 0) {
+                channelExhausted = true;
+            } else if (read > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -30,11 +30,15 @@ import java.io.BufferedInputStream;
 import java.io.BufferedReader;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
 
 import org.gedcom4j.exception.GedcomParserException;
 import org.gedcom4j.exception.ParserCancelledException;
 import org.gedcom4j.exception.UnsupportedGedcomCharsetException;
+import org.gedcom4j.io.encoding.Encoding;
 import org.gedcom4j.io.event.FileProgressEvent;
 import org.gedcom4j.parser.GedcomParser;
 
@@ -59,20 +63,30 @@ public final class GedcomFileReader {
     private static final long UTF8_BYTE_ORDER_MARKER = 0xEFBBBFL;
 
     /**
-     * The first chunk of the file
+     * The first chunk of the file, used to determine the encoding. Null if the encoding was already known.
      */
-    final byte[] firstChunk = new byte[FIRST_CHUNK_SIZE];
+    final byte[] firstChunk;
 
     /**
-     * The buffered input stream of bytes to read
+     * The size of the buffer used when reading from a channel. 64K.
      */
-    private final BufferedInputStream byteStream;
+    private static final int CHANNEL_BUFFER_SIZE = 65536;
+
+    /**
+     * The input stream of bytes to read
+     */
+    private final InputStream byteStream;
 
     /**
      * The encoding-specific reader helper class to actually read the bytes
      */
     private final AbstractEncodingSpecificReader encodingSpecificReader;
 
+    /**
+     * The encoding of the data
+     */
+    private final Encoding encoding;
+
     /**
      * The {@link GedcomParser} we're reading files for
      */
@@ -100,8 +114,101 @@ public final class GedcomFileReader {
             UnsupportedGedcomCharsetException {
         this.parser = parser;
         byteStream = bufferedInputStream;
+        firstChunk = new byte[FIRST_CHUNK_SIZE];
         saveFirstChunk();
-        encodingSpecificReader = getEncodingSpecificReader();
+        encoding = determineEncoding();
+        encodingSpecificReader = newEncodingSpecificReader();
+    }
+
+    /**
+     * Constructor for reading bytes held in a buffer, such as a memory-mapped file. The bytes are read straight out of the buffer
+     * with no intermediate stream buffering, and the encoding is determined by examining the front of the buffer directly. The
+     * buffer's position and limit are not changed.
+     * 
+     * @param parser
+     *            the {@link GedcomParser} which is using this object to read files
+     * @param buffer
+     *            the buffer of bytes to read, from its current position to its limit
+     * @throws IOException
+     *             if there is a problem reading the data
+     * @throws UnsupportedGedcomCharsetException
+     *             if the file is using an unsupported character encoding
+     */
+    public GedcomFileReader(GedcomParser parser, ByteBuffer buffer) throws IOException, UnsupportedGedcomCharsetException {
+        this(parser, new ByteBufferInputStream(buffer));
+    }
+
+    /**
+     * Constructor for reading bytes held in a buffer whose encoding is already known, such as a single record from a file that has
+     * already been examined by another reader. The front of the buffer is not examined, and the buffers used for decoding are no
+     * bigger than the data needs. The buffer's position and limit are not changed.
+     * 
+     * @param parser
+     *            the {@link GedcomParser} which is using this object to read files
+     * @param buffer
+     *            the buffer of bytes to read, from its current position to its limit
+     * @param encoding
+     *            the encoding of the bytes
+     * @throws IOException
+     *             if there is a problem reading the data
+     */
+    public GedcomFileReader(GedcomParser parser, ByteBuffer buffer, Encoding encoding) throws IOException {
+        this.parser = parser;
+        byteStream = new ByteBufferInputStream(buffer);
+        firstChunk = null;
+        this.encoding = encoding;
+        encodingSpecificReader = newEncodingSpecificReader();
+    }
+
+    /**
+     * Constructor for reading bytes from a channel. The channel is read through a large buffer, and the encoding is determined by
+     * examining the front of that buffer. The channel is not closed by this class.
+     * 
+     * @param parser
+     *            the {@link GedcomParser} which is using this object to read files
+     * @param channel
+     *            the (blocking) channel to read bytes from
+     * @throws IOException
+     *             if there is a problem reading the data
+     * @throws UnsupportedGedcomCharsetException
+     *             if the file is using an unsupported character encoding
+     */
+    public GedcomFileReader(GedcomParser parser, ReadableByteChannel channel) throws IOException,
+            UnsupportedGedcomCharsetException {
+        this(parser, new ByteBufferInputStream(channel, CHANNEL_BUFFER_SIZE));
+    }
+
+    /**
+     * Constructor for reading from a {@link ByteBufferInputStream}, whose first chunk can be examined without mark/reset
+     * 
+     * @param parser
+     *            the {@link GedcomParser} which is using this object to read files
+     * @param byteBufferInputStream
+     *            the stream of bytes
+     * @throws IOException
+     *             if there is a problem reading the data
+     * @throws UnsupportedGedcomCharsetException
+     *             if the file is using an unsupported character encoding
+     */
+    private GedcomFileReader(GedcomParser parser, ByteBufferInputStream byteBufferInputStream) throws IOException,
+            UnsupportedGedcomCharsetException {
+        this.parser = parser;
+        byteStream = byteBufferInputStream;
+        firstChunk = new byte[FIRST_CHUNK_SIZE];
+        if (byteBufferInputStream.peek(firstChunk) <= 0) {
+            throw new IOException("Unable to read bytes off stream");
+        }
+        encoding = determineEncoding();
+        encodingSpecificReader = newEncodingSpecificReader();
+    }
+
+    /**
+     * Get the encoding of the data being read
+     * 
+     * @return the encoding of the data being read
+     */
+    public Encoding getEncoding() {
+        return encoding;
     }
 
     /**
@@ -114,16 +221,28 @@ public final class GedcomFileReader {
      *             if the file is malformed and cannot be processed as a result
      */
     public String nextLine() throws IOException, GedcomParserException {
-        if (parser.isCancelled()) {
-            throw new ParserCancelledException("File load is cancelled");
-        }
+        checkCancelled();
         String result = encodingSpecificReader.nextLine();
-        linesProcessed++;
-        if (result == null) {
-            parser.notifyFileObservers(new FileProgressEvent(this, linesProcessed, encodingSpecificReader.bytesRead, true));
-        } else if (linesProcessed % parser.getReadNotificationRate() == 0) {
-            parser.notifyFileObservers(new FileProgressEvent(this, linesProcessed, encodingSpecificReader.bytesRead, false));
-        }
+        lineProcessed(result == null);
+        return result;
+    }
+
+    /**
+     * Get the next line of the file into the supplied buffer, replacing whatever line it held before. Lines of UTF-8 data are left
+     * as bytes in this reader's buffer, and are only valid until the next line is read.
+     * 
+     * @param line
+     *            the buffer to hold the line
+     * @return true if a line was read, or false if there are no more lines to read
+     * @throws IOException
+     *             if there is a problem reading the data
+     * @throws GedcomParserException
+     *             if the file is malformed and cannot be processed as a result
+     */
+    public boolean nextLine(LineBuffer line) throws IOException, GedcomParserException {
+        checkCancelled();
+        boolean result = encodingSpecificReader.nextLine(line);
+        lineProcessed(!result);
         return result;
     }
 
@@ -157,7 +276,7 @@ public final class GedcomFileReader {
      *             <li>No CHAR tag was found within the first 2k or so of the file</li>
      *             </ul>
      */
-    private AbstractEncodingSpecificReader anselAsciiOrUtf8() throws IOException, UnsupportedGedcomCharsetException {
+    private Encoding anselAsciiOrUtf8() throws IOException, UnsupportedGedcomCharsetException {
         /*
          * Try reading as UTF-8. Most likely to successfully read and be useful for figuring out what the encoding really is
          */
@@ -171,17 +290,17 @@ public final class GedcomFileReader {
                 if (s.startsWith("1 CHAR ")) {
                     String e = s.substring("1 CHAR ".length());
                     if ("ANSEL".equalsIgnoreCase(e)) {
-                        return new AnselReader(parser, byteStream);
+                        return Encoding.ANSEL;
                     } else if ("UTF-8".equalsIgnoreCase(e)) {
-                        return new Utf8Reader(parser, byteStream);
+                        return Encoding.UTF_8;
                     } else if ("ASCII".equalsIgnoreCase(e)) {
-                        return new AsciiReader(parser, byteStream);
+                        return Encoding.ASCII;
                     } else if ("ANSI".equalsIgnoreCase(e)) {
                         /*
                          * Technically, this is illegal, but UTF_8 is the most-likely-to-work scenario, so let's try it and be a bit
                          * forgiving
                          */
-                        return new Utf8Reader(parser, byteStream);
+                        return Encoding.UTF_8;
                     } else {
                         throw new UnsupportedGedcomCharsetException("Specified charset " + e
                                 + " is not a supported charset encoding for GEDCOMs");
@@ -195,43 +314,52 @@ public final class GedcomFileReader {
                 r.close();
             }
         }
-        // All other avenues exhausted, go with an ANSEL reader since that's the default encoding in GEDCOM 5.5
-        return new AnselReader(parser, byteStream);
+        // All other avenues exhausted, go with ANSEL since that's the default encoding in GEDCOM 5.5
+        return Encoding.ANSEL;
+    }
+
+    /**
+     * Check whether the load has been cancelled
+     * 
+     * @throws ParserCancelledException
+     *             if the load has been cancelled
+     */
+    private void checkCancelled() throws ParserCancelledException {
+        if (parser.isCancelled()) {
+            throw new ParserCancelledException("File load is cancelled");
+        }
     }
 
     /**
      * <p>
-     * Inspect the first few bytes of the file to determine which encoding is in play, and return an encoding-specific reader to
-     * read that data.
+     * Inspect the first few bytes of the file to determine which encoding is in play
      * </p>
      * 
-     * @return an {@link AbstractEncodingSpecificReader} that should work with the data in the byte stream
+     * @return the encoding of the data in the byte stream
      * 
      * @throws IOException
      *             if there is a problem reading the byte stream
      * @throws UnsupportedGedcomCharsetException
      *             if a suitable charset encoding is not found.
      */
-    private AbstractEncodingSpecificReader getEncodingSpecificReader() throws IOException, UnsupportedGedcomCharsetException {
+    private Encoding determineEncoding() throws IOException, UnsupportedGedcomCharsetException {
 
         if (firstNBytes(3) == UTF8_BYTE_ORDER_MARKER) {
             /*
              * Special byte order marker to indicate UTF-8 encoding. Not every program does this, but if it does, we KNOW it's UTF-8
-             * and should discard the BOM
+             * and should discard the BOM (which the UTF-8 reader does)
              */
-            AbstractEncodingSpecificReader result = new Utf8Reader(parser, byteStream);
-            ((Utf8Reader) result).setByteOrderMarkerRead(true);
-            return result;
+            return Encoding.UTF_8;
         }
 
         if (firstNBytes(2) == 0xFFFE || firstNBytes(2) == 0x3000 || firstNBytes(2) == 0x0D00 || firstNBytes(2) == 0x0A00) {
             // If the first two firstChunk make up a single zero character, a single line feed character, or a single
             // carriage return character, using the bytes shown, it's unicode little-endian
-            return new UnicodeLittleEndianReader(parser, byteStream);
+            return Encoding.UNICODE_LITTLE_ENDIAN;
         } else if (firstNBytes(2) == 0xFEFF || firstNBytes(2) == 0x0030 || firstNBytes(2) == 0x000D || firstNBytes(2) == 0x000A) {
             // If the first two firstChunk make up a single zero character, a single line feed character, or a single
             // carriage return character, using the bytes shown, it's unicode big-endian
-            return new UnicodeBigEndianReader(parser, byteStream);
+            return Encoding.UNICODE_BIG_ENDIAN;
         } else {
             boolean zeroFollowedBySpace = firstNBytes(2) == 0x3020;
             boolean blankLineFollowedByZero = firstNBytes(2) == 0x0A30 || firstNBytes(2) == 0x0D30;
@@ -251,6 +379,43 @@ public final class GedcomFileReader {
 
     }
 
+    /**
+     * Count a line as processed, and tell the parser's file observers about the progress when it is time to
+     * 
+     * @param endOfFile
+     *            true if there were no more lines to read
+     */
+    private void lineProcessed(boolean endOfFile) {
+        linesProcessed++;
+        if (endOfFile) {
+            parser.notifyFileObservers(new FileProgressEvent(this, linesProcessed, encodingSpecificReader.bytesRead, true));
+        } else if (linesProcessed % parser.getReadNotificationRate() == 0) {
+            parser.notifyFileObservers(new FileProgressEvent(this, linesProcessed, encodingSpecificReader.bytesRead, false));
+        }
+    }
+
+    /**
+     * Make an encoding-specific reader to read the data in the byte stream
+     * 
+     * @return an {@link AbstractEncodingSpecificReader} that works with the encoding of the data in the byte stream
+     * @throws IOException
+     *             if there is a problem reading the byte stream
+     */
+    private AbstractEncodingSpecificReader newEncodingSpecificReader() throws IOException {
+        switch (encoding) {
+            case ASCII:
+                return new AsciiReader(parser, byteStream);
+            case UNICODE_BIG_ENDIAN:
+                return new UnicodeBigEndianReader(parser, byteStream);
+            case UNICODE_LITTLE_ENDIAN:
+                return new UnicodeLittleEndianReader(parser, byteStream);
+            case UTF_8:
+                return new Utf8Reader(parser, byteStream);
+            default:
+                return new AnselReader(parser, byteStream);
+        }
+    }
+
     /**
      * Save off a chunk of the beginning of the input stream to memory for easy inspection. The data is loaded into the field
      * 
@@ -0,0 +1,151 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.io.reader;
+
+import java.nio.charset.StandardCharsets;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+
+/**
+ * <p>
+ * A line read by a {@link GedcomFileReader}, left-trimmed and not empty. A line of UTF-8 data is left as bytes in the reader's own
+ * buffer, so the parser can find the pieces of the line in the bytes and decode only the ones it keeps. Lines in other encodings
+ * are held as text.
+ * </p>
+ * <p>
+ * The same instance is reused for line after line, and the bytes are only valid until the next line is read, so nothing should
+ * hold on to them.
+ * </p>
+ * 
+ * @author frizbog
+ */
+public final class LineBuffer {
+
+    /**
+     * The buffer holding the UTF-8 bytes of the line, or null if the line is only held as text
+     */
+    private byte[] bytes;
+
+    /**
+     * The index in {@link #bytes} where the line starts
+     */
+    private int start;
+
+    /**
+     * The index in {@link #bytes} just after the end of the line
+     */
+    private int end;
+
+    /**
+     * The text of the line, or null if the line is held as bytes and has not been decoded yet
+     */
+    private String text;
+
+    /**
+     * Get the first character of the line. A line is only held as bytes when its first byte is an ASCII character, so this never
+     * requires the line to be decoded.
+     * 
+     * @return the first character of the line
+     */
+    public char firstChar() {
+        if (bytes == null) {
+            return text.charAt(0);
+        }
+        return (char) bytes[start];
+    }
+
+    /**
+     * Get the buffer holding the UTF-8 bytes of the line. The buffer is shared with the reader, so must not be changed.
+     * 
+     * @return the buffer holding the bytes of the line, or null if the line is only held as text
+     */
+    @SuppressWarnings("PMD.MethodReturnsInternalArray")
+    @SuppressFBWarnings(value = "EI_EXPOSE_REP", justification = "Sharing the reader's buffer is what saves decoding the line")
+    public byte[] getBytes() {
+        return bytes;
+    }
+
+    /**
+     * Get the index in the buffer just after the end of the line
+     * 
+     * @return the index in the buffer just after the end of the line
+     */
+    public int getEnd() {
+        return end;
+    }
+
+    /**
+     * Get the index in the buffer where the line starts
+     * 
+     * @return the index in the buffer where the line starts
+     */
+    public int getStart() {
+        return start;
+    }
+
+    /**
+     * Hold a line of text, replacing whatever line was held before
+     * 
+     * @param line
+     *            the line, which must be left-trimmed and not empty
+     */
+    public void setText(String line) {
+        bytes = null;
+        text = line;
+    }
+
+    /**
+     * Get the text of the line, decoding it if it is held as bytes
+     * 
+     * @return the text of the line
+     */
+    @Override
+    public String toString() {
+        if (text == null) {
+            text = new String(bytes, start, end - start, StandardCharsets.UTF_8);
+        }
+        return text;
+    }
+
+    /**
+     * Hold a line of UTF-8 bytes, replacing whatever line was held before
+     * 
+     * @param buffer
+     *            the buffer holding the line, whose byte at the start must be an ASCII character
+     * @param startIndex
+     *            the index in the buffer where the line starts
+     * @param endIndex
+     *            the index in the buffer just after the end of the line
+     */
+    @SuppressWarnings("PMD.ArrayIsStoredDirectly")
+    void setBytes(byte[] buffer, int startIndex, int endIndex) {
+        bytes = buffer;
+        start = startIndex;
+        end = endIndex;
+        text = null;
+    }
+}
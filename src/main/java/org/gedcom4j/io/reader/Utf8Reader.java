@@ -26,41 +26,62 @@
  */
 package org.gedcom4j.io.reader;
 
-import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 
 import org.gedcom4j.exception.GedcomParserException;
 import org.gedcom4j.parser.GedcomParser;
 
 /**
+ * <p>
  * A reader that loads from an input stream and gives back a collection of strings representing the data therein. This
- * implementation handles UTF-8 data
+ * implementation handles UTF-8 data.
+ * </p>
+ * <p>
+ * Rather than decoding everything through an {@link java.io.InputStreamReader} and then trimming the resulting strings, this class
+ * reads blocks of raw bytes and scans them for line boundaries and leading whitespace directly. Since line terminators and the
+ * whitespace GEDCOM uses are all single-byte ASCII characters, which can never appear inside a multi-byte UTF-8 sequence, only the
+ * bytes of the trimmed line itself are ever decoded, and each line costs exactly one String.
+ * </p>
+ * <p>
+ * When the parser reads lines into a {@link LineBuffer}, a line isn't decoded at all - the buffer is pointed at its bytes, so the
+ * parser can find the level, xref, tag and value in the bytes and decode only the xref and the value.
+ * </p>
  * 
  * @author frizbog
  */
 final class Utf8Reader extends AbstractEncodingSpecificReader {
 
     /**
-     * Was a byte order marker read when inspecting the file to detect encoding?
+     * The initial size of the byte buffer. The buffer grows if a single line is longer than this.
      */
-    private boolean byteOrderMarkerRead = false;
+    private static final int INITIAL_BUFFER_SIZE = 65536;
 
     /**
-     * Input stream reader for internal use over the byte stream
+     * The buffer of raw bytes read from the stream
      */
-    private final InputStreamReader inputStreamReader;
+    private byte[] buffer = new byte[bufferSize(byteStream, INITIAL_BUFFER_SIZE)];
 
     /**
-     * Buffered reader over the input stream reader, for internal use
+     * The position in the buffer of the next byte to be scanned
      */
-    private final BufferedReader bufferedReader;
+    private int pos;
 
     /**
-     * The progress tracking input stream
+     * The number of valid bytes in the buffer
      */
-    private ProgressTrackingInputStream inputStream;
+    private int limit;
+
+    /**
+     * The number of bytes from the stream that were discarded from the front of the buffer when it was compacted
+     */
+    private int bytesDiscarded;
+
+    /**
+     * Has the end of the stream been reached?
+     */
+    private boolean eof;
 
     /**
      * Constructor
@@ -75,21 +96,15 @@ final class Utf8Reader extends AbstractEncodingSpecificReader {
      */
     Utf8Reader(GedcomParser parser, InputStream byteStream) throws IOException {
         super(parser, byteStream);
-        try {
-            inputStream = new ProgressTrackingInputStream(byteStream);
-            inputStreamReader = new InputStreamReader(inputStream, "UTF8");
-
-            if (byteOrderMarkerRead) {
-                // discard the byte order marker if one was detected
-                inputStreamReader.read();
-                bytesRead = inputStream.getBytesRead();
-            }
-
-            bufferedReader = new BufferedReader(inputStreamReader);
-        } catch (IOException e) {
-            closeReaders();
-            throw e;
+        // Discard the byte order marker if there is one
+        boolean moreData = true;
+        while (limit < 3 && moreData) {
+            moreData = fill();
+        }
+        if (limit >= 3 && buffer[0] == (byte) 0xEF && buffer[1] == (byte) 0xBB && buffer[2] == (byte) 0xBF) {
+            pos = 3;
         }
+        bytesRead = pos;
     }
 
     /**
@@ -98,58 +113,124 @@ final class Utf8Reader extends AbstractEncodingSpecificReader {
     @Override
     public String nextLine() throws IOException, GedcomParserException {
         String result = null;
-        String s = bufferedReader.readLine();
-        bytesRead = inputStream.getBytesRead();
-
-        // Strip off Byte Order Mark if needed
-        if (s != null && s.length() > 0 && s.charAt(0) == (char) 0xFEFF) {
-            s = s.substring(1);
-        }
-
-        while (s != null) {
-            s = leftTrim(s);
-            if (s.length() != 0) {
-                result = s;
-                break;
+        while (result == null && skipLeadingWhitespace()) {
+            int end = findEndOfLine();
+            result = new String(buffer, pos, end - pos, StandardCharsets.UTF_8);
+            pos = end;
+            if (Character.isWhitespace(result.charAt(0))) {
+                // Leading whitespace outside the ASCII range, which the byte scan doesn't recognize
+                result = leftTrim(result);
             }
-            s = bufferedReader.readLine();
-            bytesRead = inputStream.getBytesRead();
         }
-        bytesRead = inputStream.getBytesRead();
+        bytesRead = bytesDiscarded + pos;
         return result;
     }
 
     /**
-     * Set whether or not a byte order marker was read when inspecting the file to detect its encoding
-     * 
-     * @param wasByteOrderMarkerRead
-     *            true if a byte order marker was read
+     * {@inheritDoc}
      */
-    public void setByteOrderMarkerRead(boolean wasByteOrderMarkerRead) {
-        byteOrderMarkerRead = wasByteOrderMarkerRead;
+    @Override
+    void cleanUp() throws IOException {
+        byteStream.close();
     }
 
     /**
      * {@inheritDoc}
      */
     @Override
-    void cleanUp() throws IOException {
-        closeReaders();
+    boolean nextLine(LineBuffer line) throws IOException, GedcomParserException {
+        if (!skipLeadingWhitespace()) {
+            bytesRead = bytesDiscarded + pos;
+            return false;
+        }
+        if (buffer[pos] < 0) {
+            // Might be leading whitespace outside the ASCII range, which only shows once the line is decoded
+            return super.nextLine(line);
+        }
+        int end = findEndOfLine();
+        line.setBytes(buffer, pos, end);
+        pos = end;
+        bytesRead = bytesDiscarded + pos;
+        return true;
+    }
+
+    /**
+     * Read more bytes from the stream into the buffer, after whatever is already there
+     * 
+     * @return true if any bytes were read, false if the end of the stream has been reached
+     * @throws IOException
+     *             if the stream cannot be read
+     */
+    private boolean fill() throws IOException {
+        if (eof) {
+            return false;
+        }
+        if (limit == buffer.length) {
+            if (pos > 0) {
+                // Discard the bytes already scanned to make room
+                System.arraycopy(buffer, pos, buffer, 0, limit - pos);
+                bytesDiscarded += pos;
+                limit -= pos;
+                pos = 0;
+            } else {
+                // A single line fills the whole buffer, so make the buffer bigger
+                byte[] newBuffer = new byte[buffer.length * 2];
+                System.arraycopy(buffer, 0, newBuffer, 0, limit);
+                buffer = newBuffer;
+            }
+        }
+        int n = byteStream.read(buffer, limit, buffer.length - limit);
+        if (n < 0) {
+            eof = true;
+            return false;
+        }
+        limit += n;
+        return true;
     }
 
     /**
-     * Close the readers created in this class. Private so it can't be overridden (like {@link #cleanUp()} can be), which makes it
-     * safe to call from the constructor.
+     * Find the end of the line starting at the current position, reading more of the stream as needed. This may move the line to
+     * the front of the buffer, but the current position always remains the start of the line.
      * 
+     * @return the position in the buffer just after the last byte of the line
      * @throws IOException
-     *             if the readers can't be closed
+     *             if the stream cannot be read
      */
-    private void closeReaders() throws IOException {
-        if (bufferedReader != null) {
-            bufferedReader.close();
+    private int findEndOfLine() throws IOException {
+        int scanned = 0;
+        while (true) {
+            for (int i = pos + scanned; i < limit; i++) {
+                byte b = buffer[i];
+                if (b == '\n' || b == '\r') {
+                    return i;
+                }
+            }
+            scanned = limit - pos;
+            if (!fill()) {
+                return limit;
+            }
         }
-        if (inputStreamReader != null) {
-            inputStreamReader.close();
+    }
+
+    /**
+     * Advance the current position past any ASCII whitespace (including line terminators), reading more of the stream as needed
+     * 
+     * @return true if there is a non-whitespace byte at the current position, false if the end of the data has been reached
+     * @throws IOException
+     *             if the stream cannot be read
+     */
+    private boolean skipLeadingWhitespace() throws IOException {
+        while (true) {
+            while (pos < limit) {
+                int c = buffer[pos];
+                if (c < 0 || c > ' ' || !Character.isWhitespace(c)) {
+                    return true;
+                }
+                pos++;
+            }
+            if (!fill()) {
+                return false;
+            }
         }
     }
 
@@ -158,24 +239,14 @@ final class Utf8Reader extends AbstractEncodingSpecificReader {
      * 
      * @param line
      *            the string to trim left leading whitespace from
-     * @return the line passed in with the leading whitespace removed. If the original string passed in was null, null is returned
-     *         here.
+     * @return the line passed in with the leading whitespace removed, or null if the line was entirely whitespace
      */
     private String leftTrim(String line) {
-        if (line == null) {
-            return null;
-        }
-        if (line.length() == 0) {
-            return "";
-        }
-        if (!Character.isWhitespace(line.charAt(0))) {
-            return line;
-        }
         for (int i = 0; i < line.length(); i++) {
             if (!Character.isWhitespace(line.charAt(i))) {
                 return line.substring(i);
             }
         }
-        return "";
+        return null;
     }
 }
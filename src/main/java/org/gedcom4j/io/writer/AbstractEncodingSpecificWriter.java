@@ -35,12 +35,34 @@ import org.gedcom4j.io.event.FileProgressEvent;
 import org.gedcom4j.writer.GedcomWriter;
 
 /**
+ * <p>
  * A base class for encoding-specific writer classes.
+ * </p>
+ * <p>
+ * Subclasses encode each line into a byte buffer that is reused for the life of the writer, and the buffer is written to the
+ * output stream only when it fills up (and when writing finishes), so the output stream sees a small number of large writes
+ * regardless of how it is buffered.
+ * </p>
  * 
  * @author frizbog
  */
 abstract class AbstractEncodingSpecificWriter {
 
+    /**
+     * The size of the buffer that encoded bytes are accumulated in before being written to the output stream
+     */
+    static final int BUFFER_SIZE = 65536;
+
+    /**
+     * The buffer that encoded bytes are accumulated in before being written to the output stream
+     */
+    protected final byte[] buffer = new byte[BUFFER_SIZE];
+
+    /**
+     * The number of bytes in {@link #buffer} that have not yet been written to the output stream
+     */
+    protected int bufferCount;
+
     /**
      * The lines of GEDCOM data to write
      */
@@ -66,6 +88,21 @@ abstract class AbstractEncodingSpecificWriter {
      */
     protected int notifyAfterThisManyLines = 0;
 
+    /**
+     * The number of lines written
+     */
+    protected int lineCount;
+
+    /**
+     * The encoded bytes of the line terminator, so they need not be worked out for every line
+     */
+    private byte[] lineTerminatorBytes;
+
+    /**
+     * The line terminator that {@link #lineTerminatorBytes} was encoded for
+     */
+    private LineTerminator lineTerminatorBytesFor;
+
     /**
      * Constructor
      * 
@@ -87,15 +124,47 @@ abstract class AbstractEncodingSpecificWriter {
      *             if the write operation was cancelled
      */
     public void write(OutputStream out) throws IOException, WriterCancelledException {
-        int lineCount = 0;
         for (String line : gedcomLines) {
-            if (lineCount >= notifyAfterThisManyLines) {
-                writer.notifyFileObservers(new FileProgressEvent(this, lineCount, bytesWritten, false));
-                notifyAfterThisManyLines += writer.getFileNotificationRate();
-            }
-            writeLine(out, line);
-            lineCount++;
+            writeLineWithProgress(out, line);
+        }
+        finish(out);
+    }
+
+    /**
+     * Write a single line of GEDCOM data to an output stream, encoding as needed, and notify the file observers if enough lines
+     * have been written since the last notification. Used when lines are streamed to the output as they are constructed rather
+     * than staged in a list first.
+     * 
+     * @param out
+     *            the output stream
+     * @param line
+     *            the line of text to write
+     * @throws IOException
+     *             if the data can't be written to the stream
+     * @throws WriterCancelledException
+     *             if the write operation was cancelled
+     */
+    void writeLineWithProgress(OutputStream out, String line) throws IOException, WriterCancelledException {
+        if (lineCount >= notifyAfterThisManyLines) {
+            writer.notifyFileObservers(new FileProgressEvent(this, lineCount, bytesWritten, false));
+            notifyAfterThisManyLines += writer.getFileNotificationRate();
         }
+        writeLine(out, line);
+        lineCount++;
+    }
+
+    /**
+     * Finish writing - write out whatever is left in the buffer, flush the output stream, and notify the file observers that the
+     * write is complete
+     * 
+     * @param out
+     *            the output stream
+     * @throws IOException
+     *             if the data can't be flushed to the stream
+     */
+    void finish(OutputStream out) throws IOException {
+        flushBuffer(out);
+        out.flush();
         writer.notifyFileObservers(new FileProgressEvent(this, lineCount, bytesWritten, true));
     }
 
@@ -123,5 +192,58 @@ abstract class AbstractEncodingSpecificWriter {
      * @throws WriterCancelledException
      *             if the write operation was cancelled
      */
-    protected abstract void writeLineTerminator(OutputStream out) throws IOException, WriterCancelledException;
+    protected void writeLineTerminator(OutputStream out) throws IOException, WriterCancelledException {
+        if (lineTerminatorBytes == null || !terminator.equals(lineTerminatorBytesFor)) {
+            lineTerminatorBytes = getLineTerminatorBytes(terminator);
+            lineTerminatorBytesFor = terminator;
+        }
+        ensureCapacity(out, lineTerminatorBytes.length);
+        System.arraycopy(lineTerminatorBytes, 0, buffer, bufferCount, lineTerminatorBytes.length);
+        bufferCount += lineTerminatorBytes.length;
+        bytesWritten += lineTerminatorBytes.length;
+        if (writer.isCancelled()) {
+            throw new WriterCancelledException("Construction and writing of GEDCOM cancelled");
+        }
+    }
+
+    /**
+     * Get the bytes to write for a line terminator in this encoding
+     * 
+     * @param lineTerminator
+     *            the line terminator
+     * @return the encoded bytes for the line terminator
+     */
+    protected abstract byte[] getLineTerminatorBytes(LineTerminator lineTerminator);
+
+    /**
+     * Make sure there is room in the buffer for the specified number of bytes, writing the buffer's contents to the output stream
+     * if there is not
+     * 
+     * @param out
+     *            the output stream we're writing to
+     * @param numBytes
+     *            the number of bytes that need to fit in the buffer. Must not exceed {@link #BUFFER_SIZE}.
+     * @throws IOException
+     *             if the buffer can't be written to the stream
+     */
+    protected final void ensureCapacity(OutputStream out, int numBytes) throws IOException {
+        if (bufferCount + numBytes > buffer.length) {
+            flushBuffer(out);
+        }
+    }
+
+    /**
+     * Write the contents of the buffer to the output stream and empty the buffer
+     * 
+     * @param out
+     *            the output stream we're writing to
+     * @throws IOException
+     *             if the buffer can't be written to the stream
+     */
+    protected final void flushBuffer(OutputStream out) throws IOException {
+        if (bufferCount > 0) {
+            out.write(buffer, 0, bufferCount);
+            bufferCount = 0;
+        }
+    }
 }
@@ -26,10 +26,6 @@
  */
 package org.gedcom4j.io.writer;
 
-import java.io.IOException;
-import java.io.OutputStream;
-
-import org.gedcom4j.exception.WriterCancelledException;
 import org.gedcom4j.writer.GedcomWriter;
 
 /**
@@ -53,32 +49,19 @@ public abstract class AbstractSingleByteWriter extends AbstractEncodingSpecificW
      * {@inheritDoc}
      */
     @Override
-    protected void writeLineTerminator(OutputStream out) throws IOException, WriterCancelledException {
-        switch (terminator) {
+    protected byte[] getLineTerminatorBytes(LineTerminator lineTerminator) {
+        switch (lineTerminator) {
             case CR_ONLY:
-                out.write((byte) 0x0D);
-                bytesWritten++;
-                break;
+                return new byte[] { 0x0D };
             case LF_ONLY:
-                out.write((byte) 0x0A);
-                bytesWritten++;
-                break;
+                return new byte[] { 0x0A };
             case LFCR:
-                out.write((byte) 0x0A);
-                out.write((byte) 0x0D);
-                bytesWritten += 2;
-                break;
+                return new byte[] { 0x0A, 0x0D };
             case CRLF:
-                out.write((byte) 0x0D);
-                out.write((byte) 0x0A);
-                bytesWritten += 2;
-                break;
+                return new byte[] { 0x0D, 0x0A };
             default:
-                throw new IllegalStateException("Terminator selection of " + terminator + " is an unrecognized value");
-        }
-        if (writer.isCancelled()) {
-            throw new WriterCancelledException("Construction and writing of GEDCOM cancelled");
+                throw new IllegalStateException("Terminator selection of " + lineTerminator + " is an unrecognized value");
         }
     }
 
-}
\ No newline at end of file
+}
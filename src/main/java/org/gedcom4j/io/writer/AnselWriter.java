@@ -61,11 +61,12 @@ class AnselWriter extends AbstractSingleByteWriter {
     @Override
     protected void writeLine(OutputStream out, String line) throws IOException, WriterCancelledException {
         String anselLine = anselHandler.toAnsel(line);
-        for (int i = 0; i < anselLine.length(); i++) {
-            char c = anselLine.charAt(i);
-            out.write(c);
-            bytesWritten++;
+        int len = anselLine.length();
+        for (int i = 0; i < len; i++) {
+            ensureCapacity(out, 1);
+            buffer[bufferCount++] = (byte) anselLine.charAt(i);
         }
+        bytesWritten += len;
         writeLineTerminator(out);
     }
 
@@ -59,14 +59,13 @@ class AsciiWriter extends AbstractSingleByteWriter {
      */
     @Override
     protected void writeLine(OutputStream out, String line) throws IOException, WriterCancelledException {
-        for (int i = 0; i < line.length(); i++) {
+        int len = line.length();
+        for (int i = 0; i < len; i++) {
             char c = line.charAt(i);
-            if (c < 0 || c > 0x7f) {
-                c = "?".charAt(0);
-            }
-            out.write(c);
-            bytesWritten++;
+            ensureCapacity(out, 1);
+            buffer[bufferCount++] = c > 0x7f ? (byte) '?' : (byte) c;
         }
+        bytesWritten += len;
         writeLineTerminator(out);
     }
 
@@ -41,6 +41,10 @@ import org.gedcom4j.writer.GedcomWriter;
  * and also limits the encodings to the three choices mentioned.
  * </p>
  * <p>
+ * Alternatively, the lines can be streamed to the output one at a time as they are constructed (see
+ * {@link #startStreaming(OutputStream)}), so that the whole file never needs to be held in memory.
+ * </p>
+ * <p>
  * Note that GEDCOM standard does not allow for BOM's or other preambles for encodings, so none is created by this class.
  * </p>
  * 
@@ -74,6 +78,11 @@ public class GedcomFileWriter {
      */
     private boolean useLittleEndianForUnicode = true;
 
+    /**
+     * The output stream lines are being streamed to, if streaming has been started
+     */
+    private OutputStream streamingOut;
+
     /**
      * Constructor
      * 
@@ -136,7 +145,66 @@ public class GedcomFileWriter {
      *             if the write operation was cancelled
      */
     public void write(OutputStream out) throws IOException, WriterCancelledException {
+        selectEncodingSpecificWriter();
+        encodingSpecificWriter.write(out);
+    }
+
+    /**
+     * Begin streaming lines to an output stream. The lines supplied to the constructor (which must include the header, so the
+     * character set can be determined) are encoded and written immediately; all subsequent lines are written one at a time by
+     * calling {@link #writeLine(String)}, and the write is completed by calling {@link #finishStreaming()}.
+     * 
+     * @param out
+     *            the output stream
+     * @throws IOException
+     *             if the data can't be written to the stream
+     * @throws WriterCancelledException
+     *             if the write operation was cancelled
+     */
+    public void startStreaming(OutputStream out) throws IOException, WriterCancelledException {
+        selectEncodingSpecificWriter();
+        streamingOut = out;
+        for (String line : gedcomLines) {
+            encodingSpecificWriter.writeLineWithProgress(streamingOut, line);
+        }
+    }
 
+    /**
+     * Write a single line to the output stream previously supplied to {@link #startStreaming(OutputStream)}, encoding as needed
+     * 
+     * @param line
+     *            the line of text to write
+     * @throws IOException
+     *             if the data can't be written to the stream
+     * @throws WriterCancelledException
+     *             if the write operation was cancelled
+     */
+    public void writeLine(String line) throws IOException, WriterCancelledException {
+        if (streamingOut == null) {
+            throw new IllegalStateException("Streaming has not been started");
+        }
+        encodingSpecificWriter.writeLineWithProgress(streamingOut, line);
+    }
+
+    /**
+     * Finish streaming lines to the output stream previously supplied to {@link #startStreaming(OutputStream)}. The stream is
+     * flushed but not closed.
+     * 
+     * @throws IOException
+     *             if the data can't be flushed to the stream
+     */
+    public void finishStreaming() throws IOException {
+        if (streamingOut == null) {
+            throw new IllegalStateException("Streaming has not been started");
+        }
+        encodingSpecificWriter.finish(streamingOut);
+        streamingOut = null;
+    }
+
+    /**
+     * Choose the encoding-specific writer to use, based on the character set specified in the lines of the file, and configure it
+     */
+    private void selectEncodingSpecificWriter() {
         encodingSpecificWriter = new AnselWriter(writer);
 
         for (String line : gedcomLines) {
@@ -160,7 +228,6 @@ public class GedcomFileWriter {
 
         encodingSpecificWriter.gedcomLines = gedcomLines;
         encodingSpecificWriter.terminator = terminator;
-        encodingSpecificWriter.write(out);
     }
 
 }
@@ -54,12 +54,14 @@ class UnicodeBigEndianWriter extends AbstractEncodingSpecificWriter {
      */
     @Override
     protected void writeLine(OutputStream out, String line) throws IOException, WriterCancelledException {
-        for (int i = 0; i < line.length(); i++) {
+        int len = line.length();
+        for (int i = 0; i < len; i++) {
             char c = line.charAt(i);
-            out.write(c >> 8);
-            out.write(c & 0x00FF);
-            bytesWritten += 2;
+            ensureCapacity(out, 2);
+            buffer[bufferCount++] = (byte) (c >> 8);
+            buffer[bufferCount++] = (byte) (c & 0x00FF);
         }
+        bytesWritten += len * 2;
         writeLineTerminator(out);
     }
 
@@ -67,37 +69,18 @@ class UnicodeBigEndianWriter extends AbstractEncodingSpecificWriter {
      * {@inheritDoc}
      */
     @Override
-    protected void writeLineTerminator(OutputStream out) throws IOException, WriterCancelledException {
-        switch (terminator) {
+    protected byte[] getLineTerminatorBytes(LineTerminator lineTerminator) {
+        switch (lineTerminator) {
             case CR_ONLY:
-                out.write((byte) 0x00);
-                out.write((byte) 0x0D);
-                bytesWritten += 2;
-                break;
+                return new byte[] { 0x00, 0x0D };
             case LF_ONLY:
-                out.write((byte) 0x00);
-                out.write((byte) 0x0A);
-                bytesWritten += 2;
-                break;
+                return new byte[] { 0x00, 0x0A };
             case LFCR:
-                out.write((byte) 0x00);
-                out.write((byte) 0x0A);
-                out.write((byte) 0x00);
-                out.write((byte) 0x0D);
-                bytesWritten += 4;
-                break;
+                return new byte[] { 0x00, 0x0A, 0x00, 0x0D };
             case CRLF:
-                out.write((byte) 0x00);
-                out.write((byte) 0x0D);
-                out.write((byte) 0x00);
-                out.write((byte) 0x0A);
-                bytesWritten += 4;
-                break;
+                return new byte[] { 0x00, 0x0D, 0x00, 0x0A };
             default:
-                throw new IllegalStateException("Terminator selection of " + terminator + " is an unrecognized value");
-        }
-        if (writer.isCancelled()) {
-            throw new WriterCancelledException("Construction and writing of GEDCOM cancelled");
+                throw new IllegalStateException("Terminator selection of " + lineTerminator + " is an unrecognized value");
         }
     }
 
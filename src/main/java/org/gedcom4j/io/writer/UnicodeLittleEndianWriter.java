@@ -53,12 +53,14 @@ class UnicodeLittleEndianWriter extends AbstractEncodingSpecificWriter {
      */
     @Override
     protected void writeLine(OutputStream out, String line) throws IOException, WriterCancelledException {
-        for (int i = 0; i < line.length(); i++) {
+        int len = line.length();
+        for (int i = 0; i < len; i++) {
             char c = line.charAt(i);
-            out.write(c & 0x00FF);
-            out.write(c >> 8);
-            bytesWritten += 2;
+            ensureCapacity(out, 2);
+            buffer[bufferCount++] = (byte) (c & 0x00FF);
+            buffer[bufferCount++] = (byte) (c >> 8);
         }
+        bytesWritten += len * 2;
         writeLineTerminator(out);
     }
 
@@ -66,37 +68,18 @@ class UnicodeLittleEndianWriter extends AbstractEncodingSpecificWriter {
      * {@inheritDoc}
      */
     @Override
-    protected void writeLineTerminator(OutputStream out) throws IOException, WriterCancelledException {
-        switch (terminator) {
+    protected byte[] getLineTerminatorBytes(LineTerminator lineTerminator) {
+        switch (lineTerminator) {
             case CR_ONLY:
-                out.write((byte) 0x0D);
-                out.write((byte) 0x00);
-                bytesWritten += 2;
-                break;
+                return new byte[] { 0x0D, 0x00 };
             case LF_ONLY:
-                out.write((byte) 0x0A);
-                out.write((byte) 0x00);
-                bytesWritten += 2;
-                break;
+                return new byte[] { 0x0A, 0x00 };
             case LFCR:
-                out.write((byte) 0x0A);
-                out.write((byte) 0x00);
-                out.write((byte) 0x0D);
-                out.write((byte) 0x00);
-                bytesWritten += 4;
-                break;
+                return new byte[] { 0x0A, 0x00, 0x0D, 0x00 };
             case CRLF:
-                out.write((byte) 0x0D);
-                out.write((byte) 0x00);
-                out.write((byte) 0x0A);
-                out.write((byte) 0x00);
-                bytesWritten += 4;
-                break;
+                return new byte[] { 0x0D, 0x00, 0x0A, 0x00 };
             default:
-                throw new IllegalStateException("Terminator selection of " + terminator + " is an unrecognized value");
-        }
-        if (writer.isCancelled()) {
-            throw new WriterCancelledException("Construction and writing of GEDCOM cancelled");
+                throw new IllegalStateException("Terminator selection of " + lineTerminator + " is an unrecognized value");
         }
     }
 
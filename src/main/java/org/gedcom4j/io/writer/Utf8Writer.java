@@ -28,11 +28,8 @@ package org.gedcom4j.io.writer;
 
 import java.io.IOException;
 import java.io.OutputStream;
-import java.io.OutputStreamWriter;
-import java.nio.charset.Charset;
 
 import org.gedcom4j.exception.WriterCancelledException;
-import org.gedcom4j.io.event.FileProgressEvent;
 import org.gedcom4j.writer.GedcomWriter;
 
 /**
@@ -42,11 +39,6 @@ import org.gedcom4j.writer.GedcomWriter;
  */
 class Utf8Writer extends AbstractEncodingSpecificWriter {
 
-    /**
-     * The number of lines written
-     */
-    private int lineCount;
-
     /**
      * Constructor
      * 
@@ -61,71 +53,54 @@ class Utf8Writer extends AbstractEncodingSpecificWriter {
      * {@inheritDoc}
      */
     @Override
-    public void write(OutputStream out) throws IOException, WriterCancelledException {
-        String lineTerminatorString = null;
-        switch (terminator) {
-            case CR_ONLY:
-                lineTerminatorString = "\r";
-                break;
-            case LF_ONLY:
-                lineTerminatorString = "\n";
-                break;
-            case LFCR:
-                lineTerminatorString = "\n\r";
-                break;
-            case CRLF:
-                lineTerminatorString = "\r\n";
-                break;
-            default:
-                throw new IllegalStateException("Terminator selection of " + terminator + " is an unrecognized value");
-        }
-
-        // Go ahead and use Java's built in UTF-8 encoder here
-        ProgressTrackingOutputStream outputStream = new ProgressTrackingOutputStream(out);
-        try (OutputStreamWriter osw = new OutputStreamWriter(outputStream, Charset.forName("UTF-8"))) {
-            for (String line : gedcomLines) {
-                osw.write(line);
-                bytesWritten = outputStream.bytesWritten;
-                osw.write(lineTerminatorString);
-                bytesWritten = outputStream.bytesWritten;
-                lineCount++;
-                if (lineCount >= notifyAfterThisManyLines) {
-                    writer.notifyFileObservers(new FileProgressEvent(this, lineCount, bytesWritten, false));
-                    notifyAfterThisManyLines += writer.getFileNotificationRate();
-                }
-
-                if (writer.isCancelled()) {
-                    throw new WriterCancelledException("Construction and writing of GEDCOM cancelled");
-                }
+    protected void writeLine(OutputStream out, String line) throws IOException, WriterCancelledException {
+        int len = line.length();
+        int i = 0;
+        while (i < len) {
+            char c = line.charAt(i++);
+            ensureCapacity(out, 4);
+            int start = bufferCount;
+            if (c < 0x80) {
+                buffer[bufferCount++] = (byte) c;
+            } else if (c < 0x800) {
+                buffer[bufferCount++] = (byte) (0xC0 | c >> 6);
+                buffer[bufferCount++] = (byte) (0x80 | c & 0x3F);
+            } else if (Character.isHighSurrogate(c) && i < len && Character.isLowSurrogate(line.charAt(i))) {
+                int codePoint = Character.toCodePoint(c, line.charAt(i++));
+                buffer[bufferCount++] = (byte) (0xF0 | codePoint >> 18);
+                buffer[bufferCount++] = (byte) (0x80 | codePoint >> 12 & 0x3F);
+                buffer[bufferCount++] = (byte) (0x80 | codePoint >> 6 & 0x3F);
+                buffer[bufferCount++] = (byte) (0x80 | codePoint & 0x3F);
+            } else if (Character.isSurrogate(c)) {
+                // Unpaired surrogate - can't be encoded, so substitute a question mark as Java's own UTF-8 encoder does
+                buffer[bufferCount++] = (byte) '?';
+            } else {
+                buffer[bufferCount++] = (byte) (0xE0 | c >> 12);
+                buffer[bufferCount++] = (byte) (0x80 | c >> 6 & 0x3F);
+                buffer[bufferCount++] = (byte) (0x80 | c & 0x3F);
             }
-            osw.flush();
-            bytesWritten = outputStream.bytesWritten;
+            bytesWritten += bufferCount - start;
         }
+        writeLineTerminator(out);
     }
 
     /**
-     * <p>
-     * Note: This writer implementation does not use the writeLine or writeLineTerminator methods.
-     * </p>
      * {@inheritDoc}
      */
     @Override
-    protected void writeLine(OutputStream out, String line) throws IOException {
-        // Not used
-        throw new UnsupportedOperationException(this.getClass().getName() + " does not use the abstract writeLine method");
-    }
-
-    /**
-     * <p>
-     * Note: This writer implementation does not use the writeLine or writeLineTerminator methods.
-     * </p>
-     * {@inheritDoc}
-     */
-    @Override
-    protected void writeLineTerminator(OutputStream out) throws IOException {
-        // Not used
-        throw new UnsupportedOperationException(this.getClass().getName()
-                + " does not use the abstract writeLineTerminator method");
+    protected byte[] getLineTerminatorBytes(LineTerminator lineTerminator) {
+        switch (lineTerminator) {
+            case CR_ONLY:
+                return new byte[] { 0x0D };
+            case LF_ONLY:
+                return new byte[] { 0x0A };
+            case LFCR:
+                return new byte[] { 0x0A, 0x0D };
+            case CRLF:
+                return new byte[] { 0x0D, 0x0A };
+            default:
+                throw new IllegalStateException("Terminator selection of " + lineTerminator + " is an unrecognized value");
+        }
     }
 
 }
@@ -26,6 +26,8 @@
  */
 package org.gedcom4j.model;
 
+import java.util.Map;
+
 /**
  * Indicates an individual's membership, as a spouse, in a family
  * 
@@ -43,6 +45,13 @@ public class FamilySpouse extends AbstractNotesElement {
      */
     private Family family;
 
+    /**
+     * The families to look the family up in by its xref each time it is asked for, rather than returning {@link #family} itself.
+     * Set for references in records loaded lazily, so the reference doesn't keep the family it refers to from being dropped from
+     * memory. Null to just use {@link #family}.
+     */
+    private transient Map<String, Family> familyLookup;
+
     /** Default constructor */
     public FamilySpouse() {
         // Default constructor does nothing
@@ -70,8 +79,9 @@ public class FamilySpouse extends AbstractNotesElement {
      */
     public FamilySpouse(FamilySpouse other, boolean deep) {
         super(other);
-        if (other.family != null) {
-            family = new Family(other.family, deep);
+        Family otherFamily = other.getFamily();
+        if (otherFamily != null) {
+            family = new Family(otherFamily, deep);
         }
     }
 
@@ -117,6 +127,12 @@ public class FamilySpouse extends AbstractNotesElement {
      * @return the family
      */
     public Family getFamily() {
+        if (familyLookup != null && family != null && family.getXref() != null) {
+            Family f = familyLookup.get(family.getXref());
+            if (f != null) {
+                return f;
+            }
+        }
         return family;
     }
 
@@ -141,6 +157,18 @@ public class FamilySpouse extends AbstractNotesElement {
         this.family = family;
     }
 
+    /**
+     * Set the families to look the family up in by its xref each time it is asked for, rather than returning the family that was
+     * set. This is used for the references in records loaded lazily, so that the family is loaded when needed, but the reference
+     * doesn't keep it from being dropped from memory. If the family isn't found there, the family that was set is returned.
+     * 
+     * @param familyLookup
+     *            the families, keyed by xref, or null to just return the family that was set
+     */
+    public void setFamilyLookup(Map<String, Family> familyLookup) {
+        this.familyLookup = familyLookup;
+    }
+
     /**
      * {@inheritDoc}
      */
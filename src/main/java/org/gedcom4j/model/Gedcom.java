@@ -27,7 +27,6 @@
 package org.gedcom4j.model;
 
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
 
@@ -100,7 +99,7 @@ public class Gedcom extends AbstractElement {
      * A map of all the families in the GEDCOM file. The map is keyed on family cross-reference numbers, and the families themselves
      * are in the value set.
      */
-    private final Map<String, Family> families = new HashMap<>();
+    private final Map<String, Family> families = new XrefMap<>();
 
     /**
      * Header information about the GEDCOM
@@ -111,31 +110,31 @@ public class Gedcom extends AbstractElement {
      * A map of all the individuals in the GEDCOM file. The map is keyed on the individual cross-reference numbers and the
      * individuals themselves are in the value set.
      */
-    private final Map<String, Individual> individuals = new HashMap<>(0);
+    private final Map<String, Individual> individuals = new XrefMap<>();
 
     /**
      * A map of all the multimedia items in the GEDCOM file. The map is keyed by the multimedia cross-reference numbers, and the
      * multimedia items themselves (well, the metadata about them for 5.5.1) are in the value set. Remember, GEDCOM 5.5.1 multimedia
      * is not embedded in the GEDCOM, but the GEDCOM contains metadata about the multimedia.
      */
-    private final Map<String, Multimedia> multimedia = new HashMap<>(0);
+    private final Map<String, Multimedia> multimedia = new XrefMap<>();
 
     /**
      * A map of notes. The map is keyed with cross-reference numbers and the notes themselves are the values.
      */
-    private final Map<String, NoteRecord> notes = new HashMap<>(0);
+    private final Map<String, NoteRecord> notes = new XrefMap<>();
 
     /**
      * A map of all the source repositories in the GEDCOM file. The map is keyed on the repository cross-reference numbers, and the
      * repositories themselves are in the value set.
      */
-    private final Map<String, Repository> repositories = new HashMap<>(0);
+    private final Map<String, Repository> repositories = new XrefMap<>();
 
     /**
      * A map of all the sources in the GEDCOM file. The map is keyed on source cross-reference numbers, and the sources themselves
      * are in the value set.
      */
-    private final Map<String, Source> sources = new HashMap<>(0);
+    private final Map<String, Source> sources = new XrefMap<>();
 
     /**
      * Information about the GEDCOM submission. There is only one and it is required, so the xref ID has a default.
@@ -146,7 +145,7 @@ public class Gedcom extends AbstractElement {
      * A map of the submitters in the GEDCOM file. The map is keyed on submitter cross-reference numbers, and the submitters
      * themselves are in the value set
      */
-    private final Map<String, Submitter> submitters = new HashMap<>(0);
+    private final Map<String, Submitter> submitters = new XrefMap<>();
 
     /**
      * The trailer of the file
@@ -166,31 +165,31 @@ public class Gedcom extends AbstractElement {
      */
     public Gedcom(Gedcom other) {
         super(other);
-        for (Family f : other.families.values()) {
+        for (Family f : other.getFamilies().values()) {
             families.put(f.getXref(), new Family(f));
         }
         if (other.header != null) {
             header = new Header(other.header);
         }
-        for (Individual i : other.individuals.values()) {
+        for (Individual i : other.getIndividuals().values()) {
             individuals.put(i.getXref(), new Individual(i));
         }
-        for (Multimedia m : other.multimedia.values()) {
+        for (Multimedia m : other.getMultimedia().values()) {
             multimedia.put(m.getXref(), new Multimedia(m));
         }
-        for (NoteRecord n : other.notes.values()) {
+        for (NoteRecord n : other.getNotes().values()) {
             notes.put(n.getXref(), new NoteRecord(n));
         }
-        for (Repository r : other.repositories.values()) {
+        for (Repository r : other.getRepositories().values()) {
             repositories.put(r.getXref(), new Repository(r));
         }
-        for (Source r : other.sources.values()) {
+        for (Source r : other.getSources().values()) {
             sources.put(r.getXref(), new Source(r));
         }
         if (other.submission != null) {
             submission = new Submission(other.submission);
         }
-        for (Submitter s : other.submitters.values()) {
+        for (Submitter s : other.getSubmitters().values()) {
             submitters.put(s.getXref(), new Submitter(s));
         }
         // All trailers are the same, and it's already initialized
@@ -215,28 +214,28 @@ public class Gedcom extends AbstractElement {
         } else if (!header.equals(other.header)) {
             return false;
         }
-        if (!families.equals(other.families)) {
+        if (!getFamilies().equals(other.getFamilies())) {
             return false;
         }
-        if (!individuals.equals(other.individuals)) {
+        if (!getIndividuals().equals(other.getIndividuals())) {
             return false;
         }
-        if (!multimedia.equals(other.multimedia)) {
+        if (!getMultimedia().equals(other.getMultimedia())) {
             return false;
         }
         if (!getNotes().equals(other.getNotes())) {
             return false;
         }
-        if (!repositories.equals(other.repositories)) {
+        if (!getRepositories().equals(other.getRepositories())) {
             return false;
         }
-        if (!sources.equals(other.sources)) {
+        if (!getSources().equals(other.getSources())) {
             return false;
         }
         if (!submission.equals(other.submission)) {
             return false;
         }
-        if (!submitters.equals(other.submitters)) {
+        if (!getSubmitters().equals(other.getSubmitters())) {
             return false;
         }
         if (trailer == null) {
@@ -346,15 +345,15 @@ public class Gedcom extends AbstractElement {
     public int hashCode() {
         final int prime = 31;
         int result = super.hashCode();
-        result = prime * result + (families == null ? 0 : families.hashCode());
+        result = prime * result + (getFamilies() == null ? 0 : getFamilies().hashCode());
         result = prime * result + (header == null ? 0 : header.hashCode());
-        result = prime * result + (individuals == null ? 0 : individuals.hashCode());
-        result = prime * result + (multimedia == null ? 0 : multimedia.hashCode());
+        result = prime * result + (getIndividuals() == null ? 0 : getIndividuals().hashCode());
+        result = prime * result + (getMultimedia() == null ? 0 : getMultimedia().hashCode());
         result = prime * result + (getNotes() == null ? 0 : getNotes().hashCode());
-        result = prime * result + (repositories == null ? 0 : repositories.hashCode());
-        result = prime * result + (sources == null ? 0 : sources.hashCode());
+        result = prime * result + (getRepositories() == null ? 0 : getRepositories().hashCode());
+        result = prime * result + (getSources() == null ? 0 : getSources().hashCode());
         result = prime * result + (submission == null ? 0 : submission.hashCode());
-        result = prime * result + (submitters == null ? 0 : submitters.hashCode());
+        result = prime * result + (getSubmitters() == null ? 0 : getSubmitters().hashCode());
         result = prime * result + (trailer == null ? 0 : trailer.hashCode());
         return result;
     }
@@ -403,21 +402,21 @@ public class Gedcom extends AbstractElement {
             builder.append(", ");
         }
         builder.append("families=");
-        builder.append(toStringLimitCollection(families.entrySet(), maxLen));
+        builder.append(toStringLimitCollection(getFamilies().entrySet(), maxLen));
         builder.append(", individuals=");
-        builder.append(toStringLimitCollection(individuals.entrySet(), maxLen));
+        builder.append(toStringLimitCollection(getIndividuals().entrySet(), maxLen));
         builder.append(", multimedia=");
-        builder.append(toStringLimitCollection(multimedia.entrySet(), maxLen));
+        builder.append(toStringLimitCollection(getMultimedia().entrySet(), maxLen));
         builder.append(", noteStructures=");
-        builder.append(toStringLimitCollection(notes.entrySet(), maxLen));
+        builder.append(toStringLimitCollection(getNotes().entrySet(), maxLen));
         builder.append(", repositories=");
-        builder.append(toStringLimitCollection(repositories.entrySet(), maxLen));
+        builder.append(toStringLimitCollection(getRepositories().entrySet(), maxLen));
         builder.append(", sources=");
-        builder.append(toStringLimitCollection(sources.entrySet(), maxLen));
+        builder.append(toStringLimitCollection(getSources().entrySet(), maxLen));
         builder.append(", submission=");
         builder.append(submission);
         builder.append(", submitters=");
-        builder.append(toStringLimitCollection(submitters.entrySet(), maxLen));
+        builder.append(toStringLimitCollection(getSubmitters().entrySet(), maxLen));
         builder.append(", ");
         if (trailer != null) {
             builder.append("trailer=");
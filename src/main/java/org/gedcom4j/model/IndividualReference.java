@@ -26,6 +26,8 @@
  */
 package org.gedcom4j.model;
 
+import java.util.Map;
+
 /**
  * A reference to an individual, which may have custom facts on the reference that are not custom facts about the individual
  * themselves.
@@ -44,6 +46,13 @@ public class IndividualReference extends AbstractElement {
      */
     Individual individual;
 
+    /**
+     * The individuals to look the individual up in by their xref each time they are asked for, rather than returning
+     * {@link #individual} itself. Set for references in records loaded lazily, so the reference doesn't keep the individual it
+     * refers to from being dropped from memory. Null to just use {@link #individual}.
+     */
+    private transient Map<String, Individual> individualLookup;
+
     /**
      * Default constructor
      */
@@ -73,7 +82,7 @@ public class IndividualReference extends AbstractElement {
      */
     public IndividualReference(IndividualReference other, boolean deep) {
         super(other);
-        individual = new Individual(other.individual, deep);
+        individual = new Individual(other.getIndividual(), deep);
     }
 
     /**
@@ -107,6 +116,12 @@ public class IndividualReference extends AbstractElement {
      * @return the individual
      */
     public Individual getIndividual() {
+        if (individualLookup != null && individual != null && individual.getXref() != null) {
+            Individual i = individualLookup.get(individual.getXref());
+            if (i != null) {
+                return i;
+            }
+        }
         return individual;
     }
 
@@ -131,6 +146,19 @@ public class IndividualReference extends AbstractElement {
         this.individual = individual;
     }
 
+    /**
+     * Set the individuals to look the individual up in by their xref each time they are asked for, rather than returning the
+     * individual that was set. This is used for the references in records loaded lazily, so that the individual is loaded when
+     * needed, but the reference doesn't keep them from being dropped from memory. If the individual isn't found there, the
+     * individual that was set is returned.
+     * 
+     * @param individualLookup
+     *            the individuals, keyed by xref, or null to just return the individual that was set
+     */
+    public void setIndividualLookup(Map<String, Individual> individualLookup) {
+        this.individualLookup = individualLookup;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -0,0 +1,743 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.model;
+
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * <p>
+ * A map of records by xref, as used for the record maps of a {@link Gedcom}. Each xref put in the map is given a dense integer id -
+ * 0 for the first, 1 for the next, and so on - and the xrefs and records are kept in arrays indexed by id, with an open-addressing
+ * hash table of ids to find them by. Compared to a {@link java.util.HashMap}, this means there is no entry object per record, and
+ * when the number of records is known in advance (see {@link #ensureCapacity(int)}), nothing needs to be rehashed as the map fills.
+ * </p>
+ * <p>
+ * The records are iterated in the order their xrefs were first put in the map, which for a parsed file is the order they (or
+ * references to them) appear in. Null keys and values are allowed, as for a {@link java.util.HashMap}. Like a
+ * {@link java.util.HashMap}, this class is not synchronized, and its iterators are fail-fast.
+ * </p>
+ * 
+ * @author frizbog
+ * @param <V>
+ *            the type of record
+ */
+@SuppressWarnings({ "PMD.TooManyMethods", "PMD.GodClass" })
+public final class XrefMap<V> extends AbstractMap<String, V> implements Serializable {
+
+    /**
+     * An entry in the map, for the xref with a given id
+     */
+    private final class IdEntry implements Map.Entry<String, V> {
+
+        /**
+         * The id of the xref
+         */
+        private final int id;
+
+        /**
+         * Constructor
+         * 
+         * @param id
+         *            the id of the xref
+         */
+        IdEntry(int id) {
+            this.id = id;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Map.Entry)) {
+                return false;
+            }
+            Map.Entry<?, ?> e = (Map.Entry<?, ?>) o;
+            return areEqual(getKey(), e.getKey()) && areEqual(getValue(), e.getValue());
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public String getKey() {
+            return keys[id];
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public V getValue() {
+            return valueAt(id);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int hashCode() {
+            String k = getKey();
+            V v = getValue();
+            return (k == null ? 0 : k.hashCode()) ^ (v == null ? 0 : v.hashCode());
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public V setValue(V value) {
+            V old = valueAt(id);
+            values[id] = value;
+            return old;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public String toString() {
+            return getKey() + "=" + getValue();
+        }
+    }
+
+    /**
+     * Iterates over the ids of the xrefs in the map, in order
+     * 
+     * @param <E>
+     *            the type of thing iterated over
+     */
+    private abstract class AbstractIdIterator<E> implements Iterator<E> {
+
+        /**
+         * The id of the next xref, or {@link #nextId} if there are no more
+         */
+        private int upcoming;
+
+        /**
+         * The id of the xref returned last, or -1 if there isn't one to remove
+         */
+        private int last = -1;
+
+        /**
+         * The modification count the iterator expects
+         */
+        private int expectedModCount = modCount;
+
+        /**
+         * Constructor
+         */
+        AbstractIdIterator() {
+            upcoming = skipRemoved(0);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public boolean hasNext() {
+            return upcoming < nextId;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public E next() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (upcoming >= nextId) {
+                throw new NoSuchElementException();
+            }
+            last = upcoming;
+            upcoming = skipRemoved(upcoming + 1);
+            return forId(last);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void remove() {
+            if (last < 0) {
+                throw new IllegalStateException();
+            }
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            removeId(last);
+            last = -1;
+            expectedModCount = modCount;
+        }
+
+        /**
+         * Get the thing to return for an id
+         * 
+         * @param id
+         *            the id
+         * @return the thing to return for the id
+         */
+        abstract E forId(int id);
+
+        /**
+         * Find the first id, from the one supplied, whose xref hasn't been removed
+         * 
+         * @param from
+         *            the id to start at
+         * @return the id, or {@link #nextId} if there isn't one
+         */
+        private int skipRemoved(int from) {
+            int id = from;
+            while (id < nextId && values[id] == REMOVED) {
+                id++;
+            }
+            return id;
+        }
+    }
+
+    /**
+     * Serial Version UID
+     */
+    private static final long serialVersionUID = 2304185745416283710L;
+
+    /**
+     * What the record of a removed xref is set to, so its id can be skipped over
+     */
+    private static final Object REMOVED = new Object();
+
+    /**
+     * The number of xrefs there is room for in a new map, unless another size is asked for
+     */
+    private static final int DEFAULT_CAPACITY = 8;
+
+    /**
+     * The xrefs, by id. Removed xrefs are null.
+     */
+    private transient String[] keys;
+
+    /**
+     * The records, by id. The records of removed xrefs are {@link #REMOVED}.
+     */
+    private transient Object[] values;
+
+    /**
+     * The hash table, in which each slot is either 0 for empty, or holds the (spread) hash code of an xref in its high 32 bits and
+     * 1 more than the xref's id in its low 32 bits. Keeping the hash codes in the table means a lookup only has to look at the
+     * xrefs themselves when the hash codes match, and the table can be rebuilt without looking at them at all. Always a power of
+     * two in size, and at most half full.
+     */
+    private transient long[] slots;
+
+    /**
+     * The id the next new xref will get
+     */
+    private transient int nextId;
+
+    /**
+     * The number of xrefs in the map
+     */
+    private transient int count;
+
+    /**
+     * The id of the null key, or -1 if it isn't in the map
+     */
+    private transient int nullKeyId = -1;
+
+    /**
+     * The number of times the map has had xrefs added or removed, for the iterators to check
+     */
+    private transient int modCount;
+
+    /**
+     * Constructor
+     */
+    public XrefMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructor, for a map that can hold the specified number of xrefs without growing
+     * 
+     * @param capacity
+     *            the number of xrefs there should be room for
+     */
+    public XrefMap(int capacity) {
+        allocate(Math.max(capacity, DEFAULT_CAPACITY));
+    }
+
+    /**
+     * Are two objects equal, allowing for nulls?
+     * 
+     * @param a
+     *            one object
+     * @param b
+     *            the other object
+     * @return true if they are both null, or equal
+     */
+    private static boolean areEqual(Object a, Object b) {
+        return a == null ? b == null : a.equals(b);
+    }
+
+    /**
+     * Spread the bits of a hash code, so that xrefs that differ only in their last few characters don't cluster in the table
+     * 
+     * @param h
+     *            the hash code
+     * @return the spread hash code
+     */
+    private static int spread(int h) {
+        int x = h * 0x9E3779B9;
+        return x ^ x >>> 16;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void clear() {
+        if (count > 0 || nextId > 0) {
+            allocate(DEFAULT_CAPACITY);
+            count = 0;
+            nextId = 0;
+            nullKeyId = -1;
+            modCount++;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean containsKey(Object key) {
+        return idOf(key) >= 0;
+    }
+
+    /**
+     * Make sure there is room for the specified number of xrefs in the map, so that it doesn't have to grow as they are added
+     * 
+     * @param capacity
+     *            the number of xrefs there should be room for
+     */
+    public void ensureCapacity(int capacity) {
+        if (capacity > keys.length) {
+            resize(capacity);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Set<Map.Entry<String, V>> entrySet() {
+        return new AbstractSet<Map.Entry<String, V>>() {
+
+            /**
+             * {@inheritDoc}
+             */
+            @Override
+            public void clear() {
+                XrefMap.this.clear();
+            }
+
+            /**
+             * {@inheritDoc}
+             */
+            @Override
+            public Iterator<Map.Entry<String, V>> iterator() {
+                return new AbstractIdIterator<Map.Entry<String, V>>() {
+
+                    /**
+                     * {@inheritDoc}
+                     */
+                    @Override
+                    Map.Entry<String, V> forId(int id) {
+                        return new IdEntry(id);
+                    }
+                };
+            }
+
+            /**
+             * {@inheritDoc}
+             */
+            @Override
+            public int size() {
+                return count;
+            }
+        };
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public V get(Object key) {
+        int id = idOf(key);
+        return id < 0 ? null : valueAt(id);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Set<String> keySet() {
+        return new AbstractSet<String>() {
+
+            /**
+             * {@inheritDoc}
+             */
+            @Override
+            public void clear() {
+                XrefMap.this.clear();
+            }
+
+            /**
+             * {@inheritDoc}
+             */
+            @Override
+            public boolean contains(Object o) {
+                return containsKey(o);
+            }
+
+            /**
+             * {@inheritDoc}
+             */
+            @Override
+            public Iterator<String> iterator() {
+                return new AbstractIdIterator<String>() {
+
+                    /**
+                     * {@inheritDoc}
+                     */
+                    @Override
+                    String forId(int id) {
+                        return keys[id];
+                    }
+                };
+            }
+
+            /**
+             * {@inheritDoc}
+             */
+            @Override
+            public boolean remove(Object o) {
+                int id = idOf(o);
+                if (id < 0) {
+                    return false;
+                }
+                removeId(id);
+                return true;
+            }
+
+            /**
+             * {@inheritDoc}
+             */
+            @Override
+            public int size() {
+                return count;
+            }
+        };
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public V put(String key, V value) {
+        int id = idOf(key);
+        if (id >= 0) {
+            V old = valueAt(id);
+            values[id] = value;
+            return old;
+        }
+        if (nextId == keys.length) {
+            resize(count + 1);
+        }
+        id = nextId++;
+        keys[id] = key;
+        values[id] = value;
+        if (key == null) {
+            nullKeyId = id;
+        } else {
+            insertSlot(spread(key.hashCode()), id);
+        }
+        count++;
+        modCount++;
+        return null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public V remove(Object key) {
+        int id = idOf(key);
+        if (id < 0) {
+            return null;
+        }
+        V old = valueAt(id);
+        removeId(id);
+        return old;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Make new, empty arrays
+     * 
+     * @param capacity
+     *            the number of xrefs there should be room for
+     */
+    private void allocate(int capacity) {
+        keys = new String[capacity];
+        values = new Object[capacity];
+        int tableSize = Integer.highestOneBit(Math.max(capacity * 2 - 1, 1)) << 1;
+        slots = new long[tableSize];
+    }
+
+    /**
+     * Find the id of an xref
+     * 
+     * @param key
+     *            the xref
+     * @return the id of the xref, or -1 if it isn't in the map
+     */
+    private int idOf(Object key) {
+        if (key == null) {
+            return nullKeyId;
+        }
+        if (!(key instanceof String)) {
+            return -1;
+        }
+        int hash = spread(key.hashCode());
+        int mask = slots.length - 1;
+        int i = hash & mask;
+        long slot = slots[i];
+        while (slot != 0) {
+            if ((int) (slot >>> 32) == hash) {
+                int id = (int) slot - 1;
+                String k = keys[id];
+                if (key.equals(k)) {
+                    return id;
+                }
+            }
+            i = i + 1 & mask;
+            slot = slots[i];
+        }
+        return -1;
+    }
+
+    /**
+     * Put an id in the hash table
+     * 
+     * @param hash
+     *            the spread hash code of the xref with the id
+     * @param id
+     *            the id
+     */
+    private void insertSlot(int hash, int id) {
+        int mask = slots.length - 1;
+        int i = hash & mask;
+        while (slots[i] != 0) {
+            i = i + 1 & mask;
+        }
+        slots[i] = (long) hash << 32 | id + 1;
+    }
+
+    /**
+     * Read the map from a stream
+     * 
+     * @param in
+     *            the stream
+     * @throws IOException
+     *             if the stream can't be read
+     * @throws ClassNotFoundException
+     *             if the class of a record can't be found
+     */
+    @SuppressWarnings("unchecked")
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        int n = in.readInt();
+        if (n < 0) {
+            throw new InvalidObjectException("Negative size: " + n);
+        }
+        nullKeyId = -1;
+        allocate(Math.max(n, DEFAULT_CAPACITY));
+        for (int i = 0; i < n; i++) {
+            put((String) in.readObject(), (V) in.readObject());
+        }
+    }
+
+    /**
+     * Remove the xref with an id
+     * 
+     * @param id
+     *            the id
+     */
+    private void removeId(int id) {
+        String key = keys[id];
+        if (key == null) {
+            nullKeyId = -1;
+        } else {
+            removeSlot(spread(key.hashCode()), id);
+        }
+        keys[id] = null;
+        values[id] = REMOVED;
+        count--;
+        modCount++;
+    }
+
+    /**
+     * Take an id out of the hash table, moving back any ids after it in the same run of full slots that would otherwise no longer
+     * be found
+     * 
+     * @param hash
+     *            the spread hash code of the xref with the id
+     * @param id
+     *            the id
+     */
+    private void removeSlot(int hash, int id) {
+        int mask = slots.length - 1;
+        int i = hash & mask;
+        while ((int) slots[i] != id + 1) {
+            i = i + 1 & mask;
+        }
+        int j = i;
+        while (true) {
+            j = j + 1 & mask;
+            long slot = slots[j];
+            if (slot == 0) {
+                break;
+            }
+            int home = (int) (slot >>> 32) & mask;
+            // Move the id back to the gap unless its home slot is after the gap, up to where it is now (going round the end)
+            boolean homeInRange = i <= j ? i < home && home <= j : i < home || home <= j;
+            if (!homeInRange) {
+                slots[i] = slot;
+                i = j;
+            }
+        }
+        slots[i] = 0;
+    }
+
+    /**
+     * Make room for more xrefs, dropping the removed ones so the ids of the xrefs left are dense again
+     * 
+     * @param capacity
+     *            the number of xrefs there needs to be room for
+     */
+    private void resize(int capacity) {
+        String[] oldKeys = keys;
+        Object[] oldValues = values;
+        int oldNextId = nextId;
+        int newCapacity = Math.max(capacity, count < oldKeys.length / 2 ? oldKeys.length : oldKeys.length * 2);
+        if (count == oldNextId) {
+            // Nothing has been removed, so the ids stay the same, and the table can be rebuilt from the hash codes in the old one
+            long[] oldSlots = slots;
+            allocate(newCapacity);
+            System.arraycopy(oldKeys, 0, keys, 0, oldNextId);
+            System.arraycopy(oldValues, 0, values, 0, oldNextId);
+            int mask = slots.length - 1;
+            for (long slot : oldSlots) {
+                if (slot != 0) {
+                    int i = (int) (slot >>> 32) & mask;
+                    while (slots[i] != 0) {
+                        i = i + 1 & mask;
+                    }
+                    slots[i] = slot;
+                }
+            }
+            modCount++;
+            return;
+        }
+        allocate(newCapacity);
+        nextId = 0;
+        nullKeyId = -1;
+        for (int i = 0; i < oldNextId; i++) {
+            String key = oldKeys[i];
+            if (oldValues[i] != REMOVED) {
+                int id = nextId++;
+                keys[id] = key;
+                values[id] = oldValues[i];
+                if (key == null) {
+                    nullKeyId = id;
+                } else {
+                    insertSlot(spread(key.hashCode()), id);
+                }
+            }
+        }
+        modCount++;
+    }
+
+    /**
+     * Get the record with an id
+     * 
+     * @param id
+     *            the id
+     * @return the record
+     */
+    @SuppressWarnings("unchecked")
+    private V valueAt(int id) {
+        return (V) values[id];
+    }
+
+    /**
+     * Write the map to a stream
+     * 
+     * @param out
+     *            the stream
+     * @throws IOException
+     *             if the stream can't be written
+     */
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        out.writeInt(count);
+        for (int i = 0; i < nextId; i++) {
+            if (values[i] != REMOVED) {
+                out.writeObject(keys[i]);
+                out.writeObject(values[i]);
+            }
+        }
+    }
+}
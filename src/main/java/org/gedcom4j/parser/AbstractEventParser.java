@@ -27,7 +27,6 @@
 package org.gedcom4j.parser;
 
 import org.gedcom4j.model.AbstractEvent;
-import org.gedcom4j.model.StringTree;
 import org.gedcom4j.model.StringWithCustomFacts;
 
 /**
@@ -44,29 +43,31 @@ public abstract class AbstractEventParser<T extends AbstractEvent> extends Abstr
      * 
      * @param gedcomParser
      *            a reference to the root {@link GedcomParser}
-     * @param stringTree
-     *            {@link StringTree} to be parsed
+     * @param tree
+     *            the tree of lines being parsed
+     * @param node
+     *            the node in the tree to be parsed
      * @param loadInto
      *            the object we are loading data into
      */
-    public AbstractEventParser(GedcomParser gedcomParser, StringTree stringTree, T loadInto) {
-        super(gedcomParser, stringTree, loadInto);
+    public AbstractEventParser(GedcomParser gedcomParser, StringTreeArena tree, int node, T loadInto) {
+        super(gedcomParser, tree, node, loadInto);
     }
 
     /**
      * Parse the Y or Null portion of the event after the tag
      */
     protected void parseYNull() {
-        if ("Y".equals(stringTree.getValue())) {
-            loadInto.setYNull(stringTree.getValue());
+        if ("Y".equals(tree.getValue(node))) {
+            loadInto.setYNull(tree.getValue(node));
             loadInto.setDescription((String) null);
-        } else if (stringTree.getValue() == null || stringTree.getValue().trim().length() == 0) {
+        } else if (tree.getValue(node) == null || tree.getValue(node).trim().length() == 0) {
             loadInto.setYNull(null);
             loadInto.setDescription((String) null);
         } else {
             loadInto.setYNull(null);
-            loadInto.setDescription(new StringWithCustomFacts(stringTree.getValue()));
-            addWarning(stringTree.getTag() + " tag had description rather than [Y|<NULL>] - violates standard");
+            loadInto.setDescription(new StringWithCustomFacts(tree.getValue(node)));
+            addWarning(tree.getTag(node) + " tag had description rather than [Y|<NULL>] - violates standard");
         }
     }
 
@@ -31,15 +31,17 @@ import java.util.List;
 import org.gedcom4j.model.AbstractElement;
 import org.gedcom4j.model.CustomFact;
 import org.gedcom4j.model.Family;
+import org.gedcom4j.model.FamilyChild;
+import org.gedcom4j.model.FamilySpouse;
 import org.gedcom4j.model.Gedcom;
 import org.gedcom4j.model.HasCustomFacts;
 import org.gedcom4j.model.Individual;
+import org.gedcom4j.model.IndividualReference;
 import org.gedcom4j.model.MultiStringWithCustomFacts;
 import org.gedcom4j.model.Multimedia;
 import org.gedcom4j.model.NoteRecord;
 import org.gedcom4j.model.Repository;
 import org.gedcom4j.model.Source;
-import org.gedcom4j.model.StringTree;
 import org.gedcom4j.model.StringWithCustomFacts;
 import org.gedcom4j.model.Submitter;
 import org.gedcom4j.model.enumerations.SupportedVersion;
@@ -51,10 +53,13 @@ import org.gedcom4j.model.enumerations.SupportedVersion;
  *            The type of object this parser can load into
  * @author frizbog
  */
-@SuppressWarnings("PMD.GodClass")
+@SuppressWarnings({ "PMD.GodClass", "PMD.TooManyMethods" })
 abstract class AbstractParser<T> {
-    /** The {@link StringTree} to be parsed */
-    protected final StringTree stringTree;
+    /** The tree of lines being parsed */
+    protected final StringTreeArena tree;
+
+    /** The node in the tree to be parsed */
+    protected final int node;
 
     /** a reference to the root {@link GedcomParser} */
     protected final GedcomParser gedcomParser;
@@ -67,14 +72,17 @@ abstract class AbstractParser<T> {
      * 
      * @param gedcomParser
      *            a reference to the root {@link GedcomParser}
-     * @param stringTree
-     *            {@link StringTree} to be parsed
+     * @param tree
+     *            the tree of lines being parsed
+     * @param node
+     *            the node in the tree to be parsed
      * @param loadInto
      *            the object we are loading data into
      */
-    AbstractParser(GedcomParser gedcomParser, StringTree stringTree, T loadInto) {
+    AbstractParser(GedcomParser gedcomParser, StringTreeArena tree, int node, T loadInto) {
         this.gedcomParser = gedcomParser == null && this instanceof GedcomParser ? (GedcomParser) this : gedcomParser;
-        this.stringTree = stringTree;
+        this.tree = tree;
+        this.node = node;
         this.loadInto = loadInto;
     }
 
@@ -111,126 +119,181 @@ abstract class AbstractParser<T> {
     }
 
     /**
-     * Get a family by their xref, adding them to the gedcom collection of families if needed.
+     * Get a family by their xref, adding them to the gedcom collection of families if needed. When loading in streaming mode, a new
+     * placeholder family is returned every time, and nothing is added.
      * 
      * @param xref
      *            the xref of the family
      * @return the family with the specified xref
      */
     protected Family getFamily(String xref) {
-        Family f = gedcomParser.getGedcom().getFamilies().get(xref);
-        if (f == null) {
-            f = new Family();
+        if (gedcomParser.isStreaming()) {
+            Family f = new Family();
             f.setXref(xref);
-            gedcomParser.getGedcom().getFamilies().put(xref, f);
+            return f;
+        }
+        Gedcom g = gedcomParser.getGedcom();
+        synchronized (g) {
+            Family f = g.getFamilies().get(xref);
+            if (f == null) {
+                f = new Family();
+                f.setXref(xref);
+                g.getFamilies().put(xref, f);
+            }
+            return f;
         }
-        return f;
     }
 
     /**
-     * Get an individual by their xref, adding them to the gedcom collection of individuals if needed.
+     * Get an individual by their xref, adding them to the gedcom collection of individuals if needed. When loading in streaming
+     * mode, an new placeholder individual is returned every time, and nothing is added.
      * 
      * @param xref
      *            the xref of the individual
      * @return the individual with the specified xref
      */
     protected Individual getIndividual(String xref) {
-        Individual i;
-        i = gedcomParser.getGedcom().getIndividuals().get(xref);
-        if (i == null) {
-            i = new Individual();
+        if (gedcomParser.isStreaming()) {
+            Individual i = new Individual();
             i.setXref(xref);
-            gedcomParser.getGedcom().getIndividuals().put(xref, i);
+            return i;
+        }
+        Gedcom g = gedcomParser.getGedcom();
+        synchronized (g) {
+            Individual i = g.getIndividuals().get(xref);
+            if (i == null) {
+                i = new Individual();
+                i.setXref(xref);
+                g.getIndividuals().put(xref, i);
+            }
+            return i;
         }
-        return i;
     }
 
     /**
-     * Get a multimedia item by its xref, adding it to the gedcom collection of multimedia items if needed.
+     * Get a multimedia item by its xref, adding it to the gedcom collection of multimedia items if needed. When loading in
+     * streaming mode, a new placeholder multimedia item is returned every time, and nothing is added.
      * 
      * @param xref
      *            the xref of the multimedia item
      * @return the multimedia item with the specified xref
      */
     protected Multimedia getMultimedia(String xref) {
-        Multimedia m;
-        m = gedcomParser.getGedcom().getMultimedia().get(xref);
-        if (m == null) {
-            m = new Multimedia();
+        if (gedcomParser.isStreaming()) {
+            Multimedia m = new Multimedia();
             m.setXref(xref);
-            gedcomParser.getGedcom().getMultimedia().put(xref, m);
+            return m;
+        }
+        Gedcom g = gedcomParser.getGedcom();
+        synchronized (g) {
+            Multimedia m = g.getMultimedia().get(xref);
+            if (m == null) {
+                m = new Multimedia();
+                m.setXref(xref);
+                g.getMultimedia().put(xref, m);
+            }
+            return m;
         }
-        return m;
     }
 
     /**
-     * Get a note record by their xref, adding them to the gedcom collection of {@link NoteRecord}s if needed.
+     * Get a note record by their xref, adding them to the gedcom collection of {@link NoteRecord}s if needed. When loading in
+     * streaming mode, a new placeholder note record is returned every time, and nothing is added.
      * 
      * @param xref
      *            the xref of the note record
      * @return the note record with the specified xref
      */
     protected NoteRecord getNoteRecord(String xref) {
-        NoteRecord nr;
-        nr = gedcomParser.getGedcom().getNotes().get(xref);
-        if (nr == null) {
-            nr = new NoteRecord(xref);
-            gedcomParser.getGedcom().getNotes().put(xref, nr);
+        if (gedcomParser.isStreaming()) {
+            return new NoteRecord(xref);
+        }
+        Gedcom g = gedcomParser.getGedcom();
+        synchronized (g) {
+            NoteRecord nr = g.getNotes().get(xref);
+            if (nr == null) {
+                nr = new NoteRecord(xref);
+                g.getNotes().put(xref, nr);
+            }
+            return nr;
         }
-        return nr;
     }
 
     /**
-     * Get a repository by its xref, adding it to the gedcom collection of repositories if needed.
+     * Get a repository by its xref, adding it to the gedcom collection of repositories if needed. When loading in streaming mode, a
+     * new placeholder repository is returned every time, and nothing is added.
      * 
      * @param xref
      *            the xref of the repository
      * @return the repository with the specified xref
      */
     protected Repository getRepository(String xref) {
-        Repository r = gedcomParser.getGedcom().getRepositories().get(xref);
-        if (r == null) {
-            r = new Repository();
+        if (gedcomParser.isStreaming()) {
+            Repository r = new Repository();
             r.setXref(xref);
-            gedcomParser.getGedcom().getRepositories().put(xref, r);
+            return r;
+        }
+        Gedcom g = gedcomParser.getGedcom();
+        synchronized (g) {
+            Repository r = g.getRepositories().get(xref);
+            if (r == null) {
+                r = new Repository();
+                r.setXref(xref);
+                g.getRepositories().put(xref, r);
+            }
+            return r;
         }
-        return r;
-
     }
 
     /**
-     * Get a source by its xref, adding it to the gedcom collection of sources if needed.
+     * Get a source by its xref, adding it to the gedcom collection of sources if needed. When loading in streaming mode, a new
+     * placeholder source is returned every time, and nothing is added.
      * 
      * @param xref
      *            the xref of the source
      * @return the source with the specified xref
      */
     protected Source getSource(String xref) {
-        Source src = gedcomParser.getGedcom().getSources().get(xref);
-        if (src == null) {
-            src = new Source(xref);
-            gedcomParser.getGedcom().getSources().put(src.getXref(), src);
+        if (gedcomParser.isStreaming()) {
+            return new Source(xref);
+        }
+        Gedcom g = gedcomParser.getGedcom();
+        synchronized (g) {
+            Source src = g.getSources().get(xref);
+            if (src == null) {
+                src = new Source(xref);
+                g.getSources().put(src.getXref(), src);
+            }
+            return src;
         }
-        return src;
     }
 
     /**
-     * Get a submitter by their xref, adding them to the gedcom collection of submitters if needed.
+     * Get a submitter by their xref, adding them to the gedcom collection of submitters if needed. When loading in streaming mode,
+     * a new placeholder submitter is returned every time, and nothing is added.
      * 
      * @param xref
      *            the xref of the submitter
      * @return the submitter with the specified xref
      */
     protected Submitter getSubmitter(String xref) {
-        Submitter s;
-        s = gedcomParser.getGedcom().getSubmitters().get(xref);
-        if (s == null) {
-            s = new Submitter();
+        if (gedcomParser.isStreaming()) {
+            Submitter s = new Submitter();
             s.setName("UNSPECIFIED");
             s.setXref(xref);
-            gedcomParser.getGedcom().getSubmitters().put(xref, s);
+            return s;
+        }
+        Gedcom g = gedcomParser.getGedcom();
+        synchronized (g) {
+            Submitter s = g.getSubmitters().get(xref);
+            if (s == null) {
+                s = new Submitter();
+                s.setName("UNSPECIFIED");
+                s.setXref(xref);
+                g.getSubmitters().put(xref, s);
+            }
+            return s;
         }
-        return s;
     }
 
     /**
@@ -243,25 +306,26 @@ abstract class AbstractParser<T> {
      * @param element
      *            the parent element to which the <code>listOfString</code> belongs
      */
-    protected void loadMultiLinesOfText(StringTree stringTreeWithLinesOfText, List<String> listOfString, AbstractElement element) {
-        if (stringTreeWithLinesOfText.getValue() != null) {
-            listOfString.add(stringTreeWithLinesOfText.getValue());
+    protected void loadMultiLinesOfText(int stringTreeWithLinesOfText, List<String> listOfString, AbstractElement element) {
+        if (tree.getValue(stringTreeWithLinesOfText) != null) {
+            listOfString.add(tree.getValue(stringTreeWithLinesOfText));
         }
-        if (stringTreeWithLinesOfText.getChildren() != null) {
-            for (StringTree ch : stringTreeWithLinesOfText.getChildren()) {
-                if (Tag.CONTINUATION.equalsText(ch.getTag())) {
-                    if (ch.getValue() == null) {
+        if (tree.hasChildren(stringTreeWithLinesOfText)) {
+            for (int ch = tree.getFirstChild(stringTreeWithLinesOfText); ch != StringTreeArena.NONE; ch = tree.getNextSibling(ch)) {
+                if (Tag.CONTINUATION.equalsText(tree.getTag(ch))) {
+                    if (tree.getValue(ch) == null) {
                         listOfString.add("");
                     } else {
-                        listOfString.add(ch.getValue());
+                        listOfString.add(tree.getValue(ch));
                     }
-                } else if (Tag.CONCATENATION.equalsText(ch.getTag())) {
+                } else if (Tag.CONCATENATION.equalsText(tree.getTag(ch))) {
                     // If there's no value to concatenate, ignore it
-                    if (ch.getValue() != null) {
+                    if (tree.getValue(ch) != null) {
                         if (listOfString.isEmpty()) {
-                            listOfString.add(ch.getValue());
+                            listOfString.add(tree.getValue(ch));
                         } else {
-                            listOfString.set(listOfString.size() - 1, listOfString.get(listOfString.size() - 1) + ch.getValue());
+                            listOfString.set(listOfString.size() - 1, listOfString.get(listOfString.size() - 1) + tree
+                                    .getValue(ch));
                         }
                     }
                 } else {
@@ -279,26 +343,27 @@ abstract class AbstractParser<T> {
      * @param multiString
      *            the multi-line object (with custom facts) that we're loading into
      */
-    protected void loadMultiStringWithCustomFacts(StringTree stringTreeWithLinesOfText, MultiStringWithCustomFacts multiString) {
+    protected void loadMultiStringWithCustomFacts(int stringTreeWithLinesOfText, MultiStringWithCustomFacts multiString) {
         List<String> listOfString = multiString.getLines(true);
-        if (stringTreeWithLinesOfText.getValue() != null) {
-            listOfString.add(stringTreeWithLinesOfText.getValue());
+        if (tree.getValue(stringTreeWithLinesOfText) != null) {
+            listOfString.add(tree.getValue(stringTreeWithLinesOfText));
         }
-        if (stringTreeWithLinesOfText.getChildren() != null) {
-            for (StringTree ch : stringTreeWithLinesOfText.getChildren()) {
-                if (Tag.CONTINUATION.equalsText(ch.getTag())) {
-                    if (ch.getValue() == null) {
+        if (tree.hasChildren(stringTreeWithLinesOfText)) {
+            for (int ch = tree.getFirstChild(stringTreeWithLinesOfText); ch != StringTreeArena.NONE; ch = tree.getNextSibling(ch)) {
+                if (Tag.CONTINUATION.equalsText(tree.getTag(ch))) {
+                    if (tree.getValue(ch) == null) {
                         listOfString.add("");
                     } else {
-                        listOfString.add(ch.getValue());
+                        listOfString.add(tree.getValue(ch));
                     }
-                } else if (Tag.CONCATENATION.equalsText(ch.getTag())) {
+                } else if (Tag.CONCATENATION.equalsText(tree.getTag(ch))) {
                     // If there's no value to concatenate, ignore it
-                    if (ch.getValue() != null) {
+                    if (tree.getValue(ch) != null) {
                         if (listOfString.isEmpty()) {
-                            listOfString.add(ch.getValue());
+                            listOfString.add(tree.getValue(ch));
                         } else {
-                            listOfString.set(listOfString.size() - 1, listOfString.get(listOfString.size() - 1) + ch.getValue());
+                            listOfString.set(listOfString.size() - 1, listOfString.get(listOfString.size() - 1) + tree
+                                    .getValue(ch));
                         }
                     }
                 } else {
@@ -308,6 +373,54 @@ abstract class AbstractParser<T> {
         }
     }
 
+    /**
+     * Create a reference to a family where an individual was a child. When loading a record for a {@link LazyGedcom}, the reference
+     * looks the family up in the {@link LazyGedcom} each time it is asked for, rather than returning the placeholder family.
+     * 
+     * @return the new reference
+     */
+    protected FamilyChild newFamilyChild() {
+        FamilyChild fc = new FamilyChild();
+        Gedcom g = gedcomParser.getGedcom();
+        if (g instanceof LazyGedcom) {
+            fc.setFamilyLookup(g.getFamilies());
+        }
+        return fc;
+    }
+
+    /**
+     * Create a reference to a family where an individual was a spouse. When loading a record for a {@link LazyGedcom}, the
+     * reference looks the family up in the {@link LazyGedcom} each time it is asked for, rather than returning the placeholder
+     * family.
+     * 
+     * @return the new reference
+     */
+    protected FamilySpouse newFamilySpouse() {
+        FamilySpouse fs = new FamilySpouse();
+        Gedcom g = gedcomParser.getGedcom();
+        if (g instanceof LazyGedcom) {
+            fs.setFamilyLookup(g.getFamilies());
+        }
+        return fs;
+    }
+
+    /**
+     * Create a reference to an individual. When loading a record for a {@link LazyGedcom}, the reference looks the individual up in
+     * the {@link LazyGedcom} each time they are asked for, rather than returning the placeholder individual.
+     * 
+     * @param xref
+     *            the xref of the individual
+     * @return the new reference
+     */
+    protected IndividualReference newIndividualReference(String xref) {
+        IndividualReference ir = new IndividualReference(getIndividual(xref));
+        Gedcom g = gedcomParser.getGedcom();
+        if (g instanceof LazyGedcom) {
+            ir.setIndividualLookup(g.getIndividuals());
+        }
+        return ir;
+    }
+
     /**
      * Helper method to take a string tree and all its children and load them into a StringWithCustomFacts object
      * 
@@ -316,14 +429,14 @@ abstract class AbstractParser<T> {
      * @return the constructed {@link StringWithCustomFacts}, with all the {@link CustomFact} objects built from the string tree's
      *         children
      */
-    protected StringWithCustomFacts parseStringWithCustomFacts(StringTree ch) {
-        StringWithCustomFacts swcf = new StringWithCustomFacts(ch.getValue());
-        if (ch.getChildren() != null) {
-            for (StringTree gch : ch.getChildren()) {
-                CustomFact cf = new CustomFact(gch.getTag());
+    protected StringWithCustomFacts parseStringWithCustomFacts(int ch) {
+        StringWithCustomFacts swcf = new StringWithCustomFacts(tree.getValue(ch));
+        if (tree.hasChildren(ch)) {
+            for (int gch = tree.getFirstChild(ch); gch != StringTreeArena.NONE; gch = tree.getNextSibling(gch)) {
+                CustomFact cf = new CustomFact(tree.getTag(gch));
                 swcf.getCustomFacts(true).add(cf);
-                cf.setXref(gch.getXref());
-                new CustomFactParser(gedcomParser, gch, cf).parse();
+                cf.setXref(tree.getXref(gch));
+                new CustomFactParser(gedcomParser, tree, gch, cf).parse();
             }
         }
         return swcf;
@@ -336,15 +449,15 @@ abstract class AbstractParser<T> {
      *            the node
      * @return true if and only if the node passed in uses a cross-reference to another node
      */
-    protected boolean referencesAnotherNode(StringTree st) {
-        if (st.getValue() == null) {
+    protected boolean referencesAnotherNode(int st) {
+        if (tree.getValue(st) == null) {
             return false;
         }
-        int r1 = st.getValue().indexOf('@');
+        int r1 = tree.getValue(st).indexOf('@');
         if (r1 == -1) {
             return false;
         }
-        int r2 = st.getValue().indexOf('@', r1);
+        int r2 = tree.getValue(st).indexOf('@', r1);
         return r2 > -1;
     }
 
@@ -352,15 +465,15 @@ abstract class AbstractParser<T> {
      * Load all the remaining children of this tag as custom tags
      * 
      * @param st
-     *            the string tree we're parsing
+     *            the node we're parsing
      * @param into
      *            what we're parsing all the custom tags into
      */
-    protected void remainingChildrenAreCustomTags(StringTree st, HasCustomFacts into) {
-        if (st == null || st.getChildren() == null) {
+    protected void remainingChildrenAreCustomTags(int st, HasCustomFacts into) {
+        if (st == StringTreeArena.NONE || !tree.hasChildren(st)) {
             return;
         }
-        for (StringTree ch : st.getChildren()) {
+        for (int ch = tree.getFirstChild(st); ch != StringTreeArena.NONE; ch = tree.getNextSibling(ch)) {
             unknownTag(ch, into);
         }
     }
@@ -387,36 +500,52 @@ abstract class AbstractParser<T> {
      *            the element that the node is part of, so if it's a custom tag, this unknown tag can be added to this node's
      *            collection of custom tags
      */
-    protected void unknownTag(StringTree node, HasCustomFacts element) {
+    protected void unknownTag(int node, HasCustomFacts element) {
+        unknownTag(tree, node, element);
+    }
+
+    /**
+     * Default handler for a tag that the parser was not expecting to see, in a tree other than the one this parser was created
+     * for. See {@link #unknownTag(int, HasCustomFacts)}.
+     * 
+     * @param inTree
+     *            the tree containing the node
+     * @param node
+     *            the node containing the unknown tag.
+     * @param element
+     *            the element that the node is part of, so if it's a custom tag, this unknown tag can be added to this node's
+     *            collection of custom tags
+     */
+    protected final void unknownTag(StringTreeArena inTree, int node, HasCustomFacts element) {
         if (gedcomParser.isIgnoreCustomTags()) {
             return;
         }
-        boolean beginsWithUnderscore = node.getTag().length() > 0 && node.getTag().charAt(0) == '_';
+        boolean beginsWithUnderscore = inTree.getTag(node).length() > 0 && inTree.getTag(node).charAt(0) == '_';
         if (beginsWithUnderscore || !gedcomParser.isStrictCustomTags() || gedcomParser.isInsideCustomTag()) {
-            CustomFact cf = new CustomFact(node.getTag());
+            CustomFact cf = new CustomFact(inTree.getTag(node));
             element.getCustomFacts(true).add(cf);
-            cf.setXref(node.getXref());
-            cf.setDescription(node.getValue());
+            cf.setXref(inTree.getXref(node));
+            cf.setDescription(inTree.getValue(node));
             // Save current value
             boolean saveIsInsideCustomTag = gedcomParser.isInsideCustomTag();
             gedcomParser.setInsideCustomTag(true);
-            new CustomFactParser(gedcomParser, node, cf).parse();
+            new CustomFactParser(gedcomParser, inTree, node, cf).parse();
             // Restore prior value
             gedcomParser.setInsideCustomTag(saveIsInsideCustomTag);
             return;
         }
 
         StringBuilder sb = new StringBuilder(64); // Min size = 64
-        sb.append("Line ").append(node.getLineNum()).append(": Cannot handle tag ");
-        sb.append(node.getTag());
-        StringTree st = node;
-        while (st.getParent() != null) {
-            st = st.getParent();
-            sb.append(", child of ").append(st.getTag() == null ? null : st.getTag());
-            if (st.getXref() != null) {
-                sb.append(" ").append(st.getXref());
+        sb.append("Line ").append(inTree.getLineNum(node)).append(": Cannot handle tag ");
+        sb.append(inTree.getTag(node));
+        int st = node;
+        while (inTree.getParent(st) != StringTreeArena.NONE) {
+            st = inTree.getParent(st);
+            sb.append(", child of ").append(inTree.getTag(st) == null ? null : inTree.getTag(st));
+            if (inTree.getXref(st) != null) {
+                sb.append(" ").append(inTree.getXref(st));
             }
-            sb.append(" on line ").append(st.getLineNum());
+            sb.append(" on line ").append(inTree.getLineNum(st));
         }
         addError(sb.toString());
     }
@@ -27,7 +27,6 @@
 package org.gedcom4j.parser;
 
 import org.gedcom4j.model.Address;
-import org.gedcom4j.model.StringTree;
 
 /**
  * Parser for {@link Address} objects
@@ -42,13 +41,15 @@ class AddressParser extends AbstractParser<Address> {
      * 
      * @param gedcomParser
      *            a reference to the root {@link GedcomParser}
-     * @param stringTree
-     *            {@link StringTree} to be parsed
+     * @param tree
+     *            the tree of lines being parsed
+     * @param node
+     *            the node in the tree to be parsed
      * @param loadInto
      *            the object we are loading data into
      */
-    AddressParser(GedcomParser gedcomParser, StringTree stringTree, Address loadInto) {
-        super(gedcomParser, stringTree, loadInto);
+    AddressParser(GedcomParser gedcomParser, StringTreeArena tree, int node, Address loadInto) {
+        super(gedcomParser, tree, node, loadInto);
     }
 
     /**
@@ -56,36 +57,47 @@ class AddressParser extends AbstractParser<Address> {
      */
     @Override
     void parse() {
-        if (stringTree.getValue() != null) {
-            loadInto.getLines(true).add(stringTree.getValue());
+        if (tree.getValue(node) != null) {
+            loadInto.getLines(true).add(tree.getValue(node));
         }
-        if (stringTree.getChildren() != null) {
-            for (StringTree ch : stringTree.getChildren()) {
-                if (Tag.ADDRESS_1.equalsText(ch.getTag())) {
-                    loadInto.setAddr1(parseStringWithCustomFacts(ch));
-                } else if (Tag.ADDRESS_2.equalsText(ch.getTag())) {
-                    loadInto.setAddr2(parseStringWithCustomFacts(ch));
-                } else if (Tag.ADDRESS_3.equalsText(ch.getTag())) {
-                    loadInto.setAddr3(parseStringWithCustomFacts(ch));
-                } else if (Tag.CITY.equalsText(ch.getTag())) {
-                    loadInto.setCity(parseStringWithCustomFacts(ch));
-                } else if (Tag.STATE.equalsText(ch.getTag())) {
-                    loadInto.setStateProvince(parseStringWithCustomFacts(ch));
-                } else if (Tag.POSTAL_CODE.equalsText(ch.getTag())) {
-                    loadInto.setPostalCode(parseStringWithCustomFacts(ch));
-                } else if (Tag.COUNTRY.equalsText(ch.getTag())) {
-                    loadInto.setCountry(parseStringWithCustomFacts(ch));
-                } else if (Tag.CONCATENATION.equalsText(ch.getTag())) {
-                    if (loadInto.getLines(true).isEmpty()) {
-                        loadInto.getLines().add(ch.getValue());
-                    } else {
-                        loadInto.getLines().set(loadInto.getLines().size() - 1, loadInto.getLines().get(loadInto.getLines().size()
-                                - 1) + ch.getValue());
-                    }
-                } else if (Tag.CONTINUATION.equalsText(ch.getTag())) {
-                    loadInto.getLines(true).add(ch.getValue() == null ? "" : ch.getValue());
-                } else {
-                    unknownTag(ch, loadInto);
+        if (tree.hasChildren(node)) {
+            for (int ch = tree.getFirstChild(node); ch != StringTreeArena.NONE; ch = tree.getNextSibling(ch)) {
+                switch (tree.getKnownTag(ch)) {
+                    case ADDRESS_1:
+                        loadInto.setAddr1(parseStringWithCustomFacts(ch));
+                        break;
+                    case ADDRESS_2:
+                        loadInto.setAddr2(parseStringWithCustomFacts(ch));
+                        break;
+                    case ADDRESS_3:
+                        loadInto.setAddr3(parseStringWithCustomFacts(ch));
+                        break;
+                    case CITY:
+                        loadInto.setCity(parseStringWithCustomFacts(ch));
+                        break;
+                    case STATE:
+                        loadInto.setStateProvince(parseStringWithCustomFacts(ch));
+                        break;
+                    case POSTAL_CODE:
+                        loadInto.setPostalCode(parseStringWithCustomFacts(ch));
+                        break;
+                    case COUNTRY:
+                        loadInto.setCountry(parseStringWithCustomFacts(ch));
+                        break;
+                    case CONCATENATION:
+                        if (loadInto.getLines(true).isEmpty()) {
+                            loadInto.getLines().add(tree.getValue(ch));
+                        } else {
+                            int last = loadInto.getLines().size() - 1;
+                            loadInto.getLines().set(last, loadInto.getLines().get(last) + tree.getValue(ch));
+                        }
+                        break;
+                    case CONTINUATION:
+                        loadInto.getLines(true).add(tree.getValue(ch) == null ? "" : tree.getValue(ch));
+                        break;
+                    default:
+                        unknownTag(ch, loadInto);
+                        break;
                 }
             }
         }
@@ -31,7 +31,6 @@ import java.util.List;
 import org.gedcom4j.model.AbstractCitation;
 import org.gedcom4j.model.Association;
 import org.gedcom4j.model.NoteStructure;
-import org.gedcom4j.model.StringTree;
 
 /**
  * @author frizbog
@@ -44,13 +43,15 @@ class AssociationParser extends AbstractParser<Association> {
      * 
      * @param gedcomParser
      *            a reference to the root {@link GedcomParser}
-     * @param stringTree
-     *            {@link StringTree} to be parsed
+     * @param tree
+     *            the tree of lines being parsed
+     * @param node
+     *            the node in the tree to be parsed
      * @param loadInto
      *            the object we are loading data into
      */
-    AssociationParser(GedcomParser gedcomParser, StringTree stringTree, Association loadInto) {
-        super(gedcomParser, stringTree, loadInto);
+    AssociationParser(GedcomParser gedcomParser, StringTreeArena tree, int node, Association loadInto) {
+        super(gedcomParser, tree, node, loadInto);
     }
 
     /**
@@ -58,21 +59,27 @@ class AssociationParser extends AbstractParser<Association> {
      */
     @Override
     void parse() {
-        loadInto.setAssociatedEntityXref(stringTree.getValue());
-        if (stringTree.getChildren() != null) {
-            for (StringTree ch : stringTree.getChildren()) {
-                if (Tag.RELATIONSHIP.equalsText(ch.getTag())) {
-                    loadInto.setRelationship(parseStringWithCustomFacts(ch));
-                } else if (Tag.NOTE.equalsText(ch.getTag())) {
-                    List<NoteStructure> notes = loadInto.getNoteStructures(true);
-                    new NoteStructureListParser(gedcomParser, ch, notes).parse();
-                } else if (Tag.SOURCE.equalsText(ch.getTag())) {
-                    List<AbstractCitation> citations = loadInto.getCitations(true);
-                    new CitationListParser(gedcomParser, ch, citations).parse();
-                } else if (Tag.TYPE.equalsText(ch.getTag())) {
-                    loadInto.setAssociatedEntityType(parseStringWithCustomFacts(ch));
-                } else {
-                    unknownTag(ch, loadInto);
+        loadInto.setAssociatedEntityXref(tree.getValue(node));
+        if (tree.hasChildren(node)) {
+            for (int ch = tree.getFirstChild(node); ch != StringTreeArena.NONE; ch = tree.getNextSibling(ch)) {
+                switch (tree.getKnownTag(ch)) {
+                    case RELATIONSHIP:
+                        loadInto.setRelationship(parseStringWithCustomFacts(ch));
+                        break;
+                    case NOTE:
+                        List<NoteStructure> notes = loadInto.getNoteStructures(true);
+                        new NoteStructureListParser(gedcomParser, tree, ch, notes).parse();
+                        break;
+                    case SOURCE:
+                        List<AbstractCitation> citations = loadInto.getCitations(true);
+                        new CitationListParser(gedcomParser, tree, ch, citations).parse();
+                        break;
+                    case TYPE:
+                        loadInto.setAssociatedEntityType(parseStringWithCustomFacts(ch));
+                        break;
+                    default:
+                        unknownTag(ch, loadInto);
+                        break;
                 }
             }
         }
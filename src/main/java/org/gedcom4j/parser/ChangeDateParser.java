@@ -30,7 +30,6 @@ import java.util.List;
 
 import org.gedcom4j.model.ChangeDate;
 import org.gedcom4j.model.NoteStructure;
-import org.gedcom4j.model.StringTree;
 import org.gedcom4j.model.StringWithCustomFacts;
 
 /**
@@ -44,13 +43,15 @@ class ChangeDateParser extends AbstractParser<ChangeDate> {
      * 
      * @param gedcomParser
      *            a reference to the root {@link GedcomParser}
-     * @param stringTree
-     *            {@link StringTree} to be parsed
+     * @param tree
+     *            the tree of lines being parsed
+     * @param node
+     *            the node in the tree to be parsed
      * @param loadInto
      *            the object we are loading data into
      */
-    ChangeDateParser(GedcomParser gedcomParser, StringTree stringTree, ChangeDate loadInto) {
-        super(gedcomParser, stringTree, loadInto);
+    ChangeDateParser(GedcomParser gedcomParser, StringTreeArena tree, int node, ChangeDate loadInto) {
+        super(gedcomParser, tree, node, loadInto);
     }
 
     /**
@@ -58,22 +59,22 @@ class ChangeDateParser extends AbstractParser<ChangeDate> {
      */
     @Override
     void parse() {
-        if (stringTree.getChildren() != null) {
-            for (StringTree ch : stringTree.getChildren()) {
-                if (Tag.DATE.equalsText(ch.getTag())) {
-                    loadInto.setDate(new StringWithCustomFacts(ch.getValue()));
-                    if (ch.getChildren() != null) {
-                        for (StringTree gch : ch.getChildren()) {
-                            if ("TIME".equals(gch.getTag())) {
+        if (tree.hasChildren(node)) {
+            for (int ch = tree.getFirstChild(node); ch != StringTreeArena.NONE; ch = tree.getNextSibling(ch)) {
+                if (Tag.DATE.equalsText(tree.getTag(ch))) {
+                    loadInto.setDate(new StringWithCustomFacts(tree.getValue(ch)));
+                    if (tree.hasChildren(ch)) {
+                        for (int gch = tree.getFirstChild(ch); gch != StringTreeArena.NONE; gch = tree.getNextSibling(gch)) {
+                            if ("TIME".equals(tree.getTag(gch))) {
                                 loadInto.setTime(parseStringWithCustomFacts(gch));
                             } else {
                                 unknownTag(gch, loadInto.getDate());
                             }
                         }
                     }
-                } else if (Tag.NOTE.equalsText(ch.getTag())) {
+                } else if (Tag.NOTE.equalsText(tree.getTag(ch))) {
                     List<NoteStructure> notes = loadInto.getNoteStructures(true);
-                    new NoteStructureListParser(gedcomParser, ch, notes).parse();
+                    new NoteStructureListParser(gedcomParser, tree, ch, notes).parse();
                 } else {
                     unknownTag(ch, loadInto);
                 }
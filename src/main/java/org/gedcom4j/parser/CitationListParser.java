@@ -37,7 +37,6 @@ import org.gedcom4j.model.MultiStringWithCustomFacts;
 import org.gedcom4j.model.MultimediaReference;
 import org.gedcom4j.model.NoteStructure;
 import org.gedcom4j.model.Source;
-import org.gedcom4j.model.StringTree;
 import org.gedcom4j.model.StringWithCustomFacts;
 
 /**
@@ -51,13 +50,15 @@ class CitationListParser extends AbstractParser<List<AbstractCitation>> {
      * 
      * @param gedcomParser
      *            a reference to the root {@link GedcomParser}
-     * @param stringTree
-     *            {@link StringTree} to be parsed
+     * @param tree
+     *            the tree of lines being parsed
+     * @param node
+     *            the node in the tree to be parsed
      * @param loadInto
      *            the object we are loading data into
      */
-    CitationListParser(GedcomParser gedcomParser, StringTree stringTree, List<AbstractCitation> loadInto) {
-        super(gedcomParser, stringTree, loadInto);
+    CitationListParser(GedcomParser gedcomParser, StringTreeArena tree, int node, List<AbstractCitation> loadInto) {
+        super(gedcomParser, tree, node, loadInto);
     }
 
     /**
@@ -66,12 +67,12 @@ class CitationListParser extends AbstractParser<List<AbstractCitation>> {
     @Override
     void parse() {
         AbstractCitation citation;
-        if (referencesAnotherNode(stringTree)) {
+        if (referencesAnotherNode(node)) {
             citation = new CitationWithSource();
-            loadCitationWithSource(stringTree, citation);
+            loadCitationWithSource(node, citation);
         } else {
             citation = new CitationWithoutSource();
-            loadCitationWithoutSource(stringTree, citation);
+            loadCitationWithoutSource(node, citation);
         }
         loadInto.add(citation);
     }
@@ -84,12 +85,12 @@ class CitationListParser extends AbstractParser<List<AbstractCitation>> {
      * @param d
      *            the CitationData structure
      */
-    private void loadCitationData(StringTree data, CitationData d) {
-        if (data.getChildren() != null) {
-            for (StringTree ch : data.getChildren()) {
-                if (Tag.DATE.equalsText(ch.getTag())) {
+    private void loadCitationData(int data, CitationData d) {
+        if (tree.hasChildren(data)) {
+            for (int ch = tree.getFirstChild(data); ch != StringTreeArena.NONE; ch = tree.getNextSibling(ch)) {
+                if (Tag.DATE.equalsText(tree.getTag(ch))) {
                     d.setEntryDate(parseStringWithCustomFacts(ch));
-                } else if (Tag.TEXT.equalsText(ch.getTag())) {
+                } else if (Tag.TEXT.equalsText(tree.getTag(ch))) {
                     MultiStringWithCustomFacts ms = new MultiStringWithCustomFacts();
                     d.getSourceText(true).add(ms);
                     loadMultiStringWithCustomFacts(ch, ms);
@@ -108,34 +109,42 @@ class CitationListParser extends AbstractParser<List<AbstractCitation>> {
      * @param citation
      *            the citation to load into
      */
-    private void loadCitationWithoutSource(StringTree sour, AbstractCitation citation) {
+    private void loadCitationWithoutSource(int sour, AbstractCitation citation) {
         CitationWithoutSource cws = (CitationWithoutSource) citation;
-        cws.getDescription(true).add(sour.getValue());
-        if (sour.getChildren() != null) {
-            for (StringTree ch : sour.getChildren()) {
-                if (Tag.CONTINUATION.equalsText(ch.getTag())) {
-                    cws.getDescription(true).add(ch.getValue() == null ? "" : ch.getValue());
-                } else if (Tag.CONCATENATION.equalsText(ch.getTag())) {
-                    if (cws.getDescription().isEmpty()) {
-                        cws.getDescription(true).add(ch.getValue());
-                    } else {
-                        // Append to last value in string list
-                        cws.getDescription().set(cws.getDescription().size() - 1, cws.getDescription().get(cws.getDescription()
-                                .size() - 1) + ch.getValue());
-                    }
-                } else if (Tag.TEXT.equalsText(ch.getTag())) {
-                    List<String> ls = new ArrayList<>();
-                    cws.getTextFromSource(true).add(ls);
-                    loadMultiLinesOfText(ch, ls, cws);
-                } else if (Tag.NOTE.equalsText(ch.getTag())) {
-                    new NoteStructureListParser(gedcomParser, ch, cws.getNoteStructures(true)).parse();
-                } else if (Tag.QUALITY.equalsText(ch.getTag())) {
-                    cws.setCertainty(parseStringWithCustomFacts(ch));
-                } else if (Tag.OBJECT_MULTIMEDIA.equalsText(ch.getTag())) {
-                    List<MultimediaReference> multimedia = cws.getMultimedia(true);
-                    new MultimediaLinkParser(gedcomParser, ch, multimedia).parse();
-                } else {
-                    unknownTag(ch, citation);
+        cws.getDescription(true).add(tree.getValue(sour));
+        if (tree.hasChildren(sour)) {
+            for (int ch = tree.getFirstChild(sour); ch != StringTreeArena.NONE; ch = tree.getNextSibling(ch)) {
+                switch (tree.getKnownTag(ch)) {
+                    case CONTINUATION:
+                        cws.getDescription(true).add(tree.getValue(ch) == null ? "" : tree.getValue(ch));
+                        break;
+                    case CONCATENATION:
+                        if (cws.getDescription().isEmpty()) {
+                            cws.getDescription(true).add(tree.getValue(ch));
+                        } else {
+                            // Append to last value in string list
+                            cws.getDescription().set(cws.getDescription().size() - 1, cws.getDescription().get(cws.getDescription()
+                                    .size() - 1) + tree.getValue(ch));
+                        }
+                        break;
+                    case TEXT:
+                        List<String> ls = new ArrayList<>();
+                        cws.getTextFromSource(true).add(ls);
+                        loadMultiLinesOfText(ch, ls, cws);
+                        break;
+                    case NOTE:
+                        new NoteStructureListParser(gedcomParser, tree, ch, cws.getNoteStructures(true)).parse();
+                        break;
+                    case QUALITY:
+                        cws.setCertainty(parseStringWithCustomFacts(ch));
+                        break;
+                    case OBJECT_MULTIMEDIA:
+                        List<MultimediaReference> multimedia = cws.getMultimedia(true);
+                        new MultimediaLinkParser(gedcomParser, tree, ch, multimedia).parse();
+                        break;
+                    default:
+                        unknownTag(ch, citation);
+                        break;
                 }
             }
         }
@@ -149,42 +158,50 @@ class CitationListParser extends AbstractParser<List<AbstractCitation>> {
      * @param citation
      *            the citation to load into
      */
-    private void loadCitationWithSource(StringTree sour, AbstractCitation citation) {
+    private void loadCitationWithSource(int sour, AbstractCitation citation) {
         CitationWithSource cws = (CitationWithSource) citation;
         Source src = null;
         if (referencesAnotherNode(sour)) {
-            src = getSource(sour.getValue());
+            src = getSource(tree.getValue(sour));
         }
         cws.setSource(src);
-        if (sour.getChildren() != null) {
-            for (StringTree ch : sour.getChildren()) {
-                if (Tag.PAGE.equalsText(ch.getTag())) {
-                    cws.setWhereInSource(parseStringWithCustomFacts(ch));
-                } else if (Tag.EVENT.equalsText(ch.getTag())) {
-                    cws.setEventCited(new StringWithCustomFacts(ch.getValue()));
-                    if (ch.getChildren() != null) {
-                        for (StringTree gc : ch.getChildren()) {
-                            if (Tag.ROLE.equalsText(gc.getTag())) {
-                                cws.setRoleInEvent(parseStringWithCustomFacts(gc));
-                            } else {
-                                unknownTag(gc, cws.getEventCited());
+        if (tree.hasChildren(sour)) {
+            for (int ch = tree.getFirstChild(sour); ch != StringTreeArena.NONE; ch = tree.getNextSibling(ch)) {
+                switch (tree.getKnownTag(ch)) {
+                    case PAGE:
+                        cws.setWhereInSource(parseStringWithCustomFacts(ch));
+                        break;
+                    case EVENT:
+                        cws.setEventCited(new StringWithCustomFacts(tree.getValue(ch)));
+                        if (tree.hasChildren(ch)) {
+                            for (int gc = tree.getFirstChild(ch); gc != StringTreeArena.NONE; gc = tree.getNextSibling(gc)) {
+                                if (Tag.ROLE.equalsText(tree.getTag(gc))) {
+                                    cws.setRoleInEvent(parseStringWithCustomFacts(gc));
+                                } else {
+                                    unknownTag(gc, cws.getEventCited());
+                                }
                             }
                         }
-                    }
-                } else if (Tag.DATA_FOR_CITATION.equalsText(ch.getTag())) {
-                    CitationData d = new CitationData();
-                    cws.getData(true).add(d);
-                    loadCitationData(ch, d);
-                } else if (Tag.QUALITY.equalsText(ch.getTag())) {
-                    cws.setCertainty(parseStringWithCustomFacts(ch));
-                } else if (Tag.NOTE.equalsText(ch.getTag())) {
-                    List<NoteStructure> notes = cws.getNoteStructures(true);
-                    new NoteStructureListParser(gedcomParser, ch, notes).parse();
-                } else if (Tag.OBJECT_MULTIMEDIA.equalsText(ch.getTag())) {
-                    List<MultimediaReference> multimedia = cws.getMultimedia(true);
-                    new MultimediaLinkParser(gedcomParser, ch, multimedia).parse();
-                } else {
-                    unknownTag(ch, citation);
+                        break;
+                    case DATA:
+                        CitationData d = new CitationData();
+                        cws.getData(true).add(d);
+                        loadCitationData(ch, d);
+                        break;
+                    case QUALITY:
+                        cws.setCertainty(parseStringWithCustomFacts(ch));
+                        break;
+                    case NOTE:
+                        List<NoteStructure> notes = cws.getNoteStructures(true);
+                        new NoteStructureListParser(gedcomParser, tree, ch, notes).parse();
+                        break;
+                    case OBJECT_MULTIMEDIA:
+                        List<MultimediaReference> multimedia = cws.getMultimedia(true);
+                        new MultimediaLinkParser(gedcomParser, tree, ch, multimedia).parse();
+                        break;
+                    default:
+                        unknownTag(ch, citation);
+                        break;
                 }
             }
         }
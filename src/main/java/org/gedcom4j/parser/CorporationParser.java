@@ -28,7 +28,6 @@ package org.gedcom4j.parser;
 
 import org.gedcom4j.model.Address;
 import org.gedcom4j.model.Corporation;
-import org.gedcom4j.model.StringTree;
 
 /**
  * Parser for {@link Corporation} objects
@@ -42,52 +41,61 @@ class CorporationParser extends AbstractParser<Corporation> {
      * 
      * @param gedcomParser
      *            a reference to the root {@link GedcomParser}
-     * @param stringTree
-     *            {@link StringTree} to be parsed
+     * @param tree
+     *            the tree of lines being parsed
+     * @param node
+     *            the node in the tree to be parsed
      * @param loadInto
      *            the object we are loading data into
      */
-    CorporationParser(GedcomParser gedcomParser, StringTree stringTree, Corporation loadInto) {
-        super(gedcomParser, stringTree, loadInto);
+    CorporationParser(GedcomParser gedcomParser, StringTreeArena tree, int node, Corporation loadInto) {
+        super(gedcomParser, tree, node, loadInto);
     }
 
     @Override
     void parse() {
-        loadInto.setBusinessName(stringTree.getValue());
-        if (stringTree.getChildren() != null) {
-            for (StringTree ch : stringTree.getChildren()) {
-                if (Tag.ADDRESS.equalsText(ch.getTag())) {
-                    Address address = new Address();
-                    loadInto.setAddress(address);
-                    new AddressParser(gedcomParser, ch, address).parse();
-                } else if (Tag.PHONE.equalsText(ch.getTag())) {
-                    loadInto.getPhoneNumbers(true).add(parseStringWithCustomFacts(ch));
-                } else if (Tag.WEB_ADDRESS.equalsText(ch.getTag())) {
-                    loadInto.getWwwUrls(true).add(parseStringWithCustomFacts(ch));
-                    if (g55()) {
-                        addWarning(
-                                "GEDCOM version is 5.5 but WWW URL was specified for the corporation in the source system on line "
-                                        + ch.getLineNum() + ", which is a GEDCOM 5.5.1 feature."
-                                        + "  Data loaded but cannot be re-written unless GEDCOM version changes.");
-                    }
-                } else if (Tag.FAX.equalsText(ch.getTag())) {
-                    loadInto.getFaxNumbers(true).add(parseStringWithCustomFacts(ch));
-                    if (g55()) {
-                        addWarning(
-                                "GEDCOM version is 5.5 but fax number was specified for the corporation in the source system on line "
-                                        + ch.getLineNum() + ", which is a GEDCOM 5.5.1 feature."
-                                        + "  Data loaded but cannot be re-written unless GEDCOM version changes.");
-                    }
-                } else if (Tag.EMAIL.equalsText(ch.getTag())) {
-                    loadInto.getEmails(true).add(parseStringWithCustomFacts(ch));
-                    if (g55()) {
-                        addWarning(
-                                "GEDCOM version is 5.5 but emails was specified for the corporation in the source system on line "
-                                        + ch.getLineNum() + ", which is a GEDCOM 5.5.1 feature."
-                                        + "  Data loaded but cannot be re-written unless GEDCOM version changes.");
-                    }
-                } else {
-                    unknownTag(ch, loadInto);
+        loadInto.setBusinessName(tree.getValue(node));
+        if (tree.hasChildren(node)) {
+            for (int ch = tree.getFirstChild(node); ch != StringTreeArena.NONE; ch = tree.getNextSibling(ch)) {
+                switch (tree.getKnownTag(ch)) {
+                    case ADDRESS:
+                        Address address = new Address();
+                        loadInto.setAddress(address);
+                        new AddressParser(gedcomParser, tree, ch, address).parse();
+                        break;
+                    case PHONE:
+                        loadInto.getPhoneNumbers(true).add(parseStringWithCustomFacts(ch));
+                        break;
+                    case WEB_ADDRESS:
+                        loadInto.getWwwUrls(true).add(parseStringWithCustomFacts(ch));
+                        if (g55()) {
+                            addWarning(
+                                    "GEDCOM version is 5.5 but WWW URL was specified for the corporation in the source system on line "
+                                            + tree.getLineNum(ch) + ", which is a GEDCOM 5.5.1 feature."
+                                            + "  Data loaded but cannot be re-written unless GEDCOM version changes.");
+                        }
+                        break;
+                    case FAX:
+                        loadInto.getFaxNumbers(true).add(parseStringWithCustomFacts(ch));
+                        if (g55()) {
+                            addWarning(
+                                    "GEDCOM version is 5.5 but fax number was specified for the corporation in the source system on line "
+                                            + tree.getLineNum(ch) + ", which is a GEDCOM 5.5.1 feature."
+                                            + "  Data loaded but cannot be re-written unless GEDCOM version changes.");
+                        }
+                        break;
+                    case EMAIL:
+                        loadInto.getEmails(true).add(parseStringWithCustomFacts(ch));
+                        if (g55()) {
+                            addWarning(
+                                    "GEDCOM version is 5.5 but emails was specified for the corporation in the source system on line "
+                                            + tree.getLineNum(ch) + ", which is a GEDCOM 5.5.1 feature."
+                                            + "  Data loaded but cannot be re-written unless GEDCOM version changes.");
+                        }
+                        break;
+                    default:
+                        unknownTag(ch, loadInto);
+                        break;
                 }
             }
         }
@@ -34,7 +34,6 @@ import org.gedcom4j.model.CustomFact;
 import org.gedcom4j.model.HasCustomFacts;
 import org.gedcom4j.model.NoteStructure;
 import org.gedcom4j.model.Place;
-import org.gedcom4j.model.StringTree;
 import org.gedcom4j.model.StringWithCustomFacts;
 
 /**
@@ -50,13 +49,15 @@ public class CustomFactParser extends AbstractParser<CustomFact> {
      * 
      * @param gedcomParser
      *            a reference to the root {@link GedcomParser}
-     * @param stringTree
-     *            {@link StringTree} to be parsed
+     * @param tree
+     *            the tree of lines being parsed
+     * @param node
+     *            the node in the tree to be parsed
      * @param loadInto
      *            the object we are loading data into
      */
-    CustomFactParser(GedcomParser gedcomParser, StringTree stringTree, CustomFact loadInto) {
-        super(gedcomParser, stringTree, loadInto);
+    CustomFactParser(GedcomParser gedcomParser, StringTreeArena tree, int node, CustomFact loadInto) {
+        super(gedcomParser, tree, node, loadInto);
     }
 
     /**
@@ -64,42 +65,52 @@ public class CustomFactParser extends AbstractParser<CustomFact> {
      */
     @Override
     void parse() {
-        loadInto.setXref(stringTree.getXref());
-        loadInto.setDescription(stringTree.getValue());
-        if (stringTree.getChildren() != null) {
-            for (StringTree ch : stringTree.getChildren()) {
-                if (Tag.TYPE.equalsText(ch.getTag())) {
-                    loadInto.setType(parseStringWithCustomFacts(ch));
-                } else if (Tag.CHANGED_DATETIME.equalsText(ch.getTag())) {
-                    ChangeDate changeDate = new ChangeDate();
-                    loadInto.setChangeDate(changeDate);
-                    new ChangeDateParser(gedcomParser, ch, changeDate).parse();
-                } else if (Tag.DATE.equalsText(ch.getTag())) {
-                    loadInto.setDate(ch.getValue());
-                } else if (Tag.PLACE.equalsText(ch.getTag())) {
-                    Place place = new Place();
-                    loadInto.setPlace(place);
-                    new PlaceParser(gedcomParser, ch, place).parse();
-                } else if (Tag.NOTE.equalsText(ch.getTag())) {
-                    List<NoteStructure> notes = loadInto.getNoteStructures(true);
-                    new NoteStructureListParser(gedcomParser, ch, notes).parse();
-                } else if (Tag.SOURCE.equalsText(ch.getTag())) {
-                    List<AbstractCitation> citations = loadInto.getCitations(true);
-                    new CitationListParser(gedcomParser, ch, citations).parse();
-                } else if (Tag.CONCATENATION.equalsText(ch.getTag())) {
-                    if (loadInto.getDescription() == null) {
-                        loadInto.setDescription(parseStringWithCustomFacts(ch));
-                    } else {
-                        loadInto.getDescription().setValue(loadInto.getDescription().getValue() + ch.getValue());
-                    }
-                } else if (Tag.CONTINUATION.equalsText(ch.getTag())) {
-                    if (loadInto.getDescription() == null) {
-                        loadInto.setDescription(new StringWithCustomFacts(ch.getValue() == null ? "" : ch.getValue()));
-                    } else {
-                        loadInto.getDescription().setValue(loadInto.getDescription().getValue() + "\n" + ch.getValue());
-                    }
-                } else {
-                    unknownTag(ch, loadInto);
+        loadInto.setXref(tree.getXref(node));
+        loadInto.setDescription(tree.getValue(node));
+        if (tree.hasChildren(node)) {
+            for (int ch = tree.getFirstChild(node); ch != StringTreeArena.NONE; ch = tree.getNextSibling(ch)) {
+                switch (tree.getKnownTag(ch)) {
+                    case TYPE:
+                        loadInto.setType(parseStringWithCustomFacts(ch));
+                        break;
+                    case CHANGED_DATETIME:
+                        ChangeDate changeDate = new ChangeDate();
+                        loadInto.setChangeDate(changeDate);
+                        new ChangeDateParser(gedcomParser, tree, ch, changeDate).parse();
+                        break;
+                    case DATE:
+                        loadInto.setDate(tree.getValue(ch));
+                        break;
+                    case PLACE:
+                        Place place = new Place();
+                        loadInto.setPlace(place);
+                        new PlaceParser(gedcomParser, tree, ch, place).parse();
+                        break;
+                    case NOTE:
+                        List<NoteStructure> notes = loadInto.getNoteStructures(true);
+                        new NoteStructureListParser(gedcomParser, tree, ch, notes).parse();
+                        break;
+                    case SOURCE:
+                        List<AbstractCitation> citations = loadInto.getCitations(true);
+                        new CitationListParser(gedcomParser, tree, ch, citations).parse();
+                        break;
+                    case CONCATENATION:
+                        if (loadInto.getDescription() == null) {
+                            loadInto.setDescription(parseStringWithCustomFacts(ch));
+                        } else {
+                            loadInto.getDescription().setValue(loadInto.getDescription().getValue() + tree.getValue(ch));
+                        }
+                        break;
+                    case CONTINUATION:
+                        if (loadInto.getDescription() == null) {
+                            loadInto.setDescription(new StringWithCustomFacts(tree.getValue(ch) == null ? "" : tree.getValue(ch)));
+                        } else {
+                            loadInto.getDescription().setValue(loadInto.getDescription().getValue() + "\n" + tree.getValue(ch));
+                        }
+                        break;
+                    default:
+                        unknownTag(ch, loadInto);
+                        break;
                 }
             }
         }
@@ -0,0 +1,1157 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.parser;
+
+import org.gedcom4j.parser.DateRange.CalendarSystem;
+import org.gedcom4j.parser.DateRange.Qualifier;
+
+/**
+ * <p>
+ * A hand-written scanner that turns a GEDCOM date value into a {@link DateRange} in a single pass over the string, with no regular
+ * expressions, no splitting or upper-casing of the string, and no {@link java.text.SimpleDateFormat}s or
+ * {@link java.util.Calendar}s. The only objects created are the {@link DateRange}s returned - one for a single date, and three for
+ * a range or period. Hebrew and French Republican dates are converted to epoch days by the tables in {@link HebrewCalendarParser}
+ * and {@link FrenchRepublicanCalendarParser}.
+ * </p>
+ * <p>
+ * The dialect accepted is the same slightly relaxed one {@link DateParser} has always accepted, and the days it resolves to are
+ * the same too:
+ * </p>
+ * <ul>
+ * <li>Gregorian (and Julian) dates are counted the way {@link java.util.GregorianCalendar} counts them - Julian before October 15,
+ * 1582 and Gregorian from then on - and leniently, so 31 FEB 1900 is March 3, 1900.</li>
+ * <li>BC years are counted astronomically, so 1 BC is year 0 and 100 BC is year -99.</li>
+ * <li>Double-dated years between 1582 and 1752, such as 1731/32, resolve to the new-style year (1732).</li>
+ * <li>A date in a range or period can have its own approximation prefix, as in <code>BET ABT 1900 AND 1910</code>.</li>
+ * </ul>
+ * <p>
+ * Everything is static and nothing is shared but constants, so it is safe to use from any number of threads at once.
+ * </p>
+ * 
+ * @author frizbog
+ */
+@SuppressWarnings({ "PMD.GodClass", "PMD.TooManyMethods", "PMD.ExcessiveClassLength" })
+final class DateLexer {
+
+    /**
+     * The approximation prefixes, in the order they are tried
+     */
+    private static final String[] APPROXIMATIONS = { "ABT", "ABOUT", "APPX", "APPROX", "CAL", "CALC", "EST" };
+
+    /**
+     * The qualifiers for each of the {@link #APPROXIMATIONS}
+     */
+    private static final Qualifier[] APPROXIMATION_QUALIFIERS = { Qualifier.ABOUT, Qualifier.ABOUT, Qualifier.ABOUT,
+            Qualifier.ABOUT, Qualifier.CALCULATED, Qualifier.CALCULATED, Qualifier.ESTIMATED };
+
+    /**
+     * The initials of the {@link #APPROXIMATIONS}
+     */
+    private static final int APPROXIMATION_INITIALS = initials(APPROXIMATIONS);
+
+    /**
+     * The prefixes of open-ended ranges and periods, with only one date, in the order they are tried
+     */
+    private static final String[] OPEN_ENDED = { "FROM", "BEF", "BEFORE", "AFT", "AFTER", "TO" };
+
+    /**
+     * The qualifiers for each of the {@link #OPEN_ENDED} prefixes
+     */
+    private static final Qualifier[] OPEN_ENDED_QUALIFIERS = { Qualifier.FROM, Qualifier.BEFORE, Qualifier.BEFORE,
+            Qualifier.AFTER, Qualifier.AFTER, Qualifier.TO };
+
+    /**
+     * The initials of the {@link #OPEN_ENDED} prefixes
+     */
+    private static final int OPEN_ENDED_INITIALS = initials(OPEN_ENDED);
+
+    /**
+     * The prefixes that can start a range or period with two dates. Each one can be followed by a space.
+     */
+    private static final String[] TWO_DATE_PREFIXES = { "FROM", "BEF", "BEF.", "BET", "BET.", "BTW", "BTW.", "AFT", "AFT.", "TO",
+            "BETWEEN" };
+
+    /**
+     * The initials of the {@link #TWO_DATE_PREFIXES}
+     */
+    private static final int TWO_DATE_INITIALS = initials(TWO_DATE_PREFIXES);
+
+    /**
+     * The prefixes removed from the first of two dates, in the order they are tried
+     */
+    private static final String[] FIRST_OF_TWO_PREFIXES = { "BETWEEN", "BET", "BTW", "FROM" };
+
+    /**
+     * The initials of the {@link #FIRST_OF_TWO_PREFIXES}
+     */
+    private static final int FIRST_OF_TWO_INITIALS = initials(FIRST_OF_TWO_PREFIXES);
+
+    /**
+     * The Gregorian/Julian month abbreviations
+     */
+    private static final String[] MONTHS = { "JAN", "FEB", "MAR", "APR", "MAY", "JUN", "JUL", "AUG", "SEP", "OCT", "NOV",
+            "DEC" };
+
+    /**
+     * The suffixes for BC years
+     */
+    private static final String[] ERAS = { "BC", "BCE", "B.C." };
+
+    /**
+     * The Hebrew months, in order
+     */
+    private static final HebrewMonth[] HEBREW_MONTHS = HebrewMonth.values();
+
+    /**
+     * The French Republican months, in order
+     */
+    private static final FrenchRepublicanMonth[] FRENCH_REPUBLICAN_MONTHS = FrenchRepublicanMonth.values();
+
+    /**
+     * The epoch day of October 15, 1582, the first day of the Gregorian calendar. Earlier days are counted in the Julian calendar.
+     */
+    private static final long GREGORIAN_CUTOVER = -141427;
+
+    /**
+     * A year value meaning no valid year was found
+     */
+    private static final int NO_YEAR = Integer.MIN_VALUE;
+
+    /**
+     * The converter for Hebrew dates. It has no state.
+     */
+    private static final HebrewCalendarParser HEBREW = new HebrewCalendarParser();
+
+    /**
+     * The converter for French Republican dates. It has no state.
+     */
+    private static final FrenchRepublicanCalendarParser FRENCH_REPUBLICAN = new FrenchRepublicanCalendarParser();
+
+    /**
+     * Private constructor - everything is static
+     */
+    private DateLexer() {
+        // Nothing to do
+    }
+
+    /**
+     * Parse a GEDCOM date value
+     * 
+     * @param dateString
+     *            the date value, in any case
+     * @return the range of days the date value means, or null if no date can be derived from the string
+     */
+    static DateRange parse(String dateString) {
+        int len = dateString.length();
+        if (startsWith(dateString, 0, len, "@#DHEBREW@ ")) {
+            return parseOtherCalendar(dateString, 11, len, CalendarSystem.HEBREW);
+        }
+        if (startsWith(dateString, 0, len, "@#DFRENCH R@ ")) {
+            return parseOtherCalendar(dateString, 13, len, CalendarSystem.FRENCH_REPUBLICAN);
+        }
+        if (startsWith(dateString, 0, len, "@#DGREGORIAN@ ")) {
+            return parseGregorianJulian(dateString, 14, len, CalendarSystem.GREGORIAN);
+        }
+        if (startsWith(dateString, 0, len, "@#DJULIAN@ ")) {
+            return parseGregorianJulian(dateString, 11, len, CalendarSystem.JULIAN);
+        }
+        return parseGregorianJulian(dateString, 0, len, CalendarSystem.GREGORIAN);
+    }
+
+    /**
+     * Get the position just after a prefix at the start of part of a string, if the prefix is followed by a space (or a period
+     * and a space) and then something else
+     * 
+     * @param s
+     *            the string
+     * @param from
+     *            the start of the part of the string
+     * @param to
+     *            the end of the part of the string
+     * @param prefix
+     *            the prefix, in upper case
+     * @return the position just after the space following the prefix, or -1 if the part of the string doesn't start with the
+     *         prefix that way
+     */
+    private static int afterPrefix(String s, int from, int to, String prefix) {
+        if (!startsWith(s, from, to, prefix)) {
+            return -1;
+        }
+        int n = prefix.length();
+        if (to - from > n + 1 && s.charAt(from + n) == ' ') {
+            return from + n + 1;
+        }
+        if (to - from > n + 2 && s.charAt(from + n) == '.' && s.charAt(from + n + 1) == ' ') {
+            return from + n + 2;
+        }
+        return -1;
+    }
+
+    /**
+     * Are all the characters in part of a string letters, digits, periods or spaces?
+     * 
+     * @param s
+     *            the string
+     * @param from
+     *            the start of the part of the string
+     * @param to
+     *            the end of the part of the string
+     * @return true if and only if all the characters in the part of the string are letters, digits, periods or spaces
+     */
+    private static boolean allMisc(String s, int from, int to) {
+        for (int i = from; i < to; i++) {
+            char c = upper(s.charAt(i));
+            if (!(c >= 'A' && c <= 'Z' || isDigit(c) || c == '.' || c == ' ')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Parse a day of the month - one or two digits, from 1 to 31, with an optional leading zero before a single digit
+     * 
+     * @param s
+     *            the string
+     * @param from
+     *            the position of the first digit
+     * @param to
+     *            the position just after the last digit
+     * @return the day of the month, or 0 if it isn't a valid day
+     */
+    private static int dayOfMonth(String s, int from, int to) {
+        if (to - from == 1) {
+            return s.charAt(from) - '0';
+        }
+        if (to - from != 2) {
+            return 0;
+        }
+        int day = digitsValue(s, from, to);
+        if (day > 31 || day % 10 == 0 && day < 10) {
+            return 0;
+        }
+        return day;
+    }
+
+    /**
+     * Get the value of a run of digits
+     * 
+     * @param s
+     *            the string
+     * @param from
+     *            the position of the first digit
+     * @param to
+     *            the position just after the last digit
+     * @return the value of the digits, as a decimal number
+     */
+    private static int digitsValue(String s, int from, int to) {
+        int value = 0;
+        for (int i = from; i < to; i++) {
+            value = value * 10 + s.charAt(i) - '0';
+        }
+        return value;
+    }
+
+    /**
+     * Does part of a string consist of letters, digits, periods and spaces ending in a year (with optional double-dating and BC
+     * suffix)?
+     * 
+     * @param s
+     *            the string
+     * @param from
+     *            the start of the part of the string
+     * @param to
+     *            the end of the part of the string
+     * @return true if and only if the part of the string ends in a year
+     */
+    private static boolean endsInYear(String s, int from, int to) {
+        if (endsInYearWithoutEra(s, from, to)) {
+            return true;
+        }
+        for (String era : ERAS) {
+            int end = to - era.length();
+            if (end > from && startsWith(s, end, to, era) && endsInYearWithoutEra(s, from, end)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Does part of a string consist of letters, digits, periods and spaces ending in a year (with optional double-dating), and
+     * then optionally a space?
+     * 
+     * @param s
+     *            the string
+     * @param from
+     *            the start of the part of the string
+     * @param to
+     *            the end of the part of the string
+     * @return true if and only if the part of the string ends in a year
+     */
+    private static boolean endsInYearWithoutEra(String s, int from, int to) {
+        int end = to;
+        if (end > from && s.charAt(end - 1) == ' ') {
+            end--;
+        }
+        if (end - from >= 4 && s.charAt(end - 3) == '/' && isDigit(s.charAt(end - 1)) && isDigit(s.charAt(end - 2))) {
+            end -= 3;
+        }
+        return end > from && isDigit(s.charAt(end - 1)) && allMisc(s, from, end - 1);
+    }
+
+    /**
+     * Get the epoch day of a Gregorian/Julian date, as {@link java.util.GregorianCalendar} would count it - Julian before the
+     * Gregorian cutover, Gregorian from then on, and leniently, so days past the end of the month roll over into the next month.
+     * 
+     * @param year
+     *            the year, counted astronomically (1 BC is year 0)
+     * @param month
+     *            the month, from 1 to 12
+     * @param day
+     *            the day of the month
+     * @return the epoch day
+     */
+    private static long epochDay(int year, int month, int day) {
+        if (year > 1582) {
+            return gregorianEpochDay(year, month, day);
+        }
+        if (year < 1582) {
+            return julianEpochDay(year, month, day);
+        }
+        long gregorian = gregorianEpochDay(year, month, day);
+        return gregorian >= GREGORIAN_CUTOVER ? gregorian : julianEpochDay(year, month, day);
+    }
+
+    /**
+     * Find which of a list of prefixes is at the start of part of a string, followed by a space (or a period and a space) and then
+     * something else
+     * 
+     * @param s
+     *            the string
+     * @param from
+     *            the start of the part of the string
+     * @param to
+     *            the end of the part of the string
+     * @param prefixes
+     *            the prefixes, in upper case, in the order to try them
+     * @param initials
+     *            the initials of the prefixes, from {@link #initials(String...)}, so most strings can be ruled out without trying
+     *            each prefix
+     * @return the index of the first prefix found, or -1 if none of them are there
+     */
+    private static int findPrefix(String s, int from, int to, String[] prefixes, int initials) {
+        if (from >= to || (initials & initial(s.charAt(from))) == 0) {
+            return -1;
+        }
+        for (int i = 0; i < prefixes.length; i++) {
+            if (afterPrefix(s, from, to, prefixes[i]) >= 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Divide, rounding towards negative infinity
+     * 
+     * @param dividend
+     *            the dividend
+     * @param divisor
+     *            the divisor, which must be positive
+     * @return the quotient, rounded down
+     */
+    private static long floorDiv(long dividend, long divisor) {
+        long q = dividend / divisor;
+        return dividend % divisor < 0 ? q - 1 : q;
+    }
+
+    /**
+     * Convert a French Republican date to an epoch day
+     * 
+     * @param year
+     *            the French Republican year
+     * @param month
+     *            the French Republican month
+     * @param day
+     *            the day of the month
+     * @return the epoch day, or {@link Long#MIN_VALUE} if the date is not valid
+     */
+    private static long frenchRepublicanEpochDay(int year, FrenchRepublicanMonth month, int day) {
+        return FRENCH_REPUBLICAN.getEpochDay(year, month, day);
+    }
+
+    /**
+     * Get the epoch day of a date in the proleptic Gregorian calendar
+     * 
+     * @param year
+     *            the year, counted astronomically
+     * @param month
+     *            the month, from 1 to 12
+     * @param day
+     *            the day of the month, which may be past the end of the month
+     * @return the epoch day
+     */
+    private static long gregorianEpochDay(int year, int month, int day) {
+        // Count from March 1, so the leap day is the last day of the year
+        long y = month <= 2 ? year - 1 : year;
+        long era = floorDiv(y, 400);
+        long yearOfEra = y - era * 400;
+        long dayOfYear = (153 * ((month + 9) % 12) + 2) / 5 + day - 1;
+        long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097 + dayOfEra - 719468;
+    }
+
+    /**
+     * Convert a Hebrew date to an epoch day
+     * 
+     * @param year
+     *            the Hebrew year
+     * @param month
+     *            the Hebrew month
+     * @param day
+     *            the day of the month
+     * @return the epoch day
+     */
+    private static long hebrewEpochDay(int year, HebrewMonth month, int day) {
+        return HEBREW.getEpochDay(year, month, day);
+    }
+
+    /**
+     * Find a character in part of a string
+     * 
+     * @param s
+     *            the string
+     * @param c
+     *            the character to find
+     * @param from
+     *            the start of the part of the string
+     * @param to
+     *            the end of the part of the string
+     * @return the position of the first occurrence of the character in the part of the string, or -1 if it doesn't occur there
+     */
+    private static int indexOf(String s, char c, int from, int to) {
+        int i = s.indexOf(c, from);
+        return i < to ? i : -1;
+    }
+
+    /**
+     * Find a word surrounded by spaces in part of a string
+     * 
+     * @param s
+     *            the string
+     * @param word
+     *            the word to find, in upper case, with a space before and after it
+     * @param from
+     *            the start of the part of the string
+     * @param to
+     *            the end of the part of the string
+     * @return the position of the space before the first occurrence of the word in the part of the string, or -1 if it doesn't
+     *         occur there
+     */
+    private static int indexOf(String s, String word, int from, int to) {
+        for (int i = from; i <= to - word.length(); i++) {
+            if (startsWith(s, i, to, word)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Get the bit representing the initial letter of a word, for checking against a set of initials from
+     * {@link #initials(String...)}
+     * 
+     * @param c
+     *            the first character of the word
+     * @return the bit for the character if it's a letter (in either case), or 0 if not
+     */
+    private static int initial(char c) {
+        char u = upper(c);
+        return u >= 'A' && u <= 'Z' ? 1 << u - 'A' : 0;
+    }
+
+    /**
+     * Get the set of the initial letters of some words, as a bit mask
+     * 
+     * @param words
+     *            the words, in upper case
+     * @return the bit mask, with a bit from {@link #initial(char)} set for each word's initial letter
+     */
+    private static int initials(String... words) {
+        int result = 0;
+        for (String word : words) {
+            result |= initial(word.charAt(0));
+        }
+        return result;
+    }
+
+    /**
+     * If part of a string is an interpreted date (<code>INT</code>, the date, then the original text in parentheses), find where
+     * the date ends
+     * 
+     * @param s
+     *            the string
+     * @param from
+     *            the start of the part of the string
+     * @param to
+     *            the end of the part of the string
+     * @return the position of the opening parenthesis after the date, or -1 if the part of the string is not an interpreted date
+     */
+    private static int interpretedDateEnd(String s, int from, int to) {
+        int minimumLength;
+        if (startsWith(s, from, to, "INT ")) {
+            minimumLength = 7;
+        } else if (startsWith(s, from, to, "INT. ")) {
+            minimumLength = 8;
+        } else {
+            return -1;
+        }
+        int paren = indexOf(s, '(', from, to);
+        return paren - from >= minimumLength ? paren : -1;
+    }
+
+    /**
+     * Is the character a decimal digit?
+     * 
+     * @param c
+     *            the character
+     * @return true if and only if the character is from 0 to 9
+     */
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    /**
+     * Is part of a string a range or period with two dates - a range or period prefix, then two dates separated by
+     * <code>AND</code> or <code>TO</code>? Only the shape of the string is checked, not whether the dates are valid.
+     * 
+     * @param s
+     *            the string
+     * @param from
+     *            the start of the part of the string
+     * @param to
+     *            the end of the part of the string
+     * @return true if and only if the part of the string looks like a range or period with two dates
+     */
+    private static boolean isTwoDates(String s, int from, int to) {
+        if (from >= to || (TWO_DATE_INITIALS & initial(s.charAt(from))) == 0) {
+            return false;
+        }
+        for (String prefix : TWO_DATE_PREFIXES) {
+            int start = from + prefix.length() + 1;
+            if (start < to && startsWith(s, from, to, prefix) && s.charAt(start - 1) == ' ') {
+                for (int i = start; i < to; i++) {
+                    if (s.charAt(i) == ' ' && (isTwoDateSeparator(s, start, i, " AND ", to) || isTwoDateSeparator(s, start, i,
+                            " TO ", to))) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Does part of a string look like two dates separated by a word at a given position?
+     * 
+     * @param s
+     *            the string
+     * @param from
+     *            the start of the part of the string
+     * @param at
+     *            the position of the word separating the dates
+     * @param separator
+     *            the word, in upper case, with a space before and after it
+     * @param to
+     *            the end of the part of the string
+     * @return true if and only if the separator is at the position, and both sides of it end in a year
+     */
+    private static boolean isTwoDateSeparator(String s, int from, int at, String separator, int to) {
+        return startsWith(s, at, to, separator) && endsInYear(s, from, at) && endsInYear(s, at + separator.length(), to);
+    }
+
+    /**
+     * Get the epoch day of a date in the proleptic Julian calendar
+     * 
+     * @param year
+     *            the year, counted astronomically
+     * @param month
+     *            the month, from 1 to 12
+     * @param day
+     *            the day of the month, which may be past the end of the month
+     * @return the epoch day
+     */
+    private static long julianEpochDay(int year, int month, int day) {
+        // Count from March 1, so the leap day is the last day of the year
+        long y = month <= 2 ? year - 1 : year;
+        long cycle = floorDiv(y, 4);
+        long yearOfCycle = y - cycle * 4;
+        long dayOfYear = (153 * ((month + 9) % 12) + 2) / 5 + day - 1;
+        return cycle * 1461 + yearOfCycle * 365 + dayOfYear - 719470;
+    }
+
+    /**
+     * Get the number of days in a Gregorian/Julian month - Julian until 1582, and Gregorian after. (October 1582 counts as 31 days,
+     * even though 10 of them never happened.)
+     * 
+     * @param year
+     *            the year, counted astronomically
+     * @param month
+     *            the month, from 1 to 12
+     * @return the number of days in the month
+     */
+    private static int lengthOfMonth(int year, int month) {
+        if (month == 2) {
+            boolean leap = year <= 1582 ? (year & 3) == 0 : year % 4 == 0 && (year % 100 != 0 || year % 400 == 0);
+            return leap ? 29 : 28;
+        }
+        return month == 4 || month == 6 || month == 9 || month == 11 ? 30 : 31;
+    }
+
+    /**
+     * Get the month whose abbreviation is at a position in a string
+     * 
+     * @param s
+     *            the string
+     * @param from
+     *            the position of the abbreviation
+     * @param to
+     *            the end of the part of the string being parsed
+     * @return the month, from 1 to 12, or 0 if there isn't a month abbreviation at the position
+     */
+    private static int monthAt(String s, int from, int to) {
+        for (int i = 0; i < MONTHS.length; i++) {
+            if (startsWith(s, from, to, MONTHS[i])) {
+                return i + 1;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Parse part of a string as a French Republican date - year, month and year, or day, month and year
+     * 
+     * @param s
+     *            the string
+     * @param from
+     *            the start of the part of the string
+     * @param to
+     *            the end of the part of the string
+     * @param qualifier
+     *            the prefix found on the date
+     * @return the range, or null if the part of the string isn't a valid French Republican date
+     */
+    @SuppressWarnings("PMD.CyclomaticComplexity")
+    private static DateRange parseFrenchRepublican(String s, int from, int to, Qualifier qualifier) {
+        int day = 0;
+        int p = from;
+        int digits = skipDigits(s, p, to);
+        if (digits > p && digits < to) {
+            day = dayOfMonth(s, p, digits);
+            if (day == 0 || s.charAt(digits) != ' ') {
+                return null;
+            }
+            p = digits + 1;
+        }
+        FrenchRepublicanMonth month = null;
+        if (day > 0 || p < to && !isDigit(s.charAt(p))) {
+            for (FrenchRepublicanMonth m : FRENCH_REPUBLICAN_MONTHS) {
+                if (startsWith(s, p, to, m.getGedcomAbbrev())) {
+                    month = m;
+                    break;
+                }
+            }
+            if (month == null || p + 4 >= to || s.charAt(p + 4) != ' ') {
+                return null;
+            }
+            p += 5;
+        }
+        int end = skipDigits(s, p, to);
+        if (end != to || end == p || end - p > 4) {
+            return null;
+        }
+        int year = digitsValue(s, p, end);
+        long earliest;
+        long latest;
+        long midpoint;
+        boolean leap = FrenchRepublicanCalendarParser.isFrenchLeapYearRomme(year);
+        if (day > 0) {
+            earliest = frenchRepublicanEpochDay(year, month, day);
+            latest = earliest;
+            midpoint = earliest;
+        } else if (month == FrenchRepublicanMonth.JOUR_COMPLEMENTAIRS) {
+            earliest = frenchRepublicanEpochDay(year, month, 1);
+            latest = frenchRepublicanEpochDay(year, month, leap ? 6 : 5);
+            midpoint = frenchRepublicanEpochDay(year, month, leap ? 3 : 2);
+        } else if (month != null) {
+            earliest = frenchRepublicanEpochDay(year, month, 1);
+            latest = frenchRepublicanEpochDay(year, month, 30);
+            midpoint = frenchRepublicanEpochDay(year, month, 15);
+        } else {
+            earliest = frenchRepublicanEpochDay(year, FrenchRepublicanMonth.VENDEMIAIRE, 1);
+            latest = frenchRepublicanEpochDay(year, FrenchRepublicanMonth.JOUR_COMPLEMENTAIRS, leap ? 6 : 5);
+            midpoint = frenchRepublicanEpochDay(year, FrenchRepublicanMonth.GERMINAL, 1);
+        }
+        if (earliest == Long.MIN_VALUE) {
+            return null;
+        }
+        return new DateRange(earliest, latest, midpoint, qualifier, CalendarSystem.FRENCH_REPUBLICAN);
+    }
+
+    /**
+     * Parse part of a string as a Gregorian or Julian date - a single date, possibly with a prefix, or a range or period of two
+     * dates
+     * 
+     * @param s
+     *            the string
+     * @param from
+     *            the start of the part of the string
+     * @param to
+     *            the end of the part of the string
+     * @param calendar
+     *            the calendar the date is written in
+     * @return the range, or null if no date could be derived from the part of the string
+     */
+    private static DateRange parseGregorianJulian(String s, int from, int to, CalendarSystem calendar) {
+        if (from < to && isDigit(s.charAt(from))) {
+            // No prefix - the usual case
+            return parseSingleGregorianJulian(s, from, to, Qualifier.NONE, calendar);
+        }
+        int start = from;
+        int end = to;
+        Qualifier qualifier = Qualifier.NONE;
+        int approximation = findPrefix(s, start, end, APPROXIMATIONS, APPROXIMATION_INITIALS);
+        if (approximation >= 0) {
+            int after = afterPrefix(s, start, end, APPROXIMATIONS[approximation]);
+            end = trimEnd(s, after, end);
+            start = trimStart(s, after, end);
+            qualifier = APPROXIMATION_QUALIFIERS[approximation];
+        }
+        int interpreted = interpretedDateEnd(s, start, end);
+        if (interpreted >= 0) {
+            end = trimEnd(s, start + 4, interpreted);
+            start = trimStart(s, start + 4, end);
+            qualifier = Qualifier.INTERPRETED;
+        }
+        if (isTwoDates(s, start, end)) {
+            return parseTwoDates(s, start, end, calendar);
+        }
+        int openEnded = findPrefix(s, start, end, OPEN_ENDED, OPEN_ENDED_INITIALS);
+        if (openEnded >= 0) {
+            int after = afterPrefix(s, start, end, OPEN_ENDED[openEnded]);
+            end = trimEnd(s, after, end);
+            start = trimStart(s, after, end);
+            qualifier = OPEN_ENDED_QUALIFIERS[openEnded];
+        }
+        if (isTwoDates(s, start, end)) {
+            // e.g., AFTER BET 1900 AND 1910
+            return parseTwoDates(s, start, end, calendar);
+        }
+        return parseSingleGregorianJulian(s, start, end, qualifier, calendar);
+    }
+
+    /**
+     * Parse part of a string as a Hebrew date - year, month and year, or day, month and year
+     * 
+     * @param s
+     *            the string
+     * @param from
+     *            the start of the part of the string
+     * @param to
+     *            the end of the part of the string
+     * @param qualifier
+     *            the prefix found on the date
+     * @return the range, or null if the part of the string isn't a valid Hebrew date
+     */
+    private static DateRange parseHebrew(String s, int from, int to, Qualifier qualifier) {
+        int day = 0;
+        int p = from;
+        int digits = skipDigits(s, p, to);
+        if (digits > p && digits < to) {
+            day = dayOfMonth(s, p, digits);
+            if (day == 0 || s.charAt(digits) != ' ') {
+                return null;
+            }
+            p = digits + 1;
+        }
+        HebrewMonth month = null;
+        if (day > 0 || p < to && !isDigit(s.charAt(p))) {
+            for (HebrewMonth m : HEBREW_MONTHS) {
+                if (startsWith(s, p, to, m.getGedcomAbbrev())) {
+                    month = m;
+                    break;
+                }
+            }
+            if (month == null || p + 3 >= to || s.charAt(p + 3) != ' ') {
+                return null;
+            }
+            p += 4;
+        }
+        if (skipDigits(s, p, to) != to || to - p != 4) {
+            return null;
+        }
+        int year = digitsValue(s, p, to);
+        long earliest;
+        long latest;
+        long midpoint;
+        if (day > 0) {
+            earliest = hebrewEpochDay(year, month, day);
+            latest = earliest;
+            midpoint = earliest;
+        } else if (month != null) {
+            int length = HEBREW.getMonthLength(year, month);
+            earliest = hebrewEpochDay(year, month, 1);
+            latest = hebrewEpochDay(year, month, length);
+            midpoint = hebrewEpochDay(year, month, length / 2);
+        } else {
+            earliest = hebrewEpochDay(year, HebrewMonth.TISHREI, 1);
+            latest = hebrewEpochDay(year, HebrewMonth.ELUL, HEBREW.getMonthLength(year, HebrewMonth.ELUL));
+            midpoint = hebrewEpochDay(year, HebrewMonth.ADAR, HEBREW.getMonthLength(year, HebrewMonth.ADAR) / 2);
+        }
+        return new DateRange(earliest, latest, midpoint, qualifier, CalendarSystem.HEBREW);
+    }
+
+    /**
+     * Parse part of a string as a Hebrew or French Republican date - a single date, possibly with a prefix, or a range or period of
+     * two dates
+     * 
+     * @param s
+     *            the string
+     * @param from
+     *            the start of the part of the string
+     * @param to
+     *            the end of the part of the string
+     * @param calendar
+     *            the calendar the date is written in - {@link CalendarSystem#HEBREW} or
+     *            {@link CalendarSystem#FRENCH_REPUBLICAN}
+     * @return the range, or null if no date could be derived from the part of the string
+     */
+    private static DateRange parseOtherCalendar(String s, int from, int to, CalendarSystem calendar) {
+        if (isTwoDates(s, from, to)) {
+            return parseTwoDates(s, from, to, calendar);
+        }
+        return parseSingleOtherCalendar(s, from, to, calendar);
+    }
+
+    /**
+     * Parse part of a string as a single Gregorian or Julian date with any prefixes already removed - a year, month and year, or
+     * day, month and year
+     * 
+     * @param s
+     *            the string
+     * @param from
+     *            the start of the part of the string
+     * @param to
+     *            the end of the part of the string
+     * @param qualifier
+     *            the prefix found on the date
+     * @param calendar
+     *            the calendar the date is written in
+     * @return the range, or null if the part of the string isn't a valid date
+     */
+    private static DateRange parseSingleGregorianJulian(String s, int from, int to, Qualifier qualifier,
+            CalendarSystem calendar) {
+        int day = 0;
+        int p = from;
+        int digits = skipDigits(s, p, to);
+        if (digits > p && digits + 1 < to && s.charAt(digits) == ' ' && monthAt(s, digits + 1, to) > 0) {
+            day = dayOfMonth(s, p, digits);
+            if (day == 0) {
+                return null;
+            }
+            p = digits + 1;
+        }
+        int month = 0;
+        if (p < to && !isDigit(s.charAt(p))) {
+            month = monthAt(s, p, to);
+            if (month == 0 || p + 3 >= to || s.charAt(p + 3) != ' ') {
+                return null;
+            }
+            p += 4;
+        }
+        int year = parseYear(s, p, to);
+        if (year == NO_YEAR) {
+            return null;
+        }
+        long earliest;
+        long latest;
+        long midpoint;
+        if (day > 0) {
+            earliest = epochDay(year, month, day);
+            latest = earliest;
+            midpoint = earliest;
+        } else if (month > 0) {
+            earliest = epochDay(year, month, 1);
+            latest = (month == 12 ? epochDay(year + 1, 1, 1) : epochDay(year, month + 1, 1)) - 1;
+            midpoint = epochDay(year, month, lengthOfMonth(year, month) / 2);
+        } else {
+            earliest = epochDay(year, 1, 1);
+            latest = epochDay(year, 12, 31);
+            // Not precisely the midpoint, but feels midpointy
+            midpoint = epochDay(year, 7, 1);
+        }
+        return new DateRange(earliest, latest, midpoint, qualifier, calendar);
+    }
+
+    /**
+     * Parse part of a string as a single Hebrew or French Republican date, possibly with a prefix
+     * 
+     * @param s
+     *            the string
+     * @param from
+     *            the start of the part of the string
+     * @param to
+     *            the end of the part of the string
+     * @param calendar
+     *            the calendar the date is written in - {@link CalendarSystem#HEBREW} or
+     *            {@link CalendarSystem#FRENCH_REPUBLICAN}
+     * @return the range, or null if no date could be derived from the part of the string
+     */
+    private static DateRange parseSingleOtherCalendar(String s, int from, int to, CalendarSystem calendar) {
+        int start = from;
+        int end = to;
+        Qualifier qualifier = Qualifier.NONE;
+        int approximation = findPrefix(s, start, end, APPROXIMATIONS, APPROXIMATION_INITIALS);
+        if (approximation >= 0) {
+            int after = afterPrefix(s, start, end, APPROXIMATIONS[approximation]);
+            end = trimEnd(s, after, end);
+            start = trimStart(s, after, end);
+            qualifier = APPROXIMATION_QUALIFIERS[approximation];
+        }
+        int interpreted = interpretedDateEnd(s, start, end);
+        if (interpreted >= 0) {
+            end = trimEnd(s, start + 4, interpreted);
+            start = trimStart(s, start + 4, end);
+            qualifier = Qualifier.INTERPRETED;
+        }
+        if (!isTwoDates(s, start, end)) {
+            int openEnded = findPrefix(s, start, end, OPEN_ENDED, OPEN_ENDED_INITIALS);
+            if (openEnded >= 0) {
+                int after = afterPrefix(s, start, end, OPEN_ENDED[openEnded]);
+                end = trimEnd(s, after, end);
+                start = trimStart(s, after, end);
+                qualifier = OPEN_ENDED_QUALIFIERS[openEnded];
+            }
+        }
+        if (calendar == CalendarSystem.HEBREW) {
+            return parseHebrew(s, start, end, qualifier);
+        }
+        return parseFrenchRepublican(s, start, end, qualifier);
+    }
+
+    /**
+     * Parse part of a string as a range or period of two dates
+     * 
+     * @param s
+     *            the string
+     * @param from
+     *            the start of the part of the string, which starts with a range or period prefix
+     * @param to
+     *            the end of the part of the string
+     * @param calendar
+     *            the calendar the dates are written in
+     * @return the range, or null if either of the two dates isn't valid
+     */
+    private static DateRange parseTwoDates(String s, int from, int to, CalendarSystem calendar) {
+        Qualifier qualifier = Qualifier.BETWEEN;
+        int separator = indexOf(s, " AND ", from, to);
+        int secondStart = separator + 5;
+        if (separator < 0) {
+            qualifier = Qualifier.FROM_TO;
+            separator = indexOf(s, " TO ", from, to);
+            secondStart = separator + 4;
+        }
+
+        int firstEnd = trimEnd(s, from, separator);
+        int firstStart = trimStart(s, from, firstEnd);
+        int prefix = findPrefix(s, firstStart, firstEnd, FIRST_OF_TWO_PREFIXES, FIRST_OF_TWO_INITIALS);
+        if (prefix >= 0) {
+            int after = afterPrefix(s, firstStart, firstEnd, FIRST_OF_TWO_PREFIXES[prefix]);
+            firstEnd = trimEnd(s, after, firstEnd);
+            firstStart = trimStart(s, after, firstEnd);
+        }
+        int secondEnd = trimEnd(s, secondStart, to);
+        secondStart = trimStart(s, secondStart, secondEnd);
+
+        DateRange first;
+        DateRange second;
+        if (calendar == CalendarSystem.HEBREW || calendar == CalendarSystem.FRENCH_REPUBLICAN) {
+            first = parseSingleOtherCalendar(s, firstStart, firstEnd, calendar);
+            second = first == null ? null : parseSingleOtherCalendar(s, secondStart, secondEnd, calendar);
+        } else {
+            first = parseGregorianJulian(s, firstStart, firstEnd, calendar);
+            second = first == null ? null : parseGregorianJulian(s, secondStart, secondEnd, calendar);
+        }
+        if (second == null) {
+            return null;
+        }
+        long earliest = first.getEarliestEpochDay();
+        long latest = second.getLatestEpochDay();
+        return new DateRange(earliest, latest, earliest + (int) (latest - earliest) / 2, qualifier, calendar);
+    }
+
+    /**
+     * Parse part of a string as a Gregorian or Julian year - one to four digits, optionally double-dated (e.g.,
+     * <code>1731/32</code>), then optionally a space, then optionally <code>BC</code>, <code>BCE</code> or <code>B.C.</code>
+     * 
+     * @param s
+     *            the string
+     * @param from
+     *            the start of the part of the string
+     * @param to
+     *            the end of the part of the string
+     * @return the year, counted astronomically, or {@link #NO_YEAR} if the part of the string isn't a year
+     */
+    private static int parseYear(String s, int from, int to) {
+        int digits = skipDigits(s, from, to);
+        if (digits == from || digits - from > 4) {
+            return NO_YEAR;
+        }
+        int year = digitsValue(s, from, digits);
+        int p = digits;
+        int newStyle = -1;
+        if (p + 3 <= to && s.charAt(p) == '/' && skipDigits(s, p + 1, p + 3) == p + 3) {
+            newStyle = digitsValue(s, p + 1, p + 3);
+            p += 3;
+        }
+        if (p < to && s.charAt(p) == ' ') {
+            p++;
+        }
+        if (p < to) {
+            if (newStyle >= 0 || !(to - p == 2 && startsWith(s, p, to, "BC") || to - p == 3 && startsWith(s, p, to, "BCE")
+                    || to - p == 4 && startsWith(s, p, to, "B.C."))) {
+                return NO_YEAR;
+            }
+            return 1 - year;
+        }
+        if (newStyle >= 0 && digits + 3 == to && digits - from == 4 && year >= 1582 && year <= 1752) {
+            // Old style/new style year from around the English calendar switch - use the new style
+            int oldStyle = year;
+            if (newStyle == 0 && oldStyle % 100 == 99) {
+                oldStyle++;
+            }
+            return oldStyle / 100 * 100 + newStyle;
+        }
+        return year;
+    }
+
+    /**
+     * Find the end of a run of digits
+     * 
+     * @param s
+     *            the string
+     * @param from
+     *            the position to start at
+     * @param to
+     *            the end of the part of the string being parsed
+     * @return the position of the first character at or after <code>from</code> which isn't a digit, or <code>to</code> if they
+     *         all are
+     */
+    private static int skipDigits(String s, int from, int to) {
+        int i = from;
+        while (i < to && isDigit(s.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Does part of a string start with some text, ignoring case?
+     * 
+     * @param s
+     *            the string
+     * @param from
+     *            the start of the part of the string
+     * @param to
+     *            the end of the part of the string
+     * @param text
+     *            the text, in upper case
+     * @return true if and only if the part of the string starts with the text
+     */
+    private static boolean startsWith(String s, int from, int to, String text) {
+        int n = text.length();
+        if (to - from < n) {
+            return false;
+        }
+        for (int i = 0; i < n; i++) {
+            if (upper(s.charAt(from + i)) != text.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Move the end of part of a string back past any whitespace or control characters, as {@link String#trim()} does
+     * 
+     * @param s
+     *            the string
+     * @param from
+     *            the start of the part of the string
+     * @param to
+     *            the end of the part of the string
+     * @return the new end of the part of the string
+     */
+    private static int trimEnd(String s, int from, int to) {
+        int i = to;
+        while (i > from && s.charAt(i - 1) <= ' ') {
+            i--;
+        }
+        return i;
+    }
+
+    /**
+     * Move the start of part of a string forward past any whitespace or control characters, as {@link String#trim()} does
+     * 
+     * @param s
+     *            the string
+     * @param from
+     *            the start of the part of the string
+     * @param to
+     *            the end of the part of the string
+     * @return the new start of the part of the string
+     */
+    private static int trimStart(String s, int from, int to) {
+        int i = from;
+        while (i < to && s.charAt(i) <= ' ') {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Convert an ASCII letter to upper case
+     * 
+     * @param c
+     *            the character
+     * @return the upper case version of the character if it's a lower case ASCII letter, or the character itself if not
+     */
+    private static char upper(char c) {
+        return c >= 'a' && c <= 'z' ? (char) (c - ('a' - 'A')) : c;
+    }
+}
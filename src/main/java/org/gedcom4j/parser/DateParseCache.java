@@ -0,0 +1,371 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.parser;
+
+import java.io.Serializable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.gedcom4j.parser.DateParser.ImpreciseDatePreference;
+
+/**
+ * <p>
+ * A bounded, thread-safe cache of parsed date strings. The same few thousand date values ("ABT 1850", "1900", "BET 1820 AND
+ * 1825") tend to recur across all the events in a file, so parsing each distinct string once and remembering the result saves
+ * almost all the parsing work of the validators, comparators and queries that look at dates.
+ * </p>
+ * <p>
+ * Each string is cached as the {@link DateRange} it parses to, which holds the day for every {@link ImpreciseDatePreference}, so
+ * one entry serves all preferences. Strings that can't be parsed are cached too. Once the cache is full, entries are evicted with
+ * the "clock" approximation of least-recently-used: an entry that has been used since the clock hand last passed it gets a second
+ * chance, and one that hasn't is replaced. A string that is only ever seen once is therefore the first to go.
+ * </p>
+ * <p>
+ * Use {@link #getParser()} to get a {@link DateParser} that goes through the cache. The library's own date consumers use the
+ * cache from {@link #getSharedInstance()}.
+ * </p>
+ * 
+ * @author frizbog
+ */
+public class DateParseCache implements Serializable {
+
+    /**
+     * A cached date string
+     * 
+     * @author frizbog
+     */
+    static final class Entry {
+
+        /**
+         * The date string
+         */
+        final String dateString;
+
+        /**
+         * The range the date string parses to, or null if it can't be parsed
+         */
+        final DateRange range;
+
+        /**
+         * Has this entry been used since the clock hand last passed it?
+         */
+        volatile boolean referenced;
+
+        /**
+         * Constructor
+         * 
+         * @param dateString
+         *            the date string
+         * @param range
+         *            the range the date string parses to, or null if it can't be parsed
+         */
+        Entry(String dateString, DateRange range) {
+            this.dateString = dateString;
+            this.range = range;
+        }
+    }
+
+    /**
+     * The default maximum number of date strings in the cache
+     */
+    public static final int DEFAULT_MAX_SIZE = 10000;
+
+    /**
+     * Serial Version UID
+     */
+    private static final long serialVersionUID = -2170347129582357207L;
+
+    /**
+     * The cache shared by the library's own date consumers
+     */
+    private static final DateParseCache SHARED_INSTANCE = new DateParseCache(DEFAULT_MAX_SIZE, true);
+
+    /**
+     * The maximum number of date strings in the cache
+     */
+    private final int maxSize;
+
+    /**
+     * Is this the {@link #SHARED_INSTANCE}?
+     */
+    private final boolean shared;
+
+    /**
+     * The cached entries, by date string
+     */
+    private final transient ConcurrentMap<String, Entry> cache;
+
+    /**
+     * The cached entries, in the order the clock hand visits them. Guarded by this object's lock.
+     */
+    private final transient Entry[] entries;
+
+    /**
+     * The position of the clock hand in {@link #entries}. Guarded by this object's lock.
+     */
+    private transient int hand;
+
+    /**
+     * The number of entries in the cache. Only changed while holding this object's lock, but read without it.
+     */
+    private final transient AtomicInteger size = new AtomicInteger();
+
+    /**
+     * The number of lookups that found the date string in the cache
+     */
+    private final transient AtomicLong hits = new AtomicLong();
+
+    /**
+     * The number of lookups that did not find the date string in the cache
+     */
+    private final transient AtomicLong misses = new AtomicLong();
+
+    /**
+     * The number of entries evicted to make room for others
+     */
+    private final transient AtomicLong evictions = new AtomicLong();
+
+    /**
+     * The parser that goes through this cache
+     */
+    private final transient DateParser parser = new DateParser(this);
+
+    /**
+     * Default constructor, for a cache of up to {@link #DEFAULT_MAX_SIZE} date strings
+     */
+    public DateParseCache() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * Constructor that lets you specify the cache size
+     * 
+     * @param maxSize
+     *            the maximum number of date strings in the cache. Zero turns caching off.
+     */
+    public DateParseCache(int maxSize) {
+        this(maxSize, false);
+    }
+
+    /**
+     * Constructor
+     * 
+     * @param maxSize
+     *            the maximum number of date strings in the cache
+     * @param shared
+     *            is this the {@link #SHARED_INSTANCE}?
+     */
+    private DateParseCache(int maxSize, boolean shared) {
+        if (maxSize < 0) {
+            throw new IllegalArgumentException("Max cache size must not be negative");
+        }
+        this.maxSize = maxSize;
+        this.shared = shared;
+        entries = new Entry[maxSize];
+        cache = new ConcurrentHashMap<>(Math.min(maxSize, 1024));
+    }
+
+    /**
+     * Get the cache shared by the library's own date consumers, such as the validators, comparators and
+     * {@link org.gedcom4j.query.Finder}
+     * 
+     * @return the shared cache
+     */
+    public static DateParseCache getSharedInstance() {
+        return SHARED_INSTANCE;
+    }
+
+    /**
+     * Remove all the entries from the cache, and reset the statistics
+     */
+    public void clear() {
+        synchronized (this) {
+            cache.clear();
+            for (int i = 0; i < size.get(); i++) {
+                entries[i] = null;
+            }
+            size.set(0);
+            hand = 0;
+            hits.set(0);
+            misses.set(0);
+            evictions.set(0);
+        }
+    }
+
+    /**
+     * Get the number of entries evicted to make room for others
+     * 
+     * @return the number of entries evicted to make room for others
+     */
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    /**
+     * Get the number of lookups that found the date string in the cache
+     * 
+     * @return the number of lookups that found the date string in the cache
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * Get the proportion of lookups that found the date string in the cache
+     * 
+     * @return the proportion of lookups that found the date string in the cache, from 0 to 1. Zero if there have been no lookups.
+     */
+    public double getHitRate() {
+        long h = hits.get();
+        long lookups = h + misses.get();
+        return lookups == 0 ? 0 : (double) h / lookups;
+    }
+
+    /**
+     * Get the maximum number of date strings in the cache
+     * 
+     * @return the maximum number of date strings in the cache
+     */
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Get the number of lookups that did not find the date string in the cache
+     * 
+     * @return the number of lookups that did not find the date string in the cache
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * Get a date parser that goes through this cache. The parser can be shared between threads.
+     * 
+     * @return the date parser
+     */
+    public DateParser getParser() {
+        return parser;
+    }
+
+    /**
+     * Get the range of days a date string means, from the cache if it's there, otherwise by parsing it and adding it to the cache
+     * 
+     * @param dateString
+     *            the date string
+     * @return the range of days, or null if none can be derived from the string
+     * @see DateParser#parseRange(String)
+     */
+    public DateRange getRange(String dateString) {
+        Entry entry = cache.get(dateString);
+        if (entry != null) {
+            hits.incrementAndGet();
+            if (!entry.referenced) {
+                entry.referenced = true;
+            }
+            return entry.range;
+        }
+        misses.incrementAndGet();
+        DateRange range = DateLexer.parse(dateString);
+        if (maxSize > 0) {
+            admit(new Entry(dateString, range));
+        }
+        return range;
+    }
+
+    /**
+     * Get the number of date strings in the cache
+     * 
+     * @return the number of date strings in the cache
+     */
+    public int getSize() {
+        return size.get();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder(100);
+        builder.append("DateParseCache [size=");
+        builder.append(size.get());
+        builder.append(", maxSize=");
+        builder.append(maxSize);
+        builder.append(", hits=");
+        builder.append(hits.get());
+        builder.append(", misses=");
+        builder.append(misses.get());
+        builder.append(", evictions=");
+        builder.append(evictions.get());
+        builder.append("]");
+        return builder.toString();
+    }
+
+    /**
+     * Add an entry to the cache, evicting another one if the cache is full
+     * 
+     * @param entry
+     *            the entry to add
+     */
+    private void admit(Entry entry) {
+        synchronized (this) {
+            if (cache.containsKey(entry.dateString)) {
+                // Another thread added it in the meantime
+                return;
+            }
+            int count = size.get();
+            if (count < entries.length) {
+                entries[count] = entry;
+                cache.put(entry.dateString, entry);
+                size.set(count + 1);
+                return;
+            }
+            while (entries[hand].referenced) {
+                entries[hand].referenced = false;
+                hand = (hand + 1) % entries.length;
+            }
+            cache.remove(entries[hand].dateString);
+            entries[hand] = entry;
+            cache.put(entry.dateString, entry);
+            hand = (hand + 1) % entries.length;
+            evictions.incrementAndGet();
+        }
+    }
+
+    /**
+     * When deserializing, use the shared cache if that was what was serialized, and a new empty cache of the same size otherwise.
+     * The cached entries themselves are not serialized.
+     * 
+     * @return the cache to use
+     */
+    private Object readResolve() {
+        return shared ? SHARED_INSTANCE : new DateParseCache(maxSize);
+    }
+}
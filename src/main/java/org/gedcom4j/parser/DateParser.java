@@ -27,17 +27,23 @@
 package org.gedcom4j.parser;
 
 import java.io.Serializable;
-import java.text.ParseException;
 import java.text.SimpleDateFormat;
-import java.util.Calendar;
 import java.util.Date;
-import java.util.Locale;
-import java.util.TimeZone;
-import java.util.concurrent.TimeUnit;
 import java.util.regex.Pattern;
 
 /**
+ * <p>
  * A class for parsing dates from strings. Slightly more relaxed than the GEDCOM spec allows.
+ * </p>
+ * <p>
+ * Each string is scanned once, by a hand-written lexer, into a {@link DateRange} holding every day the string can resolve to. The
+ * methods that return a {@link Date} pick one of those days, so code that wants more than one of them (say, the earliest and the
+ * latest) should call {@link #parseRange(String)} instead and parse the string just once. Instances can be shared between threads.
+ * </p>
+ * <p>
+ * A parser from {@link DateParseCache#getParser()} remembers the strings it has parsed, which is much faster when the same date
+ * values come up again and again, as they do across the events in a file.
+ * </p>
  * 
  * @author frizbog
  * @since v3.0.1
@@ -94,38 +100,11 @@ public class DateParser implements Serializable {
      */
     private static final String FORMAT_YEAR = "\\d{1,4}(\\/\\d{2})? ?(BC|B.C.|BCE)?";
 
-    /**
-     * Regex string for a day value
-     */
-    private static final String FORMAT_DAY = "(0?[1-9]|[12]\\d|3[01])";
-
-    /**
-     * Regex string for a month value
-     */
-    private static final String FORMAT_MONTH_GREGORIAN_JULIAN = "(JAN|FEB|MAR|APR|MAY|JUN|JUL|AUG|SEP|OCT|NOV|DEC)";
-
     /**
      * Regex string for case insensitivity
      */
     private static final String FORMAT_CASE_INSENSITIVE = "(?i)";
 
-    /**
-     * The regex pattern that identifies a single, full Gregorian/Julian date, with year, month, and day
-     */
-    private static final Pattern PATTERN_SINGLE_DATE_FULL_GREGORIAN_JULIAN = Pattern.compile(FORMAT_CASE_INSENSITIVE + FORMAT_DAY
-            + " " + FORMAT_MONTH_GREGORIAN_JULIAN + " " + FORMAT_YEAR);
-
-    /**
-     * The regex pattern that identifies a single date, with year, month, but no day
-     */
-    private static final Pattern PATTERN_SINGLE_DATE_MONTH_YEAR_GREGORIAN_JULIAN = Pattern.compile(FORMAT_CASE_INSENSITIVE
-            + FORMAT_MONTH_GREGORIAN_JULIAN + " " + FORMAT_YEAR);
-
-    /**
-     * The regex pattern that identifies a single date, year only (no month or day)
-     */
-    private static final Pattern PATTERN_SINGLE_DATE_YEAR_ONLY = Pattern.compile(FORMAT_CASE_INSENSITIVE + FORMAT_YEAR);
-
     /**
      * The regex pattern that matches a string ending in a double-entry year
      */
@@ -139,26 +118,27 @@ public class DateParser implements Serializable {
             + FORMAT_YEAR + " (AND|TO) " + FORMAT_DATE_MISC + FORMAT_YEAR);
 
     /**
-     * The regex format for matching a Hebrew month (per GEDCOM spec)
-     */
-    private static final String FORMAT_MONTH_HEBREW = "(TSH|CSH|KSL|TVT|SHV|ADR|ADS|NSN|IYR|SVN|TMZ|AAV|ELL)";
-
-    /**
-     * The regex format for matching a French Republican month (per GEDCOM spec)
+     * The cache parsed dates go through, or null if they are not cached
      */
-    private static final String FORMAT_MONTH_FRENCH_REPUBLICAN = "(VEND|BRUM|FRIM|NIVO|PLUV|VENT|GERM|FLOR|PRAI|MESS|THER|FRUC|COMP)";
+    private final DateParseCache cache;
 
     /**
-     * Pattern for matching a single Hebrew date in GEDCOM format
+     * Default constructor, for a parser that does not cache what it parses. Use {@link DateParseCache#getParser()} for one that
+     * does.
      */
-    private static final Pattern PATTERN_SINGLE_HEBREW_DATE = Pattern.compile(FORMAT_CASE_INSENSITIVE + FORMAT_DAY + "? ?"
-            + FORMAT_MONTH_HEBREW + "? ?\\d{4}");
+    public DateParser() {
+        this(null);
+    }
 
     /**
-     * Pattern for matching a single French Republican date in GEDCOM format
+     * Constructor
+     * 
+     * @param cache
+     *            the cache parsed dates go through, or null if they are not to be cached
      */
-    private static final Pattern PATTERN_SINGLE_FRENCH_REPUBLICAN_DATE = Pattern.compile(FORMAT_CASE_INSENSITIVE + FORMAT_DAY
-            + "? ?" + FORMAT_MONTH_FRENCH_REPUBLICAN + "? ?\\d{1,4}");
+    DateParser(DateParseCache cache) {
+        this.cache = cache;
+    }
 
     /**
      * Parse the string as date, with the default imprecise date handling preference of {@link ImpreciseDatePreference#PRECISE}.
@@ -181,20 +161,21 @@ public class DateParser implements Serializable {
      * @return the date, if one can be derived from the string
      */
     public Date parse(String dateString, ImpreciseDatePreference pref) {
-        String ds = dateString.toUpperCase(Locale.US);
-        if (ds.startsWith("@#DHEBREW@ ")) {
-            return parseHebrew(ds.substring("@#DHEBREW@ ".length()), pref);
-        }
-        if (ds.startsWith("@#DFRENCH R@ ")) {
-            return parseFrenchRepublican(ds.substring("@#DFRENCH R@ ".length()), pref);
-        }
-        if (ds.startsWith("@#DGREGORIAN@ ")) {
-            return parseGregorianJulian(ds.substring("@#DGREGORIAN@ ".length()), pref);
-        }
-        if (ds.startsWith("@#DJULIAN@ ")) {
-            return parseGregorianJulian(ds.substring("@#DJULIAN@ ".length()), pref);
-        }
-        return parseGregorianJulian(ds, pref);
+        DateRange range = parseRange(dateString);
+        return range == null ? null : range.toDate(pref);
+    }
+
+    /**
+     * Parse the string as a range of days, which holds the earliest, latest and midpoint days the string can mean - everything
+     * {@link #parse(String, ImpreciseDatePreference)} can return for the string, from a single pass over it - as well as its
+     * prefix and calendar. This is the cheaper way to get more than one of those days.
+     * 
+     * @param dateString
+     *            the date string
+     * @return the range of days, if one can be derived from the string, or null if not
+     */
+    public DateRange parseRange(String dateString) {
+        return cache == null ? DateLexer.parse(dateString) : cache.getRange(dateString);
     }
 
     /**
@@ -224,74 +205,6 @@ public class DateParser implements Serializable {
         return d;
     }
 
-    /**
-     * Convert a French Republican date string (in proper GEDCOM format) to a (Gregorian) java.util.Date.
-     * 
-     * @param frenchRepublicanDateString
-     *            the French Republican date in GEDCOM spec format - see DATE_HEBR and MONTH_HEBR in the spec.
-     * @param pref
-     *            preference on how to handle imprecise dates - return the earliest day of the month, the latest, the midpoint?
-     * @return the Gregorian date that represents the French Republican date supplied
-     */
-    Date parseFrenchRepublicanSingleDate(String frenchRepublicanDateString, ImpreciseDatePreference pref) {
-        String frds = removeApproximations(frenchRepublicanDateString.toUpperCase(Locale.US));
-        frds = removeOpenEndedRangesAndPeriods(frds);
-
-        if (!PATTERN_SINGLE_FRENCH_REPUBLICAN_DATE.matcher(frds).matches()) {
-            return null;
-        }
-
-        String[] datePieces = frds.split(" ");
-        if (datePieces == null || datePieces.length < 1) {
-            return null;
-        }
-
-        if (datePieces.length == 3) {
-            return parseFrenchRepublicanDayMonthYear(datePieces);
-        } else if (datePieces.length == 2) {
-            return parseFrenchRepublicanMonthYear(datePieces, pref);
-        } else if (datePieces.length == 1) {
-            return parseFrenchRepublicanYearOnly(datePieces, pref);
-        } else {
-            return null;
-        }
-
-    }
-
-    /**
-     * Convert a Hebrew date string (in proper GEDCOM format) to a (Gregorian) java.util.Date.
-     * 
-     * @param hebrewDateString
-     *            the Hebrew date in GEDCOM spec format - see DATE_HEBR and MONTH_HEBR in the spec.
-     * @param pref
-     *            preference on how to handle imprecise dates - return the earliest day of the month, the latest, the midpoint?
-     * @return the Gregorian date that represents the Hebrew date supplied
-     */
-    Date parseHebrewSingleDate(String hebrewDateString, ImpreciseDatePreference pref) {
-        String hds = removeApproximations(hebrewDateString.toUpperCase(Locale.US));
-        hds = removeOpenEndedRangesAndPeriods(hds);
-
-        if (!PATTERN_SINGLE_HEBREW_DATE.matcher(hds).matches()) {
-            return null;
-        }
-
-        String[] datePieces = hds.split(" ");
-        if (datePieces == null || datePieces.length < 1) {
-            return null;
-        }
-
-        if (datePieces.length == 3) {
-            return parseHebrewDayMonthYear(datePieces);
-        } else if (datePieces.length == 2) {
-            return parseHebrewMonthYear(pref, datePieces);
-        } else if (datePieces.length == 1) {
-            return parseHebrewYearOnly(pref, datePieces);
-        } else {
-            return null;
-        }
-
-    }
-
     /**
      * Return a version of the string with approximation prefixes removed, including handling for interpreted dates
      * 
@@ -402,541 +315,4 @@ public class DateParser implements Serializable {
         return new String[] {};
     }
 
-    /**
-     * Attempt to parse <code>dateString</code> using date format <code>fmt</code>. If successful, return the date. Otherwise return
-     * null.
-     * 
-     * @param dateString
-     *            the date string
-     * @param pattern
-     *            the date format to try parsing with
-     * @return the date if successful, or null if the date cannot be parsed using the format supplied
-     */
-    private Date getDateWithFormatString(String dateString, String pattern) {
-        SimpleDateFormat sdf = new SimpleDateFormat(pattern, Locale.US);
-        sdf.setTimeZone(TimeZone.getTimeZone("UTC"));
-        try {
-            return sdf.parse(dateString);
-        } catch (@SuppressWarnings("unused") ParseException ignored) {
-            return null;
-        }
-    }
-
-    /**
-     * Get the midpoint between two dates
-     * 
-     * @param d1
-     *            first date
-     * @param d2
-     *            second date
-     * @return the midpoint between the two dates
-     */
-    private Date getMidpointOfDateRange(Date d1, Date d2) {
-        if (d1 == null || d2 == null) {
-            return null;
-        }
-        long daysBetween = TimeUnit.DAYS.convert(d2.getTime() - d1.getTime(), TimeUnit.MILLISECONDS);
-        Calendar c = Calendar.getInstance(Locale.US);
-        c.setTimeZone(TimeZone.getTimeZone("UTC"));
-        c.setTime(d1);
-        c.add(Calendar.DAY_OF_YEAR, (int) daysBetween / 2);
-        return c.getTime();
-    }
-
-    /**
-     * Get a Gregorian date from a French Republican date string consisting of two dates separated by either "AND" or "TO", and with
-     * a prefix like "FROM" or "BET", using the supplied method of resolving a single date from the range
-     * 
-     * @param frenchRepublicanDateString
-     *            a French Republican date string
-     * @param pref
-     *            preference on how to handle imprecise dates - return the earliest day of the month, the latest, the midpoint?
-     * @return the preferred date based on the string supplied, or null if no date could be determined
-     */
-    private Date getPreferredDateFromFrenchRepublicanRangeOrPeriod(String frenchRepublicanDateString,
-            ImpreciseDatePreference pref) {
-        // Split the string into two dates
-        String[] dateStrings = splitTwoDateString(frenchRepublicanDateString, " AND ");
-        if (dateStrings.length == 0) {
-            dateStrings = splitTwoDateString(frenchRepublicanDateString, " TO ");
-        }
-        if (dateStrings.length == 0) {
-            return null;
-        }
-
-        // Calculate the dates from the two strings, based on what's preferred
-        switch (pref) {
-            case FAVOR_EARLIEST:
-                return parseFrenchRepublicanSingleDate(dateStrings[0], pref);
-            case FAVOR_LATEST:
-                return parseFrenchRepublicanSingleDate(dateStrings[1], pref);
-            case FAVOR_MIDPOINT:
-                Date d1 = parseFrenchRepublicanSingleDate(dateStrings[0], ImpreciseDatePreference.FAVOR_EARLIEST);
-                Date d2 = parseFrenchRepublicanSingleDate(dateStrings[1], ImpreciseDatePreference.FAVOR_LATEST);
-                return getMidpointOfDateRange(d1, d2);
-            case PRECISE:
-                return parseFrenchRepublicanSingleDate(dateStrings[0], pref);
-            default:
-                throw new IllegalArgumentException("Unexpected value for imprecise date preference: " + pref);
-        }
-    }
-
-    /**
-     * Get a Gregorian date from a Hebrew date string consisting of two dates separated by either "AND" or "TO", and with a prefix
-     * like "FROM" or "BET", using the supplied method of resolving a single date from the range
-     * 
-     * 
-     * @param hebrewDateString
-     *            the Hebrew date string
-     * @param pref
-     *            preference on how to handle imprecise dates - return the earliest day of the month, the latest, the midpoint?
-     * @return the date, or null if no date could be parsed from the data
-     */
-    private Date getPreferredDateFromHebrewRangeOrPeriod(String hebrewDateString, ImpreciseDatePreference pref) {
-        // Split the string into two dates
-        String[] dateStrings = splitTwoDateString(hebrewDateString, " AND ");
-        if (dateStrings.length == 0) {
-            dateStrings = splitTwoDateString(hebrewDateString, " TO ");
-        }
-        if (dateStrings.length == 0) {
-            return null;
-        }
-
-        // Calculate the dates from the two strings, based on what's preferred
-        switch (pref) {
-            case FAVOR_EARLIEST:
-                return parseHebrewSingleDate(dateStrings[0], pref);
-            case FAVOR_LATEST:
-                return parseHebrewSingleDate(dateStrings[1], pref);
-            case FAVOR_MIDPOINT:
-                Date d1 = parseHebrewSingleDate(dateStrings[0], ImpreciseDatePreference.FAVOR_EARLIEST);
-                Date d2 = parseHebrewSingleDate(dateStrings[1], ImpreciseDatePreference.FAVOR_LATEST);
-                return getMidpointOfDateRange(d1, d2);
-            case PRECISE:
-                return parseHebrewSingleDate(dateStrings[0], pref);
-            default:
-                throw new IllegalArgumentException("Unexpected value for imprecise date preference: " + pref);
-        }
-    }
-
-    /**
-     * Get the preferred date from a range or period, for Gregorian/Julian dates
-     * 
-     * @param dateString
-     *            the date string
-     * @param pref
-     *            the preferred method of handling the range
-     * @return the date, or null if no date could be parsed from the data
-     */
-    private Date getPreferredDateFromRangeOrPeriod(String dateString, ImpreciseDatePreference pref) {
-        // Split the string into two dates
-        String[] dateStrings = splitTwoDateString(dateString, " AND ");
-        if (dateStrings.length == 0) {
-            dateStrings = splitTwoDateString(dateString, " TO ");
-        }
-        if (dateStrings.length == 0) {
-            return null;
-        }
-
-        // Calculate the dates from the two strings, based on what's preferred
-        switch (pref) {
-            case FAVOR_EARLIEST:
-                return parse(dateStrings[0], pref);
-            case FAVOR_LATEST:
-                return parse(dateStrings[1], pref);
-            case FAVOR_MIDPOINT:
-                Date d1 = parse(dateStrings[0], ImpreciseDatePreference.FAVOR_EARLIEST);
-                Date d2 = parse(dateStrings[1], ImpreciseDatePreference.FAVOR_LATEST);
-                return getMidpointOfDateRange(d1, d2);
-            case PRECISE:
-                return parse(dateStrings[0], pref);
-            default:
-                throw new IllegalArgumentException("Unexpected value for imprecise date preference: " + pref);
-        }
-    }
-
-    /**
-     * Get the date from a date string when the string is formatted with a month and year but no day
-     * 
-     * @param dateString
-     *            the date string
-     * @return the date found, if any, or null if no date could be extracted
-     */
-    private Date getYearMonthDay(String dateString) {
-        String bc = formatBC(dateString);
-        String e = resolveEnglishCalendarSwitch(bc);
-        return getDateWithFormatString(e, "dd MMM yyyy");
-    }
-
-    /**
-     * Get the date from a date string when the string is formatted with a month and year but no day
-     * 
-     * @param dateString
-     *            the date string
-     * @param pref
-     *            preference on how to handle imprecise dates, like this one - return the earliest day of the month, the latest, the
-     *            midpoint?
-     * @return the date found, if any, or null if no date could be extracted
-     */
-    private Date getYearMonthNoDay(String dateString, ImpreciseDatePreference pref) {
-        String bc = formatBC(dateString);
-        String e = resolveEnglishCalendarSwitch(bc);
-        Date d = getDateWithFormatString(e, "MMM yyyy");
-        Calendar c = Calendar.getInstance(Locale.US);
-        c.setTimeZone(TimeZone.getTimeZone("UTC"));
-        c.setTime(d);
-        switch (pref) {
-            case FAVOR_EARLIEST:
-                // First day of month
-                c.set(Calendar.DAY_OF_MONTH, 1);
-                return c.getTime();
-            case FAVOR_LATEST:
-                // Last day of month
-                c.set(Calendar.DAY_OF_MONTH, 1);
-                c.add(Calendar.MONTH, 1);
-                c.add(Calendar.DAY_OF_YEAR, -1);
-                return c.getTime();
-            case FAVOR_MIDPOINT:
-                // Middle day of month
-                c.set(Calendar.DAY_OF_MONTH, 1);
-                c.add(Calendar.MONTH, 1);
-                c.add(Calendar.DAY_OF_MONTH, -1);
-                int dom = c.get(Calendar.DAY_OF_MONTH) / 2;
-                c.set(Calendar.DAY_OF_MONTH, dom);
-                return c.getTime();
-            case PRECISE:
-                return d;
-            default:
-                throw new IllegalArgumentException("Unknown value for date handling preference: " + pref);
-        }
-    }
-
-    /**
-     * Get the date from a date string when the string is formatted with a year but no month or day
-     * 
-     * @param dateString
-     *            the date string
-     * @param pref
-     *            preference on how to handle imprecise dates, like this one - return the earliest day of the month, the latest, the
-     *            midpoint?
-     * @return the date found, if any, or null if no date could be extracted
-     */
-    private Date getYearOnly(String dateString, ImpreciseDatePreference pref) {
-        String bc = formatBC(dateString);
-        String e = resolveEnglishCalendarSwitch(bc);
-        Date d = getDateWithFormatString(e, "yyyy");
-        Calendar c = Calendar.getInstance(Locale.US);
-        c.setTimeZone(TimeZone.getTimeZone("UTC"));
-        c.setTime(d);
-        switch (pref) {
-            case FAVOR_EARLIEST:
-                // First day of year
-                c.set(Calendar.DAY_OF_YEAR, 1);
-                return c.getTime();
-            case FAVOR_LATEST:
-                // Last day of year
-                c.set(Calendar.MONTH, Calendar.DECEMBER);
-                c.set(Calendar.DAY_OF_MONTH, 31);
-                return c.getTime();
-            case FAVOR_MIDPOINT:
-                // Middle day of year - go with July 1. Not precisely midpoint but feels midpointy.
-                c.set(Calendar.MONTH, Calendar.JULY);
-                c.set(Calendar.DAY_OF_MONTH, 1);
-                return c.getTime();
-            case PRECISE:
-                return d;
-            default:
-                throw new IllegalArgumentException("Unknown value for date handling preference: " + pref);
-        }
-    }
-
-    /**
-     * Convert a French Republican date string (in proper GEDCOM format) to a (Gregorian) java.util.Date.
-     * 
-     * @param frenchRepublicanDateString
-     *            the French Republican date in GEDCOM spec format - see DATE_FREN and MONTH_FREN in the spec. Could be a single
-     *            date, an approximate date, a date range, or a date period.
-     * @param pref
-     *            preference on how to handle imprecise dates - return the earliest day of the month, the latest, the midpoint?
-     * @return the Gregorian date that represents the French Republican date supplied
-     */
-    private Date parseFrenchRepublican(String frenchRepublicanDateString, ImpreciseDatePreference pref) {
-        if (PATTERN_TWO_DATES.matcher(frenchRepublicanDateString).matches()) {
-            return getPreferredDateFromFrenchRepublicanRangeOrPeriod(frenchRepublicanDateString, pref);
-        }
-        return parseFrenchRepublicanSingleDate(frenchRepublicanDateString, pref);
-    }
-
-    /**
-     * Get the date from a French Republican date string when the string is formatted with a year, month, and day
-     * 
-     * @param datePieces
-     *            3-element array with the day, month, and year (in that order).
-     * 
-     * @return the date found, if any, or null if no date could be extracted
-     */
-    private Date parseFrenchRepublicanDayMonthYear(String... datePieces) {
-        FrenchRepublicanMonth frMonth = FrenchRepublicanMonth.getFromGedcomAbbrev(datePieces[1]);
-        if (frMonth == null) {
-            return null;
-        }
-        FrenchRepublicanCalendarParser frc = new FrenchRepublicanCalendarParser();
-        int frYear = Integer.parseInt(datePieces[2]);
-        int frDay = Integer.parseInt(datePieces[0]);
-
-        return frc.convertFrenchRepublicanDateToGregorian(frYear, frMonth.getGedcomAbbrev(), frDay);
-    }
-
-    /**
-     * Get the date from a French Republican date string when the string is formatted with a year and month but no day
-     * 
-     * @param datePieces
-     *            2-element array with month and year (in that order)
-     * @param pref
-     *            preference on how to handle imprecise dates, like this one - return the earliest day of the month, the latest, the
-     *            midpoint?
-     * @return the date found, if any, or null if no date could be extracted
-     */
-    private Date parseFrenchRepublicanMonthYear(String[] datePieces, ImpreciseDatePreference pref) {
-        FrenchRepublicanMonth frMonth = FrenchRepublicanMonth.getFromGedcomAbbrev(datePieces[0]);
-        if (frMonth == null) {
-            return null;
-        }
-        FrenchRepublicanCalendarParser frc = new FrenchRepublicanCalendarParser();
-        int frYear = Integer.parseInt(datePieces[1]);
-        int frDay;
-        switch (pref) {
-            case FAVOR_EARLIEST:
-                frDay = 1;
-                break;
-            case FAVOR_LATEST:
-                if (frMonth == FrenchRepublicanMonth.JOUR_COMPLEMENTAIRS) {
-                    if (frc.isFrenchLeapYearRomme(frYear)) {
-                        frDay = 6;
-                    } else {
-                        frDay = 5;
-                    }
-                } else {
-                    frDay = 30;
-                }
-                break;
-            case FAVOR_MIDPOINT:
-                if (frMonth == FrenchRepublicanMonth.JOUR_COMPLEMENTAIRS) {
-                    if (frc.isFrenchLeapYearRomme(frYear)) {
-                        frDay = 3;
-                    } else {
-                        frDay = 2;
-                    }
-                } else {
-                    frDay = 15;
-                }
-                break;
-            case PRECISE:
-                frDay = 1;
-                break;
-            default:
-                throw new IllegalArgumentException("Unexpected value for imprecise date preference: " + pref);
-        }
-
-        return frc.convertFrenchRepublicanDateToGregorian(frYear, frMonth.getGedcomAbbrev(), frDay);
-    }
-
-    /**
-     * Get the date from a French Republican date string when the string is formatted with a year but no month or day
-     * 
-     * @param datePieces
-     *            1-element array containing the year
-     * @param pref
-     *            preference on how to handle imprecise dates, like this one - return the earliest day of the month, the latest, the
-     *            midpoint?
-     * @return the date found, if any, or null if no date could be extracted
-     */
-    private Date parseFrenchRepublicanYearOnly(String[] datePieces, ImpreciseDatePreference pref) {
-        FrenchRepublicanCalendarParser frc = new FrenchRepublicanCalendarParser();
-        int frYear = Integer.parseInt(datePieces[0]);
-        int frDay;
-        FrenchRepublicanMonth frMonth = null;
-        switch (pref) {
-            case FAVOR_EARLIEST:
-                frMonth = FrenchRepublicanMonth.VENDEMIAIRE;
-                frDay = 1;
-                break;
-            case FAVOR_LATEST:
-                frMonth = FrenchRepublicanMonth.JOUR_COMPLEMENTAIRS;
-                if (frc.isFrenchLeapYearRomme(frYear)) {
-                    frDay = 6;
-                } else {
-                    frDay = 5;
-                }
-                break;
-            case FAVOR_MIDPOINT:
-                frMonth = FrenchRepublicanMonth.GERMINAL;
-                frDay = 1;
-                break;
-            case PRECISE:
-                frMonth = FrenchRepublicanMonth.VENDEMIAIRE;
-                frDay = 1;
-                break;
-            default:
-                throw new IllegalArgumentException("Unexpected value for imprecise date preference: " + pref);
-        }
-        return frc.convertFrenchRepublicanDateToGregorian(frYear, frMonth.getGedcomAbbrev(), frDay);
-    }
-
-    /**
-     * Parse a Gregorian or Julian date string
-     * 
-     * @param dateString
-     *            the date string to parse
-     * @param pref
-     *            the preference for handling an imprecise date.
-     * @return the date, if one can be derived from the string
-     */
-    private Date parseGregorianJulian(String dateString, ImpreciseDatePreference pref) {
-        String ds;
-        ds = removeApproximations(dateString.toUpperCase(Locale.US));
-        ds = removeOpenEndedRangesAndPeriods(ds);
-        if (PATTERN_SINGLE_DATE_FULL_GREGORIAN_JULIAN.matcher(ds).matches()) {
-            return getYearMonthDay(ds);
-        }
-        if (PATTERN_SINGLE_DATE_MONTH_YEAR_GREGORIAN_JULIAN.matcher(ds).matches()) {
-            return getYearMonthNoDay(ds, pref);
-        }
-        if (PATTERN_SINGLE_DATE_YEAR_ONLY.matcher(ds).matches()) {
-            return getYearOnly(ds, pref);
-        }
-        if (PATTERN_TWO_DATES.matcher(ds).matches()) {
-            return getPreferredDateFromRangeOrPeriod(ds, pref);
-        }
-        return null;
-    }
-
-    /**
-     * Convert a Hebrew date string (in proper GEDCOM format) to a (Gregorian) java.util.Date.
-     * 
-     * @param hebrewDateString
-     *            the Hebrew date in GEDCOM spec format - see DATE_HEBR and MONTH_HEBR in the spec. Could be a single date, an
-     *            approximate date, a date range, or a date period.
-     * @param pref
-     *            preference on how to handle imprecise dates - return the earliest day of the month, the latest, the midpoint?
-     * 
-     * @return the Gregorian date that represents the Hebrew date supplied
-     */
-    private Date parseHebrew(String hebrewDateString, ImpreciseDatePreference pref) {
-        if (PATTERN_TWO_DATES.matcher(hebrewDateString).matches()) {
-            return getPreferredDateFromHebrewRangeOrPeriod(hebrewDateString, pref);
-        }
-        return parseHebrewSingleDate(hebrewDateString, pref);
-    }
-
-    /**
-     * Get the date from a Hebrew date string when the string is formatted with a year, month, and day
-     * 
-     * @param datePieces
-     *            3-element array with the day, month, and year (in that order).
-     * 
-     * @return the date found, if any, or null if no date could be extracted
-     */
-    private Date parseHebrewDayMonthYear(String... datePieces) {
-        HebrewMonth hebrewMonth = HebrewMonth.getFromAbbreviation(datePieces[1]);
-        if (hebrewMonth == null) {
-            // Didn't find a matching month abbreviation
-            return null;
-        }
-        HebrewCalendarParser hc = new HebrewCalendarParser();
-        int hebrewDay = Integer.parseInt(datePieces[0]);
-        int hebrewYear = Integer.parseInt(datePieces[2]);
-        return hc.convertHebrewDateToGregorian(hebrewYear, hebrewMonth.getGedcomAbbrev(), hebrewDay);
-    }
-
-    /**
-     * Get the date from a Hebrew date string when the string is formatted with a year and month but no day
-     * 
-     * @param datePieces
-     *            2-element array with month and year (in that order)
-     * @param pref
-     *            preference on how to handle imprecise dates, like this one - return the earliest day of the month, the latest, the
-     *            midpoint?
-     * @return the date found, if any, or null if no date could be extracted
-     */
-    private Date parseHebrewMonthYear(ImpreciseDatePreference pref, String... datePieces) {
-        HebrewMonth hebrewMonth = HebrewMonth.getFromAbbreviation(datePieces[0]);
-        if (hebrewMonth == null) {
-            return null;
-        }
-        HebrewCalendarParser hc = new HebrewCalendarParser();
-        int hebrewYear = Integer.parseInt(datePieces[1]);
-        int hebrewDay;
-        switch (pref) {
-            case FAVOR_EARLIEST:
-                hebrewDay = 1;
-                break;
-            case FAVOR_LATEST:
-                hebrewDay = hc.getMonthLength(hebrewYear, hebrewMonth);
-                break;
-            case FAVOR_MIDPOINT:
-                hebrewDay = hc.getMonthLength(hebrewYear, hebrewMonth) / 2;
-                break;
-            case PRECISE:
-                hebrewDay = 1;
-                break;
-            default:
-                throw new IllegalArgumentException("Unexpected value for imprecise date preference: " + pref);
-        }
-        return hc.convertHebrewDateToGregorian(hebrewYear, hebrewMonth.getGedcomAbbrev(), hebrewDay);
-    }
-
-    /**
-     * Get the date from a Hebrew date string when the string is formatted with a year but no month or day
-     * 
-     * @param datePieces
-     *            1-element array containing the year
-     * @param pref
-     *            preference on how to handle imprecise dates, like this one - return the earliest day of the month, the latest, the
-     *            midpoint?
-     * @return the date found, if any, or null if no date could be extracted
-     */
-    private Date parseHebrewYearOnly(ImpreciseDatePreference pref, String... datePieces) {
-        HebrewCalendarParser hc = new HebrewCalendarParser();
-        int hebrewYear = Integer.parseInt(datePieces[0]);
-        HebrewMonth hebrewMonth;
-        int hebrewDay;
-        switch (pref) {
-            case FAVOR_EARLIEST:
-                hebrewMonth = HebrewMonth.TISHREI;
-                hebrewDay = 1;
-                break;
-            case FAVOR_LATEST:
-                hebrewMonth = HebrewMonth.ELUL;
-                hebrewDay = hc.getMonthLength(hebrewYear, hebrewMonth);
-                break;
-            case FAVOR_MIDPOINT:
-                hebrewMonth = HebrewMonth.ADAR;
-                hebrewDay = hc.getMonthLength(hebrewYear, hebrewMonth) / 2;
-                break;
-            case PRECISE:
-                hebrewMonth = HebrewMonth.TISHREI;
-                hebrewDay = 1;
-                break;
-            default:
-                throw new IllegalArgumentException("Unexpected value for imprecise date preference: " + pref);
-        }
-        return hc.convertHebrewDateToGregorian(hebrewYear, hebrewMonth.getGedcomAbbrev(), hebrewDay);
-    }
-
-    /**
-     * Remove the prefixes for open ended date ranges with only one date (e.g., "BEF 1900", "FROM 1756", "AFT 2000")
-     * 
-     * @param dateString
-     *            the date string
-     * @return the same date string with range/period prefixes removed, but only if it's an open-ended period or range
-     */
-    private String removeOpenEndedRangesAndPeriods(String dateString) {
-        if (!PATTERN_TWO_DATES.matcher(dateString).matches()) {
-            return removePrefixes(dateString, new String[] { "FROM", "BEF", "BEFORE", "AFT", "AFTER", "TO" });
-        }
-
-        return dateString;
-    }
-
 }
@@ -0,0 +1,317 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.parser;
+
+import java.io.Serializable;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import org.gedcom4j.parser.DateParser.ImpreciseDatePreference;
+
+/**
+ * <p>
+ * The days a GEDCOM date value can mean, as parsed by {@link DateParser#parseRange(String)}. Days are counted as epoch days - the
+ * number of days since January 1, 1970 (UTC), negative before then - so they can be compared and subtracted directly, and turned
+ * into a {@link Date} at midnight UTC with {@link #toDate(ImpreciseDatePreference)}.
+ * </p>
+ * <p>
+ * A single range holds every answer {@link DateParser#parse(String, ImpreciseDatePreference)} can give for the date value, so a
+ * date value only has to be parsed once however many of them are wanted. For example, <code>FEB 1900</code> ranges from February 1
+ * to February 28, 1900, with a midpoint of February 14; <code>BET 1900 AND 1910</code> ranges from January 1, 1900 to December 31,
+ * 1910.
+ * </p>
+ * <p>
+ * Instances are immutable.
+ * </p>
+ * 
+ * @author frizbog
+ */
+public final class DateRange implements Serializable {
+
+    /**
+     * The calendar a date value is written in, from its calendar escape (<code>@#DHEBREW@</code> and so on)
+     */
+    public enum CalendarSystem {
+        /**
+         * The Gregorian calendar. Also used for date values without a calendar escape.
+         */
+        GREGORIAN,
+
+        /**
+         * The Julian calendar. Like those without an escape, these dates are counted as Gregorian dates on or after October 15,
+         * 1582, and Julian dates before then.
+         */
+        JULIAN,
+
+        /**
+         * The Hebrew calendar
+         */
+        HEBREW,
+
+        /**
+         * The French Republican calendar
+         */
+        FRENCH_REPUBLICAN
+    }
+
+    /**
+     * The approximation, range or period prefix on a date value. Where an approximation and an open-ended range or period are
+     * both present (e.g., <code>ABT BEF 1900</code>), the range or period is what's reported.
+     */
+    public enum Qualifier {
+        /**
+         * An exact date, or at least no prefix - e.g., <code>4 JUL 1776</code> or <code>1776</code>
+         */
+        NONE,
+
+        /**
+         * An approximate date - <code>ABT</code>, <code>ABOUT</code>, <code>APPX</code> or <code>APPROX</code>
+         */
+        ABOUT,
+
+        /**
+         * A calculated date - <code>CAL</code> or <code>CALC</code>
+         */
+        CALCULATED,
+
+        /**
+         * An estimated date - <code>EST</code>
+         */
+        ESTIMATED,
+
+        /**
+         * An interpreted date - <code>INT</code>, followed by the date and the original text in parentheses
+         */
+        INTERPRETED,
+
+        /**
+         * Open-ended range before a date - <code>BEF</code> or <code>BEFORE</code>. The range covers the date itself.
+         */
+        BEFORE,
+
+        /**
+         * Open-ended range after a date - <code>AFT</code> or <code>AFTER</code>. The range covers the date itself.
+         */
+        AFTER,
+
+        /**
+         * Open-ended period starting at a date - <code>FROM</code> with no <code>TO</code>
+         */
+        FROM,
+
+        /**
+         * Open-ended period ending at a date - <code>TO</code> with no <code>FROM</code>
+         */
+        TO,
+
+        /**
+         * A range between two dates - <code>BET</code> ... <code>AND</code> ...
+         */
+        BETWEEN,
+
+        /**
+         * A period between two dates - <code>FROM</code> ... <code>TO</code> ...
+         */
+        FROM_TO
+    }
+
+    /**
+     * Serial Version UID
+     */
+    private static final long serialVersionUID = -2652372386394117745L;
+
+    /**
+     * The earliest day the date value can mean, as an epoch day
+     */
+    private final long earliest;
+
+    /**
+     * The latest day the date value can mean, as an epoch day
+     */
+    private final long latest;
+
+    /**
+     * The day {@link ImpreciseDatePreference#FAVOR_MIDPOINT} resolves the date value to, as an epoch day
+     */
+    private final long midpoint;
+
+    /**
+     * The approximation, range or period prefix on the date value
+     */
+    private final Qualifier qualifier;
+
+    /**
+     * The calendar the date value is written in
+     */
+    private final CalendarSystem calendar;
+
+    /**
+     * Constructor
+     * 
+     * @param earliest
+     *            the earliest day the date value can mean, as an epoch day
+     * @param latest
+     *            the latest day the date value can mean, as an epoch day
+     * @param midpoint
+     *            the day {@link ImpreciseDatePreference#FAVOR_MIDPOINT} resolves the date value to, as an epoch day
+     * @param qualifier
+     *            the approximation, range or period prefix on the date value
+     * @param calendar
+     *            the calendar the date value is written in
+     */
+    DateRange(long earliest, long latest, long midpoint, Qualifier qualifier, CalendarSystem calendar) {
+        this.earliest = earliest;
+        this.latest = latest;
+        this.midpoint = midpoint;
+        this.qualifier = qualifier;
+        this.calendar = calendar;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof DateRange)) {
+            return false;
+        }
+        DateRange other = (DateRange) obj;
+        return earliest == other.earliest && latest == other.latest && midpoint == other.midpoint && qualifier == other.qualifier
+                && calendar == other.calendar;
+    }
+
+    /**
+     * Get the calendar the date value is written in
+     * 
+     * @return the calendar the date value is written in
+     */
+    public CalendarSystem getCalendar() {
+        return calendar;
+    }
+
+    /**
+     * Get the earliest day the date value can mean - the first day of the month or year for a date with no day or month, and the
+     * earliest day of the first date of a range or period. This is also the day {@link ImpreciseDatePreference#PRECISE} and
+     * {@link ImpreciseDatePreference#FAVOR_EARLIEST} resolve the date value to.
+     * 
+     * @return the earliest day, as an epoch day
+     */
+    public long getEarliestEpochDay() {
+        return earliest;
+    }
+
+    /**
+     * Get the day the date value resolves to with the supplied preference
+     * 
+     * @param pref
+     *            the preference for handling an imprecise date
+     * @return the day, as an epoch day
+     */
+    public long getEpochDay(ImpreciseDatePreference pref) {
+        switch (pref) {
+            case PRECISE:
+            case FAVOR_EARLIEST:
+                return earliest;
+            case FAVOR_LATEST:
+                return latest;
+            case FAVOR_MIDPOINT:
+                return midpoint;
+            default:
+                throw new IllegalArgumentException("Unexpected value for imprecise date preference: " + pref);
+        }
+    }
+
+    /**
+     * Get the latest day the date value can mean - the last day of the month or year for a date with no day or month, and the
+     * latest day of the second date of a range or period. This is also the day {@link ImpreciseDatePreference#FAVOR_LATEST}
+     * resolves the date value to.
+     * 
+     * @return the latest day, as an epoch day
+     */
+    public long getLatestEpochDay() {
+        return latest;
+    }
+
+    /**
+     * Get the day {@link ImpreciseDatePreference#FAVOR_MIDPOINT} resolves the date value to. For ranges and periods, this is
+     * halfway between the earliest and latest days. For a single date with no day, it's the middle of the month (the 14th or
+     * 15th), and with no month either, July 1.
+     * 
+     * @return the midpoint, as an epoch day
+     */
+    public long getMidpointEpochDay() {
+        return midpoint;
+    }
+
+    /**
+     * Get the approximation, range or period prefix on the date value
+     * 
+     * @return the approximation, range or period prefix on the date value
+     */
+    public Qualifier getQualifier() {
+        return qualifier;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode() {
+        final int prime = 31;
+        int result = 1;
+        result = prime * result + (int) (earliest ^ earliest >>> 32);
+        result = prime * result + (int) (latest ^ latest >>> 32);
+        result = prime * result + (int) (midpoint ^ midpoint >>> 32);
+        result = prime * result + qualifier.hashCode();
+        result = prime * result + calendar.hashCode();
+        return result;
+    }
+
+    /**
+     * Get the day the date value resolves to with the supplied preference, as a {@link Date} at midnight UTC. This is the same
+     * value {@link DateParser#parse(String, ImpreciseDatePreference)} returns.
+     * 
+     * @param pref
+     *            the preference for handling an imprecise date
+     * @return a new {@link Date} for the day
+     */
+    public Date toDate(ImpreciseDatePreference pref) {
+        return new Date(TimeUnit.DAYS.toMillis(getEpochDay(pref)));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return "DateRange [earliest=" + earliest + ", latest=" + latest + ", midpoint=" + midpoint + ", qualifier=" + qualifier
+                + ", calendar=" + calendar + "]";
+    }
+}
@@ -31,7 +31,6 @@ import java.util.List;
 import org.gedcom4j.model.Family;
 import org.gedcom4j.model.FamilyChild;
 import org.gedcom4j.model.NoteStructure;
-import org.gedcom4j.model.StringTree;
 import org.gedcom4j.model.enumerations.AdoptedByWhichParent;
 
 /**
@@ -46,37 +45,45 @@ class FamilyChildParser extends AbstractParser<FamilyChild> {
      * 
      * @param gedcomParser
      *            a reference to the root {@link GedcomParser}
-     * @param stringTree
-     *            {@link StringTree} to be parsed
+     * @param tree
+     *            the tree of lines being parsed
+     * @param node
+     *            the node in the tree to be parsed
      * @param loadInto
      *            the object we are loading data into
      */
-    FamilyChildParser(GedcomParser gedcomParser, StringTree stringTree, FamilyChild loadInto) {
-        super(gedcomParser, stringTree, loadInto);
+    FamilyChildParser(GedcomParser gedcomParser, StringTreeArena tree, int node, FamilyChild loadInto) {
+        super(gedcomParser, tree, node, loadInto);
     }
 
     @Override
     void parse() {
-        Family f = getFamily(stringTree.getValue());
+        Family f = getFamily(tree.getValue(node));
         loadInto.setFamily(f);
-        if (stringTree.getChildren() != null) {
-            for (StringTree ch : stringTree.getChildren()) {
-                if (Tag.NOTE.equalsText(ch.getTag())) {
-                    List<NoteStructure> notes = loadInto.getNoteStructures(true);
-                    new NoteStructureListParser(gedcomParser, ch, notes).parse();
-                } else if (Tag.PEDIGREE.equalsText(ch.getTag())) {
-                    loadInto.setPedigree(parseStringWithCustomFacts(ch));
-                } else if (Tag.ADOPTION.equalsText(ch.getTag())) {
-                    loadInto.setAdoptedBy(AdoptedByWhichParent.valueOf(ch.getValue()));
-                } else if (Tag.STATUS.equalsText(ch.getTag())) {
-                    loadInto.setStatus(parseStringWithCustomFacts(ch));
-                    if (g55()) {
-                        addWarning("GEDCOM version is 5.5 but status was specified for child-to-family link on line " + ch
-                                .getLineNum() + ", which is a GEDCOM 5.5.1 feature."
-                                + "  Data loaded but cannot be re-written unless GEDCOM version changes.");
-                    }
-                } else {
-                    unknownTag(ch, loadInto);
+        if (tree.hasChildren(node)) {
+            for (int ch = tree.getFirstChild(node); ch != StringTreeArena.NONE; ch = tree.getNextSibling(ch)) {
+                switch (tree.getKnownTag(ch)) {
+                    case NOTE:
+                        List<NoteStructure> notes = loadInto.getNoteStructures(true);
+                        new NoteStructureListParser(gedcomParser, tree, ch, notes).parse();
+                        break;
+                    case PEDIGREE:
+                        loadInto.setPedigree(parseStringWithCustomFacts(ch));
+                        break;
+                    case ADOPTION:
+                        loadInto.setAdoptedBy(AdoptedByWhichParent.valueOf(tree.getValue(ch)));
+                        break;
+                    case STATUS:
+                        loadInto.setStatus(parseStringWithCustomFacts(ch));
+                        if (g55()) {
+                            addWarning("GEDCOM version is 5.5 but status was specified for child-to-family link on line " + tree
+                                    .getLineNum(ch) + ", which is a GEDCOM 5.5.1 feature."
+                                    + "  Data loaded but cannot be re-written unless GEDCOM version changes.");
+                        }
+                        break;
+                    default:
+                        unknownTag(ch, loadInto);
+                        break;
                 }
             }
         }
@@ -37,7 +37,6 @@ import org.gedcom4j.model.IndividualReference;
 import org.gedcom4j.model.LdsSpouseSealing;
 import org.gedcom4j.model.MultimediaReference;
 import org.gedcom4j.model.NoteStructure;
-import org.gedcom4j.model.StringTree;
 import org.gedcom4j.model.SubmitterReference;
 import org.gedcom4j.model.UserReference;
 import org.gedcom4j.model.enumerations.FamilyEventType;
@@ -54,91 +53,111 @@ class FamilyParser extends AbstractParser<Family> {
      * 
      * @param gedcomParser
      *            a reference to the root {@link GedcomParser}
-     * @param stringTree
-     *            {@link StringTree} to be parsed
+     * @param tree
+     *            the tree of lines being parsed
+     * @param node
+     *            the node in the tree to be parsed
      * @param loadInto
      *            the object we are loading data into
      */
-    FamilyParser(GedcomParser gedcomParser, StringTree stringTree, Family loadInto) {
-        super(gedcomParser, stringTree, loadInto);
+    FamilyParser(GedcomParser gedcomParser, StringTreeArena tree, int node, Family loadInto) {
+        super(gedcomParser, tree, node, loadInto);
     }
 
     @Override
     void parse() {
-        if (stringTree.getChildren() != null) {
-            for (StringTree ch : stringTree.getChildren()) {
-                if (Tag.HUSBAND.equalsText(ch.getTag())) {
-                    IndividualReference husband = new IndividualReference(getIndividual(ch.getValue()));
-                    loadInto.setHusband(husband);
-                    if (ch.getChildren() != null) {
-                        for (StringTree gch : ch.getChildren()) {
-                            CustomFact cf = new CustomFact(gch.getTag());
-                            husband.getCustomFacts(true).add(cf);
-                            new CustomFactParser(gedcomParser, gch, cf).parse();
+        if (tree.hasChildren(node)) {
+            for (int ch = tree.getFirstChild(node); ch != StringTreeArena.NONE; ch = tree.getNextSibling(ch)) {
+                switch (tree.getKnownTag(ch)) {
+                    case HUSBAND:
+                        IndividualReference husband = newIndividualReference(tree.getValue(ch));
+                        loadInto.setHusband(husband);
+                        if (tree.hasChildren(ch)) {
+                            for (int gch = tree.getFirstChild(ch); gch != StringTreeArena.NONE; gch = tree.getNextSibling(gch)) {
+                                CustomFact cf = new CustomFact(tree.getTag(gch));
+                                husband.getCustomFacts(true).add(cf);
+                                new CustomFactParser(gedcomParser, tree, gch, cf).parse();
+                            }
                         }
-                    }
-                } else if (Tag.WIFE.equalsText(ch.getTag())) {
-                    IndividualReference wife = new IndividualReference(getIndividual(ch.getValue()));
-                    loadInto.setWife(wife);
-                    if (ch.getChildren() != null) {
-                        for (StringTree gch : ch.getChildren()) {
-                            CustomFact cf = new CustomFact(gch.getTag());
-                            wife.getCustomFacts(true).add(cf);
-                            new CustomFactParser(gedcomParser, gch, cf).parse();
+                        break;
+                    case WIFE:
+                        IndividualReference wife = newIndividualReference(tree.getValue(ch));
+                        loadInto.setWife(wife);
+                        if (tree.hasChildren(ch)) {
+                            for (int gch = tree.getFirstChild(ch); gch != StringTreeArena.NONE; gch = tree.getNextSibling(gch)) {
+                                CustomFact cf = new CustomFact(tree.getTag(gch));
+                                wife.getCustomFacts(true).add(cf);
+                                new CustomFactParser(gedcomParser, tree, gch, cf).parse();
+                            }
                         }
-                    }
-                } else if (Tag.CHILD.equalsText(ch.getTag())) {
-                    IndividualReference child = new IndividualReference(getIndividual(ch.getValue()));
-                    loadInto.getChildren(true).add(child);
-                    if (ch.getChildren() != null) {
-                        for (StringTree gch : ch.getChildren()) {
-                            CustomFact cf = new CustomFact(gch.getTag());
-                            child.getCustomFacts(true).add(cf);
-                            new CustomFactParser(gedcomParser, gch, cf).parse();
+                        break;
+                    case CHILD:
+                        IndividualReference child = newIndividualReference(tree.getValue(ch));
+                        loadInto.getChildren(true).add(child);
+                        if (tree.hasChildren(ch)) {
+                            for (int gch = tree.getFirstChild(ch); gch != StringTreeArena.NONE; gch = tree.getNextSibling(gch)) {
+                                CustomFact cf = new CustomFact(tree.getTag(gch));
+                                child.getCustomFacts(true).add(cf);
+                                new CustomFactParser(gedcomParser, tree, gch, cf).parse();
+                            }
                         }
-                    }
-                } else if (Tag.NUM_CHILDREN.equalsText(ch.getTag())) {
-                    loadInto.setNumChildren(parseStringWithCustomFacts(ch));
-                } else if (Tag.SOURCE.equalsText(ch.getTag())) {
-                    List<AbstractCitation> citations = loadInto.getCitations(true);
-                    new CitationListParser(gedcomParser, ch, citations).parse();
-                } else if (Tag.OBJECT_MULTIMEDIA.equalsText(ch.getTag())) {
-                    List<MultimediaReference> multimedia = loadInto.getMultimedia(true);
-                    new MultimediaLinkParser(gedcomParser, ch, multimedia).parse();
-                } else if (Tag.RECORD_ID_NUMBER.equalsText(ch.getTag())) {
-                    loadInto.setAutomatedRecordId(parseStringWithCustomFacts(ch));
-                } else if (Tag.CHANGED_DATETIME.equalsText(ch.getTag())) {
-                    ChangeDate changeDate = new ChangeDate();
-                    loadInto.setChangeDate(changeDate);
-                    new ChangeDateParser(gedcomParser, ch, changeDate).parse();
-                } else if (Tag.NOTE.equalsText(ch.getTag())) {
-                    List<NoteStructure> notes = loadInto.getNoteStructures(true);
-                    new NoteStructureListParser(gedcomParser, ch, notes).parse();
-                } else if (Tag.RESTRICTION.equalsText(ch.getTag())) {
-                    loadInto.setRestrictionNotice(parseStringWithCustomFacts(ch));
-                    if (g55()) {
-                        addWarning("GEDCOM version is 5.5 but restriction notice was specified for family on line " + ch
-                                .getLineNum() + " , which is a GEDCOM 5.5.1 feature."
-                                + "  Data loaded but cannot be re-written unless GEDCOM version changes.");
-                    }
-                } else if (Tag.REGISTRATION_FILE_NUMBER.equalsText(ch.getTag())) {
-                    loadInto.setRecFileNumber(parseStringWithCustomFacts(ch));
-                } else if (FamilyEventType.isValidTag(ch.getTag())) {
-                    FamilyEvent event = new FamilyEvent();
-                    loadInto.getEvents(true).add(event);
-                    new FamilyEventParser(gedcomParser, ch, event).parse();
-                } else if (Tag.SEALING_SPOUSE.equalsText(ch.getTag())) {
-                    LdsSpouseSealing ldsss = new LdsSpouseSealing();
-                    loadInto.getLdsSpouseSealings(true).add(ldsss);
-                    new LdsSpouseSealingParser(gedcomParser, ch, ldsss).parse();
-                } else if (Tag.SUBMITTER.equalsText(ch.getTag())) {
-                    loadInto.getSubmitters(true).add(new SubmitterReference(getSubmitter(ch.getValue())));
-                } else if (Tag.REFERENCE.equalsText(ch.getTag())) {
-                    UserReference u = new UserReference();
-                    loadInto.getUserReferences(true).add(u);
-                    new UserReferenceParser(gedcomParser, ch, u).parse();
-                } else {
-                    unknownTag(ch, loadInto);
+                        break;
+                    case NUM_CHILDREN:
+                        loadInto.setNumChildren(parseStringWithCustomFacts(ch));
+                        break;
+                    case SOURCE:
+                        List<AbstractCitation> citations = loadInto.getCitations(true);
+                        new CitationListParser(gedcomParser, tree, ch, citations).parse();
+                        break;
+                    case OBJECT_MULTIMEDIA:
+                        List<MultimediaReference> multimedia = loadInto.getMultimedia(true);
+                        new MultimediaLinkParser(gedcomParser, tree, ch, multimedia).parse();
+                        break;
+                    case RECORD_ID_NUMBER:
+                        loadInto.setAutomatedRecordId(parseStringWithCustomFacts(ch));
+                        break;
+                    case CHANGED_DATETIME:
+                        ChangeDate changeDate = new ChangeDate();
+                        loadInto.setChangeDate(changeDate);
+                        new ChangeDateParser(gedcomParser, tree, ch, changeDate).parse();
+                        break;
+                    case NOTE:
+                        List<NoteStructure> notes = loadInto.getNoteStructures(true);
+                        new NoteStructureListParser(gedcomParser, tree, ch, notes).parse();
+                        break;
+                    case RESTRICTION:
+                        loadInto.setRestrictionNotice(parseStringWithCustomFacts(ch));
+                        if (g55()) {
+                            addWarning("GEDCOM version is 5.5 but restriction notice was specified for family on line " + tree
+                                    .getLineNum(ch) + " , which is a GEDCOM 5.5.1 feature."
+                                    + "  Data loaded but cannot be re-written unless GEDCOM version changes.");
+                        }
+                        break;
+                    case REGISTRATION_FILE_NUMBER:
+                        loadInto.setRecFileNumber(parseStringWithCustomFacts(ch));
+                        break;
+                    case SEALING_SPOUSE:
+                        LdsSpouseSealing ldsss = new LdsSpouseSealing();
+                        loadInto.getLdsSpouseSealings(true).add(ldsss);
+                        new LdsSpouseSealingParser(gedcomParser, tree, ch, ldsss).parse();
+                        break;
+                    case SUBMITTER:
+                        loadInto.getSubmitters(true).add(new SubmitterReference(getSubmitter(tree.getValue(ch))));
+                        break;
+                    case REFERENCE:
+                        UserReference u = new UserReference();
+                        loadInto.getUserReferences(true).add(u);
+                        new UserReferenceParser(gedcomParser, tree, ch, u).parse();
+                        break;
+                    default:
+                        if (FamilyEventType.isValidTag(tree.getTag(ch))) {
+                            FamilyEvent event = new FamilyEvent();
+                            loadInto.getEvents(true).add(event);
+                            new FamilyEventParser(gedcomParser, tree, ch, event).parse();
+                        } else {
+                            unknownTag(ch, loadInto);
+                        }
+                        break;
                 }
             }
         }
@@ -26,10 +26,8 @@
  */
 package org.gedcom4j.parser;
 
-import java.util.List;
 
 import org.gedcom4j.model.FileReference;
-import org.gedcom4j.model.StringTree;
 import org.gedcom4j.model.StringWithCustomFacts;
 
 /**
@@ -44,13 +42,15 @@ class FileReference551Parser extends AbstractParser<FileReference> {
      * 
      * @param gedcomParser
      *            a reference to the root {@link GedcomParser}
-     * @param stringTree
-     *            {@link StringTree} to be parsed
+     * @param tree
+     *            the tree of lines being parsed
+     * @param node
+     *            the node in the tree to be parsed
      * @param loadInto
      *            the object we are loading data into
      */
-    FileReference551Parser(GedcomParser gedcomParser, StringTree stringTree, FileReference loadInto) {
-        super(gedcomParser, stringTree, loadInto);
+    FileReference551Parser(GedcomParser gedcomParser, StringTreeArena tree, int node, FileReference loadInto) {
+        super(gedcomParser, tree, node, loadInto);
     }
 
     /**
@@ -58,13 +58,13 @@ class FileReference551Parser extends AbstractParser<FileReference> {
      */
     @Override
     void parse() {
-        loadInto.setReferenceToFile(new StringWithCustomFacts(stringTree.getValue()));
-        List<StringTree> fileChildren = stringTree.getChildren();
-        if (fileChildren != null) {
-            for (StringTree fileChild : fileChildren) {
-                if (Tag.FORM.equalsText(fileChild.getTag())) {
+        loadInto.setReferenceToFile(new StringWithCustomFacts(tree.getValue(node)));
+        if (tree.hasChildren(node)) {
+            for (int fileChild = tree.getFirstChild(node); fileChild != StringTreeArena.NONE; fileChild = tree.getNextSibling(
+                    fileChild)) {
+                if (Tag.FORM.equalsText(tree.getTag(fileChild))) {
                     loadForm(fileChild);
-                } else if (Tag.TITLE.equalsText(fileChild.getTag())) {
+                } else if (Tag.TITLE.equalsText(tree.getTag(fileChild))) {
                     loadInto.setTitle(parseStringWithCustomFacts(fileChild));
                 } else {
                     unknownTag(fileChild, loadInto.getReferenceToFile());
@@ -73,7 +73,7 @@ class FileReference551Parser extends AbstractParser<FileReference> {
         }
         if (loadInto.getFormat() == null) {
             // Issue 117 - relaxing this
-            addWarning("FORM tag not found under FILE reference on line " + stringTree.getParent().getLineNum()
+            addWarning("FORM tag not found under FILE reference on line " + tree.getLineNum(tree.getParent(node))
                     + " - technically required by spec");
         }
     }
@@ -84,16 +84,16 @@ class FileReference551Parser extends AbstractParser<FileReference> {
      * @param form
      *            the form string tree
      */
-    private void loadForm(StringTree form) {
-        loadInto.setFormat(new StringWithCustomFacts(form.getValue()));
-        List<StringTree> formChildren = form.getChildren();
-        if (formChildren != null) {
+    private void loadForm(int form) {
+        loadInto.setFormat(new StringWithCustomFacts(tree.getValue(form)));
+        if (tree.hasChildren(form)) {
             int typeCount = 0;
-            for (StringTree formChild : formChildren) {
-                if (Tag.TYPE.equalsText(formChild.getTag())) {
+            for (int formChild = tree.getFirstChild(form); formChild != StringTreeArena.NONE; formChild = tree.getNextSibling(
+                    formChild)) {
+                if (Tag.TYPE.equalsText(tree.getTag(formChild))) {
                     loadInto.setMediaType(parseStringWithCustomFacts(formChild));
                     typeCount++;
-                } else if (Tag.MEDIA.equalsText(formChild.getTag())) {
+                } else if (Tag.MEDIA.equalsText(tree.getTag(formChild))) {
                     loadInto.setMediaType(parseStringWithCustomFacts(formChild));
                     typeCount++;
                 } else {
@@ -101,7 +101,7 @@ class FileReference551Parser extends AbstractParser<FileReference> {
                 }
             }
             if (typeCount > 1) {
-                addError("Media type was specified more than once for the FORM tag on line " + form.getLineNum());
+                addError("Media type was specified more than once for the FORM tag on line " + tree.getLineNum(form));
             }
         }
     }
@@ -26,18 +26,46 @@
  */
 package org.gedcom4j.parser;
 
-import java.util.Calendar;
 import java.util.Date;
-import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
 
 /**
+ * <p>
  * Class for parsing French Republican Calendar dates. Calculations based on Romme method. Only supports dates on or after September
  * 22, 1792 (Gregorian).
+ * </p>
+ * <p>
+ * The first day of every year from 1 to {@link #LAST_TABULATED_YEAR} is worked out once, when the class is loaded, and kept in a
+ * table as an epoch day, so converting a date is just a lookup and some additions.
+ * </p>
  * 
  * @author frizbog
  */
 class FrenchRepublicanCalendarParser {
 
+    /**
+     * The last year in the table of the first days of years
+     */
+    static final int LAST_TABULATED_YEAR = 9999;
+
+    /**
+     * The epoch day of 22 Sep 1792 (Gregorian), the first day of French Republican year 1
+     */
+    private static final int FIRST_DAY_OF_YEAR_ONE = -64748;
+
+    /**
+     * The epoch days of the first day of each year, indexed by year, up to and including {@link #LAST_TABULATED_YEAR}. Entry zero
+     * is unused.
+     */
+    private static final int[] FIRST_DAYS_OF_YEARS = new int[LAST_TABULATED_YEAR + 1];
+
+    static {
+        FIRST_DAYS_OF_YEARS[1] = FIRST_DAY_OF_YEAR_ONE;
+        for (int y = 2; y < FIRST_DAYS_OF_YEARS.length; y++) {
+            FIRST_DAYS_OF_YEARS[y] = FIRST_DAYS_OF_YEARS[y - 1] + getLengthOfYear(y - 1);
+        }
+    }
+
     /**
      * This function converts a French Republican date into the Gregorian date.
      * 
@@ -55,45 +83,51 @@ class FrenchRepublicanCalendarParser {
             return null;
         }
 
-        // Start just before beginning of French Republican time - 21 SEP 1792
-        Calendar c = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
-        c.clear();
-        c.set(1792, Calendar.SEPTEMBER, 21, 0, 0, 0);
-
-        // Add years alrady passed
-        for (int i = 1; i <= frenchRepublicanYear - 1; i++) {
-            c.add(Calendar.DATE, 365); // 365 days per year
-            if (isFrenchLeapYearRomme(i)) {
-                c.add(Calendar.DATE, 1); // add a leap day
-            }
-
-        }
-
         // Figure out the month
         FrenchRepublicanMonth frm = FrenchRepublicanMonth.getFromGedcomAbbrev(frenchRepublicanMonthAbbrev);
         if (frm == null) {
             return null;
         }
-        // Add 30 days per month
-        c.add(Calendar.DATE, 30 * frm.ordinal());
+
+        long epochDay = getEpochDay(frenchRepublicanYear, frm, dayOfMonth);
+        if (epochDay == Long.MIN_VALUE) {
+            return null;
+        }
+        return new Date(TimeUnit.DAYS.toMillis(epochDay));
+    }
+
+    /**
+     * Convert a French Republican date into the number of days since 1 Jan 1970 (Gregorian)
+     * 
+     * @param frenchRepublicanYear
+     *            the French Republican year. French year 1 corresponds to Gregorian year 1792
+     * @param frenchRepublicanMonth
+     *            the French Republican month
+     * @param dayOfMonth
+     *            the day within the month
+     * @return the epoch day, or {@link Long#MIN_VALUE} if the date is not valid
+     */
+    long getEpochDay(int frenchRepublicanYear, FrenchRepublicanMonth frenchRepublicanMonth, int dayOfMonth) {
+        // Validate year
+        if (frenchRepublicanYear < 1) {
+            return Long.MIN_VALUE;
+        }
 
         // Validate number of days in month
         if (dayOfMonth < 1) {
-            return null;
+            return Long.MIN_VALUE;
         }
-        if (frm == FrenchRepublicanMonth.JOUR_COMPLEMENTAIRS && dayOfMonth > 6) {
+        if (frenchRepublicanMonth == FrenchRepublicanMonth.JOUR_COMPLEMENTAIRS && dayOfMonth > 6) {
             // There were never more than 6 days in Jour Complementairs, and that was only on leap years
-            return null;
+            return Long.MIN_VALUE;
         }
-        if (frm != FrenchRepublicanMonth.JOUR_COMPLEMENTAIRS && dayOfMonth > 30) {
+        if (frenchRepublicanMonth != FrenchRepublicanMonth.JOUR_COMPLEMENTAIRS && dayOfMonth > 30) {
             // All the other months had 30 days
-            return null;
+            return Long.MIN_VALUE;
         }
 
-        // Add days for days in the month
-        c.add(Calendar.DATE, dayOfMonth);
-
-        return c.getTime();
+        // 30 days per month
+        return getFirstDayOfYear(frenchRepublicanYear) + 30L * frenchRepublicanMonth.ordinal() + dayOfMonth - 1;
     }
 
     /**
@@ -108,7 +142,7 @@ class FrenchRepublicanCalendarParser {
      *            the French Republican Year
      * @return true if it's a French Leap Year.
      */
-    boolean isFrenchLeapYearRomme(int frenchRepublicanYear) {
+    static boolean isFrenchLeapYearRomme(int frenchRepublicanYear) {
         if (frenchRepublicanYear == 3 || frenchRepublicanYear == 7 || frenchRepublicanYear == 11 || frenchRepublicanYear == 15) {
             return true;
         }
@@ -123,4 +157,32 @@ class FrenchRepublicanCalendarParser {
         return false;
     }
 
+    /**
+     * Get the first day of a French Republican year, from the table if it's there
+     * 
+     * @param frenchRepublicanYear
+     *            the French Republican year, which must be at least 1
+     * @return the epoch day of the first day of the year
+     */
+    private static long getFirstDayOfYear(int frenchRepublicanYear) {
+        if (frenchRepublicanYear < FIRST_DAYS_OF_YEARS.length) {
+            return FIRST_DAYS_OF_YEARS[frenchRepublicanYear];
+        }
+        long result = FIRST_DAYS_OF_YEARS[LAST_TABULATED_YEAR];
+        for (int y = LAST_TABULATED_YEAR; y < frenchRepublicanYear; y++) {
+            result += getLengthOfYear(y);
+        }
+        return result;
+    }
+
+    /**
+     * Get the number of days in a French Republican year
+     * 
+     * @param frenchRepublicanYear
+     *            the French Republican year
+     * @return the number of days in the year - 366 in leap years, 365 otherwise
+     */
+    private static int getLengthOfYear(int frenchRepublicanYear) {
+        return isFrenchLeapYearRomme(frenchRepublicanYear) ? 366 : 365;
+    }
 }
@@ -0,0 +1,883 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.parser;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.zip.CRC32;
+
+import org.gedcom4j.exception.GedcomParserException;
+import org.gedcom4j.exception.ParserCancelledException;
+import org.gedcom4j.io.encoding.Encoding;
+import org.gedcom4j.io.reader.GedcomFileReader;
+import org.gedcom4j.model.ModelElement;
+import org.gedcom4j.query.Soundex;
+
+/**
+ * <p>
+ * An index of the root-level records of a GEDCOM file, kept in a file of its own next to the GEDCOM file, so that single records
+ * can be found and parsed without loading (or even reading) the rest of the file. This makes it practical to look up individual
+ * records in files of many gigabytes.
+ * </p>
+ * <p>
+ * The index holds an {@link Entry} for each record, with its xref, tag, byte offset, length, first line number and a hash of its
+ * bytes, and for individuals, the soundex code of their surname and their year of birth, which can be searched on with
+ * {@link #findBySurname(String)} and {@link #findByBirthYear(int)}. A record is parsed by reading just its bytes from the file and
+ * decoding them with the same readers a full load would use.
+ * </p>
+ * <p>
+ * When an index is opened, it is checked against the GEDCOM file:
+ * </p>
+ * <ul>
+ * <li>If the file has the same length and modification time as when the index was written, the index is used as it is.</li>
+ * <li>Otherwise, if everything before the last record (usually the trailer) is unchanged - as when records are appended to the
+ * end of the file - only the rest of the file is scanned, and the new records are added to the index. Checking this means reading
+ * the bytes of the file, but not parsing them.</li>
+ * <li>Otherwise, the whole file is scanned and the index is rebuilt.</li>
+ * </ul>
+ * <p>
+ * The index file is rewritten whenever it changes. General usage is as follows:
+ * </p>
+ * 
+ * <pre>
+ * try (GedcomIndex index = new GedcomIndex("huge.ged")) {
+ *     Individual i = (Individual) index.getRecord("&#64;I12345&#64;");
+ *     for (GedcomIndex.Entry e : index.findBySurname("Smith")) {
+ *         // Do something with the entry, or index.getRecord(e.getXref())
+ *     }
+ * }
+ * </pre>
+ * <p>
+ * As with a {@link GedcomRecordReader}, parsed records are not kept in the parser's {@link org.gedcom4j.model.Gedcom}, and
+ * references from one record to another are not resolved. The errors and warnings found while parsing records are collected by the
+ * parser - see {@link #getParser()}.
+ * </p>
+ * 
+ * @author frizbog
+ */
+@SuppressWarnings({ "PMD.TooManyMethods", "PMD.GodClass", "PMD.ExcessiveImports" })
+public class GedcomIndex implements Closeable {
+
+    /**
+     * An entry in the index, for one root-level record
+     */
+    public static final class Entry {
+
+        /**
+         * The xref of the record, or null if it has none
+         */
+        private final String xref;
+
+        /**
+         * The tag of the record
+         */
+        private final String tag;
+
+        /**
+         * The byte offset of the record in the file
+         */
+        private final long offset;
+
+        /**
+         * The length of the record in bytes
+         */
+        private final int length;
+
+        /**
+         * The line number of the first line of the record
+         */
+        private final int lineNum;
+
+        /**
+         * The CRC-32 of the bytes of the record
+         */
+        private final int hash;
+
+        /**
+         * The soundex code of the surname of an individual, or null if there isn't one
+         */
+        private final String surnameSoundex;
+
+        /**
+         * The year of birth of an individual, or null if it isn't known
+         */
+        private final Integer birthYear;
+
+        /**
+         * Constructor
+         * 
+         * @param xref
+         *            the xref of the record, or null if it has none
+         * @param tag
+         *            the tag of the record
+         * @param offset
+         *            the byte offset of the record in the file
+         * @param length
+         *            the length of the record in bytes
+         * @param lineNum
+         *            the line number of the first line of the record
+         * @param hash
+         *            the CRC-32 of the bytes of the record
+         * @param surnameSoundex
+         *            the soundex code of the surname of an individual, or null if there isn't one
+         * @param birthYear
+         *            the year of birth of an individual, or null if it isn't known
+         */
+        Entry(String xref, String tag, long offset, int length, int lineNum, int hash, String surnameSoundex,
+                Integer birthYear) {
+            this.xref = xref;
+            this.tag = tag;
+            this.offset = offset;
+            this.length = length;
+            this.lineNum = lineNum;
+            this.hash = hash;
+            this.surnameSoundex = surnameSoundex;
+            this.birthYear = birthYear;
+        }
+
+        /**
+         * Get the year of birth of an individual
+         * 
+         * @return the year of birth, or null if it isn't known or the record isn't an individual
+         */
+        public Integer getBirthYear() {
+            return birthYear;
+        }
+
+        /**
+         * Get the CRC-32 of the bytes of the record, which changes when the record does
+         * 
+         * @return the CRC-32 of the bytes of the record
+         */
+        public int getHash() {
+            return hash;
+        }
+
+        /**
+         * Get the length of the record
+         * 
+         * @return the length of the record in bytes, including the line break at its end
+         */
+        public int getLength() {
+            return length;
+        }
+
+        /**
+         * Get the line number of the first line of the record
+         * 
+         * @return the line number of the first line of the record
+         */
+        public int getLineNum() {
+            return lineNum;
+        }
+
+        /**
+         * Get the offset of the record
+         * 
+         * @return the byte offset of the record in the file
+         */
+        public long getOffset() {
+            return offset;
+        }
+
+        /**
+         * Get the soundex code of the surname of an individual
+         * 
+         * @return the soundex code, or null if the record isn't an individual, or has no surname that can be coded
+         */
+        public String getSurnameSoundex() {
+            return surnameSoundex;
+        }
+
+        /**
+         * Get the tag of the record
+         * 
+         * @return the tag of the record, such as INDI or FAM
+         */
+        public String getTag() {
+            return tag;
+        }
+
+        /**
+         * Get the xref of the record
+         * 
+         * @return the xref of the record, or null if it has none (as for the header and trailer)
+         */
+        public String getXref() {
+            return xref;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public String toString() {
+            return "Entry [xref=" + xref + ", tag=" + tag + ", offset=" + offset + ", length=" + length + ", lineNum=" + lineNum
+                    + "]";
+        }
+    }
+
+    /**
+     * The extension added to the name of a GEDCOM file to get the name of its index file, by default
+     */
+    public static final String INDEX_FILE_EXTENSION = ".idx";
+
+    /**
+     * The bytes at the start of every index file
+     */
+    private static final byte[] MAGIC = { 'G', '4', 'J', 'I', 'D', 'X', 0, 0 };
+
+    /**
+     * The version of the index file format. Index files with a different version are rebuilt.
+     */
+    private static final int VERSION = 1;
+
+    /**
+     * The value written for an unknown year of birth
+     */
+    private static final int NO_YEAR = Integer.MIN_VALUE;
+
+    /**
+     * The size of the chunks the file is read in
+     */
+    private static final int CHUNK_SIZE = 65536;
+
+    /**
+     * How many records to scan between checks for the scan being cancelled
+     */
+    private static final int CANCEL_CHECK_RATE = 4096;
+
+    /**
+     * The parser that parses the records and collects the errors and warnings
+     */
+    private final GedcomParser parser;
+
+    /**
+     * The GEDCOM file
+     */
+    private final RandomAccessFile file;
+
+    /**
+     * The channel the GEDCOM file is read through
+     */
+    private final FileChannel channel;
+
+    /**
+     * The index file
+     */
+    private final File indexFile;
+
+    /**
+     * The parser for birth dates
+     */
+    private final DateParser dateParser = DateParseCache.getSharedInstance().getParser();
+
+    /**
+     * The calendar used to get the year of birth dates
+     */
+    private final Calendar calendar = Calendar.getInstance(TimeZone.getTimeZone("UTC"), Locale.US);
+
+    /**
+     * The entries for all the records in the file, in the order they appear
+     */
+    private final List<Entry> entries = new ArrayList<>();
+
+    /**
+     * The entries for records with xrefs, by xref
+     */
+    private final Map<String, Entry> byXref = new HashMap<>();
+
+    /**
+     * The entries for individuals, by the soundex code of their surname
+     */
+    private final Map<String, List<Entry>> bySurnameSoundex = new HashMap<>();
+
+    /**
+     * The entries for individuals, by their year of birth
+     */
+    private final Map<Integer, List<Entry>> byBirthYear = new HashMap<>();
+
+    /**
+     * The encoding of the GEDCOM file
+     */
+    private Encoding encoding;
+
+    /**
+     * The number of bytes of the GEDCOM file that were scanned when the index was opened
+     */
+    private long bytesScanned;
+
+    /**
+     * The CRC-32 of the bytes of the file before the last record
+     */
+    private CRC32 prefixCrc;
+
+    /**
+     * The offset in the file of the next byte to add to {@link #prefixCrc}
+     */
+    private long prefixCrcEnd;
+
+    /**
+     * Constructor, for the index of a GEDCOM file with a new {@link GedcomParser}. The index file is the GEDCOM file's name with
+     * {@link #INDEX_FILE_EXTENSION} added to it.
+     * 
+     * @param filename
+     *            the name of the GEDCOM file
+     * @throws IOException
+     *             if the GEDCOM file cannot be read, or the index file cannot be written
+     * @throws GedcomParserException
+     *             if the GEDCOM file is using an unsupported character encoding, or its header cannot be parsed
+     */
+    public GedcomIndex(String filename) throws IOException, GedcomParserException {
+        this(new GedcomParser(), filename, filename + INDEX_FILE_EXTENSION);
+    }
+
+    /**
+     * Constructor, for the index of a GEDCOM file with an existing {@link GedcomParser}. Anything the parser had already loaded is
+     * cleared.
+     * 
+     * @param parser
+     *            the parser to parse the records with, which also collects the errors and warnings
+     * @param filename
+     *            the name of the GEDCOM file
+     * @param indexFilename
+     *            the name of the index file, which is created if it doesn't exist
+     * @throws IOException
+     *             if the GEDCOM file cannot be read, or the index file cannot be written
+     * @throws GedcomParserException
+     *             if the GEDCOM file is using an unsupported character encoding, or its header cannot be parsed, or the scan is
+     *             cancelled
+     */
+    public GedcomIndex(GedcomParser parser, String filename, String indexFilename) throws IOException, GedcomParserException {
+        this.parser = parser;
+        indexFile = new File(indexFilename);
+        file = new RandomAccessFile(filename, "r");
+        channel = file.getChannel();
+        boolean opened = false;
+        try {
+            parser.resetForRecordReader();
+            open(new File(filename).lastModified());
+            for (Entry e : entries) {
+                if ("HEAD".equals(e.getTag())) {
+                    // Parse the header, which is how the parser knows the GEDCOM version of the records
+                    parse(e);
+                    break;
+                }
+            }
+            opened = true;
+        } finally {
+            if (!opened) {
+                file.close();
+            }
+        }
+    }
+
+    /**
+     * Stop scanning the GEDCOM file, if it is being scanned while the index is opened. Can be called from another thread.
+     */
+    public void cancel() {
+        parser.cancel();
+    }
+
+    /**
+     * Close the GEDCOM file
+     * 
+     * @throws IOException
+     *             if the file cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        file.close();
+    }
+
+    /**
+     * Find the individuals born in a year
+     * 
+     * @param year
+     *            the year of birth
+     * @return the entries for the individuals born in that year, in the order they appear in the file. Empty if there are none.
+     */
+    public List<Entry> findByBirthYear(int year) {
+        List<Entry> result = byBirthYear.get(year);
+        return result == null ? Collections.<Entry> emptyList() : Collections.unmodifiableList(result);
+    }
+
+    /**
+     * Find the individuals with a surname that sounds like the one supplied, going by their soundex codes
+     * 
+     * @param surname
+     *            the surname
+     * @return the entries for the individuals whose surname has the same soundex code, in the order they appear in the file.
+     *         Empty if there are none.
+     */
+    public List<Entry> findBySurname(String surname) {
+        String soundex = Soundex.soundex(surname);
+        List<Entry> result = soundex == null ? null : bySurnameSoundex.get(soundex);
+        return result == null ? Collections.<Entry> emptyList() : Collections.unmodifiableList(result);
+    }
+
+    /**
+     * Get the number of bytes of the GEDCOM file that had to be scanned for records when the index was opened
+     * 
+     * @return zero if the index was up to date, the number of bytes after the end of the unchanged part of the file if the index
+     *         was updated, or the size of the file if the index was rebuilt
+     */
+    public long getBytesScanned() {
+        return bytesScanned;
+    }
+
+    /**
+     * Get the encoding of the GEDCOM file
+     * 
+     * @return the encoding of the GEDCOM file
+     */
+    public Encoding getEncoding() {
+        return encoding;
+    }
+
+    /**
+     * Get all the entries in the index
+     * 
+     * @return the entries for all the records in the file, including those without xrefs, in the order they appear in the file
+     */
+    public List<Entry> getEntries() {
+        return Collections.unmodifiableList(entries);
+    }
+
+    /**
+     * Get the entry for a record
+     * 
+     * @param xref
+     *            the xref of the record
+     * @return the entry for the record, or null if there is no record with that xref
+     */
+    public Entry getEntry(String xref) {
+        return byXref.get(xref);
+    }
+
+    /**
+     * Get the parser, which parses the records and collects the errors and warnings found while parsing them
+     * 
+     * @return the parser
+     */
+    public GedcomParser getParser() {
+        return parser;
+    }
+
+    /**
+     * Read a record from the GEDCOM file and parse it
+     * 
+     * @param xref
+     *            the xref of the record
+     * @return the record, or null if there is no record with that xref (or nothing could be loaded from it)
+     * @throws IOException
+     *             if the record cannot be read
+     * @throws GedcomParserException
+     *             if the record cannot be parsed
+     */
+    public ModelElement getRecord(String xref) throws IOException, GedcomParserException {
+        Entry e = byXref.get(xref);
+        return e == null ? null : parse(e);
+    }
+
+    /**
+     * Add an entry to the index
+     * 
+     * @param e
+     *            the entry
+     */
+    private void addEntry(Entry e) {
+        entries.add(e);
+        if (e.getXref() != null) {
+            byXref.put(e.getXref(), e);
+        }
+        if (e.getSurnameSoundex() != null) {
+            addToList(bySurnameSoundex, e.getSurnameSoundex(), e);
+        }
+        if (e.getBirthYear() != null) {
+            addToList(byBirthYear, e.getBirthYear(), e);
+        }
+    }
+
+    /**
+     * Add an entry to a list in a map of lists, adding the list if needed
+     * 
+     * @param <K>
+     *            the type of key
+     * @param map
+     *            the map of lists
+     * @param key
+     *            the key of the list
+     * @param e
+     *            the entry to add
+     */
+    private <K> void addToList(Map<K, List<Entry>> map, K key, Entry e) {
+        List<Entry> list = map.get(key);
+        if (list == null) {
+            list = new ArrayList<>();
+            map.put(key, list);
+        }
+        list.add(e);
+    }
+
+    /**
+     * Work out the secondary keys of an individual, and make an entry for it
+     * 
+     * @param xref
+     *            the xref of the individual
+     * @param offset
+     *            the offset of the record
+     * @param length
+     *            the length of the record
+     * @param lineNum
+     *            the line number of the first line of the record
+     * @param hash
+     *            the CRC-32 of the bytes of the record
+     * @param bytes
+     *            the bytes of the record
+     * @return the entry
+     * @throws IOException
+     *             if the record cannot be decoded
+     * @throws GedcomParserException
+     *             if the scan has been cancelled
+     */
+    private Entry individualEntry(String xref, long offset, int length, int lineNum, int hash, byte[] bytes) throws IOException,
+            GedcomParserException {
+        String surname = null;
+        Integer birthYear = null;
+        boolean inBirth = false;
+        GedcomFileReader gfr = new GedcomFileReader(parser, ByteBuffer.wrap(bytes, 0, length), encoding);
+        String line = gfr.nextLine();
+        while (line != null) {
+            if (line.startsWith("1 ")) {
+                inBirth = line.startsWith("1 BIRT") && (line.length() == 6 || line.charAt(6) == ' ') && birthYear == null;
+                if (surname == null && line.startsWith("1 NAME ")) {
+                    surname = surname(line.substring(7));
+                }
+            } else if (inBirth && line.startsWith("2 DATE ")) {
+                Date d = dateParser.parse(line.substring(7).trim());
+                if (d != null) {
+                    calendar.setTime(d);
+                    birthYear = calendar.get(Calendar.YEAR);
+                }
+            }
+            line = gfr.nextLine();
+        }
+        return new Entry(xref, "INDI", offset, length, lineNum, hash, surname == null ? null : Soundex.soundex(surname),
+                birthYear);
+    }
+
+    /**
+     * Check the index file against the GEDCOM file, and update or rebuild it if needed
+     * 
+     * @param lastModified
+     *            the modification time of the GEDCOM file
+     * @throws IOException
+     *             if the GEDCOM file cannot be read, or the index file cannot be written
+     * @throws GedcomParserException
+     *             if the GEDCOM file is using an unsupported character encoding, or the scan is cancelled
+     */
+    private void open(long lastModified) throws IOException, GedcomParserException {
+        long fileLength = channel.size();
+        long[] stored = readIndexFile();
+        if (stored != null && stored[0] == fileLength && stored[1] == lastModified) {
+            return;
+        }
+        long scanFrom = 0;
+        int linesBefore = 0;
+        prefixCrc = new CRC32();
+        if (stored != null && !entries.isEmpty()) {
+            Entry last = entries.get(entries.size() - 1);
+            if (last.getOffset() <= fileLength && crcTo(last.getOffset()) == stored[2]) {
+                // Everything before the last record is unchanged, so just scan from there
+                scanFrom = last.getOffset();
+                linesBefore = last.getLineNum() - 1;
+                removeLastEntry();
+            }
+        }
+        if (scanFrom == 0) {
+            clearEntries();
+            prefixCrc.reset();
+            prefixCrcEnd = 0;
+            channel.position(0);
+            encoding = new GedcomFileReader(parser, channel).getEncoding();
+        }
+        scan(scanFrom, linesBefore);
+        bytesScanned = fileLength - scanFrom;
+        writeIndexFile(fileLength, lastModified);
+    }
+
+    /**
+     * Clear all the entries
+     */
+    private void clearEntries() {
+        entries.clear();
+        byXref.clear();
+        bySurnameSoundex.clear();
+        byBirthYear.clear();
+    }
+
+    /**
+     * Add the bytes of the GEDCOM file from {@link #prefixCrcEnd} up to an offset to {@link #prefixCrc}
+     * 
+     * @param end
+     *            the offset
+     * @return the CRC-32 of the bytes of the file up to the offset
+     * @throws IOException
+     *             if the file cannot be read
+     */
+    private long crcTo(long end) throws IOException {
+        ByteBuffer buf = null;
+        while (prefixCrcEnd < end) {
+            if (buf == null) {
+                buf = ByteBuffer.allocate(CHUNK_SIZE);
+            }
+            buf.clear();
+            buf.limit((int) Math.min(buf.capacity(), end - prefixCrcEnd));
+            int n = channel.read(buf, prefixCrcEnd);
+            if (n < 0) {
+                break;
+            }
+            prefixCrc.update(buf.array(), 0, n);
+            prefixCrcEnd += n;
+        }
+        return prefixCrc.getValue();
+    }
+
+    /**
+     * Parse a record
+     * 
+     * @param e
+     *            the entry for the record
+     * @return the record, or null if nothing could be loaded from it
+     * @throws IOException
+     *             if the record cannot be read
+     * @throws GedcomParserException
+     *             if the record cannot be parsed
+     */
+    private ModelElement parse(Entry e) throws IOException, GedcomParserException {
+        ByteBuffer buf = ByteBuffer.allocate(e.getLength());
+        while (buf.hasRemaining()) {
+            if (channel.read(buf, e.getOffset() + buf.position()) < 0) {
+                throw new IOException("The file has been truncated since it was indexed - record at line " + e.getLineNum()
+                        + " can't be read");
+            }
+        }
+        buf.flip();
+        synchronized (parser) {
+            return parser.loadRecord(buf, encoding, e.getLineNum());
+        }
+    }
+
+    /**
+     * Read the index file, if there is one and it can be read
+     * 
+     * @return null if the index file doesn't exist, or can't be read, or was written by a different version of gedcom4j.
+     *         Otherwise, the length and modification time of the GEDCOM file when the index was written, and the CRC-32 of the
+     *         bytes before the last record.
+     */
+    private long[] readIndexFile() {
+        if (!indexFile.isFile()) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(indexFile)))) {
+            byte[] magic = new byte[MAGIC.length];
+            in.readFully(magic);
+            if (!Arrays.equals(magic, MAGIC) || in.readInt() != VERSION) {
+                return null;
+            }
+            long[] result = { in.readLong(), in.readLong(), in.readLong() };
+            encoding = Encoding.valueOf(in.readUTF());
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                String xref = in.readUTF();
+                String tag = in.readUTF();
+                long offset = in.readLong();
+                int length = in.readInt();
+                int lineNum = in.readInt();
+                int hash = in.readInt();
+                String soundex = in.readUTF();
+                int year = in.readInt();
+                addEntry(new Entry(xref.isEmpty() ? null : xref, tag, offset, length, lineNum, hash, soundex.isEmpty() ? null
+                        : soundex, year == NO_YEAR ? null : year));
+            }
+            return result;
+        } catch (IOException | IllegalArgumentException e) {
+            // Not an index file we can use, so it will be rebuilt
+            clearEntries();
+            return null;
+        }
+    }
+
+    /**
+     * Remove the last entry
+     */
+    private void removeLastEntry() {
+        Entry e = entries.remove(entries.size() - 1);
+        if (e.getXref() != null && byXref.get(e.getXref()) == e) {
+            byXref.remove(e.getXref());
+        }
+        if (e.getSurnameSoundex() != null) {
+            bySurnameSoundex.get(e.getSurnameSoundex()).remove(e);
+        }
+        if (e.getBirthYear() != null) {
+            byBirthYear.get(e.getBirthYear()).remove(e);
+        }
+    }
+
+    /**
+     * Scan the GEDCOM file for records, from an offset to the end, and add entries for them
+     * 
+     * @param from
+     *            the offset to start at, which must be the start of a line
+     * @param linesBefore
+     *            the number of non-blank lines before the offset
+     * @throws IOException
+     *             if the file cannot be read
+     * @throws GedcomParserException
+     *             if the scan is cancelled
+     */
+    private void scan(long from, int linesBefore) throws IOException, GedcomParserException {
+        final CRC32 recordCrc = new CRC32();
+        final boolean[] finishing = { false };
+        RecordScanner scanner = new RecordScanner(encoding, from, linesBefore, true, new RecordScanner.Listener() {
+
+            /**
+             * {@inheritDoc}
+             */
+            @Override
+            public void record(long offset, int length, int lineNum, String xref, String tag, byte[] bytes) throws IOException,
+                    GedcomParserException {
+                if (entries.size() % CANCEL_CHECK_RATE == 0 && parser.isCancelled()) {
+                    throw new ParserCancelledException("File scan is cancelled");
+                }
+                if (!finishing[0]) {
+                    // This isn't the last record, so it's part of what's checked to see if the file has only been added to
+                    crcTo(offset);
+                    prefixCrc.update(bytes, 0, length);
+                    prefixCrcEnd = offset + length;
+                }
+                recordCrc.reset();
+                recordCrc.update(bytes, 0, length);
+                int hash = (int) recordCrc.getValue();
+                if ("INDI".equals(tag)) {
+                    addEntry(individualEntry(xref, offset, length, lineNum, hash, bytes));
+                } else {
+                    addEntry(new Entry(xref, tag, offset, length, lineNum, hash, null, null));
+                }
+            }
+        });
+        ByteBuffer buf = ByteBuffer.allocate(CHUNK_SIZE);
+        long pos = from;
+        int n = channel.read(buf, pos);
+        while (n >= 0) {
+            scanner.scan(buf.array(), n);
+            pos += n;
+            buf.clear();
+            n = channel.read(buf, pos);
+        }
+        finishing[0] = true;
+        scanner.finish();
+        if (!entries.isEmpty()) {
+            crcTo(entries.get(entries.size() - 1).getOffset());
+        }
+    }
+
+    /**
+     * Get the surname out of the value of a NAME line, from between the slashes
+     * 
+     * @param name
+     *            the name
+     * @return the surname, or null if there isn't one
+     */
+    private String surname(String name) {
+        int start = name.indexOf('/');
+        if (start < 0) {
+            return null;
+        }
+        int end = name.indexOf('/', start + 1);
+        String result = name.substring(start + 1, end < 0 ? name.length() : end).trim();
+        return result.isEmpty() ? null : result;
+    }
+
+    /**
+     * Write the index file. It is written to a temporary file first, which then replaces the index file, so that the index file is
+     * never left half-written.
+     * 
+     * @param fileLength
+     *            the length of the GEDCOM file
+     * @param lastModified
+     *            the modification time of the GEDCOM file
+     * @throws IOException
+     *             if the index file cannot be written
+     */
+    private void writeIndexFile(long fileLength, long lastModified) throws IOException {
+        File tmp = new File(indexFile.getPath() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)))) {
+            out.write(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(fileLength);
+            out.writeLong(lastModified);
+            out.writeLong(prefixCrc.getValue());
+            out.writeUTF(encoding.name());
+            out.writeInt(entries.size());
+            for (Entry e : entries) {
+                out.writeUTF(e.getXref() == null ? "" : e.getXref());
+                out.writeUTF(e.getTag());
+                out.writeLong(e.getOffset());
+                out.writeInt(e.getLength());
+                out.writeInt(e.getLineNum());
+                out.writeInt(e.getHash());
+                out.writeUTF(e.getSurnameSoundex() == null ? "" : e.getSurnameSoundex());
+                out.writeInt(e.getBirthYear() == null ? NO_YEAR : e.getBirthYear());
+            }
+        }
+        Files.move(tmp.toPath(), indexFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+}
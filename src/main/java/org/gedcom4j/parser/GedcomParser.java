@@ -30,19 +30,31 @@ import java.io.BufferedInputStream;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.CopyOnWriteArrayList;
 
 import org.gedcom4j.exception.GedcomParserException;
 import org.gedcom4j.exception.ParserCancelledException;
+import org.gedcom4j.io.encoding.Encoding;
 import org.gedcom4j.io.event.FileProgressEvent;
 import org.gedcom4j.io.event.FileProgressListener;
 import org.gedcom4j.io.reader.GedcomFileReader;
+import org.gedcom4j.io.reader.LineBuffer;
 import org.gedcom4j.model.Family;
 import org.gedcom4j.model.Gedcom;
 import org.gedcom4j.model.Header;
 import org.gedcom4j.model.Individual;
+import org.gedcom4j.model.ModelElement;
 import org.gedcom4j.model.Multimedia;
 import org.gedcom4j.model.NoteRecord;
 import org.gedcom4j.model.Repository;
@@ -52,6 +64,7 @@ import org.gedcom4j.model.Submission;
 import org.gedcom4j.model.SubmissionReference;
 import org.gedcom4j.model.Submitter;
 import org.gedcom4j.model.Trailer;
+import org.gedcom4j.parser.ReferenceReport.DuplicateXref;
 import org.gedcom4j.parser.event.ParseProgressEvent;
 import org.gedcom4j.parser.event.ParseProgressListener;
 
@@ -82,6 +95,23 @@ import org.gedcom4j.parser.event.ParseProgressListener;
  * collections. Most of these messages indicate that the data was loaded, even though it was incorrect, and the data will need to be
  * corrected before it can be written.
  * </p>
+ * <p>
+ * Once all the records have been parsed, a link phase checks the references between them, and lists any references to records
+ * that aren't in the file, and any records with the same xref as an earlier one, in a {@link ReferenceReport} - see
+ * {@link #getReferenceReport()}.
+ * </p>
+ * <p>
+ * For files too big to hold in memory all at once, a {@link RecordHandler} can be supplied with
+ * {@link #setRecordHandler(RecordHandler)}. The parser then hands each root-level record to the handler as soon as it has been
+ * parsed, and does not keep it in the {@link Gedcom}. For jobs that only need some of the data in a file, a
+ * {@link ParseProjection} can be supplied with {@link #setProjection(ParseProjection)} so that only the selected record types and
+ * tags are loaded.
+ * </p>
+ * <p>
+ * For interactive tools that open very large files but only look at some of the records, lazy loading can be turned on with
+ * {@link #setLazyLoading(boolean)}. Loading then only scans the file for where each record is, and the maps of records in the
+ * {@link Gedcom} parse each record from the file the first time it is asked for.
+ * </p>
  * 
  * <p>
  * The parser makes the assumption that if the version of GEDCOM used is explicitly specified in the file header, that the rest of
@@ -98,7 +128,8 @@ import org.gedcom4j.parser.event.ParseProgressListener;
  * @author frizbog1
  * 
  */
-@SuppressWarnings({ "PMD.TooManyMethods", "PMD.GodClass" })
+@SuppressWarnings({ "PMD.TooManyMethods", "PMD.GodClass", "PMD.ExcessiveImports", "PMD.ExcessiveClassLength",
+        "PMD.ExcessivePublicCount" })
 public class GedcomParser extends AbstractParser<Gedcom> {
 
     /**
@@ -122,12 +153,87 @@ public class GedcomParser extends AbstractParser<Gedcom> {
     /** Should the parser ignore custom tags? */
     private boolean ignoreCustomTags = false;
 
+    /**
+     * The record types and tag paths to load, or null to load everything
+     */
+    private ParseProjection projection;
+
     /**
      * Indicates whether non-compliant GEDCOM files with actual line breaks in text values (rather than CONT tags) should be parsed
      * (with some loss of data) rather than fail with an exception.
      */
     private boolean strictLineBreaks = true;
 
+    /**
+     * Should files loaded by name be memory-mapped rather than read through a buffered stream?
+     */
+    private boolean useMemoryMappedFiles = false;
+
+    /**
+     * The number of threads used to parse root-level records. When 1, records are parsed on the thread doing the loading.
+     */
+    private int parserThreads = 1;
+
+    /**
+     * Should lines be read and decoded on a separate thread from the one building and parsing the records?
+     */
+    private boolean pipelinedLoading = false;
+
+    /**
+     * Should files be loaded lazily, parsing each record only when it is first asked for?
+     */
+    private boolean lazyLoading = false;
+
+    /**
+     * The most records a lazily loaded {@link Gedcom} keeps parsed at once
+     */
+    private int lazyCacheSize = 10000;
+
+    /**
+     * The handler that each root-level record is handed to as soon as it is parsed, instead of being kept in the {@link Gedcom}. Null
+     * unless loading in streaming mode.
+     */
+    private RecordHandler recordHandler;
+
+    /**
+     * Are records being handed over one at a time (to a {@link RecordHandler}, by a {@link GedcomRecordReader}, or on demand by a
+     * lazily loaded {@link Gedcom}) rather than kept in the {@link Gedcom}?
+     */
+    private boolean streaming;
+
+    /**
+     * The checkpoint at the end of the last incremental load, or null if the last load wasn't incremental
+     */
+    private LoadCheckpoint checkpoint;
+
+    /**
+     * The records found during the current load with the same tag and xref as an earlier record. Shared with the parsers of any
+     * worker threads, so it is synchronized.
+     */
+    private List<DuplicateXref> duplicateXrefs = Collections.synchronizedList(new ArrayList<DuplicateXref>());
+
+    /**
+     * The records defined so far by a load that ends with a link phase, as opposed to the placeholders created for references to
+     * records that haven't been seen (yet), or null if the load has no link phase. Shared with the parsers of any worker threads,
+     * so it is only changed while synchronized on itself.
+     */
+    private Set<ModelElement> definedRecords;
+
+    /**
+     * The report from the link phase of the last load, or null if the last load didn't have one
+     */
+    private ReferenceReport referenceReport;
+
+    /**
+     * The pool used to share one instance of each frequently repeated value across the whole load
+     */
+    private StringCanonicalizer stringCanonicalizer = new StringCanonicalizer();
+
+    /**
+     * A pool supplied to be shared across loads, if any
+     */
+    private StringCanonicalizer sharedStringCanonicalizer;
+
     /**
      * The warnings issued during the parsing of the gedcom file
      */
@@ -136,7 +242,7 @@ public class GedcomParser extends AbstractParser<Gedcom> {
     /**
      * Is the load/parse process being cancelled
      */
-    private boolean cancelled;
+    private volatile boolean cancelled;
 
     /**
      * Send a notification to listeners every time this many lines (or more) are read
@@ -168,11 +274,32 @@ public class GedcomParser extends AbstractParser<Gedcom> {
      */
     private int lineNum;
 
+    /**
+     * The next line to add to the {@link StringTreeBuilder}, read ahead to see whether it begins a new root-level record. Null
+     * once there are no more lines.
+     */
+    private LineBuffer pendingLine;
+
+    /**
+     * The buffer the lines of the file are read into, which {@link #pendingLine} refers to while there are lines
+     */
+    private final LineBuffer lineBuffer = new LineBuffer();
+
     /**
      * Are we currently parsing somewhere inside a custom tag?
      */
     private boolean insideCustomTag;
 
+    /**
+     * Loads root-level records on worker threads, when more than one parser thread is in use. Only set during a load.
+     */
+    private ParallelRecordLoader recordLoader;
+
+    /**
+     * Reads and decodes lines on a separate thread, when loading is pipelined. Only set during a load.
+     */
+    private PipelinedLineReader linePipeline;
+
     /**
      * Default constructor
      */
@@ -180,7 +307,29 @@ public class GedcomParser extends AbstractParser<Gedcom> {
         /*
          * This is the root level parser, so there are no parent or other root nodes to hook up to (yet)
          */
-        super(null, null, null);
+        super(null, null, StringTreeArena.NONE, null);
+    }
+
+    /**
+     * Constructor for a parser used by another thread to help the root parser with a load, such as a worker thread parsing
+     * root-level records. It loads into the same {@link Gedcom} as the root parser, with the same settings, but collects its own
+     * errors and warnings.
+     * 
+     * @param rootParser
+     *            the root parser doing the loading
+     */
+    GedcomParser(GedcomParser rootParser) {
+        super(null, null, StringTreeArena.NONE, null);
+        gedcom = rootParser.gedcom;
+        duplicateXrefs = rootParser.duplicateXrefs;
+        definedRecords = rootParser.definedRecords;
+        strictCustomTags = rootParser.strictCustomTags;
+        ignoreCustomTags = rootParser.ignoreCustomTags;
+        strictLineBreaks = rootParser.strictLineBreaks;
+        readNotificationRate = rootParser.readNotificationRate;
+        streaming = rootParser.streaming;
+        projection = rootParser.projection;
+        stringCanonicalizer = rootParser.stringCanonicalizer;
     }
 
     /**
@@ -190,6 +339,16 @@ public class GedcomParser extends AbstractParser<Gedcom> {
         cancelled = true;
     }
 
+    /**
+     * Get the checkpoint at the end of the last load done with {@link #loadIncrementally(String, Gedcom, LoadCheckpoint)}, which is
+     * where the next incremental load of the same file should pick up from
+     * 
+     * @return the checkpoint, or null if the last load wasn't incremental
+     */
+    public LoadCheckpoint getCheckpoint() {
+        return checkpoint;
+    }
+
     /**
      * Get the errors
      * 
@@ -217,6 +376,15 @@ public class GedcomParser extends AbstractParser<Gedcom> {
         return gedcom;
     }
 
+    /**
+     * Get the most records a lazily loaded {@link Gedcom} keeps parsed at once
+     * 
+     * @return the most records a lazily loaded {@link Gedcom} keeps parsed at once
+     */
+    public int getLazyCacheSize() {
+        return lazyCacheSize;
+    }
+
     /**
      * Get the parse notification rate (the number of items that get parsed between each notification, if listening)
      * 
@@ -235,6 +403,24 @@ public class GedcomParser extends AbstractParser<Gedcom> {
         return parseObservers;
     }
 
+    /**
+     * Get the number of threads used to parse root-level records
+     * 
+     * @return the number of threads used to parse root-level records
+     */
+    public int getParserThreads() {
+        return parserThreads;
+    }
+
+    /**
+     * Get the projection selecting which record types and tag paths are loaded
+     * 
+     * @return the projection, or null if everything is loaded
+     */
+    public ParseProjection getProjection() {
+        return projection;
+    }
+
     /**
      * Get the read notification rate
      * 
@@ -244,6 +430,37 @@ public class GedcomParser extends AbstractParser<Gedcom> {
         return readNotificationRate;
     }
 
+    /**
+     * Get the handler that each root-level record is handed to as soon as it is parsed, when loading in streaming mode
+     * 
+     * @return the record handler, or null if not loading in streaming mode
+     */
+    public RecordHandler getRecordHandler() {
+        return recordHandler;
+    }
+
+    /**
+     * Get the report from the link phase at the end of the last load, which lists the records that are referred to but never
+     * defined, and the records with the same tag and xref as an earlier record. The link phase runs on the number of threads set
+     * with {@link #setParserThreads(int)}. If the load had a {@link ParseProjection}, references to records of types that it
+     * projected out aren't reported as dangling.
+     * 
+     * @return the report from the last load, or null if there hasn't been one, or the last load was in streaming mode or lazy
+     */
+    public ReferenceReport getReferenceReport() {
+        return referenceReport;
+    }
+
+    /**
+     * Get the pool that shares one instance of each frequently repeated value across a load, for example to look at its
+     * statistics. Unless one was supplied with {@link #setStringCanonicalizer(StringCanonicalizer)}, each load gets a new pool.
+     * 
+     * @return the pool used by the most recent (or current) load
+     */
+    public StringCanonicalizer getStringCanonicalizer() {
+        return stringCanonicalizer;
+    }
+
     /**
      * Get the warnings
      * 
@@ -271,6 +488,24 @@ public class GedcomParser extends AbstractParser<Gedcom> {
         return ignoreCustomTags;
     }
 
+    /**
+     * Are files loaded lazily, parsing each record only when it is first asked for?
+     * 
+     * @return true if files are loaded lazily
+     */
+    public boolean isLazyLoading() {
+        return lazyLoading;
+    }
+
+    /**
+     * Are lines read and decoded on a separate thread from the one building and parsing the records?
+     * 
+     * @return true if loading is pipelined
+     */
+    public boolean isPipelinedLoading() {
+        return pipelinedLoading;
+    }
+
     /**
      * Get the strictCustomTags
      * 
@@ -289,6 +524,15 @@ public class GedcomParser extends AbstractParser<Gedcom> {
         return strictLineBreaks;
     }
 
+    /**
+     * Are files loaded by name memory-mapped rather than read through a buffered stream?
+     * 
+     * @return true if files loaded by name are memory-mapped
+     */
+    public boolean isUseMemoryMappedFiles() {
+        return useMemoryMappedFiles;
+    }
+
     /**
      * Read data from an {@link java.io.InputStream} and construct a {@link StringTree} object from its contents
      * 
@@ -300,42 +544,55 @@ public class GedcomParser extends AbstractParser<Gedcom> {
      *             if there is an error with parsing the data from the stream
      */
     public void load(BufferedInputStream bytes) throws IOException, GedcomParserException {
-        // Reset counters and stuff
-        gedcom = new Gedcom();
-        lineNum = 0;
-        errors.clear();
-        warnings.clear();
-        cancelled = false;
+        resetForLoad();
+        load(new GedcomFileReader(getFileReaderParser(), bytes));
+    }
 
-        if (cancelled) {
-            throw new ParserCancelledException("File load/parse cancelled");
+    /**
+     * Read data held in a {@link ByteBuffer} (such as a memory-mapped file) and construct a {@link StringTree} object from its
+     * contents. The bytes are read directly from the buffer, from its position to its limit; the buffer's position and limit are
+     * not changed. Since all the data is at hand, the root-level records are counted before parsing starts, so that the record
+     * maps of the {@link Gedcom} can be sized to fit them up front.
+     * 
+     * @param bytes
+     *            the buffer holding the bytes of the file
+     * @throws IOException
+     *             if there is a problem reading the data from the buffer
+     * @throws GedcomParserException
+     *             if there is an error with parsing the data from the buffer
+     */
+    public void load(ByteBuffer bytes) throws IOException, GedcomParserException {
+        resetForLoad();
+        if (lazyLoading && recordHandler == null) {
+            loadLazily(bytes);
+            return;
         }
-        GedcomFileReader gfr = new GedcomFileReader(this, bytes);
-        stringTreeBuilder = new StringTreeBuilder(this);
-        String line = gfr.nextLine();
-        while (line != null) {
-
-            if (line.charAt(0) == '0') {
-                // We've hit the start of the next root node
-                parseAndLoadPreviousStringTree();
-            }
-
-            lineNum++;
-            stringTreeBuilder.appendLine(line);
-            line = gfr.nextLine();
-            if (cancelled) {
-                throw new ParserCancelledException("File load/parse is cancelled");
-            }
-            if (lineNum % parseNotificationRate == 0) {
-                notifyParseObservers(new ParseProgressEvent(this, gedcom, false, lineNum));
-            }
-
+        if (!streaming) {
+            RecordCounter.presize(bytes, gedcom);
         }
-        parseAndLoadPreviousStringTree();
+        load(new GedcomFileReader(getFileReaderParser(), bytes));
+    }
+
+    /**
+     * Read data from a (blocking) {@link ReadableByteChannel} and construct a {@link StringTree} object from its contents. The
+     * channel is not closed.
+     * 
+     * @param channel
+     *            the channel to read the bytes of the file from
+     * @throws IOException
+     *             if there is a problem reading the data from the channel
+     * @throws GedcomParserException
+     *             if there is an error with parsing the data from the channel
+     */
+    public void load(ReadableByteChannel channel) throws IOException, GedcomParserException {
+        resetForLoad();
+        load(new GedcomFileReader(getFileReaderParser(), channel));
     }
 
     /**
-     * Load a gedcom file with the supplied name
+     * Load a gedcom file with the supplied name. If {@link #isUseMemoryMappedFiles()} or {@link #isLazyLoading()} is true, the file
+     * is memory-mapped (or, if it is too big to map in one piece, read through a {@link FileChannel} and loaded in full); otherwise
+     * it is read through a buffered stream.
      * 
      * @param filename
      *            the name of the file to load
@@ -345,12 +602,89 @@ public class GedcomParser extends AbstractParser<Gedcom> {
      *             if the file cannot be parsed
      */
     public void load(String filename) throws IOException, GedcomParserException {
-
+        if (useMemoryMappedFiles || lazyLoading) {
+            try (FileChannel fc = FileChannel.open(Paths.get(filename), StandardOpenOption.READ)) {
+                if (fc.size() > Integer.MAX_VALUE) {
+                    load(fc);
+                } else {
+                    load(fc.map(MapMode.READ_ONLY, 0, fc.size()));
+                }
+            }
+            return;
+        }
         try (FileInputStream fis = new FileInputStream(filename); BufferedInputStream bis = new BufferedInputStream(fis);) {
             load(bis);
         }
     }
 
+    /**
+     * <p>
+     * Load a GEDCOM file that has grown since it was last loaded by having records added at the end (before the trailer), parsing
+     * only the records that were added. The records are added to a previously loaded {@link Gedcom}, which becomes this parser's
+     * {@link #getGedcom()}, with the same result as loading the whole file again: references in the previously loaded records to
+     * the xrefs of added records are resolved to the added records, and a record with the same xref as one already loaded is
+     * loaded into the same object, as it would be if both were in the file the first time. The errors and warnings are those found
+     * in the added records, with their line numbers counted from the start of the file.
+     * </p>
+     * <p>
+     * To start, call this method with no previous {@link Gedcom} or checkpoint, which loads the whole file. Each time afterwards,
+     * pass it the {@link Gedcom} and the {@link #getCheckpoint()} from the time before. The checkpoint can be kept between runs,
+     * as can the {@link Gedcom} (for example as a snapshot - see {@link org.gedcom4j.snapshot.GedcomSnapshotWriter}). The file must
+     * not have changed before the checkpoint; if it no longer has a root-level record there, an exception is thrown, but other
+     * changes can't be detected. The file is always loaded in full, rather than lazily, and the part of the file that is loaded
+     * must be less than 2GB.
+     * </p>
+     * 
+     * @param filename
+     *            the name of the file to load
+     * @param previous
+     *            the {@link Gedcom} loaded from the file the time before, or null to load the whole file
+     * @param from
+     *            the {@link #getCheckpoint()} from the time before, or null to load the whole file
+     * @throws IOException
+     *             if the file cannot be read
+     * @throws GedcomParserException
+     *             if the file cannot be parsed, or has changed before the checkpoint
+     * @throws IllegalArgumentException
+     *             if only one of the previous {@link Gedcom} and the checkpoint is supplied, or the previous {@link Gedcom} was
+     *             loaded lazily
+     */
+    public void loadIncrementally(String filename, Gedcom previous, LoadCheckpoint from) throws IOException,
+            GedcomParserException {
+        if (previous == null != (from == null)) {
+            throw new IllegalArgumentException("The previously loaded Gedcom and its checkpoint must be supplied together");
+        }
+        if (previous instanceof LazyGedcom) {
+            throw new IllegalArgumentException("Records can't be added to a lazily loaded Gedcom");
+        }
+        checkpoint = null;
+        try (FileChannel fc = FileChannel.open(Paths.get(filename), StandardOpenOption.READ)) {
+            long start = from == null ? 0 : from.getOffset();
+            long size = fc.size();
+            if (size < start) {
+                throw new GedcomParserException("The file is shorter than it was when it was last loaded - expected at least "
+                        + start + " bytes but found " + size);
+            }
+            if (size - start > Integer.MAX_VALUE) {
+                throw new GedcomParserException("Too much of the file to load incrementally - " + (size - start) + " bytes");
+            }
+            ByteBuffer bytes = fc.map(MapMode.READ_ONLY, start, size - start);
+            resetForLoad();
+            LoadCheckpoint startAt = from;
+            if (startAt == null) {
+                startAt = new LoadCheckpoint(0, 1, new GedcomFileReader(this, bytes).getEncoding());
+            } else {
+                gedcom = previous;
+                lineNum = from.getLineNum() - 1;
+                definedRecords = Collections.newSetFromMap(new IdentityHashMap<ModelElement, Boolean>());
+                ReferenceLinker.addDefined(definedRecords, previous, from);
+            }
+            LoadCheckpoint next = LoadCheckpoint.after(bytes, startAt);
+            load(new GedcomFileReader(getFileReaderParser(), bytes, startAt.getEncoding()));
+            checkpoint = next.withUndefined(referenceReport);
+        }
+    }
+
     /**
      * Notify all listeners about the change
      * 
@@ -403,6 +737,52 @@ public class GedcomParser extends AbstractParser<Gedcom> {
         this.ignoreCustomTags = ignoreCustomTags;
     }
 
+    /**
+     * Set the most records a lazily loaded {@link Gedcom} keeps parsed at once. Once this many have been parsed, the least recently
+     * used record is dropped each time another is parsed, and will be parsed again if it is asked for again. Changing this does not
+     * affect {@link Gedcom}s that have already been loaded.
+     * 
+     * @param lazyCacheSize
+     *            the most records to keep parsed at once. Must be a positive integer.
+     */
+    public void setLazyCacheSize(int lazyCacheSize) {
+        if (lazyCacheSize < 1) {
+            throw new IllegalArgumentException("Lazy Cache Size must be at least 1");
+        }
+        this.lazyCacheSize = lazyCacheSize;
+    }
+
+    /**
+     * <p>
+     * Set whether files are loaded lazily. When they are, loading a file only scans it for the root-level lines, noting where each
+     * record is, which takes a fraction of the time of a full load. The header, submission, trailer and any root-level custom
+     * facts are loaded straight away, but the maps of families, individuals, multimedia, notes, repositories, sources and
+     * submitters in the {@link Gedcom} are read-only, and parse each record from the file the first time it is asked for. The most
+     * recently used records are kept in a cache (see {@link #setLazyCacheSize(int)}); the rest are parsed again if asked for again,
+     * so changes to them may be lost.
+     * </p>
+     * <p>
+     * The references between families and individuals - {@link org.gedcom4j.model.FamilyChild},
+     * {@link org.gedcom4j.model.FamilySpouse} and {@link org.gedcom4j.model.IndividualReference} - look the record referred to up
+     * in the {@link Gedcom}'s maps each time it is asked for, so <code>fs.getFamily().getHusband().getIndividual()</code> works as
+     * for a normal load, without the references keeping the records from being dropped from the cache. Other references from one
+     * record to another are placeholders that only have the xref of the record referred to, which can be looked up in the
+     * {@link Gedcom}'s maps - e.g., <code>gedcom.getSources().get(citation.getSource().getXref())</code>. Errors and warnings found
+     * when a record is parsed are added to this parser's {@link #getErrors()} and {@link #getWarnings()} then.
+     * </p>
+     * <p>
+     * Lazy loading applies to files loaded by name and to data in a {@link ByteBuffer}, which can be read again later; data from
+     * streams and channels is loaded in full. It does not apply when a {@link RecordHandler} is set, and parser threads and
+     * pipelined loading are not used.
+     * </p>
+     * 
+     * @param lazyLoading
+     *            true if files should be loaded lazily
+     */
+    public void setLazyLoading(boolean lazyLoading) {
+        this.lazyLoading = lazyLoading;
+    }
+
     /**
      * Set the parse notification rate (the number of items that get parsed between each notification, if listening)
      * 
@@ -417,6 +797,48 @@ public class GedcomParser extends AbstractParser<Gedcom> {
         this.parseNotificationRate = parseNotificationRate;
     }
 
+    /**
+     * Set the number of threads used to parse root-level records. When more than 1, each root-level record is handed off to a pool
+     * of that many worker threads as soon as its last line has been read, so parsing overlaps with reading the rest of the file.
+     * The resulting {@link Gedcom}, errors and warnings are the same as when parsing with a single thread; the errors and warnings
+     * are only complete once the load has finished. This is only worthwhile when more than one processor is available.
+     * 
+     * @param parserThreads
+     *            the number of threads used to parse root-level records. Must be at least 1. Defaults to 1.
+     */
+    public void setParserThreads(int parserThreads) {
+        if (parserThreads < 1) {
+            throw new IllegalArgumentException("Parser Threads must be at least 1");
+        }
+        this.parserThreads = parserThreads;
+    }
+
+    /**
+     * Set whether lines are read and decoded on a separate thread from the one building and parsing the records. This lets waiting
+     * for data (for example, from a slow network drive) and decoding it overlap with the parsing. Lines are handed over in batches,
+     * and the reading thread stops when it gets a fixed number of batches ahead. Combine with {@link #setParserThreads(int)} to
+     * parse the records on threads of their own as well. The results are the same either way; note that
+     * {@link FileProgressEvent}s are delivered on the reading thread when loading is pipelined.
+     * 
+     * @param pipelinedLoading
+     *            true if loading should be pipelined
+     */
+    public void setPipelinedLoading(boolean pipelinedLoading) {
+        this.pipelinedLoading = pipelinedLoading;
+    }
+
+    /**
+     * Set the projection selecting which record types and tag paths are loaded. Lines that are projected out are skipped as they
+     * are read, without being parsed, so both the time and memory used by the load go down. Changing the projection while a load
+     * is in progress does not affect that load.
+     * 
+     * @param projection
+     *            the projection, or null to load everything
+     */
+    public void setProjection(ParseProjection projection) {
+        this.projection = projection;
+    }
+
     /**
      * Set the read notification rate.
      * 
@@ -430,6 +852,51 @@ public class GedcomParser extends AbstractParser<Gedcom> {
         this.readNotificationRate = readNotificationRate;
     }
 
+    /**
+     * <p>
+     * Set the handler that each root-level record is handed to as soon as it is parsed. This puts the parser in streaming mode, where
+     * the records are not kept in the {@link Gedcom} once they have been handed over, so memory use does not grow with the size of
+     * the file. Only the header, submission, and trailer (which the parser needs to refer back to) are kept; the collections of
+     * individuals, families, sources, and so on stay empty.
+     * </p>
+     * <p>
+     * References from one record to another are not resolved in streaming mode - see {@link RecordHandler} for details. Because
+     * of that, records with the same xref are also not merged.
+     * </p>
+     * 
+     * @param recordHandler
+     *            the record handler, or null to load the whole file into the {@link Gedcom} as usual
+     */
+    public void setRecordHandler(RecordHandler recordHandler) {
+        this.recordHandler = recordHandler;
+    }
+
+    /**
+     * Set whether files loaded by name are memory-mapped rather than read through a buffered stream. Memory-mapping avoids copying
+     * the file's bytes through intermediate stream buffers, which is faster for large files. Note that the JVM does not release a
+     * mapping until it is garbage collected, and on some platforms the file cannot be deleted or modified while it is mapped.
+     * 
+     * @param useMemoryMappedFiles
+     *            true if files loaded by name should be memory-mapped
+     */
+    public void setUseMemoryMappedFiles(boolean useMemoryMappedFiles) {
+        this.useMemoryMappedFiles = useMemoryMappedFiles;
+    }
+
+    /**
+     * Supply a pool to share one instance of each frequently repeated value across loads (and parsers), rather than starting with
+     * an empty pool for each load
+     * 
+     * @param stringCanonicalizer
+     *            the pool to use for all subsequent loads, or null to go back to a new pool for each load
+     */
+    public void setStringCanonicalizer(StringCanonicalizer stringCanonicalizer) {
+        sharedStringCanonicalizer = stringCanonicalizer;
+        if (stringCanonicalizer != null) {
+            this.stringCanonicalizer = stringCanonicalizer;
+        }
+    }
+
     /**
      * Set the strictCustomTags
      * 
@@ -497,6 +964,18 @@ public class GedcomParser extends AbstractParser<Gedcom> {
         return lineNum;
     }
 
+    /**
+     * Hand a parsed root-level record to the record handler, if loading in streaming mode
+     * 
+     * @param record
+     *            the record. Ignored if null.
+     */
+    void handleRecord(ModelElement record) {
+        if (recordHandler != null && record != null) {
+            recordHandler.handleRecord(record);
+        }
+    }
+
     /**
      * Are we currently inside a custom tag?
      * 
@@ -506,6 +985,200 @@ public class GedcomParser extends AbstractParser<Gedcom> {
         return insideCustomTag;
     }
 
+    /**
+     * Are we loading in streaming mode, where records are handed over one at a time (to a {@link RecordHandler} or by a
+     * {@link GedcomRecordReader}) rather than kept in the {@link Gedcom}?
+     * 
+     * @return true if and only if we are loading in streaming mode
+     */
+    boolean isStreaming() {
+        return streaming;
+    }
+
+    /**
+     * Load a single root-level item
+     * 
+     * @param recordTree
+     *            the tree holding the root level item
+     * @param rootLevelItem
+     *            the node in the tree for the root level item
+     * @return the record that was loaded, or null if nothing was loaded (for example, if the tag was not recognized and custom
+     *         tags are being ignored)
+     * @throws GedcomParserException
+     *             if the data cannot be parsed because it's not in the format expected
+     */
+    ModelElement loadRootItem(StringTreeArena recordTree, int rootLevelItem) throws GedcomParserException {
+        switch (recordTree.getKnownTag(rootLevelItem)) {
+            case HEADER:
+                Header header = gedcom.getHeader();
+                if (header == null) {
+                    header = new Header();
+                    gedcom.setHeader(header);
+                }
+                new HeaderParser(this, recordTree, rootLevelItem, header).parse();
+                return header;
+            case SUBMITTER:
+                Submitter submitter = getSubmitter(recordTree.getXref(rootLevelItem));
+                noteDefinition(submitter, recordTree, rootLevelItem);
+                new SubmitterParser(this, recordTree, rootLevelItem, submitter).parse();
+                return submitter;
+            case INDIVIDUAL:
+                Individual i = getIndividual(recordTree.getXref(rootLevelItem));
+                noteDefinition(i, recordTree, rootLevelItem);
+                new IndividualParser(this, recordTree, rootLevelItem, i).parse();
+                return i;
+            case SUBMISSION:
+                Submission submission = new Submission(recordTree.getXref(rootLevelItem));
+                gedcom.setSubmission(submission);
+                if (gedcom.getHeader() == null) {
+                    gedcom.setHeader(new Header());
+                }
+                if (gedcom.getHeader().getSubmissionReference() == null) {
+                    /*
+                     * The GEDCOM spec puts a cross reference to the root-level SUBN element in the HEAD structure. Now that we have
+                     * a submission object, represent that cross reference in the header object
+                     */
+                    gedcom.getHeader().setSubmissionReference(new SubmissionReference(submission));
+                }
+                new SubmissionParser(this, recordTree, rootLevelItem, submission).parse();
+                return submission;
+            case NOTE:
+                NoteRecord nr = getNoteRecord(recordTree.getXref(rootLevelItem));
+                noteDefinition(nr, recordTree, rootLevelItem);
+                new NoteRecordParser(this, recordTree, rootLevelItem, nr).parse();
+                return nr;
+            case FAMILY:
+                Family f = getFamily(recordTree.getXref(rootLevelItem));
+                noteDefinition(f, recordTree, rootLevelItem);
+                new FamilyParser(this, recordTree, rootLevelItem, f).parse();
+                return f;
+            case TRAILER:
+                Trailer trailer = new Trailer();
+                gedcom.setTrailer(trailer);
+                return trailer;
+            case SOURCE:
+                Source source = getSource(recordTree.getXref(rootLevelItem));
+                noteDefinition(source, recordTree, rootLevelItem);
+                new SourceParser(this, recordTree, rootLevelItem, source).parse();
+                return source;
+            case REPOSITORY:
+                Repository r = getRepository(recordTree.getXref(rootLevelItem));
+                noteDefinition(r, recordTree, rootLevelItem);
+                new RepositoryParser(this, recordTree, rootLevelItem, r).parse();
+                return r;
+            case OBJECT_MULTIMEDIA:
+                Multimedia multimedia = getMultimedia(recordTree.getXref(rootLevelItem));
+                noteDefinition(multimedia, recordTree, rootLevelItem);
+                new MultimediaParser(this, recordTree, rootLevelItem, multimedia).parse();
+                return multimedia;
+            default:
+                unknownTag(recordTree, rootLevelItem, gedcom);
+                if (isStreaming() && gedcom.getCustomFacts() != null && !gedcom.getCustomFacts().isEmpty()) {
+                    // Don't keep it - it gets handed to the record handler instead
+                    return gedcom.getCustomFacts().remove(gedcom.getCustomFacts().size() - 1);
+                }
+                return null;
+        }
+    }
+
+    /**
+     * Read the lines of the next root-level record, for a {@link GedcomRecordReader}
+     * 
+     * @param gfr
+     *            the file reader to get lines from
+     * @return the tree holding the record, as the only child of its container node, or null if there are no more records. The tree
+     *         is reused for the record after it.
+     * @throws IOException
+     *             if there is a problem reading the data
+     * @throws GedcomParserException
+     *             if the lines cannot be parsed, or reading was cancelled
+     */
+    StringTreeArena readRecord(GedcomFileReader gfr) throws IOException, GedcomParserException {
+        if (cancelled) {
+            throw new ParserCancelledException("File load/parse is cancelled");
+        }
+        while (readLinesOfRecord(gfr)) {
+            StringTreeArena recordTree = stringTreeBuilder.getTree();
+            if (recordTree.getChildCount(StringTreeArena.CONTAINER) == 1) {
+                return recordTree;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Parse a single root-level record, for a lazily loaded {@link Gedcom}. As in streaming mode, the record is not kept in the
+     * {@link Gedcom}.
+     * 
+     * @param record
+     *            the bytes of the record, from the buffer's position to its limit
+     * @param encoding
+     *            the encoding of the bytes
+     * @param firstLineNum
+     *            the line number of the record's first line within the file
+     * @return the record, or null if there was nothing to load from it
+     * @throws IOException
+     *             if there is a problem reading the data
+     * @throws GedcomParserException
+     *             if the data cannot be parsed
+     */
+    ModelElement loadRecord(ByteBuffer record, Encoding encoding, int firstLineNum) throws IOException, GedcomParserException {
+        GedcomFileReader gfr = new GedcomFileReader(this, record, encoding);
+        lineNum = firstLineNum - 1;
+        startReading(gfr);
+        StringTreeArena recordTree = readRecord(gfr);
+        if (recordTree == null) {
+            return null;
+        }
+        return loadRootItem(recordTree, recordTree.getFirstChild(StringTreeArena.CONTAINER));
+    }
+
+    /**
+     * Get ready to read root-level records one at a time, for a {@link GedcomRecordReader}. As in streaming mode, the records are
+     * not kept in the {@link Gedcom}.
+     * 
+     * @throws ParserCancelledException
+     *             if the load has been cancelled
+     */
+    void resetForRecordReader() throws ParserCancelledException {
+        resetForLoad();
+        streaming = true;
+    }
+
+    /**
+     * Load data lazily, only scanning it for where each record is. The records are parsed on demand by the {@link LazyGedcom}.
+     * 
+     * @param bytes
+     *            the buffer holding the bytes of the file, which are read again each time a record is parsed
+     * @throws IOException
+     *             if there is a problem reading the data
+     * @throws GedcomParserException
+     *             if the header or other records that aren't loaded lazily cannot be parsed, or the load is cancelled
+     */
+    private void loadLazily(ByteBuffer bytes) throws IOException, GedcomParserException {
+        Encoding encoding = new GedcomFileReader(this, bytes).getEncoding();
+        LazyRecordLoader loader = new LazyRecordLoader(this, bytes, encoding);
+        LazyGedcom lazyGedcom = new LazyGedcom(loader);
+        gedcom = lazyGedcom;
+        streaming = true;
+        loader.load(lazyGedcom);
+    }
+
+    /**
+     * Start reading lines from a file reader into a new {@link StringTreeBuilder}
+     * 
+     * @param gfr
+     *            the file reader to get lines from
+     * @throws IOException
+     *             if there is a problem reading the data
+     * @throws GedcomParserException
+     *             if the data cannot be decoded, or the load was cancelled
+     */
+    void startReading(GedcomFileReader gfr) throws IOException, GedcomParserException {
+        stringTreeBuilder = new StringTreeBuilder(this);
+        pendingLine = nextLine(gfr);
+    }
+
     /**
      * {@inheritDoc}
      * <p>
@@ -528,60 +1201,110 @@ public class GedcomParser extends AbstractParser<Gedcom> {
     }
 
     /**
-     * Load a single root-level item
+     * Get the parser that a new {@link GedcomFileReader} should report to. When loading is pipelined, this sets up the pipeline,
+     * whose own parser collects the warnings issued while decoding on the reading thread.
      * 
-     * @param rootLevelItem
-     *            the string tree for the root level item
+     * @return the parser that a new {@link GedcomFileReader} should report to
+     */
+    private GedcomParser getFileReaderParser() {
+        if (!pipelinedLoading) {
+            return this;
+        }
+        linePipeline = new PipelinedLineReader(this);
+        return linePipeline.getDecodingParser();
+    }
+
+    /**
+     * Read all the lines from a {@link GedcomFileReader} and parse them into the object model
+     * 
+     * @param gfr
+     *            the file reader to get lines from
+     * @throws IOException
+     *             if there is a problem reading the data
      * @throws GedcomParserException
-     *             if the data cannot be parsed because it's not in the format expected
+     *             if there is an error with parsing the data
      */
-    private void loadRootItem(StringTree rootLevelItem) throws GedcomParserException {
-        if (Tag.HEADER.equalsText(rootLevelItem.getTag())) {
-            Header header = gedcom.getHeader();
-            if (header == null) {
-                header = new Header();
-                gedcom.setHeader(header);
+    private void load(GedcomFileReader gfr) throws IOException, GedcomParserException {
+        if (!streaming && definedRecords == null) {
+            definedRecords = Collections.newSetFromMap(new IdentityHashMap<ModelElement, Boolean>());
+        }
+        if (parserThreads > 1) {
+            recordLoader = new ParallelRecordLoader(this, parserThreads);
+        }
+        if (linePipeline != null) {
+            linePipeline.start(gfr);
+        }
+        try {
+            startReading(gfr);
+            while (readLinesOfRecord(gfr)) {
+                parseAndLoadPreviousStringTree();
             }
-            new HeaderParser(this, rootLevelItem, header).parse();
-        } else if (Tag.SUBMITTER.equalsText(rootLevelItem.getTag())) {
-            Submitter submitter = getSubmitter(rootLevelItem.getXref());
-            new SubmitterParser(this, rootLevelItem, submitter).parse();
-        } else if (Tag.INDIVIDUAL.equalsText(rootLevelItem.getTag())) {
-            Individual i = getIndividual(rootLevelItem.getXref());
-            new IndividualParser(this, rootLevelItem, i).parse();
-        } else if (Tag.SUBMISSION.equalsText(rootLevelItem.getTag())) {
-            Submission s = new Submission(rootLevelItem.getXref());
-            gedcom.setSubmission(s);
-            if (gedcom.getHeader() == null) {
-                gedcom.setHeader(new Header());
+            if (recordLoader != null) {
+                recordLoader.finish();
             }
-            if (gedcom.getHeader().getSubmissionReference() == null) {
-                /*
-                 * The GEDCOM spec puts a cross reference to the root-level SUBN element in the HEAD structure. Now that we have a
-                 * submission object, represent that cross reference in the header object
-                 */
-                gedcom.getHeader().setSubmissionReference(new SubmissionReference(s));
+            if (!streaming) {
+                referenceReport = ReferenceLinker.link(gedcom, definedRecords, duplicateXrefs, projection, parserThreads);
+            }
+        } finally {
+            definedRecords = null;
+            if (recordLoader != null) {
+                recordLoader.shutdown();
+                recordLoader = null;
+            }
+            if (linePipeline != null) {
+                linePipeline.shutdown();
+                linePipeline = null;
             }
-            new SubmissionParser(this, rootLevelItem, s).parse();
-        } else if (Tag.NOTE.equalsText(rootLevelItem.getTag())) {
-            NoteRecord nr = getNoteRecord(rootLevelItem.getXref());
-            new NoteRecordParser(this, rootLevelItem, nr).parse();
-        } else if (Tag.FAMILY.equalsText(rootLevelItem.getTag())) {
-            Family f = getFamily(rootLevelItem.getXref());
-            new FamilyParser(this, rootLevelItem, f).parse();
-        } else if (Tag.TRAILER.equalsText(rootLevelItem.getTag())) {
-            gedcom.setTrailer(new Trailer());
-        } else if (Tag.SOURCE.equalsText(rootLevelItem.getTag())) {
-            Source s = getSource(rootLevelItem.getXref());
-            new SourceParser(this, rootLevelItem, s).parse();
-        } else if (Tag.REPOSITORY.equalsText(rootLevelItem.getTag())) {
-            Repository r = getRepository(rootLevelItem.getXref());
-            new RepositoryParser(this, rootLevelItem, r).parse();
-        } else if (Tag.OBJECT_MULTIMEDIA.equalsText(rootLevelItem.getTag())) {
-            Multimedia multimedia = getMultimedia(rootLevelItem.getXref());
-            new MultimediaParser(this, rootLevelItem, multimedia).parse();
-        } else {
-            unknownTag(rootLevelItem, gedcom);
+        }
+    }
+
+    /**
+     * Get the next line of the file, from the pipeline if loading is pipelined
+     * 
+     * @param gfr
+     *            the file reader
+     * @return the buffer holding the next line of the file, or null if there are no more lines
+     * @throws IOException
+     *             if there is a problem reading the data
+     * @throws GedcomParserException
+     *             if the data cannot be decoded, or the load was cancelled
+     */
+    private LineBuffer nextLine(GedcomFileReader gfr) throws IOException, GedcomParserException {
+        if (linePipeline == null) {
+            return gfr.nextLine(lineBuffer) ? lineBuffer : null;
+        }
+        String line = linePipeline.nextLine();
+        if (line == null) {
+            return null;
+        }
+        lineBuffer.setText(line);
+        return lineBuffer;
+    }
+
+    /**
+     * Note that a root-level record has been defined, for the link phase. If it had already been defined, it is noted for the
+     * {@link ReferenceReport} as a duplicate. A record that has only been referred to so far is just a placeholder, so isn't a
+     * duplicate.
+     * 
+     * @param record
+     *            the record that the root-level record is being loaded into
+     * @param recordTree
+     *            the tree holding the root-level record
+     * @param rootLevelItem
+     *            the node in the tree for the root-level record
+     */
+    private void noteDefinition(ModelElement record, StringTreeArena recordTree, int rootLevelItem) {
+        Set<ModelElement> defined = definedRecords;
+        if (streaming || defined == null) {
+            return;
+        }
+        boolean added;
+        synchronized (defined) {
+            added = defined.add(record);
+        }
+        if (!added) {
+            duplicateXrefs.add(new DuplicateXref(recordTree.getTag(rootLevelItem), recordTree.getXref(rootLevelItem), recordTree
+                    .getLineNum(rootLevelItem)));
         }
     }
 
@@ -608,24 +1331,83 @@ public class GedcomParser extends AbstractParser<Gedcom> {
     }
 
     /**
-     * Parse the {@link StringTreeBuilder}'s string tree in memory, load it into the object model, then discard that string tree
-     * buffer
+     * Parse the {@link StringTreeBuilder}'s string tree in memory and load it into the object model. The tree is reused once the
+     * next record's lines are read.
      * 
      * @throws GedcomParserException
      *             if the string tree contents cannot be parsed, or parsing was cancelled
      */
     private void parseAndLoadPreviousStringTree() throws GedcomParserException {
-        StringTree tree = stringTreeBuilder.getTree();
-        if (tree != null && tree.getLevel() == -1 && tree.getChildren() != null && tree.getChildren().size() == 1) {
+        StringTreeArena recordTree = stringTreeBuilder.getTree();
+        if (recordTree.getChildCount(StringTreeArena.CONTAINER) == 1) {
             // We've still got the prior root node in memory - parse it and add to object model
-            StringTree rootLevelItem = stringTreeBuilder.getTree().getChildren().get(0);
-            if (rootLevelItem.getLevel() != 0) {
-                throw new GedcomParserException("Expected a root level item in the buffer, but found " + rootLevelItem.getLevel()
-                        + " " + rootLevelItem.getTag() + " from line " + lineNum);
+            int rootLevelItem = recordTree.getFirstChild(StringTreeArena.CONTAINER);
+            if (recordTree.getLevel(rootLevelItem) != 0) {
+                throw new GedcomParserException("Expected a root level item in the buffer, but found " + recordTree.getLevel(
+                        rootLevelItem) + " " + recordTree.getTag(rootLevelItem) + " from line " + lineNum);
+            }
+            if (recordLoader == null) {
+                handleRecord(loadRootItem(recordTree, rootLevelItem));
+            } else {
+                recordLoader.loadRootItem(recordTree, rootLevelItem);
             }
-            loadRootItem(rootLevelItem);
-            // And discard it, now that it's loaded
-            stringTreeBuilder = new StringTreeBuilder(this);
+        }
+    }
+
+    /**
+     * Discard the previous record's lines from the {@link StringTreeBuilder}, and add lines to it until the start of the next
+     * root-level record (or the end of the file) is reached
+     * 
+     * @param gfr
+     *            the file reader to get lines from
+     * @return true if any lines were added, or false if there were no more lines
+     * @throws IOException
+     *             if there is a problem reading the data
+     * @throws GedcomParserException
+     *             if the lines cannot be parsed, or parsing was cancelled
+     */
+    private boolean readLinesOfRecord(GedcomFileReader gfr) throws IOException, GedcomParserException {
+        if (pendingLine == null) {
+            return false;
+        }
+        stringTreeBuilder.reset();
+        do {
+            lineNum++;
+            stringTreeBuilder.appendLine(pendingLine);
+            pendingLine = nextLine(gfr);
+            if (cancelled) {
+                throw new ParserCancelledException("File load/parse is cancelled");
+            }
+            if (lineNum % parseNotificationRate == 0) {
+                notifyParseObservers(new ParseProgressEvent(this, gedcom, false, lineNum));
+            }
+            // Stop when we hit the start of the next root node
+        } while (pendingLine != null && pendingLine.firstChar() != '0');
+        return true;
+    }
+
+    /**
+     * Reset counters and stuff before loading a file
+     * 
+     * @throws ParserCancelledException
+     *             if the load has been cancelled
+     */
+    private void resetForLoad() throws ParserCancelledException {
+        gedcom = new Gedcom();
+        lineNum = 0;
+        linePipeline = null;
+        checkpoint = null;
+        duplicateXrefs.clear();
+        definedRecords = null;
+        referenceReport = null;
+        stringCanonicalizer = sharedStringCanonicalizer == null ? new StringCanonicalizer() : sharedStringCanonicalizer;
+        errors.clear();
+        warnings.clear();
+        cancelled = false;
+        streaming = recordHandler != null;
+
+        if (cancelled) {
+            throw new ParserCancelledException("File load/parse cancelled");
         }
     }
 
@@ -0,0 +1,249 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.parser;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.FileInputStream;
+import java.io.IOException;
+
+import org.gedcom4j.exception.GedcomParserException;
+import org.gedcom4j.io.reader.GedcomFileReader;
+import org.gedcom4j.model.ModelElement;
+import org.gedcom4j.model.StringTree;
+
+/**
+ * <p>
+ * Reads the root-level records of a GEDCOM file one at a time, when asked for them, rather than loading the whole file at once.
+ * Only one record is held in memory at a time, so the caller can work through a file of any size at its own pace, stop early, or
+ * read several files side by side (for example, to merge them in xref order).
+ * </p>
+ * <p>
+ * Each record can be read either as a {@link StringTree} of its lines, with {@link #nextStringTree()}, or parsed into the object
+ * model, with {@link #nextRecord()}. Parsed records are not kept in the {@link GedcomParser}'s {@link org.gedcom4j.model.Gedcom},
+ * and references from one record to another are not resolved - see {@link RecordHandler} for details. The header is parsed into
+ * the {@link org.gedcom4j.model.Gedcom} as usual when it is read with {@link #nextRecord()}, which is how the parser knows the
+ * GEDCOM version of the rest of the file.
+ * </p>
+ * <p>
+ * General usage is as follows:
+ * </p>
+ * 
+ * <pre>
+ * try (GedcomRecordReader reader = new GedcomRecordReader("sample/willis.ged")) {
+ *     ModelElement record = reader.nextRecord();
+ *     while (record != null) {
+ *         // Do something with the record
+ *         record = reader.nextRecord();
+ *     }
+ * }
+ * </pre>
+ * <p>
+ * The errors and warnings found while reading are collected by the parser - see {@link #getParser()}, which can also be used to
+ * change the parser's settings (such as {@link GedcomParser#setStrictCustomTags(boolean)}) before any records are read. The
+ * records are read on the calling thread; the parser's settings for worker threads and pipelined loading are not used.
+ * </p>
+ * 
+ * @author frizbog
+ */
+public class GedcomRecordReader implements Closeable {
+
+    /**
+     * The parser that parses the records and collects the errors and warnings
+     */
+    private final GedcomParser parser;
+
+    /**
+     * The stream the file is being read from
+     */
+    private final BufferedInputStream bytes;
+
+    /**
+     * The reader that decodes the lines of the file
+     */
+    private final GedcomFileReader fileReader;
+
+    /**
+     * Has this reader been closed?
+     */
+    private boolean closed;
+
+    /**
+     * Constructor, for reading from a stream with a new {@link GedcomParser}
+     * 
+     * @param bytes
+     *            the stream to read from. Closed when this reader is closed.
+     * @throws IOException
+     *             if there is a problem reading the data
+     * @throws GedcomParserException
+     *             if the file is using an unsupported character encoding
+     */
+    public GedcomRecordReader(BufferedInputStream bytes) throws IOException, GedcomParserException {
+        this(new GedcomParser(), bytes);
+    }
+
+    /**
+     * Constructor, for reading from a stream with an existing {@link GedcomParser}. Anything the parser had already loaded is
+     * cleared.
+     * 
+     * @param parser
+     *            the parser to parse the records with, which also collects the errors and warnings
+     * @param bytes
+     *            the stream to read from. Closed when this reader is closed.
+     * @throws IOException
+     *             if there is a problem reading the data
+     * @throws GedcomParserException
+     *             if the file is using an unsupported character encoding
+     */
+    public GedcomRecordReader(GedcomParser parser, BufferedInputStream bytes) throws IOException, GedcomParserException {
+        this.parser = parser;
+        this.bytes = bytes;
+        try {
+            parser.resetForRecordReader();
+            fileReader = new GedcomFileReader(parser, bytes);
+            parser.startReading(fileReader);
+        } catch (IOException | GedcomParserException e) {
+            bytes.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Constructor, for reading a file with a new {@link GedcomParser}
+     * 
+     * @param filename
+     *            the name of the file to read
+     * @throws IOException
+     *             if the file cannot be read
+     * @throws GedcomParserException
+     *             if the file is using an unsupported character encoding
+     */
+    public GedcomRecordReader(String filename) throws IOException, GedcomParserException {
+        this(new GedcomParser(), openFile(filename));
+    }
+
+    /**
+     * Open a file for reading, for the constructor
+     * 
+     * @param filename
+     *            the name of the file
+     * @return the stream to read the file from
+     * @throws IOException
+     *             if the file cannot be opened
+     */
+    private static BufferedInputStream openFile(String filename) throws IOException {
+        return new BufferedInputStream(new FileInputStream(filename));
+    }
+
+    /**
+     * Stop reading. The next attempt to read a record will throw a {@link org.gedcom4j.exception.ParserCancelledException}. Can be
+     * called from another thread.
+     */
+    public void cancel() {
+        parser.cancel();
+    }
+
+    /**
+     * Close the reader, and the stream it reads from
+     * 
+     * @throws IOException
+     *             if the stream cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        bytes.close();
+    }
+
+    /**
+     * Get the parser, which parses the records and collects the errors and warnings found while reading
+     * 
+     * @return the parser
+     */
+    public GedcomParser getParser() {
+        return parser;
+    }
+
+    /**
+     * Read the next root-level record and parse it into the object model. Root-level tags that do not result in a record (for
+     * example, unrecognized tags when custom tags are being ignored) are skipped.
+     * 
+     * @return the record - a {@link org.gedcom4j.model.Header}, {@link org.gedcom4j.model.Submission},
+     *         {@link org.gedcom4j.model.Submitter}, {@link org.gedcom4j.model.Individual}, {@link org.gedcom4j.model.Family},
+     *         {@link org.gedcom4j.model.Source}, {@link org.gedcom4j.model.NoteRecord}, {@link org.gedcom4j.model.Repository},
+     *         {@link org.gedcom4j.model.Multimedia}, or {@link org.gedcom4j.model.Trailer}, or a
+     *         {@link org.gedcom4j.model.CustomFact} for an unrecognized root-level tag. Null if there are no more records.
+     * @throws IOException
+     *             if there is a problem reading the data, or the reader has been closed
+     * @throws GedcomParserException
+     *             if the record cannot be parsed, or reading has been cancelled
+     */
+    public ModelElement nextRecord() throws IOException, GedcomParserException {
+        StringTreeArena recordTree = readRecord();
+        while (recordTree != null) {
+            ModelElement result = parser.loadRootItem(recordTree, recordTree.getFirstChild(StringTreeArena.CONTAINER));
+            if (result != null) {
+                return result;
+            }
+            recordTree = readRecord();
+        }
+        return null;
+    }
+
+    /**
+     * Read the lines of the next root-level record, without parsing them into the object model
+     * 
+     * @return the lines of the record, or null if there are no more records
+     * @throws IOException
+     *             if there is a problem reading the data, or the reader has been closed
+     * @throws GedcomParserException
+     *             if the lines cannot be parsed, or reading has been cancelled
+     */
+    public StringTree nextStringTree() throws IOException, GedcomParserException {
+        StringTreeArena recordTree = readRecord();
+        if (recordTree == null) {
+            return null;
+        }
+        return recordTree.toStringTree(recordTree.getFirstChild(StringTreeArena.CONTAINER));
+    }
+
+    /**
+     * Read the lines of the next root-level record
+     * 
+     * @return the tree holding the record, or null if there are no more records
+     * @throws IOException
+     *             if there is a problem reading the data, or the reader has been closed
+     * @throws GedcomParserException
+     *             if the lines cannot be parsed, or reading has been cancelled
+     */
+    private StringTreeArena readRecord() throws IOException, GedcomParserException {
+        if (closed) {
+            throw new IOException("Record reader is closed");
+        }
+        return parser.readRecord(fileReader);
+    }
+}
@@ -28,7 +28,6 @@ package org.gedcom4j.parser;
 
 import org.gedcom4j.exception.UnsupportedVersionException;
 import org.gedcom4j.model.GedcomVersion;
-import org.gedcom4j.model.StringTree;
 import org.gedcom4j.model.enumerations.SupportedVersion;
 
 /**
@@ -43,13 +42,15 @@ class GedcomVersionParser extends AbstractParser<GedcomVersion> {
      * 
      * @param gedcomParser
      *            a reference to the root {@link GedcomParser}
-     * @param stringTree
-     *            {@link StringTree} to be parsed
+     * @param tree
+     *            the tree of lines being parsed
+     * @param node
+     *            the node in the tree to be parsed
      * @param loadInto
      *            the object we are loading data into
      */
-    GedcomVersionParser(GedcomParser gedcomParser, StringTree stringTree, GedcomVersion loadInto) {
-        super(gedcomParser, stringTree, loadInto);
+    GedcomVersionParser(GedcomParser gedcomParser, StringTreeArena tree, int node, GedcomVersion loadInto) {
+        super(gedcomParser, tree, node, loadInto);
     }
 
     /**
@@ -57,18 +58,18 @@ class GedcomVersionParser extends AbstractParser<GedcomVersion> {
      */
     @Override
     void parse() {
-        if (stringTree.getChildren() != null) {
-            for (StringTree ch : stringTree.getChildren()) {
-                if (Tag.VERSION.equalsText(ch.getTag())) {
+        if (tree.hasChildren(node)) {
+            for (int ch = tree.getFirstChild(node); ch != StringTreeArena.NONE; ch = tree.getNextSibling(ch)) {
+                if (Tag.VERSION.equalsText(tree.getTag(ch))) {
                     SupportedVersion vn = null;
                     try {
-                        vn = SupportedVersion.forString(ch.getValue());
+                        vn = SupportedVersion.forString(tree.getValue(ch));
                     } catch (UnsupportedVersionException e) {
                         addError(e.getMessage());
                     }
                     loadInto.setVersionNumber(vn);
                     remainingChildrenAreCustomTags(ch, loadInto.getVersionNumber());
-                } else if (Tag.FORM.equalsText(ch.getTag())) {
+                } else if (Tag.FORM.equalsText(tree.getTag(ch))) {
                     loadInto.setGedcomForm(parseStringWithCustomFacts(ch));
                 } else {
                     unknownTag(ch, loadInto);
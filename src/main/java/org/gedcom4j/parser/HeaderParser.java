@@ -30,7 +30,6 @@ import org.gedcom4j.model.CharacterSet;
 import org.gedcom4j.model.GedcomVersion;
 import org.gedcom4j.model.Header;
 import org.gedcom4j.model.SourceSystem;
-import org.gedcom4j.model.StringTree;
 import org.gedcom4j.model.SubmissionReference;
 import org.gedcom4j.model.SubmitterReference;
 
@@ -46,13 +45,15 @@ class HeaderParser extends AbstractParser<Header> {
      * 
      * @param gedcomParser
      *            a reference to the root {@link GedcomParser}
-     * @param stringTree
-     *            {@link StringTree} to be parsed
+     * @param tree
+     *            the tree of lines being parsed
+     * @param node
+     *            the node in the tree to be parsed
      * @param loadInto
      *            the object we are loading data into
      */
-    HeaderParser(GedcomParser gedcomParser, StringTree stringTree, Header loadInto) {
-        super(gedcomParser, stringTree, loadInto);
+    HeaderParser(GedcomParser gedcomParser, StringTreeArena tree, int node, Header loadInto) {
+        super(gedcomParser, tree, node, loadInto);
     }
 
     /**
@@ -60,75 +61,89 @@ class HeaderParser extends AbstractParser<Header> {
      */
     @Override
     void parse() {
-        if (stringTree.getChildren() != null) {
-            for (StringTree ch : stringTree.getChildren()) {
-                if (Tag.SOURCE.equalsText(ch.getTag())) {
-                    SourceSystem sourceSystem = new SourceSystem();
-                    loadInto.setSourceSystem(sourceSystem);
-                    new SourceSystemParser(gedcomParser, ch, sourceSystem).parse();
-                } else if (Tag.DESTINATION.equalsText(ch.getTag())) {
-                    loadInto.setDestinationSystem(parseStringWithCustomFacts(ch));
-                    // remainingChildrenAreCustomTags(ch, loadInto.getDestinationSystem());
-                } else if (Tag.DATE.equalsText(ch.getTag())) {
-                    loadInto.setDate(parseStringWithCustomFacts(ch));
-                    // one optional time subitem is the only possibility here
-                    if (ch.getChildren() != null) {
-                        for (StringTree gch : ch.getChildren()) {
-                            if ("TIME".equals(gch.getTag())) {
-                                loadInto.setTime(parseStringWithCustomFacts(gch));
-                            } else {
-                                unknownTag(gch, loadInto.getDate());
+        if (tree.hasChildren(node)) {
+            for (int ch = tree.getFirstChild(node); ch != StringTreeArena.NONE; ch = tree.getNextSibling(ch)) {
+                switch (tree.getKnownTag(ch)) {
+                    case SOURCE:
+                        SourceSystem sourceSystem = new SourceSystem();
+                        loadInto.setSourceSystem(sourceSystem);
+                        new SourceSystemParser(gedcomParser, tree, ch, sourceSystem).parse();
+                        break;
+                    case DESTINATION:
+                        loadInto.setDestinationSystem(parseStringWithCustomFacts(ch));
+                        // remainingChildrenAreCustomTags(ch, loadInto.getDestinationSystem());
+                        break;
+                    case DATE:
+                        loadInto.setDate(parseStringWithCustomFacts(ch));
+                        // one optional time subitem is the only possibility here
+                        if (tree.hasChildren(ch)) {
+                            for (int gch = tree.getFirstChild(ch); gch != StringTreeArena.NONE; gch = tree.getNextSibling(gch)) {
+                                if ("TIME".equals(tree.getTag(gch))) {
+                                    loadInto.setTime(parseStringWithCustomFacts(gch));
+                                } else {
+                                    unknownTag(gch, loadInto.getDate());
+                                }
                             }
                         }
-                    }
-                } else if (Tag.CHARACTER_SET.equalsText(ch.getTag())) {
-                    loadInto.setCharacterSet(new CharacterSet());
-                    loadInto.getCharacterSet().setCharacterSetName(parseStringWithCustomFacts(ch));
-                    // one optional version subitem is the only standard possibility here, but there can be custom tags
-                    if (ch.getChildren() != null && !ch.getChildren().isEmpty()) {
-                        for (StringTree gch : ch.getChildren()) {
-                            if ("VERS".equals(gch.getTag())) {
-                                loadInto.getCharacterSet().setVersionNum(parseStringWithCustomFacts(gch));
-                            } else {
-                                unknownTag(gch, loadInto.getCharacterSet());
+                        break;
+                    case CHARACTER_SET:
+                        loadInto.setCharacterSet(new CharacterSet());
+                        loadInto.getCharacterSet().setCharacterSetName(parseStringWithCustomFacts(ch));
+                        // one optional version subitem is the only standard possibility here, but there can be custom tags
+                        if (tree.hasChildren(ch)) {
+                            for (int gch = tree.getFirstChild(ch); gch != StringTreeArena.NONE; gch = tree.getNextSibling(gch)) {
+                                if ("VERS".equals(tree.getTag(gch))) {
+                                    loadInto.getCharacterSet().setVersionNum(parseStringWithCustomFacts(gch));
+                                } else {
+                                    unknownTag(gch, loadInto.getCharacterSet());
+                                }
                             }
                         }
-                    }
-
-                } else if (Tag.SUBMITTER.equalsText(ch.getTag())) {
-                    loadInto.setSubmitterReference(new SubmitterReference(getSubmitter(ch.getValue())));
-                    remainingChildrenAreCustomTags(ch, loadInto.getSubmitterReference());
-                } else if (Tag.FILE.equalsText(ch.getTag())) {
-                    loadInto.setFileName(parseStringWithCustomFacts(ch));
-                } else if (Tag.GEDCOM_VERSION.equalsText(ch.getTag())) {
-                    GedcomVersion gedcomVersion = new GedcomVersion();
-                    loadInto.setGedcomVersion(gedcomVersion);
-                    new GedcomVersionParser(gedcomParser, ch, gedcomVersion).parse();
-                } else if (Tag.COPYRIGHT.equalsText(ch.getTag())) {
-                    loadMultiLinesOfText(ch, loadInto.getCopyrightData(true), loadInto);
-                    if (g55() && loadInto.getCopyrightData().size() > 1) {
-                        gedcomParser.getWarnings().add(
-                                "GEDCOM version is 5.5, but multiple lines of copyright data were specified, which is only allowed in GEDCOM 5.5.1. "
-                                        + "  Data loaded but cannot be re-written unless GEDCOM version changes.");
-                    }
-                } else if (Tag.SUBMISSION.equalsText(ch.getTag())) {
-                    if (loadInto.getSubmissionReference() == null) {
-                        /*
-                         * There can only be one SUBMISSION record per GEDCOM, and it's found at the root level, but the HEAD
-                         * structure has a cross-reference to that root-level structure, so we're setting it here (if it hasn't
-                         * already been loaded, which it probably isn't yet)
-                         */
-                        loadInto.setSubmissionReference(new SubmissionReference(gedcomParser.getGedcom().getSubmission()));
-                        remainingChildrenAreCustomTags(ch, loadInto.getSubmissionReference());
-                    }
-                } else if (Tag.LANGUAGE.equalsText(ch.getTag())) {
-                    loadInto.setLanguage(parseStringWithCustomFacts(ch));
-                } else if (Tag.PLACE.equalsText(ch.getTag())) {
-                    loadInto.setPlaceHierarchy(parseStringWithCustomFacts(ch.getChildren().get(0)));
-                } else if (Tag.NOTE.equalsText(ch.getTag())) {
-                    new NoteStructureListParser(gedcomParser, ch, loadInto.getNoteStructures(true)).parse();
-                } else {
-                    unknownTag(ch, loadInto);
+                        break;
+                    case SUBMITTER:
+                        loadInto.setSubmitterReference(new SubmitterReference(getSubmitter(tree.getValue(ch))));
+                        remainingChildrenAreCustomTags(ch, loadInto.getSubmitterReference());
+                        break;
+                    case FILE:
+                        loadInto.setFileName(parseStringWithCustomFacts(ch));
+                        break;
+                    case GEDCOM_VERSION:
+                        GedcomVersion gedcomVersion = new GedcomVersion();
+                        loadInto.setGedcomVersion(gedcomVersion);
+                        new GedcomVersionParser(gedcomParser, tree, ch, gedcomVersion).parse();
+                        break;
+                    case COPYRIGHT:
+                        loadMultiLinesOfText(ch, loadInto.getCopyrightData(true), loadInto);
+                        if (g55() && loadInto.getCopyrightData().size() > 1) {
+                            gedcomParser.getWarnings().add(
+                                    "GEDCOM version is 5.5, but multiple lines of copyright data were specified, "
+                                            + "which is only allowed in GEDCOM 5.5.1. "
+                                            + "  Data loaded but cannot be re-written unless GEDCOM version changes.");
+                        }
+                        break;
+                    case SUBMISSION:
+                        if (loadInto.getSubmissionReference() == null) {
+                            /*
+                             * There can only be one SUBMISSION record per GEDCOM, and it's found at the root level, but the HEAD
+                             * structure has a cross-reference to that root-level structure, so we're setting it here (if it hasn't
+                             * already been loaded, which it probably isn't yet)
+                             */
+                            loadInto.setSubmissionReference(new SubmissionReference(gedcomParser.getGedcom().getSubmission()));
+                            remainingChildrenAreCustomTags(ch, loadInto.getSubmissionReference());
+                        }
+                        break;
+                    case LANGUAGE:
+                        loadInto.setLanguage(parseStringWithCustomFacts(ch));
+                        break;
+                    case PLACE:
+                        loadInto.setPlaceHierarchy(parseStringWithCustomFacts(tree.getFirstChild(ch)));
+                        break;
+                    case NOTE:
+                        new NoteStructureListParser(gedcomParser, tree, ch, loadInto.getNoteStructures(true)).parse();
+                        break;
+                    default:
+                        unknownTag(ch, loadInto);
+                        break;
                 }
             }
         }
@@ -27,7 +27,6 @@
 package org.gedcom4j.parser;
 
 import org.gedcom4j.model.HeaderSourceData;
-import org.gedcom4j.model.StringTree;
 
 /**
  * parser for {@link HeaderSourceData} objects
@@ -42,13 +41,15 @@ class HeaderSourceDataParser extends AbstractParser<HeaderSourceData> {
      * 
      * @param gedcomParser
      *            a reference to the root {@link GedcomParser}
-     * @param stringTree
-     *            {@link StringTree} to be parsed
+     * @param tree
+     *            the tree of lines being parsed
+     * @param node
+     *            the node in the tree to be parsed
      * @param loadInto
      *            the object we are loading data into
      */
-    HeaderSourceDataParser(GedcomParser gedcomParser, StringTree stringTree, HeaderSourceData loadInto) {
-        super(gedcomParser, stringTree, loadInto);
+    HeaderSourceDataParser(GedcomParser gedcomParser, StringTreeArena tree, int node, HeaderSourceData loadInto) {
+        super(gedcomParser, tree, node, loadInto);
     }
 
     /**
@@ -56,12 +57,12 @@ class HeaderSourceDataParser extends AbstractParser<HeaderSourceData> {
      */
     @Override
     void parse() {
-        loadInto.setName(stringTree.getValue());
-        if (stringTree.getChildren() != null) {
-            for (StringTree ch : stringTree.getChildren()) {
-                if (Tag.DATE.equalsText(ch.getTag())) {
+        loadInto.setName(tree.getValue(node));
+        if (tree.hasChildren(node)) {
+            for (int ch = tree.getFirstChild(node); ch != StringTreeArena.NONE; ch = tree.getNextSibling(ch)) {
+                if (Tag.DATE.equalsText(tree.getTag(ch))) {
                     loadInto.setPublishDate(parseStringWithCustomFacts(ch));
-                } else if (Tag.COPYRIGHT.equalsText(ch.getTag())) {
+                } else if (Tag.COPYRIGHT.equalsText(tree.getTag(ch))) {
                     loadInto.setCopyright(parseStringWithCustomFacts(ch));
                 } else {
                     unknownTag(ch, loadInto);
@@ -26,9 +26,7 @@
  */
 package org.gedcom4j.parser;
 
-import java.util.Calendar;
 import java.util.Date;
-import java.util.TimeZone;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -36,11 +34,60 @@ import java.util.concurrent.TimeUnit;
  * A class for converting Hebrew dates into Gregorian dates. No ability is provided for the reverse. All dates processed as if
  * before sunset.
  * </p>
+ * <p>
+ * Working out when a Hebrew year starts takes a fair bit of molad arithmetic, so the first day of every year from 1 to
+ * {@link #LAST_TABULATED_YEAR} (which covers all the four-digit years GEDCOM allows) is worked out once, when the class is loaded,
+ * and kept in a table as an epoch day. The length of a year is then just the difference between the starts of it and the next
+ * year, and the day each month starts within a year only depends on what kind of year it is, so that's in a table too. Converting a
+ * date is then a few lookups and additions.
+ * </p>
  * 
  * @author frizbog
  */
 class HebrewCalendarParser {
 
+    /**
+     * The last year in the table of the first days of years
+     */
+    static final int LAST_TABULATED_YEAR = 9999;
+
+    /**
+     * The epoch day of 1 Jan 1900, which the molad arithmetic counts days from
+     */
+    private static final int EPOCH_DAY_1900 = -25567;
+
+    /**
+     * The epoch day of 14 Sep 1752, when England and its colonies adopted the Gregorian calendar. The first days of years before
+     * then are moved back 10 days.
+     */
+    private static final int EPOCH_DAY_GREGORIAN_REFORMATION = -79366;
+
+    /**
+     * The epoch days of the first day of each year, indexed by year, up to and including the year after
+     * {@link #LAST_TABULATED_YEAR}. Entry zero is unused.
+     */
+    private static final int[] FIRST_DAYS_OF_YEARS = new int[LAST_TABULATED_YEAR + 2];
+
+    /**
+     * The number of days from the start of the year to the start of each month (Tishrei first, one past the end of Elul last), for
+     * each kind of year - see {@link #getKindOfYear(int, int)}
+     */
+    private static final int[][] MONTH_OFFSETS = new int[6][HebrewMonth.values().length + 1];
+
+    static {
+        for (int y = 1; y < FIRST_DAYS_OF_YEARS.length; y++) {
+            FIRST_DAYS_OF_YEARS[y] = computeFirstDayOfHebrewYear(y);
+        }
+        int[] lengthsOfYears = { 353, 354, 355, 383, 384, 385 };
+        for (int kind = 0; kind < MONTH_OFFSETS.length; kind++) {
+            int lengthOfYear = lengthsOfYears[kind];
+            for (HebrewMonth m : HebrewMonth.values()) {
+                MONTH_OFFSETS[kind][m.ordinal() + 1] = MONTH_OFFSETS[kind][m.ordinal()] + getMonthLength(m, kind >= 3,
+                        lengthOfYear);
+            }
+        }
+    }
+
     /**
      * This function converts a Hebrew date into the Gregorian date
      * 
@@ -53,20 +100,25 @@ class HebrewCalendarParser {
      * @return the date in Gregorian form
      */
     Date convertHebrewDateToGregorian(int hebrewYear, String hebrewMonthAbbrev, int dayOfMonth) {
-
         HebrewMonth hebrewMonth = HebrewMonth.getFromAbbreviation(hebrewMonthAbbrev);
-        int hebrewMonthNum = hebrewMonth.ordinal() + 1; // one-based
-
-        Calendar c = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
-        c.setTime(getFirstDayOfHebrewYear(hebrewYear));
+        return new Date(TimeUnit.DAYS.toMillis(getEpochDay(hebrewYear, hebrewMonth, dayOfMonth)));
+    }
 
-        // Now count up days within the year
-        for (int m = 1; m <= hebrewMonthNum - 1; m++) {
-            int monthLength = getMonthLength(hebrewYear, HebrewMonth.getFrom1BasedNumber(m));
-            c.add(Calendar.DAY_OF_YEAR, +monthLength);
-        }
-        c.add(Calendar.DAY_OF_YEAR, dayOfMonth - 1);
-        return c.getTime();
+    /**
+     * Convert a Hebrew date into the number of days since 1 Jan 1970 (Gregorian)
+     * 
+     * @param hebrewYear
+     *            the hebrew year
+     * @param hebrewMonth
+     *            the hebrew month
+     * @param dayOfMonth
+     *            the day within the month. Days past the end of the month run on into the following months.
+     * @return the epoch day
+     */
+    long getEpochDay(int hebrewYear, HebrewMonth hebrewMonth, int dayOfMonth) {
+        int firstDay = getFirstDayOfHebrewYear(hebrewYear);
+        int kind = getKindOfYear(hebrewYear, getFirstDayOfHebrewYear(hebrewYear + 1) - firstDay);
+        return (long) firstDay + MONTH_OFFSETS[kind][hebrewMonth.ordinal()] + dayOfMonth - 1;
     }
 
     /**
@@ -79,42 +131,17 @@ class HebrewCalendarParser {
      * @return the number of days in the month on the specified year
      */
     int getMonthLength(int hebrewYear, HebrewMonth hebrewMonth) {
-
-        int hebrewMonthNum = hebrewMonth.ordinal() + 1;
-        boolean leapYear = isLeapYear(hebrewYear);
-        int lenHebrewYear = getLengthOfYear(hebrewYear);
-        /*
-         * The regular length of a non-leap Hebrew year is 354 days. The regular length of a Hebrew leap year is 384 days.
-         * 
-         * If the year is shorter by one less day, it is called a haser year. Kislev on a haser year has 29 days. If the year is
-         * longer by one day, it is called a shalem year. Cheshvan on a shalem year is 30 days.
-         */
-        boolean haserYear = lenHebrewYear == 353 || lenHebrewYear == 383;
-        boolean shalemYear = lenHebrewYear == 355 || lenHebrewYear == 385;
-        int monthLength = 0;
-        if (hebrewMonthNum == 1 || hebrewMonthNum == 5 || hebrewMonthNum == 8 || hebrewMonthNum == 10 || hebrewMonthNum == 12) {
-            monthLength = 30;
-        } else if (hebrewMonthNum == 4 || hebrewMonthNum == 7 || hebrewMonthNum == 9 || hebrewMonthNum == 11
-                || hebrewMonthNum == 13) {
-            monthLength = 29;
-        } else if (hebrewMonthNum == 6) {
-            monthLength = leapYear ? 30 : 0;
-        } else if (hebrewMonthNum == 2) {
-            monthLength = shalemYear ? 30 : 29;
-        } else if (hebrewMonthNum == 3) {
-            monthLength = haserYear ? 29 : 30;
-        }
-        return monthLength;
+        return getMonthLength(hebrewMonth, isLeapYear(hebrewYear), getLengthOfYear(hebrewYear));
     }
 
     /**
-     * Get the Gregorian Date corresponding to the first day of a given Hebrew year (1 Tishrei)
+     * Work out the first day of a given Hebrew year (1 Tishrei) from the molad
      * 
      * @param hebrewYear
      *            the hebrew year (e.g., 5776)
-     * @return the gregorian date of the first day of the hebrew year supplied
+     * @return the epoch day of the first day of the hebrew year supplied
      */
-    private Date getFirstDayOfHebrewYear(int hebrewYear) {
+    private static int computeFirstDayOfHebrewYear(int hebrewYear) {
         /*
          * Calculate how many days, hours and chalakim (1/1080th of an hour, about 3.333 secs) it has been from the molad (start of
          * new moon) at the beginning of the year.
@@ -162,14 +189,12 @@ class HebrewCalendarParser {
              * This prevents the year from being 356 days. We have to push Rosh Hashanah off two days because if we pushed it off
              * only one day, Rosh Hashanah would comes out on a Wednesday. Check the Hebrew year 5745 for an example.
              */
-            dayOfWeek = 5;
             days += 2;
         } else if (isLeapYear(hebrewYear - 1) && dayOfWeek == 2 && hours * 1080 + chalakim >= 15 * 1080 + 589) {
             /*
              * This prevents the previous year from being 382 days. Check the Hebrew Year 5766 for an example. If Rosh Hashanah was
              * not pushed off a day then 5765 would be 382 days
              */
-            dayOfWeek = 3;
             days += 1;
         } else {
             // see rule 2 above. Check the Hebrew year 5765 for an example
@@ -180,32 +205,52 @@ class HebrewCalendarParser {
             }
             // see rule 1 above. Check the Hebrew year 5765 for an example
             if (dayOfWeek == 1 || dayOfWeek == 4 || dayOfWeek == 6) {
-                dayOfWeek += 1;
-                dayOfWeek = dayOfWeek % 7;
                 days += 1;
             }
         }
 
-        // Adjust by the number of days since creation for 1 Jan 1900 - starting point for making date adjustments since Java dates
-        // are around the epoch
-        days -= 2067025;
-
-        Calendar c = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
-        c.clear();
-        c.set(1900, 0, 1, 0, 0);
-        c.add(Calendar.DATE, days);
-
-        // Sep 14, 1752, when Gregorian was adopted by England and its colonies
-        Calendar gregorianReformation = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
-        gregorianReformation.clear();
-        gregorianReformation.set(1752, Calendar.SEPTEMBER, 14, 0, 0);
+        // Adjust by the number of days since creation for 1 Jan 1900
+        int result = days - 2067025 + EPOCH_DAY_1900;
 
         // Adjust for the Gregorian Reformation if needed
-        if (c.before(gregorianReformation)) {
-            c.add(Calendar.DATE, -10);
+        if (result < EPOCH_DAY_GREGORIAN_REFORMATION) {
+            result -= 10;
         }
+        return result;
+    }
 
-        return c.getTime();
+    /**
+     * Get the first day of a given Hebrew year (1 Tishrei), from the table if it's there
+     * 
+     * @param hebrewYear
+     *            the hebrew year (e.g., 5776)
+     * @return the epoch day of the first day of the hebrew year supplied
+     */
+    private static int getFirstDayOfHebrewYear(int hebrewYear) {
+        if (hebrewYear >= 1 && hebrewYear < FIRST_DAYS_OF_YEARS.length) {
+            return FIRST_DAYS_OF_YEARS[hebrewYear];
+        }
+        return computeFirstDayOfHebrewYear(hebrewYear);
+    }
+
+    /**
+     * Work out which kind of year a year is, for looking up the days each month starts on
+     * 
+     * @param hebrewYear
+     *            the Hebrew year
+     * @param lenHebrewYear
+     *            the number of days in the year
+     * @return 0, 1 or 2 for a haser, regular or shalem non-leap year, or 3, 4 or 5 for a haser, regular or shalem leap year
+     */
+    private static int getKindOfYear(int hebrewYear, int lenHebrewYear) {
+        int kind = isLeapYear(hebrewYear) ? 3 : 0;
+        if (lenHebrewYear == 353 || lenHebrewYear == 383) {
+            return kind;
+        }
+        if (lenHebrewYear == 355 || lenHebrewYear == 385) {
+            return kind + 2;
+        }
+        return kind + 1;
     }
 
     /**
@@ -215,11 +260,46 @@ class HebrewCalendarParser {
      *            the Hebrew year
      * @return the number of days in the year
      */
-    private int getLengthOfYear(int hebrewYear) {
+    private static int getLengthOfYear(int hebrewYear) {
         // subtract the date of this year from the date of next year
-        Date thisNewYear = getFirstDayOfHebrewYear(hebrewYear);
-        Date nextNewYear = getFirstDayOfHebrewYear(hebrewYear + 1);
-        return (int) TimeUnit.DAYS.convert(nextNewYear.getTime() - thisNewYear.getTime(), TimeUnit.MILLISECONDS);
+        return getFirstDayOfHebrewYear(hebrewYear + 1) - getFirstDayOfHebrewYear(hebrewYear);
+    }
+
+    /**
+     * Get the number of days in a month
+     * 
+     * @param hebrewMonth
+     *            the Hebrew month
+     * @param leapYear
+     *            is the month in a leap year?
+     * @param lenHebrewYear
+     *            the number of days in the year the month is in
+     * @return the number of days in the month
+     */
+    private static int getMonthLength(HebrewMonth hebrewMonth, boolean leapYear, int lenHebrewYear) {
+        int hebrewMonthNum = hebrewMonth.ordinal() + 1;
+        /*
+         * The regular length of a non-leap Hebrew year is 354 days. The regular length of a Hebrew leap year is 384 days.
+         * 
+         * If the year is shorter by one less day, it is called a haser year. Kislev on a haser year has 29 days. If the year is
+         * longer by one day, it is called a shalem year. Cheshvan on a shalem year is 30 days.
+         */
+        boolean haserYear = lenHebrewYear == 353 || lenHebrewYear == 383;
+        boolean shalemYear = lenHebrewYear == 355 || lenHebrewYear == 385;
+        int monthLength = 0;
+        if (hebrewMonthNum == 1 || hebrewMonthNum == 5 || hebrewMonthNum == 8 || hebrewMonthNum == 10 || hebrewMonthNum == 12) {
+            monthLength = 30;
+        } else if (hebrewMonthNum == 4 || hebrewMonthNum == 7 || hebrewMonthNum == 9 || hebrewMonthNum == 11
+                || hebrewMonthNum == 13) {
+            monthLength = 29;
+        } else if (hebrewMonthNum == 6) {
+            monthLength = leapYear ? 30 : 0;
+        } else if (hebrewMonthNum == 2) {
+            monthLength = shalemYear ? 30 : 29;
+        } else if (hebrewMonthNum == 3) {
+            monthLength = haserYear ? 29 : 30;
+        }
+        return monthLength;
     }
 
     /**
@@ -229,7 +309,7 @@ class HebrewCalendarParser {
      *            the Hebrew year
      * @return the number of months since the first Molad
      */
-    private int getMonthsSinceFirstMolad(int hebrewYear) {
+    private static int getMonthsSinceFirstMolad(int hebrewYear) {
         // The months of this year haven't happened yet, so go back a year
         int y = hebrewYear - 1;
 
@@ -266,7 +346,7 @@ class HebrewCalendarParser {
      *            the Hebrew year
      * @return true if and only if the hebrew year supplied is a leap year
      */
-    private boolean isLeapYear(int hebrewYear) {
+    private static boolean isLeapYear(int hebrewYear) {
         int yearInCycle = yearInLeapCycle(hebrewYear);
 
         return yearInCycle == 3 || yearInCycle == 6 || yearInCycle == 8 || yearInCycle == 11 || yearInCycle == 14
@@ -281,8 +361,7 @@ class HebrewCalendarParser {
      *            the Hebrew year
      * @return which year within the cycle we're in. The 19th year of the cycle is zero.
      */
-    private int yearInLeapCycle(int hebrewYear) {
+    private static int yearInLeapCycle(int hebrewYear) {
         return hebrewYear % 19;
     }
-
 }
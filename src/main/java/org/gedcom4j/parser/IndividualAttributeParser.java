@@ -34,7 +34,6 @@ import org.gedcom4j.model.IndividualAttribute;
 import org.gedcom4j.model.MultimediaReference;
 import org.gedcom4j.model.NoteStructure;
 import org.gedcom4j.model.Place;
-import org.gedcom4j.model.StringTree;
 import org.gedcom4j.model.StringWithCustomFacts;
 import org.gedcom4j.model.enumerations.IndividualAttributeType;
 
@@ -50,84 +49,103 @@ class IndividualAttributeParser extends AbstractParser<IndividualAttribute> {
      * 
      * @param gedcomParser
      *            a reference to the root {@link GedcomParser}
-     * @param stringTree
-     *            {@link StringTree} to be parsed
+     * @param tree
+     *            the tree of lines being parsed
+     * @param node
+     *            the node in the tree to be parsed
      * @param loadInto
      *            the object we are loading data into
      */
-    IndividualAttributeParser(GedcomParser gedcomParser, StringTree stringTree, IndividualAttribute loadInto) {
-        super(gedcomParser, stringTree, loadInto);
+    IndividualAttributeParser(GedcomParser gedcomParser, StringTreeArena tree, int node, IndividualAttribute loadInto) {
+        super(gedcomParser, tree, node, loadInto);
     }
 
     @Override
     void parse() {
-        loadInto.setType(IndividualAttributeType.getFromTag(stringTree.getTag()));
+        loadInto.setType(IndividualAttributeType.getFromTag(tree.getTag(node)));
         if (IndividualAttributeType.FACT.equals(loadInto.getType()) && g55()) {
-            addWarning("FACT tag specified on a GEDCOM 5.5 file at line " + stringTree.getLineNum()
+            addWarning("FACT tag specified on a GEDCOM 5.5 file at line " + tree.getLineNum(node)
                     + ", but FACT was not added until 5.5.1."
                     + "  Data loaded but cannot be re-written unless GEDCOM version changes.");
         }
-        loadInto.setDescription(new StringWithCustomFacts(stringTree.getValue()));
-        if (stringTree.getChildren() != null) {
-            for (StringTree ch : stringTree.getChildren()) {
-                if (Tag.TYPE.equalsText(ch.getTag())) {
-                    loadInto.setSubType(parseStringWithCustomFacts(ch));
-                } else if (Tag.DATE.equalsText(ch.getTag())) {
-                    loadInto.setDate(parseStringWithCustomFacts(ch));
-                } else if (Tag.PLACE.equalsText(ch.getTag())) {
-                    Place place = new Place();
-                    loadInto.setPlace(place);
-                    new PlaceParser(gedcomParser, ch, place).parse();
-                } else if (Tag.AGE.equalsText(ch.getTag())) {
-                    loadInto.setAge(parseStringWithCustomFacts(ch));
-                } else if (Tag.CAUSE.equalsText(ch.getTag())) {
-                    loadInto.setCause(parseStringWithCustomFacts(ch));
-                } else if (Tag.SOURCE.equalsText(ch.getTag())) {
-                    List<AbstractCitation> citations = loadInto.getCitations(true);
-                    new CitationListParser(gedcomParser, ch, citations).parse();
-                } else if (Tag.AGENCY.equalsText(ch.getTag())) {
-                    loadInto.setRespAgency(parseStringWithCustomFacts(ch));
-                } else if (Tag.PHONE.equalsText(ch.getTag())) {
-                    loadInto.getPhoneNumbers(true).add(parseStringWithCustomFacts(ch));
-                } else if (Tag.WEB_ADDRESS.equalsText(ch.getTag())) {
-                    loadInto.getWwwUrls(true).add(parseStringWithCustomFacts(ch));
-                    if (g55()) {
-                        addWarning("GEDCOM version is 5.5 but WWW URL was specified for " + loadInto.getType()
-                                + " attribute on line " + ch.getLineNum() + ", which is a GEDCOM 5.5.1 feature."
-                                + "  Data loaded but cannot be re-written unless GEDCOM version changes.");
-                    }
-                } else if (Tag.FAX.equalsText(ch.getTag())) {
-                    loadInto.getFaxNumbers(true).add(parseStringWithCustomFacts(ch));
-                    if (g55()) {
-                        addWarning("GEDCOM version is 5.5 but fax was specified for " + loadInto.getType() + " attribute on line "
-                                + ch.getLineNum() + ", which is a GEDCOM 5.5.1 feature."
-                                + "  Data loaded but cannot be re-written unless GEDCOM version changes.");
-                    }
-                } else if (Tag.EMAIL.equalsText(ch.getTag())) {
-                    loadInto.getEmails(true).add(parseStringWithCustomFacts(ch));
-                    if (g55()) {
-                        addWarning("GEDCOM version is 5.5 but email was specified for " + loadInto.getType() + " attribute on line "
-                                + ch.getLineNum() + ", which is a GEDCOM 5.5.1 feature."
-                                + "  Data loaded but cannot be re-written unless GEDCOM version changes.");
-                    }
-                } else if (Tag.ADDRESS.equalsText(ch.getTag())) {
-                    Address address = new Address();
-                    loadInto.setAddress(address);
-                    new AddressParser(gedcomParser, ch, address).parse();
-                } else if (Tag.OBJECT_MULTIMEDIA.equalsText(ch.getTag())) {
-                    List<MultimediaReference> multimedia = loadInto.getMultimedia(true);
-                    new MultimediaLinkParser(gedcomParser, ch, multimedia).parse();
-                } else if (Tag.NOTE.equalsText(ch.getTag())) {
-                    List<NoteStructure> notes = loadInto.getNoteStructures(true);
-                    new NoteStructureListParser(gedcomParser, ch, notes).parse();
-                } else if (Tag.CONCATENATION.equalsText(ch.getTag())) {
-                    if (loadInto.getDescription() == null) {
-                        loadInto.setDescription(parseStringWithCustomFacts(ch));
-                    } else {
-                        loadInto.getDescription().setValue(loadInto.getDescription().getValue() + ch.getValue());
-                    }
-                } else {
-                    unknownTag(ch, loadInto);
+        loadInto.setDescription(new StringWithCustomFacts(tree.getValue(node)));
+        if (tree.hasChildren(node)) {
+            for (int ch = tree.getFirstChild(node); ch != StringTreeArena.NONE; ch = tree.getNextSibling(ch)) {
+                switch (tree.getKnownTag(ch)) {
+                    case TYPE:
+                        loadInto.setSubType(parseStringWithCustomFacts(ch));
+                        break;
+                    case DATE:
+                        loadInto.setDate(parseStringWithCustomFacts(ch));
+                        break;
+                    case PLACE:
+                        Place place = new Place();
+                        loadInto.setPlace(place);
+                        new PlaceParser(gedcomParser, tree, ch, place).parse();
+                        break;
+                    case AGE:
+                        loadInto.setAge(parseStringWithCustomFacts(ch));
+                        break;
+                    case CAUSE:
+                        loadInto.setCause(parseStringWithCustomFacts(ch));
+                        break;
+                    case SOURCE:
+                        List<AbstractCitation> citations = loadInto.getCitations(true);
+                        new CitationListParser(gedcomParser, tree, ch, citations).parse();
+                        break;
+                    case AGENCY:
+                        loadInto.setRespAgency(parseStringWithCustomFacts(ch));
+                        break;
+                    case PHONE:
+                        loadInto.getPhoneNumbers(true).add(parseStringWithCustomFacts(ch));
+                        break;
+                    case WEB_ADDRESS:
+                        loadInto.getWwwUrls(true).add(parseStringWithCustomFacts(ch));
+                        if (g55()) {
+                            addWarning("GEDCOM version is 5.5 but WWW URL was specified for " + loadInto.getType()
+                                    + " attribute on line " + tree.getLineNum(ch) + ", which is a GEDCOM 5.5.1 feature."
+                                    + "  Data loaded but cannot be re-written unless GEDCOM version changes.");
+                        }
+                        break;
+                    case FAX:
+                        loadInto.getFaxNumbers(true).add(parseStringWithCustomFacts(ch));
+                        if (g55()) {
+                            addWarning("GEDCOM version is 5.5 but fax was specified for " + loadInto.getType()
+                                    + " attribute on line " + tree.getLineNum(ch) + ", which is a GEDCOM 5.5.1 feature."
+                                    + "  Data loaded but cannot be re-written unless GEDCOM version changes.");
+                        }
+                        break;
+                    case EMAIL:
+                        loadInto.getEmails(true).add(parseStringWithCustomFacts(ch));
+                        if (g55()) {
+                            addWarning("GEDCOM version is 5.5 but email was specified for " + loadInto.getType()
+                                    + " attribute on line " + tree.getLineNum(ch) + ", which is a GEDCOM 5.5.1 feature."
+                                    + "  Data loaded but cannot be re-written unless GEDCOM version changes.");
+                        }
+                        break;
+                    case ADDRESS:
+                        Address address = new Address();
+                        loadInto.setAddress(address);
+                        new AddressParser(gedcomParser, tree, ch, address).parse();
+                        break;
+                    case OBJECT_MULTIMEDIA:
+                        List<MultimediaReference> multimedia = loadInto.getMultimedia(true);
+                        new MultimediaLinkParser(gedcomParser, tree, ch, multimedia).parse();
+                        break;
+                    case NOTE:
+                        List<NoteStructure> notes = loadInto.getNoteStructures(true);
+                        new NoteStructureListParser(gedcomParser, tree, ch, notes).parse();
+                        break;
+                    case CONCATENATION:
+                        if (loadInto.getDescription() == null) {
+                            loadInto.setDescription(parseStringWithCustomFacts(ch));
+                        } else {
+                            loadInto.getDescription().setValue(loadInto.getDescription().getValue() + tree.getValue(ch));
+                        }
+                        break;
+                    default:
+                        unknownTag(ch, loadInto);
+                        break;
                 }
             }
         }
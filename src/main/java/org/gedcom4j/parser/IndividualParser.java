@@ -42,7 +42,6 @@ import org.gedcom4j.model.LdsIndividualOrdinance;
 import org.gedcom4j.model.MultimediaReference;
 import org.gedcom4j.model.NoteStructure;
 import org.gedcom4j.model.PersonalName;
-import org.gedcom4j.model.StringTree;
 import org.gedcom4j.model.UserReference;
 import org.gedcom4j.model.enumerations.IndividualAttributeType;
 import org.gedcom4j.model.enumerations.IndividualEventType;
@@ -60,113 +59,142 @@ class IndividualParser extends AbstractParser<Individual> {
      * 
      * @param gedcomParser
      *            a reference to the root {@link GedcomParser}
-     * @param stringTree
-     *            {@link StringTree} to be parsed
+     * @param tree
+     *            the tree of lines being parsed
+     * @param node
+     *            the node in the tree to be parsed
      * @param loadInto
      *            the object we are loading data into
      */
-    IndividualParser(GedcomParser gedcomParser, StringTree stringTree, Individual loadInto) {
-        super(gedcomParser, stringTree, loadInto);
+    IndividualParser(GedcomParser gedcomParser, StringTreeArena tree, int node, Individual loadInto) {
+        super(gedcomParser, tree, node, loadInto);
     }
 
     /**
      * {@inheritDoc}
      */
     @Override
-    @SuppressWarnings("PMD.NcssMethodCount")
+    @SuppressWarnings({ "PMD.ExcessiveMethodLength", "PMD.NcssMethodCount" })
     void parse() {
-        if (stringTree.getChildren() != null) {
-            for (StringTree ch : stringTree.getChildren()) {
-                if (Tag.NAME.equalsText(ch.getTag())) {
-                    PersonalName pn = new PersonalName();
-                    loadInto.getNames(true).add(pn);
-                    new PersonalNameParser(gedcomParser, ch, pn).parse();
-                } else if (Tag.SEX.equalsText(ch.getTag())) {
-                    loadInto.setSex(parseStringWithCustomFacts(ch));
-                } else if (Tag.ADDRESS.equalsText(ch.getTag())) {
-                    Address address = new Address();
-                    loadInto.setAddress(address);
-                    new AddressParser(gedcomParser, ch, address).parse();
-                } else if (Tag.PHONE.equalsText(ch.getTag())) {
-                    loadInto.getPhoneNumbers(true).add(parseStringWithCustomFacts(ch));
-                } else if (Tag.WEB_ADDRESS.equalsText(ch.getTag())) {
-                    loadInto.getWwwUrls(true).add(parseStringWithCustomFacts(ch));
-                    if (g55()) {
-                        addWarning("GEDCOM version is 5.5 but WWW URL was specified for individual " + loadInto.getXref()
-                                + " on line " + ch.getLineNum() + ", which is a GEDCOM 5.5.1 feature."
-                                + "  Data loaded but cannot be re-written unless GEDCOM version changes.");
-                    }
-                } else if (Tag.FAX.equalsText(ch.getTag())) {
-                    loadInto.getFaxNumbers(true).add(parseStringWithCustomFacts(ch));
-                    if (g55()) {
-                        addWarning("GEDCOM version is 5.5 but fax was specified for individual " + loadInto.getXref() + "on line "
-                                + ch.getLineNum() + ", which is a GEDCOM 5.5.1 feature."
-                                + "  Data loaded but cannot be re-written unless GEDCOM version changes.");
-                    }
-                } else if (Tag.EMAIL.equalsText(ch.getTag())) {
-                    loadInto.getEmails(true).add(parseStringWithCustomFacts(ch));
-                    if (g55()) {
-                        addWarning("GEDCOM version is 5.5 but email was specified for individual " + loadInto.getXref()
-                                + " on line " + ch.getLineNum() + ", which is a GEDCOM 5.5.1 feature."
-                                + "  Data loaded but cannot be re-written unless GEDCOM version changes.");
-                    }
-                } else if (IndividualEventType.isValidTag(ch.getTag())) {
-                    IndividualEvent event = new IndividualEvent();
-                    loadInto.getEvents(true).add(event);
-                    new IndividualEventParser(gedcomParser, ch, event).parse();
-                } else if (IndividualAttributeType.isValidTag(ch.getTag())) {
-                    IndividualAttribute a = new IndividualAttribute();
-                    loadInto.getAttributes(true).add(a);
-                    new IndividualAttributeParser(gedcomParser, ch, a).parse();
-                } else if (LdsIndividualOrdinanceType.isValidTag(ch.getTag())) {
-                    LdsIndividualOrdinance ord = new LdsIndividualOrdinance();
-                    loadInto.getLdsIndividualOrdinances(true).add(ord);
-                    new LdsIndividualOrdinanceParser(gedcomParser, ch, ord).parse();
-                } else if (Tag.NOTE.equalsText(ch.getTag())) {
-                    List<NoteStructure> notes = loadInto.getNoteStructures(true);
-                    new NoteStructureListParser(gedcomParser, ch, notes).parse();
-                } else if (Tag.CHANGED_DATETIME.equalsText(ch.getTag())) {
-                    ChangeDate changeDate = new ChangeDate();
-                    loadInto.setChangeDate(changeDate);
-                    new ChangeDateParser(gedcomParser, ch, changeDate).parse();
-                } else if (Tag.RECORD_ID_NUMBER.equalsText(ch.getTag())) {
-                    loadInto.setRecIdNumber(parseStringWithCustomFacts(ch));
-                } else if (Tag.REGISTRATION_FILE_NUMBER.equalsText(ch.getTag())) {
-                    loadInto.setPermanentRecFileNumber(parseStringWithCustomFacts(ch));
-                } else if (Tag.OBJECT_MULTIMEDIA.equalsText(ch.getTag())) {
-                    List<MultimediaReference> multimedia = loadInto.getMultimedia(true);
-                    new MultimediaLinkParser(gedcomParser, ch, multimedia).parse();
-                } else if (Tag.RESTRICTION.equalsText(ch.getTag())) {
-                    loadInto.setRestrictionNotice(parseStringWithCustomFacts(ch));
-                } else if (Tag.SOURCE.equalsText(ch.getTag())) {
-                    List<AbstractCitation> citations = loadInto.getCitations(true);
-                    new CitationListParser(gedcomParser, ch, citations).parse();
-                } else if (Tag.ALIAS.equalsText(ch.getTag())) {
-                    loadInto.getAliases(true).add(parseStringWithCustomFacts(ch));
-                } else if (Tag.FAMILY_WHERE_SPOUSE.equalsText(ch.getTag())) {
-                    loadFamilyWhereSpouse(ch, loadInto.getFamiliesWhereSpouse(true));
-                } else if (Tag.FAMILY_WHERE_CHILD.equalsText(ch.getTag())) {
-                    FamilyChild fc = new FamilyChild();
-                    loadInto.getFamiliesWhereChild(true).add(fc);
-                    new FamilyChildParser(gedcomParser, ch, fc).parse();
-                } else if (Tag.ASSOCIATION.equalsText(ch.getTag())) {
-                    Association a = new Association();
-                    loadInto.getAssociations(true).add(a);
-                    new AssociationParser(gedcomParser, ch, a).parse();
-                } else if (Tag.ANCESTOR_INTEREST.equalsText(ch.getTag())) {
-                    loadInto.getAncestorInterest(true).add(getSubmitter(ch.getValue()));
-                } else if (Tag.DESCENDANT_INTEREST.equalsText(ch.getTag())) {
-                    loadInto.getDescendantInterest(true).add(getSubmitter(ch.getValue()));
-                } else if (Tag.ANCESTRAL_FILE_NUMBER.equalsText(ch.getTag())) {
-                    loadInto.setAncestralFileNumber(parseStringWithCustomFacts(ch));
-                } else if (Tag.REFERENCE.equalsText(ch.getTag())) {
-                    UserReference u = new UserReference();
-                    loadInto.getUserReferences(true).add(u);
-                    new UserReferenceParser(gedcomParser, ch, u).parse();
-                } else if (Tag.SUBMITTER.equalsText(ch.getTag())) {
-                    loadInto.getSubmitters(true).add(getSubmitter(ch.getValue()));
-                } else {
-                    unknownTag(ch, loadInto);
+        if (tree.hasChildren(node)) {
+            for (int ch = tree.getFirstChild(node); ch != StringTreeArena.NONE; ch = tree.getNextSibling(ch)) {
+                switch (tree.getKnownTag(ch)) {
+                    case NAME:
+                        PersonalName pn = new PersonalName();
+                        loadInto.getNames(true).add(pn);
+                        new PersonalNameParser(gedcomParser, tree, ch, pn).parse();
+                        break;
+                    case SEX:
+                        loadInto.setSex(parseStringWithCustomFacts(ch));
+                        break;
+                    case ADDRESS:
+                        Address address = new Address();
+                        loadInto.setAddress(address);
+                        new AddressParser(gedcomParser, tree, ch, address).parse();
+                        break;
+                    case PHONE:
+                        loadInto.getPhoneNumbers(true).add(parseStringWithCustomFacts(ch));
+                        break;
+                    case WEB_ADDRESS:
+                        loadInto.getWwwUrls(true).add(parseStringWithCustomFacts(ch));
+                        if (g55()) {
+                            addWarning("GEDCOM version is 5.5 but WWW URL was specified for individual " + loadInto.getXref()
+                                    + " on line " + tree.getLineNum(ch) + ", which is a GEDCOM 5.5.1 feature."
+                                    + "  Data loaded but cannot be re-written unless GEDCOM version changes.");
+                        }
+                        break;
+                    case FAX:
+                        loadInto.getFaxNumbers(true).add(parseStringWithCustomFacts(ch));
+                        if (g55()) {
+                            addWarning("GEDCOM version is 5.5 but fax was specified for individual " + loadInto.getXref()
+                                    + "on line " + tree.getLineNum(ch) + ", which is a GEDCOM 5.5.1 feature."
+                                    + "  Data loaded but cannot be re-written unless GEDCOM version changes.");
+                        }
+                        break;
+                    case EMAIL:
+                        loadInto.getEmails(true).add(parseStringWithCustomFacts(ch));
+                        if (g55()) {
+                            addWarning("GEDCOM version is 5.5 but email was specified for individual " + loadInto.getXref()
+                                    + " on line " + tree.getLineNum(ch) + ", which is a GEDCOM 5.5.1 feature."
+                                    + "  Data loaded but cannot be re-written unless GEDCOM version changes.");
+                        }
+                        break;
+                    case NOTE:
+                        List<NoteStructure> notes = loadInto.getNoteStructures(true);
+                        new NoteStructureListParser(gedcomParser, tree, ch, notes).parse();
+                        break;
+                    case CHANGED_DATETIME:
+                        ChangeDate changeDate = new ChangeDate();
+                        loadInto.setChangeDate(changeDate);
+                        new ChangeDateParser(gedcomParser, tree, ch, changeDate).parse();
+                        break;
+                    case RECORD_ID_NUMBER:
+                        loadInto.setRecIdNumber(parseStringWithCustomFacts(ch));
+                        break;
+                    case REGISTRATION_FILE_NUMBER:
+                        loadInto.setPermanentRecFileNumber(parseStringWithCustomFacts(ch));
+                        break;
+                    case OBJECT_MULTIMEDIA:
+                        List<MultimediaReference> multimedia = loadInto.getMultimedia(true);
+                        new MultimediaLinkParser(gedcomParser, tree, ch, multimedia).parse();
+                        break;
+                    case RESTRICTION:
+                        loadInto.setRestrictionNotice(parseStringWithCustomFacts(ch));
+                        break;
+                    case SOURCE:
+                        List<AbstractCitation> citations = loadInto.getCitations(true);
+                        new CitationListParser(gedcomParser, tree, ch, citations).parse();
+                        break;
+                    case ALIAS:
+                        loadInto.getAliases(true).add(parseStringWithCustomFacts(ch));
+                        break;
+                    case FAMILY_WHERE_SPOUSE:
+                        loadFamilyWhereSpouse(ch, loadInto.getFamiliesWhereSpouse(true));
+                        break;
+                    case FAMILY_WHERE_CHILD:
+                        FamilyChild fc = newFamilyChild();
+                        loadInto.getFamiliesWhereChild(true).add(fc);
+                        new FamilyChildParser(gedcomParser, tree, ch, fc).parse();
+                        break;
+                    case ASSOCIATION:
+                        Association a = new Association();
+                        loadInto.getAssociations(true).add(a);
+                        new AssociationParser(gedcomParser, tree, ch, a).parse();
+                        break;
+                    case ANCESTOR_INTEREST:
+                        loadInto.getAncestorInterest(true).add(getSubmitter(tree.getValue(ch)));
+                        break;
+                    case DESCENDANT_INTEREST:
+                        loadInto.getDescendantInterest(true).add(getSubmitter(tree.getValue(ch)));
+                        break;
+                    case ANCESTRAL_FILE_NUMBER:
+                        loadInto.setAncestralFileNumber(parseStringWithCustomFacts(ch));
+                        break;
+                    case REFERENCE:
+                        UserReference u = new UserReference();
+                        loadInto.getUserReferences(true).add(u);
+                        new UserReferenceParser(gedcomParser, tree, ch, u).parse();
+                        break;
+                    case SUBMITTER:
+                        loadInto.getSubmitters(true).add(getSubmitter(tree.getValue(ch)));
+                        break;
+                    default:
+                        if (IndividualEventType.isValidTag(tree.getTag(ch))) {
+                            IndividualEvent event = new IndividualEvent();
+                            loadInto.getEvents(true).add(event);
+                            new IndividualEventParser(gedcomParser, tree, ch, event).parse();
+                        } else if (IndividualAttributeType.isValidTag(tree.getTag(ch))) {
+                            IndividualAttribute attribute = new IndividualAttribute();
+                            loadInto.getAttributes(true).add(attribute);
+                            new IndividualAttributeParser(gedcomParser, tree, ch, attribute).parse();
+                        } else if (LdsIndividualOrdinanceType.isValidTag(tree.getTag(ch))) {
+                            LdsIndividualOrdinance ord = new LdsIndividualOrdinance();
+                            loadInto.getLdsIndividualOrdinances(true).add(ord);
+                            new LdsIndividualOrdinanceParser(gedcomParser, tree, ch, ord).parse();
+                        } else {
+                            unknownTag(ch, loadInto);
+                        }
+                        break;
                 }
             }
         }
@@ -180,16 +208,16 @@ class IndividualParser extends AbstractParser<Individual> {
      * @param familiesWhereSpouse
      *            the list of families where the individual was a child
      */
-    private void loadFamilyWhereSpouse(StringTree st, List<FamilySpouse> familiesWhereSpouse) {
-        Family f = getFamily(st.getValue());
-        FamilySpouse fs = new FamilySpouse();
+    private void loadFamilyWhereSpouse(int st, List<FamilySpouse> familiesWhereSpouse) {
+        Family f = getFamily(tree.getValue(st));
+        FamilySpouse fs = newFamilySpouse();
         fs.setFamily(f);
         familiesWhereSpouse.add(fs);
-        if (st.getChildren() != null) {
-            for (StringTree ch : st.getChildren()) {
-                if (Tag.NOTE.equalsText(ch.getTag())) {
+        if (tree.hasChildren(st)) {
+            for (int ch = tree.getFirstChild(st); ch != StringTreeArena.NONE; ch = tree.getNextSibling(ch)) {
+                if (tree.getKnownTag(ch) == Tag.NOTE) {
                     List<NoteStructure> notes = fs.getNoteStructures(true);
-                    new NoteStructureListParser(gedcomParser, ch, notes).parse();
+                    new NoteStructureListParser(gedcomParser, tree, ch, notes).parse();
                 } else {
                     unknownTag(ch, fs);
                 }
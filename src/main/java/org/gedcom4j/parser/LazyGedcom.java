@@ -0,0 +1,191 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.parser;
+
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.util.Map;
+
+import org.gedcom4j.model.Family;
+import org.gedcom4j.model.Gedcom;
+import org.gedcom4j.model.Individual;
+import org.gedcom4j.model.Multimedia;
+import org.gedcom4j.model.NoteRecord;
+import org.gedcom4j.model.Repository;
+import org.gedcom4j.model.Source;
+import org.gedcom4j.model.Submitter;
+
+/**
+ * <p>
+ * A {@link Gedcom} loaded by {@link GedcomParser} with lazy loading turned on. The header, submission, trailer and root-level
+ * custom facts are loaded as usual, but the maps of records are read-only {@link LazyRecordMap}s, which only parse each record
+ * from the file when it is first asked for, and keep a limited number of them in a cache (see
+ * {@link GedcomParser#setLazyCacheSize(int)}).
+ * </p>
+ * <p>
+ * The references between families and individuals in the records look the family or individual up in these maps when asked for,
+ * rather than holding on to it. When serialized, a copy of the whole {@link Gedcom} is written, with every record loaded.
+ * </p>
+ * 
+ * @author frizbog
+ */
+final class LazyGedcom extends Gedcom {
+
+    /**
+     * Serial Version UID
+     */
+    private static final long serialVersionUID = -2279153390536011787L;
+
+    /**
+     * The families
+     */
+    private final transient Map<String, Family> families;
+
+    /**
+     * The individuals
+     */
+    private final transient Map<String, Individual> individuals;
+
+    /**
+     * The multimedia
+     */
+    private final transient Map<String, Multimedia> multimedia;
+
+    /**
+     * The notes
+     */
+    private final transient Map<String, NoteRecord> notes;
+
+    /**
+     * The repositories
+     */
+    private final transient Map<String, Repository> repositories;
+
+    /**
+     * The sources
+     */
+    private final transient Map<String, Source> sources;
+
+    /**
+     * The submitters
+     */
+    private final transient Map<String, Submitter> submitters;
+
+    /**
+     * Constructor
+     * 
+     * @param loader
+     *            the loader that parses the records
+     */
+    LazyGedcom(LazyRecordLoader loader) {
+        families = new LazyRecordMap<>(loader, Tag.FAMILY, Family.class);
+        individuals = new LazyRecordMap<>(loader, Tag.INDIVIDUAL, Individual.class);
+        multimedia = new LazyRecordMap<>(loader, Tag.OBJECT_MULTIMEDIA, Multimedia.class);
+        notes = new LazyRecordMap<>(loader, Tag.NOTE, NoteRecord.class);
+        repositories = new LazyRecordMap<>(loader, Tag.REPOSITORY, Repository.class);
+        sources = new LazyRecordMap<>(loader, Tag.SOURCE, Source.class);
+        submitters = new LazyRecordMap<>(loader, Tag.SUBMITTER, Submitter.class);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Map<String, Family> getFamilies() {
+        return families;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Map<String, Individual> getIndividuals() {
+        return individuals;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Map<String, Multimedia> getMultimedia() {
+        return multimedia;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Map<String, NoteRecord> getNotes() {
+        return notes;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Map<String, Repository> getRepositories() {
+        return repositories;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Map<String, Source> getSources() {
+        return sources;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Map<String, Submitter> getSubmitters() {
+        return submitters;
+    }
+
+    /**
+     * Write a copy of the whole {@link Gedcom} in place of this one when serializing, since the lazily loaded records can't be
+     * loaded without the file
+     * 
+     * @return a copy of this {@link Gedcom}, with every record loaded
+     */
+    private Object writeReplace() {
+        return new Gedcom(this);
+    }
+
+    /**
+     * Guard against deserializing one of these directly, since {@link #writeReplace()} means one is never serialized
+     * 
+     * @param in
+     *            the stream being read
+     * @throws InvalidObjectException
+     *             always
+     */
+    private void readObject(ObjectInputStream in) throws InvalidObjectException {
+        throw new InvalidObjectException("A lazily loaded Gedcom is serialized as a plain Gedcom");
+    }
+}
@@ -0,0 +1,377 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.parser;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.gedcom4j.exception.GedcomParserException;
+import org.gedcom4j.exception.ParserCancelledException;
+import org.gedcom4j.io.encoding.Encoding;
+import org.gedcom4j.model.CustomFact;
+import org.gedcom4j.model.ModelElement;
+
+/**
+ * <p>
+ * Loads the records of a lazily loaded file on demand, for a {@link LazyGedcom}. When the file is opened, its bytes are scanned
+ * once for root-level lines, and the offset, length and first line number of each record is noted, along with its xref and type.
+ * The lines within the records are not decoded or parsed. A record is only parsed from its bytes the first time it is asked for,
+ * and then kept in a cache of the most recently used records, so that it doesn't need to be parsed again each time.
+ * </p>
+ * <p>
+ * Records other than families, individuals, multimedia, notes, repositories, sources and submitters - that is, the header, the
+ * submission, the trailer, and any custom root-level records - are parsed as soon as the file is opened, since there is no map of
+ * them to load them from later.
+ * </p>
+ * 
+ * @author frizbog
+ */
+@SuppressWarnings("PMD.GodClass")
+final class LazyRecordLoader {
+
+    /**
+     * The types of records that are loaded lazily
+     */
+    static final Tag[] LAZY_TYPES = { Tag.FAMILY, Tag.INDIVIDUAL, Tag.OBJECT_MULTIMEDIA, Tag.NOTE, Tag.REPOSITORY, Tag.SOURCE,
+            Tag.SUBMITTER };
+
+    /**
+     * A cache of the most recently used records, by record number, which drops the least recently used record once it is full
+     */
+    private static final class RecordCache extends LinkedHashMap<Integer, ModelElement> {
+
+        /**
+         * Serial Version UID
+         */
+        private static final long serialVersionUID = 4424283613718745370L;
+
+        /**
+         * The most records to keep
+         */
+        private final int maxSize;
+
+        /**
+         * Constructor
+         * 
+         * @param maxSize
+         *            the most records to keep
+         */
+        RecordCache(int maxSize) {
+            super(16, 0.75f, true);
+            this.maxSize = maxSize;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, ModelElement> eldest) {
+            return size() > maxSize;
+        }
+    }
+
+    /**
+     * The initial number of records there is room for in the arrays
+     */
+    private static final int INITIAL_CAPACITY = 1024;
+
+    /**
+     * The size of the chunks the data is copied into to be scanned. Even, so that unicode characters are never split between
+     * chunks.
+     */
+    private static final int SCAN_CHUNK_SIZE = 65536;
+
+    /**
+     * How many records to scan between checks for the load being cancelled
+     */
+    private static final int CANCEL_CHECK_RATE = 4096;
+
+    /**
+     * The parser the file is being loaded by, which gets the errors and warnings found when records are parsed
+     */
+    private final GedcomParser rootParser;
+
+    /**
+     * The parser that parses each record on demand
+     */
+    private GedcomParser recordParser;
+
+    /**
+     * The {@link LazyGedcom} being loaded
+     */
+    private LazyGedcom gedcom;
+
+    /**
+     * The bytes of the whole file
+     */
+    private final ByteBuffer data;
+
+    /**
+     * The encoding of the file
+     */
+    private final Encoding encoding;
+
+    /**
+     * The offset in {@link #data} of each record
+     */
+    private int[] offsets = new int[INITIAL_CAPACITY];
+
+    /**
+     * The length in bytes of each record
+     */
+    private int[] lengths = new int[INITIAL_CAPACITY];
+
+    /**
+     * The line number of the first line of each record
+     */
+    private int[] lineNums = new int[INITIAL_CAPACITY];
+
+    /**
+     * The number of records found
+     */
+    private int count;
+
+    /**
+     * The record numbers of the records of each lazily loaded type, by xref
+     */
+    private final Map<Tag, Map<String, Integer>> indexes = new EnumMap<>(Tag.class);
+
+    /**
+     * The record numbers of the records to parse as soon as the file has been scanned
+     */
+    private final List<Integer> parsedAtOnce = new ArrayList<>();
+
+    /**
+     * The most recently used records
+     */
+    private final RecordCache cache;
+
+    /**
+     * Constructor
+     * 
+     * @param rootParser
+     *            the parser the file is being loaded by
+     * @param data
+     *            the bytes of the whole file, from the buffer's position to its limit. The buffer's position and limit are not
+     *            changed.
+     * @param encoding
+     *            the encoding of the file
+     */
+    LazyRecordLoader(GedcomParser rootParser, ByteBuffer data, Encoding encoding) {
+        this.rootParser = rootParser;
+        this.data = data.duplicate();
+        this.encoding = encoding;
+        cache = new RecordCache(rootParser.getLazyCacheSize());
+        for (Tag t : LAZY_TYPES) {
+            indexes.put(t, new HashMap<String, Integer>());
+        }
+    }
+
+    /**
+     * Get the record numbers of the records of a lazily loaded type
+     * 
+     * @param type
+     *            the type of record
+     * @return the record numbers of the records of that type, by xref
+     */
+    Map<String, Integer> getIndex(Tag type) {
+        return indexes.get(type);
+    }
+
+    /**
+     * Get a record, parsing it if it is not in the cache. Any errors and warnings found while parsing it are added to the root
+     * parser's, as long as it has not gone on to load something else.
+     * 
+     * @param recordNum
+     *            the record number
+     * @return the record
+     * @throws IllegalStateException
+     *             if the record cannot be read or parsed
+     */
+    ModelElement getRecord(int recordNum) {
+        synchronized (cache) {
+            ModelElement result = cache.get(recordNum);
+            if (result == null) {
+                try {
+                    result = parse(recordNum);
+                } catch (IOException | GedcomParserException e) {
+                    throw new IllegalStateException("Unable to load the record at line " + lineNums[recordNum], e);
+                } finally {
+                    reportMessages();
+                }
+                if (result != null) {
+                    cache.put(recordNum, result);
+                }
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Scan the file for its records, and parse the ones that aren't loaded lazily
+     * 
+     * @param g
+     *            the {@link LazyGedcom} being loaded, which must be the root parser's {@link GedcomParser#getGedcom()}
+     * @throws IOException
+     *             if a record can't be read
+     * @throws GedcomParserException
+     *             if a record can't be parsed, or the load is cancelled
+     */
+    void load(LazyGedcom g) throws IOException, GedcomParserException {
+        gedcom = g;
+        recordParser = new GedcomParser(rootParser);
+        scan();
+        for (int r : parsedAtOnce) {
+            ModelElement record = parse(r);
+            if (record instanceof CustomFact) {
+                // Root-level custom facts are handed over as for streaming, rather than kept, so keep it
+                gedcom.getCustomFacts(true).add((CustomFact) record);
+            }
+        }
+        parsedAtOnce.clear();
+        reportMessages();
+    }
+
+    /**
+     * Note a record that was found in the scan
+     * 
+     * @param offset
+     *            the offset of the record in {@link #data}
+     * @param length
+     *            the length of the record in bytes
+     * @param lineNum
+     *            the line number of the first line of the record
+     * @param xref
+     *            the xref of the record, or null if it has none
+     * @param tag
+     *            the tag of the record
+     * @throws ParserCancelledException
+     *             if the load is cancelled
+     */
+    private void addRecord(int offset, int length, int lineNum, String xref, String tag) throws ParserCancelledException {
+        if (count % CANCEL_CHECK_RATE == 0 && rootParser.isCancelled()) {
+            throw new ParserCancelledException("File load/parse is cancelled");
+        }
+        ParseProjection projection = rootParser.getProjection();
+        if (projection != null && projection.match(new String[] { tag }, 1, false) == ParseProjection.SKIP) {
+            return;
+        }
+
+        if (count == offsets.length) {
+            offsets = Arrays.copyOf(offsets, count * 2);
+            lengths = Arrays.copyOf(lengths, count * 2);
+            lineNums = Arrays.copyOf(lineNums, count * 2);
+        }
+        offsets[count] = offset;
+        lengths[count] = length;
+        lineNums[count] = lineNum;
+
+        Tag type = null;
+        for (Tag t : LAZY_TYPES) {
+            if (t.tagText.equals(tag)) {
+                type = t;
+                break;
+            }
+        }
+        if (type == null || xref == null) {
+            parsedAtOnce.add(count);
+        } else {
+            indexes.get(type).put(xref, count);
+        }
+        count++;
+    }
+
+    /**
+     * Parse a record
+     * 
+     * @param recordNum
+     *            the record number
+     * @return the record, or null if there was nothing to load from it
+     * @throws IOException
+     *             if the record can't be read
+     * @throws GedcomParserException
+     *             if the record can't be parsed
+     */
+    private ModelElement parse(int recordNum) throws IOException, GedcomParserException {
+        ByteBuffer record = data.duplicate();
+        record.limit(offsets[recordNum] + lengths[recordNum]);
+        record.position(offsets[recordNum]);
+        return recordParser.loadRecord(record, encoding, lineNums[recordNum]);
+    }
+
+    /**
+     * Add the errors and warnings found while parsing records to the root parser's, unless the root parser has gone on to load
+     * something else
+     */
+    private void reportMessages() {
+        if (rootParser.getGedcom() == gedcom) {
+            rootParser.getErrors().addAll(recordParser.getErrors());
+            rootParser.getWarnings().addAll(recordParser.getWarnings());
+        }
+        recordParser.getErrors().clear();
+        recordParser.getWarnings().clear();
+    }
+
+    /**
+     * Scan the data for root-level lines, noting where each record starts and ends
+     * 
+     * @throws IOException
+     *             if a record can't be read
+     * @throws GedcomParserException
+     *             if the load is cancelled
+     */
+    private void scan() throws IOException, GedcomParserException {
+        final int base = data.position();
+        RecordScanner scanner = new RecordScanner(encoding, 0, 0, false, new RecordScanner.Listener() {
+
+            /**
+             * {@inheritDoc}
+             */
+            @Override
+            public void record(long offset, int length, int lineNum, String xref, String tag, byte[] bytes)
+                    throws ParserCancelledException {
+                addRecord(base + (int) offset, length, lineNum, xref, tag);
+            }
+        });
+        // Copying the data into an array a chunk at a time is much faster than getting each byte from the buffer
+        byte[] chunk = new byte[SCAN_CHUNK_SIZE];
+        ByteBuffer view = data.duplicate();
+        while (view.hasRemaining()) {
+            int chunkLen = Math.min(chunk.length, view.remaining());
+            view.get(chunk, 0, chunkLen);
+            scanner.scan(chunk, chunkLen);
+        }
+        scanner.finish();
+    }
+}
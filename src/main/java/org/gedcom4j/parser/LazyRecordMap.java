@@ -0,0 +1,270 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.parser;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+import org.gedcom4j.model.ModelElement;
+
+/**
+ * A read-only map of the records of one type in a {@link LazyGedcom}, by xref. The xrefs are known as soon as the file is opened,
+ * so checking for a key or getting the size doesn't parse anything, but each record is only parsed when its value is first asked
+ * for - by {@link #get(Object)}, or when iterating over the values or entries.
+ * 
+ * @author frizbog
+ * @param <T>
+ *            the type of record
+ */
+final class LazyRecordMap<T extends ModelElement> extends AbstractMap<String, T> {
+
+    /**
+     * An entry in the map, which only parses its record when its value is asked for
+     * 
+     * @param <T>
+     *            the type of record
+     */
+    private static final class LazyEntry<T extends ModelElement> implements Map.Entry<String, T> {
+
+        /**
+         * The xref of the record
+         */
+        private final String xref;
+
+        /**
+         * The record number of the record
+         */
+        private final int recordNum;
+
+        /**
+         * The map the entry is in
+         */
+        private final LazyRecordMap<T> map;
+
+        /**
+         * Constructor
+         * 
+         * @param xref
+         *            the xref of the record
+         * @param recordNum
+         *            the record number of the record
+         * @param map
+         *            the map the entry is in
+         */
+        LazyEntry(String xref, int recordNum, LazyRecordMap<T> map) {
+            this.xref = xref;
+            this.recordNum = recordNum;
+            this.map = map;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Map.Entry)) {
+                return false;
+            }
+            Map.Entry<?, ?> other = (Map.Entry<?, ?>) obj;
+            return xref.equals(other.getKey()) && getValue().equals(other.getValue());
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public String getKey() {
+            return xref;
+        }
+
+        /**
+         * {@inheritDoc}
+         * 
+         * @throws IllegalStateException
+         *             if the record cannot be read or parsed
+         */
+        @Override
+        public T getValue() {
+            return map.type.cast(map.loader.getRecord(recordNum));
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int hashCode() {
+            return xref.hashCode() ^ getValue().hashCode();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public T setValue(T value) {
+            throw new UnsupportedOperationException("Lazily loaded records can't be replaced");
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public String toString() {
+            return xref + "=" + getValue();
+        }
+    }
+
+    /**
+     * The loader that parses the records
+     */
+    private final LazyRecordLoader loader;
+
+    /**
+     * The record numbers of the records in this map, by xref
+     */
+    private final Map<String, Integer> index;
+
+    /**
+     * The type of record
+     */
+    private final Class<T> type;
+
+    /**
+     * The entries in the map
+     */
+    private final Set<Map.Entry<String, T>> entries = new AbstractSet<Map.Entry<String, T>>() {
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Iterator<Map.Entry<String, T>> iterator() {
+            final Iterator<Map.Entry<String, Integer>> it = index.entrySet().iterator();
+            return new Iterator<Map.Entry<String, T>>() {
+
+                /**
+                 * {@inheritDoc}
+                 */
+                @Override
+                public boolean hasNext() {
+                    return it.hasNext();
+                }
+
+                /**
+                 * {@inheritDoc}
+                 */
+                @Override
+                public Map.Entry<String, T> next() {
+                    Map.Entry<String, Integer> e = it.next();
+                    return new LazyEntry<>(e.getKey(), e.getValue(), LazyRecordMap.this);
+                }
+
+                /**
+                 * {@inheritDoc}
+                 */
+                @Override
+                public void remove() {
+                    throw new UnsupportedOperationException("Lazily loaded records can't be removed");
+                }
+            };
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int size() {
+            return index.size();
+        }
+    };
+
+    /**
+     * Constructor
+     * 
+     * @param loader
+     *            the loader that parses the records
+     * @param tag
+     *            the tag of the type of record
+     * @param type
+     *            the type of record
+     */
+    LazyRecordMap(LazyRecordLoader loader, Tag tag, Class<T> type) {
+        this.loader = loader;
+        index = loader.getIndex(tag);
+        this.type = type;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean containsKey(Object key) {
+        return index.containsKey(key);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Set<Map.Entry<String, T>> entrySet() {
+        return entries;
+    }
+
+    /**
+     * {@inheritDoc}
+     * 
+     * @throws IllegalStateException
+     *             if the record cannot be read or parsed
+     */
+    @Override
+    public T get(Object key) {
+        Integer recordNum = index.get(key);
+        if (recordNum == null) {
+            return null;
+        }
+        return type.cast(loader.getRecord(recordNum));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Set<String> keySet() {
+        return Collections.unmodifiableSet(index.keySet());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int size() {
+        return index.size();
+    }
+}
@@ -32,7 +32,6 @@ import org.gedcom4j.model.AbstractCitation;
 import org.gedcom4j.model.FamilyChild;
 import org.gedcom4j.model.LdsIndividualOrdinance;
 import org.gedcom4j.model.NoteStructure;
-import org.gedcom4j.model.StringTree;
 import org.gedcom4j.model.enumerations.LdsIndividualOrdinanceType;
 
 /**
@@ -47,41 +46,52 @@ class LdsIndividualOrdinanceParser extends AbstractParser<LdsIndividualOrdinance
      * 
      * @param gedcomParser
      *            a reference to the root {@link GedcomParser}
-     * @param stringTree
-     *            {@link StringTree} to be parsed
+     * @param tree
+     *            the tree of lines being parsed
+     * @param node
+     *            the node in the tree to be parsed
      * @param loadInto
      *            the object we are loading data into
      */
-    LdsIndividualOrdinanceParser(GedcomParser gedcomParser, StringTree stringTree, LdsIndividualOrdinance loadInto) {
-        super(gedcomParser, stringTree, loadInto);
+    LdsIndividualOrdinanceParser(GedcomParser gedcomParser, StringTreeArena tree, int node, LdsIndividualOrdinance loadInto) {
+        super(gedcomParser, tree, node, loadInto);
     }
 
     @Override
     void parse() {
-        loadInto.setType(LdsIndividualOrdinanceType.getFromTag(stringTree.getTag()));
-        loadInto.setYNull(stringTree.getValue());
-        if (stringTree.getChildren() != null) {
-            for (StringTree ch : stringTree.getChildren()) {
-                if (Tag.DATE.equalsText(ch.getTag())) {
-                    loadInto.setDate(parseStringWithCustomFacts(ch));
-                } else if (Tag.PLACE.equalsText(ch.getTag())) {
-                    loadInto.setPlace(parseStringWithCustomFacts(ch));
-                } else if (Tag.STATUS.equalsText(ch.getTag())) {
-                    loadInto.setStatus(parseStringWithCustomFacts(ch));
-                } else if (Tag.TEMPLE.equalsText(ch.getTag())) {
-                    loadInto.setTemple(parseStringWithCustomFacts(ch));
-                } else if (Tag.SOURCE.equalsText(ch.getTag())) {
-                    List<AbstractCitation> citations = loadInto.getCitations(true);
-                    new CitationListParser(gedcomParser, ch, citations).parse();
-                } else if (Tag.NOTE.equalsText(ch.getTag())) {
-                    List<NoteStructure> notes = loadInto.getNoteStructures(true);
-                    new NoteStructureListParser(gedcomParser, ch, notes).parse();
-                } else if (Tag.FAMILY_WHERE_CHILD.equalsText(ch.getTag())) {
-                    FamilyChild fc = new FamilyChild();
-                    loadInto.setFamilyWhereChild(fc);
-                    new FamilyChildParser(gedcomParser, ch, fc).parse();
-                } else {
-                    unknownTag(ch, loadInto);
+        loadInto.setType(LdsIndividualOrdinanceType.getFromTag(tree.getTag(node)));
+        loadInto.setYNull(tree.getValue(node));
+        if (tree.hasChildren(node)) {
+            for (int ch = tree.getFirstChild(node); ch != StringTreeArena.NONE; ch = tree.getNextSibling(ch)) {
+                switch (tree.getKnownTag(ch)) {
+                    case DATE:
+                        loadInto.setDate(parseStringWithCustomFacts(ch));
+                        break;
+                    case PLACE:
+                        loadInto.setPlace(parseStringWithCustomFacts(ch));
+                        break;
+                    case STATUS:
+                        loadInto.setStatus(parseStringWithCustomFacts(ch));
+                        break;
+                    case TEMPLE:
+                        loadInto.setTemple(parseStringWithCustomFacts(ch));
+                        break;
+                    case SOURCE:
+                        List<AbstractCitation> citations = loadInto.getCitations(true);
+                        new CitationListParser(gedcomParser, tree, ch, citations).parse();
+                        break;
+                    case NOTE:
+                        List<NoteStructure> notes = loadInto.getNoteStructures(true);
+                        new NoteStructureListParser(gedcomParser, tree, ch, notes).parse();
+                        break;
+                    case FAMILY_WHERE_CHILD:
+                        FamilyChild fc = newFamilyChild();
+                        loadInto.setFamilyWhereChild(fc);
+                        new FamilyChildParser(gedcomParser, tree, ch, fc).parse();
+                        break;
+                    default:
+                        unknownTag(ch, loadInto);
+                        break;
                 }
             }
         }
@@ -0,0 +1,348 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.parser;
+
+import java.nio.charset.StandardCharsets;
+
+import org.gedcom4j.exception.GedcomParserException;
+import org.gedcom4j.model.StringTree;
+
+/**
+ * <p>
+ * A class that breaks up a line in a GEDCOM file into its component parts - level, xref id, tag, and remainder - in a single pass
+ * over the characters of the line. One instance is reused for every line a {@link StringTreeBuilder} processes, so the only
+ * objects created per line are the xref and remainder substrings, when present.
+ * </p>
+ * <p>
+ * Lines of UTF-8 data can be tokenized straight from the reader's buffer of bytes, since the spaces and @ signs that separate the
+ * pieces of a line are ASCII, which can never appear inside a multi-byte UTF-8 sequence. Only the xref and the remainder are then
+ * decoded, so the line as a whole is never made into a string.
+ * </p>
+ * <p>
+ * Tags that are in the {@link Tag} enumeration are resolved straight to their {@link Tag} (and its interned text) without creating
+ * a new string, so the {@link StringTree} can be given the {@link Tag} when it is made. Custom and unrecognized tags are
+ * canonicalized through the parser's {@link StringCanonicalizer} rather than {@link String#intern()}, so parsers running
+ * concurrently do not contend on the JVM's global string table.
+ * </p>
+ * 
+ * @author frizbog
+ */
+class LineTokenizer {
+
+    /**
+     * The level of the line
+     */
+    int level;
+
+    /**
+     * The ID number of the item (optional)
+     */
+    String id;
+
+    /**
+     * The tag for the line
+     */
+    String tag;
+
+    /**
+     * The known {@link Tag} for the line, or null if the tag is a custom or unrecognized one
+     */
+    Tag knownTag;
+
+    /**
+     * The remainder of the line after the tag
+     */
+    String remainder;
+
+    /**
+     * The string pool used for tags that are not in the {@link Tag} enumeration
+     */
+    private final StringCanonicalizer canonizer;
+
+    /**
+     * Constructor
+     * 
+     * @param canonizer
+     *            the string pool to use for tags that are not in the {@link Tag} enumeration
+     */
+    LineTokenizer(StringCanonicalizer canonizer) {
+        this.canonizer = canonizer;
+    }
+
+    /**
+     * Break a line of UTF-8 bytes from a GEDCOM file into its pieces, replacing the results of the previous line. The level must be
+     * one or two ASCII digits followed by a space.
+     * 
+     * @param bytes
+     *            the buffer holding the line
+     * @param start
+     *            the index in the buffer where the line starts
+     * @param end
+     *            the index in the buffer just after the end of the line
+     * @param lineNum
+     *            which line in the file this is
+     * @throws GedcomParserException
+     *             if the line cannot be split into pieces
+     */
+    void tokenize(byte[] bytes, int start, int end, int lineNum) throws GedcomParserException {
+        id = null;
+        tag = null;
+        knownTag = null;
+        remainder = null;
+        int idx = processLevel(bytes, start, end, lineNum);
+        idx = processXrefId(bytes, end, lineNum, idx);
+        idx = processTag(bytes, end, lineNum, idx);
+        if (idx < end) {
+            remainder = decode(bytes, idx + 1, end);
+        }
+    }
+
+    /**
+     * Break the supplied line of text from a GEDCOM file into its pieces, replacing the results of the previous line
+     * 
+     * @param line
+     *            a single line of text from the GEDCOM file
+     * @param lineNum
+     *            which line in the file this is
+     * @throws GedcomParserException
+     *             if the line of text cannot be split into pieces
+     */
+    void tokenize(String line, int lineNum) throws GedcomParserException {
+        id = null;
+        tag = null;
+        knownTag = null;
+        remainder = null;
+        int idx = processLevel(line, lineNum);
+        idx = processXrefId(line, lineNum, idx);
+        idx = processTag(line, lineNum, idx);
+        if (idx < line.length()) {
+            remainder = line.substring(idx + 1);
+        }
+    }
+
+    /**
+     * Decode a region of a buffer of UTF-8 bytes
+     * 
+     * @param bytes
+     *            the buffer
+     * @param start
+     *            the index in the buffer where the region starts
+     * @param end
+     *            the index in the buffer just after the end of the region
+     * @return the decoded string
+     */
+    private String decode(byte[] bytes, int start, int end) {
+        return new String(bytes, start, end - start, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Process the level portion of a line of bytes
+     * 
+     * @param bytes
+     *            the buffer holding the line
+     * @param start
+     *            the index in the buffer where the line starts
+     * @param end
+     *            the index in the buffer just after the end of the line
+     * @param lineNum
+     *            which line in the file this is
+     * @return the index of the byte after the space following the level
+     * @throws GedcomParserException
+     *             if the line does not begin with a 1 or 2 digit number for level, followed by a space
+     */
+    private int processLevel(byte[] bytes, int start, int end, int lineNum) throws GedcomParserException {
+        int result = start;
+        level = 0;
+        while (result < end && result - start < 2 && bytes[result] >= '0' && bytes[result] <= '9') {
+            level = level * 10 + bytes[result++] - '0';
+        }
+        if (result == start || result >= end || bytes[result] != ' ') {
+            throw new GedcomParserException("Line " + lineNum
+                    + " does not begin with a 1 or 2 digit number for the level followed by a space: " + decode(bytes, start, end));
+        }
+        return result + 1;
+    }
+
+    /**
+     * Process the level portion of the line
+     * 
+     * @param line
+     *            the line being tokenized
+     * @param lineNum
+     *            which line in the file this is
+     * @return the index of the character after the space following the level
+     * @throws GedcomParserException
+     *             if the line does not begin with a 1 or 2 digit number for level, followed by a space
+     */
+    private int processLevel(String line, int lineNum) throws GedcomParserException {
+        if (line.length() < 2) {
+            throw new GedcomParserException("Line " + lineNum
+                    + " does not begin with a 1 or 2 digit number for the level followed by a space: " + line);
+        }
+        int result;
+        if (' ' == line.charAt(1)) {
+            // Second character in line is a space, so assume a 1-digit level
+            level = Character.getNumericValue(line.charAt(0));
+            result = 2; // Continue parsing at 3rd character in line
+        } else {
+            // Second character in line is not a space, so assume a 2-digit level
+            level = Character.getNumericValue(line.charAt(0)) * 10 + Character.getNumericValue(line.charAt(1));
+            result = 3; // Continue parsing at 4th character in line
+        }
+        if (level < 0 || level > 99) {
+            throw new GedcomParserException("Line " + lineNum
+                    + " does not begin with a 1 or 2 digit number for the level followed by a space: " + line);
+        }
+        return result;
+    }
+
+    /**
+     * Process the tag portion of a line of bytes
+     * 
+     * @param bytes
+     *            the buffer holding the line
+     * @param end
+     *            the index in the buffer just after the end of the line
+     * @param lineNum
+     *            which line in the file this is
+     * @param start
+     *            the index where the tag begins
+     * @return the index of the byte just after the tag
+     * @throws GedcomParserException
+     *             if no tag could be found on the line
+     */
+    private int processTag(byte[] bytes, int end, int lineNum, int start) throws GedcomParserException {
+        int tagEnd = start;
+        int hash = 0;
+        while (tagEnd < end && bytes[tagEnd] != ' ') {
+            hash = 31 * hash + bytes[tagEnd++];
+        }
+        if (tagEnd - start <= 0) {
+            throw new GedcomParserException("All GEDCOM lines are required to have a tag value, but no tag could be found on line "
+                    + lineNum);
+        }
+        knownTag = Tag.forText(bytes, start, tagEnd, hash);
+        if (knownTag == null) {
+            tag = canonizer.getCanonicalVersion(decode(bytes, start, tagEnd));
+        } else {
+            tag = knownTag.tagText;
+        }
+        return tagEnd;
+    }
+
+    /**
+     * Process the tag portion of the line
+     * 
+     * @param line
+     *            the line being tokenized
+     * @param lineNum
+     *            which line in the file this is
+     * @param start
+     *            the index where the tag begins
+     * @return the index of the character just after the tag
+     * @throws GedcomParserException
+     *             if no tag could be found on the line
+     */
+    private int processTag(String line, int lineNum, int start) throws GedcomParserException {
+        int end = start;
+        int hash = 0;
+        while (end < line.length() && line.charAt(end) != ' ') {
+            // Same calculation as String.hashCode(), so we can look up the tag without making a string for it
+            hash = 31 * hash + line.charAt(end++);
+        }
+        int len = end - start;
+        if (len <= 0) {
+            throw new GedcomParserException("All GEDCOM lines are required to have a tag value, but no tag could be found on line "
+                    + lineNum);
+        }
+        knownTag = Tag.forText(line, start, end, hash);
+        if (knownTag == null) {
+            tag = canonizer.getCanonicalVersion(line.substring(start, end));
+        } else {
+            tag = knownTag.tagText;
+        }
+        return end;
+    }
+
+    /**
+     * Process the XREF ID portion of a line of bytes, if there is one
+     * 
+     * @param bytes
+     *            the buffer holding the line
+     * @param end
+     *            the index in the buffer just after the end of the line
+     * @param lineNum
+     *            which line in the file this is
+     * @param start
+     *            the index where the xref id (if any) begins
+     * @return the index where the tag begins
+     * @throws GedcomParserException
+     *             if the XREF is not properly terminated with an @ sign
+     */
+    private int processXrefId(byte[] bytes, int end, int lineNum, int start) throws GedcomParserException {
+        if (start >= end || '@' != bytes[start]) {
+            return start;
+        }
+        int idEnd = start;
+        while (idEnd < end && bytes[idEnd] != ' ') {
+            idEnd++;
+        }
+        if (bytes[idEnd - 1] != '@') {
+            throw new GedcomParserException("XRef ID begins with @ sign but is not terminated with one on line " + lineNum);
+        }
+        id = decode(bytes, start, idEnd);
+        return idEnd + 1;
+    }
+
+    /**
+     * Process the XREF ID portion of the line, if there is one
+     * 
+     * @param line
+     *            the line being tokenized
+     * @param lineNum
+     *            which line in the file this is
+     * @param start
+     *            the index where the xref id (if any) begins
+     * @return the index where the tag begins
+     * @throws GedcomParserException
+     *             if the XREF is not properly terminated with an @ sign
+     */
+    private int processXrefId(String line, int lineNum, int start) throws GedcomParserException {
+        if (start >= line.length() || '@' != line.charAt(start)) {
+            return start;
+        }
+        int end = line.indexOf(' ', start);
+        if (end < 0) {
+            end = line.length();
+        }
+        if (line.charAt(end - 1) != '@') {
+            throw new GedcomParserException("XRef ID begins with @ sign but is not terminated with one on line " + lineNum);
+        }
+        id = line.substring(start, end);
+        return end + 1;
+    }
+}
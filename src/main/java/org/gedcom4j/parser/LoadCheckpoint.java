@@ -0,0 +1,269 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.parser;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.gedcom4j.exception.GedcomParserException;
+import org.gedcom4j.io.encoding.Encoding;
+import org.gedcom4j.parser.ReferenceReport.DanglingXref;
+
+/**
+ * <p>
+ * The point in a GEDCOM file that a later incremental load can pick up from, for files that grow over time by having records
+ * added at the end (before the trailer). See
+ * {@link GedcomParser#loadIncrementally(String, org.gedcom4j.model.Gedcom, LoadCheckpoint)}.
+ * </p>
+ * <p>
+ * A checkpoint is the byte offset where the next load should start reading, the number of the line found there, and the encoding
+ * of the file. If the last record of the file was the trailer, the checkpoint is at the start of the trailer, since that's where
+ * new records get added; otherwise it is at the end of the file. A checkpoint made by a load also knows which xrefs had been
+ * referred to without being defined, so that the next load's {@link ReferenceReport} still lists them unless the added records
+ * define them. Checkpoints are serializable, so they can be kept along with the loaded {@link org.gedcom4j.model.Gedcom} between
+ * runs.
+ * </p>
+ * 
+ * @author frizbog
+ */
+public final class LoadCheckpoint implements Serializable {
+
+    /**
+     * Keeps track of the first and last records found by a {@link RecordScanner}
+     */
+    private static final class RecordTracker implements RecordScanner.Listener {
+
+        /**
+         * The line number of the first record, or zero if no records have been found
+         */
+        private int firstLineNum;
+
+        /**
+         * The offset of the last record
+         */
+        private long lastOffset;
+
+        /**
+         * The line number of the last record
+         */
+        private int lastLineNum;
+
+        /**
+         * Is the last record the trailer?
+         */
+        private boolean lastIsTrailer;
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void record(long offset, int length, int lineNum, String xref, String tag, byte[] bytes) {
+            if (firstLineNum == 0) {
+                firstLineNum = lineNum;
+            }
+            lastOffset = offset;
+            lastLineNum = lineNum;
+            lastIsTrailer = "TRLR".equals(tag);
+        }
+    }
+
+    /**
+     * Serial Version UID
+     */
+    private static final long serialVersionUID = -2706317916463263158L;
+
+    /**
+     * The size of the chunks the data is copied into to be scanned
+     */
+    private static final int SCAN_CHUNK_SIZE = 65536;
+
+    /**
+     * The byte offset to start the next load at
+     */
+    private final long offset;
+
+    /**
+     * The line number of the first line at the offset
+     */
+    private final int lineNum;
+
+    /**
+     * The encoding of the file
+     */
+    private final Encoding encoding;
+
+    /**
+     * The tag and xref (separated by a space) of each record that had been referred to but not defined, or null if not known
+     */
+    private final Set<String> undefined;
+
+    /**
+     * Constructor. The checkpoint doesn't know of any records that were referred to without being defined, so all the records
+     * loaded before it are taken to have been defined.
+     * 
+     * @param offset
+     *            the byte offset to start the next load at, which must be the start of a root-level line or the end of the file
+     * @param lineNum
+     *            the line number of the first line at the offset, counting non-blank lines from 1 at the start of the file
+     * @param encoding
+     *            the encoding of the file
+     */
+    public LoadCheckpoint(long offset, int lineNum, Encoding encoding) {
+        this(offset, lineNum, encoding, null);
+    }
+
+    /**
+     * Constructor
+     * 
+     * @param offset
+     *            the byte offset to start the next load at, which must be the start of a root-level line or the end of the file
+     * @param lineNum
+     *            the line number of the first line at the offset, counting non-blank lines from 1 at the start of the file
+     * @param encoding
+     *            the encoding of the file
+     * @param undefined
+     *            the tag and xref (separated by a space) of each record that had been referred to but not defined, or null if not
+     *            known
+     */
+    private LoadCheckpoint(long offset, int lineNum, Encoding encoding, Set<String> undefined) {
+        if (offset < 0 || lineNum < 1 || encoding == null) {
+            throw new IllegalArgumentException("Invalid checkpoint - offset " + offset + ", line " + lineNum + ", encoding "
+                    + encoding);
+        }
+        this.offset = offset;
+        this.lineNum = lineNum;
+        this.encoding = encoding;
+        this.undefined = undefined;
+    }
+
+    /**
+     * Scan data loaded from a checkpoint, to find the checkpoint after it
+     * 
+     * @param data
+     *            the data from the checkpoint to the end of the file, from its position to its limit. The buffer's position and
+     *            limit are not changed.
+     * @param from
+     *            the checkpoint the data starts at
+     * @return the checkpoint at the end of the data
+     * @throws GedcomParserException
+     *             if the data doesn't start with a root-level line, so the file must have changed other than by being added to
+     */
+    static LoadCheckpoint after(ByteBuffer data, LoadCheckpoint from) throws GedcomParserException {
+        RecordTracker tracker = new RecordTracker();
+        RecordScanner scanner = new RecordScanner(from.encoding, from.offset, from.lineNum - 1, false, tracker);
+        byte[] chunk = new byte[SCAN_CHUNK_SIZE];
+        ByteBuffer view = data.duplicate();
+        try {
+            while (view.hasRemaining()) {
+                int chunkLen = Math.min(chunk.length, view.remaining());
+                view.get(chunk, 0, chunkLen);
+                scanner.scan(chunk, chunkLen);
+            }
+            scanner.finish();
+        } catch (IOException e) {
+            // The tracker doesn't do any I/O
+            throw new IllegalStateException(e);
+        }
+        if (from.offset > 0 && scanner.getLineCount() >= from.lineNum && tracker.firstLineNum != from.lineNum) {
+            throw new GedcomParserException("The file no longer has a root-level record at byte offset " + from.offset
+                    + " (line " + from.lineNum + ") - it has changed other than by having records added at the end");
+        }
+        if (tracker.lastIsTrailer) {
+            return new LoadCheckpoint(tracker.lastOffset, tracker.lastLineNum, from.encoding);
+        }
+        return new LoadCheckpoint(from.offset + data.remaining(), scanner.getLineCount() + 1, from.encoding);
+    }
+
+    /**
+     * Get the encoding of the file
+     * 
+     * @return the encoding of the file
+     */
+    public Encoding getEncoding() {
+        return encoding;
+    }
+
+    /**
+     * Get the line number of the first line at the offset
+     * 
+     * @return the line number of the first line at the offset
+     */
+    public int getLineNum() {
+        return lineNum;
+    }
+
+    /**
+     * Get the byte offset to start the next load at
+     * 
+     * @return the byte offset to start the next load at
+     */
+    public long getOffset() {
+        return offset;
+    }
+
+    /**
+     * Had a record been referred to without being defined when the checkpoint was made?
+     * 
+     * @param tag
+     *            the tag of the record
+     * @param xref
+     *            the xref of the record
+     * @return true if the record had only been referred to, or false if it had been defined or it isn't known
+     */
+    boolean isUndefined(String tag, String xref) {
+        return undefined != null && undefined.contains(tag + " " + xref);
+    }
+
+    /**
+     * Get a copy of this checkpoint that knows which records were referred to without being defined
+     * 
+     * @param report
+     *            the report from the load that the checkpoint was made by, or null if there wasn't one
+     * @return the copy of the checkpoint, or this checkpoint if there is no report
+     */
+    LoadCheckpoint withUndefined(ReferenceReport report) {
+        if (report == null) {
+            return this;
+        }
+        Set<String> xrefs = new HashSet<>();
+        for (DanglingXref d : report.getDangling()) {
+            xrefs.add(d.getTag() + " " + d.getXref());
+        }
+        return new LoadCheckpoint(offset, lineNum, encoding, xrefs);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return "LoadCheckpoint [offset=" + offset + ", lineNum=" + lineNum + ", encoding=" + encoding + "]";
+    }
+}
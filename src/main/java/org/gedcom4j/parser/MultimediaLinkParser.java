@@ -32,7 +32,6 @@ import org.gedcom4j.model.FileReference;
 import org.gedcom4j.model.Multimedia;
 import org.gedcom4j.model.MultimediaReference;
 import org.gedcom4j.model.NoteStructure;
-import org.gedcom4j.model.StringTree;
 
 /**
  * @author frizbog
@@ -45,13 +44,15 @@ class MultimediaLinkParser extends AbstractParser<List<MultimediaReference>> {
      * 
      * @param gedcomParser
      *            a reference to the root {@link GedcomParser}
-     * @param stringTree
-     *            {@link StringTree} to be parsed
+     * @param tree
+     *            the tree of lines being parsed
+     * @param node
+     *            the node in the tree to be parsed
      * @param loadInto
      *            the object we are loading data into
      */
-    MultimediaLinkParser(GedcomParser gedcomParser, StringTree stringTree, List<MultimediaReference> loadInto) {
-        super(gedcomParser, stringTree, loadInto);
+    MultimediaLinkParser(GedcomParser gedcomParser, StringTreeArena tree, int node, List<MultimediaReference> loadInto) {
+        super(gedcomParser, tree, node, loadInto);
     }
 
     /**
@@ -61,13 +62,13 @@ class MultimediaLinkParser extends AbstractParser<List<MultimediaReference>> {
     void parse() {
         Multimedia m;
         MultimediaReference mr;
-        if (referencesAnotherNode(stringTree)) {
-            m = getMultimedia(stringTree.getValue());
+        if (referencesAnotherNode(node)) {
+            m = getMultimedia(tree.getValue(node));
             mr = new MultimediaReference(m);
-            remainingChildrenAreCustomTags(stringTree, mr);
+            remainingChildrenAreCustomTags(node, mr);
         } else {
             m = new Multimedia();
-            loadFileReferences(m, stringTree);
+            loadFileReferences(m, node);
             mr = new MultimediaReference(m);
         }
         loadInto.add(mr);
@@ -81,49 +82,49 @@ class MultimediaLinkParser extends AbstractParser<List<MultimediaReference>> {
      * @param obje
      *            the OBJE node being parsed
      */
-    private void loadFileReferences(Multimedia m, StringTree obje) {
+    private void loadFileReferences(Multimedia m, int obje) {
         int fileTagCount = 0;
         int formTagCount = 0;
 
-        if (obje.getChildren() != null) {
-            for (StringTree ch : obje.getChildren()) {
+        if (tree.hasChildren(obje)) {
+            for (int ch = tree.getFirstChild(obje); ch != StringTreeArena.NONE; ch = tree.getNextSibling(ch)) {
                 /*
                  * Count up the number of files referenced for this object - GEDCOM 5.5.1 allows multiple, 5.5 only allows 1
                  */
-                if (Tag.FILE.equalsText(ch.getTag())) {
+                if (Tag.FILE.equalsText(tree.getTag(ch))) {
                     fileTagCount++;
                 }
                 /*
                  * Count the number of formats referenced per file - GEDCOM 5.5.1 has them as children of FILEs (so should be zero),
                  * 5.5 pairs them with the single FILE tag (so should be one)
                  */
-                if (Tag.FORM.equalsText(ch.getTag())) {
+                if (Tag.FORM.equalsText(tree.getTag(ch))) {
                     formTagCount++;
                 }
             }
         }
         if (g55()) {
             if (fileTagCount > 1) {
-                addWarning("GEDCOM version is 5.5, but multiple files referenced in multimedia reference on line " + obje
-                        .getLineNum() + ", which is only allowed in 5.5.1. "
+                addWarning("GEDCOM version is 5.5, but multiple files referenced in multimedia reference on line " + tree
+                        .getLineNum(obje) + ", which is only allowed in 5.5.1. "
                         + "Data will be loaded, but cannot be written back out unless the GEDCOM version is changed to 5.5.1");
             }
             if (formTagCount == 0) {
-                addWarning("GEDCOM version is 5.5, but there is not a FORM tag in the multimedia link on line " + obje.getLineNum()
-                        + ", a scenario which is only allowed in 5.5.1. "
+                addWarning("GEDCOM version is 5.5, but there is not a FORM tag in the multimedia link on line " + tree
+                        .getLineNum(obje) + ", a scenario which is only allowed in 5.5.1. "
                         + "Data will be loaded, but cannot be written back out unless the GEDCOM version is changed to 5.5.1");
             }
         }
         if (formTagCount > 1) {
-            addError("Multiple FORM tags were found for a multimedia file reference at line " + obje.getLineNum()
+            addError("Multiple FORM tags were found for a multimedia file reference at line " + tree.getLineNum(obje)
                     + " - this is not compliant with any GEDCOM standard - data not loaded");
             return;
         }
 
         if (fileTagCount > 1 || formTagCount < fileTagCount) {
-            loadFileReferences551(m, obje.getChildren());
+            loadFileReferences551(m, obje);
         } else {
-            loadFileReferences55(m, obje.getChildren());
+            loadFileReferences55(m, obje);
         }
     }
 
@@ -132,25 +133,31 @@ class MultimediaLinkParser extends AbstractParser<List<MultimediaReference>> {
      * 
      * @param m
      *            The multimedia object to contain the new file reference
-     * @param objeChildren
-     *            the sub-tags of the OBJE tag
+     * @param obje
+     *            the OBJE node whose sub-tags are to be loaded
      */
-    private void loadFileReferences55(Multimedia m, List<StringTree> objeChildren) {
+    private void loadFileReferences55(Multimedia m, int obje) {
         FileReference currentFileRef = new FileReference();
         m.getFileReferences(true).add(currentFileRef);
-        if (objeChildren != null) {
-            for (StringTree ch : objeChildren) {
-                if (Tag.FORM.equalsText(ch.getTag())) {
-                    currentFileRef.setFormat(parseStringWithCustomFacts(ch));
-                } else if (Tag.TITLE.equalsText(ch.getTag())) {
-                    m.setEmbeddedTitle(parseStringWithCustomFacts(ch));
-                } else if (Tag.FILE.equalsText(ch.getTag())) {
-                    currentFileRef.setReferenceToFile(parseStringWithCustomFacts(ch));
-                } else if (Tag.NOTE.equalsText(ch.getTag())) {
-                    List<NoteStructure> notes = m.getNoteStructures(true);
-                    new NoteStructureListParser(gedcomParser, ch, notes).parse();
-                } else {
-                    unknownTag(ch, m);
+        if (tree.hasChildren(obje)) {
+            for (int ch = tree.getFirstChild(obje); ch != StringTreeArena.NONE; ch = tree.getNextSibling(ch)) {
+                switch (tree.getKnownTag(ch)) {
+                    case FORM:
+                        currentFileRef.setFormat(parseStringWithCustomFacts(ch));
+                        break;
+                    case TITLE:
+                        m.setEmbeddedTitle(parseStringWithCustomFacts(ch));
+                        break;
+                    case FILE:
+                        currentFileRef.setReferenceToFile(parseStringWithCustomFacts(ch));
+                        break;
+                    case NOTE:
+                        List<NoteStructure> notes = m.getNoteStructures(true);
+                        new NoteStructureListParser(gedcomParser, tree, ch, notes).parse();
+                        break;
+                    default:
+                        unknownTag(ch, m);
+                        break;
                 }
             }
         }
@@ -163,32 +170,37 @@ class MultimediaLinkParser extends AbstractParser<List<MultimediaReference>> {
      * @param m
      *            the multimedia object to which we are adding the file references
      * 
-     * @param objeChildren
-     *            the sub-tags of the OBJE tag
+     * @param obje
+     *            the OBJE node whose sub-tags are to be loaded
      */
-    private void loadFileReferences551(Multimedia m, List<StringTree> objeChildren) {
-        if (objeChildren != null) {
-            for (StringTree ch : objeChildren) {
-                if (Tag.FILE.equalsText(ch.getTag())) {
-                    FileReference fr = new FileReference();
-                    m.getFileReferences(true).add(fr);
-                    new FileReference551Parser(gedcomParser, ch, fr).parse();
-                } else if (Tag.TITLE.equalsText(ch.getTag())) {
-                    if (m.getFileReferences() != null) {
-                        for (FileReference fr : m.getFileReferences()) {
-                            fr.setTitle(parseStringWithCustomFacts(ch));
+    private void loadFileReferences551(Multimedia m, int obje) {
+        if (tree.hasChildren(obje)) {
+            for (int ch = tree.getFirstChild(obje); ch != StringTreeArena.NONE; ch = tree.getNextSibling(ch)) {
+                switch (tree.getKnownTag(ch)) {
+                    case FILE:
+                        FileReference fr = new FileReference();
+                        m.getFileReferences(true).add(fr);
+                        new FileReference551Parser(gedcomParser, tree, ch, fr).parse();
+                        break;
+                    case TITLE:
+                        if (m.getFileReferences() != null) {
+                            for (FileReference fileReference : m.getFileReferences()) {
+                                fileReference.setTitle(parseStringWithCustomFacts(ch));
+                            }
+                        }
+                        break;
+                    case NOTE:
+                        List<NoteStructure> notes = m.getNoteStructures(true);
+                        new NoteStructureListParser(gedcomParser, tree, ch, notes).parse();
+                        if (!g55()) {
+                            addWarning("Gedcom version was 5.5.1, but a NOTE was found on a multimedia link on line "
+                                    + tree.getLineNum(ch) + ", which is no longer supported. "
+                                    + "Data will be loaded, but cannot be written back out unless the GEDCOM version is changed to 5.5");
                         }
-                    }
-                } else if (Tag.NOTE.equalsText(ch.getTag())) {
-                    List<NoteStructure> notes = m.getNoteStructures(true);
-                    new NoteStructureListParser(gedcomParser, ch, notes).parse();
-                    if (!g55()) {
-                        addWarning("Gedcom version was 5.5.1, but a NOTE was found on a multimedia link on line " + ch.getLineNum()
-                                + ", which is no longer supported. "
-                                + "Data will be loaded, but cannot be written back out unless the GEDCOM version is changed to 5.5");
-                    }
-                } else {
-                    unknownTag(ch, m);
+                        break;
+                    default:
+                        unknownTag(ch, m);
+                        break;
                 }
             }
         }
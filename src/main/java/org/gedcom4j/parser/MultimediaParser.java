@@ -35,7 +35,6 @@ import org.gedcom4j.model.FileReference;
 import org.gedcom4j.model.Multimedia;
 import org.gedcom4j.model.MultimediaReference;
 import org.gedcom4j.model.NoteStructure;
-import org.gedcom4j.model.StringTree;
 import org.gedcom4j.model.UserReference;
 
 /**
@@ -50,13 +49,15 @@ class MultimediaParser extends AbstractParser<Multimedia> {
      * 
      * @param gedcomParser
      *            a reference to the root {@link GedcomParser}
-     * @param stringTree
-     *            {@link StringTree} to be parsed
+     * @param tree
+     *            the tree of lines being parsed
+     * @param node
+     *            the node in the tree to be parsed
      * @param loadInto
      *            the object we are loading data into
      */
-    MultimediaParser(GedcomParser gedcomParser, StringTree stringTree, Multimedia loadInto) {
-        super(gedcomParser, stringTree, loadInto);
+    MultimediaParser(GedcomParser gedcomParser, StringTreeArena tree, int node, Multimedia loadInto) {
+        super(gedcomParser, tree, node, loadInto);
     }
 
     /**
@@ -65,9 +66,9 @@ class MultimediaParser extends AbstractParser<Multimedia> {
     @Override
     void parse() {
         int fileTagCount = 0;
-        if (stringTree.getChildren() != null) {
-            for (StringTree ch : stringTree.getChildren()) {
-                if (Tag.FILE.equalsText(ch.getTag())) {
+        if (tree.hasChildren(node)) {
+            for (int ch = tree.getFirstChild(node); ch != StringTreeArena.NONE; ch = tree.getNextSibling(ch)) {
+                if (Tag.FILE.equalsText(tree.getTag(ch))) {
                     fileTagCount++;
                     break;
                 }
@@ -75,18 +76,18 @@ class MultimediaParser extends AbstractParser<Multimedia> {
         }
         if (fileTagCount > 0) {
             if (g55()) {
-                addWarning("GEDCOM version was 5.5, but a 5.5.1-style multimedia record was found at line " + stringTree
-                        .getLineNum() + ". "
+                addWarning("GEDCOM version was 5.5, but a 5.5.1-style multimedia record was found at line "
+                        + tree.getLineNum(node) + ". "
                         + "Data will be loaded, but might have problems being written until the version is for the data is changed to 5.5.1");
             }
-            loadMultimediaRecord551(stringTree);
+            loadMultimediaRecord551(node);
         } else {
             if (!g55()) {
-                addWarning("GEDCOM version is 5.5.1, but a 5.5-style multimedia record was found at line " + stringTree.getLineNum()
+                addWarning("GEDCOM version is 5.5.1, but a 5.5-style multimedia record was found at line " + tree.getLineNum(node)
                         + ". "
                         + "Data will be loaded, but might have problems being written until the version is for the data is changed to 5.5.1");
             }
-            loadMultimediaRecord55(stringTree);
+            loadMultimediaRecord55(node);
         }
 
     }
@@ -98,47 +99,60 @@ class MultimediaParser extends AbstractParser<Multimedia> {
      * @param obje
      *            the OBJE node being loaded
      */
-    private void loadMultimediaRecord55(StringTree obje) {
-        if (obje.getChildren() == null) {
-            addError("Root level multimedia record at line " + obje.getLineNum() + " had no child records");
+    private void loadMultimediaRecord55(int obje) {
+        if (!tree.hasChildren(obje)) {
+            addError("Root level multimedia record at line " + tree.getLineNum(obje) + " had no child records");
         } else {
-            for (StringTree ch : obje.getChildren()) {
-                if (Tag.FORM.equalsText(ch.getTag())) {
-                    loadInto.setEmbeddedMediaFormat(parseStringWithCustomFacts(ch));
-                } else if (Tag.TITLE.equalsText(ch.getTag())) {
-                    loadInto.setEmbeddedTitle(parseStringWithCustomFacts(ch));
-                } else if (Tag.NOTE.equalsText(ch.getTag())) {
-                    List<NoteStructure> notes = loadInto.getNoteStructures(true);
-                    new NoteStructureListParser(gedcomParser, ch, notes).parse();
-                } else if (Tag.SOURCE.equalsText(ch.getTag())) {
-                    List<AbstractCitation> citations = loadInto.getCitations(true);
-                    new CitationListParser(gedcomParser, ch, citations).parse();
-                } else if (Tag.BLOB.equalsText(ch.getTag())) {
-                    loadMultiLinesOfText(ch, loadInto.getBlob(true), loadInto);
-                    if (!g55()) {
-                        addWarning("GEDCOM version is 5.5.1, but a BLOB tag was found at line " + ch.getLineNum() + ". "
-                                + "Data will be loaded but will not be writeable unless GEDCOM version is changed to 5.5.1");
-                    }
-                } else if (Tag.OBJECT_MULTIMEDIA.equalsText(ch.getTag())) {
-                    List<MultimediaReference> continuedObjects = new ArrayList<>();
-                    new MultimediaLinkParser(gedcomParser, ch, continuedObjects).parse();
-                    loadInto.setContinuedObject(continuedObjects.get(0));
-                    if (!g55()) {
-                        addWarning("GEDCOM version is 5.5.1, but a chained OBJE tag was found at line " + ch.getLineNum() + ". "
-                                + "Data will be loaded but will not be writeable unless GEDCOM version is changed to 5.5.1");
-                    }
-                } else if (Tag.REFERENCE.equalsText(ch.getTag())) {
-                    UserReference u = new UserReference();
-                    loadInto.getUserReferences(true).add(u);
-                    new UserReferenceParser(gedcomParser, ch, u).parse();
-                } else if (Tag.RECORD_ID_NUMBER.equalsText(ch.getTag())) {
-                    loadInto.setRecIdNumber(parseStringWithCustomFacts(ch));
-                } else if (Tag.CHANGED_DATETIME.equalsText(ch.getTag())) {
-                    ChangeDate changeDate = new ChangeDate();
-                    loadInto.setChangeDate(changeDate);
-                    new ChangeDateParser(gedcomParser, ch, changeDate).parse();
-                } else {
-                    unknownTag(ch, loadInto);
+            for (int ch = tree.getFirstChild(obje); ch != StringTreeArena.NONE; ch = tree.getNextSibling(ch)) {
+                switch (tree.getKnownTag(ch)) {
+                    case FORM:
+                        loadInto.setEmbeddedMediaFormat(parseStringWithCustomFacts(ch));
+                        break;
+                    case TITLE:
+                        loadInto.setEmbeddedTitle(parseStringWithCustomFacts(ch));
+                        break;
+                    case NOTE:
+                        List<NoteStructure> notes = loadInto.getNoteStructures(true);
+                        new NoteStructureListParser(gedcomParser, tree, ch, notes).parse();
+                        break;
+                    case SOURCE:
+                        List<AbstractCitation> citations = loadInto.getCitations(true);
+                        new CitationListParser(gedcomParser, tree, ch, citations).parse();
+                        break;
+                    case BLOB:
+                        loadMultiLinesOfText(ch, loadInto.getBlob(true), loadInto);
+                        if (!g55()) {
+                            addWarning("GEDCOM version is 5.5.1, but a BLOB tag was found at line " + tree
+                                    .getLineNum(ch) + ". "
+                                    + "Data will be loaded but will not be writeable unless GEDCOM version is changed to 5.5.1");
+                        }
+                        break;
+                    case OBJECT_MULTIMEDIA:
+                        List<MultimediaReference> continuedObjects = new ArrayList<>();
+                        new MultimediaLinkParser(gedcomParser, tree, ch, continuedObjects).parse();
+                        loadInto.setContinuedObject(continuedObjects.get(0));
+                        if (!g55()) {
+                            addWarning("GEDCOM version is 5.5.1, but a chained OBJE tag was found at line " + tree
+                                    .getLineNum(ch) + ". "
+                                    + "Data will be loaded but will not be writeable unless GEDCOM version is changed to 5.5.1");
+                        }
+                        break;
+                    case REFERENCE:
+                        UserReference u = new UserReference();
+                        loadInto.getUserReferences(true).add(u);
+                        new UserReferenceParser(gedcomParser, tree, ch, u).parse();
+                        break;
+                    case RECORD_ID_NUMBER:
+                        loadInto.setRecIdNumber(parseStringWithCustomFacts(ch));
+                        break;
+                    case CHANGED_DATETIME:
+                        ChangeDate changeDate = new ChangeDate();
+                        loadInto.setChangeDate(changeDate);
+                        new ChangeDateParser(gedcomParser, tree, ch, changeDate).parse();
+                        break;
+                    default:
+                        unknownTag(ch, loadInto);
+                        break;
                 }
             }
         }
@@ -152,32 +166,40 @@ class MultimediaParser extends AbstractParser<Multimedia> {
      * @param obje
      *            the OBJE node being loaded
      */
-    private void loadMultimediaRecord551(StringTree obje) {
-        Multimedia m = getMultimedia(obje.getXref());
-        if (obje.getChildren() != null) {
-            for (StringTree ch : obje.getChildren()) {
-                if (Tag.FILE.equalsText(ch.getTag())) {
-                    FileReference fr = new FileReference();
-                    m.getFileReferences(true).add(fr);
-                    new FileReference551Parser(gedcomParser, ch, fr).parse();
-                } else if (Tag.NOTE.equalsText(ch.getTag())) {
-                    List<NoteStructure> notes = m.getNoteStructures(true);
-                    new NoteStructureListParser(gedcomParser, ch, notes).parse();
-                } else if (Tag.SOURCE.equalsText(ch.getTag())) {
-                    List<AbstractCitation> citations = m.getCitations(true);
-                    new CitationListParser(gedcomParser, ch, citations).parse();
-                } else if (Tag.REFERENCE.equalsText(ch.getTag())) {
-                    UserReference u = new UserReference();
-                    m.getUserReferences(true).add(u);
-                    new UserReferenceParser(gedcomParser, ch, u).parse();
-                } else if (Tag.RECORD_ID_NUMBER.equalsText(ch.getTag())) {
-                    m.setRecIdNumber(parseStringWithCustomFacts(ch));
-                } else if (Tag.CHANGED_DATETIME.equalsText(ch.getTag())) {
-                    ChangeDate changeDate = new ChangeDate();
-                    m.setChangeDate(changeDate);
-                    new ChangeDateParser(gedcomParser, ch, changeDate).parse();
-                } else {
-                    unknownTag(ch, m);
+    private void loadMultimediaRecord551(int obje) {
+        Multimedia m = getMultimedia(tree.getXref(obje));
+        if (tree.hasChildren(obje)) {
+            for (int ch = tree.getFirstChild(obje); ch != StringTreeArena.NONE; ch = tree.getNextSibling(ch)) {
+                switch (tree.getKnownTag(ch)) {
+                    case FILE:
+                        FileReference fr = new FileReference();
+                        m.getFileReferences(true).add(fr);
+                        new FileReference551Parser(gedcomParser, tree, ch, fr).parse();
+                        break;
+                    case NOTE:
+                        List<NoteStructure> notes = m.getNoteStructures(true);
+                        new NoteStructureListParser(gedcomParser, tree, ch, notes).parse();
+                        break;
+                    case SOURCE:
+                        List<AbstractCitation> citations = m.getCitations(true);
+                        new CitationListParser(gedcomParser, tree, ch, citations).parse();
+                        break;
+                    case REFERENCE:
+                        UserReference u = new UserReference();
+                        m.getUserReferences(true).add(u);
+                        new UserReferenceParser(gedcomParser, tree, ch, u).parse();
+                        break;
+                    case RECORD_ID_NUMBER:
+                        m.setRecIdNumber(parseStringWithCustomFacts(ch));
+                        break;
+                    case CHANGED_DATETIME:
+                        ChangeDate changeDate = new ChangeDate();
+                        m.setChangeDate(changeDate);
+                        new ChangeDateParser(gedcomParser, tree, ch, changeDate).parse();
+                        break;
+                    default:
+                        unknownTag(ch, m);
+                        break;
                 }
 
             }
@@ -28,7 +28,6 @@ package org.gedcom4j.parser;
 
 import org.gedcom4j.model.ChangeDate;
 import org.gedcom4j.model.NoteRecord;
-import org.gedcom4j.model.StringTree;
 import org.gedcom4j.model.UserReference;
 
 /**
@@ -43,13 +42,15 @@ class NoteRecordParser extends AbstractParser<NoteRecord> {
      * 
      * @param gedcomParser
      *            a reference to the root {@link GedcomParser}
-     * @param stringTree
-     *            {@link StringTree} to be parsed
+     * @param tree
+     *            the tree of lines being parsed
+     * @param node
+     *            the node in the tree to be parsed
      * @param loadInto
      *            the object we are loading data into
      */
-    NoteRecordParser(GedcomParser gedcomParser, StringTree stringTree, NoteRecord loadInto) {
-        super(gedcomParser, stringTree, loadInto);
+    NoteRecordParser(GedcomParser gedcomParser, StringTreeArena tree, int node, NoteRecord loadInto) {
+        super(gedcomParser, tree, node, loadInto);
     }
 
     /**
@@ -57,40 +58,48 @@ class NoteRecordParser extends AbstractParser<NoteRecord> {
      */
     @Override
     void parse() {
-        if (stringTree.getXref() != null && !stringTree.getXref().isEmpty() && referencesAnotherNode(stringTree)) {
-            addWarning("NOTE line has both an XREF_ID (" + stringTree.getXref() + ") and SUBMITTER_TEXT (" + stringTree.getValue()
+        if (tree.getXref(node) != null && !tree.getXref(node).isEmpty() && referencesAnotherNode(node)) {
+            addWarning("NOTE line has both an XREF_ID (" + tree.getXref(node) + ") and SUBMITTER_TEXT (" + tree.getValue(node)
                     + ") value between @ signs - " + "treating SUBMITTER_TEXT as string, not a cross-reference");
         }
-        loadInto.getLines(true).add(stringTree.getValue());
-        if (stringTree.getChildren() != null) {
-            for (StringTree ch : stringTree.getChildren()) {
-                if (Tag.CONCATENATION.equalsText(ch.getTag())) {
-                    if (loadInto.getLines().isEmpty()) {
-                        loadInto.getLines(true).add(ch.getValue());
-                    } else {
-                        String lastNote = loadInto.getLines().get(loadInto.getLines().size() - 1);
-                        if (lastNote == null || lastNote.length() == 0) {
-                            loadInto.getLines().set(loadInto.getLines().size() - 1, ch.getValue());
+        loadInto.getLines(true).add(tree.getValue(node));
+        if (tree.hasChildren(node)) {
+            for (int ch = tree.getFirstChild(node); ch != StringTreeArena.NONE; ch = tree.getNextSibling(ch)) {
+                switch (tree.getKnownTag(ch)) {
+                    case CONCATENATION:
+                        if (loadInto.getLines().isEmpty()) {
+                            loadInto.getLines(true).add(tree.getValue(ch));
                         } else {
-                            loadInto.getLines().set(loadInto.getLines().size() - 1, lastNote + ch.getValue());
+                            String lastNote = loadInto.getLines().get(loadInto.getLines().size() - 1);
+                            if (lastNote == null || lastNote.length() == 0) {
+                                loadInto.getLines().set(loadInto.getLines().size() - 1, tree.getValue(ch));
+                            } else {
+                                loadInto.getLines().set(loadInto.getLines().size() - 1, lastNote + tree.getValue(ch));
+                            }
                         }
-                    }
-                } else if (Tag.CONTINUATION.equalsText(ch.getTag())) {
-                    loadInto.getLines(true).add(ch.getValue() == null ? "" : ch.getValue());
-                } else if (Tag.SOURCE.equalsText(ch.getTag())) {
-                    new CitationListParser(gedcomParser, ch, loadInto.getCitations(true)).parse();
-                } else if (Tag.REFERENCE.equalsText(ch.getTag())) {
-                    UserReference u = new UserReference();
-                    loadInto.getUserReferences(true).add(u);
-                    new UserReferenceParser(gedcomParser, ch, u).parse();
-                } else if (Tag.RECORD_ID_NUMBER.equalsText(ch.getTag())) {
-                    loadInto.setRecIdNumber(parseStringWithCustomFacts(ch));
-                } else if (Tag.CHANGED_DATETIME.equalsText(ch.getTag())) {
-                    ChangeDate changeDate = new ChangeDate();
-                    loadInto.setChangeDate(changeDate);
-                    new ChangeDateParser(gedcomParser, ch, changeDate).parse();
-                } else {
-                    unknownTag(ch, loadInto);
+                        break;
+                    case CONTINUATION:
+                        loadInto.getLines(true).add(tree.getValue(ch) == null ? "" : tree.getValue(ch));
+                        break;
+                    case SOURCE:
+                        new CitationListParser(gedcomParser, tree, ch, loadInto.getCitations(true)).parse();
+                        break;
+                    case REFERENCE:
+                        UserReference u = new UserReference();
+                        loadInto.getUserReferences(true).add(u);
+                        new UserReferenceParser(gedcomParser, tree, ch, u).parse();
+                        break;
+                    case RECORD_ID_NUMBER:
+                        loadInto.setRecIdNumber(parseStringWithCustomFacts(ch));
+                        break;
+                    case CHANGED_DATETIME:
+                        ChangeDate changeDate = new ChangeDate();
+                        loadInto.setChangeDate(changeDate);
+                        new ChangeDateParser(gedcomParser, tree, ch, changeDate).parse();
+                        break;
+                    default:
+                        unknownTag(ch, loadInto);
+                        break;
                 }
             }
         }
@@ -28,9 +28,7 @@ package org.gedcom4j.parser;
 
 import java.util.List;
 
-import org.gedcom4j.model.NoteRecord;
 import org.gedcom4j.model.NoteStructure;
-import org.gedcom4j.model.StringTree;
 
 /**
  * Parser for a list of {@link NoteStructure} objects
@@ -45,13 +43,15 @@ class NoteStructureListParser extends AbstractParser<List<NoteStructure>> {
      * 
      * @param gedcomParser
      *            a reference to the root {@link GedcomParser}
-     * @param stringTree
-     *            {@link StringTree} to be parsed
+     * @param tree
+     *            the tree of lines being parsed
+     * @param node
+     *            the node in the tree to be parsed
      * @param loadInto
      *            the object we are loading data into
      */
-    NoteStructureListParser(GedcomParser gedcomParser, StringTree stringTree, List<NoteStructure> loadInto) {
-        super(gedcomParser, stringTree, loadInto);
+    NoteStructureListParser(GedcomParser gedcomParser, StringTreeArena tree, int node, List<NoteStructure> loadInto) {
+        super(gedcomParser, tree, node, loadInto);
     }
 
     /**
@@ -60,30 +60,30 @@ class NoteStructureListParser extends AbstractParser<List<NoteStructure>> {
     @Override
     void parse() {
         NoteStructure noteStructure = new NoteStructure();
-        if (stringTree.getXref() == null && referencesAnotherNode(stringTree)) {
-            noteStructure.setNoteReference(getNote(stringTree.getValue()));
+        if (tree.getXref(node) == null && referencesAnotherNode(node)) {
+            noteStructure.setNoteReference(getNoteRecord(tree.getValue(node)));
             loadInto.add(noteStructure);
-            remainingChildrenAreCustomTags(stringTree, noteStructure);
+            remainingChildrenAreCustomTags(node, noteStructure);
             return;
         }
         noteStructure = new NoteStructure();
         loadInto.add(noteStructure);
-        noteStructure.getLines(true).add(stringTree.getValue());
-        if (stringTree.getChildren() != null) {
-            for (StringTree ch : stringTree.getChildren()) {
-                if (Tag.CONCATENATION.equalsText(ch.getTag())) {
+        noteStructure.getLines(true).add(tree.getValue(node));
+        if (tree.hasChildren(node)) {
+            for (int ch = tree.getFirstChild(node); ch != StringTreeArena.NONE; ch = tree.getNextSibling(ch)) {
+                if (Tag.CONCATENATION.equalsText(tree.getTag(ch))) {
                     if (noteStructure.getLines().isEmpty()) {
-                        noteStructure.getLines(true).add(ch.getValue());
+                        noteStructure.getLines(true).add(tree.getValue(ch));
                     } else {
                         String lastNote = noteStructure.getLines().get(noteStructure.getLines().size() - 1);
                         if (lastNote == null || lastNote.length() == 0) {
-                            noteStructure.getLines().set(noteStructure.getLines().size() - 1, ch.getValue());
+                            noteStructure.getLines().set(noteStructure.getLines().size() - 1, tree.getValue(ch));
                         } else {
-                            noteStructure.getLines().set(noteStructure.getLines().size() - 1, lastNote + ch.getValue());
+                            noteStructure.getLines().set(noteStructure.getLines().size() - 1, lastNote + tree.getValue(ch));
                         }
                     }
-                } else if (Tag.CONTINUATION.equalsText(ch.getTag())) {
-                    noteStructure.getLines(true).add(ch.getValue() == null ? "" : ch.getValue());
+                } else if (Tag.CONTINUATION.equalsText(tree.getTag(ch))) {
+                    noteStructure.getLines(true).add(tree.getValue(ch) == null ? "" : tree.getValue(ch));
                 } else {
                     unknownTag(ch, noteStructure);
                 }
@@ -91,21 +91,4 @@ class NoteStructureListParser extends AbstractParser<List<NoteStructure>> {
         }
     }
 
-    /**
-     * Get a {@link NoteRecord} by its xref, adding it to the gedcom collection of notes if needed.
-     * 
-     * @param xref
-     *            the xref of the note
-     * @return the note with the specified xref
-     */
-    private NoteRecord getNote(String xref) {
-        NoteRecord note;
-        note = gedcomParser.getGedcom().getNotes().get(xref);
-        if (note == null) {
-            note = new NoteRecord(xref);
-            gedcomParser.getGedcom().getNotes().put(xref, note);
-        }
-        return note;
-    }
-
 }
@@ -0,0 +1,422 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.parser;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.gedcom4j.exception.GedcomParserException;
+import org.gedcom4j.exception.ParserCancelledException;
+import org.gedcom4j.model.ModelElement;
+
+/**
+ * <p>
+ * Parses completed root-level records on a pool of worker threads while the {@link GedcomParser} carries on reading lines and
+ * building the next record's {@link StringTreeArena}. Each worker thread has its own {@link GedcomParser} that shares the root
+ * parser's {@link org.gedcom4j.model.Gedcom}, so the records' cross-reference placeholders all end up in the same maps.
+ * </p>
+ * <p>
+ * The results are the same as when records are parsed one at a time on the reading thread:
+ * </p>
+ * <ul>
+ * <li>The header and submission records are parsed on the reading thread once every earlier record is finished, because the
+ * parsing of the records that follow depends on the GEDCOM version in the header. Trailers and unrecognized root-level tags are also
+ * parsed on the reading thread, as they only touch the {@link org.gedcom4j.model.Gedcom} itself.</li>
+ * <li>A record whose tag and xref have been seen before waits for every earlier record to finish, so two records never load into
+ * the same object at once.</li>
+ * <li>Each pooled record's errors and warnings are collected separately and spliced into the root parser's collections at the
+ * point where the record was handed off, so the messages come out in the same order as when parsing sequentially.</li>
+ * <li>Records are completed in file order, so if a record cannot be parsed its exception is thrown on the reading thread. When
+ * loading in streaming mode, this is also when each record is handed to the {@link RecordHandler}, so the handler sees the records
+ * in file order, on the reading thread.</li>
+ * </ul>
+ * 
+ * @author frizbog
+ */
+class ParallelRecordLoader {
+
+    /**
+     * The number of records per worker thread that can be waiting to be parsed before the reading thread blocks
+     */
+    private static final int QUEUED_RECORDS_PER_THREAD = 64;
+
+    /**
+     * The root parser, which reads the lines and owns the errors and warnings collections
+     */
+    private final GedcomParser parser;
+
+    /**
+     * The worker threads
+     */
+    private final ExecutorService executor;
+
+    /**
+     * Limits the number of records handed off but not yet parsed
+     */
+    private final Semaphore queuedRecords;
+
+    /**
+     * The records handed off to the workers, in file order, that have not been completed yet
+     */
+    private final Queue<Future<PooledRecord>> pending = new ArrayDeque<>();
+
+    /**
+     * The completed records that issued errors or warnings, in file order
+     */
+    private final List<PooledRecord> recordsWithMessages = new ArrayList<>();
+
+    /**
+     * The tags and xrefs of the records handed off so far
+     */
+    private final Set<String> recordsSeen = new HashSet<>();
+
+    /**
+     * The parser used by each worker thread
+     */
+    private final ThreadLocal<GedcomParser> workerParsers = new ThreadLocal<GedcomParser>() {
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        protected GedcomParser initialValue() {
+            return new GedcomParser(parser);
+        }
+    };
+
+    /**
+     * Constructor
+     * 
+     * @param parser
+     *            the root parser, which reads the lines and owns the errors and warnings collections
+     * @param threads
+     *            the number of worker threads
+     */
+    ParallelRecordLoader(GedcomParser parser, int threads) {
+        this.parser = parser;
+        executor = Executors.newFixedThreadPool(threads, new WorkerThreadFactory("gedcom4j-record-parser-"));
+        queuedRecords = new Semaphore(threads * QUEUED_RECORDS_PER_THREAD);
+    }
+
+    /**
+     * Wait for all the records handed off so far to be parsed, and splice their errors and warnings into the root parser's
+     * collections
+     * 
+     * @throws GedcomParserException
+     *             if a record could not be parsed
+     */
+    void finish() throws GedcomParserException {
+        completeRecords(true);
+        mergeMessages(parser.getErrors(), true);
+        mergeMessages(parser.getWarnings(), false);
+        recordsWithMessages.clear();
+    }
+
+    /**
+     * Load a root-level record, either by handing it off to the worker threads or by parsing it on the reading thread
+     * 
+     * @param recordTree
+     *            the tree holding the root-level record. If the record is handed off, a copy of the tree is made, so the tree can
+     *            be reused once this method returns.
+     * @param rootLevelItem
+     *            the node in the tree for the root-level record
+     * @throws GedcomParserException
+     *             if this record, or a record handed off earlier, could not be parsed
+     */
+    void loadRootItem(StringTreeArena recordTree, int rootLevelItem) throws GedcomParserException {
+        String tag = recordTree.getTag(rootLevelItem);
+        if (!isPooled(tag)) {
+            if (Tag.HEADER.equalsText(tag) || Tag.SUBMISSION.equalsText(tag) || parser.isStreaming()) {
+                completeRecords(true);
+            }
+            parser.handleRecord(parser.loadRootItem(recordTree, rootLevelItem));
+            return;
+        }
+        // Records aren't merged when streaming, so there's no need to remember them
+        if (!parser.isStreaming() && !recordsSeen.add(tag + recordTree.getXref(rootLevelItem))) {
+            completeRecords(true);
+        }
+        try {
+            queuedRecords.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ParserCancelledException("File load/parse was interrupted", e);
+        }
+        PooledRecord r = new PooledRecord(recordTree.copy(), rootLevelItem, parser.getErrors().size(), parser.getWarnings().size());
+        pending.add(executor.submit(r));
+        completeRecords(false);
+    }
+
+    /**
+     * Stop the worker threads, abandoning any records that have not been parsed yet
+     */
+    void shutdown() {
+        executor.shutdownNow();
+        try {
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Complete the records handed off to the workers, in file order
+     * 
+     * @param waitForAll
+     *            true if all the records should be completed, waiting for them to be parsed if necessary; false if only the
+     *            records that have already been parsed should be completed
+     * @throws GedcomParserException
+     *             if a record could not be parsed
+     */
+    private void completeRecords(boolean waitForAll) throws GedcomParserException {
+        while (!pending.isEmpty() && (waitForAll || pending.peek().isDone())) {
+            PooledRecord r = getParsedRecord(pending.remove());
+            parser.handleRecord(r.record);
+            r.record = null;
+            if (!r.errors.isEmpty() || !r.warnings.isEmpty()) {
+                recordsWithMessages.add(r);
+            }
+        }
+    }
+
+    /**
+     * Get a record from the workers, waiting for it to be parsed if necessary
+     * 
+     * @param future
+     *            the future for the record
+     * @return the parsed record
+     * @throws GedcomParserException
+     *             if the record could not be parsed
+     */
+    private PooledRecord getParsedRecord(Future<PooledRecord> future) throws GedcomParserException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ParserCancelledException("File load/parse was interrupted", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof GedcomParserException) {
+                throw (GedcomParserException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new GedcomParserException(e);
+        }
+    }
+
+    /**
+     * Is the supplied root-level tag one whose records are handed off to the worker threads?
+     * 
+     * @param tag
+     *            the tag
+     * @return true if records with the tag are parsed on the worker threads
+     */
+    private boolean isPooled(String tag) {
+        return Tag.INDIVIDUAL.equalsText(tag) || Tag.FAMILY.equalsText(tag) || Tag.SOURCE.equalsText(tag) || Tag.NOTE.equalsText(
+                tag) || Tag.REPOSITORY.equalsText(tag) || Tag.OBJECT_MULTIMEDIA.equalsText(tag) || Tag.SUBMITTER.equalsText(tag);
+    }
+
+    /**
+     * Splice the errors or warnings from the pooled records into one of the root parser's collections, each at the point where its
+     * record was handed off
+     * 
+     * @param messages
+     *            the root parser's errors or warnings
+     * @param errors
+     *            true if the errors are being merged, false if the warnings are
+     */
+    private void mergeMessages(List<String> messages, boolean errors) {
+        List<String> merged = null;
+        int copied = 0;
+        for (PooledRecord r : recordsWithMessages) {
+            List<String> recordMessages = errors ? r.errors : r.warnings;
+            if (recordMessages.isEmpty()) {
+                continue;
+            }
+            if (merged == null) {
+                merged = new ArrayList<>(messages.size() + recordsWithMessages.size());
+            }
+            int slot = errors ? r.errorSlot : r.warningSlot;
+            merged.addAll(messages.subList(copied, slot));
+            merged.addAll(recordMessages);
+            copied = slot;
+        }
+        if (merged != null) {
+            merged.addAll(messages.subList(copied, messages.size()));
+            messages.clear();
+            messages.addAll(merged);
+        }
+    }
+
+    /**
+     * A root-level record handed off to the worker threads, along with the errors and warnings that parsing it issued
+     */
+    private final class PooledRecord implements Callable<PooledRecord> {
+
+        /**
+         * The tree holding the record to parse. Released once parsed.
+         */
+        private StringTreeArena recordTree;
+
+        /**
+         * The node in the tree for the record to parse
+         */
+        private final int rootLevelItem;
+
+        /**
+         * The record that was loaded, until it has been handed to the record handler
+         */
+        private ModelElement record;
+
+        /**
+         * The number of errors in the root parser's collection when the record was handed off
+         */
+        private final int errorSlot;
+
+        /**
+         * The number of warnings in the root parser's collection when the record was handed off
+         */
+        private final int warningSlot;
+
+        /**
+         * The errors issued while parsing the record
+         */
+        private List<String> errors = Collections.emptyList();
+
+        /**
+         * The warnings issued while parsing the record
+         */
+        private List<String> warnings = Collections.emptyList();
+
+        /**
+         * Constructor
+         * 
+         * @param recordTree
+         *            the tree holding the record to parse
+         * @param rootLevelItem
+         *            the node in the tree for the record to parse
+         * @param errorSlot
+         *            the number of errors in the root parser's collection when the record was handed off
+         * @param warningSlot
+         *            the number of warnings in the root parser's collection when the record was handed off
+         */
+        PooledRecord(StringTreeArena recordTree, int rootLevelItem, int errorSlot, int warningSlot) {
+            this.recordTree = recordTree;
+            this.rootLevelItem = rootLevelItem;
+            this.errorSlot = errorSlot;
+            this.warningSlot = warningSlot;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public PooledRecord call() throws GedcomParserException {
+            GedcomParser worker = workerParsers.get();
+            try {
+                worker.setInsideCustomTag(false);
+                record = worker.loadRootItem(recordTree, rootLevelItem);
+            } finally {
+                recordTree = null;
+                errors = takeMessages(worker.getErrors());
+                warnings = takeMessages(worker.getWarnings());
+                queuedRecords.release();
+            }
+            return this;
+        }
+
+        /**
+         * Take the messages a worker's parser has collected, leaving its collection empty for the next record
+         * 
+         * @param workerMessages
+         *            the worker parser's errors or warnings
+         * @return the messages that were taken
+         */
+        private List<String> takeMessages(List<String> workerMessages) {
+            if (workerMessages.isEmpty()) {
+                return Collections.emptyList();
+            }
+            List<String> result = new ArrayList<>(workerMessages);
+            workerMessages.clear();
+            return result;
+        }
+    }
+
+    /**
+     * Creates the worker threads. They are daemon threads, so an abandoned load will not keep the JVM running.
+     */
+    static final class WorkerThreadFactory implements ThreadFactory {
+
+        /**
+         * The start of the names of the threads, which is followed by a number
+         */
+        private final String namePrefix;
+
+        /**
+         * The number of threads created so far
+         */
+        private final AtomicInteger threadCount = new AtomicInteger();
+
+        /**
+         * Constructor
+         * 
+         * @param namePrefix
+         *            the start of the names of the threads, which is followed by a number
+         */
+        WorkerThreadFactory(String namePrefix) {
+            this.namePrefix = namePrefix;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread t = new Thread(r, namePrefix + threadCount.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        }
+    }
+}
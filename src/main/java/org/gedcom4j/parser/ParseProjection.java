@@ -0,0 +1,376 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.parser;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * <p>
+ * A specification of which parts of a GEDCOM file a {@link GedcomParser} should load, for jobs that only need some of the data. Set
+ * it on the parser with {@link GedcomParser#setProjection(ParseProjection)} before loading. Lines that are projected out are
+ * skipped as they are read - they are not tokenized, and no {@link org.gedcom4j.model.StringTree} or model objects are built for
+ * them - so loads that only need a small part of each file are faster and take less memory.
+ * </p>
+ * <p>
+ * A projection is made up of:
+ * </p>
+ * <ul>
+ * <li>The root-level record types to keep, by tag (e.g., <code>INDI</code> and <code>FAM</code>). If none are added, records of
+ * all types are kept.</li>
+ * <li>Tag paths to include. If any are added, only the parts of each record that match one of them (and everything beneath those
+ * parts) are kept, along with the lines leading down to them.</li>
+ * <li>Tag paths to exclude. Lines matching any of these, and everything beneath them, are skipped, even if they also match a path
+ * to include.</li>
+ * </ul>
+ * <p>
+ * A tag path is the tags from the root-level record down to a line, separated by periods - for example, <code>INDI.BIRT.DATE</code>
+ * is the date of an individual's birth. In a pattern, a <code>*</code> within a tag matches any characters (so <code>*</code> on
+ * its own matches any one tag, and <code>_*</code> matches any custom tag), and <code>**</code> on its own matches any number of
+ * tags, including none. A pattern of a single tag, with no periods, matches that tag at any level - so excluding <code>_*</code>
+ * skips all custom tags, wherever they appear. For example, to load just the names, sex, and the dates and places of births,
+ * deaths and marriages, with the links between individuals and families:
+ * </p>
+ * 
+ * <pre>
+ * ParseProjection p = new ParseProjection();
+ * p.addRecordType(&quot;INDI&quot;);
+ * p.addRecordType(&quot;FAM&quot;);
+ * p.addInclude(&quot;INDI.NAME&quot;);
+ * p.addInclude(&quot;INDI.SEX&quot;);
+ * p.addInclude(&quot;INDI.FAMC&quot;);
+ * p.addInclude(&quot;INDI.FAMS&quot;);
+ * p.addInclude(&quot;INDI.BIRT.DATE&quot;);
+ * p.addInclude(&quot;INDI.BIRT.PLAC&quot;);
+ * p.addInclude(&quot;INDI.DEAT.DATE&quot;);
+ * p.addInclude(&quot;INDI.DEAT.PLAC&quot;);
+ * p.addInclude(&quot;FAM.HUSB&quot;);
+ * p.addInclude(&quot;FAM.WIFE&quot;);
+ * p.addInclude(&quot;FAM.CHIL&quot;);
+ * p.addInclude(&quot;FAM.MARR.DATE&quot;);
+ * p.addInclude(&quot;FAM.MARR.PLAC&quot;);
+ * p.addExclude(&quot;**.SOUR&quot;);
+ * 
+ * GedcomParser gp = new GedcomParser();
+ * gp.setProjection(p);
+ * gp.load(&quot;family.ged&quot;);
+ * </pre>
+ * <p>
+ * The header and trailer are always loaded in full, since the header says how the rest of the file is to be read. References to
+ * records that are projected out are loaded as placeholders that only have their xref, the same as references to records that are
+ * missing from the file, but since the records weren't loaded they aren't reported as dangling in the
+ * {@link GedcomParser#getReferenceReport()}.
+ * </p>
+ * 
+ * @author frizbog
+ */
+public class ParseProjection {
+
+    /**
+     * A tag path that has been seen during a load, with the projection's decision for it and the paths leading on from it. Since a
+     * file only has so many different tag paths in it, each one is only matched against the patterns once per load, and after that
+     * the decision for each line is one map lookup.
+     */
+    static final class PathNode {
+
+        /**
+         * The decision for this path - {@link ParseProjection#SKIP}, {@link ParseProjection#KEEP} or
+         * {@link ParseProjection#INCLUDE}
+         */
+        final int decision;
+
+        /**
+         * The paths leading on from this one, by their last tag
+         */
+        final Map<String, PathNode> children = new HashMap<>();
+
+        /**
+         * Constructor
+         * 
+         * @param decision
+         *            the decision for this path
+         */
+        PathNode(int decision) {
+            this.decision = decision;
+        }
+    }
+
+    /**
+     * The result of {@link #match(String[], int, boolean)} when a line is to be skipped, along with everything beneath it
+     */
+    static final int SKIP = 0;
+
+    /**
+     * The result of {@link #match(String[], int, boolean)} when a line is only kept because it leads down to lines that might be
+     * included, so the lines beneath it still need to be checked
+     */
+    static final int KEEP = 1;
+
+    /**
+     * The result of {@link #match(String[], int, boolean)} when a line is included, so everything beneath it is included too,
+     * unless excluded
+     */
+    static final int INCLUDE = 2;
+
+    /**
+     * The pattern within a tag path that matches any number of tags
+     */
+    private static final String ANY_TAGS = "**";
+
+    /**
+     * The tags of the root-level record types to keep. If empty, records of all types are kept.
+     */
+    private final Set<String> recordTypes = new HashSet<>();
+
+    /**
+     * The tag paths to include, as given
+     */
+    private final List<String> includes = new ArrayList<>();
+
+    /**
+     * The tag paths to include, split into their tags
+     */
+    private final List<String[]> includePatterns = new ArrayList<>();
+
+    /**
+     * The tag paths to exclude, as given
+     */
+    private final List<String> excludes = new ArrayList<>();
+
+    /**
+     * The tag paths to exclude, split into their tags
+     */
+    private final List<String[]> excludePatterns = new ArrayList<>();
+
+    /**
+     * Does the supplied tag match a pattern for a single tag?
+     * 
+     * @param pattern
+     *            the pattern, in which <code>*</code> matches any characters
+     * @param tag
+     *            the tag
+     * @return true if and only if the tag matches the pattern
+     */
+    private static boolean tagMatches(String pattern, String tag) {
+        int star = pattern.indexOf('*');
+        if (star < 0) {
+            return pattern.equals(tag);
+        }
+        if (!tag.startsWith(pattern.substring(0, star))) {
+            return false;
+        }
+        String rest = pattern.substring(star + 1);
+        for (int i = star; i <= tag.length(); i++) {
+            if (tagMatches(rest, tag.substring(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Add a tag path pattern to include
+     * 
+     * @param pattern
+     *            the tag path to include - see the class description for the syntax
+     * @throws IllegalArgumentException
+     *             if the pattern is null or empty, or has an empty tag in it
+     */
+    public void addInclude(String pattern) {
+        includePatterns.add(compile(pattern));
+        includes.add(pattern);
+    }
+
+    /**
+     * Add a tag path pattern to exclude
+     * 
+     * @param pattern
+     *            the tag path to exclude - see the class description for the syntax
+     * @throws IllegalArgumentException
+     *             if the pattern is null or empty, or has an empty tag in it
+     */
+    public void addExclude(String pattern) {
+        excludePatterns.add(compile(pattern));
+        excludes.add(pattern);
+    }
+
+    /**
+     * Add a type of root-level record to keep. Once any are added, records of other types are skipped (except for the header and
+     * trailer).
+     * 
+     * @param tag
+     *            the tag of the root-level records to keep - e.g., <code>INDI</code>
+     * @throws IllegalArgumentException
+     *             if the tag is null or empty
+     */
+    public void addRecordType(String tag) {
+        if (tag == null || tag.isEmpty()) {
+            throw new IllegalArgumentException("Record type tag is required");
+        }
+        recordTypes.add(tag);
+    }
+
+    /**
+     * Get the tag path patterns to exclude
+     * 
+     * @return the tag path patterns to exclude
+     */
+    public List<String> getExcludes() {
+        return Collections.unmodifiableList(excludes);
+    }
+
+    /**
+     * Get the tag path patterns to include
+     * 
+     * @return the tag path patterns to include
+     */
+    public List<String> getIncludes() {
+        return Collections.unmodifiableList(includes);
+    }
+
+    /**
+     * Get the types of root-level records to keep. If empty, records of all types are kept.
+     * 
+     * @return the tags of the types of root-level records to keep
+     */
+    public Set<String> getRecordTypes() {
+        return Collections.unmodifiableSet(recordTypes);
+    }
+
+    /**
+     * Are root-level records of a type kept, or at least the parts of them that lead down to lines that might be included?
+     * 
+     * @param tag
+     *            the tag of the root-level records
+     * @return true if records with the tag are kept, so they are defined when they are in the file
+     */
+    boolean keepsRecordType(String tag) {
+        return match(new String[] { tag }, 1, false) != SKIP;
+    }
+
+    /**
+     * Decide whether a line is to be kept, from the tags leading down to it
+     * 
+     * @param path
+     *            the tags from the root-level record down to the line, at indexes 0 to <code>depth - 1</code>
+     * @param depth
+     *            the number of tags in the path
+     * @param insideInclude
+     *            true if one of the lines above this one has already been included
+     * @return {@link #SKIP}, {@link #KEEP} or {@link #INCLUDE}
+     */
+    int match(String[] path, int depth, boolean insideInclude) {
+        if (Tag.HEADER.tagText.equals(path[0]) || Tag.TRAILER.tagText.equals(path[0])) {
+            return INCLUDE;
+        }
+        if (depth == 1 && !recordTypes.isEmpty() && !recordTypes.contains(path[0])) {
+            return SKIP;
+        }
+        for (String[] p : excludePatterns) {
+            if (match(p, 0, path, 0, depth) == INCLUDE) {
+                return SKIP;
+            }
+        }
+        if (insideInclude || includePatterns.isEmpty()) {
+            return INCLUDE;
+        }
+        int result = SKIP;
+        for (String[] p : includePatterns) {
+            result = Math.max(result, match(p, 0, path, 0, depth));
+            if (result == INCLUDE) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Split a tag path pattern into its tags
+     * 
+     * @param pattern
+     *            the tag path pattern
+     * @return the tags in the pattern, starting with {@link #ANY_TAGS} if the pattern is a single tag
+     * @throws IllegalArgumentException
+     *             if the pattern is null or empty, or has an empty tag in it
+     */
+    private String[] compile(String pattern) {
+        if (pattern == null || pattern.isEmpty()) {
+            throw new IllegalArgumentException("Tag path pattern is required");
+        }
+        String[] tags = pattern.split("\\.", -1);
+        for (String t : tags) {
+            if (t.isEmpty()) {
+                throw new IllegalArgumentException("Tag path pattern " + pattern + " has an empty tag in it");
+            }
+        }
+        if (tags.length == 1 && !ANY_TAGS.equals(tags[0])) {
+            return new String[] { ANY_TAGS, tags[0] };
+        }
+        return tags;
+    }
+
+    /**
+     * Match the rest of a tag path against the rest of a pattern
+     * 
+     * @param pattern
+     *            the tags in the pattern
+     * @param patternIdx
+     *            the index of the next tag in the pattern to match
+     * @param path
+     *            the tags in the path
+     * @param pathIdx
+     *            the index of the next tag in the path to match
+     * @param depth
+     *            the number of tags in the path
+     * @return {@link #INCLUDE} if the path matches the pattern, {@link #KEEP} if a longer path starting with this one might
+     *         match, or {@link #SKIP} if neither
+     */
+    private int match(String[] pattern, int patternIdx, String[] path, int pathIdx, int depth) {
+        if (patternIdx == pattern.length) {
+            return pathIdx == depth ? INCLUDE : SKIP;
+        }
+        if (ANY_TAGS.equals(pattern[patternIdx])) {
+            int result = match(pattern, patternIdx + 1, path, pathIdx, depth);
+            if (result != INCLUDE && pathIdx < depth) {
+                result = Math.max(result, match(pattern, patternIdx, path, pathIdx + 1, depth));
+            }
+            return result;
+        }
+        if (pathIdx == depth) {
+            return KEEP;
+        }
+        if (!tagMatches(pattern[patternIdx], path[pathIdx])) {
+            return SKIP;
+        }
+        return match(pattern, patternIdx + 1, path, pathIdx + 1, depth);
+    }
+}
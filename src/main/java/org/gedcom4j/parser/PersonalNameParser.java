@@ -32,7 +32,6 @@ import org.gedcom4j.model.AbstractCitation;
 import org.gedcom4j.model.NoteStructure;
 import org.gedcom4j.model.PersonalName;
 import org.gedcom4j.model.PersonalNameVariation;
-import org.gedcom4j.model.StringTree;
 
 /**
  * @author frizbog
@@ -45,50 +44,65 @@ class PersonalNameParser extends AbstractParser<PersonalName> {
      * 
      * @param gedcomParser
      *            a reference to the root {@link GedcomParser}
-     * @param stringTree
-     *            {@link StringTree} to be parsed
+     * @param tree
+     *            the tree of lines being parsed
+     * @param node
+     *            the node in the tree to be parsed
      * @param loadInto
      *            the object we are loading data into
      */
-    PersonalNameParser(GedcomParser gedcomParser, StringTree stringTree, PersonalName loadInto) {
-        super(gedcomParser, stringTree, loadInto);
+    PersonalNameParser(GedcomParser gedcomParser, StringTreeArena tree, int node, PersonalName loadInto) {
+        super(gedcomParser, tree, node, loadInto);
     }
 
     @Override
     void parse() {
-        loadInto.setBasic(stringTree.getValue());
-        if (stringTree.getChildren() != null) {
-            for (StringTree ch : stringTree.getChildren()) {
-                if (Tag.NAME_PREFIX.equalsText(ch.getTag())) {
-                    loadInto.setPrefix(parseStringWithCustomFacts(ch));
-                } else if (Tag.GIVEN_NAME.equalsText(ch.getTag())) {
-                    loadInto.setGivenName(parseStringWithCustomFacts(ch));
-                } else if (Tag.NICKNAME.equalsText(ch.getTag())) {
-                    loadInto.setNickname(parseStringWithCustomFacts(ch));
-                } else if (Tag.SURNAME_PREFIX.equalsText(ch.getTag())) {
-                    loadInto.setSurnamePrefix(parseStringWithCustomFacts(ch));
-                } else if (Tag.SURNAME.equalsText(ch.getTag())) {
-                    loadInto.setSurname(parseStringWithCustomFacts(ch));
-                } else if (Tag.NAME_SUFFIX.equalsText(ch.getTag())) {
-                    loadInto.setSuffix(parseStringWithCustomFacts(ch));
-                } else if (Tag.SOURCE.equalsText(ch.getTag())) {
-                    List<AbstractCitation> citations = loadInto.getCitations(true);
-                    new CitationListParser(gedcomParser, ch, citations).parse();
-                } else if (Tag.NOTE.equalsText(ch.getTag())) {
-                    List<NoteStructure> notes = loadInto.getNoteStructures(true);
-                    new NoteStructureListParser(gedcomParser, ch, notes).parse();
-                } else if (Tag.ROMANIZED.equalsText(ch.getTag())) {
-                    PersonalNameVariation pnv = new PersonalNameVariation();
-                    loadInto.getRomanized(true).add(pnv);
-                    loadPersonalNameVariation(ch, pnv);
-                } else if (Tag.PHONETIC.equalsText(ch.getTag())) {
-                    PersonalNameVariation pnv = new PersonalNameVariation();
-                    loadInto.getPhonetic(true).add(pnv);
-                    loadPersonalNameVariation(ch, pnv);
-                } else if (Tag.TYPE.equalsText(ch.getTag())) {
-                    loadInto.setType(parseStringWithCustomFacts(ch));
-                } else {
-                    unknownTag(ch, loadInto);
+        loadInto.setBasic(tree.getValue(node));
+        if (tree.hasChildren(node)) {
+            for (int ch = tree.getFirstChild(node); ch != StringTreeArena.NONE; ch = tree.getNextSibling(ch)) {
+                switch (tree.getKnownTag(ch)) {
+                    case NAME_PREFIX:
+                        loadInto.setPrefix(parseStringWithCustomFacts(ch));
+                        break;
+                    case GIVEN_NAME:
+                        loadInto.setGivenName(parseStringWithCustomFacts(ch));
+                        break;
+                    case NICKNAME:
+                        loadInto.setNickname(parseStringWithCustomFacts(ch));
+                        break;
+                    case SURNAME_PREFIX:
+                        loadInto.setSurnamePrefix(parseStringWithCustomFacts(ch));
+                        break;
+                    case SURNAME:
+                        loadInto.setSurname(parseStringWithCustomFacts(ch));
+                        break;
+                    case NAME_SUFFIX:
+                        loadInto.setSuffix(parseStringWithCustomFacts(ch));
+                        break;
+                    case SOURCE:
+                        List<AbstractCitation> citations = loadInto.getCitations(true);
+                        new CitationListParser(gedcomParser, tree, ch, citations).parse();
+                        break;
+                    case NOTE:
+                        List<NoteStructure> notes = loadInto.getNoteStructures(true);
+                        new NoteStructureListParser(gedcomParser, tree, ch, notes).parse();
+                        break;
+                    case ROMANIZED:
+                        PersonalNameVariation romanized = new PersonalNameVariation();
+                        loadInto.getRomanized(true).add(romanized);
+                        loadPersonalNameVariation(ch, romanized);
+                        break;
+                    case PHONETIC:
+                        PersonalNameVariation phonetic = new PersonalNameVariation();
+                        loadInto.getPhonetic(true).add(phonetic);
+                        loadPersonalNameVariation(ch, phonetic);
+                        break;
+                    case TYPE:
+                        loadInto.setType(parseStringWithCustomFacts(ch));
+                        break;
+                    default:
+                        unknownTag(ch, loadInto);
+                        break;
                 }
             }
         }
@@ -103,32 +117,43 @@ class PersonalNameParser extends AbstractParser<PersonalName> {
      * @param pnv
      *            the personal name variation to fill in
      */
-    private void loadPersonalNameVariation(StringTree romnOrPhon, PersonalNameVariation pnv) {
-        pnv.setVariation(romnOrPhon.getValue());
-        if (romnOrPhon.getChildren() != null) {
-            for (StringTree ch : romnOrPhon.getChildren()) {
-                if (Tag.NAME_PREFIX.equalsText(ch.getTag())) {
-                    pnv.setPrefix(parseStringWithCustomFacts(ch));
-                } else if (Tag.GIVEN_NAME.equalsText(ch.getTag())) {
-                    pnv.setGivenName(parseStringWithCustomFacts(ch));
-                } else if (Tag.NICKNAME.equalsText(ch.getTag())) {
-                    pnv.setNickname(parseStringWithCustomFacts(ch));
-                } else if (Tag.SURNAME_PREFIX.equalsText(ch.getTag())) {
-                    pnv.setSurnamePrefix(parseStringWithCustomFacts(ch));
-                } else if (Tag.SURNAME.equalsText(ch.getTag())) {
-                    pnv.setSurname(parseStringWithCustomFacts(ch));
-                } else if (Tag.NAME_SUFFIX.equalsText(ch.getTag())) {
-                    pnv.setSuffix(parseStringWithCustomFacts(ch));
-                } else if (Tag.SOURCE.equalsText(ch.getTag())) {
-                    List<AbstractCitation> citations = pnv.getCitations(true);
-                    new CitationListParser(gedcomParser, ch, citations).parse();
-                } else if (Tag.NOTE.equalsText(ch.getTag())) {
-                    List<NoteStructure> notes = pnv.getNoteStructures(true);
-                    new NoteStructureListParser(gedcomParser, ch, notes).parse();
-                } else if (Tag.TYPE.equalsText(ch.getTag())) {
-                    pnv.setVariationType(parseStringWithCustomFacts(ch));
-                } else {
-                    unknownTag(ch, pnv);
+    private void loadPersonalNameVariation(int romnOrPhon, PersonalNameVariation pnv) {
+        pnv.setVariation(tree.getValue(romnOrPhon));
+        if (tree.hasChildren(romnOrPhon)) {
+            for (int ch = tree.getFirstChild(romnOrPhon); ch != StringTreeArena.NONE; ch = tree.getNextSibling(ch)) {
+                switch (tree.getKnownTag(ch)) {
+                    case NAME_PREFIX:
+                        pnv.setPrefix(parseStringWithCustomFacts(ch));
+                        break;
+                    case GIVEN_NAME:
+                        pnv.setGivenName(parseStringWithCustomFacts(ch));
+                        break;
+                    case NICKNAME:
+                        pnv.setNickname(parseStringWithCustomFacts(ch));
+                        break;
+                    case SURNAME_PREFIX:
+                        pnv.setSurnamePrefix(parseStringWithCustomFacts(ch));
+                        break;
+                    case SURNAME:
+                        pnv.setSurname(parseStringWithCustomFacts(ch));
+                        break;
+                    case NAME_SUFFIX:
+                        pnv.setSuffix(parseStringWithCustomFacts(ch));
+                        break;
+                    case SOURCE:
+                        List<AbstractCitation> citations = pnv.getCitations(true);
+                        new CitationListParser(gedcomParser, tree, ch, citations).parse();
+                        break;
+                    case NOTE:
+                        List<NoteStructure> notes = pnv.getNoteStructures(true);
+                        new NoteStructureListParser(gedcomParser, tree, ch, notes).parse();
+                        break;
+                    case TYPE:
+                        pnv.setVariationType(parseStringWithCustomFacts(ch));
+                        break;
+                    default:
+                        unknownTag(ch, pnv);
+                        break;
                 }
             }
         }
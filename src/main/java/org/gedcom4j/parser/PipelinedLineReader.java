@@ -0,0 +1,381 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.parser;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.gedcom4j.exception.GedcomParserException;
+import org.gedcom4j.exception.ParserCancelledException;
+import org.gedcom4j.io.event.FileProgressEvent;
+import org.gedcom4j.io.event.FileProgressListener;
+import org.gedcom4j.io.reader.GedcomFileReader;
+
+/**
+ * <p>
+ * Reads and decodes the lines of a file on a background thread, so that waiting for the bytes to arrive and decoding them
+ * overlaps with the {@link GedcomParser} building and parsing the records. The decoded lines are handed over in batches through a
+ * fixed set of preallocated batches that circulate between the two threads, so the reading thread can never get more than a
+ * bounded number of lines ahead of the parser.
+ * </p>
+ * <p>
+ * The {@link GedcomFileReader} must be created with the parser returned by {@link #getDecodingParser()}. That parser collects
+ * the warnings issued while decoding (for example, when a long ANSEL line is split), which are added to the root parser's
+ * warnings just before the line they were issued for is handed to it, so they come out in the same order as when reading on a
+ * single thread. It forwards its {@link FileProgressEvent}s to the root parser's file observers; note that these are therefore
+ * delivered on the reading thread.
+ * </p>
+ * 
+ * @author frizbog
+ */
+class PipelinedLineReader {
+
+    /**
+     * The number of lines in each batch
+     */
+    private static final int LINES_PER_BATCH = 512;
+
+    /**
+     * The number of batches that circulate between the reading thread and the parser
+     */
+    private static final int BATCHES = 16;
+
+    /**
+     * The root parser, which the lines are being read for
+     */
+    private final GedcomParser parser;
+
+    /**
+     * The parser the {@link GedcomFileReader} reports to, on the reading thread
+     */
+    private final GedcomParser decodingParser;
+
+    /**
+     * Passes file progress events from the decoding parser on to the root parser. Kept here because parsers hold their observers
+     * by weak reference.
+     */
+    private final FileProgressListener fileProgressForwarder = new FileProgressListener() {
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void progressNotification(FileProgressEvent e) {
+            parser.notifyFileObservers(e);
+        }
+    };
+
+    /**
+     * Batches that are waiting to be filled by the reading thread
+     */
+    private final BlockingQueue<LineBatch> emptyBatches = new ArrayBlockingQueue<>(BATCHES);
+
+    /**
+     * Batches that are waiting to be consumed by the parser, in file order. Has room for the end-of-file marker as well as every
+     * batch, so it can always be added without blocking.
+     */
+    private final BlockingQueue<LineBatch> filledBatches = new ArrayBlockingQueue<>(BATCHES + 1);
+
+    /**
+     * Marks the end of the lines, being the only batch with no room for any. Added by the reading thread when it finishes, for
+     * whatever reason, with any warnings issued after the last line was read.
+     */
+    private final LineBatch endOfLines = new LineBatch(0);
+
+    /**
+     * The reading thread
+     */
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(new ReaderThreadFactory());
+
+    /**
+     * The outcome of the reading thread
+     */
+    private Future<Void> reading;
+
+    /**
+     * The batch the parser is currently consuming lines from
+     */
+    private LineBatch currentBatch;
+
+    /**
+     * The index of the next line to hand over from the current batch
+     */
+    private int currentLine;
+
+    /**
+     * Constructor
+     * 
+     * @param parser
+     *            the root parser, which the lines are being read for
+     */
+    PipelinedLineReader(GedcomParser parser) {
+        this.parser = parser;
+        decodingParser = new GedcomParser(parser);
+        decodingParser.registerFileObserver(fileProgressForwarder);
+        for (int i = 0; i < BATCHES; i++) {
+            emptyBatches.add(new LineBatch(LINES_PER_BATCH));
+        }
+    }
+
+    /**
+     * Get the parser that the {@link GedcomFileReader} should be created with
+     * 
+     * @return the parser that the {@link GedcomFileReader} should be created with
+     */
+    GedcomParser getDecodingParser() {
+        return decodingParser;
+    }
+
+    /**
+     * Get the next line of the file, waiting for the reading thread if necessary
+     * 
+     * @return the next line of the file, or null if there are no more lines
+     * @throws IOException
+     *             if the file could not be read
+     * @throws GedcomParserException
+     *             if the file could not be decoded, or the load was cancelled
+     */
+    String nextLine() throws IOException, GedcomParserException {
+        while (currentBatch == null || currentLine >= currentBatch.size) {
+            if (currentBatch != null && currentBatch.isEndOfLines()) {
+                return null;
+            }
+            if (currentBatch != null) {
+                emptyBatches.add(currentBatch);
+            }
+            currentBatch = takeFilledBatch();
+            currentLine = 0;
+            if (!currentBatch.warnings.isEmpty()) {
+                parser.getWarnings().addAll(currentBatch.warnings);
+            }
+            if (currentBatch.isEndOfLines()) {
+                checkReadingOutcome();
+                return null;
+            }
+        }
+        String result = currentBatch.lines[currentLine];
+        currentBatch.lines[currentLine++] = null;
+        return result;
+    }
+
+    /**
+     * Stop the reading thread, if it is still running
+     */
+    void shutdown() {
+        decodingParser.cancel();
+        executor.shutdownNow();
+        try {
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Start reading lines on the background thread
+     * 
+     * @param gfr
+     *            the file reader, which must have been created with the parser from {@link #getDecodingParser()}
+     */
+    void start(final GedcomFileReader gfr) {
+        reading = executor.submit(new Callable<Void>() {
+            /**
+             * {@inheritDoc}
+             */
+            @Override
+            public Void call() throws IOException, GedcomParserException, InterruptedException {
+                try {
+                    readLines(gfr);
+                } finally {
+                    endOfLines.warnings = takeDecodingWarnings();
+                    filledBatches.add(endOfLines);
+                }
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Throw whatever stopped the reading thread, if it did not simply reach the end of the file
+     * 
+     * @throws IOException
+     *             if the file could not be read
+     * @throws GedcomParserException
+     *             if the file could not be decoded, or the load was cancelled
+     */
+    private void checkReadingOutcome() throws IOException, GedcomParserException {
+        try {
+            reading.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ParserCancelledException("File load/parse was interrupted", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof GedcomParserException) {
+                throw (GedcomParserException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new GedcomParserException(e);
+        }
+    }
+
+    /**
+     * Read all the lines of the file into batches, on the reading thread. A new batch is started whenever decoding a line issues
+     * warnings, so that the warnings can be added to the root parser just before the line is handed to it.
+     * 
+     * @param gfr
+     *            the file reader
+     * @throws IOException
+     *             if the file could not be read
+     * @throws GedcomParserException
+     *             if the file could not be decoded, or the load was cancelled
+     * @throws InterruptedException
+     *             if the thread is interrupted because the load is being abandoned
+     */
+    private void readLines(GedcomFileReader gfr) throws IOException, GedcomParserException, InterruptedException {
+        String line = gfr.nextLine();
+        while (line != null) {
+            LineBatch batch = emptyBatches.take();
+            batch.warnings = takeDecodingWarnings();
+            int size = 0;
+            do {
+                batch.lines[size++] = line;
+                if (parser.isCancelled()) {
+                    throw new ParserCancelledException("File load is cancelled");
+                }
+                line = gfr.nextLine();
+            } while (line != null && size < batch.lines.length && decodingParser.getWarnings().isEmpty());
+            batch.size = size;
+            filledBatches.add(batch);
+        }
+    }
+
+    /**
+     * Take the warnings that the decoding parser has collected, leaving its collection empty
+     * 
+     * @return the warnings that were taken
+     */
+    private List<String> takeDecodingWarnings() {
+        List<String> warnings = decodingParser.getWarnings();
+        if (warnings.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<String> result = new ArrayList<>(warnings);
+        warnings.clear();
+        return result;
+    }
+
+    /**
+     * Take the next batch of lines from the reading thread, waiting for it if necessary
+     * 
+     * @return the next batch of lines
+     * @throws ParserCancelledException
+     *             if the parser's thread is interrupted while waiting
+     */
+    private LineBatch takeFilledBatch() throws ParserCancelledException {
+        try {
+            return filledBatches.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ParserCancelledException("File load/parse was interrupted", e);
+        }
+    }
+
+    /**
+     * A batch of lines, reused over and over again as it circulates between the reading thread and the parser
+     */
+    private static final class LineBatch {
+
+        /**
+         * The lines in the batch
+         */
+        private final String[] lines;
+
+        /**
+         * The number of lines in use
+         */
+        private int size;
+
+        /**
+         * The warnings issued while decoding the first line of the batch, or for the end-of-lines marker, the warnings issued after
+         * the last line
+         */
+        private List<String> warnings = Collections.emptyList();
+
+        /**
+         * Constructor
+         * 
+         * @param capacity
+         *            the number of lines the batch can hold
+         */
+        LineBatch(int capacity) {
+            lines = new String[capacity];
+        }
+
+        /**
+         * Is this the batch that marks the end of the lines?
+         * 
+         * @return true if this batch marks the end of the lines
+         */
+        boolean isEndOfLines() {
+            return lines.length == 0;
+        }
+    }
+
+    /**
+     * Creates the reading thread. It is a daemon thread, so an abandoned load will not keep the JVM running.
+     */
+    private static final class ReaderThreadFactory implements ThreadFactory {
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread t = new Thread(r, "gedcom4j-line-reader");
+            t.setDaemon(true);
+            return t;
+        }
+    }
+}
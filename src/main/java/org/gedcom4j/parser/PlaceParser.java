@@ -33,7 +33,6 @@ import org.gedcom4j.model.AbstractNameVariation;
 import org.gedcom4j.model.NoteStructure;
 import org.gedcom4j.model.Place;
 import org.gedcom4j.model.PlaceNameVariation;
-import org.gedcom4j.model.StringTree;
 
 /**
  * Parser for {@link Place} objects
@@ -47,87 +46,100 @@ class PlaceParser extends AbstractParser<Place> {
      * 
      * @param gedcomParser
      *            a reference to the root {@link GedcomParser}
-     * @param stringTree
-     *            {@link StringTree} to be parsed
+     * @param tree
+     *            the tree of lines being parsed
+     * @param node
+     *            the node in the tree to be parsed
      * @param loadInto
      *            the object we are loading data into
      */
-    PlaceParser(GedcomParser gedcomParser, StringTree stringTree, Place loadInto) {
-        super(gedcomParser, stringTree, loadInto);
+    PlaceParser(GedcomParser gedcomParser, StringTreeArena tree, int node, Place loadInto) {
+        super(gedcomParser, tree, node, loadInto);
     }
 
     @Override
     void parse() {
-        loadInto.setPlaceName(stringTree.getValue());
-        if (stringTree.getChildren() != null) {
-            for (StringTree ch : stringTree.getChildren()) {
-                if (Tag.FORM.equalsText(ch.getTag())) {
-                    loadInto.setPlaceFormat(parseStringWithCustomFacts(ch));
-                } else if (Tag.SOURCE.equalsText(ch.getTag())) {
-                    List<AbstractCitation> citations = loadInto.getCitations(true);
-                    new CitationListParser(gedcomParser, ch, citations).parse();
-                } else if (Tag.NOTE.equalsText(ch.getTag())) {
-                    List<NoteStructure> notes = loadInto.getNoteStructures(true);
-                    new NoteStructureListParser(gedcomParser, ch, notes).parse();
-                } else if (Tag.CONCATENATION.equalsText(ch.getTag())) {
-                    loadInto.setPlaceName(loadInto.getPlaceName() + (ch.getValue() == null ? "" : ch.getValue()));
-                } else if (Tag.CONTINUATION.equalsText(ch.getTag())) {
-                    loadInto.setPlaceName(loadInto.getPlaceName() + "\n" + (ch.getValue() == null ? "" : ch.getValue()));
-                } else if (Tag.ROMANIZED.equalsText(ch.getTag())) {
-                    if (g55()) {
-                        addWarning("GEDCOM version is 5.5 but a romanized variation was specified on a place on line " + ch
-                                .getLineNum() + ", which is a GEDCOM 5.5.1 feature."
-                                + "  Data loaded but cannot be re-written unless GEDCOM version changes.");
-                    }
-                    AbstractNameVariation nv = new PlaceNameVariation();
-                    loadInto.getRomanized(true).add(nv);
-                    nv.setVariation(ch.getValue());
-                    if (ch.getChildren() != null) {
-                        for (StringTree gch : ch.getChildren()) {
-                            if (Tag.TYPE.equalsText(gch.getTag())) {
-                                nv.setVariationType(parseStringWithCustomFacts(gch));
-                            } else {
-                                unknownTag(gch, nv);
+        loadInto.setPlaceName(tree.getValue(node));
+        if (tree.hasChildren(node)) {
+            for (int ch = tree.getFirstChild(node); ch != StringTreeArena.NONE; ch = tree.getNextSibling(ch)) {
+                switch (tree.getKnownTag(ch)) {
+                    case FORM:
+                        loadInto.setPlaceFormat(parseStringWithCustomFacts(ch));
+                        break;
+                    case SOURCE:
+                        List<AbstractCitation> citations = loadInto.getCitations(true);
+                        new CitationListParser(gedcomParser, tree, ch, citations).parse();
+                        break;
+                    case NOTE:
+                        List<NoteStructure> notes = loadInto.getNoteStructures(true);
+                        new NoteStructureListParser(gedcomParser, tree, ch, notes).parse();
+                        break;
+                    case CONCATENATION:
+                        loadInto.setPlaceName(loadInto.getPlaceName() + (tree.getValue(ch) == null ? "" : tree.getValue(ch)));
+                        break;
+                    case CONTINUATION:
+                        loadInto.setPlaceName(loadInto.getPlaceName() + "\n" + (tree.getValue(ch) == null ? ""
+                                : tree.getValue(ch)));
+                        break;
+                    case ROMANIZED:
+                        if (g55()) {
+                            addWarning("GEDCOM version is 5.5 but a romanized variation was specified on a place on line " + tree
+                                    .getLineNum(ch) + ", which is a GEDCOM 5.5.1 feature."
+                                    + "  Data loaded but cannot be re-written unless GEDCOM version changes.");
+                        }
+                        AbstractNameVariation romanized = new PlaceNameVariation();
+                        loadInto.getRomanized(true).add(romanized);
+                        romanized.setVariation(tree.getValue(ch));
+                        if (tree.hasChildren(ch)) {
+                            for (int gch = tree.getFirstChild(ch); gch != StringTreeArena.NONE; gch = tree.getNextSibling(gch)) {
+                                if (Tag.TYPE.equalsText(tree.getTag(gch))) {
+                                    romanized.setVariationType(parseStringWithCustomFacts(gch));
+                                } else {
+                                    unknownTag(gch, romanized);
+                                }
                             }
                         }
-                    }
-                } else if (Tag.PHONETIC.equalsText(ch.getTag())) {
-                    if (g55()) {
-                        addWarning("GEDCOM version is 5.5 but a phonetic variation was specified on a place on line " + ch
-                                .getLineNum() + ", which is a GEDCOM 5.5.1 feature."
-                                + "  Data loaded but cannot be re-written unless GEDCOM version changes.");
-                    }
-                    AbstractNameVariation nv = new PlaceNameVariation();
-                    loadInto.getPhonetic(true).add(nv);
-                    nv.setVariation(ch.getValue());
-                    if (ch.getChildren() != null) {
-                        for (StringTree gch : ch.getChildren()) {
-                            if (Tag.TYPE.equalsText(gch.getTag())) {
-                                nv.setVariationType(parseStringWithCustomFacts(gch));
-                            } else {
-                                unknownTag(gch, nv);
+                        break;
+                    case PHONETIC:
+                        if (g55()) {
+                            addWarning("GEDCOM version is 5.5 but a phonetic variation was specified on a place on line " + tree
+                                    .getLineNum(ch) + ", which is a GEDCOM 5.5.1 feature."
+                                    + "  Data loaded but cannot be re-written unless GEDCOM version changes.");
+                        }
+                        AbstractNameVariation phonetic = new PlaceNameVariation();
+                        loadInto.getPhonetic(true).add(phonetic);
+                        phonetic.setVariation(tree.getValue(ch));
+                        if (tree.hasChildren(ch)) {
+                            for (int gch = tree.getFirstChild(ch); gch != StringTreeArena.NONE; gch = tree.getNextSibling(gch)) {
+                                if (Tag.TYPE.equalsText(tree.getTag(gch))) {
+                                    phonetic.setVariationType(parseStringWithCustomFacts(gch));
+                                } else {
+                                    unknownTag(gch, phonetic);
+                                }
                             }
                         }
-                    }
-                } else if (Tag.MAP.equalsText(ch.getTag())) {
-                    if (g55()) {
-                        addWarning("GEDCOM version is 5.5 but a map coordinate was specified on a place on line " + ch.getLineNum()
-                                + ", which is a GEDCOM 5.5.1 feature."
-                                + "  Data loaded but cannot be re-written unless GEDCOM version changes.");
-                    }
-                    if (ch.getChildren() != null) {
-                        for (StringTree gch : ch.getChildren()) {
-                            if (Tag.LATITUDE.equalsText(gch.getTag())) {
-                                loadInto.setLatitude(parseStringWithCustomFacts(gch));
-                            } else if (Tag.LONGITUDE.equalsText(gch.getTag())) {
-                                loadInto.setLongitude(parseStringWithCustomFacts(gch));
-                            } else {
-                                unknownTag(gch, loadInto);
+                        break;
+                    case MAP:
+                        if (g55()) {
+                            addWarning("GEDCOM version is 5.5 but a map coordinate was specified on a place on line "
+                                    + tree.getLineNum(ch) + ", which is a GEDCOM 5.5.1 feature."
+                                    + "  Data loaded but cannot be re-written unless GEDCOM version changes.");
+                        }
+                        if (tree.hasChildren(ch)) {
+                            for (int gch = tree.getFirstChild(ch); gch != StringTreeArena.NONE; gch = tree.getNextSibling(gch)) {
+                                if (Tag.LATITUDE.equalsText(tree.getTag(gch))) {
+                                    loadInto.setLatitude(parseStringWithCustomFacts(gch));
+                                } else if (Tag.LONGITUDE.equalsText(tree.getTag(gch))) {
+                                    loadInto.setLongitude(parseStringWithCustomFacts(gch));
+                                } else {
+                                    unknownTag(gch, loadInto);
+                                }
                             }
                         }
-                    }
-                } else {
-                    unknownTag(ch, loadInto);
+                        break;
+                    default:
+                        unknownTag(ch, loadInto);
+                        break;
                 }
             }
         }
@@ -0,0 +1,290 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.parser;
+
+import java.nio.ByteBuffer;
+
+import org.gedcom4j.model.Gedcom;
+import org.gedcom4j.model.XrefMap;
+
+/**
+ * <p>
+ * Counts the root-level records of each type in the bytes of a GEDCOM file, so that the record maps of a {@link Gedcom} can be
+ * sized to fit before the file is parsed. The count is a single pass over the raw bytes looking for lines of the form
+ * <code>0 @xref@ TAG</code>, with no decoding, line splitting or allocation, so it costs a small fraction of what parsing does.
+ * </p>
+ * <p>
+ * The count only understands encodings where the digits, spaces, at-signs and tag letters are single bytes (ASCII, ANSEL and
+ * UTF-8). For UTF-16 data nothing matches and all the counts are zero, which just means nothing gets pre-sized. The count is only a
+ * hint; a malformed file may make it too high or too low without affecting the result of parsing.
+ * </p>
+ * 
+ * @author frizbog
+ */
+final class RecordCounter {
+
+    /**
+     * The size of the chunks the bytes are copied out of the buffer in
+     */
+    private static final int CHUNK_SIZE = 65536;
+
+    /**
+     * The packed bytes of the tag of family records
+     */
+    private static final int FAM = tag("FAM");
+
+    /**
+     * The packed bytes of the tag of individual records
+     */
+    private static final int INDI = tag("INDI");
+
+    /**
+     * The packed bytes of the tag of note records
+     */
+    private static final int NOTE = tag("NOTE");
+
+    /**
+     * The packed bytes of the tag of multimedia records
+     */
+    private static final int OBJE = tag("OBJE");
+
+    /**
+     * The packed bytes of the tag of repository records
+     */
+    private static final int REPO = tag("REPO");
+
+    /**
+     * The packed bytes of the tag of source records
+     */
+    private static final int SOUR = tag("SOUR");
+
+    /**
+     * The packed bytes of the tag of submitter records
+     */
+    private static final int SUBM = tag("SUBM");
+
+    /**
+     * The number of family records
+     */
+    private int families;
+
+    /**
+     * The number of individual records
+     */
+    private int individuals;
+
+    /**
+     * The number of multimedia records
+     */
+    private int multimedia;
+
+    /**
+     * The number of note records
+     */
+    private int notes;
+
+    /**
+     * The number of repository records
+     */
+    private int repositories;
+
+    /**
+     * The number of source records
+     */
+    private int sources;
+
+    /**
+     * The number of submitter records
+     */
+    private int submitters;
+
+    /**
+     * Count the root-level records in the supplied bytes, and make sure the record maps of the supplied {@link Gedcom} have room
+     * for them
+     * 
+     * @param data
+     *            the bytes of the file, from the buffer's position to its limit. The buffer's position and limit are not changed.
+     * @param gedcom
+     *            the gedcom whose record maps are to be sized
+     */
+    static void presize(ByteBuffer data, Gedcom gedcom) {
+        RecordCounter counter = new RecordCounter();
+        counter.count(data);
+        ensureCapacity(gedcom.getFamilies(), counter.families);
+        ensureCapacity(gedcom.getIndividuals(), counter.individuals);
+        ensureCapacity(gedcom.getMultimedia(), counter.multimedia);
+        ensureCapacity(gedcom.getNotes(), counter.notes);
+        ensureCapacity(gedcom.getRepositories(), counter.repositories);
+        ensureCapacity(gedcom.getSources(), counter.sources);
+        ensureCapacity(gedcom.getSubmitters(), counter.submitters);
+    }
+
+    /**
+     * Make sure a record map has room for the specified number of records, if it is a map that can be sized in advance
+     * 
+     * @param map
+     *            the record map
+     * @param capacity
+     *            the number of records there should be room for
+     */
+    private static void ensureCapacity(Object map, int capacity) {
+        if (capacity > 0 && map instanceof XrefMap) {
+            ((XrefMap<?>) map).ensureCapacity(capacity);
+        }
+    }
+
+    /**
+     * Pack the bytes of a tag into an int
+     * 
+     * @param s
+     *            the tag, of up to four ASCII characters
+     * @return the packed bytes
+     */
+    private static int tag(String s) {
+        int result = 0;
+        for (int i = 0; i < s.length(); i++) {
+            result = result << 8 | s.charAt(i);
+        }
+        return result;
+    }
+
+    /**
+     * Count the root-level records in a buffer of bytes. The bytes are copied out in chunks that each end with a line break, so
+     * that no line is split across two chunks (unless it is longer than a whole chunk, which a root-level line never is).
+     * 
+     * @param data
+     *            the bytes, from the buffer's position to its limit
+     */
+    private void count(ByteBuffer data) {
+        ByteBuffer view = data.duplicate();
+        byte[] chunk = new byte[Math.min(CHUNK_SIZE, view.remaining())];
+        int pos = view.position();
+        int limit = view.limit();
+        while (pos < limit) {
+            int len = Math.min(chunk.length, limit - pos);
+            view.position(pos);
+            view.get(chunk, 0, len);
+            int end = len;
+            if (pos + len < limit) {
+                while (end > 0 && chunk[end - 1] != '\n' && chunk[end - 1] != '\r') {
+                    end--;
+                }
+                if (end == 0) {
+                    end = len;
+                }
+            }
+            countLines(chunk, end);
+            pos += end;
+        }
+    }
+
+    /**
+     * Count a record, if it is of a type that is counted
+     * 
+     * @param tag
+     *            the tag of the record, packed into an int
+     */
+    private void countRecord(int tag) {
+        if (tag == INDI) {
+            individuals++;
+        } else if (tag == FAM) {
+            families++;
+        } else if (tag == SOUR) {
+            sources++;
+        } else if (tag == NOTE) {
+            notes++;
+        } else if (tag == OBJE) {
+            multimedia++;
+        } else if (tag == REPO) {
+            repositories++;
+        } else if (tag == SUBM) {
+            submitters++;
+        }
+    }
+
+    /**
+     * Count the root-level records in a chunk of whole lines
+     * 
+     * @param chunk
+     *            the bytes
+     * @param len
+     *            the number of bytes in the chunk
+     */
+    private void countLines(byte[] chunk, int len) {
+        int i = 0;
+        while (i < len) {
+            while (i < len && (chunk[i] == ' ' || chunk[i] == '\t' || chunk[i] == '\n' || chunk[i] == '\r')) {
+                i++;
+            }
+            if (i + 2 < len && chunk[i] == '0' && chunk[i + 1] == ' ' && chunk[i + 2] == '@') {
+                i = readRootLine(chunk, i + 3, len);
+            }
+            // Most of the bytes are in the rest of a line that isn't the start of a record, so skip them in a tight loop
+            while (i < len && chunk[i] != '\n' && chunk[i] != '\r') {
+                i++;
+            }
+        }
+    }
+
+    /**
+     * Read the rest of a root-level line that has an xref, and count the record it starts
+     * 
+     * @param chunk
+     *            the bytes
+     * @param start
+     *            the position of the first character of the xref after the opening at-sign
+     * @param len
+     *            the number of bytes in the chunk
+     * @return the position the line was read up to
+     */
+    private int readRootLine(byte[] chunk, int start, int len) {
+        int i = start;
+        while (i < len && chunk[i] != '@') {
+            if (chunk[i] == '\n' || chunk[i] == '\r') {
+                return i;
+            }
+            i++;
+        }
+        i++;
+        if (i >= len || chunk[i] != ' ') {
+            return i;
+        }
+        i++;
+        int tag = 0;
+        int tagLength = 0;
+        while (i < len && chunk[i] != ' ' && chunk[i] != '\n' && chunk[i] != '\r') {
+            tagLength++;
+            if (tagLength > 4) {
+                return i;
+            }
+            tag = tag << 8 | chunk[i] & 0xFF;
+            i++;
+        }
+        countRecord(tag);
+        return i;
+    }
+}
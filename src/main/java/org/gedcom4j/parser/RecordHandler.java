@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.parser;
+
+import org.gedcom4j.model.ModelElement;
+
+/**
+ * <p>
+ * Receives each root-level record as soon as it has been parsed, when a {@link GedcomParser} is loading in streaming mode (see
+ * {@link GedcomParser#setRecordHandler(RecordHandler)}). Records are handed over in the order they appear in the file, on the thread
+ * that called one of the <code>load</code> methods.
+ * </p>
+ * <p>
+ * In streaming mode the parser keeps nothing once a record has been handed over, so references from one record to another are
+ * not resolved. Instead, the referenced record is a placeholder object with just its xref set - for example,
+ * <code>family.getHusband().getIndividual().getXref()</code> gives the xref of the husband, but the rest of the husband's data is
+ * only available when his own {@link org.gedcom4j.model.Individual} record is handed over.
+ * </p>
+ * 
+ * @author frizbog
+ */
+public interface RecordHandler {
+
+    /**
+     * A root-level record has been parsed
+     * 
+     * @param record
+     *            the record - a {@link org.gedcom4j.model.Header}, {@link org.gedcom4j.model.Submission},
+     *            {@link org.gedcom4j.model.Submitter}, {@link org.gedcom4j.model.Individual}, {@link org.gedcom4j.model.Family},
+     *            {@link org.gedcom4j.model.Source}, {@link org.gedcom4j.model.NoteRecord}, {@link org.gedcom4j.model.Repository},
+     *            {@link org.gedcom4j.model.Multimedia}, or {@link org.gedcom4j.model.Trailer}, or a
+     *            {@link org.gedcom4j.model.CustomFact} for an unrecognized root-level tag
+     */
+    void handleRecord(ModelElement record);
+}
@@ -0,0 +1,414 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.parser;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.gedcom4j.exception.GedcomParserException;
+import org.gedcom4j.io.encoding.Encoding;
+
+/**
+ * <p>
+ * Finds the root-level records in the raw bytes of a GEDCOM file, without decoding or parsing the lines within them. The bytes are
+ * handed over a chunk at a time, so a file of any size can be scanned, and each record is reported to a {@link Listener} once its
+ * end has been found, with its offset, length, first line number, xref and tag.
+ * </p>
+ * <p>
+ * Lines are counted the same way the readers count them, skipping blank ones, so that line numbers match a full load. For the
+ * single-byte and UTF-8 encodings each byte is looked at on its own - multi-byte characters can't be mistaken for line breaks, level
+ * numbers or spaces, since all their bytes have the high bit set.
+ * </p>
+ * 
+ * @author frizbog
+ */
+final class RecordScanner {
+
+    /**
+     * Receives the records found by a {@link RecordScanner}
+     */
+    interface Listener {
+
+        /**
+         * A record has been found
+         * 
+         * @param offset
+         *            the offset of the start of the record's first line
+         * @param length
+         *            the length of the record in bytes, up to the start of the next record or the end of the data
+         * @param lineNum
+         *            the line number of the record's first line
+         * @param xref
+         *            the xref of the record, or null if it has none
+         * @param tag
+         *            the tag of the record
+         * @param bytes
+         *            the bytes of the record, from index 0, if the scanner was asked to keep them; otherwise null. The array is
+         *            reused for the next record.
+         * @throws IOException
+         *             if the record cannot be read
+         * @throws GedcomParserException
+         *             if the scan should stop, such as when the load has been cancelled
+         */
+        void record(long offset, int length, int lineNum, String xref, String tag, byte[] bytes) throws IOException,
+                GedcomParserException;
+    }
+
+    /**
+     * The most characters of a root-level line that are looked at to find its xref and tag
+     */
+    private static final int MAX_ROOT_LINE_PREFIX = 128;
+
+    /**
+     * The listener that is told about each record
+     */
+    private final Listener listener;
+
+    /**
+     * The encoding of the data
+     */
+    private final Encoding encoding;
+
+    /**
+     * The number of bytes per character that line breaks, level numbers, xrefs and tags are written with - 2 for unicode, or 1
+     * for the other encodings
+     */
+    private final int charSize;
+
+    /**
+     * The offset of the next byte to be scanned
+     */
+    private long offset;
+
+    /**
+     * Could there still be a byte order marker to skip?
+     */
+    private boolean atStartOfFile;
+
+    /**
+     * The number of non-blank lines found so far
+     */
+    private int lineNum;
+
+    /**
+     * Is the next character the first of a line?
+     */
+    private boolean atLineStart = true;
+
+    /**
+     * The offset of the start of the current line, if it started with a zero and might be a root-level line
+     */
+    private long zeroLineStart = -1;
+
+    /**
+     * Is the rest of the current line being collected in {@link #rootLine}?
+     */
+    private boolean inRootLine;
+
+    /**
+     * The start of the text of the current record's root-level line, after the level number and space
+     */
+    private final char[] rootLine = new char[MAX_ROOT_LINE_PREFIX];
+
+    /**
+     * The number of characters in {@link #rootLine}
+     */
+    private int rootLineLen;
+
+    /**
+     * The xref of the current record
+     */
+    private String xref;
+
+    /**
+     * The tag of the current record
+     */
+    private String tag;
+
+    /**
+     * The offset of the start of the current record, or -1 if no record has been found yet
+     */
+    private long recordStart = -1;
+
+    /**
+     * The line number of the first line of the current record
+     */
+    private int recordLineNum;
+
+    /**
+     * The zero that starts each root-level line, in the encoding of the data
+     */
+    private final byte[] zero;
+
+    /**
+     * The bytes of the current record, if they're being kept. Null otherwise.
+     */
+    private byte[] recordBytes;
+
+    /**
+     * The number of bytes in {@link #recordBytes}
+     */
+    private int recordBytesLen;
+
+    /**
+     * Constructor
+     * 
+     * @param encoding
+     *            the encoding of the data
+     * @param startOffset
+     *            the offset in the file of the first byte that will be handed over. If this is zero, a byte order marker at the
+     *            start is skipped. Otherwise it must be the start of a line.
+     * @param linesBefore
+     *            the number of non-blank lines in the file before the start offset
+     * @param keepBytes
+     *            should the bytes of each record be handed to the listener?
+     * @param listener
+     *            the listener to tell about each record
+     */
+    RecordScanner(Encoding encoding, long startOffset, int linesBefore, boolean keepBytes, Listener listener) {
+        this.encoding = encoding;
+        charSize = encoding == Encoding.UNICODE_BIG_ENDIAN || encoding == Encoding.UNICODE_LITTLE_ENDIAN ? 2 : 1;
+        if (encoding == Encoding.UNICODE_BIG_ENDIAN) {
+            zero = new byte[] { 0, '0' };
+        } else if (encoding == Encoding.UNICODE_LITTLE_ENDIAN) {
+            zero = new byte[] { '0', 0 };
+        } else {
+            zero = new byte[] { '0' };
+        }
+        offset = startOffset;
+        atStartOfFile = startOffset == 0;
+        lineNum = linesBefore;
+        this.listener = listener;
+        if (keepBytes) {
+            recordBytes = new byte[8192];
+        }
+    }
+
+    /**
+     * Report the last record. Call this once all the data has been scanned.
+     * 
+     * @throws IOException
+     *             if the listener throws one
+     * @throws GedcomParserException
+     *             if the listener throws one
+     */
+    void finish() throws IOException, GedcomParserException {
+        endRootLine();
+        if (recordStart >= 0) {
+            endRecord(offset);
+        }
+    }
+
+    /**
+     * Get the number of non-blank lines found so far, including those before the start offset
+     * 
+     * @return the number of non-blank lines found so far
+     */
+    int getLineCount() {
+        return lineNum;
+    }
+
+    /**
+     * Scan the next chunk of data
+     * 
+     * @param chunk
+     *            the chunk of data
+     * @param len
+     *            the number of bytes in the chunk. This must be a whole number of characters, except perhaps in the last chunk.
+     * @throws IOException
+     *             if the listener throws one
+     * @throws GedcomParserException
+     *             if the listener throws one
+     */
+    void scan(byte[] chunk, int len) throws IOException, GedcomParserException {
+        int i = 0;
+        if (atStartOfFile) {
+            atStartOfFile = false;
+            i = byteOrderMarkerLength(chunk, len);
+            offset += i;
+        }
+        int keptFrom = i;
+        for (; i + charSize <= len; i += charSize, offset += charSize) {
+            int c;
+            if (charSize == 1) {
+                c = chunk[i] & 0xFF;
+            } else if (encoding == Encoding.UNICODE_BIG_ENDIAN) {
+                c = (chunk[i] & 0xFF) << 8 | chunk[i + 1] & 0xFF;
+            } else {
+                c = (chunk[i + 1] & 0xFF) << 8 | chunk[i] & 0xFF;
+            }
+            if (c == '\r' || c == '\n') {
+                atLineStart = true;
+                zeroLineStart = -1;
+                endRootLine();
+            } else if (atLineStart) {
+                if (!Character.isWhitespace(c)) {
+                    atLineStart = false;
+                    lineNum++;
+                    if (c == '0') {
+                        zeroLineStart = offset;
+                    }
+                }
+            } else if (zeroLineStart >= 0) {
+                if (c == ' ') {
+                    // A root-level line, so the previous record ends where this line starts
+                    int lineStartIdx = i - (int) (offset - zeroLineStart);
+                    boolean zeroInPreviousChunk = lineStartIdx < keptFrom;
+                    if (zeroInPreviousChunk) {
+                        // The zero was kept with the previous record, if there was one, so move it over to this one
+                        recordBytesLen = Math.max(0, recordBytesLen - charSize);
+                    } else {
+                        keep(chunk, keptFrom, lineStartIdx - keptFrom);
+                        keptFrom = lineStartIdx;
+                    }
+                    startRecord(zeroLineStart);
+                    if (zeroInPreviousChunk) {
+                        keep(zero, 0, charSize);
+                    }
+                    inRootLine = true;
+                }
+                zeroLineStart = -1;
+            } else if (inRootLine && rootLineLen < MAX_ROOT_LINE_PREFIX) {
+                rootLine[rootLineLen++] = (char) c;
+            }
+        }
+        keep(chunk, keptFrom, len - keptFrom);
+        offset += len - i;
+    }
+
+    /**
+     * Get the length of the byte order marker at the start of the data, if there is one
+     * 
+     * @param chunk
+     *            the first chunk of data
+     * @param len
+     *            the number of bytes in the chunk
+     * @return the length of the byte order marker, or zero if there isn't one
+     */
+    private int byteOrderMarkerLength(byte[] chunk, int len) {
+        if (charSize == 1 && len >= 3 && chunk[0] == (byte) 0xEF && chunk[1] == (byte) 0xBB && chunk[2] == (byte) 0xBF) {
+            return 3;
+        }
+        if (charSize == 2 && len >= 2) {
+            int c = encoding == Encoding.UNICODE_BIG_ENDIAN ? (chunk[0] & 0xFF) << 8 | chunk[1] & 0xFF
+                    : (chunk[1] & 0xFF) << 8 | chunk[0] & 0xFF;
+            if (c == 0xFEFF) {
+                return 2;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Finish collecting the root-level line, if one is being collected, and find its xref and tag
+     */
+    private void endRootLine() {
+        if (!inRootLine) {
+            return;
+        }
+        inRootLine = false;
+        int idx = 0;
+        xref = null;
+        if (rootLineLen > 0 && rootLine[0] == '@') {
+            int space = indexOfSpace(0);
+            xref = new String(rootLine, 0, space);
+            idx = space + 1;
+        }
+        int tagEnd = indexOfSpace(idx);
+        tag = idx < tagEnd ? new String(rootLine, idx, tagEnd - idx) : "";
+        rootLineLen = 0;
+    }
+
+    /**
+     * Report the current record to the listener
+     * 
+     * @param end
+     *            the offset just after the end of the record
+     * @throws IOException
+     *             if the listener throws one
+     * @throws GedcomParserException
+     *             if the listener throws one
+     */
+    private void endRecord(long end) throws IOException, GedcomParserException {
+        listener.record(recordStart, (int) (end - recordStart), recordLineNum, xref, tag, recordBytes);
+        recordBytesLen = 0;
+    }
+
+    /**
+     * Find the next space in the root-level line
+     * 
+     * @param from
+     *            the index to start looking from
+     * @return the index of the next space, or the length of the line if there isn't one
+     */
+    private int indexOfSpace(int from) {
+        int i = from;
+        while (i < rootLineLen && rootLine[i] != ' ') {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Keep some bytes of the current record, if the bytes are being kept
+     * 
+     * @param chunk
+     *            the chunk of data the bytes are in
+     * @param from
+     *            the index of the first byte to keep
+     * @param len
+     *            the number of bytes to keep
+     */
+    private void keep(byte[] chunk, int from, int len) {
+        if (recordBytes == null || recordStart < 0 || len <= 0) {
+            return;
+        }
+        if (recordBytesLen + len > recordBytes.length) {
+            recordBytes = Arrays.copyOf(recordBytes, Math.max(recordBytes.length * 2, recordBytesLen + len));
+        }
+        System.arraycopy(chunk, from, recordBytes, recordBytesLen, len);
+        recordBytesLen += len;
+    }
+
+    /**
+     * A new record has started, so report the previous one
+     * 
+     * @param start
+     *            the offset of the new record
+     * @throws IOException
+     *             if the listener throws one
+     * @throws GedcomParserException
+     *             if the listener throws one
+     */
+    private void startRecord(long start) throws IOException, GedcomParserException {
+        if (recordStart >= 0) {
+            endRecord(start);
+        }
+        recordStart = start;
+        recordLineNum = lineNum;
+    }
+}
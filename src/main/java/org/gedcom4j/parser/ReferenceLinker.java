@@ -0,0 +1,786 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.parser;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.gedcom4j.exception.GedcomParserException;
+import org.gedcom4j.exception.ParserCancelledException;
+import org.gedcom4j.model.AbstractAddressableElement;
+import org.gedcom4j.model.AbstractCitation;
+import org.gedcom4j.model.AbstractEvent;
+import org.gedcom4j.model.Association;
+import org.gedcom4j.model.CitationWithSource;
+import org.gedcom4j.model.CustomFact;
+import org.gedcom4j.model.Family;
+import org.gedcom4j.model.FamilyChild;
+import org.gedcom4j.model.FamilySpouse;
+import org.gedcom4j.model.Gedcom;
+import org.gedcom4j.model.HasCitations;
+import org.gedcom4j.model.HasCustomFacts;
+import org.gedcom4j.model.HasNotes;
+import org.gedcom4j.model.HasXref;
+import org.gedcom4j.model.Header;
+import org.gedcom4j.model.Individual;
+import org.gedcom4j.model.IndividualEvent;
+import org.gedcom4j.model.IndividualReference;
+import org.gedcom4j.model.LdsIndividualOrdinance;
+import org.gedcom4j.model.ModelElement;
+import org.gedcom4j.model.Multimedia;
+import org.gedcom4j.model.MultimediaReference;
+import org.gedcom4j.model.NoteRecord;
+import org.gedcom4j.model.NoteStructure;
+import org.gedcom4j.model.PersonalName;
+import org.gedcom4j.model.Place;
+import org.gedcom4j.model.Repository;
+import org.gedcom4j.model.Source;
+import org.gedcom4j.model.SourceData;
+import org.gedcom4j.model.Submission;
+import org.gedcom4j.model.Submitter;
+import org.gedcom4j.model.SubmitterReference;
+import org.gedcom4j.parser.ReferenceReport.DanglingXref;
+import org.gedcom4j.parser.ReferenceReport.DuplicateXref;
+
+/**
+ * <p>
+ * The link phase of a load, which runs once all the records have been parsed, and checks the references between records to
+ * produce a {@link ReferenceReport}.
+ * </p>
+ * <p>
+ * The records are split into slices, which are checked in parallel on a pool of worker threads (or, with one thread, one after
+ * the other on the calling thread). There are two passes:
+ * </p>
+ * <ol>
+ * <li>Each record is checked to see whether it was defined during the load, or is still the placeholder that
+ * {@link AbstractParser} created when it met a reference to a record it hadn't seen yet. The placeholders are the dangling
+ * xrefs.</li>
+ * <li>Only if there are any dangling xrefs, every record's contents are walked to find the references to them, so the report can
+ * say which records have the dangling references. The walk follows the typed references that the parsers create placeholders
+ * for - the family links of individuals, the individual references of families, citations of sources, notes referring to note
+ * records, multimedia links and references to submitters - through the parts of each record that can hold them.</li>
+ * </ol>
+ * 
+ * @author frizbog
+ */
+@SuppressWarnings({ "PMD.GodClass", "PMD.ExcessiveImports" })
+final class ReferenceLinker {
+
+    /**
+     * The number of root-level objects checked by each task
+     */
+    private static final int SLICE_SIZE = 4096;
+
+    /**
+     * The root-level objects - the header, the submission, then the records in each map
+     */
+    private final List<ModelElement> roots = new ArrayList<>();
+
+    /**
+     * The tag of each root-level object that is a record from one of the maps, or null for the header and submission
+     */
+    private final List<String> rootTags = new ArrayList<>();
+
+    /**
+     * The placeholders of the dangling xrefs
+     */
+    private final Set<ModelElement> placeholders = Collections.newSetFromMap(new IdentityHashMap<ModelElement, Boolean>());
+
+    /**
+     * The worker threads, or null to check everything on the calling thread
+     */
+    private final ExecutorService executor;
+
+    /**
+     * The projection that the gedcom was loaded with, or null if everything was loaded
+     */
+    private final ParseProjection projection;
+
+    /**
+     * Constructor
+     * 
+     * @param gedcom
+     *            the gedcom whose references are to be checked
+     * @param projection
+     *            the projection that the gedcom was loaded with, or null if everything was loaded
+     * @param threads
+     *            the number of threads to check the references on
+     */
+    private ReferenceLinker(Gedcom gedcom, ParseProjection projection, int threads) {
+        this.projection = projection;
+        addRoot(gedcom.getHeader(), null);
+        addRoot(gedcom.getSubmission(), null);
+        addRoots(gedcom.getIndividuals(), Tag.INDIVIDUAL);
+        addRoots(gedcom.getFamilies(), Tag.FAMILY);
+        addRoots(gedcom.getMultimedia(), Tag.OBJECT_MULTIMEDIA);
+        addRoots(gedcom.getNotes(), Tag.NOTE);
+        addRoots(gedcom.getRepositories(), Tag.REPOSITORY);
+        addRoots(gedcom.getSources(), Tag.SOURCE);
+        addRoots(gedcom.getSubmitters(), Tag.SUBMITTER);
+        executor = threads > 1 && roots.size() > SLICE_SIZE ? Executors.newFixedThreadPool(threads,
+                new ParallelRecordLoader.WorkerThreadFactory("gedcom4j-reference-linker-")) : null;
+    }
+
+    /**
+     * Add the records in a previously loaded gedcom to the records that have been defined, for an incremental load that adds to it
+     * 
+     * @param defined
+     *            the records that have been defined
+     * @param previous
+     *            the previously loaded gedcom
+     * @param from
+     *            the checkpoint at the end of the previous load, which knows which of its records were only placeholders
+     */
+    static void addDefined(Set<ModelElement> defined, Gedcom previous, LoadCheckpoint from) {
+        ReferenceLinker linker = new ReferenceLinker(previous, null, 1);
+        for (int i = 0; i < linker.roots.size(); i++) {
+            ModelElement root = linker.roots.get(i);
+            String tag = linker.rootTags.get(i);
+            if (tag != null && !from.isUndefined(tag, ((HasXref) root).getXref())) {
+                defined.add(root);
+            }
+        }
+    }
+
+    /**
+     * Check the references in a gedcom
+     * 
+     * @param gedcom
+     *            the gedcom whose references are to be checked
+     * @param defined
+     *            the records that were defined, rather than just referred to. Any other records in the gedcom's maps are
+     *            placeholders for dangling xrefs.
+     * @param duplicates
+     *            the duplicate xrefs found while parsing, in any order
+     * @param projection
+     *            the projection that the gedcom was loaded with, or null if everything was loaded. Records of types that were
+     *            projected out are only ever placeholders, so they aren't reported as dangling, and aren't walked.
+     * @param threads
+     *            the number of threads to check the references on
+     * @return the report of dangling and duplicate xrefs
+     * @throws GedcomParserException
+     *             if the checking is interrupted
+     */
+    static ReferenceReport link(Gedcom gedcom, Set<ModelElement> defined, List<DuplicateXref> duplicates,
+            ParseProjection projection, int threads) throws GedcomParserException {
+        ReferenceLinker linker = new ReferenceLinker(gedcom, projection, threads);
+        try {
+            List<DanglingXref> dangling = linker.findDangling(defined);
+            List<DuplicateXref> sortedDuplicates = new ArrayList<>(duplicates);
+            Collections.sort(sortedDuplicates, new Comparator<DuplicateXref>() {
+
+                /**
+                 * {@inheritDoc}
+                 */
+                @Override
+                public int compare(DuplicateXref a, DuplicateXref b) {
+                    return Integer.compare(a.getLineNum(), b.getLineNum());
+                }
+            });
+            return new ReferenceReport(dangling, sortedDuplicates);
+        } finally {
+            if (linker.executor != null) {
+                linker.executor.shutdownNow();
+            }
+        }
+    }
+
+    /**
+     * Add a root-level object to be checked
+     * 
+     * @param root
+     *            the root-level object. Ignored if null.
+     * @param tag
+     *            the tag of the record, or null if it isn't a record from one of the maps
+     */
+    private void addRoot(ModelElement root, Tag tag) {
+        if (root != null) {
+            roots.add(root);
+            rootTags.add(tag == null ? null : tag.toString());
+        }
+    }
+
+    /**
+     * Add the records in a map to be checked, unless records of their type were projected out
+     * 
+     * @param records
+     *            the records, keyed by xref
+     * @param tag
+     *            the tag of the records
+     */
+    private void addRoots(Map<String, ? extends ModelElement> records, Tag tag) {
+        if (projection != null && !projection.keepsRecordType(tag.toString())) {
+            return;
+        }
+        for (ModelElement record : records.values()) {
+            addRoot(record, tag);
+        }
+    }
+
+    /**
+     * Find the dangling xrefs, and the records that refer to them
+     * 
+     * @param defined
+     *            the records that were defined, rather than just referred to
+     * @return the dangling xrefs
+     * @throws GedcomParserException
+     *             if the checking is interrupted
+     */
+    private List<DanglingXref> findDangling(final Set<ModelElement> defined) throws GedcomParserException {
+        List<Integer> placeholderIndexes = new ArrayList<>();
+        SliceTask<List<Integer>> findPlaceholders = new SliceTask<List<Integer>>() {
+
+            /**
+             * {@inheritDoc}
+             */
+            @Override
+            public List<Integer> check(int from, int to) {
+                List<Integer> result = new ArrayList<>();
+                for (int i = from; i < to; i++) {
+                    if (rootTags.get(i) != null && !defined.contains(roots.get(i))) {
+                        result.add(i);
+                    }
+                }
+                return result;
+            }
+        };
+        for (List<Integer> slice : runSlices(findPlaceholders)) {
+            placeholderIndexes.addAll(slice);
+        }
+        if (placeholderIndexes.isEmpty()) {
+            return new ArrayList<>(0);
+        }
+        for (int i : placeholderIndexes) {
+            placeholders.add(roots.get(i));
+        }
+
+        SliceTask<Map<ModelElement, List<ModelElement>>> findReferrers = new SliceTask<Map<ModelElement, List<ModelElement>>>() {
+
+            /**
+             * {@inheritDoc}
+             */
+            @Override
+            public Map<ModelElement, List<ModelElement>> check(int from, int to) {
+                ReferrerFinder finder = new ReferrerFinder();
+                for (int i = from; i < to; i++) {
+                    ModelElement root = roots.get(i);
+                    if (!placeholders.contains(root)) {
+                        finder.walk(root);
+                    }
+                }
+                return finder.found;
+            }
+        };
+        Map<ModelElement, List<ModelElement>> referrers = new IdentityHashMap<>();
+        for (Map<ModelElement, List<ModelElement>> slice : runSlices(findReferrers)) {
+            for (Map.Entry<ModelElement, List<ModelElement>> e : slice.entrySet()) {
+                List<ModelElement> list = referrers.get(e.getKey());
+                if (list == null) {
+                    referrers.put(e.getKey(), e.getValue());
+                } else {
+                    list.addAll(e.getValue());
+                }
+            }
+        }
+
+        List<DanglingXref> result = new ArrayList<>(placeholderIndexes.size());
+        for (int i : placeholderIndexes) {
+            ModelElement placeholder = roots.get(i);
+            List<ModelElement> r = referrers.get(placeholder);
+            if (r == null) {
+                r = new ArrayList<>(0);
+            }
+            result.add(new DanglingXref(rootTags.get(i), ((HasXref) placeholder).getXref(), placeholder, r));
+        }
+        return result;
+    }
+
+    /**
+     * Run a task over all the root-level objects, a slice at a time, in parallel if there are worker threads
+     * 
+     * @param task
+     *            the task
+     * @param <T>
+     *            the type of result of each slice
+     * @return the results for each slice, in order
+     * @throws GedcomParserException
+     *             if the checking is interrupted
+     */
+    private <T> List<T> runSlices(final SliceTask<T> task) throws GedcomParserException {
+        List<T> results = new ArrayList<>();
+        if (executor == null) {
+            results.add(task.check(0, roots.size()));
+            return results;
+        }
+        List<Future<T>> futures = new ArrayList<>();
+        for (int start = 0; start < roots.size(); start += SLICE_SIZE) {
+            final int from = start;
+            final int to = Math.min(start + SLICE_SIZE, roots.size());
+            futures.add(executor.submit(new Callable<T>() {
+
+                /**
+                 * {@inheritDoc}
+                 */
+                @Override
+                public T call() {
+                    return task.check(from, to);
+                }
+            }));
+        }
+        try {
+            for (Future<T> f : futures) {
+                results.add(f.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ParserCancelledException("Reference checking was interrupted", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new GedcomParserException(e);
+        }
+        return results;
+    }
+
+    /**
+     * Walks the contents of root-level objects, through the typed references the model has to other records, to find the
+     * references to dangling xrefs. Only the parts of the model that the parsers can put references to records in are walked.
+     */
+    @SuppressWarnings("PMD.TooManyMethods")
+    private final class ReferrerFinder {
+
+        /**
+         * Where to note the references to dangling xrefs, as lists of the root-level objects containing them
+         */
+        private final Map<ModelElement, List<ModelElement>> found = new IdentityHashMap<>();
+
+        /**
+         * The root-level object being walked
+         */
+        private ModelElement root;
+
+        /**
+         * Walk the associations of an individual
+         * 
+         * @param associations
+         *            the associations. Ignored if null.
+         */
+        private void associations(List<Association> associations) {
+            if (associations != null) {
+                for (Association a : associations) {
+                    element(a);
+                    citations(a.getCitations());
+                }
+            }
+        }
+
+        /**
+         * Walk a list of citations, which can refer to sources and multimedia
+         * 
+         * @param citations
+         *            the citations. Ignored if null.
+         */
+        private void citations(List<AbstractCitation> citations) {
+            if (citations != null) {
+                for (AbstractCitation c : citations) {
+                    element(c);
+                    multimedia(c.getMultimedia());
+                    if (c instanceof CitationWithSource) {
+                        refer(((CitationWithSource) c).getSource());
+                        elements(((CitationWithSource) c).getData());
+                    }
+                }
+            }
+        }
+
+        /**
+         * Walk a list of custom facts, which can have notes, citations and a place
+         * 
+         * @param customFacts
+         *            the custom facts. Ignored if null.
+         */
+        private void customFacts(List<CustomFact> customFacts) {
+            if (customFacts != null) {
+                for (CustomFact cf : customFacts) {
+                    element(cf);
+                    element(cf.getChangeDate());
+                    place(cf.getPlace());
+                }
+            }
+        }
+
+        /**
+         * Walk the parts that many model objects have in common - notes, citations, an address and custom facts
+         * 
+         * @param element
+         *            the model object. Ignored if null.
+         */
+        private void element(ModelElement element) {
+            if (element == null) {
+                return;
+            }
+            if (element instanceof HasNotes) {
+                notes(((HasNotes) element).getNoteStructures());
+            }
+            if (element instanceof HasCitations) {
+                citations(((HasCitations) element).getCitations());
+            }
+            if (element instanceof AbstractAddressableElement) {
+                element(((AbstractAddressableElement) element).getAddress());
+            }
+            if (element instanceof HasCustomFacts) {
+                customFacts(((HasCustomFacts) element).getCustomFacts());
+            }
+        }
+
+        /**
+         * Walk a list of model objects that have no references of their own beyond those of {@link #element(ModelElement)}
+         * 
+         * @param elements
+         *            the model objects. Ignored if null.
+         */
+        private void elements(List<? extends ModelElement> elements) {
+            if (elements != null) {
+                for (ModelElement e : elements) {
+                    element(e);
+                }
+            }
+        }
+
+        /**
+         * Walk a list of events or attributes, which can refer to multimedia, and (for individual events) to a family
+         * 
+         * @param events
+         *            the events. Ignored if null.
+         */
+        private void events(List<? extends AbstractEvent> events) {
+            if (events != null) {
+                for (AbstractEvent e : events) {
+                    element(e);
+                    multimedia(e.getMultimedia());
+                    place(e.getPlace());
+                    if (e instanceof IndividualEvent) {
+                        familyChild(((IndividualEvent) e).getFamily());
+                    }
+                }
+            }
+        }
+
+        /**
+         * Walk a family's references to its spouses, children and submitters, and the parts of the family that can have
+         * references
+         * 
+         * @param family
+         *            the family
+         */
+        private void family(Family family) {
+            individualReference(family.getHusband());
+            individualReference(family.getWife());
+            if (family.getChildren() != null) {
+                for (IndividualReference child : family.getChildren()) {
+                    individualReference(child);
+                }
+            }
+            if (family.getSubmitters() != null) {
+                for (SubmitterReference s : family.getSubmitters()) {
+                    refer(s.getSubmitter());
+                    element(s);
+                }
+            }
+            events(family.getEvents());
+            elements(family.getLdsSpouseSealings());
+            multimedia(family.getMultimedia());
+            element(family.getChangeDate());
+        }
+
+        /**
+         * Walk a link from an individual to a family they are a child in
+         * 
+         * @param familyChild
+         *            the link. Ignored if null.
+         */
+        private void familyChild(FamilyChild familyChild) {
+            if (familyChild != null) {
+                refer(familyChild.getFamily());
+                element(familyChild);
+            }
+        }
+
+        /**
+         * Walk the links from an individual to the families they are a spouse in
+         * 
+         * @param familiesWhereSpouse
+         *            the links. Ignored if null.
+         */
+        private void familySpouses(List<FamilySpouse> familiesWhereSpouse) {
+            if (familiesWhereSpouse != null) {
+                for (FamilySpouse fs : familiesWhereSpouse) {
+                    refer(fs.getFamily());
+                    element(fs);
+                }
+            }
+        }
+
+        /**
+         * Walk an individual's references to families and submitters, and the parts of the individual that can have references
+         * 
+         * @param individual
+         *            the individual
+         */
+        private void individual(Individual individual) {
+            if (individual.getFamiliesWhereChild() != null) {
+                for (FamilyChild fc : individual.getFamiliesWhereChild()) {
+                    familyChild(fc);
+                }
+            }
+            familySpouses(individual.getFamiliesWhereSpouse());
+            records(individual.getAncestorInterest());
+            records(individual.getDescendantInterest());
+            records(individual.getSubmitters());
+            names(individual.getNames());
+            events(individual.getEvents());
+            events(individual.getAttributes());
+            associations(individual.getAssociations());
+            if (individual.getLdsIndividualOrdinances() != null) {
+                for (LdsIndividualOrdinance o : individual.getLdsIndividualOrdinances()) {
+                    element(o);
+                    familyChild(o.getFamilyWhereChild());
+                }
+            }
+            multimedia(individual.getMultimedia());
+            element(individual.getChangeDate());
+        }
+
+        /**
+         * Walk a reference from a family to an individual
+         * 
+         * @param reference
+         *            the reference. Ignored if null.
+         */
+        private void individualReference(IndividualReference reference) {
+            if (reference != null) {
+                refer(reference.getIndividual());
+                element(reference);
+            }
+        }
+
+        /**
+         * Walk a list of links to multimedia
+         * 
+         * @param multimedia
+         *            the links. Ignored if null.
+         */
+        private void multimedia(List<MultimediaReference> multimedia) {
+            if (multimedia != null) {
+                for (MultimediaReference m : multimedia) {
+                    multimediaReference(m);
+                }
+            }
+        }
+
+        /**
+         * Walk a link to a multimedia record
+         * 
+         * @param reference
+         *            the link. Ignored if null.
+         */
+        private void multimediaReference(MultimediaReference reference) {
+            if (reference != null) {
+                refer(reference.getMultimedia());
+                element(reference);
+            }
+        }
+
+        /**
+         * Walk an individual's names and their variations
+         * 
+         * @param names
+         *            the names. Ignored if null.
+         */
+        private void names(List<PersonalName> names) {
+            if (names != null) {
+                for (PersonalName n : names) {
+                    element(n);
+                    elements(n.getPhonetic());
+                    elements(n.getRomanized());
+                }
+            }
+        }
+
+        /**
+         * Walk a list of notes, which can refer to note records
+         * 
+         * @param notes
+         *            the notes. Ignored if null.
+         */
+        private void notes(List<NoteStructure> notes) {
+            if (notes != null) {
+                for (NoteStructure n : notes) {
+                    refer(n.getNoteReference());
+                    element(n);
+                }
+            }
+        }
+
+        /**
+         * Walk a place and its variations
+         * 
+         * @param place
+         *            the place. Ignored if null.
+         */
+        private void place(Place place) {
+            if (place != null) {
+                element(place);
+                elements(place.getPhonetic());
+                elements(place.getRomanized());
+            }
+        }
+
+        /**
+         * Walk a list of records that are referred to directly
+         * 
+         * @param records
+         *            the records. Ignored if null.
+         */
+        private void records(List<? extends ModelElement> records) {
+            if (records != null) {
+                for (ModelElement r : records) {
+                    refer(r);
+                }
+            }
+        }
+
+        /**
+         * Note a reference to a record, if the record is the placeholder for a dangling xref
+         * 
+         * @param record
+         *            the record referred to. Ignored if null.
+         */
+        private void refer(ModelElement record) {
+            if (record == null || !placeholders.contains(record)) {
+                return;
+            }
+            List<ModelElement> list = found.get(record);
+            if (list == null) {
+                list = new ArrayList<>(1);
+                found.put(record, list);
+            }
+            if (list.isEmpty() || list.get(list.size() - 1) != root) {
+                list.add(root);
+            }
+        }
+
+        /**
+         * Walk a source's references to multimedia, and the parts of the source that can have references
+         * 
+         * @param source
+         *            the source
+         */
+        private void source(Source source) {
+            multimedia(source.getMultimedia());
+            SourceData data = source.getData();
+            if (data != null) {
+                element(data);
+                elements(data.getEventsRecorded());
+            }
+            element(source.getRepositoryCitation());
+            element(source.getChangeDate());
+        }
+
+        /**
+         * Walk a root-level object, noting the references to dangling xrefs in it
+         * 
+         * @param rootLevelObject
+         *            the root-level object
+         */
+        private void walk(ModelElement rootLevelObject) {
+            root = rootLevelObject;
+            element(rootLevelObject);
+            if (rootLevelObject instanceof Individual) {
+                individual((Individual) rootLevelObject);
+            } else if (rootLevelObject instanceof Family) {
+                family((Family) rootLevelObject);
+            } else if (rootLevelObject instanceof Source) {
+                source((Source) rootLevelObject);
+            } else if (rootLevelObject instanceof Multimedia) {
+                Multimedia m = (Multimedia) rootLevelObject;
+                multimediaReference(m.getContinuedObject());
+                element(m.getChangeDate());
+            } else if (rootLevelObject instanceof Submitter) {
+                multimedia(((Submitter) rootLevelObject).getMultimedia());
+                element(((Submitter) rootLevelObject).getChangeDate());
+            } else if (rootLevelObject instanceof NoteRecord) {
+                element(((NoteRecord) rootLevelObject).getChangeDate());
+            } else if (rootLevelObject instanceof Repository) {
+                element(((Repository) rootLevelObject).getChangeDate());
+            } else if (rootLevelObject instanceof Header) {
+                SubmitterReference s = ((Header) rootLevelObject).getSubmitterReference();
+                if (s != null) {
+                    refer(s.getSubmitter());
+                    element(s);
+                }
+            } else if (rootLevelObject instanceof Submission) {
+                refer(((Submission) rootLevelObject).getSubmitter());
+            }
+        }
+    }
+
+    /**
+     * A check done on a slice of the root-level objects
+     * 
+     * @param <T>
+     *            the type of result of the check
+     */
+    private interface SliceTask<T> {
+
+        /**
+         * Check a slice of the root-level objects
+         * 
+         * @param from
+         *            the index of the first root-level object in the slice
+         * @param to
+         *            the index just after the last root-level object in the slice
+         * @return the result of the check
+         */
+        T check(int from, int to);
+    }
+}
@@ -0,0 +1,274 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.parser;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.gedcom4j.model.ModelElement;
+
+/**
+ * <p>
+ * A report of the cross-references in a loaded {@link org.gedcom4j.model.Gedcom} that don't lead anywhere useful, produced by the
+ * link phase at the end of {@link GedcomParser#load(String)} and the other load methods. See
+ * {@link GedcomParser#getReferenceReport()}.
+ * </p>
+ * <p>
+ * References from one record to another (for example, from a {@link org.gedcom4j.model.FamilyChild} to its
+ * {@link org.gedcom4j.model.Family}) point straight at the record's object. When a reference is parsed before the record it points
+ * to, the object starts out as a placeholder with only its xref set, and is filled in when the record itself is parsed. A
+ * placeholder that never gets filled in is a <i>dangling</i> reference - the file refers to a record that isn't in it. A
+ * <i>duplicate</i> is the opposite problem: two records with the same tag and xref, which are loaded into the same object.
+ * </p>
+ * 
+ * @author frizbog
+ */
+public final class ReferenceReport {
+
+    /**
+     * A record that is referred to but never defined
+     */
+    public static final class DanglingXref {
+
+        /**
+         * The tag of the type of record referred to
+         */
+        private final String tag;
+
+        /**
+         * The xref referred to
+         */
+        private final String xref;
+
+        /**
+         * The placeholder object for the record, which references point to
+         */
+        private final ModelElement placeholder;
+
+        /**
+         * The root-level objects whose contents refer to the record
+         */
+        private final List<ModelElement> referrers;
+
+        /**
+         * Constructor
+         * 
+         * @param tag
+         *            the tag of the type of record referred to
+         * @param xref
+         *            the xref referred to
+         * @param placeholder
+         *            the placeholder object for the record, which references point to
+         * @param referrers
+         *            the root-level objects whose contents refer to the record
+         */
+        DanglingXref(String tag, String xref, ModelElement placeholder, List<ModelElement> referrers) {
+            this.tag = tag;
+            this.xref = xref;
+            this.placeholder = placeholder;
+            this.referrers = Collections.unmodifiableList(referrers);
+        }
+
+        /**
+         * Get the placeholder object for the record, which is in the {@link org.gedcom4j.model.Gedcom}'s map of records of its type
+         * and which the references point to
+         * 
+         * @return the placeholder object for the record
+         */
+        public ModelElement getPlaceholder() {
+            return placeholder;
+        }
+
+        /**
+         * Get the root-level objects whose contents refer to the record - the records (and the header or submission) with a
+         * reference to it somewhere inside them, in the order they are found in the {@link org.gedcom4j.model.Gedcom}. A record
+         * that is in a map but not referred to by anything has no referrers.
+         * 
+         * @return the root-level objects whose contents refer to the record. Not modifiable.
+         */
+        public List<ModelElement> getReferrers() {
+            return referrers;
+        }
+
+        /**
+         * Get the tag of the type of record referred to - for example, <code>FAM</code> for a family
+         * 
+         * @return the tag of the type of record referred to
+         */
+        public String getTag() {
+            return tag;
+        }
+
+        /**
+         * Get the xref referred to
+         * 
+         * @return the xref referred to
+         */
+        public String getXref() {
+            return xref;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public String toString() {
+            return "DanglingXref [tag=" + tag + ", xref=" + xref + ", referrers=" + referrers.size() + "]";
+        }
+    }
+
+    /**
+     * A record whose tag and xref are the same as an earlier record's
+     */
+    public static final class DuplicateXref {
+
+        /**
+         * The tag of the record
+         */
+        private final String tag;
+
+        /**
+         * The xref of the record
+         */
+        private final String xref;
+
+        /**
+         * The line number of the first line of the duplicate record
+         */
+        private final int lineNum;
+
+        /**
+         * Constructor
+         * 
+         * @param tag
+         *            the tag of the record
+         * @param xref
+         *            the xref of the record
+         * @param lineNum
+         *            the line number of the first line of the duplicate record
+         */
+        DuplicateXref(String tag, String xref, int lineNum) {
+            this.tag = tag;
+            this.xref = xref;
+            this.lineNum = lineNum;
+        }
+
+        /**
+         * Get the line number of the first line of the duplicate record (not the earlier record it duplicates)
+         * 
+         * @return the line number of the first line of the duplicate record
+         */
+        public int getLineNum() {
+            return lineNum;
+        }
+
+        /**
+         * Get the tag of the record
+         * 
+         * @return the tag of the record
+         */
+        public String getTag() {
+            return tag;
+        }
+
+        /**
+         * Get the xref of the record
+         * 
+         * @return the xref of the record
+         */
+        public String getXref() {
+            return xref;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public String toString() {
+            return "DuplicateXref [tag=" + tag + ", xref=" + xref + ", lineNum=" + lineNum + "]";
+        }
+    }
+
+    /**
+     * The records that are referred to but never defined
+     */
+    private final List<DanglingXref> dangling;
+
+    /**
+     * The records with the same tag and xref as an earlier record
+     */
+    private final List<DuplicateXref> duplicates;
+
+    /**
+     * Constructor
+     * 
+     * @param dangling
+     *            the records that are referred to but never defined
+     * @param duplicates
+     *            the records with the same tag and xref as an earlier record
+     */
+    ReferenceReport(List<DanglingXref> dangling, List<DuplicateXref> duplicates) {
+        this.dangling = Collections.unmodifiableList(dangling);
+        this.duplicates = Collections.unmodifiableList(duplicates);
+    }
+
+    /**
+     * Get the records that are referred to but never defined, in the order they are found in the
+     * {@link org.gedcom4j.model.Gedcom}'s maps (individuals, families, multimedia, notes, repositories, sources, then submitters)
+     * 
+     * @return the records that are referred to but never defined. Not modifiable.
+     */
+    public List<DanglingXref> getDangling() {
+        return dangling;
+    }
+
+    /**
+     * Get the records with the same tag and xref as an earlier record, in file order
+     * 
+     * @return the records with the same tag and xref as an earlier record. Not modifiable.
+     */
+    public List<DuplicateXref> getDuplicates() {
+        return duplicates;
+    }
+
+    /**
+     * Are there no dangling or duplicate xrefs?
+     * 
+     * @return true if every reference leads to a record, and no two records have the same tag and xref
+     */
+    public boolean isClean() {
+        return dangling.isEmpty() && duplicates.isEmpty();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return "ReferenceReport [dangling=" + dangling + ", duplicates=" + duplicates + "]";
+    }
+}
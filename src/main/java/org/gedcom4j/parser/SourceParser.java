@@ -37,7 +37,6 @@ import org.gedcom4j.model.RepositoryCitation;
 import org.gedcom4j.model.Source;
 import org.gedcom4j.model.SourceCallNumber;
 import org.gedcom4j.model.SourceData;
-import org.gedcom4j.model.StringTree;
 import org.gedcom4j.model.StringWithCustomFacts;
 import org.gedcom4j.model.UserReference;
 
@@ -53,60 +52,76 @@ class SourceParser extends AbstractParser<Source> {
      * 
      * @param gedcomParser
      *            a reference to the root {@link GedcomParser}
-     * @param stringTree
-     *            {@link StringTree} to be parsed
+     * @param tree
+     *            the tree of lines being parsed
+     * @param node
+     *            the node in the tree to be parsed
      * @param loadInto
      *            the object we are loading data into
      */
-    SourceParser(GedcomParser gedcomParser, StringTree stringTree, Source loadInto) {
-        super(gedcomParser, stringTree, loadInto);
+    SourceParser(GedcomParser gedcomParser, StringTreeArena tree, int node, Source loadInto) {
+        super(gedcomParser, tree, node, loadInto);
     }
 
     @Override
     void parse() {
-        if (stringTree.getChildren() != null) {
-            for (StringTree ch : stringTree.getChildren()) {
-                if (Tag.DATA_FOR_SOURCE.equalsText(ch.getTag())) {
-                    loadInto.setData(new SourceData());
-                    loadSourceData(ch, loadInto.getData());
-                } else if (Tag.TITLE.equalsText(ch.getTag())) {
-                    MultiStringWithCustomFacts title = new MultiStringWithCustomFacts();
-                    loadInto.setTitle(title);
-                    loadMultiStringWithCustomFacts(ch, title);
-                } else if (Tag.PUBLICATION_FACTS.equalsText(ch.getTag())) {
-                    MultiStringWithCustomFacts publicationFacts = new MultiStringWithCustomFacts();
-                    loadInto.setPublicationFacts(publicationFacts);
-                    loadMultiStringWithCustomFacts(ch, publicationFacts);
-                } else if (Tag.TEXT.equalsText(ch.getTag())) {
-                    MultiStringWithCustomFacts srcText = new MultiStringWithCustomFacts();
-                    loadInto.setSourceText(srcText);
-                    loadMultiStringWithCustomFacts(ch, srcText);
-                } else if (Tag.ABBREVIATION.equalsText(ch.getTag())) {
-                    loadInto.setSourceFiledBy(parseStringWithCustomFacts(ch));
-                } else if (Tag.AUTHORS.equalsText(ch.getTag())) {
-                    MultiStringWithCustomFacts originatorsAuthors = new MultiStringWithCustomFacts();
-                    loadInto.setOriginatorsAuthors(originatorsAuthors);
-                    loadMultiStringWithCustomFacts(ch, originatorsAuthors);
-                } else if (Tag.REPOSITORY.equalsText(ch.getTag())) {
-                    loadInto.setRepositoryCitation(loadRepositoryCitation(ch));
-                } else if (Tag.NOTE.equalsText(ch.getTag())) {
-                    List<NoteStructure> notes = loadInto.getNoteStructures(true);
-                    new NoteStructureListParser(gedcomParser, ch, notes).parse();
-                } else if (Tag.OBJECT_MULTIMEDIA.equalsText(ch.getTag())) {
-                    List<MultimediaReference> multimedia = loadInto.getMultimedia(true);
-                    new MultimediaLinkParser(gedcomParser, ch, multimedia).parse();
-                } else if (Tag.REFERENCE.equalsText(ch.getTag())) {
-                    UserReference u = new UserReference();
-                    loadInto.getUserReferences(true).add(u);
-                    new UserReferenceParser(gedcomParser, ch, u).parse();
-                } else if (Tag.RECORD_ID_NUMBER.equalsText(ch.getTag())) {
-                    loadInto.setRecIdNumber(parseStringWithCustomFacts(ch));
-                } else if (Tag.CHANGED_DATETIME.equalsText(ch.getTag())) {
-                    ChangeDate changeDate = new ChangeDate();
-                    loadInto.setChangeDate(changeDate);
-                    new ChangeDateParser(gedcomParser, ch, changeDate).parse();
-                } else {
-                    unknownTag(ch, loadInto);
+        if (tree.hasChildren(node)) {
+            for (int ch = tree.getFirstChild(node); ch != StringTreeArena.NONE; ch = tree.getNextSibling(ch)) {
+                switch (tree.getKnownTag(ch)) {
+                    case DATA:
+                        loadInto.setData(new SourceData());
+                        loadSourceData(ch, loadInto.getData());
+                        break;
+                    case TITLE:
+                        MultiStringWithCustomFacts title = new MultiStringWithCustomFacts();
+                        loadInto.setTitle(title);
+                        loadMultiStringWithCustomFacts(ch, title);
+                        break;
+                    case PUBLICATION_FACTS:
+                        MultiStringWithCustomFacts publicationFacts = new MultiStringWithCustomFacts();
+                        loadInto.setPublicationFacts(publicationFacts);
+                        loadMultiStringWithCustomFacts(ch, publicationFacts);
+                        break;
+                    case TEXT:
+                        MultiStringWithCustomFacts srcText = new MultiStringWithCustomFacts();
+                        loadInto.setSourceText(srcText);
+                        loadMultiStringWithCustomFacts(ch, srcText);
+                        break;
+                    case ABBREVIATION:
+                        loadInto.setSourceFiledBy(parseStringWithCustomFacts(ch));
+                        break;
+                    case AUTHORS:
+                        MultiStringWithCustomFacts originatorsAuthors = new MultiStringWithCustomFacts();
+                        loadInto.setOriginatorsAuthors(originatorsAuthors);
+                        loadMultiStringWithCustomFacts(ch, originatorsAuthors);
+                        break;
+                    case REPOSITORY:
+                        loadInto.setRepositoryCitation(loadRepositoryCitation(ch));
+                        break;
+                    case NOTE:
+                        List<NoteStructure> notes = loadInto.getNoteStructures(true);
+                        new NoteStructureListParser(gedcomParser, tree, ch, notes).parse();
+                        break;
+                    case OBJECT_MULTIMEDIA:
+                        List<MultimediaReference> multimedia = loadInto.getMultimedia(true);
+                        new MultimediaLinkParser(gedcomParser, tree, ch, multimedia).parse();
+                        break;
+                    case REFERENCE:
+                        UserReference u = new UserReference();
+                        loadInto.getUserReferences(true).add(u);
+                        new UserReferenceParser(gedcomParser, tree, ch, u).parse();
+                        break;
+                    case RECORD_ID_NUMBER:
+                        loadInto.setRecIdNumber(parseStringWithCustomFacts(ch));
+                        break;
+                    case CHANGED_DATETIME:
+                        ChangeDate changeDate = new ChangeDate();
+                        loadInto.setChangeDate(changeDate);
+                        new ChangeDateParser(gedcomParser, tree, ch, changeDate).parse();
+                        break;
+                    default:
+                        unknownTag(ch, loadInto);
+                        break;
                 }
             }
         }
@@ -119,21 +134,21 @@ class SourceParser extends AbstractParser<Source> {
      *            the node
      * @return the RepositoryCitation loaded
      */
-    private RepositoryCitation loadRepositoryCitation(StringTree repo) {
+    private RepositoryCitation loadRepositoryCitation(int repo) {
         RepositoryCitation r = new RepositoryCitation();
-        r.setRepositoryXref(repo.getValue());
-        if (repo.getChildren() != null) {
-            for (StringTree ch : repo.getChildren()) {
-                if (Tag.NOTE.equalsText(ch.getTag())) {
+        r.setRepositoryXref(tree.getValue(repo));
+        if (tree.hasChildren(repo)) {
+            for (int ch = tree.getFirstChild(repo); ch != StringTreeArena.NONE; ch = tree.getNextSibling(ch)) {
+                if (Tag.NOTE.equalsText(tree.getTag(ch))) {
                     List<NoteStructure> notes = r.getNoteStructures(true);
-                    new NoteStructureListParser(gedcomParser, ch, notes).parse();
-                } else if (Tag.CALL_NUMBER.equalsText(ch.getTag())) {
+                    new NoteStructureListParser(gedcomParser, tree, ch, notes).parse();
+                } else if (Tag.CALL_NUMBER.equalsText(tree.getTag(ch))) {
                     SourceCallNumber scn = new SourceCallNumber();
                     r.getCallNumbers(true).add(scn);
-                    scn.setCallNumber(new StringWithCustomFacts(ch.getValue()));
-                    if (ch.getChildren() != null) {
-                        for (StringTree gch : ch.getChildren()) {
-                            if (Tag.MEDIA.equalsText(gch.getTag())) {
+                    scn.setCallNumber(new StringWithCustomFacts(tree.getValue(ch)));
+                    if (tree.hasChildren(ch)) {
+                        for (int gch = tree.getFirstChild(ch); gch != StringTreeArena.NONE; gch = tree.getNextSibling(gch)) {
+                            if (Tag.MEDIA.equalsText(tree.getTag(gch))) {
                                 scn.setMediaType(parseStringWithCustomFacts(gch));
                             } else {
                                 unknownTag(gch, scn.getCallNumber());
@@ -156,18 +171,23 @@ class SourceParser extends AbstractParser<Source> {
      * @param sourceData
      *            the source data structure
      */
-    private void loadSourceData(StringTree dataNode, SourceData sourceData) {
-        if (dataNode.getChildren() != null) {
-            for (StringTree ch : dataNode.getChildren()) {
-                if (Tag.EVENT.equalsText(ch.getTag())) {
-                    loadSourceDataEventRecorded(ch, sourceData);
-                } else if (Tag.NOTE.equalsText(ch.getTag())) {
-                    List<NoteStructure> notes = sourceData.getNoteStructures(true);
-                    new NoteStructureListParser(gedcomParser, ch, notes).parse();
-                } else if (Tag.AGENCY.equalsText(ch.getTag())) {
-                    sourceData.setRespAgency(parseStringWithCustomFacts(ch));
-                } else {
-                    unknownTag(ch, sourceData);
+    private void loadSourceData(int dataNode, SourceData sourceData) {
+        if (tree.hasChildren(dataNode)) {
+            for (int ch = tree.getFirstChild(dataNode); ch != StringTreeArena.NONE; ch = tree.getNextSibling(ch)) {
+                switch (tree.getKnownTag(ch)) {
+                    case EVENT:
+                        loadSourceDataEventRecorded(ch, sourceData);
+                        break;
+                    case NOTE:
+                        List<NoteStructure> notes = sourceData.getNoteStructures(true);
+                        new NoteStructureListParser(gedcomParser, tree, ch, notes).parse();
+                        break;
+                    case AGENCY:
+                        sourceData.setRespAgency(parseStringWithCustomFacts(ch));
+                        break;
+                    default:
+                        unknownTag(ch, sourceData);
+                        break;
                 }
             }
         }
@@ -181,15 +201,15 @@ class SourceParser extends AbstractParser<Source> {
      * @param sourceData
      *            the source data
      */
-    private void loadSourceDataEventRecorded(StringTree dataNode, SourceData sourceData) {
+    private void loadSourceDataEventRecorded(int dataNode, SourceData sourceData) {
         EventRecorded e = new EventRecorded();
         sourceData.getEventsRecorded(true).add(e);
-        e.setEventType(dataNode.getValue());
-        if (dataNode.getChildren() != null) {
-            for (StringTree ch : dataNode.getChildren()) {
-                if (Tag.DATE.equalsText(ch.getTag())) {
+        e.setEventType(tree.getValue(dataNode));
+        if (tree.hasChildren(dataNode)) {
+            for (int ch = tree.getFirstChild(dataNode); ch != StringTreeArena.NONE; ch = tree.getNextSibling(ch)) {
+                if (Tag.DATE.equalsText(tree.getTag(ch))) {
                     e.setDatePeriod(parseStringWithCustomFacts(ch));
-                } else if (Tag.PLACE.equalsText(ch.getTag())) {
+                } else if (Tag.PLACE.equalsText(tree.getTag(ch))) {
                     e.setJurisdiction(parseStringWithCustomFacts(ch));
                 } else {
                     unknownTag(ch, e);
@@ -29,7 +29,6 @@ package org.gedcom4j.parser;
 import org.gedcom4j.model.Corporation;
 import org.gedcom4j.model.HeaderSourceData;
 import org.gedcom4j.model.SourceSystem;
-import org.gedcom4j.model.StringTree;
 
 /**
  * A parser for {@link SourceSystem} objects
@@ -43,13 +42,15 @@ class SourceSystemParser extends AbstractParser<SourceSystem> {
      * 
      * @param gedcomParser
      *            a reference to the root {@link GedcomParser}
-     * @param stringTree
-     *            {@link StringTree} to be parsed
+     * @param tree
+     *            the tree of lines being parsed
+     * @param node
+     *            the node in the tree to be parsed
      * @param loadInto
      *            the object we are loading data into
      */
-    SourceSystemParser(GedcomParser gedcomParser, StringTree stringTree, SourceSystem loadInto) {
-        super(gedcomParser, stringTree, loadInto);
+    SourceSystemParser(GedcomParser gedcomParser, StringTreeArena tree, int node, SourceSystem loadInto) {
+        super(gedcomParser, tree, node, loadInto);
     }
 
     /**
@@ -57,23 +58,29 @@ class SourceSystemParser extends AbstractParser<SourceSystem> {
      */
     @Override
     void parse() {
-        loadInto.setSystemId(stringTree.getValue());
-        if (stringTree.getChildren() != null) {
-            for (StringTree ch : stringTree.getChildren()) {
-                if (Tag.VERSION.equalsText(ch.getTag())) {
-                    loadInto.setVersionNum(parseStringWithCustomFacts(ch));
-                } else if (Tag.NAME.equalsText(ch.getTag())) {
-                    loadInto.setProductName(parseStringWithCustomFacts(ch));
-                } else if (Tag.CORPORATION.equalsText(ch.getTag())) {
-                    Corporation corporation = new Corporation();
-                    loadInto.setCorporation(corporation);
-                    new CorporationParser(gedcomParser, ch, corporation).parse();
-                } else if (Tag.DATA_FOR_CITATION.equalsText(ch.getTag())) {
-                    HeaderSourceData headerSourceData = new HeaderSourceData();
-                    loadInto.setSourceData(headerSourceData);
-                    new HeaderSourceDataParser(gedcomParser, ch, headerSourceData).parse();
-                } else {
-                    unknownTag(ch, loadInto);
+        loadInto.setSystemId(tree.getValue(node));
+        if (tree.hasChildren(node)) {
+            for (int ch = tree.getFirstChild(node); ch != StringTreeArena.NONE; ch = tree.getNextSibling(ch)) {
+                switch (tree.getKnownTag(ch)) {
+                    case VERSION:
+                        loadInto.setVersionNum(parseStringWithCustomFacts(ch));
+                        break;
+                    case NAME:
+                        loadInto.setProductName(parseStringWithCustomFacts(ch));
+                        break;
+                    case CORPORATION:
+                        Corporation corporation = new Corporation();
+                        loadInto.setCorporation(corporation);
+                        new CorporationParser(gedcomParser, tree, ch, corporation).parse();
+                        break;
+                    case DATA:
+                        HeaderSourceData headerSourceData = new HeaderSourceData();
+                        loadInto.setSourceData(headerSourceData);
+                        new HeaderSourceDataParser(gedcomParser, tree, ch, headerSourceData).parse();
+                        break;
+                    default:
+                        unknownTag(ch, loadInto);
+                        break;
                 }
             }
         }
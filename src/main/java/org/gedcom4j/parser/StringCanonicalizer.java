@@ -28,16 +28,31 @@ package org.gedcom4j.parser;
 
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
- * A class to handle canonical strings, to reduce memory consumption by repeated instances of frequently used string values. Unlike
- * string.intern(), this implementation does not put things in permgen (or does it)? It also has a max size, only canonicalizes
- * strings repeated more than a certain number of times.
+ * <p>
+ * A class to handle canonical strings, to reduce memory consumption by repeated instances of frequently used string values (sexes,
+ * place names, dates, source titles, and so on). Unlike string.intern(), this implementation has a max size, and it keeps the
+ * values that are used most often.
+ * </p>
+ * <p>
+ * How often each string is looked up is estimated with a small frequency sketch (a count-min sketch of 4-bit counters, which are
+ * halved periodically so that old popularity fades). Once the pool is full, a string that is not in the pool is only admitted if
+ * it has been seen more often than an entry picked from a random sample of the pool, which it then replaces; ties go against the
+ * entry that was least recently used. A string seen for the first time never displaces anything, so long runs of one-off values
+ * (such as note text) do not flush out the popular ones.
+ * </p>
+ * <p>
+ * One instance is used for a whole load by {@link GedcomParser}, and one can be shared between loads (and parsers) with
+ * {@link GedcomParser#setStringCanonicalizer(StringCanonicalizer)}. Instances are thread-safe.
+ * </p>
  * 
  * @author frizbog
- *
  */
-class StringCanonicalizer {
+public class StringCanonicalizer {
 
     /**
      * A canonicalized string
@@ -45,25 +60,38 @@ class StringCanonicalizer {
      * @author frizbog
      */
     static class CanonicalizedString {
-        /**
-         * The number of times this entry is used
-         */
-        long count;
 
         /**
          * The value of this entry
          */
         final String value;
 
+        /**
+         * The hashed value of the string, for estimating its frequency
+         */
+        final int hash;
+
+        /**
+         * The number of hits on the pool when this entry was last used
+         */
+        volatile long lastUsed;
+
+        /**
+         * The index of this entry in the array of entries
+         */
+        int slot;
+
         /**
          * Constructor
          * 
          * @param str
          *            the string value
+         * @param hash
+         *            the hashed value of the string
          */
-        CanonicalizedString(String str) {
+        CanonicalizedString(String str, int hash) {
             value = str;
-            count = 0;
+            this.hash = hash;
         }
 
         /**
@@ -71,9 +99,9 @@ class StringCanonicalizer {
          */
         @Override
         public String toString() {
-            StringBuilder builder = new StringBuilder(30);
-            builder.append("CanonicalizedString [count=");
-            builder.append(count);
+            StringBuilder builder = new StringBuilder(40);
+            builder.append("CanonicalizedString [lastUsed=");
+            builder.append(lastUsed);
             builder.append(", ");
             if (value != null) {
                 builder.append("value=");
@@ -85,99 +113,163 @@ class StringCanonicalizer {
 
     }
 
+    /**
+     * The default maximum number of strings in the pool
+     */
+    public static final int DEFAULT_MAX_POOL_SIZE = 10000;
+
+    /**
+     * The number of entries sampled when choosing one to evict
+     */
+    private static final int EVICTION_SAMPLE_SIZE = 8;
+
+    /**
+     * The highest value a frequency counter can reach
+     */
+    private static final int MAX_FREQUENCY = 15;
+
+    /**
+     * Multipliers used to derive the 4 sketch positions for a string from its hash
+     */
+    private static final int[] SKETCH_SEEDS = { 0x97cb3127, 0xb3a2f4cd, 0x6e5f8a3b, 0xc2b2ae35 };
+
     /**
      * The string pool
      */
-    final ConcurrentMap<String, CanonicalizedString> stringPool = new ConcurrentHashMap<>(100);
+    final ConcurrentMap<String, CanonicalizedString> stringPool;
+
+    /**
+     * The entries in the pool, so that entries can be sampled for eviction. Guarded by this object's lock.
+     */
+    private final CanonicalizedString[] entries;
 
     /**
-     * The minimum number of usages that a canonicalized string has to have to remain in the pool during cleanup
+     * The number of entries in the pool. Only changed while holding this object's lock, but read without it.
      */
-    private int poolUsageThreshold = 25;
+    private final AtomicInteger size = new AtomicInteger();
 
     /**
-     * The max size of the string pool
+     * The frequency counters, 16 to a long
      */
-    private int maxPoolSize = 1000;
+    private final AtomicLongArray sketch;
 
     /**
-     * The number of eviction events that occurred
+     * The number of times the frequency counters have been incremented since they were last halved
      */
-    int numEvictions = 0;
+    private final AtomicInteger sketchIncrements = new AtomicInteger();
 
     /**
-     * The number of items evicted
+     * The number of increments after which the frequency counters are halved
      */
-    private int numEvictedCumulative = 0;
+    private final int sketchAgingPeriod;
 
     /**
-     * A flag to indicate whether we've maxed out the pool to keep from thrashing
+     * The number of lookups that found the string in the pool
      */
-    private boolean maxedOut = false;
+    private final AtomicLong hits = new AtomicLong();
 
     /**
-     * Default constructor
+     * The number of lookups that did not find the string in the pool
      */
-    StringCanonicalizer() {
-        this(500, 25);
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * The number of entries evicted from the pool to make room for more frequently used strings
+     */
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * The state of the random number generator used to sample entries for eviction. Guarded by this object's lock.
+     */
+    private int randomState = 0x2545F491;
+
+    /**
+     * Default constructor, for a pool of up to {@link #DEFAULT_MAX_POOL_SIZE} strings
+     */
+    public StringCanonicalizer() {
+        this(DEFAULT_MAX_POOL_SIZE);
     }
 
     /**
-     * Constructor that lets you specify the pool size and usage threshold
+     * Constructor that lets you specify the pool size
      * 
      * @param maxPoolSize
-     *            the maximum number of items in the pool
-     * @param poolUsageThreshold
-     *            the minimum number of uses to remain in the pool during an eviction
+     *            the maximum number of strings in the pool. Zero turns canonicalization off.
      */
-    private StringCanonicalizer(int maxPoolSize, int poolUsageThreshold) {
-        this.maxPoolSize = maxPoolSize;
-        this.poolUsageThreshold = poolUsageThreshold;
+    public StringCanonicalizer(int maxPoolSize) {
+        if (maxPoolSize < 0) {
+            throw new IllegalArgumentException("Max pool size must not be negative");
+        }
+        entries = new CanonicalizedString[maxPoolSize];
+        stringPool = new ConcurrentHashMap<>(Math.min(maxPoolSize, 1024));
+        int sketchSize = Integer.highestOneBit(Math.max(maxPoolSize, 16) - 1) << 1;
+        sketch = new AtomicLongArray(sketchSize);
+        sketchAgingPeriod = Math.max(maxPoolSize, 16) * 10;
     }
 
     /**
-     * Get the maximum number of items in the pool
+     * Get the number of entries evicted from the pool to make room for more frequently used strings
      * 
-     * @return the maximum number of items in the pool
+     * @return the number of entries evicted from the pool
      */
-    public int getMaxPoolSize() {
-        return maxPoolSize;
+    public long getEvictions() {
+        return evictions.get();
     }
 
     /**
-     * Get the cumulative total count of items that have been evicted from the pool
+     * Get the number of lookups that found the string in the pool
      * 
-     * @return the cumulative total count of items that have been evicted from the pool
+     * @return the number of lookups that found the string in the pool
      */
-    public int getNumEvictedCumulative() {
-        return numEvictedCumulative;
+    public long getHits() {
+        return hits.get();
     }
 
     /**
-     * Get the number of times the pool has been evicted
+     * Get the maximum number of items in the pool
      * 
-     * @return the number of times the pool has been evicted
+     * @return the maximum number of items in the pool
      */
-    public int getNumEvictions() {
-        return numEvictions;
+    public int getMaxPoolSize() {
+        return entries.length;
     }
 
     /**
-     * Get the minimum usage to remain in the pool after eviction
+     * Get the number of lookups that did not find the string in the pool
      * 
-     * @return the minimum usage to remain in the pool after eviction
+     * @return the number of lookups that did not find the string in the pool
      */
-    public int getPoolUsageThreshold() {
-        return poolUsageThreshold;
+    public long getMisses() {
+        return misses.get();
     }
 
     /**
-     * Is the pool maxed out? Meaning - is it full, and evictions aren't helping?
+     * Get the number of strings in the pool
      * 
-     * @return is the pool maxed out?
+     * @return the number of strings in the pool
+     */
+    public int getSize() {
+        return size.get();
+    }
+
+    /**
+     * {@inheritDoc}
      */
-    public boolean isMaxedOut() {
-        return maxedOut;
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder(100);
+        builder.append("StringCanonicalizer [size=");
+        builder.append(size.get());
+        builder.append(", maxPoolSize=");
+        builder.append(entries.length);
+        builder.append(", hits=");
+        builder.append(hits.get());
+        builder.append(", misses=");
+        builder.append(misses.get());
+        builder.append(", evictions=");
+        builder.append(evictions.get());
+        builder.append("]");
+        return builder.toString();
     }
 
     /**
@@ -188,64 +280,201 @@ class StringCanonicalizer {
      * @return either the string itself, or the canonicalized version, depending on the state of the string pool
      */
     String getCanonicalVersion(String str) {
-        if (str == null) {
+        if (str == null || str.isEmpty()) {
             return str;
         }
-        if (str.length() == 0) {
-            return "".intern();
-        }
-        CanonicalizedString canon;
-        canon = stringPool.get(str);
+        int hash = spread(str.hashCode());
+        incrementFrequency(hash);
+        CanonicalizedString canon = stringPool.get(str);
         if (canon != null) {
-            canon.count++;
+            canon.lastUsed = hits.incrementAndGet();
             return canon.value;
         }
+        misses.incrementAndGet();
+        if (size.get() == entries.length && estimateFrequency(hash) <= 1) {
+            // The pool is full, and this string has never been seen before, so it's not worth displacing anything for
+            return str;
+        }
+        return admit(str, hash);
+    }
 
-        // Pool is too big - try and evict the lowest used entries
-        if (stringPool.size() > maxPoolSize) {
-            evictLowValueEntries();
-            // If evicting didn't help, return the original string and mark the pool as maxed out to prevent thrashing
-            if (stringPool.size() > maxPoolSize) {
-                maxedOut = true;
+    /**
+     * Clear the string pool entirely, and reset the statistics
+     */
+    void reset() {
+        synchronized (this) {
+            stringPool.clear();
+            for (int i = 0; i < size.get(); i++) {
+                entries[i] = null;
+            }
+            size.set(0);
+            for (int i = 0; i < sketch.length(); i++) {
+                sketch.set(i, 0);
+            }
+            sketchIncrements.set(0);
+            hits.set(0);
+            misses.set(0);
+            evictions.set(0);
+        }
+    }
+
+    /**
+     * Add a string to the pool, if there is room or it has been used more often than an entry that can be evicted
+     * 
+     * @param str
+     *            the string
+     * @param hash
+     *            the hashed value of the string
+     * @return the canonical version of the string
+     */
+    private String admit(String str, int hash) {
+        synchronized (this) {
+            CanonicalizedString canon = stringPool.get(str);
+            if (canon != null) {
+                // Another thread added it in the meantime
+                return canon.value;
+            }
+            int count = size.get();
+            if (count < entries.length) {
+                canon = new CanonicalizedString(str, hash);
+                canon.slot = count;
+                canon.lastUsed = hits.get();
+                entries[count] = canon;
+                stringPool.put(str, canon);
+                size.set(count + 1);
+                return str;
+            }
+            if (entries.length == 0) {
+                return str;
+            }
+            CanonicalizedString victim = null;
+            int victimFrequency = Integer.MAX_VALUE;
+            for (int i = 0; i < EVICTION_SAMPLE_SIZE; i++) {
+                CanonicalizedString candidate = entries[nextRandomSlot()];
+                int frequency = estimateFrequency(candidate.hash);
+                if (frequency < victimFrequency || frequency == victimFrequency && candidate.lastUsed < victim.lastUsed) {
+                    victim = candidate;
+                    victimFrequency = frequency;
+                }
+            }
+            if (victim == null || estimateFrequency(hash) <= victimFrequency) {
                 return str;
             }
+            stringPool.remove(victim.value);
+            canon = new CanonicalizedString(str, hash);
+            canon.slot = victim.slot;
+            canon.lastUsed = hits.get();
+            entries[canon.slot] = canon;
+            stringPool.put(str, canon);
+            evictions.incrementAndGet();
+            return str;
         }
-        canon = new CanonicalizedString(str);
-        stringPool.put(str, canon);
-        return canon.value;
     }
 
     /**
-     * Clear the string pool entirely
+     * Estimate how often a string has been looked up recently
+     * 
+     * @param hash
+     *            the hashed value of the string
+     * @return the estimated frequency, from 0 to {@link #MAX_FREQUENCY}
      */
-    void reset() {
-        stringPool.clear();
-        numEvictedCumulative = 0;
-        numEvictions = 0;
-        maxedOut = false;
+    private int estimateFrequency(int hash) {
+        int result = MAX_FREQUENCY;
+        for (int seed : SKETCH_SEEDS) {
+            int h = sketchHash(hash, seed);
+            int shift = (h & 15) << 2;
+            result = Math.min(result, (int) (sketch.get(sketchIndex(h)) >>> shift) & MAX_FREQUENCY);
+        }
+        return result;
     }
 
     /**
-     * Evict all items that have fewer than uses
+     * Halve all the frequency counters, so that strings that were popular a long time ago gradually lose their advantage
      */
-    private void evictLowValueEntries() {
-        if (maxedOut) {
-            return;
+    private void halveFrequencies() {
+        synchronized (this) {
+            if (sketchIncrements.get() < sketchAgingPeriod) {
+                // Another thread got here first
+                return;
+            }
+            for (int i = 0; i < sketch.length(); i++) {
+                sketch.set(i, sketch.get(i) >>> 1 & 0x7777777777777777L);
+            }
+            sketchIncrements.set(0);
         }
-        numEvictions++;
-        int before = stringPool.size();
-        for (CanonicalizedString canon : stringPool.values()) {
-            if (canon.count < poolUsageThreshold) {
-                stringPool.remove(canon.value);
+    }
+
+    /**
+     * Record a lookup of a string in the frequency sketch
+     * 
+     * @param hash
+     *            the hashed value of the string
+     */
+    private void incrementFrequency(int hash) {
+        for (int seed : SKETCH_SEEDS) {
+            int h = sketchHash(hash, seed);
+            int index = sketchIndex(h);
+            int shift = (h & 15) << 2;
+            long counters = sketch.get(index);
+            while ((counters >>> shift & MAX_FREQUENCY) < MAX_FREQUENCY && !sketch.compareAndSet(index, counters, counters + (1L
+                    << shift))) {
+                counters = sketch.get(index);
             }
         }
-        int after = stringPool.size();
-        numEvictedCumulative += before - after;
-        if (before - after < 2) {
-            maxedOut = true;
+        if (sketchIncrements.incrementAndGet() >= sketchAgingPeriod) {
+            halveFrequencies();
         }
-        // System.out.println((before - after) + " item(s) evicted from string pool - was " + before + ", now " +
-        // after);
+    }
+
+    /**
+     * Pick a random entry in the pool. Only called while holding this object's lock, when the pool is full.
+     * 
+     * @return the index of the entry
+     */
+    private int nextRandomSlot() {
+        // xorshift
+        randomState ^= randomState << 13;
+        randomState ^= randomState >>> 17;
+        randomState ^= randomState << 5;
+        return (randomState & Integer.MAX_VALUE) % entries.length;
+    }
+
+    /**
+     * Get the hash that picks one of a string's frequency counters. The low 4 bits pick a counter within a long, and the rest pick
+     * the long.
+     * 
+     * @param hash
+     *            the hashed value of the string
+     * @param seed
+     *            the multiplier for the counter being picked
+     * @return the hash for the counter
+     */
+    private static int sketchHash(int hash, int seed) {
+        int h = hash * seed;
+        return h ^ h >>> 16;
+    }
+
+    /**
+     * Get the position in the sketch of the long holding a counter
+     * 
+     * @param sketchHash
+     *            the hash for the counter, from {@link #sketchHash(int, int)}
+     * @return the position in the sketch
+     */
+    private int sketchIndex(int sketchHash) {
+        return sketchHash >>> 4 & sketch.length() - 1;
+    }
+
+    /**
+     * Spread the bits of a string's hash code, so that similar strings are unlikely to share sketch positions
+     * 
+     * @param hashCode
+     *            the string's hash code
+     * @return the hashed value of the string
+     */
+    private static int spread(int hashCode) {
+        int h = hashCode * 0x9E3779B9;
+        return h ^ h >>> 15;
     }
 
 }
@@ -0,0 +1,414 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.parser;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import org.gedcom4j.model.StringTree;
+
+/**
+ * <p>
+ * A compact, reusable holder for the lines of a root-level record while it is being parsed. Instead of an object for each line
+ * (plus a list for its children), the nodes are kept in parallel arrays, and refer to each other by their index in those arrays.
+ * The parser resets and reuses one of these for each root-level record, so building the tree for a record normally allocates
+ * nothing but the strings for the values on the lines.
+ * </p>
+ * <p>
+ * Node 0 is always the {@link #CONTAINER} node, which holds the root-level record(s) as its children, much like the wrapper
+ * {@link StringTree} used to. The sub-parsers walk the tree using the node-index accessors, for example:
+ * </p>
+ * 
+ * <pre>
+ * for (int ch = tree.getFirstChild(node); ch != StringTreeArena.NONE; ch = tree.getNextSibling(ch)) {
+ *     switch (tree.getKnownTag(ch)) {
+ *         ...
+ *     }
+ * }
+ * </pre>
+ * <p>
+ * A {@link StringTree} can still be made from any node with {@link #toStringTree(int)}, for code that needs a free-standing copy.
+ * </p>
+ * 
+ * @author frizbog
+ */
+final class StringTreeArena {
+
+    /**
+     * Index value used for "no node" - no parent, no children, or no more siblings
+     */
+    static final int NONE = -1;
+
+    /**
+     * The index of the container node that the root-level records are added to
+     */
+    static final int CONTAINER = 0;
+
+    /**
+     * How many nodes there is room for initially
+     */
+    private static final int INITIAL_CAPACITY = 64;
+
+    /**
+     * The number of nodes in use, including the container node
+     */
+    private int size;
+
+    /**
+     * The level of each node
+     */
+    private int[] level;
+
+    /**
+     * The line number in the file each node came from
+     */
+    private int[] lineNum;
+
+    /**
+     * The parent of each node
+     */
+    private int[] parent;
+
+    /**
+     * The first child of each node
+     */
+    private int[] firstChild;
+
+    /**
+     * The last child of each node, so children can be added at the end without walking the siblings
+     */
+    private int[] lastChild;
+
+    /**
+     * The next sibling of each node
+     */
+    private int[] nextSibling;
+
+    /**
+     * The xref of each node
+     */
+    private String[] xref;
+
+    /**
+     * The tag text of each node
+     */
+    private String[] tag;
+
+    /**
+     * The {@link Tag} of each node
+     */
+    private Tag[] knownTag;
+
+    /**
+     * The value of each node
+     */
+    private String[] value;
+
+    /**
+     * Constructor
+     */
+    StringTreeArena() {
+        this(INITIAL_CAPACITY);
+    }
+
+    /**
+     * Constructor
+     * 
+     * @param capacity
+     *            how many nodes to make room for initially
+     */
+    private StringTreeArena(int capacity) {
+        level = new int[capacity];
+        lineNum = new int[capacity];
+        parent = new int[capacity];
+        firstChild = new int[capacity];
+        lastChild = new int[capacity];
+        nextSibling = new int[capacity];
+        xref = new String[capacity];
+        tag = new String[capacity];
+        knownTag = new Tag[capacity];
+        value = new String[capacity];
+        reset();
+    }
+
+    /**
+     * Add a node to the tree
+     * 
+     * @param parentNode
+     *            the node to add the new node to, as its last child. May be {@link #NONE}, in which case the node is not attached
+     *            to anything (but children can still be added to it)
+     * @param nodeLevel
+     *            the level of the new node
+     * @param nodeLineNum
+     *            the line number the node came from
+     * @param nodeXref
+     *            the xref of the new node, if any
+     * @param nodeTag
+     *            the tag of the new node
+     * @param nodeKnownTag
+     *            the {@link Tag} for the tag, or {@link Tag#UNRECOGNIZED} if it isn't a known tag
+     * @param nodeValue
+     *            the value of the new node, if any
+     * @return the index of the new node
+     */
+    int addNode(int parentNode, int nodeLevel, int nodeLineNum, String nodeXref, String nodeTag, Tag nodeKnownTag,
+            String nodeValue) {
+        if (size == level.length) {
+            grow();
+        }
+        int n = size++;
+        level[n] = nodeLevel;
+        lineNum[n] = nodeLineNum;
+        parent[n] = parentNode;
+        firstChild[n] = NONE;
+        lastChild[n] = NONE;
+        nextSibling[n] = NONE;
+        xref[n] = nodeXref;
+        tag[n] = nodeTag;
+        knownTag[n] = nodeKnownTag;
+        value[n] = nodeValue;
+        if (parentNode != NONE) {
+            if (firstChild[parentNode] == NONE) {
+                firstChild[parentNode] = n;
+            } else {
+                nextSibling[lastChild[parentNode]] = n;
+            }
+            lastChild[parentNode] = n;
+        }
+        return n;
+    }
+
+    /**
+     * Make a copy of this tree, using no more room than the nodes need, so it can be handed to another thread while this one is
+     * reset and reused
+     * 
+     * @return the copy
+     */
+    StringTreeArena copy() {
+        StringTreeArena result = new StringTreeArena(size);
+        System.arraycopy(level, 0, result.level, 0, size);
+        System.arraycopy(lineNum, 0, result.lineNum, 0, size);
+        System.arraycopy(parent, 0, result.parent, 0, size);
+        System.arraycopy(firstChild, 0, result.firstChild, 0, size);
+        System.arraycopy(lastChild, 0, result.lastChild, 0, size);
+        System.arraycopy(nextSibling, 0, result.nextSibling, 0, size);
+        System.arraycopy(xref, 0, result.xref, 0, size);
+        System.arraycopy(tag, 0, result.tag, 0, size);
+        System.arraycopy(knownTag, 0, result.knownTag, 0, size);
+        System.arraycopy(value, 0, result.value, 0, size);
+        result.size = size;
+        return result;
+    }
+
+    /**
+     * Get the number of children a node has
+     * 
+     * @param node
+     *            the node
+     * @return the number of children the node has
+     */
+    int getChildCount(int node) {
+        int result = 0;
+        for (int ch = firstChild[node]; ch != NONE; ch = nextSibling[ch]) {
+            result++;
+        }
+        return result;
+    }
+
+    /**
+     * Get the first child of a node
+     * 
+     * @param node
+     *            the node
+     * @return the first child of the node, or {@link #NONE} if it has no children
+     */
+    int getFirstChild(int node) {
+        return firstChild[node];
+    }
+
+    /**
+     * Get the {@link Tag} for a node's tag
+     * 
+     * @param node
+     *            the node
+     * @return the {@link Tag} for the node's tag, or {@link Tag#UNRECOGNIZED} if it isn't one of the known tags
+     */
+    Tag getKnownTag(int node) {
+        return knownTag[node];
+    }
+
+    /**
+     * Get the level of a node
+     * 
+     * @param node
+     *            the node
+     * @return the level of the node
+     */
+    int getLevel(int node) {
+        return level[node];
+    }
+
+    /**
+     * Get the line number a node came from
+     * 
+     * @param node
+     *            the node
+     * @return the line number the node came from
+     */
+    int getLineNum(int node) {
+        return lineNum[node];
+    }
+
+    /**
+     * Get the next sibling of a node
+     * 
+     * @param node
+     *            the node
+     * @return the next sibling of the node, or {@link #NONE} if it is the last child of its parent
+     */
+    int getNextSibling(int node) {
+        return nextSibling[node];
+    }
+
+    /**
+     * Get the parent of a node
+     * 
+     * @param node
+     *            the node
+     * @return the parent of the node, or {@link #NONE} if it has no parent
+     */
+    int getParent(int node) {
+        return parent[node];
+    }
+
+    /**
+     * Get the number of nodes in the tree, including the container node
+     * 
+     * @return the number of nodes in the tree
+     */
+    int getSize() {
+        return size;
+    }
+
+    /**
+     * Get the tag of a node
+     * 
+     * @param node
+     *            the node
+     * @return the tag of the node
+     */
+    String getTag(int node) {
+        return tag[node];
+    }
+
+    /**
+     * Get the value of a node
+     * 
+     * @param node
+     *            the node
+     * @return the value of the node
+     */
+    String getValue(int node) {
+        return value[node];
+    }
+
+    /**
+     * Get the xref of a node
+     * 
+     * @param node
+     *            the node
+     * @return the xref of the node
+     */
+    String getXref(int node) {
+        return xref[node];
+    }
+
+    /**
+     * Does a node have any children?
+     * 
+     * @param node
+     *            the node
+     * @return true if and only if the node has at least one child
+     */
+    boolean hasChildren(int node) {
+        return firstChild[node] != NONE;
+    }
+
+    /**
+     * Empty the tree, leaving only the container node, so it can be reused for another record. The room for nodes is kept.
+     */
+    void reset() {
+        Arrays.fill(xref, 0, size, null);
+        Arrays.fill(tag, 0, size, null);
+        Arrays.fill(value, 0, size, null);
+        size = 0;
+        addNode(NONE, -1, 0, null, null, Tag.UNRECOGNIZED, null);
+    }
+
+    /**
+     * Make a free-standing {@link StringTree} from a node and all its children
+     * 
+     * @param node
+     *            the node
+     * @return a {@link StringTree} with the same data as the node and its children. Its parent is not set.
+     */
+    StringTree toStringTree(int node) {
+        StringTree result = new StringTree();
+        result.setLevel(level[node]);
+        result.setLineNum(lineNum[node]);
+        result.setXref(xref[node]);
+        result.setTag(tag[node]);
+        result.setValue(value[node]);
+        if (firstChild[node] != NONE) {
+            ArrayList<StringTree> children = new ArrayList<>(getChildCount(node));
+            for (int ch = firstChild[node]; ch != NONE; ch = nextSibling[ch]) {
+                StringTree child = toStringTree(ch);
+                child.setParent(result);
+                children.add(child);
+            }
+            result.getChildren(true).addAll(children);
+        }
+        return result;
+    }
+
+    /**
+     * Make more room for nodes
+     */
+    private void grow() {
+        int capacity = level.length * 2;
+        level = Arrays.copyOf(level, capacity);
+        lineNum = Arrays.copyOf(lineNum, capacity);
+        parent = Arrays.copyOf(parent, capacity);
+        firstChild = Arrays.copyOf(firstChild, capacity);
+        lastChild = Arrays.copyOf(lastChild, capacity);
+        nextSibling = Arrays.copyOf(nextSibling, capacity);
+        xref = Arrays.copyOf(xref, capacity);
+        tag = Arrays.copyOf(tag, capacity);
+        knownTag = Arrays.copyOf(knownTag, capacity);
+        value = Arrays.copyOf(value, capacity);
+    }
+}
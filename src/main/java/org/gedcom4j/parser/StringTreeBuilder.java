@@ -29,16 +29,18 @@ package org.gedcom4j.parser;
 import java.util.Arrays;
 
 import org.gedcom4j.exception.GedcomParserException;
+import org.gedcom4j.io.reader.LineBuffer;
 import org.gedcom4j.model.StringTree;
 
 /**
- * Class for building {@link StringTree} objects for each root-level node in the input file. This class used to build a big
- * StringTree for the entire file, but since v3.0.0 it only builds a root-level node (plus a wrapper/container node) at a time
- * before it's discarded.
+ * Class for building the tree of lines for each root-level node in the input file. This class used to build a big
+ * {@link StringTree} for the entire file, but since v3.0.0 it only builds a root-level node (plus a wrapper/container node) at a
+ * time before it's discarded. The nodes are built into a {@link StringTreeArena}, which is reset and reused for each root-level
+ * node.
  * 
  * @author frizbog
  */
-class StringTreeBuilder {
+final class StringTreeBuilder {
 
     /**
      * Trim all whitespace off the left side (only) of the supplied string.
@@ -71,7 +73,7 @@ class StringTreeBuilder {
      * find parents quickly. Whenever a new node is added, set, or removed for level N, all entries in this index &gt; N (i.e., all
      * the child levels) need to be cleared.
      */
-    private final StringTree[] lastNodeAtLevel = new StringTree[100];
+    private final int[] lastNodeAtLevel = new int[100];
 
     /**
      * A flag indicating whether the current line from the input file begins with a 1-2 digit level number followed by a space
@@ -79,19 +81,14 @@ class StringTreeBuilder {
     private boolean beginsWithLevelAndSpace;
 
     /**
-     * The string tree node that represents the current line and all its children.
+     * The tree of nodes being built, whose container node holds a single root-level node
      */
-    private StringTree treeForCurrentLine;
+    private final StringTreeArena tree = new StringTreeArena();
 
     /**
-     * A base {@link StringTree} to hold a single root-level node
+     * The most recently added node, or {@link StringTreeArena#NONE} if no nodes have been added yet
      */
-    private final StringTree wrapperNode = new StringTree();
-
-    /**
-     * The most recently added node
-     */
-    private StringTree mostRecentlyAdded;
+    private int mostRecentlyAdded;
 
     /**
      * The {@link GedcomParser} instance this object is building {@link StringTree} instances for
@@ -109,32 +106,110 @@ class StringTreeBuilder {
     private String line;
 
     /**
-     * A canonicalizing string pool to reduce the number of repeated instances of strings, without using String.intern()
+     * The parser's canonicalizing string pool, to reduce the number of repeated instances of strings across all the records,
+     * without using String.intern()
+     */
+    private final StringCanonicalizer canonizer;
+
+    /**
+     * The tokenizer that breaks each line into its pieces, reused for every line
+     */
+    private final LineTokenizer tokenizer;
+
+    /**
+     * The parser's projection, deciding which lines to keep, or null if all lines are kept
+     */
+    private final ParseProjection projection;
+
+    /**
+     * The tags from the root-level node down to the current line, indexed by level. Only maintained when there is a projection.
+     * Kept from line to line, since each line only sets its own level.
+     */
+    @SuppressWarnings("PMD.SingularField")
+    private final String[] path = new String[100];
+
+    /**
+     * The tag paths seen so far in this load, with the projection's decision for each, starting from the container node. Only used
+     * when there is a projection.
+     */
+    private final ParseProjection.PathNode paths = new ParseProjection.PathNode(ParseProjection.KEEP);
+
+    /**
+     * The tag path of the most recently kept line at each level, indexed by level. Only maintained when there is a projection.
      */
-    private final StringCanonicalizer canonizer = new StringCanonicalizer();
+    private final ParseProjection.PathNode[] pathAtLevel = new ParseProjection.PathNode[100];
+
+    /**
+     * The level of the line being skipped because it was projected out, whose child lines are skipped too, or -1 if no lines are
+     * being skipped
+     */
+    private int skipLevel = -1;
 
     /**
      * Constructor
      * 
      * @param parser
-     *            the {@link GedcomParser} this object will be assisting with making a {@link StringTree} for
+     *            the {@link GedcomParser} this object will be assisting with making a tree of lines for
      * 
      */
     StringTreeBuilder(GedcomParser parser) {
         this.parser = parser;
-        getTree().setLevel(-1);
-        mostRecentlyAdded = null;
+        canonizer = parser.getStringCanonicalizer();
+        tokenizer = new LineTokenizer(canonizer);
+        projection = parser.getProjection();
+        reset();
+    }
+
+    /**
+     * Get the tree representing the root-level node, plus a container - the tree that this {@link StringTreeBuilder} object is
+     * building. The tree is reused, so it is only valid until {@link #reset()} is called.
+     * 
+     * @return the tree representing the root level node, plus a container node around it
+     */
+    StringTreeArena getTree() {
+        return tree;
+    }
+
+    /**
+     * Discard the tree built so far, so the next root-level node can be built, picking up with the parser's current line number
+     */
+    void reset() {
+        tree.reset();
+        Arrays.fill(lastNodeAtLevel, StringTreeArena.NONE);
+        mostRecentlyAdded = StringTreeArena.NONE;
+        skipLevel = -1;
         lineNum = parser.getLineNum();
     }
 
     /**
-     * Get the string tree representing the root-level node, plus a container - the string tree that this {@link StringTreeBuilder}
-     * object was created to build
+     * Add the line in the supplied buffer to the right place in the StringTree being built. A line held as UTF-8 bytes that begins
+     * with a level and a space is tokenized straight from the bytes, so the line as a whole is never decoded. Anything else is
+     * added as text.
+     * 
+     * @param l
+     *            the buffer holding the line to add
      * 
-     * @return the string tree representing the root level node, plus a wrapper node around it
+     * @throws GedcomParserException
+     *             if there is an error with parsing the data from the stream
      */
-    public StringTree getTree() {
-        return wrapperNode;
+    void appendLine(LineBuffer l) throws GedcomParserException {
+        byte[] bytes = l.getBytes();
+        int level = bytes == null ? -1 : levelOf(bytes, l.getStart(), l.getEnd());
+        if (level < 0) {
+            appendLine(l.toString());
+            return;
+        }
+        lineNum++;
+
+        if (skipLevel >= 0) {
+            if (level > skipLevel) {
+                return;
+            }
+            skipLevel = -1;
+        }
+
+        tokenizer.tokenize(bytes, l.getStart(), l.getEnd(), lineNum);
+        mostRecentlyAdded = addNewNode();
     }
 
     /**
@@ -149,48 +224,55 @@ class StringTreeBuilder {
     void appendLine(String l) throws GedcomParserException {
         line = l;
         lineNum++;
-        treeForCurrentLine = new StringTree();
-        treeForCurrentLine.setLineNum(lineNum);
+
+        if (skipLevel >= 0) {
+            if (isInsideSkippedLine()) {
+                return;
+            }
+            skipLevel = -1;
+        }
 
         checkIfNewLevelLine();
 
         if (beginsWithLevelAndSpace) {
-            addNewNode();
-            mostRecentlyAdded = treeForCurrentLine;
+            tokenizer.tokenize(line, lineNum);
+            mostRecentlyAdded = addNewNode();
         } else {
             makeConcatenationOfPreviousNode();
         }
     }
 
     /**
-     * Add a new node to the correct parent node in the StringTree
+     * Add a new node for the line the tokenizer has just tokenized to the correct parent node in the tree, unless it is projected
+     * out
      * 
-     * @throws GedcomParserException
-     *             if there are file lines that are not well formed - see {@link LinePieces#LinePieces(String, int)}
+     * @return the new node, or {@link StringTreeArena#NONE} if the line is projected out
      */
-    private void addNewNode() throws GedcomParserException {
-        LinePieces lp = new LinePieces(line, lineNum);
-        treeForCurrentLine.setLevel(lp.level);
-        treeForCurrentLine.setXref(lp.id);
-        treeForCurrentLine.setTag(lp.tag.intern());
-        treeForCurrentLine.setValue(canonizer.getCanonicalVersion(lp.remainder));
-        lp = null;
-
-        StringTree addTo = null;
-        if (treeForCurrentLine.getLevel() == 0) {
-            addTo = getTree();
-        } else {
-            addTo = lastNodeAtLevel[treeForCurrentLine.getLevel() - 1];
+    private int addNewNode() {
+        int level = tokenizer.level;
+        String tag = tokenizer.tag;
+        if (projection != null && (level == 0 || lastNodeAtLevel[level - 1] != StringTreeArena.NONE) && isProjectedOut(level,
+                tag)) {
+            return StringTreeArena.NONE;
         }
-        if (addTo == null) {
-            parser.getErrors().add(treeForCurrentLine.getTag() + " tag at line " + treeForCurrentLine.getLineNum()
-                    + ": Unable to find suitable parent node at level " + (treeForCurrentLine.getLevel() - 1));
+
+        int addTo;
+        if (level == 0) {
+            addTo = StringTreeArena.CONTAINER;
         } else {
-            addTo.getChildren(true).add(treeForCurrentLine);
-            treeForCurrentLine.setParent(addTo);
-            lastNodeAtLevel[treeForCurrentLine.getLevel()] = treeForCurrentLine;
+            addTo = lastNodeAtLevel[level - 1];
+        }
+        if (addTo == StringTreeArena.NONE) {
+            parser.getErrors().add(tag + " tag at line " + lineNum + ": Unable to find suitable parent node at level " + (level
+                    - 1));
+        }
+        int result = tree.addNode(addTo, level, lineNum, tokenizer.id, tag, tokenizer.knownTag == null ? Tag.UNRECOGNIZED
+                : tokenizer.knownTag, canonizer.getCanonicalVersion(tokenizer.remainder));
+        if (addTo != StringTreeArena.NONE) {
+            lastNodeAtLevel[level] = result;
         }
-        Arrays.fill(lastNodeAtLevel, treeForCurrentLine.getLevel() + 1, 100, null);
+        Arrays.fill(lastNodeAtLevel, level + 1, 100, StringTreeArena.NONE);
+        return result;
     }
 
     /**
@@ -212,21 +294,84 @@ class StringTreeBuilder {
         }
     }
 
+    /**
+     * Is the current line beneath the line being skipped? Only the level number is looked at, so lines that are skipped are not
+     * tokenized. Lines that don't begin with a level number are taken to be continuations of the previous line, so are skipped too.
+     * 
+     * @return true if and only if the current line is to be skipped
+     */
+    private boolean isInsideSkippedLine() {
+        if (line.isEmpty() || !Character.isDigit(line.charAt(0))) {
+            return true;
+        }
+        int level = Character.getNumericValue(line.charAt(0));
+        if (line.length() > 1 && Character.isDigit(line.charAt(1))) {
+            level = level * 10 + Character.getNumericValue(line.charAt(1));
+        }
+        return level > skipLevel;
+    }
+
+    /**
+     * Check the current line against the projection, and if it is projected out, start skipping it and all the lines beneath it.
+     * The line must have a parent, unless it is at level 0.
+     * 
+     * @param level
+     *            the level of the current line
+     * @param tag
+     *            the tag of the current line
+     * @return true if and only if the current line is projected out
+     */
+    private boolean isProjectedOut(int level, String tag) {
+        path[level] = tag;
+        ParseProjection.PathNode parent = level == 0 ? paths : pathAtLevel[level - 1];
+        ParseProjection.PathNode p = parent.children.get(tag);
+        if (p == null) {
+            p = new ParseProjection.PathNode(projection.match(path, level + 1, parent.decision == ParseProjection.INCLUDE));
+            parent.children.put(tag, p);
+        }
+        if (p.decision == ParseProjection.SKIP) {
+            skipLevel = level;
+            return true;
+        }
+        pathAtLevel[level] = p;
+        return false;
+    }
+
+    /**
+     * Get the level of a line of bytes, if it begins with a 1 or 2 digit (ASCII) level number followed by a space
+     * 
+     * @param bytes
+     *            the buffer holding the line
+     * @param start
+     *            the index in the buffer where the line starts
+     * @param end
+     *            the index in the buffer just after the end of the line
+     * @return the level of the line, or -1 if it doesn't begin with a 1 or 2 digit level number followed by a space
+     */
+    private int levelOf(byte[] bytes, int start, int end) {
+        int result = 0;
+        int i = start;
+        while (i < end && i - start < 2 && bytes[i] >= '0' && bytes[i] <= '9') {
+            result = result * 10 + bytes[i++] - '0';
+        }
+        if (i == start || i >= end || bytes[i] != ' ') {
+            return -1;
+        }
+        return result;
+    }
+
     /**
      * Make the current node a concatenation of the previous node.
      */
     private void makeConcatenationOfPreviousNode() {
         // Doesn't begin with a level number followed by a space, and we don't have strictLineBreaks
         // required, so it's probably meant to be a continuation of the previous text value.
-        if (mostRecentlyAdded == null) {
+        if (mostRecentlyAdded == StringTreeArena.NONE) {
             parser.getWarnings().add("Line " + lineNum + " did not begin with a level and tag, so it was discarded.");
         } else {
             // Try to add as a CONT line to previous node, as if the file had been properly escaped
-            treeForCurrentLine.setLevel(mostRecentlyAdded.getLevel() + 1);
-            treeForCurrentLine.setTag(Tag.CONTINUATION.tagText);
-            treeForCurrentLine.setValue(line);
-            treeForCurrentLine.setParent(mostRecentlyAdded);
-            mostRecentlyAdded.getChildren(true).add(treeForCurrentLine);
+            tree.addNode(mostRecentlyAdded, tree.getLevel(mostRecentlyAdded) + 1, lineNum, null, Tag.CONTINUATION.toString(),
+                    Tag.CONTINUATION, line);
             parser.getWarnings().add("Line " + lineNum + " did not begin with a level and tag, so it was treated as a "
                     + "non-standard continuation of the previous line.");
         }
@@ -26,7 +26,6 @@
  */
 package org.gedcom4j.parser;
 
-import org.gedcom4j.model.StringTree;
 import org.gedcom4j.model.Submission;
 
 /**
@@ -41,41 +40,52 @@ class SubmissionParser extends AbstractParser<Submission> {
      * 
      * @param gedcomParser
      *            a reference to the root {@link GedcomParser}
-     * @param stringTree
-     *            {@link StringTree} to be parsed
+     * @param tree
+     *            the tree of lines being parsed
+     * @param node
+     *            the node in the tree to be parsed
      * @param loadInto
      *            the object we are loading data into
      */
-    SubmissionParser(GedcomParser gedcomParser, StringTree stringTree, Submission loadInto) {
-        super(gedcomParser, stringTree, loadInto);
+    SubmissionParser(GedcomParser gedcomParser, StringTreeArena tree, int node, Submission loadInto) {
+        super(gedcomParser, tree, node, loadInto);
     }
 
     @Override
     void parse() {
-        if (stringTree.getChildren() != null) {
-            for (StringTree ch : stringTree.getChildren()) {
-                if (Tag.SUBMITTER.equalsText(ch.getTag())) {
-                    loadInto.setSubmitter(getSubmitter(ch.getValue()));
-                } else if (Tag.FAMILY_FILE.equalsText(ch.getTag())) {
-                    loadInto.setNameOfFamilyFile(parseStringWithCustomFacts(ch));
-                    remainingChildrenAreCustomTags(ch, loadInto.getNameOfFamilyFile());
-                } else if (Tag.TEMPLE.equalsText(ch.getTag())) {
-                    loadInto.setTempleCode(parseStringWithCustomFacts(ch));
-                    remainingChildrenAreCustomTags(ch, loadInto.getTempleCode());
-                } else if (Tag.ANCESTORS.equalsText(ch.getTag())) {
-                    loadInto.setAncestorsCount(parseStringWithCustomFacts(ch));
-                    remainingChildrenAreCustomTags(ch, loadInto.getAncestorsCount());
-                } else if (Tag.DESCENDANTS.equalsText(ch.getTag())) {
-                    loadInto.setDescendantsCount(parseStringWithCustomFacts(ch));
-                    remainingChildrenAreCustomTags(ch, loadInto.getDescendantsCount());
-                } else if (Tag.ORDINANCE_PROCESS_FLAG.equalsText(ch.getTag())) {
-                    loadInto.setOrdinanceProcessFlag(parseStringWithCustomFacts(ch));
-                    remainingChildrenAreCustomTags(ch, loadInto.getOrdinanceProcessFlag());
-                } else if (Tag.RECORD_ID_NUMBER.equalsText(ch.getTag())) {
-                    loadInto.setRecIdNumber(parseStringWithCustomFacts(ch));
-                    remainingChildrenAreCustomTags(ch, loadInto.getRecIdNumber());
-                } else {
-                    unknownTag(ch, loadInto);
+        if (tree.hasChildren(node)) {
+            for (int ch = tree.getFirstChild(node); ch != StringTreeArena.NONE; ch = tree.getNextSibling(ch)) {
+                switch (tree.getKnownTag(ch)) {
+                    case SUBMITTER:
+                        loadInto.setSubmitter(getSubmitter(tree.getValue(ch)));
+                        break;
+                    case FAMILY_FILE:
+                        loadInto.setNameOfFamilyFile(parseStringWithCustomFacts(ch));
+                        remainingChildrenAreCustomTags(ch, loadInto.getNameOfFamilyFile());
+                        break;
+                    case TEMPLE:
+                        loadInto.setTempleCode(parseStringWithCustomFacts(ch));
+                        remainingChildrenAreCustomTags(ch, loadInto.getTempleCode());
+                        break;
+                    case ANCESTORS:
+                        loadInto.setAncestorsCount(parseStringWithCustomFacts(ch));
+                        remainingChildrenAreCustomTags(ch, loadInto.getAncestorsCount());
+                        break;
+                    case DESCENDANTS:
+                        loadInto.setDescendantsCount(parseStringWithCustomFacts(ch));
+                        remainingChildrenAreCustomTags(ch, loadInto.getDescendantsCount());
+                        break;
+                    case ORDINANCE_PROCESS_FLAG:
+                        loadInto.setOrdinanceProcessFlag(parseStringWithCustomFacts(ch));
+                        remainingChildrenAreCustomTags(ch, loadInto.getOrdinanceProcessFlag());
+                        break;
+                    case RECORD_ID_NUMBER:
+                        loadInto.setRecIdNumber(parseStringWithCustomFacts(ch));
+                        remainingChildrenAreCustomTags(ch, loadInto.getRecIdNumber());
+                        break;
+                    default:
+                        unknownTag(ch, loadInto);
+                        break;
                 }
             }
         }
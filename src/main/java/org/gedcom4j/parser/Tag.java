@@ -32,8 +32,10 @@ package org.gedcom4j.parser;
  * Type tags and Family Event Type tags.
  * </p>
  * <p>
- * <b>Note:</b> There are multiple tags that have the same tag text. This represents the different uses of the same
- * three-to-five-character tag string in different contexts. As such, there is no function for deriving a tag from its text.
+ * Each tag text appears only once, so a tag can be derived from its text with {@link #forText(String)}. The parser does this once
+ * for each line as it is read, and stores the result with the line's node in the {@link StringTreeArena} so the sub-parsers can
+ * switch on it. Tags that are not in this enumeration resolve to {@link #UNRECOGNIZED}.
+ * </p>
  * 
  * @author frizbog
  */
@@ -90,10 +92,8 @@ enum Tag {
     CORPORATION("CORP"),
     /** Country */
     COUNTRY("CTRY"),
-    /** Data for a citation */
-    DATA_FOR_CITATION("DATA"),
-    /** Data for a source */
-    DATA_FOR_SOURCE("DATA"),
+    /** Data for a citation or a source */
+    DATA("DATA"),
     /** Date */
     DATE("DATE"),
     /** Interest in a descendant */
@@ -223,7 +223,129 @@ enum Tag {
     /** Web address (URL) */
     WEB_ADDRESS("WWW"),
     /** Wife */
-    WIFE("WIFE");
+    WIFE("WIFE"),
+    /** Not a GEDCOM tag - stands for any tag that is not in this enumeration, such as a custom tag */
+    UNRECOGNIZED("");
+
+    /**
+     * The known tags, in an open-addressed hash table keyed on the hash code of their tag text. The table size is a power of two,
+     * at least twice the number of tags, so probe sequences are short.
+     */
+    private static final Tag[] BY_TEXT = buildTextTable();
+
+    /**
+     * Mask for turning a hash code into an index into {@link #BY_TEXT}
+     */
+    private static final int BY_TEXT_MASK = BY_TEXT.length - 1;
+
+    /**
+     * Get the tag that has the supplied text
+     * 
+     * @param text
+     *            the tag text
+     * @return the tag with that text, or {@link #UNRECOGNIZED} if there isn't one (including when the text is null)
+     */
+    public static Tag forText(String text) {
+        if (text == null) {
+            return UNRECOGNIZED;
+        }
+        Tag result = forText(text, 0, text.length(), text.hashCode());
+        return result == null ? UNRECOGNIZED : result;
+    }
+
+    /**
+     * Get the tag whose text matches a region of a buffer of UTF-8 bytes, without having to decode the region. Tag text is all
+     * ASCII, so a region that contains any other bytes never matches.
+     * 
+     * @param bytes
+     *            the buffer containing the tag text
+     * @param start
+     *            the index in the buffer where the tag text starts
+     * @param end
+     *            the index in the buffer just after the tag text
+     * @param hash
+     *            the hash code of the tag text, calculated the same way as {@link String#hashCode()} but over the bytes
+     * @return the tag with that text, or null if there isn't one
+     */
+    static Tag forText(byte[] bytes, int start, int end, int hash) {
+        int len = end - start;
+        int i = hash & BY_TEXT_MASK;
+        while (BY_TEXT[i] != null) {
+            String text = BY_TEXT[i].tagText;
+            if (text.length() == len && regionMatches(bytes, start, text)) {
+                return BY_TEXT[i];
+            }
+            i = (i + 1) & BY_TEXT_MASK;
+        }
+        return null;
+    }
+
+    /**
+     * Get the tag whose text matches a region of a string, without having to make a new string for the region
+     * 
+     * @param s
+     *            the string containing the tag text
+     * @param start
+     *            the index in the string where the tag text starts
+     * @param end
+     *            the index in the string just after the tag text
+     * @param hash
+     *            the hash code of the tag text, calculated the same way as {@link String#hashCode()}
+     * @return the tag with that text, or null if there isn't one
+     */
+    static Tag forText(String s, int start, int end, int hash) {
+        int len = end - start;
+        int i = hash & BY_TEXT_MASK;
+        while (BY_TEXT[i] != null) {
+            String text = BY_TEXT[i].tagText;
+            if (text.length() == len && s.regionMatches(start, text, 0, len)) {
+                return BY_TEXT[i];
+            }
+            i = (i + 1) & BY_TEXT_MASK;
+        }
+        return null;
+    }
+
+    /**
+     * Build the hash table of tags by their text
+     * 
+     * @return the hash table of tags
+     */
+    private static Tag[] buildTextTable() {
+        Tag[] result = new Tag[Integer.highestOneBit(values().length) << 2];
+        int mask = result.length - 1;
+        for (Tag t : values()) {
+            if (!t.tagText.isEmpty()) {
+                int i = t.tagText.hashCode() & mask;
+                while (result[i] != null) {
+                    i = (i + 1) & mask;
+                }
+                result[i] = t;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Does a region of a buffer of bytes hold the supplied (ASCII) text?
+     * 
+     * @param bytes
+     *            the buffer
+     * @param start
+     *            the index in the buffer where the region starts, which must have at least as many bytes after it as the text has
+     *            characters
+     * @param text
+     *            the text to look for
+     * @return true if and only if each byte in the region is the same as the corresponding character of the text
+     */
+    private static boolean regionMatches(byte[] bytes, int start, String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (bytes[start + i] != text.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
 
     /**
      * The text string for the tag
@@ -26,7 +26,6 @@
  */
 package org.gedcom4j.parser;
 
-import org.gedcom4j.model.StringTree;
 import org.gedcom4j.model.StringWithCustomFacts;
 import org.gedcom4j.model.UserReference;
 
@@ -42,13 +41,15 @@ class UserReferenceParser extends AbstractParser<UserReference> {
      * 
      * @param gedcomParser
      *            a reference to the root {@link GedcomParser}
-     * @param stringTree
-     *            {@link StringTree} to be parsed
+     * @param tree
+     *            the tree of lines being parsed
+     * @param node
+     *            the node in the tree to be parsed
      * @param loadInto
      *            the object we are loading data into
      */
-    UserReferenceParser(GedcomParser gedcomParser, StringTree stringTree, UserReference loadInto) {
-        super(gedcomParser, stringTree, loadInto);
+    UserReferenceParser(GedcomParser gedcomParser, StringTreeArena tree, int node, UserReference loadInto) {
+        super(gedcomParser, tree, node, loadInto);
     }
 
     /**
@@ -56,10 +57,10 @@ class UserReferenceParser extends AbstractParser<UserReference> {
      */
     @Override
     void parse() {
-        loadInto.setReferenceNum(new StringWithCustomFacts(stringTree.getValue()));
-        if (stringTree.getChildren() != null) {
-            for (StringTree ch : stringTree.getChildren()) {
-                if (Tag.TYPE.equalsText(ch.getTag())) {
+        loadInto.setReferenceNum(new StringWithCustomFacts(tree.getValue(node)));
+        if (tree.hasChildren(node)) {
+            for (int ch = tree.getFirstChild(node); ch != StringTreeArena.NONE; ch = tree.getNextSibling(ch)) {
+                if (Tag.TYPE.equalsText(tree.getTag(ch))) {
                     loadInto.setType(parseStringWithCustomFacts(ch));
                 } else {
                     unknownTag(ch, loadInto.getReferenceNum());
@@ -31,6 +31,7 @@ import java.util.Date;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -39,8 +40,10 @@ import org.gedcom4j.model.Individual;
 import org.gedcom4j.model.IndividualEvent;
 import org.gedcom4j.model.PersonalName;
 import org.gedcom4j.model.enumerations.IndividualEventType;
+import org.gedcom4j.parser.DateParseCache;
 import org.gedcom4j.parser.DateParser;
 import org.gedcom4j.parser.DateParser.ImpreciseDatePreference;
+import org.gedcom4j.parser.DateRange;
 
 /**
  * A class for finding specific data in a GEDCOM object graph
@@ -81,7 +84,7 @@ public class Finder {
      * @return a List of the individuals that match the criteria, if any. Returns an empty list on no matches.
      */
     public Set<Individual> findByEvent(IndividualEventType eventType, Date dateRangeStart, Date dateRangeEnd) {
-        DateParser dp = new DateParser();
+        DateParser dp = DateParseCache.getSharedInstance().getParser();
         Set<Individual> result = new HashSet<>();
         nextPerson: for (Individual i : g.getIndividuals().values()) {
             List<IndividualEvent> eventsOfType = i.getEventsOfType(eventType);
@@ -96,19 +99,16 @@ public class Finder {
                     continue nextEvent;
                 }
 
-                Date eventStart = dp.parse(ie.getDate().getValue(), ImpreciseDatePreference.FAVOR_EARLIEST);
-                Date eventEnd = dp.parse(ie.getDate().getValue(), ImpreciseDatePreference.FAVOR_LATEST);
-
-                if (dateRangeStart == null && eventStart != null && !eventStart.after(dateRangeEnd)) {
-                    result.add(i);
-                    continue nextPerson;
-                }
-                if (dateRangeEnd == null && eventEnd != null && !eventEnd.before(dateRangeStart)) {
-                    result.add(i);
-                    continue nextPerson;
+                // One parse gets both the earliest and latest days the event's date can mean
+                DateRange eventRange = dp.parseRange(ie.getDate().getValue());
+                if (eventRange == null) {
+                    continue nextEvent;
                 }
-                if (dateRangeStart != null && dateRangeEnd != null && eventStart != null && eventEnd != null && !eventStart.after(
-                        dateRangeEnd) && !eventEnd.before(dateRangeStart)) {
+                long eventStart = TimeUnit.DAYS.toMillis(eventRange.getEarliestEpochDay());
+                long eventEnd = TimeUnit.DAYS.toMillis(eventRange.getLatestEpochDay());
+
+                if ((dateRangeStart == null || eventEnd >= dateRangeStart.getTime()) && (dateRangeEnd == null
+                        || eventStart <= dateRangeEnd.getTime())) {
                     result.add(i);
                     continue nextPerson;
                 }
@@ -132,7 +132,7 @@ public class Finder {
      * @return a List of the individuals that match the critaria, if any. Returns an empty list on no matches.
      */
     public Set<Individual> findByEvent(IndividualEventType eventType, String dateRangeStartAsString, String dateRangeEndAsString) {
-        DateParser dp = new DateParser();
+        DateParser dp = DateParseCache.getSharedInstance().getParser();
         Date dateRangeStart = null;
         if (dateRangeStartAsString != null) {
             dateRangeStart = dp.parse(dateRangeStartAsString, ImpreciseDatePreference.FAVOR_EARLIEST);
@@ -0,0 +1,1586 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.snapshot;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.gedcom4j.model.AbstractAddressableElement;
+import org.gedcom4j.model.AbstractCitation;
+import org.gedcom4j.model.AbstractElement;
+import org.gedcom4j.model.AbstractEvent;
+import org.gedcom4j.model.AbstractLdsOrdinance;
+import org.gedcom4j.model.AbstractNameVariation;
+import org.gedcom4j.model.AbstractNotesElement;
+import org.gedcom4j.model.Address;
+import org.gedcom4j.model.Association;
+import org.gedcom4j.model.ChangeDate;
+import org.gedcom4j.model.CharacterSet;
+import org.gedcom4j.model.CitationData;
+import org.gedcom4j.model.CitationWithSource;
+import org.gedcom4j.model.CitationWithoutSource;
+import org.gedcom4j.model.Corporation;
+import org.gedcom4j.model.CustomFact;
+import org.gedcom4j.model.EventRecorded;
+import org.gedcom4j.model.Family;
+import org.gedcom4j.model.FamilyChild;
+import org.gedcom4j.model.FamilyEvent;
+import org.gedcom4j.model.FamilySpouse;
+import org.gedcom4j.model.FileReference;
+import org.gedcom4j.model.Gedcom;
+import org.gedcom4j.model.GedcomVersion;
+import org.gedcom4j.model.HasXref;
+import org.gedcom4j.model.Header;
+import org.gedcom4j.model.HeaderSourceData;
+import org.gedcom4j.model.Individual;
+import org.gedcom4j.model.IndividualAttribute;
+import org.gedcom4j.model.IndividualEvent;
+import org.gedcom4j.model.IndividualReference;
+import org.gedcom4j.model.LdsIndividualOrdinance;
+import org.gedcom4j.model.LdsSpouseSealing;
+import org.gedcom4j.model.MultiStringWithCustomFacts;
+import org.gedcom4j.model.Multimedia;
+import org.gedcom4j.model.MultimediaReference;
+import org.gedcom4j.model.NoteRecord;
+import org.gedcom4j.model.NoteStructure;
+import org.gedcom4j.model.PersonalName;
+import org.gedcom4j.model.PersonalNameVariation;
+import org.gedcom4j.model.Place;
+import org.gedcom4j.model.PlaceNameVariation;
+import org.gedcom4j.model.Repository;
+import org.gedcom4j.model.RepositoryCitation;
+import org.gedcom4j.model.Source;
+import org.gedcom4j.model.SourceCallNumber;
+import org.gedcom4j.model.SourceData;
+import org.gedcom4j.model.SourceSystem;
+import org.gedcom4j.model.StringWithCustomFacts;
+import org.gedcom4j.model.Submission;
+import org.gedcom4j.model.SubmissionReference;
+import org.gedcom4j.model.Submitter;
+import org.gedcom4j.model.SubmitterReference;
+import org.gedcom4j.model.Trailer;
+import org.gedcom4j.model.UserReference;
+import org.gedcom4j.model.enumerations.FamilyEventType;
+import org.gedcom4j.model.enumerations.IndividualAttributeType;
+import org.gedcom4j.model.enumerations.IndividualEventType;
+import org.gedcom4j.model.enumerations.LdsIndividualOrdinanceType;
+
+/**
+ * <p>
+ * Reads a {@link Gedcom} back from a binary snapshot written by {@link GedcomSnapshotWriter}. Files are memory-mapped and copied
+ * in bulk, the string table is decoded in one pass, and from then on every string and every reference is just an index, so a
+ * snapshot loads several times faster than the GEDCOM file it came from could be parsed.
+ * </p>
+ * <p>
+ * Each kind of element is read by its own method, through the public constructors and setters of the data model, in the same
+ * order {@link GedcomSnapshotWriter} wrote it. Lists that were null when the snapshot was written are left as the data model makes
+ * them, so they come back empty rather than null if {@link org.gedcom4j.Options#isCollectionInitializationEnabled()} is on - just
+ * as they do from the copy constructors in the data model.
+ * </p>
+ * <p>
+ * Snapshots are only read back by a version of gedcom4j that writes the same version of the format - anything else is refused with
+ * an {@link IOException}, as is a snapshot that is truncated or corrupt. Instances of this class can be reused, but not shared
+ * between threads.
+ * </p>
+ * 
+ * @author frizbog
+ */
+@SuppressWarnings({ "PMD.GodClass", "PMD.TooManyMethods", "PMD.ExcessiveImports", "PMD.ExcessiveClassLength",
+        "PMD.CouplingBetweenObjects" })
+public final class GedcomSnapshotReader {
+
+    /**
+     * The snapshot being read
+     */
+    private byte[] data;
+
+    /**
+     * The position in {@link #data} of the next byte to read
+     */
+    private int pos;
+
+    /**
+     * The string table
+     */
+    private String[] strings;
+
+    /**
+     * The record table
+     */
+    private HasXref[] records;
+
+    /**
+     * Read a snapshot from a buffer, such as a memory-mapped file
+     * 
+     * @param buffer
+     *            the buffer holding the snapshot, from its position to its limit. The position is not changed.
+     * @return the data in the snapshot
+     * @throws IOException
+     *             if the snapshot is corrupt, or was written in a different version of the format
+     */
+    public Gedcom read(ByteBuffer buffer) throws IOException {
+        data = new byte[buffer.remaining()];
+        buffer.duplicate().get(data);
+        return readData();
+    }
+
+    /**
+     * Read a snapshot from a stream
+     * 
+     * @param in
+     *            the stream to read, to its end. It is not closed.
+     * @return the data in the snapshot
+     * @throws IOException
+     *             if the stream can't be read, or the snapshot is corrupt or was written in a different version of the format
+     */
+    public Gedcom read(InputStream in) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        byte[] chunk = new byte[65536];
+        int n = in.read(chunk);
+        while (n >= 0) {
+            bytes.write(chunk, 0, n);
+            n = in.read(chunk);
+        }
+        data = bytes.toByteArray();
+        return readData();
+    }
+
+    /**
+     * Read a snapshot from a file
+     * 
+     * @param fileName
+     *            the name of the file
+     * @return the data in the snapshot
+     * @throws IOException
+     *             if the file can't be read, or the snapshot is corrupt or was written in a different version of the format
+     */
+    public Gedcom read(String fileName) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(fileName, "r"); FileChannel channel = file.getChannel()) {
+            return read(channel.map(MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Create an empty record, for an entry in the record table
+     * 
+     * @param kind
+     *            the kind of record - one of the record kinds in {@link SnapshotFormat}
+     * @param xref
+     *            the xref of the record
+     * @return the new record
+     * @throws IOException
+     *             if the kind of record is unknown, so the snapshot must be corrupt
+     */
+    private static HasXref newRecord(int kind, String xref) throws IOException {
+        switch (kind) {
+            case SnapshotFormat.FAMILY:
+                Family f = new Family();
+                f.setXref(xref);
+                return f;
+            case SnapshotFormat.INDIVIDUAL:
+                Individual i = new Individual();
+                i.setXref(xref);
+                return i;
+            case SnapshotFormat.MULTIMEDIA:
+                Multimedia m = new Multimedia();
+                m.setXref(xref);
+                return m;
+            case SnapshotFormat.NOTE:
+                return new NoteRecord(xref);
+            case SnapshotFormat.REPOSITORY:
+                Repository r = new Repository();
+                r.setXref(xref);
+                return r;
+            case SnapshotFormat.SOURCE:
+                Source s = new Source();
+                s.setXref(xref);
+                return s;
+            case SnapshotFormat.SUBMITTER:
+                Submitter submitter = new Submitter();
+                submitter.setXref(xref);
+                return submitter;
+            case SnapshotFormat.SUBMISSION:
+                return new Submission(xref);
+            default:
+                throw new IOException("Snapshot is corrupt - unknown kind of record " + kind);
+        }
+    }
+
+    /**
+     * Read an address
+     * 
+     * @return the address, or null if there wasn't one
+     * @throws IOException
+     *             if the snapshot is corrupt
+     */
+    private Address readAddress() throws IOException {
+        if (!readPresence()) {
+            return null;
+        }
+        Address a = new Address();
+        readElement(a);
+        a.setAddr1(readStringWithCustomFacts());
+        a.setAddr2(readStringWithCustomFacts());
+        a.setAddr3(readStringWithCustomFacts());
+        a.setCity(readStringWithCustomFacts());
+        a.setCountry(readStringWithCustomFacts());
+        int n = readSize();
+        readStrings(a.getLines(n >= 0), n);
+        a.setPostalCode(readStringWithCustomFacts());
+        a.setStateProvince(readStringWithCustomFacts());
+        return a;
+    }
+
+    /**
+     * Read the properties of an {@link AbstractAddressableElement}, and those it inherits
+     * 
+     * @param e
+     *            the element to read into
+     * @throws IOException
+     *             if the snapshot is corrupt
+     */
+    private void readAddressable(AbstractAddressableElement e) throws IOException {
+        readNotes(e);
+        e.setAddress(readAddress());
+        int n = readSize();
+        readStringsWithCustomFacts(e.getEmails(n >= 0), n);
+        n = readSize();
+        readStringsWithCustomFacts(e.getFaxNumbers(n >= 0), n);
+        n = readSize();
+        readStringsWithCustomFacts(e.getPhoneNumbers(n >= 0), n);
+        n = readSize();
+        readStringsWithCustomFacts(e.getWwwUrls(n >= 0), n);
+    }
+
+    /**
+     * Read a list of associations
+     * 
+     * @param into
+     *            the list to add them to
+     * @param count
+     *            the number of associations
+     * @throws IOException
+     *             if the snapshot is corrupt
+     */
+    private void readAssociations(List<Association> into, int count) throws IOException {
+        for (int i = 0; i < count; i++) {
+            Association a = null;
+            if (readPresence()) {
+                a = new Association();
+                readNotes(a);
+                a.setAssociatedEntityType(readStringWithCustomFacts());
+                a.setAssociatedEntityXref(readString());
+                int n = readSize();
+                readCitations(a.getCitations(n >= 0), n);
+                a.setRelationship(readStringWithCustomFacts());
+            }
+            into.add(a);
+        }
+    }
+
+    /**
+     * Read a change date
+     * 
+     * @return the change date, or null if there wasn't one
+     * @throws IOException
+     *             if the snapshot is corrupt
+     */
+    private ChangeDate readChangeDate() throws IOException {
+        if (!readPresence()) {
+            return null;
+        }
+        ChangeDate c = new ChangeDate();
+        readNotes(c);
+        c.setDate(readStringWithCustomFacts());
+        c.setTime(readStringWithCustomFacts());
+        return c;
+    }
+
+    /**
+     * Read a character set
+     * 
+     * @return the character set, or null if there wasn't one
+     * @throws IOException
+     *             if the snapshot is corrupt
+     */
+    private CharacterSet readCharacterSet() throws IOException {
+        if (!readPresence()) {
+            return null;
+        }
+        CharacterSet c = new CharacterSet();
+        readElement(c);
+        c.setCharacterSetName(readStringWithCustomFacts());
+        c.setVersionNum(readStringWithCustomFacts());
+        return c;
+    }
+
+    /**
+     * Read a citation, starting with the kind of citation it is
+     * 
+     * @return the citation, or null if there wasn't one
+     * @throws IOException
+     *             if the snapshot is corrupt
+     */
+    private AbstractCitation readCitation() throws IOException {
+        int kind = data[pos++];
+        if (kind == SnapshotFormat.CITATION_WITH_SOURCE) {
+            CitationWithSource cws = new CitationWithSource();
+            readCitationBase(cws);
+            int n = readSize();
+            readCitationData(cws.getData(n >= 0), n);
+            cws.setEventCited(readStringWithCustomFacts());
+            cws.setRoleInEvent(readStringWithCustomFacts());
+            cws.setSource(readRecordId(Source.class));
+            cws.setWhereInSource(readStringWithCustomFacts());
+            return cws;
+        } else if (kind == SnapshotFormat.CITATION_WITHOUT_SOURCE) {
+            CitationWithoutSource cwos = new CitationWithoutSource();
+            readCitationBase(cwos);
+            int n = readSize();
+            readStrings(cwos.getDescription(n >= 0), n);
+            n = readSize();
+            List<List<String>> textFromSource = cwos.getTextFromSource(n >= 0);
+            for (int i = 0; i < n; i++) {
+                int lines = readSize();
+                List<String> text = lines >= 0 ? new ArrayList<String>(lines) : null;
+                readStrings(text, lines);
+                textFromSource.add(text);
+            }
+            return cwos;
+        } else if (kind == SnapshotFormat.ABSENT) {
+            return null;
+        }
+        throw new IOException("Snapshot is corrupt - unknown kind of citation " + kind + " at position " + (pos - 1));
+    }
+
+    /**
+     * Read the properties of an {@link AbstractCitation}, and those it inherits
+     * 
+     * @param c
+     *            the citation to read into
+     * @throws IOException
+     *             if the snapshot is corrupt
+     */
+    private void readCitationBase(AbstractCitation c) throws IOException {
+        readNotes(c);
+        c.setCertainty(readStringWithCustomFacts());
+        int n = readSize();
+        readMultimediaReferences(c.getMultimedia(n >= 0), n);
+    }
+
+    /**
+     * Read a list of citation data
+     * 
+     * @param into
+     *            the list to add them to
+     * @param count
+     *            the number of citation data
+     * @throws IOException
+     *             if the snapshot is corrupt
+     */
+    private void readCitationData(List<CitationData> into, int count) throws IOException {
+        for (int i = 0; i < count; i++) {
+            CitationData d = null;
+            if (readPresence()) {
+                d = new CitationData();
+                readElement(d);
+                d.setEntryDate(readStringWithCustomFacts());
+                int n = readSize();
+                List<MultiStringWithCustomFacts> sourceText = d.getSourceText(n >= 0);
+                for (int j = 0; j < n; j++) {
+                    sourceText.add(readMultiString());
+                }
+            }
+            into.add(d);
+        }
+    }
+
+    /**
+     * Read a list of citations
+     * 
+     * @param into
+     *            the list to add them to
+     * @param count
+     *            the number of citations
+     * @throws IOException
+     *             if the snapshot is corrupt
+     */
+    private void readCitations(List<AbstractCitation> into, int count) throws IOException {
+        for (int i = 0; i < count; i++) {
+            into.add(readCitation());
+        }
+    }
+
+    /**
+     * Read a count of things that follow, each of which takes at least one byte
+     * 
+     * @return the count
+     * @throws IOException
+     *             if the count is more than the number of bytes left, so the snapshot must be corrupt
+     */
+    private int readCount() throws IOException {
+        int result = readVarint();
+        if (result < 0 || result > data.length - pos) {
+            throw new IOException("Snapshot is corrupt - count of " + result + " at position " + pos);
+        }
+        return result;
+    }
+
+    /**
+     * Read the snapshot in {@link #data}
+     * 
+     * @return the data in the snapshot
+     * @throws IOException
+     *             if the snapshot is corrupt, or was written in a different version of the format
+     */
+    private Gedcom readData() throws IOException {
+        pos = 0;
+        try {
+            readVersion();
+            readStringTable();
+            readRecordTable();
+            Gedcom result = readGedcom();
+            readRecords();
+            return result;
+        } catch (ArrayIndexOutOfBoundsException e) {
+            EOFException eof = new EOFException("Snapshot is truncated or corrupt");
+            eof.initCause(e);
+            throw eof;
+        } catch (IllegalArgumentException | IllegalStateException | IndexOutOfBoundsException | ClassCastException e) {
+            throw new IOException("Snapshot is corrupt", e);
+        } finally {
+            data = null;
+            strings = null;
+            records = null;
+        }
+    }
+
+    /**
+     * Read the properties that every {@link AbstractElement} has
+     * 
+     * @param e
+     *            the element to read into
+     * @throws IOException
+     *             if the snapshot is corrupt
+     */
+    private void readElement(AbstractElement e) throws IOException {
+        int count = readSize();
+        List<CustomFact> customFacts = e.getCustomFacts(count >= 0);
+        for (int i = 0; i < count; i++) {
+            CustomFact cf = null;
+            if (readPresence()) {
+                cf = new CustomFact(readString());
+                readNotes(cf);
+                cf.setChangeDate(readChangeDate());
+                int n = readSize();
+                readCitations(cf.getCitations(n >= 0), n);
+                cf.setDate(readStringWithCustomFacts());
+                cf.setDescription(readStringWithCustomFacts());
+                cf.setPlace(readPlace());
+                cf.setType(readStringWithCustomFacts());
+                cf.setXref(readString());
+            }
+            customFacts.add(cf);
+        }
+    }
+
+    /**
+     * Read an enum constant, written as its name
+     * 
+     * @param type
+     *            the enum type
+     * @param <E>
+     *            the enum type
+     * @return the enum constant, or null if there wasn't one
+     * @throws IOException
+     *             if the snapshot is corrupt
+     */
+    private <E extends Enum<E>> E readEnum(Class<E> type) throws IOException {
+        String name = readString();
+        return name == null ? null : Enum.valueOf(type, name);
+    }
+
+    /**
+     * Read the properties of an {@link AbstractEvent}, and those it inherits
+     * 
+     * @param e
+     *            the event to read into
+     * @throws IOException
+     *             if the snapshot is corrupt
+     */
+    private void readEvent(AbstractEvent e) throws IOException {
+        readAddressable(e);
+        e.setAge(readStringWithCustomFacts());
+        e.setCause(readStringWithCustomFacts());
+        int n = readSize();
+        readCitations(e.getCitations(n >= 0), n);
+        e.setDate(readStringWithCustomFacts());
+        e.setDescription(readStringWithCustomFacts());
+        n = readSize();
+        readMultimediaReferences(e.getMultimedia(n >= 0), n);
+        e.setPlace(readPlace());
+        e.setReligiousAffiliation(readStringWithCustomFacts());
+        e.setRespAgency(readStringWithCustomFacts());
+        e.setRestrictionNotice(readStringWithCustomFacts());
+        e.setSubType(readStringWithCustomFacts());
+        e.setYNull(readString());
+    }
+
+    /**
+     * Read the contents of a family record
+     * 
+     * @param f
+     *            the family to read into
+     * @throws IOException
+     *             if the snapshot is corrupt
+     */
+    private void readFamily(Family f) throws IOException {
+        readNotes(f);
+        f.setAutomatedRecordId(readStringWithCustomFacts());
+        f.setChangeDate(readChangeDate());
+        int n = readSize();
+        readIndividualReferences(f.getChildren(n >= 0), n);
+        n = readSize();
+        readCitations(f.getCitations(n >= 0), n);
+        n = readSize();
+        List<FamilyEvent> events = f.getEvents(n >= 0);
+        for (int i = 0; i < n; i++) {
+            FamilyEvent e = null;
+            if (readPresence()) {
+                e = new FamilyEvent();
+                readEvent(e);
+                e.setHusbandAge(readStringWithCustomFacts());
+                e.setType(readEnum(FamilyEventType.class));
+                e.setWifeAge(readStringWithCustomFacts());
+            }
+            events.add(e);
+        }
+        f.setHusband(readIndividualReference());
+        n = readSize();
+        List<LdsSpouseSealing> sealings = f.getLdsSpouseSealings(n >= 0);
+        for (int i = 0; i < n; i++) {
+            LdsSpouseSealing s = null;
+            if (readPresence()) {
+                s = new LdsSpouseSealing();
+                readLdsOrdinance(s);
+            }
+            sealings.add(s);
+        }
+        n = readSize();
+        readMultimediaReferences(f.getMultimedia(n >= 0), n);
+        f.setNumChildren(readStringWithCustomFacts());
+        f.setRecFileNumber(readStringWithCustomFacts());
+        f.setRestrictionNotice(readStringWithCustomFacts());
+        n = readSize();
+        List<SubmitterReference> submitters = f.getSubmitters(n >= 0);
+        for (int i = 0; i < n; i++) {
+            submitters.add(readSubmitterReference());
+        }
+        n = readSize();
+        readUserReferences(f.getUserReferences(n >= 0), n);
+        f.setWife(readIndividualReference());
+    }
+
+    /**
+     * Read a link from an individual to a family they are a child in
+     * 
+     * @return the link, or null if there wasn't one
+     * @throws IOException
+     *             if the snapshot is corrupt
+     */
+    private FamilyChild readFamilyChild() throws IOException {
+        if (!readPresence()) {
+            return null;
+        }
+        FamilyChild fc = new FamilyChild();
+        readNotes(fc);
+        fc.setAdoptedBy(readStringWithCustomFacts());
+        fc.setFamily(readRecordId(Family.class));
+        fc.setPedigree(readStringWithCustomFacts());
+        fc.setStatus(readStringWithCustomFacts());
+        return fc;
+    }
+
+    /**
+     * Read the {@link Gedcom} itself. The records it refers to are all in the record table already, but they are still empty.
+     * 
+     * @return the {@link Gedcom}
+     * @throws IOException
+     *             if the snapshot is corrupt
+     */
+    private Gedcom readGedcom() throws IOException {
+        Gedcom g = new Gedcom();
+        readElement(g);
+        g.setHeader(readHeader());
+        g.setSubmission(readRecordId(Submission.class));
+        g.setTrailer(readPresence() ? new Trailer() : null);
+        readRecordMap(g.getFamilies(), Family.class);
+        readRecordMap(g.getIndividuals(), Individual.class);
+        readRecordMap(g.getMultimedia(), Multimedia.class);
+        readRecordMap(g.getNotes(), NoteRecord.class);
+        readRecordMap(g.getRepositories(), Repository.class);
+        readRecordMap(g.getSources(), Source.class);
+        readRecordMap(g.getSubmitters(), Submitter.class);
+        return g;
+    }
+
+    /**
+     * Read the header
+     * 
+     * @return the header, or null if there wasn't one
+     * @throws IOException
+     *             if the snapshot is corrupt
+     */
+    private Header readHeader() throws IOException {
+        if (!readPresence()) {
+            return null;
+        }
+        Header h = new Header();
+        readNotes(h);
+        h.setCharacterSet(readCharacterSet());
+        int n = readSize();
+        readStrings(h.getCopyrightData(n >= 0), n);
+        h.setDate(readStringWithCustomFacts());
+        h.setDestinationSystem(readStringWithCustomFacts());
+        h.setFileName(readStringWithCustomFacts());
+        GedcomVersion v = null;
+        if (readPresence()) {
+            v = new GedcomVersion();
+            readElement(v);
+            v.setGedcomForm(readStringWithCustomFacts());
+            v.setVersionNumber(readStringWithCustomFacts());
+        }
+        h.setGedcomVersion(v);
+        h.setLanguage(readStringWithCustomFacts());
+        h.setPlaceHierarchy(readStringWithCustomFacts());
+        h.setSourceSystem(readSourceSystem());
+        SubmissionReference sr = null;
+        if (readPresence()) {
+            sr = new SubmissionReference();
+            readElement(sr);
+            sr.setSubmission(readRecordId(Submission.class));
+        }
+        h.setSubmissionReference(sr);
+        h.setSubmitterReference(readSubmitterReference());
+        h.setTime(readStringWithCustomFacts());
+        return h;
+    }
+
+    /**
+     * Read the contents of an individual record
+     * 
+     * @param ind
+     *            the individual to read into
+     * @throws IOException
+     *             if the snapshot is corrupt
+     */
+    private void readIndividual(Individual ind) throws IOException {
+        readAddressable(ind);
+        int n = readSize();
+        readStringsWithCustomFacts(ind.getAliases(n >= 0), n);
+        n = readSize();
+        readRecordIds(ind.getAncestorInterest(n >= 0), n, Submitter.class);
+        ind.setAncestralFileNumber(readStringWithCustomFacts());
+        n = readSize();
+        readAssociations(ind.getAssociations(n >= 0), n);
+        n = readSize();
+        List<IndividualAttribute> attributes = ind.getAttributes(n >= 0);
+        for (int i = 0; i < n; i++) {
+            IndividualAttribute a = null;
+            if (readPresence()) {
+                a = new IndividualAttribute();
+                readEvent(a);
+                a.setType(readEnum(IndividualAttributeType.class));
+            }
+            attributes.add(a);
+        }
+        ind.setChangeDate(readChangeDate());
+        n = readSize();
+        readCitations(ind.getCitations(n >= 0), n);
+        n = readSize();
+        readRecordIds(ind.getDescendantInterest(n >= 0), n, Submitter.class);
+        n = readSize();
+        List<IndividualEvent> events = ind.getEvents(n >= 0);
+        for (int i = 0; i < n; i++) {
+            IndividualEvent e = null;
+            if (readPresence()) {
+                e = new IndividualEvent();
+                readEvent(e);
+                e.setFamily(readFamilyChild());
+                e.setType(readEnum(IndividualEventType.class));
+            }
+            events.add(e);
+        }
+        n = readSize();
+        List<FamilyChild> familiesWhereChild = ind.getFamiliesWhereChild(n >= 0);
+        for (int i = 0; i < n; i++) {
+            familiesWhereChild.add(readFamilyChild());
+        }
+        n = readSize();
+        List<FamilySpouse> familiesWhereSpouse = ind.getFamiliesWhereSpouse(n >= 0);
+        for (int i = 0; i < n; i++) {
+            FamilySpouse fs = null;
+            if (readPresence()) {
+                fs = new FamilySpouse();
+                readNotes(fs);
+                fs.setFamily(readRecordId(Family.class));
+            }
+            familiesWhereSpouse.add(fs);
+        }
+        n = readSize();
+        List<LdsIndividualOrdinance> ordinances = ind.getLdsIndividualOrdinances(n >= 0);
+        for (int i = 0; i < n; i++) {
+            LdsIndividualOrdinance o = null;
+            if (readPresence()) {
+                o = new LdsIndividualOrdinance();
+                readLdsOrdinance(o);
+                o.setFamilyWhereChild(readFamilyChild());
+                o.setType(readEnum(LdsIndividualOrdinanceType.class));
+                o.setYNull(readString());
+            }
+            ordinances.add(o);
+        }
+        n = readSize();
+        readMultimediaReferences(ind.getMultimedia(n >= 0), n);
+        n = readSize();
+        readPersonalNames(ind.getNames(n >= 0), n);
+        ind.setPermanentRecFileNumber(readStringWithCustomFacts());
+        ind.setRecIdNumber(readStringWithCustomFacts());
+        ind.setRestrictionNotice(readStringWithCustomFacts());
+        ind.setSex(readStringWithCustomFacts());
+        n = readSize();
+        readRecordIds(ind.getSubmitters(n >= 0), n, Submitter.class);
+        n = readSize();
+        readUserReferences(ind.getUserReferences(n >= 0), n);
+    }
+
+    /**
+     * Read a reference to an individual
+     * 
+     * @return the reference, or null if there wasn't one
+     * @throws IOException
+     *             if the snapshot is corrupt
+     */
+    private IndividualReference readIndividualReference() throws IOException {
+        if (!readPresence()) {
+            return null;
+        }
+        IndividualReference r = new IndividualReference();
+        readElement(r);
+        r.setIndividual(readRecordId(Individual.class));
+        return r;
+    }
+
+    /**
+     * Read a list of references to individuals
+     * 
+     * @param into
+     *            the list to add them to
+     * @param count
+     *            the number of references
+     * @throws IOException
+     *             if the snapshot is corrupt
+     */
+    private void readIndividualReferences(List<IndividualReference> into, int count) throws IOException {
+        for (int i = 0; i < count; i++) {
+            into.add(readIndividualReference());
+        }
+    }
+
+    /**
+     * Read a four-byte int, high-order byte first
+     * 
+     * @return the int
+     */
+    private int readInt() {
+        int result = (data[pos] & 0xFF) << 24 | (data[pos + 1] & 0xFF) << 16 | (data[pos + 2] & 0xFF) << 8 | data[pos + 3] & 0xFF;
+        pos += 4;
+        return result;
+    }
+
+    /**
+     * Read the properties of an {@link AbstractLdsOrdinance}, and those it inherits
+     * 
+     * @param o
+     *            the ordinance to read into
+     * @throws IOException
+     *             if the snapshot is corrupt
+     */
+    private void readLdsOrdinance(AbstractLdsOrdinance o) throws IOException {
+        readNotes(o);
+        int n = readSize();
+        readCitations(o.getCitations(n >= 0), n);
+        o.setDate(readStringWithCustomFacts());
+        o.setPlace(readStringWithCustomFacts());
+        o.setStatus(readStringWithCustomFacts());
+        o.setTemple(readStringWithCustomFacts());
+    }
+
+    /**
+     * Read the contents of a multimedia record
+     * 
+     * @param m
+     *            the multimedia to read into
+     * @throws IOException
+     *             if the snapshot is corrupt
+     */
+    private void readMultimedia(Multimedia m) throws IOException {
+        readNotes(m);
+        int n = readSize();
+        readStrings(m.getBlob(n >= 0), n);
+        m.setChangeDate(readChangeDate());
+        n = readSize();
+        readCitations(m.getCitations(n >= 0), n);
+        m.setContinuedObject(readMultimediaReference());
+        m.setEmbeddedMediaFormat(readStringWithCustomFacts());
+        m.setEmbeddedTitle(readStringWithCustomFacts());
+        n = readSize();
+        List<FileReference> fileReferences = m.getFileReferences(n >= 0);
+        for (int i = 0; i < n; i++) {
+            FileReference f = null;
+            if (readPresence()) {
+                f = new FileReference();
+                readElement(f);
+                f.setFormat(readStringWithCustomFacts());
+                f.setMediaType(readStringWithCustomFacts());
+                f.setReferenceToFile(readStringWithCustomFacts());
+                f.setTitle(readStringWithCustomFacts());
+            }
+            fileReferences.add(f);
+        }
+        m.setRecIdNumber(readStringWithCustomFacts());
+        n = readSize();
+        readUserReferences(m.getUserReferences(n >= 0), n);
+    }
+
+    /**
+     * Read a reference to a multimedia record
+     * 
+     * @return the reference, or null if there wasn't one
+     * @throws IOException
+     *             if the snapshot is corrupt
+     */
+    private MultimediaReference readMultimediaReference() throws IOException {
+        if (!readPresence()) {
+            return null;
+        }
+        MultimediaReference r = new MultimediaReference();
+        readElement(r);
+        r.setMultimedia(readRecordId(Multimedia.class));
+        return r;
+    }
+
+    /**
+     * Read a list of references to multimedia records
+     * 
+     * @param into
+     *            the list to add them to
+     * @param count
+     *            the number of references
+     * @throws IOException
+     *             if the snapshot is corrupt
+     */
+    private void readMultimediaReferences(List<MultimediaReference> into, int count) throws IOException {
+        for (int i = 0; i < count; i++) {
+            into.add(readMultimediaReference());
+        }
+    }
+
+    /**
+     * Read a multi-line string with custom facts
+     * 
+     * @return the string, or null if there wasn't one
+     * @throws IOException
+     *             if the snapshot is corrupt
+     */
+    private MultiStringWithCustomFacts readMultiString() throws IOException {
+        if (!readPresence()) {
+            return null;
+        }
+        MultiStringWithCustomFacts m = new MultiStringWithCustomFacts();
+        readElement(m);
+        int n = readSize();
+        readStrings(m.getLines(n >= 0), n);
+        return m;
+    }
+
+    /**
+     * Read a name variation, starting with the kind of variation it is
+     * 
+     * @return the name variation, or null if there wasn't one
+     * @throws IOException
+     *             if the snapshot is corrupt
+     */
+    private AbstractNameVariation readNameVariation() throws IOException {
+        int kind = data[pos++];
+        if (kind == SnapshotFormat.PERSONAL_NAME_VARIATION) {
+            PersonalNameVariation pnv = new PersonalNameVariation();
+            readNameVariationBase(pnv);
+            int n = readSize();
+            readCitations(pnv.getCitations(n >= 0), n);
+            pnv.setGivenName(readStringWithCustomFacts());
+            pnv.setNickname(readStringWithCustomFacts());
+            n = readSize();
+            readNoteStructures(pnv.getNoteStructures(n >= 0), n);
+            pnv.setPrefix(readStringWithCustomFacts());
+            pnv.setSuffix(readStringWithCustomFacts());
+            pnv.setSurname(readStringWithCustomFacts());
+            pnv.setSurnamePrefix(readStringWithCustomFacts());
+            return pnv;
+        } else if (kind == SnapshotFormat.PLACE_NAME_VARIATION) {
+            PlaceNameVariation v = new PlaceNameVariation();
+            readNameVariationBase(v);
+            return v;
+        } else if (kind == SnapshotFormat.ABSENT) {
+            return null;
+        }
+        throw new IOException("Snapshot is corrupt - unknown kind of name variation " + kind + " at position " + (pos - 1));
+    }
+
+    /**
+     * Read the properties of an {@link AbstractNameVariation}, and those it inherits
+     * 
+     * @param v
+     *            the name variation to read into
+     * @throws IOException
+     *             if the snapshot is corrupt
+     */
+    private void readNameVariationBase(AbstractNameVariation v) throws IOException {
+        readElement(v);
+        v.setVariation(readString());
+        v.setVariationType(readStringWithCustomFacts());
+    }
+
+    /**
+     * Read the contents of a note record
+     * 
+     * @param note
+     *            the note to read into
+     * @throws IOException
+     *             if the snapshot is corrupt
+     */
+    private void readNoteRecord(NoteRecord note) throws IOException {
+        readElement(note);
+        note.setChangeDate(readChangeDate());
+        int n = readSize();
+        readCitations(note.getCitations(n >= 0), n);
+        n = readSize();
+        readStrings(note.getLines(n >= 0), n);
+        note.setRecIdNumber(readStringWithCustomFacts());
+        n = readSize();
+        readUserReferences(note.getUserReferences(n >= 0), n);
+    }
+
+    /**
+     * Read the properties of an {@link AbstractNotesElement}, and those it inherits
+     * 
+     * @param e
+     *            the element to read into
+     * @throws IOException
+     *             if the snapshot is corrupt
+     */
+    private void readNotes(AbstractNotesElement e) throws IOException {
+        readElement(e);
+        int n = readSize();
+        readNoteStructures(e.getNoteStructures(n >= 0), n);
+    }
+
+    /**
+     * Read a list of note structures
+     * 
+     * @param into
+     *            the list to add them to
+     * @param count
+     *            the number of note structures
+     * @throws IOException
+     *             if the snapshot is corrupt
+     */
+    private void readNoteStructures(List<NoteStructure> into, int count) throws IOException {
+        for (int i = 0; i < count; i++) {
+            NoteStructure ns = null;
+            if (readPresence()) {
+                ns = new NoteStructure();
+                readElement(ns);
+                int n = readSize();
+                readStrings(ns.getLines(n >= 0), n);
+                ns.setNoteReference(readRecordId(NoteRecord.class));
+            }
+            into.add(ns);
+        }
+    }
+
+    /**
+     * Read a list of personal names
+     * 
+     * @param into
+     *            the list to add them to
+     * @param count
+     *            the number of names
+     * @throws IOException
+     *             if the snapshot is corrupt
+     */
+    private void readPersonalNames(List<PersonalName> into, int count) throws IOException {
+        for (int i = 0; i < count; i++) {
+            PersonalName pn = null;
+            if (readPresence()) {
+                pn = new PersonalName();
+                readNotes(pn);
+                pn.setBasic(readString());
+                int n = readSize();
+                readCitations(pn.getCitations(n >= 0), n);
+                pn.setGivenName(readStringWithCustomFacts());
+                pn.setNickname(readStringWithCustomFacts());
+                n = readSize();
+                List<PersonalNameVariation> phonetic = pn.getPhonetic(n >= 0);
+                for (int j = 0; j < n; j++) {
+                    phonetic.add((PersonalNameVariation) readNameVariation());
+                }
+                pn.setPrefix(readStringWithCustomFacts());
+                n = readSize();
+                List<PersonalNameVariation> romanized = pn.getRomanized(n >= 0);
+                for (int j = 0; j < n; j++) {
+                    romanized.add((PersonalNameVariation) readNameVariation());
+                }
+                pn.setSuffix(readStringWithCustomFacts());
+                pn.setSurname(readStringWithCustomFacts());
+                pn.setSurnamePrefix(readStringWithCustomFacts());
+                pn.setType(readStringWithCustomFacts());
+            }
+            into.add(pn);
+        }
+    }
+
+    /**
+     * Read a place
+     * 
+     * @return the place, or null if there wasn't one
+     * @throws IOException
+     *             if the snapshot is corrupt
+     */
+    private Place readPlace() throws IOException {
+        if (!readPresence()) {
+            return null;
+        }
+        Place p = new Place();
+        readNotes(p);
+        int n = readSize();
+        readCitations(p.getCitations(n >= 0), n);
+        p.setLatitude(readStringWithCustomFacts());
+        p.setLongitude(readStringWithCustomFacts());
+        n = readSize();
+        List<AbstractNameVariation> phonetic = p.getPhonetic(n >= 0);
+        for (int i = 0; i < n; i++) {
+            phonetic.add(readNameVariation());
+        }
+        p.setPlaceFormat(readStringWithCustomFacts());
+        p.setPlaceName(readString());
+        n = readSize();
+        List<AbstractNameVariation> romanized = p.getRomanized(n >= 0);
+        for (int i = 0; i < n; i++) {
+            romanized.add(readNameVariation());
+        }
+        return p;
+    }
+
+    /**
+     * Read whether something is there
+     * 
+     * @return true if the thing is there, and its properties follow
+     * @throws IOException
+     *             if the byte read is neither {@link SnapshotFormat#ABSENT} nor {@link SnapshotFormat#PRESENT}, so the snapshot must
+     *             be corrupt
+     */
+    private boolean readPresence() throws IOException {
+        byte b = data[pos++];
+        if (b == SnapshotFormat.PRESENT) {
+            return true;
+        } else if (b == SnapshotFormat.ABSENT) {
+            return false;
+        }
+        throw new IOException("Snapshot is corrupt - unexpected byte " + b + " at position " + (pos - 1));
+    }
+
+    /**
+     * Read the contents of a record
+     * 
+     * @param r
+     *            the record to read into
+     * @throws IOException
+     *             if the snapshot is corrupt
+     */
+    private void readRecord(HasXref r) throws IOException {
+        if (r instanceof Family) {
+            readFamily((Family) r);
+        } else if (r instanceof Individual) {
+            readIndividual((Individual) r);
+        } else if (r instanceof Multimedia) {
+            readMultimedia((Multimedia) r);
+        } else if (r instanceof NoteRecord) {
+            readNoteRecord((NoteRecord) r);
+        } else if (r instanceof Repository) {
+            readRepository((Repository) r);
+        } else if (r instanceof Source) {
+            readSource((Source) r);
+        } else if (r instanceof Submitter) {
+            readSubmitter((Submitter) r);
+        } else {
+            readSubmission((Submission) r);
+        }
+    }
+
+    /**
+     * Read a reference to a record
+     * 
+     * @param type
+     *            the type of record expected
+     * @param <T>
+     *            the type of record expected
+     * @return the record, or null if there wasn't one
+     */
+    private <T extends HasXref> T readRecordId(Class<T> type) {
+        int id = readVarint();
+        return id == 0 ? null : type.cast(records[id - 1]);
+    }
+
+    /**
+     * Read a list of references to records
+     * 
+     * @param into
+     *            the list to add them to
+     * @param count
+     *            the number of references
+     * @param type
+     *            the type of record expected
+     * @param <T>
+     *            the type of record expected
+     */
+    private <T extends HasXref> void readRecordIds(List<T> into, int count, Class<T> type) {
+        for (int i = 0; i < count; i++) {
+            into.add(readRecordId(type));
+        }
+    }
+
+    /**
+     * Read one of the maps of records in the {@link Gedcom}
+     * 
+     * @param into
+     *            the map to put the records in
+     * @param type
+     *            the type of record expected
+     * @param <T>
+     *            the type of record expected
+     * @throws IOException
+     *             if the snapshot is corrupt
+     */
+    private <T extends HasXref> void readRecordMap(Map<String, T> into, Class<T> type) throws IOException {
+        int count = readCount();
+        for (int i = 0; i < count; i++) {
+            String key = readString();
+            into.put(key, readRecordId(type));
+        }
+    }
+
+    /**
+     * Read the contents of every record in the record table, which are the last thing in the snapshot
+     * 
+     * @throws IOException
+     *             if the snapshot is corrupt
+     */
+    private void readRecords() throws IOException {
+        for (int i = 0; i < records.length; i++) {
+            int length = readInt();
+            int end = pos + length;
+            readRecord(records[i]);
+            if (pos != end) {
+                throw new IOException("Snapshot is corrupt - record " + i + " should be " + length + " bytes long");
+            }
+        }
+        if (pos != data.length) {
+            throw new IOException("Snapshot is corrupt - " + (data.length - pos) + " bytes left over");
+        }
+    }
+
+    /**
+     * Read the record table, and create an empty record for each entry in it
+     * 
+     * @throws IOException
+     *             if the snapshot is corrupt
+     */
+    private void readRecordTable() throws IOException {
+        records = new HasXref[readCount()];
+        for (int i = 0; i < records.length; i++) {
+            int kind = data[pos++];
+            records[i] = newRecord(kind, readString());
+        }
+    }
+
+    /**
+     * Read the contents of a repository record
+     * 
+     * @param r
+     *            the repository to read into
+     * @throws IOException
+     *             if the snapshot is corrupt
+     */
+    private void readRepository(Repository r) throws IOException {
+        readAddressable(r);
+        r.setChangeDate(readChangeDate());
+        r.setName(readStringWithCustomFacts());
+        r.setRecIdNumber(readStringWithCustomFacts());
+        int n = readSize();
+        readUserReferences(r.getUserReferences(n >= 0), n);
+    }
+
+    /**
+     * Read the size of a list
+     * 
+     * @return the size of the list, or -1 if it was null
+     * @throws IOException
+     *             if the size is more than the number of bytes left, so the snapshot must be corrupt
+     */
+    private int readSize() throws IOException {
+        int result = readVarint() - 1;
+        if (result < -1 || result > data.length - pos) {
+            throw new IOException("Snapshot is corrupt - list of " + result + " items at position " + pos);
+        }
+        return result;
+    }
+
+    /**
+     * Read the contents of a source record
+     * 
+     * @param s
+     *            the source to read into
+     * @throws IOException
+     *             if the snapshot is corrupt
+     */
+    private void readSource(Source s) throws IOException {
+        readNotes(s);
+        s.setChangeDate(readChangeDate());
+        SourceData d = null;
+        if (readPresence()) {
+            d = new SourceData();
+            readNotes(d);
+            int n = readSize();
+            List<EventRecorded> eventsRecorded = d.getEventsRecorded(n >= 0);
+            for (int i = 0; i < n; i++) {
+                EventRecorded e = null;
+                if (readPresence()) {
+                    e = new EventRecorded();
+                    readElement(e);
+                    e.setDatePeriod(readStringWithCustomFacts());
+                    e.setEventType(readStringWithCustomFacts());
+                    e.setJurisdiction(readStringWithCustomFacts());
+                }
+                eventsRecorded.add(e);
+            }
+            d.setRespAgency(readStringWithCustomFacts());
+        }
+        s.setData(d);
+        int n = readSize();
+        readMultimediaReferences(s.getMultimedia(n >= 0), n);
+        s.setOriginatorsAuthors(readMultiString());
+        s.setPublicationFacts(readMultiString());
+        s.setRecIdNumber(readStringWithCustomFacts());
+        RepositoryCitation rc = null;
+        if (readPresence()) {
+            rc = new RepositoryCitation();
+            readNotes(rc);
+            n = readSize();
+            List<SourceCallNumber> callNumbers = rc.getCallNumbers(n >= 0);
+            for (int i = 0; i < n; i++) {
+                SourceCallNumber c = null;
+                if (readPresence()) {
+                    c = new SourceCallNumber();
+                    readElement(c);
+                    c.setCallNumber(readStringWithCustomFacts());
+                    c.setMediaType(readStringWithCustomFacts());
+                }
+                callNumbers.add(c);
+            }
+            rc.setRepositoryXref(readString());
+        }
+        s.setRepositoryCitation(rc);
+        s.setSourceFiledBy(readStringWithCustomFacts());
+        s.setSourceText(readMultiString());
+        s.setTitle(readMultiString());
+        n = readSize();
+        readUserReferences(s.getUserReferences(n >= 0), n);
+    }
+
+    /**
+     * Read the source system in the header
+     * 
+     * @return the source system, or null if there wasn't one
+     * @throws IOException
+     *             if the snapshot is corrupt
+     */
+    private SourceSystem readSourceSystem() throws IOException {
+        if (!readPresence()) {
+            return null;
+        }
+        SourceSystem s = new SourceSystem();
+        readElement(s);
+        Corporation c = null;
+        if (readPresence()) {
+            c = new Corporation();
+            readAddressable(c);
+            c.setBusinessName(readString());
+        }
+        s.setCorporation(c);
+        s.setProductName(readStringWithCustomFacts());
+        HeaderSourceData d = null;
+        if (readPresence()) {
+            d = new HeaderSourceData();
+            readElement(d);
+            d.setCopyright(readStringWithCustomFacts());
+            d.setName(readStringWithCustomFacts());
+            d.setPublishDate(readStringWithCustomFacts());
+        }
+        s.setSourceData(d);
+        s.setSystemId(readString());
+        s.setVersionNum(readStringWithCustomFacts());
+        return s;
+    }
+
+    /**
+     * Read a string, written as its index in the string table
+     * 
+     * @return the string, or null if there wasn't one
+     */
+    private String readString() {
+        int id = readVarint();
+        return id == 0 ? null : strings[id - 1];
+    }
+
+    /**
+     * Read a list of strings
+     * 
+     * @param into
+     *            the list to add them to
+     * @param count
+     *            the number of strings
+     */
+    private void readStrings(List<String> into, int count) {
+        for (int i = 0; i < count; i++) {
+            into.add(readString());
+        }
+    }
+
+    /**
+     * Read a list of strings with custom facts
+     * 
+     * @param into
+     *            the list to add them to
+     * @param count
+     *            the number of strings
+     * @throws IOException
+     *             if the snapshot is corrupt
+     */
+    private void readStringsWithCustomFacts(List<StringWithCustomFacts> into, int count) throws IOException {
+        for (int i = 0; i < count; i++) {
+            into.add(readStringWithCustomFacts());
+        }
+    }
+
+    /**
+     * Read the string table
+     * 
+     * @throws IOException
+     *             if the snapshot is corrupt
+     */
+    private void readStringTable() throws IOException {
+        strings = new String[readCount()];
+        char[] chars = new char[256];
+        for (int i = 0; i < strings.length; i++) {
+            int length = readCount();
+            if (length > chars.length) {
+                chars = new char[Math.max(length, chars.length * 2)];
+            }
+            // Nearly all strings are ASCII, which can be copied straight across without the overhead of a decoder
+            int j = 0;
+            while (j < length && data[pos + j] >= 0) {
+                chars[j] = (char) data[pos + j];
+                j++;
+            }
+            if (j == length) {
+                strings[i] = new String(chars, 0, length);
+            } else {
+                strings[i] = new String(data, pos, length, SnapshotFormat.CHARSET);
+            }
+            pos += length;
+        }
+    }
+
+    /**
+     * Read a string with custom facts, written as a single number that says both what the string is and whether custom facts
+     * follow
+     * 
+     * @return the string with custom facts, or null if there wasn't one
+     * @throws IOException
+     *             if the snapshot is corrupt
+     */
+    private StringWithCustomFacts readStringWithCustomFacts() throws IOException {
+        int code = readVarint();
+        if (code == 0) {
+            return null;
+        }
+        int value = code - 1 >>> 1;
+        StringWithCustomFacts result = new StringWithCustomFacts(value == 0 ? null : strings[value - 1]);
+        if ((code - 1 & 1) != 0) {
+            readElement(result);
+        }
+        return result;
+    }
+
+    /**
+     * Read the contents of a submission record
+     * 
+     * @param s
+     *            the submission to read into
+     * @throws IOException
+     *             if the snapshot is corrupt
+     */
+    private void readSubmission(Submission s) throws IOException {
+        readElement(s);
+        s.setAncestorsCount(readStringWithCustomFacts());
+        s.setDescendantsCount(readStringWithCustomFacts());
+        s.setNameOfFamilyFile(readStringWithCustomFacts());
+        s.setOrdinanceProcessFlag(readStringWithCustomFacts());
+        s.setRecIdNumber(readStringWithCustomFacts());
+        s.setSubmitter(readRecordId(Submitter.class));
+        s.setTempleCode(readStringWithCustomFacts());
+    }
+
+    /**
+     * Read the contents of a submitter record
+     * 
+     * @param s
+     *            the submitter to read into
+     * @throws IOException
+     *             if the snapshot is corrupt
+     */
+    private void readSubmitter(Submitter s) throws IOException {
+        readAddressable(s);
+        s.setChangeDate(readChangeDate());
+        int n = readSize();
+        readStringsWithCustomFacts(s.getLanguagePref(n >= 0), n);
+        n = readSize();
+        readMultimediaReferences(s.getMultimedia(n >= 0), n);
+        s.setName(readStringWithCustomFacts());
+        s.setRecIdNumber(readStringWithCustomFacts());
+        s.setRegFileNumber(readStringWithCustomFacts());
+        n = readSize();
+        readUserReferences(s.getUserReferences(n >= 0), n);
+    }
+
+    /**
+     * Read a reference to a submitter
+     * 
+     * @return the reference, or null if there wasn't one
+     * @throws IOException
+     *             if the snapshot is corrupt
+     */
+    private SubmitterReference readSubmitterReference() throws IOException {
+        if (!readPresence()) {
+            return null;
+        }
+        SubmitterReference r = new SubmitterReference();
+        readElement(r);
+        r.setSubmitter(readRecordId(Submitter.class));
+        return r;
+    }
+
+    /**
+     * Read a list of user references
+     * 
+     * @param into
+     *            the list to add them to
+     * @param count
+     *            the number of user references
+     * @throws IOException
+     *             if the snapshot is corrupt
+     */
+    private void readUserReferences(List<UserReference> into, int count) throws IOException {
+        for (int i = 0; i < count; i++) {
+            UserReference r = null;
+            if (readPresence()) {
+                r = new UserReference();
+                readElement(r);
+                r.setReferenceNum(readStringWithCustomFacts());
+                r.setType(readStringWithCustomFacts());
+            }
+            into.add(r);
+        }
+    }
+
+    /**
+     * Read an unsigned variable-length int
+     * 
+     * @return the int
+     */
+    private int readVarint() {
+        int b = data[pos++];
+        int result = b & 0x7F;
+        int shift = 7;
+        while (b < 0) {
+            b = data[pos++];
+            result |= (b & 0x7F) << shift;
+            shift += 7;
+        }
+        return result;
+    }
+
+    /**
+     * Read and check the magic bytes and version at the start of the snapshot
+     * 
+     * @throws IOException
+     *             if the data isn't a snapshot, or is in a different version of the format
+     */
+    private void readVersion() throws IOException {
+        if (data.length < SnapshotFormat.MAGIC.length + 4
+                || !Arrays.equals(SnapshotFormat.MAGIC, Arrays.copyOf(data, SnapshotFormat.MAGIC.length))) {
+            throw new IOException("Not a gedcom4j snapshot");
+        }
+        pos = SnapshotFormat.MAGIC.length;
+        int version = readInt();
+        if (version != SnapshotFormat.VERSION) {
+            throw new IOException("Snapshot is in version " + version
+                    + " of the format, which can't be read by this version of gedcom4j");
+        }
+    }
+}
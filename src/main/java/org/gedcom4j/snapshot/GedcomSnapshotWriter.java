@@ -0,0 +1,1328 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.snapshot;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.gedcom4j.model.AbstractAddressableElement;
+import org.gedcom4j.model.AbstractCitation;
+import org.gedcom4j.model.AbstractElement;
+import org.gedcom4j.model.AbstractEvent;
+import org.gedcom4j.model.AbstractLdsOrdinance;
+import org.gedcom4j.model.AbstractNameVariation;
+import org.gedcom4j.model.AbstractNotesElement;
+import org.gedcom4j.model.Address;
+import org.gedcom4j.model.Association;
+import org.gedcom4j.model.ChangeDate;
+import org.gedcom4j.model.CharacterSet;
+import org.gedcom4j.model.CitationData;
+import org.gedcom4j.model.CitationWithSource;
+import org.gedcom4j.model.CitationWithoutSource;
+import org.gedcom4j.model.Corporation;
+import org.gedcom4j.model.CustomFact;
+import org.gedcom4j.model.EventRecorded;
+import org.gedcom4j.model.Family;
+import org.gedcom4j.model.FamilyChild;
+import org.gedcom4j.model.FamilyEvent;
+import org.gedcom4j.model.FamilySpouse;
+import org.gedcom4j.model.FileReference;
+import org.gedcom4j.model.Gedcom;
+import org.gedcom4j.model.GedcomVersion;
+import org.gedcom4j.model.HasXref;
+import org.gedcom4j.model.Header;
+import org.gedcom4j.model.HeaderSourceData;
+import org.gedcom4j.model.Individual;
+import org.gedcom4j.model.IndividualAttribute;
+import org.gedcom4j.model.IndividualEvent;
+import org.gedcom4j.model.IndividualReference;
+import org.gedcom4j.model.LdsIndividualOrdinance;
+import org.gedcom4j.model.LdsSpouseSealing;
+import org.gedcom4j.model.MultiStringWithCustomFacts;
+import org.gedcom4j.model.Multimedia;
+import org.gedcom4j.model.MultimediaReference;
+import org.gedcom4j.model.NoteRecord;
+import org.gedcom4j.model.NoteStructure;
+import org.gedcom4j.model.PersonalName;
+import org.gedcom4j.model.PersonalNameVariation;
+import org.gedcom4j.model.Place;
+import org.gedcom4j.model.Repository;
+import org.gedcom4j.model.RepositoryCitation;
+import org.gedcom4j.model.Source;
+import org.gedcom4j.model.SourceCallNumber;
+import org.gedcom4j.model.SourceData;
+import org.gedcom4j.model.SourceSystem;
+import org.gedcom4j.model.StringWithCustomFacts;
+import org.gedcom4j.model.Submission;
+import org.gedcom4j.model.SubmissionReference;
+import org.gedcom4j.model.Submitter;
+import org.gedcom4j.model.SubmitterReference;
+import org.gedcom4j.model.UserReference;
+
+/**
+ * <p>
+ * Writes a {@link Gedcom} to a compact binary snapshot, which {@link GedcomSnapshotReader} can load back much faster than the
+ * GEDCOM file could be parsed. The format is described in {@link SnapshotFormat}.
+ * </p>
+ * <p>
+ * Everything is written through the public getters of the data model, one method per kind of element, and read back by the
+ * matching method in {@link GedcomSnapshotReader}. Each record is written on its own and refers to other records by number, so
+ * writing (and reading) a snapshot never recurses more deeply than the structure of a single record, no matter how long the
+ * chains of individuals and families are. Each distinct string is written once.
+ * </p>
+ * <p>
+ * Example:
+ * </p>
+ * 
+ * <pre>
+ * GedcomParser gp = new GedcomParser();
+ * gp.load(&quot;family.ged&quot;);
+ * new GedcomSnapshotWriter(gp.getGedcom()).write(&quot;family.g4j&quot;);
+ * ...
+ * Gedcom g = new GedcomSnapshotReader().read(&quot;family.g4j&quot;);
+ * </pre>
+ * 
+ * @author frizbog
+ */
+@SuppressWarnings({ "PMD.GodClass", "PMD.TooManyMethods", "PMD.ExcessiveImports", "PMD.ExcessiveClassLength" })
+public final class GedcomSnapshotWriter {
+
+    /**
+     * A growable buffer of bytes being written
+     */
+    private static final class Buffer {
+
+        /**
+         * The bytes written so far, followed by unused space
+         */
+        private byte[] bytes = new byte[65536];
+
+        /**
+         * The number of bytes written
+         */
+        private int size;
+
+        /**
+         * Write a byte
+         * 
+         * @param b
+         *            the byte to write
+         */
+        void writeByte(int b) {
+            ensureCapacity(1);
+            bytes[size++] = (byte) b;
+        }
+
+        /**
+         * Write an array of bytes
+         * 
+         * @param b
+         *            the bytes to write
+         */
+        void writeBytes(byte[] b) {
+            ensureCapacity(b.length);
+            System.arraycopy(b, 0, bytes, size, b.length);
+            size += b.length;
+        }
+
+        /**
+         * Write an int as four bytes, high-order byte first
+         * 
+         * @param i
+         *            the int to write
+         */
+        void writeInt(int i) {
+            ensureCapacity(4);
+            setInt(size, i);
+            size += 4;
+        }
+
+        /**
+         * Write an unsigned variable-length int
+         * 
+         * @param i
+         *            the int to write, treated as unsigned
+         */
+        void writeVarint(int i) {
+            ensureCapacity(5);
+            int v = i;
+            while ((v & ~0x7F) != 0) {
+                bytes[size++] = (byte) (v & 0x7F | 0x80);
+                v >>>= 7;
+            }
+            bytes[size++] = (byte) v;
+        }
+
+        /**
+         * Overwrite four bytes already written with an int, high-order byte first
+         * 
+         * @param pos
+         *            the position of the first of the four bytes
+         * @param i
+         *            the int to write
+         */
+        void setInt(int pos, int i) {
+            bytes[pos] = (byte) (i >>> 24);
+            bytes[pos + 1] = (byte) (i >>> 16);
+            bytes[pos + 2] = (byte) (i >>> 8);
+            bytes[pos + 3] = (byte) i;
+        }
+
+        /**
+         * Make sure there is room for some more bytes
+         * 
+         * @param needed
+         *            the number of bytes about to be written
+         */
+        private void ensureCapacity(int needed) {
+            if (size + needed > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + needed));
+            }
+        }
+    }
+
+    /**
+     * The data being written
+     */
+    private final Gedcom gedcom;
+
+    /**
+     * The index of each distinct string in the string table
+     */
+    private final Map<String, Integer> stringIds = new HashMap<>();
+
+    /**
+     * The string table
+     */
+    private final List<String> strings = new ArrayList<>();
+
+    /**
+     * The index of each record in the record table
+     */
+    private final Map<HasXref, Integer> recordIds = new IdentityHashMap<>();
+
+    /**
+     * The record table. Records referred to from other records, but missing from the maps in the {@link Gedcom}, are added as they
+     * are found.
+     */
+    private final List<HasXref> records = new ArrayList<>();
+
+    /**
+     * The {@link Gedcom} and the records, which are written after the string and record tables
+     */
+    private Buffer content;
+
+    /**
+     * Constructor
+     * 
+     * @param gedcom
+     *            the data to write. If it was loaded lazily, every record is loaded when the snapshot is written.
+     */
+    public GedcomSnapshotWriter(Gedcom gedcom) {
+        if (gedcom == null) {
+            throw new IllegalArgumentException("gedcom is required");
+        }
+        this.gedcom = gedcom;
+    }
+
+    /**
+     * Write the snapshot to a stream
+     * 
+     * @param out
+     *            the stream to write to. It is not closed.
+     * @throws IOException
+     *             if the stream can't be written to
+     */
+    public void write(OutputStream out) throws IOException {
+        stringIds.clear();
+        strings.clear();
+        recordIds.clear();
+        records.clear();
+        content = new Buffer();
+        writeContent();
+
+        Buffer tables = new Buffer();
+        tables.writeBytes(SnapshotFormat.MAGIC);
+        tables.writeInt(SnapshotFormat.VERSION);
+        tables.writeVarint(strings.size());
+        for (String s : strings) {
+            byte[] b = s.getBytes(SnapshotFormat.CHARSET);
+            tables.writeVarint(b.length);
+            tables.writeBytes(b);
+        }
+        tables.writeVarint(records.size());
+        for (HasXref r : records) {
+            tables.writeByte(recordKind(r));
+            tables.writeVarint(r.getXref() == null ? 0 : stringIds.get(r.getXref()) + 1);
+        }
+
+        out.write(tables.bytes, 0, tables.size);
+        out.write(content.bytes, 0, content.size);
+        out.flush();
+        content = null;
+        recordIds.clear();
+        records.clear();
+    }
+
+    /**
+     * Write the snapshot to a file
+     * 
+     * @param fileName
+     *            the name of the file to write, which is replaced if it exists
+     * @throws IOException
+     *             if the file can't be written
+     */
+    public void write(String fileName) throws IOException {
+        try (OutputStream out = new FileOutputStream(fileName)) {
+            write(out);
+        }
+    }
+
+    /**
+     * Get the index of a record in the record table, adding it if it's not there yet
+     * 
+     * @param r
+     *            the record
+     * @return the index of the record in the record table
+     */
+    private int recordId(HasXref r) {
+        Integer result = recordIds.get(r);
+        if (result == null) {
+            result = records.size();
+            recordIds.put(r, result);
+            records.add(r);
+            if (r.getXref() != null) {
+                stringId(r.getXref());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get the kind of a record, as written in the record table
+     * 
+     * @param r
+     *            the record
+     * @return the kind of record - one of the record kinds in {@link SnapshotFormat}
+     */
+    private static int recordKind(HasXref r) {
+        if (r instanceof Family) {
+            return SnapshotFormat.FAMILY;
+        } else if (r instanceof Individual) {
+            return SnapshotFormat.INDIVIDUAL;
+        } else if (r instanceof Multimedia) {
+            return SnapshotFormat.MULTIMEDIA;
+        } else if (r instanceof NoteRecord) {
+            return SnapshotFormat.NOTE;
+        } else if (r instanceof Repository) {
+            return SnapshotFormat.REPOSITORY;
+        } else if (r instanceof Source) {
+            return SnapshotFormat.SOURCE;
+        } else if (r instanceof Submitter) {
+            return SnapshotFormat.SUBMITTER;
+        }
+        return SnapshotFormat.SUBMISSION;
+    }
+
+    /**
+     * Get the index of a string in the string table, adding it if it's not there yet
+     * 
+     * @param s
+     *            the string
+     * @return the index of the string in the string table
+     */
+    private int stringId(String s) {
+        Integer result = stringIds.get(s);
+        if (result == null) {
+            result = strings.size();
+            stringIds.put(s, result);
+            strings.add(s);
+        }
+        return result;
+    }
+
+    /**
+     * Write an address
+     * 
+     * @param a
+     *            the address, which may be null
+     */
+    private void writeAddress(Address a) {
+        if (writePresence(a)) {
+            writeElement(a);
+            writeStringWithCustomFacts(a.getAddr1());
+            writeStringWithCustomFacts(a.getAddr2());
+            writeStringWithCustomFacts(a.getAddr3());
+            writeStringWithCustomFacts(a.getCity());
+            writeStringWithCustomFacts(a.getCountry());
+            writeStrings(a.getLines());
+            writeStringWithCustomFacts(a.getPostalCode());
+            writeStringWithCustomFacts(a.getStateProvince());
+        }
+    }
+
+    /**
+     * Write the properties of an {@link AbstractAddressableElement}, and those it inherits
+     * 
+     * @param e
+     *            the element
+     */
+    private void writeAddressable(AbstractAddressableElement e) {
+        writeNotes(e);
+        writeAddress(e.getAddress());
+        writeStringsWithCustomFacts(e.getEmails());
+        writeStringsWithCustomFacts(e.getFaxNumbers());
+        writeStringsWithCustomFacts(e.getPhoneNumbers());
+        writeStringsWithCustomFacts(e.getWwwUrls());
+    }
+
+    /**
+     * Write a list of associations
+     * 
+     * @param list
+     *            the list, which may be null
+     */
+    private void writeAssociations(List<Association> list) {
+        if (writeSize(list)) {
+            for (Association a : list) {
+                if (writePresence(a)) {
+                    writeNotes(a);
+                    writeStringWithCustomFacts(a.getAssociatedEntityType());
+                    writeString(a.getAssociatedEntityXref());
+                    writeCitations(a.getCitations());
+                    writeStringWithCustomFacts(a.getRelationship());
+                }
+            }
+        }
+    }
+
+    /**
+     * Write a change date
+     * 
+     * @param c
+     *            the change date, which may be null
+     */
+    private void writeChangeDate(ChangeDate c) {
+        if (writePresence(c)) {
+            writeNotes(c);
+            writeStringWithCustomFacts(c.getDate());
+            writeStringWithCustomFacts(c.getTime());
+        }
+    }
+
+    /**
+     * Write a character set
+     * 
+     * @param c
+     *            the character set, which may be null
+     */
+    private void writeCharacterSet(CharacterSet c) {
+        if (writePresence(c)) {
+            writeElement(c);
+            writeStringWithCustomFacts(c.getCharacterSetName());
+            writeStringWithCustomFacts(c.getVersionNum());
+        }
+    }
+
+    /**
+     * Write a citation, starting with the kind of citation it is
+     * 
+     * @param c
+     *            the citation, which may be null
+     */
+    private void writeCitation(AbstractCitation c) {
+        if (c instanceof CitationWithSource) {
+            CitationWithSource cws = (CitationWithSource) c;
+            content.writeByte(SnapshotFormat.CITATION_WITH_SOURCE);
+            writeCitationBase(cws);
+            writeCitationData(cws.getData());
+            writeStringWithCustomFacts(cws.getEventCited());
+            writeStringWithCustomFacts(cws.getRoleInEvent());
+            writeRecordId(cws.getSource());
+            writeStringWithCustomFacts(cws.getWhereInSource());
+        } else if (c instanceof CitationWithoutSource) {
+            CitationWithoutSource cwos = (CitationWithoutSource) c;
+            content.writeByte(SnapshotFormat.CITATION_WITHOUT_SOURCE);
+            writeCitationBase(cwos);
+            writeStrings(cwos.getDescription());
+            if (writeSize(cwos.getTextFromSource())) {
+                for (List<String> text : cwos.getTextFromSource()) {
+                    writeStrings(text);
+                }
+            }
+        } else {
+            content.writeByte(SnapshotFormat.ABSENT);
+        }
+    }
+
+    /**
+     * Write the properties of an {@link AbstractCitation}, and those it inherits
+     * 
+     * @param c
+     *            the citation
+     */
+    private void writeCitationBase(AbstractCitation c) {
+        writeNotes(c);
+        writeStringWithCustomFacts(c.getCertainty());
+        writeMultimediaReferences(c.getMultimedia());
+    }
+
+    /**
+     * Write a list of citation data
+     * 
+     * @param list
+     *            the list, which may be null
+     */
+    private void writeCitationData(List<CitationData> list) {
+        if (writeSize(list)) {
+            for (CitationData d : list) {
+                if (writePresence(d)) {
+                    writeElement(d);
+                    writeStringWithCustomFacts(d.getEntryDate());
+                    if (writeSize(d.getSourceText())) {
+                        for (MultiStringWithCustomFacts m : d.getSourceText()) {
+                            writeMultiString(m);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Write a list of citations
+     * 
+     * @param list
+     *            the list, which may be null
+     */
+    private void writeCitations(List<AbstractCitation> list) {
+        if (writeSize(list)) {
+            for (AbstractCitation c : list) {
+                writeCitation(c);
+            }
+        }
+    }
+
+    /**
+     * Write the {@link Gedcom} to {@link #content}, and then every record it refers to
+     */
+    private void writeContent() {
+        writeElement(gedcom);
+        writeHeader(gedcom.getHeader());
+        writeRecordId(gedcom.getSubmission());
+        writePresence(gedcom.getTrailer());
+        writeRecordMap(gedcom.getFamilies());
+        writeRecordMap(gedcom.getIndividuals());
+        writeRecordMap(gedcom.getMultimedia());
+        writeRecordMap(gedcom.getNotes());
+        writeRecordMap(gedcom.getRepositories());
+        writeRecordMap(gedcom.getSources());
+        writeRecordMap(gedcom.getSubmitters());
+
+        // The record table can grow while this runs, as records that aren't in any of the maps turn up
+        for (int i = 0; i < records.size(); i++) {
+            int lengthPos = content.size;
+            content.writeInt(0);
+            writeRecord(records.get(i));
+            content.setInt(lengthPos, content.size - lengthPos - 4);
+        }
+    }
+
+    /**
+     * Write a list of custom facts
+     * 
+     * @param list
+     *            the list, which may be null
+     */
+    private void writeCustomFacts(List<CustomFact> list) {
+        if (writeSize(list)) {
+            for (CustomFact cf : list) {
+                if (writePresence(cf)) {
+                    writeString(cf.getTag());
+                    writeNotes(cf);
+                    writeChangeDate(cf.getChangeDate());
+                    writeCitations(cf.getCitations());
+                    writeStringWithCustomFacts(cf.getDate());
+                    writeStringWithCustomFacts(cf.getDescription());
+                    writePlace(cf.getPlace());
+                    writeStringWithCustomFacts(cf.getType());
+                    writeString(cf.getXref());
+                }
+            }
+        }
+    }
+
+    /**
+     * Write the properties that every {@link AbstractElement} has
+     * 
+     * @param e
+     *            the element
+     */
+    private void writeElement(AbstractElement e) {
+        writeCustomFacts(e.getCustomFacts());
+    }
+
+    /**
+     * Write an enum constant, as its name
+     * 
+     * @param e
+     *            the enum constant, which may be null
+     */
+    private void writeEnum(Enum<?> e) {
+        writeString(e == null ? null : e.name());
+    }
+
+    /**
+     * Write the properties of an {@link AbstractEvent}, and those it inherits
+     * 
+     * @param e
+     *            the event
+     */
+    private void writeEvent(AbstractEvent e) {
+        writeAddressable(e);
+        writeStringWithCustomFacts(e.getAge());
+        writeStringWithCustomFacts(e.getCause());
+        writeCitations(e.getCitations());
+        writeStringWithCustomFacts(e.getDate());
+        writeStringWithCustomFacts(e.getDescription());
+        writeMultimediaReferences(e.getMultimedia());
+        writePlace(e.getPlace());
+        writeStringWithCustomFacts(e.getReligiousAffiliation());
+        writeStringWithCustomFacts(e.getRespAgency());
+        writeStringWithCustomFacts(e.getRestrictionNotice());
+        writeStringWithCustomFacts(e.getSubType());
+        writeString(e.getYNull());
+    }
+
+    /**
+     * Write the contents of a family record
+     * 
+     * @param f
+     *            the family
+     */
+    private void writeFamily(Family f) {
+        writeNotes(f);
+        writeStringWithCustomFacts(f.getAutomatedRecordId());
+        writeChangeDate(f.getChangeDate());
+        writeIndividualReferences(f.getChildren());
+        writeCitations(f.getCitations());
+        if (writeSize(f.getEvents())) {
+            for (FamilyEvent e : f.getEvents()) {
+                if (writePresence(e)) {
+                    writeEvent(e);
+                    writeStringWithCustomFacts(e.getHusbandAge());
+                    writeEnum(e.getType());
+                    writeStringWithCustomFacts(e.getWifeAge());
+                }
+            }
+        }
+        writeIndividualReference(f.getHusband());
+        if (writeSize(f.getLdsSpouseSealings())) {
+            for (LdsSpouseSealing s : f.getLdsSpouseSealings()) {
+                if (writePresence(s)) {
+                    writeLdsOrdinance(s);
+                }
+            }
+        }
+        writeMultimediaReferences(f.getMultimedia());
+        writeStringWithCustomFacts(f.getNumChildren());
+        writeStringWithCustomFacts(f.getRecFileNumber());
+        writeStringWithCustomFacts(f.getRestrictionNotice());
+        if (writeSize(f.getSubmitters())) {
+            for (SubmitterReference s : f.getSubmitters()) {
+                writeSubmitterReference(s);
+            }
+        }
+        writeUserReferences(f.getUserReferences());
+        writeIndividualReference(f.getWife());
+    }
+
+    /**
+     * Write a link from an individual to a family they are a child in
+     * 
+     * @param fc
+     *            the link, which may be null
+     */
+    private void writeFamilyChild(FamilyChild fc) {
+        if (writePresence(fc)) {
+            writeNotes(fc);
+            writeStringWithCustomFacts(fc.getAdoptedBy());
+            writeRecordId(fc.getFamily());
+            writeStringWithCustomFacts(fc.getPedigree());
+            writeStringWithCustomFacts(fc.getStatus());
+        }
+    }
+
+    /**
+     * Write the header
+     * 
+     * @param h
+     *            the header, which may be null
+     */
+    private void writeHeader(Header h) {
+        if (writePresence(h)) {
+            writeNotes(h);
+            writeCharacterSet(h.getCharacterSet());
+            writeStrings(h.getCopyrightData());
+            writeStringWithCustomFacts(h.getDate());
+            writeStringWithCustomFacts(h.getDestinationSystem());
+            writeStringWithCustomFacts(h.getFileName());
+            GedcomVersion v = h.getGedcomVersion();
+            if (writePresence(v)) {
+                writeElement(v);
+                writeStringWithCustomFacts(v.getGedcomForm());
+                writeStringWithCustomFacts(v.getVersionNumber());
+            }
+            writeStringWithCustomFacts(h.getLanguage());
+            writeStringWithCustomFacts(h.getPlaceHierarchy());
+            writeSourceSystem(h.getSourceSystem());
+            SubmissionReference sr = h.getSubmissionReference();
+            if (writePresence(sr)) {
+                writeElement(sr);
+                writeRecordId(sr.getSubmission());
+            }
+            writeSubmitterReference(h.getSubmitterReference());
+            writeStringWithCustomFacts(h.getTime());
+        }
+    }
+
+    /**
+     * Write the contents of an individual record
+     * 
+     * @param i
+     *            the individual
+     */
+    private void writeIndividual(Individual i) {
+        writeAddressable(i);
+        writeStringsWithCustomFacts(i.getAliases());
+        writeRecordIds(i.getAncestorInterest());
+        writeStringWithCustomFacts(i.getAncestralFileNumber());
+        writeAssociations(i.getAssociations());
+        if (writeSize(i.getAttributes())) {
+            for (IndividualAttribute a : i.getAttributes()) {
+                if (writePresence(a)) {
+                    writeEvent(a);
+                    writeEnum(a.getType());
+                }
+            }
+        }
+        writeChangeDate(i.getChangeDate());
+        writeCitations(i.getCitations());
+        writeRecordIds(i.getDescendantInterest());
+        if (writeSize(i.getEvents())) {
+            for (IndividualEvent e : i.getEvents()) {
+                if (writePresence(e)) {
+                    writeEvent(e);
+                    writeFamilyChild(e.getFamily());
+                    writeEnum(e.getType());
+                }
+            }
+        }
+        if (writeSize(i.getFamiliesWhereChild())) {
+            for (FamilyChild fc : i.getFamiliesWhereChild()) {
+                writeFamilyChild(fc);
+            }
+        }
+        if (writeSize(i.getFamiliesWhereSpouse())) {
+            for (FamilySpouse fs : i.getFamiliesWhereSpouse()) {
+                if (writePresence(fs)) {
+                    writeNotes(fs);
+                    writeRecordId(fs.getFamily());
+                }
+            }
+        }
+        if (writeSize(i.getLdsIndividualOrdinances())) {
+            for (LdsIndividualOrdinance o : i.getLdsIndividualOrdinances()) {
+                if (writePresence(o)) {
+                    writeLdsOrdinance(o);
+                    writeFamilyChild(o.getFamilyWhereChild());
+                    writeEnum(o.getType());
+                    writeString(o.getYNull());
+                }
+            }
+        }
+        writeMultimediaReferences(i.getMultimedia());
+        writePersonalNames(i.getNames());
+        writeStringWithCustomFacts(i.getPermanentRecFileNumber());
+        writeStringWithCustomFacts(i.getRecIdNumber());
+        writeStringWithCustomFacts(i.getRestrictionNotice());
+        writeStringWithCustomFacts(i.getSex());
+        writeRecordIds(i.getSubmitters());
+        writeUserReferences(i.getUserReferences());
+    }
+
+    /**
+     * Write a reference to an individual
+     * 
+     * @param r
+     *            the reference, which may be null
+     */
+    private void writeIndividualReference(IndividualReference r) {
+        if (writePresence(r)) {
+            writeElement(r);
+            writeRecordId(r.getIndividual());
+        }
+    }
+
+    /**
+     * Write a list of references to individuals
+     * 
+     * @param list
+     *            the list, which may be null
+     */
+    private void writeIndividualReferences(List<IndividualReference> list) {
+        if (writeSize(list)) {
+            for (IndividualReference r : list) {
+                writeIndividualReference(r);
+            }
+        }
+    }
+
+    /**
+     * Write the properties of an {@link AbstractLdsOrdinance}, and those it inherits
+     * 
+     * @param o
+     *            the ordinance
+     */
+    private void writeLdsOrdinance(AbstractLdsOrdinance o) {
+        writeNotes(o);
+        writeCitations(o.getCitations());
+        writeStringWithCustomFacts(o.getDate());
+        writeStringWithCustomFacts(o.getPlace());
+        writeStringWithCustomFacts(o.getStatus());
+        writeStringWithCustomFacts(o.getTemple());
+    }
+
+    /**
+     * Write the contents of a multimedia record
+     * 
+     * @param m
+     *            the multimedia
+     */
+    private void writeMultimedia(Multimedia m) {
+        writeNotes(m);
+        writeStrings(m.getBlob());
+        writeChangeDate(m.getChangeDate());
+        writeCitations(m.getCitations());
+        writeMultimediaReference(m.getContinuedObject());
+        writeStringWithCustomFacts(m.getEmbeddedMediaFormat());
+        writeStringWithCustomFacts(m.getEmbeddedTitle());
+        if (writeSize(m.getFileReferences())) {
+            for (FileReference f : m.getFileReferences()) {
+                if (writePresence(f)) {
+                    writeElement(f);
+                    writeStringWithCustomFacts(f.getFormat());
+                    writeStringWithCustomFacts(f.getMediaType());
+                    writeStringWithCustomFacts(f.getReferenceToFile());
+                    writeStringWithCustomFacts(f.getTitle());
+                }
+            }
+        }
+        writeStringWithCustomFacts(m.getRecIdNumber());
+        writeUserReferences(m.getUserReferences());
+    }
+
+    /**
+     * Write a reference to a multimedia record
+     * 
+     * @param r
+     *            the reference, which may be null
+     */
+    private void writeMultimediaReference(MultimediaReference r) {
+        if (writePresence(r)) {
+            writeElement(r);
+            writeRecordId(r.getMultimedia());
+        }
+    }
+
+    /**
+     * Write a list of references to multimedia records
+     * 
+     * @param list
+     *            the list, which may be null
+     */
+    private void writeMultimediaReferences(List<MultimediaReference> list) {
+        if (writeSize(list)) {
+            for (MultimediaReference r : list) {
+                writeMultimediaReference(r);
+            }
+        }
+    }
+
+    /**
+     * Write a multi-line string with custom facts
+     * 
+     * @param m
+     *            the string, which may be null
+     */
+    private void writeMultiString(MultiStringWithCustomFacts m) {
+        if (writePresence(m)) {
+            writeElement(m);
+            writeStrings(m.getLines());
+        }
+    }
+
+    /**
+     * Write the properties of an {@link AbstractNameVariation}, and those it inherits
+     * 
+     * @param v
+     *            the name variation
+     */
+    private void writeNameVariationBase(AbstractNameVariation v) {
+        writeElement(v);
+        writeString(v.getVariation());
+        writeStringWithCustomFacts(v.getVariationType());
+    }
+
+    /**
+     * Write a list of name variations, each starting with the kind of variation it is
+     * 
+     * @param list
+     *            the list, which may be null
+     */
+    private void writeNameVariations(List<? extends AbstractNameVariation> list) {
+        if (writeSize(list)) {
+            for (AbstractNameVariation v : list) {
+                if (v instanceof PersonalNameVariation) {
+                    PersonalNameVariation pnv = (PersonalNameVariation) v;
+                    content.writeByte(SnapshotFormat.PERSONAL_NAME_VARIATION);
+                    writeNameVariationBase(pnv);
+                    writeCitations(pnv.getCitations());
+                    writeStringWithCustomFacts(pnv.getGivenName());
+                    writeStringWithCustomFacts(pnv.getNickname());
+                    writeNoteStructures(pnv.getNoteStructures());
+                    writeStringWithCustomFacts(pnv.getPrefix());
+                    writeStringWithCustomFacts(pnv.getSuffix());
+                    writeStringWithCustomFacts(pnv.getSurname());
+                    writeStringWithCustomFacts(pnv.getSurnamePrefix());
+                } else if (v == null) {
+                    content.writeByte(SnapshotFormat.ABSENT);
+                } else {
+                    content.writeByte(SnapshotFormat.PLACE_NAME_VARIATION);
+                    writeNameVariationBase(v);
+                }
+            }
+        }
+    }
+
+    /**
+     * Write the contents of a note record
+     * 
+     * @param n
+     *            the note
+     */
+    private void writeNoteRecord(NoteRecord n) {
+        writeElement(n);
+        writeChangeDate(n.getChangeDate());
+        writeCitations(n.getCitations());
+        writeStrings(n.getLines());
+        writeStringWithCustomFacts(n.getRecIdNumber());
+        writeUserReferences(n.getUserReferences());
+    }
+
+    /**
+     * Write the properties of an {@link AbstractNotesElement}, and those it inherits
+     * 
+     * @param e
+     *            the element
+     */
+    private void writeNotes(AbstractNotesElement e) {
+        writeElement(e);
+        writeNoteStructures(e.getNoteStructures());
+    }
+
+    /**
+     * Write a list of note structures
+     * 
+     * @param list
+     *            the list, which may be null
+     */
+    private void writeNoteStructures(List<NoteStructure> list) {
+        if (writeSize(list)) {
+            for (NoteStructure n : list) {
+                if (writePresence(n)) {
+                    writeElement(n);
+                    writeStrings(n.getLines());
+                    writeRecordId(n.getNoteReference());
+                }
+            }
+        }
+    }
+
+    /**
+     * Write a list of personal names
+     * 
+     * @param list
+     *            the list, which may be null
+     */
+    private void writePersonalNames(List<PersonalName> list) {
+        if (writeSize(list)) {
+            for (PersonalName n : list) {
+                if (writePresence(n)) {
+                    writeNotes(n);
+                    writeString(n.getBasic());
+                    writeCitations(n.getCitations());
+                    writeStringWithCustomFacts(n.getGivenName());
+                    writeStringWithCustomFacts(n.getNickname());
+                    writeNameVariations(n.getPhonetic());
+                    writeStringWithCustomFacts(n.getPrefix());
+                    writeNameVariations(n.getRomanized());
+                    writeStringWithCustomFacts(n.getSuffix());
+                    writeStringWithCustomFacts(n.getSurname());
+                    writeStringWithCustomFacts(n.getSurnamePrefix());
+                    writeStringWithCustomFacts(n.getType());
+                }
+            }
+        }
+    }
+
+    /**
+     * Write a place
+     * 
+     * @param p
+     *            the place, which may be null
+     */
+    private void writePlace(Place p) {
+        if (writePresence(p)) {
+            writeNotes(p);
+            writeCitations(p.getCitations());
+            writeStringWithCustomFacts(p.getLatitude());
+            writeStringWithCustomFacts(p.getLongitude());
+            writeNameVariations(p.getPhonetic());
+            writeStringWithCustomFacts(p.getPlaceFormat());
+            writeString(p.getPlaceName());
+            writeNameVariations(p.getRomanized());
+        }
+    }
+
+    /**
+     * Write whether something is there
+     * 
+     * @param o
+     *            the thing, which may be null
+     * @return true if the thing is there, and its properties should be written next
+     */
+    private boolean writePresence(Object o) {
+        content.writeByte(o == null ? SnapshotFormat.ABSENT : SnapshotFormat.PRESENT);
+        return o != null;
+    }
+
+    /**
+     * Write the contents of a record
+     * 
+     * @param r
+     *            the record
+     */
+    private void writeRecord(HasXref r) {
+        if (r instanceof Family) {
+            writeFamily((Family) r);
+        } else if (r instanceof Individual) {
+            writeIndividual((Individual) r);
+        } else if (r instanceof Multimedia) {
+            writeMultimedia((Multimedia) r);
+        } else if (r instanceof NoteRecord) {
+            writeNoteRecord((NoteRecord) r);
+        } else if (r instanceof Repository) {
+            writeRepository((Repository) r);
+        } else if (r instanceof Source) {
+            writeSource((Source) r);
+        } else if (r instanceof Submitter) {
+            writeSubmitter((Submitter) r);
+        } else {
+            writeSubmission((Submission) r);
+        }
+    }
+
+    /**
+     * Write a reference to a record, as its index in the record table
+     * 
+     * @param r
+     *            the record, which may be null
+     */
+    private void writeRecordId(HasXref r) {
+        content.writeVarint(r == null ? 0 : recordId(r) + 1);
+    }
+
+    /**
+     * Write a list of references to records
+     * 
+     * @param list
+     *            the list, which may be null
+     */
+    private void writeRecordIds(List<? extends HasXref> list) {
+        if (writeSize(list)) {
+            for (HasXref r : list) {
+                writeRecordId(r);
+            }
+        }
+    }
+
+    /**
+     * Write one of the maps of records in the {@link Gedcom}
+     * 
+     * @param map
+     *            the map
+     */
+    private void writeRecordMap(Map<String, ? extends HasXref> map) {
+        content.writeVarint(map.size());
+        for (Map.Entry<String, ? extends HasXref> e : map.entrySet()) {
+            writeString(e.getKey());
+            writeRecordId(e.getValue());
+        }
+    }
+
+    /**
+     * Write the contents of a repository record
+     * 
+     * @param r
+     *            the repository
+     */
+    private void writeRepository(Repository r) {
+        writeAddressable(r);
+        writeChangeDate(r.getChangeDate());
+        writeStringWithCustomFacts(r.getName());
+        writeStringWithCustomFacts(r.getRecIdNumber());
+        writeUserReferences(r.getUserReferences());
+    }
+
+    /**
+     * Write the size of a list, as one more than its size, or zero if it's null
+     * 
+     * @param list
+     *            the list, which may be null
+     * @return true if the list is not null, and its items should be written next
+     */
+    private boolean writeSize(List<?> list) {
+        content.writeVarint(list == null ? 0 : list.size() + 1);
+        return list != null;
+    }
+
+    /**
+     * Write the contents of a source record
+     * 
+     * @param s
+     *            the source
+     */
+    private void writeSource(Source s) {
+        writeNotes(s);
+        writeChangeDate(s.getChangeDate());
+        SourceData d = s.getData();
+        if (writePresence(d)) {
+            writeNotes(d);
+            if (writeSize(d.getEventsRecorded())) {
+                for (EventRecorded e : d.getEventsRecorded()) {
+                    if (writePresence(e)) {
+                        writeElement(e);
+                        writeStringWithCustomFacts(e.getDatePeriod());
+                        writeStringWithCustomFacts(e.getEventType());
+                        writeStringWithCustomFacts(e.getJurisdiction());
+                    }
+                }
+            }
+            writeStringWithCustomFacts(d.getRespAgency());
+        }
+        writeMultimediaReferences(s.getMultimedia());
+        writeMultiString(s.getOriginatorsAuthors());
+        writeMultiString(s.getPublicationFacts());
+        writeStringWithCustomFacts(s.getRecIdNumber());
+        RepositoryCitation rc = s.getRepositoryCitation();
+        if (writePresence(rc)) {
+            writeNotes(rc);
+            if (writeSize(rc.getCallNumbers())) {
+                for (SourceCallNumber n : rc.getCallNumbers()) {
+                    if (writePresence(n)) {
+                        writeElement(n);
+                        writeStringWithCustomFacts(n.getCallNumber());
+                        writeStringWithCustomFacts(n.getMediaType());
+                    }
+                }
+            }
+            writeString(rc.getRepositoryXref());
+        }
+        writeStringWithCustomFacts(s.getSourceFiledBy());
+        writeMultiString(s.getSourceText());
+        writeMultiString(s.getTitle());
+        writeUserReferences(s.getUserReferences());
+    }
+
+    /**
+     * Write the source system in the header
+     * 
+     * @param s
+     *            the source system, which may be null
+     */
+    private void writeSourceSystem(SourceSystem s) {
+        if (writePresence(s)) {
+            writeElement(s);
+            Corporation c = s.getCorporation();
+            if (writePresence(c)) {
+                writeAddressable(c);
+                writeString(c.getBusinessName());
+            }
+            writeStringWithCustomFacts(s.getProductName());
+            HeaderSourceData d = s.getSourceData();
+            if (writePresence(d)) {
+                writeElement(d);
+                writeStringWithCustomFacts(d.getCopyright());
+                writeStringWithCustomFacts(d.getName());
+                writeStringWithCustomFacts(d.getPublishDate());
+            }
+            writeString(s.getSystemId());
+            writeStringWithCustomFacts(s.getVersionNum());
+        }
+    }
+
+    /**
+     * Write a string, as its index in the string table
+     * 
+     * @param s
+     *            the string, which may be null
+     */
+    private void writeString(String s) {
+        content.writeVarint(s == null ? 0 : stringId(s) + 1);
+    }
+
+    /**
+     * Write a list of strings
+     * 
+     * @param list
+     *            the list, which may be null
+     */
+    private void writeStrings(List<String> list) {
+        if (writeSize(list)) {
+            for (String s : list) {
+                writeString(s);
+            }
+        }
+    }
+
+    /**
+     * Write a list of strings with custom facts
+     * 
+     * @param list
+     *            the list, which may be null
+     */
+    private void writeStringsWithCustomFacts(List<StringWithCustomFacts> list) {
+        if (writeSize(list)) {
+            for (StringWithCustomFacts s : list) {
+                writeStringWithCustomFacts(s);
+            }
+        }
+    }
+
+    /**
+     * Write a string with custom facts. Most of them have no custom facts, so they are written as a single number that says both
+     * what the string is and whether custom facts follow.
+     * 
+     * @param s
+     *            the string with custom facts, which may be null
+     */
+    private void writeStringWithCustomFacts(StringWithCustomFacts s) {
+        if (s == null) {
+            content.writeVarint(0);
+            return;
+        }
+        List<CustomFact> customFacts = s.getCustomFacts();
+        int value = s.getValue() == null ? 0 : stringId(s.getValue()) + 1;
+        content.writeVarint((value << 1 | (customFacts == null ? 0 : 1)) + 1);
+        if (customFacts != null) {
+            writeCustomFacts(customFacts);
+        }
+    }
+
+    /**
+     * Write the contents of a submission record
+     * 
+     * @param s
+     *            the submission
+     */
+    private void writeSubmission(Submission s) {
+        writeElement(s);
+        writeStringWithCustomFacts(s.getAncestorsCount());
+        writeStringWithCustomFacts(s.getDescendantsCount());
+        writeStringWithCustomFacts(s.getNameOfFamilyFile());
+        writeStringWithCustomFacts(s.getOrdinanceProcessFlag());
+        writeStringWithCustomFacts(s.getRecIdNumber());
+        writeRecordId(s.getSubmitter());
+        writeStringWithCustomFacts(s.getTempleCode());
+    }
+
+    /**
+     * Write the contents of a submitter record
+     * 
+     * @param s
+     *            the submitter
+     */
+    private void writeSubmitter(Submitter s) {
+        writeAddressable(s);
+        writeChangeDate(s.getChangeDate());
+        writeStringsWithCustomFacts(s.getLanguagePref());
+        writeMultimediaReferences(s.getMultimedia());
+        writeStringWithCustomFacts(s.getName());
+        writeStringWithCustomFacts(s.getRecIdNumber());
+        writeStringWithCustomFacts(s.getRegFileNumber());
+        writeUserReferences(s.getUserReferences());
+    }
+
+    /**
+     * Write a reference to a submitter
+     * 
+     * @param r
+     *            the reference, which may be null
+     */
+    private void writeSubmitterReference(SubmitterReference r) {
+        if (writePresence(r)) {
+            writeElement(r);
+            writeRecordId(r.getSubmitter());
+        }
+    }
+
+    /**
+     * Write a list of user references
+     * 
+     * @param list
+     *            the list, which may be null
+     */
+    private void writeUserReferences(List<UserReference> list) {
+        if (writeSize(list)) {
+            for (UserReference r : list) {
+                if (writePresence(r)) {
+                    writeElement(r);
+                    writeStringWithCustomFacts(r.getReferenceNum());
+                    writeStringWithCustomFacts(r.getType());
+                }
+            }
+        }
+    }
+}
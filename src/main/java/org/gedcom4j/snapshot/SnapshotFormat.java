@@ -0,0 +1,158 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.snapshot;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * <p>
+ * Constants describing the layout of a snapshot file. A snapshot is made up of:
+ * </p>
+ * <ol>
+ * <li>The {@link #MAGIC} bytes and the {@link #VERSION} of the format, as a four-byte int</li>
+ * <li>The string table - a count, then each distinct string as a length-prefixed run of UTF-8 bytes. Everywhere else in the
+ * snapshot, a string is written as its index in this table plus one, or zero for null.</li>
+ * <li>The record table - a count, then for each record its kind (one of the record kinds below) and its xref. Everywhere else in
+ * the snapshot, a reference to a record is written as its index in this table plus one, or zero for null, so the nesting of the
+ * data never goes deeper than one record.</li>
+ * <li>The {@link org.gedcom4j.model.Gedcom} itself - its custom facts, header, submission and trailer, then each of its maps of
+ * records as a count followed by each key and record.</li>
+ * <li>The contents of each record in the record table, prefixed with their length in bytes as a four-byte int</li>
+ * </ol>
+ * <p>
+ * The properties of each element are written in a fixed order, which is the order they're read back in - there are no field names
+ * or type tags. Elements that can be null start with a byte that is {@link #ABSENT} or {@link #PRESENT} (or one of the citation
+ * and name variation kinds below, where a list can hold more than one kind). Lists are written as their size plus one, or zero for
+ * null, followed by their items. Enums are written as the string of their name. A {@link org.gedcom4j.model.StringWithCustomFacts}
+ * is written as a single whole number - zero for null, otherwise one more than twice its string, with the low bit set if a list of
+ * custom facts follows. Whole numbers are written as unsigned variable-length ints, seven bits per byte, low-order bits first, with
+ * the high bit set on each byte except the last.
+ * </p>
+ * <p>
+ * Since nothing in a snapshot says what it holds other than the order it was written in, any change to what the reader and writer
+ * read and write must come with a new {@link #VERSION}.
+ * </p>
+ * 
+ * @author frizbog
+ */
+final class SnapshotFormat {
+
+    /**
+     * The bytes every snapshot starts with
+     */
+    static final byte[] MAGIC = { 'G', '4', 'J', 'S', 'N', 'A', 'P', 0 };
+
+    /**
+     * The version of the format
+     */
+    static final int VERSION = 2;
+
+    /**
+     * The character set the string table is written in
+     */
+    static final Charset CHARSET = StandardCharsets.UTF_8;
+
+    /**
+     * Marks an element that is null
+     */
+    static final int ABSENT = 0;
+
+    /**
+     * Marks an element that is not null, whose properties follow
+     */
+    static final int PRESENT = 1;
+
+    /**
+     * Marks a {@link org.gedcom4j.model.CitationWithSource}
+     */
+    static final int CITATION_WITH_SOURCE = 1;
+
+    /**
+     * Marks a {@link org.gedcom4j.model.CitationWithoutSource}
+     */
+    static final int CITATION_WITHOUT_SOURCE = 2;
+
+    /**
+     * Marks a {@link org.gedcom4j.model.PersonalNameVariation}
+     */
+    static final int PERSONAL_NAME_VARIATION = 1;
+
+    /**
+     * Marks a {@link org.gedcom4j.model.PlaceNameVariation}
+     */
+    static final int PLACE_NAME_VARIATION = 2;
+
+    /**
+     * The kind of record in the record table for a {@link org.gedcom4j.model.Family}
+     */
+    static final int FAMILY = 1;
+
+    /**
+     * The kind of record in the record table for an {@link org.gedcom4j.model.Individual}
+     */
+    static final int INDIVIDUAL = 2;
+
+    /**
+     * The kind of record in the record table for a {@link org.gedcom4j.model.Multimedia}
+     */
+    static final int MULTIMEDIA = 3;
+
+    /**
+     * The kind of record in the record table for a {@link org.gedcom4j.model.NoteRecord}
+     */
+    static final int NOTE = 4;
+
+    /**
+     * The kind of record in the record table for a {@link org.gedcom4j.model.Repository}
+     */
+    static final int REPOSITORY = 5;
+
+    /**
+     * The kind of record in the record table for a {@link org.gedcom4j.model.Source}
+     */
+    static final int SOURCE = 6;
+
+    /**
+     * The kind of record in the record table for a {@link org.gedcom4j.model.Submitter}
+     */
+    static final int SUBMITTER = 7;
+
+    /**
+     * The kind of record in the record table for a {@link org.gedcom4j.model.Submission}, which is kept in the table so that the
+     * {@link org.gedcom4j.model.SubmissionReference} in the header and the submission in the {@link org.gedcom4j.model.Gedcom} stay
+     * the same object
+     */
+    static final int SUBMISSION = 8;
+
+    /**
+     * Prevent instantiation - this class is just constants
+     */
+    private SnapshotFormat() {
+        // Do nothing
+    }
+}
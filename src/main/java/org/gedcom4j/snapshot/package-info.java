@@ -0,0 +1,41 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+/**
+ * <p>
+ * A compact binary snapshot format for {@link org.gedcom4j.model.Gedcom} objects, for applications that load the same large GEDCOM
+ * file over and over. A snapshot is written once from a loaded {@link org.gedcom4j.model.Gedcom} with
+ * {@link org.gedcom4j.snapshot.GedcomSnapshotWriter}, and read back much faster than the GEDCOM file itself could be parsed with
+ * {@link org.gedcom4j.snapshot.GedcomSnapshotReader}.
+ * </p>
+ * <p>
+ * Snapshots are not a replacement for GEDCOM files - they are tied to the version of the snapshot format that wrote them, and are
+ * refused by any version of gedcom4j that reads a different one.
+ * </p>
+ * 
+ * @author frizbog
+ */
+package org.gedcom4j.snapshot;
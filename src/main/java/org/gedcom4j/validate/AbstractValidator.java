@@ -54,6 +54,7 @@ import org.gedcom4j.model.MultiStringWithCustomFacts;
 import org.gedcom4j.model.StringWithCustomFacts;
 import org.gedcom4j.model.UserReference;
 import org.gedcom4j.model.enumerations.IndividualEventType;
+import org.gedcom4j.parser.DateParseCache;
 import org.gedcom4j.parser.DateParser;
 import org.gedcom4j.parser.DateParser.ImpreciseDatePreference;
 import org.gedcom4j.validate.Validator.Finding;
@@ -561,7 +562,7 @@ abstract class AbstractValidator implements Serializable {
         }
         IndividualEvent result = null;
         List<IndividualEvent> eventsOfType = i.getEventsOfType(type);
-        DateParser dp = new DateParser();
+        DateParser dp = DateParseCache.getSharedInstance().getParser();
         Date earliestSoFar = new Date(Long.MAX_VALUE);
         for (IndividualEvent e : eventsOfType) {
             if (e.getDate() != null && e.getDate().getValue() != null) {
@@ -590,7 +591,7 @@ abstract class AbstractValidator implements Serializable {
         }
         IndividualEvent result = null;
         List<IndividualEvent> eventsOfType = i.getEventsOfType(type);
-        DateParser dp = new DateParser();
+        DateParser dp = DateParseCache.getSharedInstance().getParser();
         Date latestSoFar = new Date(Long.MIN_VALUE);
         for (IndividualEvent e : eventsOfType) {
             if (e.getDate() != null && e.getDate().getValue() != null) {
@@ -708,7 +709,7 @@ abstract class AbstractValidator implements Serializable {
         if (!isSpecified(dateToValidate)) {
             return;
         }
-        DateParser dp = new DateParser();
+        DateParser dp = DateParseCache.getSharedInstance().getParser();
         if (dp.parse(dateToValidate) == null) {
             validator.newFinding(modelElement, Severity.ERROR, ProblemCode.INVALID_DATE, dateFieldName);
         }
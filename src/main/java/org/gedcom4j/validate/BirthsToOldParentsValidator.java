@@ -33,6 +33,7 @@ import org.gedcom4j.model.Individual;
 import org.gedcom4j.model.IndividualEvent;
 import org.gedcom4j.model.IndividualReference;
 import org.gedcom4j.model.enumerations.IndividualEventType;
+import org.gedcom4j.parser.DateParseCache;
 import org.gedcom4j.parser.DateParser;
 import org.gedcom4j.parser.DateParser.ImpreciseDatePreference;
 import org.gedcom4j.validate.Validator.Finding;
@@ -69,7 +70,7 @@ public class BirthsToOldParentsValidator extends AbstractValidator {
      */
     @Override
     protected void validate() {
-        DateParser dp = new DateParser();
+        DateParser dp = DateParseCache.getSharedInstance().getParser();
         for (Family f : getValidator().getGedcom().getFamilies().values()) {
             // No kids? Not interested
             if (f == null || f.getChildren() == null || f.getChildren().isEmpty()) {
@@ -31,6 +31,7 @@ import java.util.Date;
 import org.gedcom4j.model.Individual;
 import org.gedcom4j.model.IndividualEvent;
 import org.gedcom4j.model.enumerations.IndividualEventType;
+import org.gedcom4j.parser.DateParseCache;
 import org.gedcom4j.parser.DateParser;
 import org.gedcom4j.parser.DateParser.ImpreciseDatePreference;
 
@@ -61,7 +62,7 @@ public class BornBeforeAncestorsValidator extends AbstractValidator {
      */
     @Override
     protected void validate() {
-        DateParser dp = new DateParser();
+        DateParser dp = DateParseCache.getSharedInstance().getParser();
         for (Individual i : getValidator().getGedcom().getIndividuals().values()) {
             IndividualEvent ib = getEarliestEventOfType(i, IndividualEventType.BIRTH);
             if (ib == null || ib.getDate() == null || ib.getDate().getValue() == null) {
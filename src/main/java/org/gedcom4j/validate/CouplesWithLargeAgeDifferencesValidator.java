@@ -32,6 +32,7 @@ import org.gedcom4j.model.Family;
 import org.gedcom4j.model.Individual;
 import org.gedcom4j.model.IndividualEvent;
 import org.gedcom4j.model.enumerations.IndividualEventType;
+import org.gedcom4j.parser.DateParseCache;
 import org.gedcom4j.parser.DateParser;
 import org.gedcom4j.parser.DateParser.ImpreciseDatePreference;
 
@@ -67,7 +68,7 @@ public class CouplesWithLargeAgeDifferencesValidator extends AbstractValidator {
      */
     @Override
     protected void validate() {
-        DateParser dp = new DateParser();
+        DateParser dp = DateParseCache.getSharedInstance().getParser();
 
         for (Family f : getValidator().getGedcom().getFamilies().values()) {
             if (f == null || f.getHusband() == null || f.getWife() == null) {
@@ -32,6 +32,7 @@ import java.util.List;
 import org.gedcom4j.model.Individual;
 import org.gedcom4j.model.IndividualEvent;
 import org.gedcom4j.model.enumerations.IndividualEventType;
+import org.gedcom4j.parser.DateParseCache;
 import org.gedcom4j.parser.DateParser;
 
 /**
@@ -49,7 +50,7 @@ public class FutureBirthOrDeathValidator extends AbstractValidator {
     /**
      * Date parser
      */
-    private final DateParser dp = new DateParser();
+    private final DateParser dp = DateParseCache.getSharedInstance().getParser();
 
     /**
      * Right now
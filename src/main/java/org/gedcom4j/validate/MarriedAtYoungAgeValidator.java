@@ -34,6 +34,7 @@ import org.gedcom4j.model.Individual;
 import org.gedcom4j.model.IndividualEvent;
 import org.gedcom4j.model.enumerations.FamilyEventType;
 import org.gedcom4j.model.enumerations.IndividualEventType;
+import org.gedcom4j.parser.DateParseCache;
 import org.gedcom4j.parser.DateParser;
 import org.gedcom4j.parser.DateParser.ImpreciseDatePreference;
 import org.gedcom4j.validate.Validator.Finding;
@@ -59,7 +60,7 @@ public class MarriedAtYoungAgeValidator extends AbstractValidator {
     /**
      * Date parser
      */
-    private final DateParser dp = new DateParser();
+    private final DateParser dp = DateParseCache.getSharedInstance().getParser();
 
     /**
      * Constructor
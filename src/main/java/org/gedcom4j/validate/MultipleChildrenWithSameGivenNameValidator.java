@@ -41,6 +41,7 @@ import org.gedcom4j.model.IndividualEvent;
 import org.gedcom4j.model.IndividualReference;
 import org.gedcom4j.model.PersonalName;
 import org.gedcom4j.model.enumerations.IndividualEventType;
+import org.gedcom4j.parser.DateParseCache;
 import org.gedcom4j.parser.DateParser;
 import org.gedcom4j.parser.DateParser.ImpreciseDatePreference;
 import org.gedcom4j.validate.Validator.Finding;
@@ -151,7 +152,7 @@ public class MultipleChildrenWithSameGivenNameValidator extends AbstractValidato
         if (e == null || e.getDate() == null || e.getDate().getValue() == null) {
             return FAR_IN_THE_PAST;
         }
-        DateParser dp = new DateParser();
+        DateParser dp = DateParseCache.getSharedInstance().getParser();
         Date d = dp.parse(e.getDate().getValue(), ImpreciseDatePreference.FAVOR_EARLIEST);
         if (d == null) {
             return FAR_IN_THE_PAST;
@@ -214,7 +215,7 @@ public class MultipleChildrenWithSameGivenNameValidator extends AbstractValidato
         if (e == null || e.getDate() == null || e.getDate().getValue() == null) {
             return FAR_IN_THE_FUTURE;
         }
-        DateParser dp = new DateParser();
+        DateParser dp = DateParseCache.getSharedInstance().getParser();
         Date d = dp.parse(e.getDate().getValue(), ImpreciseDatePreference.FAVOR_LATEST);
         if (d == null) {
             return FAR_IN_THE_FUTURE;
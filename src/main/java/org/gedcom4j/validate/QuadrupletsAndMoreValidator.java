@@ -38,6 +38,7 @@ import org.gedcom4j.model.Individual;
 import org.gedcom4j.model.IndividualEvent;
 import org.gedcom4j.model.IndividualReference;
 import org.gedcom4j.model.enumerations.IndividualEventType;
+import org.gedcom4j.parser.DateParseCache;
 import org.gedcom4j.parser.DateParser;
 import org.gedcom4j.parser.DateParser.ImpreciseDatePreference;
 
@@ -130,7 +131,7 @@ public class QuadrupletsAndMoreValidator extends AbstractValidator {
         if (e == null || e.getDate() == null || e.getDate().getValue() == null) {
             return null;
         }
-        DateParser dp = new DateParser();
+        DateParser dp = DateParseCache.getSharedInstance().getParser();
         return dp.parse(e.getDate().getValue(), ImpreciseDatePreference.FAVOR_EARLIEST);
     }
 
@@ -40,6 +40,7 @@ import org.gedcom4j.model.IndividualEvent;
 import org.gedcom4j.model.IndividualReference;
 import org.gedcom4j.model.Place;
 import org.gedcom4j.model.enumerations.IndividualEventType;
+import org.gedcom4j.parser.DateParseCache;
 import org.gedcom4j.parser.DateParser;
 import org.gedcom4j.validate.Validator.Finding;
 
@@ -125,7 +126,7 @@ public class SimultaneousBirthsInMultipleLocationsValidator extends AbstractVali
      */
     protected Map<Date, Set<Birth>> groupChildrenByBirthDate(Family f) {
         Map<Date, Set<Birth>> birthsByDate = new HashMap<>();
-        DateParser dp = new DateParser();
+        DateParser dp = DateParseCache.getSharedInstance().getParser();
 
         for (IndividualReference iRef : f.getChildren()) {
             if (iRef == null) {
@@ -108,8 +108,10 @@ abstract class AbstractEmitter<T> {
      *            the tag to use for the first line of the text. All subsequent lines will be "CONT" lines.
      * @param linesOfText
      *            the lines of text
+     * @throws GedcomWriterException
+     *             if the data cannot be written
      */
-    protected void emitLinesOfText(int level, String startingTag, List<String> linesOfText) {
+    protected void emitLinesOfText(int level, String startingTag, List<String> linesOfText) throws GedcomWriterException {
         emitLinesOfText(level, null, startingTag, linesOfText);
     }
 
@@ -148,8 +150,11 @@ abstract class AbstractEmitter<T> {
      *            the xref of the item with lines of text
      * @param linesOfText
      *            the lines of text to write
+     * @throws GedcomWriterException
+     *             if the data cannot be written
      */
-    protected void emitLinesOfText(int level, String xref, String startingTag, List<String> linesOfText) {
+    protected void emitLinesOfText(int level, String xref, String startingTag, List<String> linesOfText)
+            throws GedcomWriterException {
         List<String> splitLinesOfText = splitLinesOnBreakingCharacters(linesOfText);
         int lineNum = 0;
         for (String l : splitLinesOfText) {
@@ -200,9 +205,11 @@ abstract class AbstractEmitter<T> {
      *            the level within the file hierarchy
      * @param tag
      *            the tag for the line of the file
+     * @throws GedcomWriterException
+     *             if the data cannot be written
      */
-    protected void emitTag(int level, String tag) {
-        baseWriter.lines.add(level + " " + tag);
+    protected void emitTag(int level, String tag) throws GedcomWriterException {
+        baseWriter.addLine(level + " " + tag);
     }
 
     /**
@@ -214,14 +221,16 @@ abstract class AbstractEmitter<T> {
      *            the xref of the item being written, if any
      * @param tag
      *            the tag for the line of the file
+     * @throws GedcomWriterException
+     *             if the data cannot be written
      */
-    protected void emitTag(int level, String xref, String tag) {
+    protected void emitTag(int level, String xref, String tag) throws GedcomWriterException {
         StringBuilder line = new StringBuilder(Integer.toString(level));
         if (xref != null && xref.length() > 0) {
             line.append(" ").append(xref);
         }
         line.append(" ").append(tag);
-        baseWriter.lines.add(line.toString());
+        baseWriter.addLine(line.toString());
     }
 
     /**
@@ -259,7 +268,7 @@ abstract class AbstractEmitter<T> {
         if (value == null) {
             StringBuilder line = new StringBuilder(Integer.toString(level));
             line.append(" ").append(tag);
-            baseWriter.lines.add(line.toString());
+            baseWriter.addLine(line.toString());
         } else {
             List<String> temp = new ArrayList<>();
             temp.add(value);
@@ -285,7 +294,7 @@ abstract class AbstractEmitter<T> {
         if (valueToRightOfTag == null || valueToRightOfTag.getValue() == null) {
             StringBuilder line = new StringBuilder(Integer.toString(level));
             line.append(" ").append(tag);
-            baseWriter.lines.add(line.toString());
+            baseWriter.addLine(line.toString());
             if (valueToRightOfTag != null) {
                 emitCustomFacts(level + 1, valueToRightOfTag.getCustomFacts());
             }
@@ -432,21 +441,23 @@ abstract class AbstractEmitter<T> {
      *            the level at which we are recording
      * @param line
      *            the line to be written, which may have line breaking characters (which will result in CONT lines)
+     * @throws GedcomWriterException
+     *             if the data cannot be written
      */
-    private void emitAndSplit(int level, String line) {
+    private void emitAndSplit(int level, String line) throws GedcomWriterException {
         if (line.length() <= MAX_LINE_LENGTH) {
-            baseWriter.lines.add(line);
+            baseWriter.addLine(line);
         } else {
             // First part
-            baseWriter.lines.add(line.substring(0, MAX_LINE_LENGTH));
+            baseWriter.addLine(line.substring(0, MAX_LINE_LENGTH));
             // Now a series of as many CONC lines as needed
             String remainder = line.substring(MAX_LINE_LENGTH);
             while (remainder.length() > 0) {
                 if (remainder.length() > MAX_LINE_LENGTH) {
-                    baseWriter.lines.add(level + 1 + " CONC " + remainder.substring(0, MAX_LINE_LENGTH));
+                    baseWriter.addLine(level + 1 + " CONC " + remainder.substring(0, MAX_LINE_LENGTH));
                     remainder = remainder.substring(MAX_LINE_LENGTH);
                 } else {
-                    baseWriter.lines.add(level + 1 + " CONC " + remainder);
+                    baseWriter.addLine(level + 1 + " CONC " + remainder);
                     remainder = "";
                 }
             }
@@ -521,8 +532,10 @@ abstract class AbstractEmitter<T> {
      *            the tag for the line of the file
      * @param valueLines
      *            the value to write to the right of the tag
+     * @throws GedcomWriterException
+     *             if the data cannot be written
      */
-    private void emitValueLines(int level, String xref, String tag, List<String> valueLines) {
+    private void emitValueLines(int level, String xref, String tag, List<String> valueLines) throws GedcomWriterException {
         boolean first = true;
         for (String v : valueLines) {
             StringBuilder line = new StringBuilder();
@@ -31,6 +31,8 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.lang.ref.WeakReference;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.CopyOnWriteArrayList;
@@ -144,11 +146,32 @@ public class GedcomWriter extends AbstractEmitter<Gedcom> {
      */
     private int lastLineCountNotified = 0;
 
+    /**
+     * The number of lines constructed so far
+     */
+    private int linesConstructed = 0;
+
     /**
      * The line terminator to use
      */
     private LineTerminator lineTerminator = LineTerminator.getDefaultLineTerminator();
 
+    /**
+     * Are lines streamed to the output as they are constructed, rather than staged in {@link #lines} until the whole file has been
+     * constructed?
+     */
+    private boolean streaming = false;
+
+    /**
+     * The file writer that lines are streamed to once the header has been constructed, when streaming
+     */
+    private GedcomFileWriter streamingFileWriter;
+
+    /**
+     * The output stream being written to, when streaming
+     */
+    private OutputStream streamingOut;
+
     /**
      * Whether to use little-endian unicode
      */
@@ -238,6 +261,16 @@ public class GedcomWriter extends AbstractEmitter<Gedcom> {
         return cancelled;
     }
 
+    /**
+     * Are lines streamed to the output as they are constructed?
+     * 
+     * @return true if lines are streamed to the output as they are constructed, rather than staged until the whole file has been
+     *         constructed
+     */
+    public boolean isStreaming() {
+        return streaming;
+    }
+
     /**
      * Get the useLittleEndianForUnicode
      * 
@@ -345,6 +378,25 @@ public class GedcomWriter extends AbstractEmitter<Gedcom> {
         this.lineTerminator = lineTerminator;
     }
 
+    /**
+     * <p>
+     * Set whether lines are streamed to the output as they are constructed. By default, the entire file is constructed in memory
+     * before any of it is written, which for very large files can require a great deal of memory. When streaming, each line is
+     * encoded and written as soon as it is constructed, so memory use does not grow with the size of the file.
+     * </p>
+     * <p>
+     * The trade-off is that if construction fails partway through (for example, because a required value is missing), the lines
+     * constructed before the failure will already have been written. Validation and version compatibility checks are still
+     * performed before anything is written.
+     * </p>
+     * 
+     * @param streaming
+     *            true to stream lines to the output as they are constructed
+     */
+    public void setStreaming(boolean streaming) {
+        this.streaming = streaming;
+    }
+
     /**
      * Set the useLittleEndianForUnicode
      * 
@@ -441,6 +493,10 @@ public class GedcomWriter extends AbstractEmitter<Gedcom> {
      *             severity ERROR (and validation is not suppressed - see {@link GedcomWriter#validationSuppressed})
      */
     public void write(OutputStream out) throws GedcomWriterException {
+        if (streaming) {
+            writeStreaming(out);
+            return;
+        }
         emit();
         try {
             GedcomFileWriter gfw = new GedcomFileWriter(this, lines);
@@ -452,6 +508,19 @@ public class GedcomWriter extends AbstractEmitter<Gedcom> {
         }
     }
 
+    /**
+     * Write the {@link Gedcom} data in GEDCOM 5.5 format to a channel. The channel is not closed.
+     * 
+     * @param channel
+     *            the channel we're writing to
+     * @throws GedcomWriterException
+     *             if the data is malformed and cannot be written; or if the data fails validation with one or more finding of
+     *             severity ERROR (and validation is not suppressed - see {@link GedcomWriter#validationSuppressed})
+     */
+    public void write(WritableByteChannel channel) throws GedcomWriterException {
+        write(Channels.newOutputStream(channel));
+    }
+
     /**
      * Write the {@link Gedcom} data as a GEDCOM 5.5 file, with the supplied file name
      * 
@@ -489,6 +558,7 @@ public class GedcomWriter extends AbstractEmitter<Gedcom> {
         }
         checkVersionCompatibility();
         new HeaderEmitter(baseWriter, 0, writeFrom.getHeader()).emit();
+        startStreamingIfNeeded();
         new SubmissionEmitter(baseWriter, 0, writeFrom.getSubmission()).emit();
         new IndividualEmitter(baseWriter, 0, writeFrom.getIndividuals().values()).emit();
         new FamilyEmitter(baseWriter, 0, writeFrom.getFamilies().values()).emit();
@@ -505,6 +575,28 @@ public class GedcomWriter extends AbstractEmitter<Gedcom> {
         emitTrailer();
     }
 
+    /**
+     * Add a line of GEDCOM text that has been constructed. Unless streaming, the line is staged in {@link #lines}; when streaming,
+     * it is encoded and written immediately once the header has been constructed.
+     * 
+     * @param line
+     *            the line of text
+     * @throws GedcomWriterException
+     *             if the line cannot be written
+     */
+    void addLine(String line) throws GedcomWriterException {
+        linesConstructed++;
+        if (streamingFileWriter == null) {
+            lines.add(line);
+            return;
+        }
+        try {
+            streamingFileWriter.writeLine(line);
+        } catch (IOException e) {
+            throw new GedcomWriterException("Unable to write file", e);
+        }
+    }
+
     /**
      * Check that the data is compatible with 5.5 style Gedcom files
      * 
@@ -572,8 +664,8 @@ public class GedcomWriter extends AbstractEmitter<Gedcom> {
      * Notify construct observers if more than 100 lines have been constructed since last time we notified them
      */
     void notifyConstructObserversIfNeeded() {
-        if (lines.size() - lastLineCountNotified > constructionNotificationRate) {
-            notifyConstructObservers(new ConstructProgressEvent(this, lines.size(), true));
+        if (linesConstructed - lastLineCountNotified > constructionNotificationRate) {
+            notifyConstructObservers(new ConstructProgressEvent(this, linesConstructed, true));
         }
     }
 
@@ -670,10 +762,13 @@ public class GedcomWriter extends AbstractEmitter<Gedcom> {
 
     /**
      * Write out the trailer record
+     * 
+     * @throws GedcomWriterException
+     *             if the line cannot be written
      */
-    private void emitTrailer() {
-        lines.add("0 TRLR");
-        notifyConstructObservers(new ConstructProgressEvent(this, lines.size(), true));
+    private void emitTrailer() throws GedcomWriterException {
+        addLine("0 TRLR");
+        notifyConstructObservers(new ConstructProgressEvent(this, linesConstructed, true));
     }
 
     /**
@@ -699,4 +794,49 @@ public class GedcomWriter extends AbstractEmitter<Gedcom> {
         }
     }
 
+    /**
+     * If streaming, start writing to the output stream, now that the header lines have been constructed and the encoding can be
+     * determined from them
+     * 
+     * @throws GedcomWriterException
+     *             if the header lines cannot be written
+     */
+    private void startStreamingIfNeeded() throws GedcomWriterException {
+        if (streamingOut == null) {
+            return;
+        }
+        GedcomFileWriter gfw = new GedcomFileWriter(this, lines);
+        gfw.setUseLittleEndianForUnicode(useLittleEndianForUnicode);
+        gfw.setTerminator(getLineTerminator());
+        try {
+            gfw.startStreaming(streamingOut);
+        } catch (IOException e) {
+            throw new GedcomWriterException("Unable to write file", e);
+        }
+        lines.clear();
+        streamingFileWriter = gfw;
+    }
+
+    /**
+     * Write the {@link Gedcom} data to an output stream, streaming each line to the output as it is constructed
+     * 
+     * @param out
+     *            the output stream we're writing to
+     * @throws GedcomWriterException
+     *             if the data is malformed and cannot be written; or if the data fails validation with one or more finding of
+     *             severity ERROR (and validation is not suppressed - see {@link GedcomWriter#validationSuppressed})
+     */
+    private void writeStreaming(OutputStream out) throws GedcomWriterException {
+        streamingOut = out;
+        try {
+            emit();
+            streamingFileWriter.finishStreaming();
+        } catch (IOException e) {
+            throw new GedcomWriterException("Unable to write file", e);
+        } finally {
+            streamingOut = null;
+            streamingFileWriter = null;
+        }
+    }
+
 }
@@ -30,13 +30,16 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 import java.io.BufferedReader;
+import java.io.File;
 import java.io.FileReader;
 import java.util.ArrayList;
 import java.util.List;
 
 import org.gedcom4j.parser.GedcomParser;
 import org.gedcom4j.writer.GedcomWriter;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 /**
  * Integration test that checks parsing and writing of custom tags, using a contrived "torture test" file.
@@ -46,6 +49,12 @@ import org.junit.Test;
  */
 public class CustomTagParseWriteTortureTest {
 
+    /**
+     * Folder for the files written by the tests, which is deleted after each test
+     */
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
     /**
      * Test reading, rewriting, then comparing the contents of a test gedcom file full of custom tags
      * 
@@ -60,7 +69,8 @@ public class CustomTagParseWriteTortureTest {
 
         // Write the file back out to a temp file
         GedcomWriter gw = new GedcomWriter(gp.getGedcom());
-        gw.write("tmp/customtagstorture.ged");
+        File written = tempFolder.newFile("customtagstorture.ged");
+        gw.write(written);
 
         // Read all the lines of the original
         List<String> original = new ArrayList<>();
@@ -74,7 +84,7 @@ public class CustomTagParseWriteTortureTest {
 
         // Read all the lines of the copy
         List<String> copy = new ArrayList<>();
-        try (FileReader fr = new FileReader("tmp/customtagstorture.ged"); BufferedReader br = new BufferedReader(fr)) {
+        try (FileReader fr = new FileReader(written); BufferedReader br = new BufferedReader(fr)) {
             String s = br.readLine();
             while (s != null) {
                 copy.add(s);
@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.io.encoding;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A simple benchmark of decoding ANSEL data to UTF-16 with {@link AnselHandler}, using the lines of <tt>sample/ANSEL.GED</tt>. Not
+ * a unit test - run it with its main method. Each line is decoded many times over to give the JIT a chance to do its work before
+ * timings are taken.
+ * 
+ * @author frizbog
+ */
+public final class AnselHandlerBenchmark {
+
+    /**
+     * The number of passes over the file to warm up with before timing
+     */
+    private static final int WARMUP_PASSES = 20000;
+
+    /**
+     * The number of passes over the file to time
+     */
+    private static final int TIMED_PASSES = 20000;
+
+    /**
+     * Private constructor - this class is only run through its main method
+     */
+    private AnselHandlerBenchmark() {
+        // Nothing to do
+    }
+
+    /**
+     * Run the benchmark
+     * 
+     * @param args
+     *            command line arguments - the first (optional) one is the name of the ANSEL file to decode
+     * @throws IOException
+     *             if the file can't be read
+     */
+    @SuppressWarnings("PMD.SystemPrintln")
+    public static void main(String[] args) throws IOException {
+        String fileName = args.length > 0 ? args[0] : "sample/ANSEL.GED";
+        List<String> lines = new ArrayList<>();
+        for (String line : new String(Files.readAllBytes(Paths.get(fileName)), StandardCharsets.ISO_8859_1).split("[\r\n]+")) {
+            lines.add(line);
+        }
+        List<byte[]> byteLines = new ArrayList<>();
+        for (String line : lines) {
+            byteLines.add(line.getBytes(StandardCharsets.ISO_8859_1));
+        }
+        AnselHandler handler = new AnselHandler();
+        long lineCount = (long) lines.size() * TIMED_PASSES;
+
+        long checksum = decodeAll(handler, lines, WARMUP_PASSES);
+        long start = System.nanoTime();
+        checksum += decodeAll(handler, lines, TIMED_PASSES);
+        long elapsed = System.nanoTime() - start;
+        System.out.println("String to String: decoded " + lineCount + " lines of " + fileName + " in " + elapsed / 1000000 + "ms: "
+                + elapsed / lineCount + "ns per line (checksum " + checksum + ")");
+
+        checksum = decodeAllBytes(handler, byteLines, WARMUP_PASSES);
+        start = System.nanoTime();
+        checksum += decodeAllBytes(handler, byteLines, TIMED_PASSES);
+        elapsed = System.nanoTime() - start;
+        System.out.println("Bytes to reused char buffer: decoded " + lineCount + " lines of " + fileName + " in " + elapsed / 1000000
+                + "ms: " + elapsed / lineCount + "ns per line (checksum " + checksum + ")");
+    }
+
+    /**
+     * Decode all the lines the specified number of times
+     * 
+     * @param handler
+     *            the handler to decode with
+     * @param lines
+     *            the lines of ANSEL data, one character per byte
+     * @param passes
+     *            the number of times to decode all the lines
+     * @return a checksum of the results, so the work can't be optimized away
+     */
+    private static long decodeAll(AnselHandler handler, List<String> lines, int passes) {
+        long checksum = 0;
+        for (int i = 0; i < passes; i++) {
+            for (String line : lines) {
+                checksum += handler.toUtf16(line).length();
+            }
+        }
+        return checksum;
+    }
+
+    /**
+     * Decode all the lines the specified number of times, straight from byte arrays into a reused char buffer
+     * 
+     * @param handler
+     *            the handler to decode with
+     * @param lines
+     *            the lines of ANSEL data
+     * @param passes
+     *            the number of times to decode all the lines
+     * @return a checksum of the results, so the work can't be optimized away
+     */
+    private static long decodeAllBytes(AnselHandler handler, List<byte[]> lines, int passes) {
+        char[] utf16 = new char[1024];
+        long checksum = 0;
+        for (int i = 0; i < passes; i++) {
+            for (byte[] line : lines) {
+                checksum += handler.toUtf16(line, 0, line.length, utf16, 0);
+            }
+        }
+        return checksum;
+    }
+}
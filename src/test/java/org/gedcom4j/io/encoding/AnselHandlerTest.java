@@ -29,6 +29,8 @@ package org.gedcom4j.io.encoding;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
+import java.nio.charset.StandardCharsets;
+
 import org.junit.Test;
 
 /**
@@ -135,4 +137,31 @@ public class AnselHandlerTest {
     public void testWriteExtendedShort() {
         assertEquals("4 LATI +50\u00C0 3' 1.49\"", classUnderTest.toAnsel("4 LATI +50\u00B0 3' 1.49\""));
     }
+
+    /**
+     * Test decoding from a range of a byte array into a reusable char buffer
+     */
+    @Test
+    public void testReadFromByteArray() {
+        byte[] ansel = "xx2 GIVN Dolor\u00E1esxx".getBytes(StandardCharsets.ISO_8859_1);
+        char[] utf16 = new char[ansel.length + 1];
+        int len = classUnderTest.toUtf16(ansel, 2, ansel.length - 2, utf16, 1);
+        assertEquals("2 GIVN Dolor\u00E8s", new String(utf16, 1, len));
+    }
+
+    /**
+     * Test that two diacritics with no pre-combined glyph for the base character are both kept, after the base character
+     */
+    @Test
+    public void testReadTwoDiacriticsNotCombinable() {
+        assertEquals("q\u0301\u0308", classUnderTest.toUtf16("\u00E2\u00E8q"));
+    }
+
+    /**
+     * Test that two diacritics at the end of the data, with nothing to modify, are both kept
+     */
+    @Test
+    public void testReadTwoDiacriticsAtEnd() {
+        assertEquals("a\u0301\u0308", classUnderTest.toUtf16("a\u00E2\u00E8"));
+    }
 }
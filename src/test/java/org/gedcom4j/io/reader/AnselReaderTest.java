@@ -27,8 +27,14 @@
 package org.gedcom4j.io.reader;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 
 import org.gedcom4j.exception.GedcomParserException;
+import org.gedcom4j.parser.GedcomParser;
 import org.junit.Test;
 
 /**
@@ -113,4 +119,85 @@ public class AnselReaderTest {
         ar.getLevelFromLine("    Doesn't begin with number followed by space - leading spaces");
     }
 
+    /**
+     * Test that combining diacritics at the end of a line are kept with their base character at the start of the following CONC
+     * line
+     * 
+     * @throws IOException
+     *             if the data can't be read
+     * @throws GedcomParserException
+     *             if there's a problem parsing data
+     */
+    @Test
+    public void testDiacriticsHeldAcrossConcLine() throws IOException, GedcomParserException {
+        AnselReader ar = readerFor("0 @N1@ NOTE Dolor\u00E1\r\n1 CONC es\r\n1 CONC \u00E3\u00E0\n1 CONC Aok\n");
+        assertEquals("0 @N1@ NOTE Dolor", ar.nextLine());
+        assertEquals("1 CONC \u00E8s", ar.nextLine());
+        assertEquals("1 CONC ", ar.nextLine());
+        assertEquals("1 CONC \u1EA8ok", ar.nextLine());
+        assertNull(ar.nextLine());
+    }
+
+    /**
+     * Test that lines that are too long are split with synthetic CONC tags, and that lines of just the right length are not
+     * 
+     * @throws IOException
+     *             if the data can't be read
+     * @throws GedcomParserException
+     *             if there's a problem parsing data
+     */
+    @Test
+    public void testLongLinesSplit() throws IOException, GedcomParserException {
+        StringBuilder maxLength = new StringBuilder("1 NOTE ");
+        while (maxLength.length() < 250) {
+            maxLength.append('x');
+        }
+        StringBuilder tooLong = new StringBuilder("12 NOTE ");
+        while (tooLong.length() < 260) {
+            tooLong.append('y');
+        }
+        GedcomParser gp = new GedcomParser();
+        AnselReader ar = new AnselReader(gp, new ByteArrayInputStream((maxLength + "\n" + tooLong + "\n").getBytes(
+                StandardCharsets.ISO_8859_1)));
+        assertEquals(maxLength.toString(), ar.nextLine());
+        assertEquals(tooLong.substring(0, 250), ar.nextLine());
+        assertEquals("13 CONC " + tooLong.substring(250), ar.nextLine());
+        assertNull(ar.nextLine());
+        assertEquals(1, gp.getWarnings().size());
+    }
+
+    /**
+     * Test reading lines that span the boundaries between blocks read from the stream, and a final line with no line terminator
+     * 
+     * @throws IOException
+     *             if the data can't be read
+     * @throws GedcomParserException
+     *             if there's a problem parsing data
+     */
+    @Test
+    public void testLinesAcrossBlocks() throws IOException, GedcomParserException {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 20000; i++) {
+            sb.append("2 CONT Line ").append(i).append(" \u00E2e\r\n");
+        }
+        sb.append("0 TRLR");
+        AnselReader ar = readerFor(sb.toString());
+        for (int i = 0; i < 20000; i++) {
+            assertEquals("2 CONT Line " + i + " \u00E9", ar.nextLine());
+        }
+        assertEquals("0 TRLR", ar.nextLine());
+        assertNull(ar.nextLine());
+        assertEquals(sb.length(), ar.bytesRead);
+    }
+
+    /**
+     * Get a reader for a string of ANSEL data
+     * 
+     * @param ansel
+     *            the ANSEL data, one character per byte
+     * @return a reader for the data
+     */
+    private AnselReader readerFor(String ansel) {
+        return new AnselReader(new GedcomParser(), new ByteArrayInputStream(ansel.getBytes(StandardCharsets.ISO_8859_1)));
+    }
 }
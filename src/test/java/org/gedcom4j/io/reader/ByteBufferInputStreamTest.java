@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.io.reader;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+
+import org.junit.Test;
+
+/**
+ * Test for {@link ByteBufferInputStream}
+ * 
+ * @author frizbog
+ */
+public class ByteBufferInputStreamTest {
+
+    /**
+     * The test data
+     */
+    private final byte[] data = new byte[1000];
+
+    /**
+     * Constructor
+     */
+    public ByteBufferInputStreamTest() {
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) i;
+        }
+    }
+
+    /**
+     * Test reading from a buffer, and that the buffer's position is left alone
+     * 
+     * @throws IOException
+     *             if the data can't be read
+     */
+    @Test
+    public void testReadFromBuffer() throws IOException {
+        ByteBuffer bb = ByteBuffer.wrap(data);
+        ByteBufferInputStream bbis = new ByteBufferInputStream(bb);
+        assertArrayEquals(data, readAll(bbis));
+        assertEquals(-1, bbis.read());
+        assertEquals(0, bb.position());
+    }
+
+    /**
+     * Test reading from a channel through a buffer much smaller than the data
+     * 
+     * @throws IOException
+     *             if the data can't be read
+     */
+    @Test
+    public void testReadFromChannel() throws IOException {
+        ByteBufferInputStream bbis = new ByteBufferInputStream(Channels.newChannel(new ByteArrayInputStream(data)), 64);
+        assertEquals(data[0] & 0xFF, bbis.read());
+        byte[] rest = readAll(bbis);
+        assertEquals(data.length - 1, rest.length);
+        assertEquals(data[1], rest[0]);
+        assertEquals(data[data.length - 1], rest[rest.length - 1]);
+        assertEquals(-1, bbis.read());
+    }
+
+    /**
+     * Test peeking at the front of the data, which must not consume it
+     * 
+     * @throws IOException
+     *             if the data can't be read
+     */
+    @Test
+    public void testPeek() throws IOException {
+        ByteBufferInputStream bbis = new ByteBufferInputStream(Channels.newChannel(new ByteArrayInputStream(data)), 64);
+        byte[] front = new byte[50];
+        assertEquals(50, bbis.peek(front));
+        assertEquals(data[49], front[49]);
+        assertArrayEquals(data, readAll(bbis));
+
+        bbis = new ByteBufferInputStream(ByteBuffer.wrap(data, 0, 10));
+        assertEquals(10, bbis.peek(front));
+        assertEquals(10, readAll(bbis).length);
+    }
+
+    /**
+     * Read everything left in a stream
+     * 
+     * @param bbis
+     *            the stream to read
+     * @return the bytes read
+     * @throws IOException
+     *             if the data can't be read
+     */
+    private byte[] readAll(ByteBufferInputStream bbis) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        byte[] chunk = new byte[37];
+        int n = bbis.read(chunk, 0, chunk.length);
+        while (n >= 0) {
+            baos.write(chunk, 0, n);
+            n = bbis.read(chunk, 0, chunk.length);
+        }
+        return baos.toByteArray();
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.io.reader;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.gedcom4j.exception.GedcomParserException;
+import org.junit.Test;
+
+/**
+ * Test for {@link UnicodeBigEndianReader}
+ * 
+ * @author frizbog
+ */
+public class UnicodeBigEndianReaderTest {
+
+    /**
+     * Test that a byte order marker is skipped, and that leading whitespace and blank lines are dropped
+     * 
+     * @throws IOException
+     *             if the data can't be read
+     * @throws GedcomParserException
+     *             if the data cannot be parsed
+     */
+    @Test
+    public void testByteOrderMarkerAndWhitespace() throws IOException, GedcomParserException {
+        byte[] text = "0 HEAD\r\n\r\n  1 CHAR UNICODE \n\t0 TRLR".getBytes(StandardCharsets.UTF_16BE);
+        byte[] data = new byte[text.length + 2];
+        System.arraycopy(new byte[] { (byte) 0xFE, (byte) 0xFF }, 0, data, 0, 2);
+        System.arraycopy(text, 0, data, 2, text.length);
+        UnicodeBigEndianReader r = new UnicodeBigEndianReader(null, new ByteArrayInputStream(data));
+        assertEquals("0 HEAD", r.nextLine());
+        assertEquals("1 CHAR UNICODE ", r.nextLine());
+        assertEquals("0 TRLR", r.nextLine());
+        assertNull(r.nextLine());
+        assertEquals(data.length, r.bytesRead);
+    }
+
+    /**
+     * Test lines much longer than the internal buffers, with surrogate pairs straddling the ends of the blocks read
+     * 
+     * @throws IOException
+     *             if the data can't be read
+     * @throws GedcomParserException
+     *             if the data cannot be parsed
+     */
+    @Test
+    public void testLongLinesAndSurrogatePairs() throws IOException, GedcomParserException {
+        StringBuilder sb = new StringBuilder("1 NOTE ");
+        while (sb.length() < 150000) {
+            sb.append("x\uD83D\uDE00");
+        }
+        String longLine = sb.toString();
+        byte[] data = ("0 @N1@ NOTE\n" + longLine + "\n2 CONT \u65E5\u672C").getBytes(StandardCharsets.UTF_16BE);
+        UnicodeBigEndianReader r = new UnicodeBigEndianReader(null, new ByteArrayInputStream(data));
+        assertEquals("0 @N1@ NOTE", r.nextLine());
+        assertEquals(longLine, r.nextLine());
+        assertEquals("2 CONT \u65E5\u672C", r.nextLine());
+        assertNull(r.nextLine());
+    }
+}
@@ -27,14 +27,17 @@
 package org.gedcom4j.io.reader;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 import java.io.ByteArrayInputStream;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 
 import org.gedcom4j.exception.GedcomParserException;
 import org.gedcom4j.parser.GedcomParser;
@@ -125,6 +128,101 @@ public class Utf8ReaderTest {
         assertEquals("Bat", r.nextLine());
     }
 
+    /**
+     * Test multi-byte characters, mixed line terminators and a byte order marker
+     * 
+     * @throws IOException
+     *             if the data can't be read
+     * @throws GedcomParserException
+     *             if the data cannot be parsed
+     */
+    @Test
+    public void testMultiByteCharactersAndLineTerminators() throws IOException, GedcomParserException {
+        GedcomParser parser = new GedcomParser();
+
+        byte[] text = "0 HEAD\r\n1 NOTE \u00c6r\u00f8sk\u00f8bing \u65e5\u672c \ud83d\ude00\r2 CONT x\n\u3000 3 Foo".getBytes(
+                StandardCharsets.UTF_8);
+        byte[] buf = new byte[text.length + 3];
+        buf[0] = (byte) 0xEF;
+        buf[1] = (byte) 0xBB;
+        buf[2] = (byte) 0xBF;
+        System.arraycopy(text, 0, buf, 3, text.length);
+        Utf8Reader r = new Utf8Reader(parser, new ByteArrayInputStream(buf));
+        assertEquals("0 HEAD", r.nextLine());
+        assertEquals("1 NOTE \u00c6r\u00f8sk\u00f8bing \u65e5\u672c \ud83d\ude00", r.nextLine());
+        assertEquals("2 CONT x", r.nextLine());
+        assertEquals("3 Foo", r.nextLine());
+        assertNull(r.nextLine());
+        assertEquals(buf.length, r.bytesRead);
+    }
+
+    /**
+     * Test reading lines into a {@link LineBuffer}, which holds them as the undecoded bytes unless they begin with a non-ASCII
+     * character
+     * 
+     * @throws IOException
+     *             if the data can't be read
+     * @throws GedcomParserException
+     *             if the data cannot be parsed
+     */
+    @Test
+    public void testLineBuffer() throws IOException, GedcomParserException {
+        GedcomParser parser = new GedcomParser();
+
+        byte[] buf = "\ufeff0 HEAD\r\n  1 NOTE \u00c6r\u00f8sk\u00f8bing \ud83d\ude00\r\n\u3000 3 Foo\n\u00c6 4 Bar".getBytes(
+                StandardCharsets.UTF_8);
+        Utf8Reader r = new Utf8Reader(parser, new ByteArrayInputStream(buf));
+        LineBuffer line = new LineBuffer();
+
+        assertTrue(r.nextLine(line));
+        assertNotNull(line.getBytes());
+        assertEquals("0 HEAD", new String(line.getBytes(), line.getStart(), line.getEnd() - line.getStart(),
+                StandardCharsets.UTF_8));
+        assertEquals('0', line.firstChar());
+        assertEquals("0 HEAD", line.toString());
+
+        assertTrue(r.nextLine(line));
+        assertNotNull(line.getBytes());
+        assertEquals("1 NOTE \u00c6r\u00f8sk\u00f8bing \ud83d\ude00", line.toString());
+
+        assertTrue(r.nextLine(line));
+        assertNull(line.getBytes());
+        assertEquals("3 Foo", line.toString());
+
+        assertTrue(r.nextLine(line));
+        assertNull(line.getBytes());
+        assertEquals('\u00c6', line.firstChar());
+        assertEquals("\u00c6 4 Bar", line.toString());
+
+        assertFalse(r.nextLine(line));
+        assertEquals(buf.length, r.bytesRead);
+    }
+
+    /**
+     * Test a line much longer than the reader's internal buffer, with multi-byte characters straddling the buffer boundaries
+     * 
+     * @throws IOException
+     *             if the data can't be read
+     * @throws GedcomParserException
+     *             if the data cannot be parsed
+     */
+    @Test
+    public void testLineLongerThanBuffer() throws IOException, GedcomParserException {
+        GedcomParser parser = new GedcomParser();
+
+        StringBuilder sb = new StringBuilder("1 NOTE ");
+        while (sb.length() < 200000) {
+            sb.append("abc\u00e9\u65e5");
+        }
+        String longLine = sb.toString();
+        byte[] buf = ("0 HEAD\n" + longLine + "\n1 CONT x\n").getBytes(StandardCharsets.UTF_8);
+        Utf8Reader r = new Utf8Reader(parser, new ByteArrayInputStream(buf));
+        assertEquals("0 HEAD", r.nextLine());
+        assertEquals(longLine, r.nextLine());
+        assertEquals("1 CONT x", r.nextLine());
+        assertNull(r.nextLine());
+    }
+
     /**
      * Test a non-existent file
      * 
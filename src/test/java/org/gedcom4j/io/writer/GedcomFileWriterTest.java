@@ -30,6 +30,7 @@ import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 
 import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -43,7 +44,9 @@ import org.gedcom4j.model.SubmissionReference;
 import org.gedcom4j.model.Submitter;
 import org.gedcom4j.model.SubmitterReference;
 import org.gedcom4j.writer.GedcomWriter;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 /**
  * Test for {@link GedcomFileWriter}. Doesn't actually test writing GEDCOM data per se, but tests reading and writing various
@@ -55,6 +58,12 @@ import org.junit.Test;
 @SuppressWarnings({ "resource", "PMD.TooManyMethods" })
 public class GedcomFileWriterTest {
 
+    /**
+     * Folder for the files written by the tests, which is deleted after each test
+     */
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
     /**
      * Get a List of strings representing GEDCOM text for an ANSEL-encoded file. Note that the lines do NOT represent a well-formed
      * GEDCOM, but we're only testing the encoding.
@@ -932,7 +941,7 @@ public class GedcomFileWriterTest {
      */
     @Test
     public void testWriteFileWithName() throws IOException, GedcomWriterException {
-        String fn = "tmp/gedcomfilewritertest.ged";
+        String fn = new File(tempFolder.getRoot(), "gedcomfilewritertest.ged").getPath();
         Gedcom g = new Gedcom();
         g.setSubmission(new Submission("@SUBN0001@"));
         g.getHeader().setSubmissionReference(new SubmissionReference(g.getSubmission()));
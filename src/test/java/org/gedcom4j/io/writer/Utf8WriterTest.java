@@ -26,8 +26,13 @@
  */
 package org.gedcom4j.io.writer;
 
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.charset.Charset;
 import java.util.ArrayList;
 
 import org.gedcom4j.exception.WriterCancelledException;
@@ -63,19 +68,23 @@ public class Utf8WriterTest {
     }
 
     /**
-     * Test for {@link Utf8Writer#writeLine(java.io.OutputStream, String)}
+     * Test for {@link Utf8Writer#writeLine(java.io.OutputStream, String)} with multi-byte characters
      * 
      * @throws WriterCancelledException
      *             if the writer is cancelled
      * @throws IOException
      *             if we can't write to the output stream
      */
-    @Test(expected = UnsupportedOperationException.class)
-    public void testNegative1() throws WriterCancelledException, IOException {
+    @Test
+    public void testWriteLine() throws WriterCancelledException, IOException {
         Utf8Writer w = new Utf8Writer(new GedcomWriter(new Gedcom()));
-        try (OutputStream nos = new NullOutputStream()) {
-            w.writeLine(nos, "Foo");
-        }
+        w.terminator = LineTerminator.CRLF;
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        w.writeLine(baos, "1 NAME Jos\u00e9 /\u0141\u00f3d\u017a/");
+        w.flushBuffer(baos);
+        byte[] expected = "1 NAME Jos\u00e9 /\u0141\u00f3d\u017a/\r\n".getBytes(Charset.forName("UTF-8"));
+        assertArrayEquals(expected, baos.toByteArray());
+        assertEquals(expected.length, w.bytesWritten);
     }
 
     /**
@@ -86,11 +95,40 @@ public class Utf8WriterTest {
      * @throws IOException
      *             if we can't write to the output stream
      */
-    @Test(expected = UnsupportedOperationException.class)
-    public void testNegative2() throws WriterCancelledException, IOException {
+    @Test
+    public void testWriteLineTerminator() throws WriterCancelledException, IOException {
         Utf8Writer w = new Utf8Writer(new GedcomWriter(new Gedcom()));
-        try (OutputStream nos = new NullOutputStream()) {
-            w.writeLineTerminator(nos);
+        w.terminator = LineTerminator.LFCR;
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        w.writeLineTerminator(baos);
+        w.flushBuffer(baos);
+        assertArrayEquals(new byte[] { 0x0A, 0x0D }, baos.toByteArray());
+        assertEquals(2, w.bytesWritten);
+    }
+
+    /**
+     * Test that a line longer than the writer's buffer, containing supplementary characters and an unpaired surrogate, is encoded
+     * exactly as Java's own UTF-8 encoder would encode it
+     * 
+     * @throws WriterCancelledException
+     *             if the writer is cancelled
+     * @throws IOException
+     *             if we can't write to the output stream
+     */
+    @Test
+    public void testWriteLongLine() throws WriterCancelledException, IOException {
+        StringBuilder sb = new StringBuilder("1 NOTE ");
+        while (sb.length() < AbstractEncodingSpecificWriter.BUFFER_SIZE) {
+            sb.append("A\u00e9\u20ac\ud83d\ude00\ud83d ");
         }
+        String line = sb.toString();
+        Utf8Writer w = new Utf8Writer(new GedcomWriter(new Gedcom()));
+        w.terminator = LineTerminator.LF_ONLY;
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        w.writeLine(baos, line);
+        w.flushBuffer(baos);
+        byte[] expected = (line + "\n").getBytes(Charset.forName("UTF-8"));
+        assertArrayEquals(expected, baos.toByteArray());
+        assertEquals(expected.length, w.bytesWritten);
     }
 }
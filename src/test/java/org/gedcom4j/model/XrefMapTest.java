@@ -0,0 +1,199 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Test for {@link XrefMap}
+ * 
+ * @author frizbog
+ */
+public class XrefMapTest {
+
+    /**
+     * Test that the map behaves like a {@link LinkedHashMap} (which also keeps xrefs in the order they were first put) through a
+     * long series of random puts and removes, including removes through the iterators, and across the map growing
+     */
+    @Test
+    public void testAgainstLinkedHashMap() {
+        Random random = new Random(21);
+        Map<String, Integer> expected = new LinkedHashMap<>();
+        XrefMap<Integer> actual = new XrefMap<>();
+        for (int i = 0; i < 20000; i++) {
+            String xref = "@I" + random.nextInt(2000) + "@";
+            int op = random.nextInt(10);
+            if (op < 6) {
+                assertEquals(expected.put(xref, i), actual.put(xref, i));
+            } else if (op < 8) {
+                assertEquals(expected.remove(xref), actual.remove(xref));
+            } else if (op < 9) {
+                assertEquals(expected.keySet().remove(xref), actual.keySet().remove(xref));
+            } else {
+                Iterator<Map.Entry<String, Integer>> e = expected.entrySet().iterator();
+                Iterator<Map.Entry<String, Integer>> a = actual.entrySet().iterator();
+                int skip = expected.isEmpty() ? 0 : random.nextInt(expected.size());
+                for (int j = 0; j <= skip && e.hasNext(); j++) {
+                    assertEquals(e.next(), a.next());
+                }
+                if (skip < expected.size()) {
+                    e.remove();
+                    a.remove();
+                }
+            }
+            assertEquals(expected.size(), actual.size());
+            assertEquals(expected.get(xref), actual.get(xref));
+            assertEquals(expected.containsKey(xref), actual.containsKey(xref));
+        }
+        assertEquals(new ArrayList<>(expected.entrySet()), new ArrayList<>(actual.entrySet()));
+        assertEquals(expected, actual);
+        assertEquals(expected.hashCode(), actual.hashCode());
+        assertFalse(actual.containsKey(Integer.valueOf(1)));
+    }
+
+    /**
+     * Test clearing the map, and sizing it in advance
+     */
+    @Test
+    public void testClearAndEnsureCapacity() {
+        XrefMap<String> map = new XrefMap<>(2);
+        map.put("@F1@", "One");
+        map.ensureCapacity(1000);
+        for (int i = 2; i <= 1000; i++) {
+            map.put("@F" + i + "@", "Family " + i);
+        }
+        assertEquals(1000, map.size());
+        assertEquals("One", map.get("@F1@"));
+        assertEquals("Family 1000", map.get("@F1000@"));
+        map.clear();
+        assertTrue(map.isEmpty());
+        assertNull(map.get("@F1@"));
+        assertFalse(map.entrySet().iterator().hasNext());
+        map.put("@F2@", "Two");
+        assertEquals("@F2@", map.keySet().iterator().next());
+    }
+
+    /**
+     * Test that the iterators fail fast when the map is changed under them
+     */
+    @Test
+    public void testConcurrentModification() {
+        XrefMap<String> map = new XrefMap<>();
+        map.put("@S1@", "One");
+        map.put("@S2@", "Two");
+        Iterator<String> it = map.keySet().iterator();
+        assertEquals("@S1@", it.next());
+        map.put("@S3@", "Three");
+        try {
+            it.next();
+            fail("Expected a ConcurrentModificationException");
+        } catch (@SuppressWarnings("unused") ConcurrentModificationException expected) {
+            // Good
+        }
+        it = map.keySet().iterator();
+        try {
+            it.remove();
+            fail("Expected an IllegalStateException");
+        } catch (@SuppressWarnings("unused") IllegalStateException expected) {
+            // Good
+        }
+    }
+
+    /**
+     * Test null keys and values, which a {@link java.util.HashMap} allows too
+     */
+    @Test
+    public void testNulls() {
+        XrefMap<String> map = new XrefMap<>();
+        assertFalse(map.containsKey(null));
+        assertNull(map.put(null, "Null"));
+        assertNull(map.put("@N1@", null));
+        assertTrue(map.containsKey(null));
+        assertTrue(map.containsKey("@N1@"));
+        assertEquals("Null", map.get(null));
+        assertEquals("Null", map.put(null, "Still null"));
+        assertEquals(2, map.size());
+        assertEquals("Still null", map.remove(null));
+        assertFalse(map.containsKey(null));
+        assertEquals(1, map.size());
+    }
+
+    /**
+     * Test writing the map out with java serialization and reading it back in, including entries that had been removed
+     * 
+     * @throws IOException
+     *             if the map can't be written or read
+     * @throws ClassNotFoundException
+     *             if the map can't be read
+     */
+    @Test
+    public void testSerialization() throws IOException, ClassNotFoundException {
+        XrefMap<Individual> map = new XrefMap<>();
+        List<String> xrefs = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            Individual individual = new Individual();
+            individual.setXref("@I" + i + "@");
+            map.put(individual.getXref(), individual);
+            if (i % 3 == 0) {
+                map.remove(individual.getXref());
+            } else {
+                xrefs.add(individual.getXref());
+            }
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(map);
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            @SuppressWarnings("unchecked")
+            XrefMap<Individual> copy = (XrefMap<Individual>) in.readObject();
+            assertEquals(map, copy);
+            assertEquals(xrefs, new ArrayList<>(copy.keySet()));
+            copy.put("@I99@", new Individual());
+            assertEquals(xrefs.size() + 1, copy.size());
+        }
+    }
+}
@@ -0,0 +1,201 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.parser;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.gedcom4j.parser.DateParser.ImpreciseDatePreference;
+import org.junit.Test;
+
+/**
+ * Test for {@link DateParseCache}
+ * 
+ * @author frizbog
+ */
+public class DateParseCacheTest {
+
+    /**
+     * Test that the cache gives the same results as parsing without it, and counts hits and misses
+     */
+    @Test
+    public void testCachedResults() {
+        DateParseCache cache = new DateParseCache();
+        DateParser uncached = new DateParser();
+        DateParser cached = cache.getParser();
+        String[] dates = { "1 JAN 1900", "ABT 1850", "BET 1820 AND 1825", "@#DHEBREW@ ELL 5760", "Unknown" };
+        for (int i = 0; i < 3; i++) {
+            for (String d : dates) {
+                assertEquals(d, uncached.parseRange(d), cached.parseRange(d));
+                for (ImpreciseDatePreference pref : ImpreciseDatePreference.values()) {
+                    assertEquals(d + " " + pref, uncached.parse(d, pref), cached.parse(d, pref));
+                }
+            }
+        }
+        assertEquals(dates.length, cache.getSize());
+        assertEquals(dates.length, cache.getMisses());
+        assertEquals(dates.length * 3 * (ImpreciseDatePreference.values().length + 1) - dates.length, cache.getHits());
+        assertTrue(cache.getHitRate() > 0.9);
+        assertEquals(0, cache.getEvictions());
+        assertNull(cached.parse("Unknown"));
+
+        cache.clear();
+        assertEquals(0, cache.getSize());
+        assertEquals(0, cache.getHits());
+        assertEquals(0, cache.getMisses());
+        assertEquals(0, cache.getHitRate(), 0);
+    }
+
+    /**
+     * Test that the cache stays within its maximum size, and keeps the entries that are used most
+     */
+    @Test
+    public void testEviction() {
+        DateParseCache cache = new DateParseCache(10);
+        for (int year = 1800; year < 1810; year++) {
+            cache.getRange(String.valueOf(year));
+        }
+        assertEquals(10, cache.getSize());
+
+        // Use 1800 again, then add one-off values which should push out everything else first
+        cache.getRange("1800");
+        for (int year = 1900; year < 1950; year++) {
+            cache.getRange(String.valueOf(year));
+            cache.getRange("1800");
+        }
+        assertEquals(10, cache.getSize());
+        assertEquals(50, cache.getEvictions());
+        long misses = cache.getMisses();
+        cache.getRange("1800");
+        assertEquals(misses, cache.getMisses());
+    }
+
+    /**
+     * Test that the shared cache is used by default, and that serialized parsers and caches come back sensibly
+     * 
+     * @throws IOException
+     *             if the objects can't be written or read
+     * @throws ClassNotFoundException
+     *             if the objects' classes can't be found when reading them back
+     */
+    @Test
+    public void testShared() throws IOException, ClassNotFoundException {
+        DateParseCache shared = DateParseCache.getSharedInstance();
+        assertSame(shared, DateParseCache.getSharedInstance());
+        assertSame(shared.getParser(), shared.getParser());
+        assertSame(shared, roundTrip(shared));
+
+        DateParseCache cache = new DateParseCache(42);
+        cache.getRange("1900");
+        DateParseCache copy = (DateParseCache) roundTrip(cache);
+        assertNotSame(cache, copy);
+        assertEquals(42, copy.getMaxSize());
+        assertEquals(0, copy.getSize());
+        assertEquals(cache.getRange("1900"), copy.getParser().parseRange("1900"));
+    }
+
+    /**
+     * Test that a cache of size zero doesn't cache anything
+     */
+    @Test
+    public void testSizeZero() {
+        DateParseCache cache = new DateParseCache(0);
+        assertEquals(new DateParser().parseRange("1900"), cache.getRange("1900"));
+        assertEquals(new DateParser().parseRange("1900"), cache.getRange("1900"));
+        assertEquals(0, cache.getSize());
+        assertEquals(0, cache.getHits());
+        assertEquals(2, cache.getMisses());
+    }
+
+    /**
+     * Test that the cache can be used from several threads at once
+     * 
+     * @throws InterruptedException
+     *             if the test is interrupted waiting for the threads
+     */
+    @Test
+    public void testThreads() throws InterruptedException {
+        final DateParseCache cache = new DateParseCache(50);
+        final DateParser uncached = new DateParser();
+        final AtomicInteger wrong = new AtomicInteger();
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread() {
+                /**
+                 * {@inheritDoc}
+                 */
+                @Override
+                public void run() {
+                    for (int i = 0; i < 20000; i++) {
+                        String d = "ABT " + (1800 + i % 100);
+                        if (!uncached.parseRange(d).equals(cache.getRange(d))) {
+                            wrong.incrementAndGet();
+                        }
+                    }
+                }
+            };
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(0, wrong.get());
+        assertEquals(50, cache.getSize());
+        assertEquals(threads.length * 20000, cache.getHits() + cache.getMisses());
+    }
+
+    /**
+     * Serialize and deserialize an object
+     * 
+     * @param o
+     *            the object
+     * @return the object read back
+     * @throws IOException
+     *             if the object can't be written or read
+     * @throws ClassNotFoundException
+     *             if the object's class can't be found when reading it back
+     */
+    private Object roundTrip(Object o) throws IOException, ClassNotFoundException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(o);
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            return in.readObject();
+        }
+    }
+}
@@ -0,0 +1,208 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.parser;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import org.gedcom4j.parser.DateParser.ImpreciseDatePreference;
+
+/**
+ * A benchmark (run through its main method, not as a unit test) of how long it takes to parse every date value in the sample files,
+ * both the way {@link org.gedcom4j.query.Finder} used to - two calls to {@link DateParser#parse(String, ImpreciseDatePreference)},
+ * for the earliest and latest dates - and with a single call to {@link DateParser#parseRange(String)}. The last run spreads the
+ * ranges over all the available processors, sharing one {@link DateParser}. Finally, the earliest and latest dates are parsed
+ * again through a {@link DateParseCache}, the way the library's own date consumers now do.
+ * 
+ * @author frizbog
+ */
+public final class DateParserBenchmark {
+
+    /**
+     * How many times to parse all the date values before timing begins, so the JIT has settled down
+     */
+    private static final int WARMUP_ITERATIONS = 50;
+
+    /**
+     * How many times to parse all the date values while timing
+     */
+    private static final int MEASURED_ITERATIONS = 100;
+
+    /**
+     * Private constructor - this class is only run through its main method
+     */
+    private DateParserBenchmark() {
+        // Nothing to do
+    }
+
+    /**
+     * Run the benchmark
+     * 
+     * @param args
+     *            command line arguments - the directory of GEDCOM files to take the date values from, if not <code>sample</code>
+     * @throws IOException
+     *             if the files can't be read
+     * @throws InterruptedException
+     *             if interrupted while waiting for the threads of the multi-threaded run
+     */
+    @SuppressWarnings("PMD.SystemPrintln")
+    public static void main(String[] args) throws IOException, InterruptedException {
+        final List<String> values = readDateValues(Paths.get(args.length > 0 ? args[0] : "sample"));
+        final DateParser dp = new DateParser();
+        DateParseCache cache = new DateParseCache();
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            parseEarliestAndLatest(dp, values);
+            parseRanges(dp, values, 0, 1);
+            parseEarliestAndLatest(cache.getParser(), values);
+        }
+        long start = System.nanoTime();
+        int parsed = 0;
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            parsed = parseEarliestAndLatest(dp, values);
+        }
+        long middle = System.nanoTime();
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            parseRanges(dp, values, 0, 1);
+        }
+        long end = System.nanoTime();
+        int threadCount = Runtime.getRuntime().availableProcessors();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < threadCount; t++) {
+            final int first = t;
+            final int step = threadCount;
+            threads.add(new Thread() {
+                /**
+                 * {@inheritDoc}
+                 */
+                @Override
+                public void run() {
+                    for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+                        parseRanges(dp, values, first, step);
+                    }
+                }
+            });
+        }
+        long threadedStart = System.nanoTime();
+        for (Thread t : threads) {
+            t.start();
+        }
+        for (Thread t : threads) {
+            t.join();
+        }
+        long threadedEnd = System.nanoTime();
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            parseEarliestAndLatest(cache.getParser(), values);
+        }
+        long cachedEnd = System.nanoTime();
+
+        double ops = (double) values.size() * MEASURED_ITERATIONS;
+        System.out.printf("%d date values, %d parseable%n", values.size(), parsed);
+        System.out.printf("parse(FAVOR_EARLIEST) + parse(FAVOR_LATEST): %.1f ns/value%n", (middle - start) / ops);
+        System.out.printf("parseRange: %.1f ns/value%n", (end - middle) / ops);
+        System.out.printf("parseRange on %d threads: %.1f ns/value%n", threadCount, (threadedEnd - threadedStart) / ops);
+        System.out.printf("parse(FAVOR_EARLIEST) + parse(FAVOR_LATEST) through the cache: %.1f ns/value - %s%n",
+                (cachedEnd - threadedEnd) / ops, cache);
+    }
+
+    /**
+     * Parse each date value twice, for the earliest and latest dates
+     * 
+     * @param dp
+     *            the date parser
+     * @param values
+     *            the date values
+     * @return the number of values that could be parsed
+     */
+    private static int parseEarliestAndLatest(DateParser dp, List<String> values) {
+        int parsed = 0;
+        for (String value : values) {
+            Date earliest = dp.parse(value, ImpreciseDatePreference.FAVOR_EARLIEST);
+            Date latest = dp.parse(value, ImpreciseDatePreference.FAVOR_LATEST);
+            if (earliest != null && latest != null) {
+                parsed++;
+            }
+        }
+        return parsed;
+    }
+
+    /**
+     * Parse some of the date values into ranges
+     * 
+     * @param dp
+     *            the date parser
+     * @param values
+     *            the date values
+     * @param first
+     *            the index of the first value to parse
+     * @param step
+     *            the distance between the values to parse
+     * @return the number of values that could be parsed
+     */
+    private static int parseRanges(DateParser dp, List<String> values, int first, int step) {
+        int parsed = 0;
+        for (int i = first; i < values.size(); i += step) {
+            if (dp.parseRange(values.get(i)) != null) {
+                parsed++;
+            }
+        }
+        return parsed;
+    }
+
+    /**
+     * Read the values of all the DATE lines in the GEDCOM files in a directory
+     * 
+     * @param dir
+     *            the directory
+     * @return the date values
+     * @throws IOException
+     *             if the files can't be read
+     */
+    private static List<String> readDateValues(Path dir) throws IOException {
+        List<String> result = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "*.{ged,GED}")) {
+            for (Path file : files) {
+                // Date values are plain ASCII, whatever the encoding of the rest of the file
+                String text = new String(Files.readAllBytes(file), StandardCharsets.ISO_8859_1);
+                for (String line : text.split("[\r\n]+")) {
+                    String trimmed = line.trim();
+                    int space = trimmed.indexOf(' ');
+                    if (space > 0 && trimmed.startsWith(" DATE ", space)) {
+                        result.add(trimmed.substring(space + 6));
+                    }
+                }
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,183 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.parser;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+import org.gedcom4j.parser.DateParser.ImpreciseDatePreference;
+import org.gedcom4j.parser.DateRange.CalendarSystem;
+import org.gedcom4j.parser.DateRange.Qualifier;
+import org.junit.Test;
+
+/**
+ * Test for {@link DateRange} and {@link DateParser#parseRange(String)}
+ * 
+ * @author frizbog
+ */
+public class DateRangeTest {
+
+    /**
+     * The epoch day of 1 JAN 1900
+     */
+    private static final long JAN_1_1900 = -25567;
+
+    /**
+     * The epoch day of 31 DEC 1900
+     */
+    private static final long DEC_31_1900 = -25203;
+
+    /**
+     * The date parser being tested
+     */
+    private final DateParser dp = new DateParser();
+
+    /**
+     * Test the calendar system of the ranges parsed
+     */
+    @Test
+    public void testCalendars() {
+        assertEquals(CalendarSystem.GREGORIAN, dp.parseRange("1 JAN 1900").getCalendar());
+        assertEquals(CalendarSystem.GREGORIAN, dp.parseRange("@#DGREGORIAN@ 1 JAN 1900").getCalendar());
+        assertEquals(CalendarSystem.JULIAN, dp.parseRange("@#DJULIAN@ 1 JAN 1900").getCalendar());
+        assertEquals(CalendarSystem.HEBREW, dp.parseRange("@#DHEBREW@ 1 TSH 5760").getCalendar());
+        assertEquals(CalendarSystem.FRENCH_REPUBLICAN, dp.parseRange("@#DFRENCH R@ 1 VEND 1").getCalendar());
+    }
+
+    /**
+     * Test the earliest, latest, and midpoint days of imprecise dates
+     */
+    @Test
+    public void testEpochDays() {
+        DateRange r = dp.parseRange("1 JAN 1900");
+        assertEquals(JAN_1_1900, r.getEarliestEpochDay());
+        assertEquals(JAN_1_1900, r.getLatestEpochDay());
+        assertEquals(JAN_1_1900, r.getMidpointEpochDay());
+
+        r = dp.parseRange("1900");
+        assertEquals(JAN_1_1900, r.getEarliestEpochDay());
+        assertEquals(DEC_31_1900, r.getLatestEpochDay());
+        assertEquals(JAN_1_1900 + 181, r.getMidpointEpochDay());
+
+        r = dp.parseRange("JAN 1900");
+        assertEquals(JAN_1_1900, r.getEarliestEpochDay());
+        assertEquals(JAN_1_1900 + 30, r.getLatestEpochDay());
+        assertEquals(JAN_1_1900 + 14, r.getMidpointEpochDay());
+
+        r = dp.parseRange("BET 1 JAN 1900 AND 11 JAN 1900");
+        assertEquals(JAN_1_1900, r.getEpochDay(ImpreciseDatePreference.PRECISE));
+        assertEquals(JAN_1_1900, r.getEpochDay(ImpreciseDatePreference.FAVOR_EARLIEST));
+        assertEquals(JAN_1_1900 + 10, r.getEpochDay(ImpreciseDatePreference.FAVOR_LATEST));
+        assertEquals(JAN_1_1900 + 5, r.getEpochDay(ImpreciseDatePreference.FAVOR_MIDPOINT));
+    }
+
+    /**
+     * Test equality and hash codes
+     */
+    @Test
+    public void testEquals() {
+        assertEquals(dp.parseRange("1 JAN 1900"), dp.parseRange("1 jan 1900"));
+        assertEquals(dp.parseRange("1 JAN 1900").hashCode(), dp.parseRange("1 jan 1900").hashCode());
+        assertNotEquals(dp.parseRange("1 JAN 1900"), dp.parseRange("ABT 1 JAN 1900"));
+        assertNotEquals(dp.parseRange("1 JAN 1900"), dp.parseRange("@#DJULIAN@ 1 JAN 1900"));
+        assertNotEquals(dp.parseRange("1 JAN 1900"), dp.parseRange("2 JAN 1900"));
+    }
+
+    /**
+     * Test that unparseable strings give null ranges
+     */
+    @Test
+    public void testNulls() {
+        assertNull(dp.parseRange(""));
+        assertNull(dp.parseRange("Unknown"));
+        assertNull(dp.parseRange("BET 1900 AND Unknown"));
+        assertNull(dp.parseRange("@#DHEBREW@ 1 FOO 5760"));
+    }
+
+    /**
+     * Test that ranges give the same dates as {@link DateParser#parse(String, ImpreciseDatePreference)}
+     */
+    @Test
+    public void testParseConsistency() {
+        String[] dates = { "1 JAN 1900", "1900", "FEB 1900", "ABT 1900", "BEF 1900", "AFT 1900", "BET 1900 AND 1910",
+                "FROM 1 JAN 1900 TO 2 FEB 1910", "INT 1900 (foo)", "1 JAN 1700/01", "500 BC", "@#DJULIAN@ 1 JAN 1900",
+                "@#DHEBREW@ ELL 5760", "@#DFRENCH R@ 1 VEND 1" };
+        for (String d : dates) {
+            DateRange r = dp.parseRange(d);
+            assertNotNull(d, r);
+            for (ImpreciseDatePreference pref : ImpreciseDatePreference.values()) {
+                assertEquals(d + " " + pref, dp.parse(d, pref), r.toDate(pref));
+            }
+        }
+    }
+
+    /**
+     * Test the qualifiers of the ranges parsed
+     */
+    @Test
+    public void testQualifiers() {
+        assertEquals(Qualifier.NONE, dp.parseRange("1 JAN 1900").getQualifier());
+        assertEquals(Qualifier.ABOUT, dp.parseRange("ABT 1900").getQualifier());
+        assertEquals(Qualifier.CALCULATED, dp.parseRange("CAL 1900").getQualifier());
+        assertEquals(Qualifier.ESTIMATED, dp.parseRange("EST 1900").getQualifier());
+        assertEquals(Qualifier.INTERPRETED, dp.parseRange("INT 1900 (foo)").getQualifier());
+        assertEquals(Qualifier.BEFORE, dp.parseRange("BEF 1900").getQualifier());
+        assertEquals(Qualifier.AFTER, dp.parseRange("AFT 1900").getQualifier());
+        assertEquals(Qualifier.FROM, dp.parseRange("FROM 1900").getQualifier());
+        assertEquals(Qualifier.TO, dp.parseRange("TO 1900").getQualifier());
+        assertEquals(Qualifier.BETWEEN, dp.parseRange("BET 1900 AND 1910").getQualifier());
+        assertEquals(Qualifier.FROM_TO, dp.parseRange("FROM 1900 TO 1910").getQualifier());
+    }
+
+    /**
+     * Test that ranges can be serialized and deserialized
+     * 
+     * @throws IOException
+     *             if the range can't be written or read
+     * @throws ClassNotFoundException
+     *             if the range's class can't be found when reading it back
+     */
+    @Test
+    public void testSerialization() throws IOException, ClassNotFoundException {
+        DateRange r = dp.parseRange("BET 1900 AND 1910");
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(r);
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            assertEquals(r, in.readObject());
+        }
+    }
+}
@@ -31,6 +31,7 @@ import static org.junit.Assert.assertEquals;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.AfterClass;
 import org.junit.BeforeClass;
@@ -113,6 +114,29 @@ public class FrenchRepublicanCalendarParserTest {
                 classUnderTest.convertFrenchRepublicanDateToGregorian(8, "BRUM", 18));
     }
 
+    /**
+     * Test {@link FrenchRepublicanCalendarParser#getEpochDay(int, FrenchRepublicanMonth, int)}, including invalid dates and years
+     * past the end of the table of years
+     */
+    @Test
+    public void testGetEpochDay() {
+        assertEquals(getEpochDay(1792, Calendar.SEPTEMBER, 22), classUnderTest.getEpochDay(1, FrenchRepublicanMonth.VENDEMIAIRE,
+                1));
+        assertEquals(getEpochDay(1799, Calendar.NOVEMBER, 9), classUnderTest.getEpochDay(8, FrenchRepublicanMonth.BRUMAIRE, 18));
+
+        assertEquals(Long.MIN_VALUE, classUnderTest.getEpochDay(0, FrenchRepublicanMonth.VENDEMIAIRE, 1));
+        assertEquals(Long.MIN_VALUE, classUnderTest.getEpochDay(1, FrenchRepublicanMonth.VENDEMIAIRE, 0));
+        assertEquals(Long.MIN_VALUE, classUnderTest.getEpochDay(1, FrenchRepublicanMonth.VENDEMIAIRE, 31));
+        assertEquals(Long.MIN_VALUE, classUnderTest.getEpochDay(1, FrenchRepublicanMonth.JOUR_COMPLEMENTAIRS, 7));
+
+        for (int y = FrenchRepublicanCalendarParser.LAST_TABULATED_YEAR - 2; y < FrenchRepublicanCalendarParser.LAST_TABULATED_YEAR
+                + 2; y++) {
+            long lengthOfYear = FrenchRepublicanCalendarParser.isFrenchLeapYearRomme(y) ? 366 : 365;
+            assertEquals(classUnderTest.getEpochDay(y, FrenchRepublicanMonth.VENDEMIAIRE, 1) + lengthOfYear, classUnderTest
+                    .getEpochDay(y + 1, FrenchRepublicanMonth.VENDEMIAIRE, 1));
+        }
+    }
+
     /**
      * Helper method to get a gregorian date based on year, month, and day
      * 
@@ -131,4 +155,19 @@ public class FrenchRepublicanCalendarParserTest {
         return c.getTime();
     }
 
+    /**
+     * Helper method to get the epoch day of a gregorian date based on year, month, and day
+     * 
+     * @param y
+     *            gregorian year
+     * @param m
+     *            gregorian month
+     * @param d
+     *            day
+     * @return the number of days since 1 Jan 1970
+     */
+    private long getEpochDay(int y, int m, int d) {
+        return TimeUnit.MILLISECONDS.toDays(getDate(y, m, d).getTime());
+    }
+
 }
@@ -0,0 +1,325 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.parser;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+
+import org.gedcom4j.exception.GedcomParserException;
+import org.gedcom4j.model.Gedcom;
+import org.gedcom4j.model.HasXref;
+import org.gedcom4j.model.Individual;
+import org.gedcom4j.model.IndividualEvent;
+import org.gedcom4j.model.ModelElement;
+import org.gedcom4j.model.enumerations.IndividualEventType;
+import org.gedcom4j.query.Soundex;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Test for {@link GedcomIndex}
+ * 
+ * @author frizbog
+ */
+public class GedcomIndexTest {
+
+    /**
+     * Folder for the files written by the tests, which is deleted after each test
+     */
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    /**
+     * Test that appending records to the end of a file only scans the end of the file again, and gives the same index as
+     * building it from scratch
+     * 
+     * @throws GedcomParserException
+     *             if the file can't be parsed
+     * @throws IOException
+     *             if the file can't be read
+     */
+    @Test
+    public void testAppend() throws IOException, GedcomParserException {
+        String fileName = copy("sample/willis.ged");
+        long trailerOffset;
+        try (GedcomIndex index = new GedcomIndex(fileName)) {
+            List<GedcomIndex.Entry> entries = index.getEntries();
+            trailerOffset = entries.get(entries.size() - 1).getOffset();
+            assertEquals("TRLR", entries.get(entries.size() - 1).getTag());
+            assertNull(index.getEntry("@NEW1@"));
+        }
+
+        byte[] original = Files.readAllBytes(new File(fileName).toPath());
+        byte[] added = "0 @NEW1@ INDI\r\n1 NAME Zebulon /Appended/\r\n1 BIRT\r\n2 DATE 12 MAR 1901\r\n0 TRLR\r\n".getBytes(
+                StandardCharsets.US_ASCII);
+        byte[] changed = Arrays.copyOf(original, (int) trailerOffset + added.length);
+        System.arraycopy(added, 0, changed, (int) trailerOffset, added.length);
+        Files.write(new File(fileName).toPath(), changed);
+
+        try (GedcomIndex index = new GedcomIndex(fileName)) {
+            assertEquals(added.length, index.getBytesScanned());
+            GedcomIndex.Entry e = index.getEntry("@NEW1@");
+            assertNotNull(e);
+            assertEquals(trailerOffset, e.getOffset());
+            Individual i = (Individual) index.getRecord("@NEW1@");
+            assertEquals("Zebulon /Appended/", i.getNames().get(0).getBasic());
+            assertTrue(index.findBySurname("Appended").contains(e));
+            assertTrue(index.findByBirthYear(1901).contains(e));
+            assertSameEntries(index, fileName);
+        }
+    }
+
+    /**
+     * Test that changing the file before its last record rebuilds the whole index
+     * 
+     * @throws GedcomParserException
+     *             if the file can't be parsed
+     * @throws IOException
+     *             if the file can't be read
+     */
+    @Test
+    public void testChangedPrefix() throws IOException, GedcomParserException {
+        String fileName = copy("sample/willis.ged");
+        new GedcomIndex(fileName).close();
+
+        String content = new String(Files.readAllBytes(new File(fileName).toPath()), StandardCharsets.ISO_8859_1);
+        assertTrue(content.contains("1 NAME Ella /Willis/"));
+        content = content.replace("1 NAME Ella /Willis/", "1 NAME Ella /Wyllys/");
+        Files.write(new File(fileName).toPath(), content.getBytes(StandardCharsets.ISO_8859_1));
+
+        try (GedcomIndex index = new GedcomIndex(fileName)) {
+            assertEquals(new File(fileName).length(), index.getBytesScanned());
+            assertSameEntries(index, fileName);
+        }
+    }
+
+    /**
+     * Test that each record parsed from the index is the same as the one a {@link GedcomRecordReader} reads, in each encoding
+     * 
+     * @throws GedcomParserException
+     *             if the file can't be parsed
+     * @throws IOException
+     *             if the file can't be read
+     */
+    @Test
+    public void testRecords() throws IOException, GedcomParserException {
+        assertSameAsRecordReader("sample/willis.ged");
+        assertSameAsRecordReader("sample/willis-unicode-bigendian.ged");
+        assertSameAsRecordReader("sample/willis-unicode-littleendian.ged");
+        assertSameAsRecordReader("sample/ANSEL.GED");
+        assertSameAsRecordReader("sample/5.5.1 sample 3.ged");
+    }
+
+    /**
+     * Test that an index that is up to date is used as it is, without scanning the file again
+     * 
+     * @throws GedcomParserException
+     *             if the file can't be parsed
+     * @throws IOException
+     *             if the file can't be read
+     */
+    @Test
+    public void testReopen() throws IOException, GedcomParserException {
+        String fileName = copy("sample/willis.ged");
+        List<GedcomIndex.Entry> entries;
+        try (GedcomIndex index = new GedcomIndex(fileName)) {
+            assertEquals(new File(fileName).length(), index.getBytesScanned());
+            entries = index.getEntries();
+        }
+        try (GedcomIndex index = new GedcomIndex(fileName)) {
+            assertEquals(0, index.getBytesScanned());
+            assertEquals(entries.size(), index.getEntries().size());
+            for (int n = 0; n < entries.size(); n++) {
+                assertSameEntry(entries.get(n), index.getEntries().get(n));
+            }
+            assertEquals("@I5169@", ((Individual) index.getRecord("@I5169@")).getXref());
+            assertNull(index.getRecord("@I99999@"));
+        }
+
+        // An index file that isn't one is rebuilt
+        Files.write(new File(fileName + GedcomIndex.INDEX_FILE_EXTENSION).toPath(), "junk".getBytes(StandardCharsets.US_ASCII));
+        try (GedcomIndex index = new GedcomIndex(fileName)) {
+            assertEquals(new File(fileName).length(), index.getBytesScanned());
+            assertEquals(entries.size(), index.getEntries().size());
+        }
+    }
+
+    /**
+     * Test the secondary keys - the soundex code of each individual's surname and their year of birth
+     * 
+     * @throws GedcomParserException
+     *             if the file can't be parsed
+     * @throws IOException
+     *             if the file can't be read
+     */
+    @Test
+    public void testSecondaryKeys() throws IOException, GedcomParserException {
+        String fileName = copy("sample/willis.ged");
+        GedcomParser gp = new GedcomParser();
+        gp.load(fileName);
+        Gedcom g = gp.getGedcom();
+        try (GedcomIndex index = new GedcomIndex(fileName)) {
+            int withSurname = 0;
+            int withBirthYear = 0;
+            for (Individual i : g.getIndividuals().values()) {
+                GedcomIndex.Entry e = index.getEntry(i.getXref());
+                String surname = i.getNames() == null ? null : surname(i.getNames().get(0).getBasic());
+                if (surname != null && Soundex.soundex(surname) != null) {
+                    assertEquals(Soundex.soundex(surname), e.getSurnameSoundex());
+                    assertTrue(index.findBySurname(surname).contains(e));
+                    withSurname++;
+                }
+                List<IndividualEvent> births = i.getEventsOfType(IndividualEventType.BIRTH);
+                if (births.isEmpty() || births.get(0).getDate() == null) {
+                    assertNull(e.getBirthYear());
+                } else if (e.getBirthYear() != null) {
+                    assertTrue(births.get(0).getDate().getValue().contains(String.valueOf(e.getBirthYear())));
+                    assertTrue(index.findByBirthYear(e.getBirthYear()).contains(e));
+                    withBirthYear++;
+                }
+            }
+            assertTrue(withSurname > 700);
+            assertTrue(withBirthYear > 100);
+            assertTrue(index.findBySurname("Wyllys").containsAll(index.findBySurname("Willis")));
+            assertFalse(index.findBySurname("Willis").isEmpty());
+            assertTrue(index.findByBirthYear(-5000).isEmpty());
+            assertTrue(index.findBySurname("").isEmpty());
+        }
+    }
+
+    /**
+     * Assert that each record with an xref parsed from the index of a file is the same as the one read by a
+     * {@link GedcomRecordReader}
+     * 
+     * @param sampleFileName
+     *            the name of the sample file
+     * @throws GedcomParserException
+     *             if the file can't be parsed
+     * @throws IOException
+     *             if the file can't be read
+     */
+    private void assertSameAsRecordReader(String sampleFileName) throws IOException, GedcomParserException {
+        String fileName = copy(sampleFileName);
+        int count = 0;
+        try (GedcomIndex index = new GedcomIndex(fileName); GedcomRecordReader reader = new GedcomRecordReader(fileName)) {
+            assertEquals(sampleFileName, new File(fileName).length(), index.getBytesScanned());
+            for (ModelElement expected = reader.nextRecord(); expected != null; expected = reader.nextRecord()) {
+                count++;
+                if (expected instanceof HasXref && ((HasXref) expected).getXref() != null) {
+                    assertEquals(sampleFileName, expected, index.getRecord(((HasXref) expected).getXref()));
+                }
+            }
+            assertEquals(sampleFileName, count, index.getEntries().size());
+            assertEquals(sampleFileName, reader.getParser().getGedcom().getHeader(), index.getParser().getGedcom().getHeader());
+        }
+    }
+
+    /**
+     * Assert that an index has the same entries as an index of the same file built from scratch
+     * 
+     * @param index
+     *            the index
+     * @param fileName
+     *            the name of the file
+     * @throws GedcomParserException
+     *             if the file can't be parsed
+     * @throws IOException
+     *             if the file can't be read
+     */
+    private void assertSameEntries(GedcomIndex index, String fileName) throws IOException, GedcomParserException {
+        File fresh = new File(fileName + ".fresh.idx");
+        Files.deleteIfExists(fresh.toPath());
+        try (GedcomIndex expected = new GedcomIndex(new GedcomParser(), fileName, fresh.getPath())) {
+            assertEquals(expected.getEntries().size(), index.getEntries().size());
+            for (int n = 0; n < expected.getEntries().size(); n++) {
+                assertSameEntry(expected.getEntries().get(n), index.getEntries().get(n));
+            }
+        }
+    }
+
+    /**
+     * Assert that two entries are the same
+     * 
+     * @param expected
+     *            the expected entry
+     * @param actual
+     *            the actual entry
+     */
+    private void assertSameEntry(GedcomIndex.Entry expected, GedcomIndex.Entry actual) {
+        String s = expected.toString();
+        assertEquals(s, expected.getXref(), actual.getXref());
+        assertEquals(s, expected.getTag(), actual.getTag());
+        assertEquals(s, expected.getOffset(), actual.getOffset());
+        assertEquals(s, expected.getLength(), actual.getLength());
+        assertEquals(s, expected.getLineNum(), actual.getLineNum());
+        assertEquals(s, expected.getHash(), actual.getHash());
+        assertEquals(s, expected.getSurnameSoundex(), actual.getSurnameSoundex());
+        assertEquals(s, expected.getBirthYear(), actual.getBirthYear());
+    }
+
+    /**
+     * Get the surname out of a name, between the slashes
+     * 
+     * @param name
+     *            the name
+     * @return the surname, or null if there isn't one
+     */
+    private String surname(String name) {
+        int start = name.indexOf('/');
+        if (start < 0) {
+            return null;
+        }
+        int end = name.indexOf('/', start + 1);
+        return name.substring(start + 1, end < 0 ? name.length() : end);
+    }
+
+    /**
+     * Copy a sample file to the temporary folder, so the index file isn't written in the sample folder
+     * 
+     * @param sampleFileName
+     *            the name of the sample file
+     * @return the name of the copy
+     * @throws IOException
+     *             if the file can't be copied
+     */
+    private String copy(String sampleFileName) throws IOException {
+        File copy = new File(tempFolder.getRoot(), new File(sampleFileName).getName());
+        Files.copy(new File(sampleFileName).toPath(), copy.toPath());
+        return copy.getPath();
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.parser;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+import org.gedcom4j.exception.GedcomParserException;
+import org.gedcom4j.model.Gedcom;
+import org.junit.Test;
+
+/**
+ * Test that loading files memory-mapped, through a channel, and through a stream all produce the same results
+ * 
+ * @author frizbog
+ */
+public class GedcomParserMemoryMappedTest {
+
+    /**
+     * Test with files in all the supported encodings
+     * 
+     * @throws GedcomParserException
+     *             if a file can't be parsed
+     * @throws IOException
+     *             if a file can't be read
+     */
+    @Test
+    public void testAllEncodings() throws IOException, GedcomParserException {
+        assertSameResults("sample/willis.ged");
+        assertSameResults("sample/willis-ansel.ged");
+        assertSameResults("sample/willis-ascii.ged");
+        assertSameResults("sample/willis-unicode-bigendian.ged");
+        assertSameResults("sample/willis-unicode-littleendian.ged");
+        assertSameResults("sample/utf8_crlf_bom.ged");
+        assertSameResults("sample/utf8_cr_nobom.ged");
+    }
+
+    /**
+     * Load the file in each of the three ways and assert that the results are equal
+     * 
+     * @param filename
+     *            the name of the file to load
+     * @throws GedcomParserException
+     *             if the file can't be parsed
+     * @throws IOException
+     *             if the file can't be read
+     */
+    private void assertSameResults(String filename) throws IOException, GedcomParserException {
+        GedcomParser gp = new GedcomParser();
+        gp.load(filename);
+        Gedcom streamed = gp.getGedcom();
+        assertTrue(filename, streamed.getIndividuals().size() + streamed.getSubmitters().size() > 0);
+
+        gp = new GedcomParser();
+        gp.setUseMemoryMappedFiles(true);
+        gp.load(filename);
+        assertEquals(filename, streamed, gp.getGedcom());
+
+        gp = new GedcomParser();
+        try (FileChannel fc = FileChannel.open(Paths.get(filename), StandardOpenOption.READ)) {
+            gp.load(fc);
+        }
+        assertEquals(filename, streamed, gp.getGedcom());
+    }
+}
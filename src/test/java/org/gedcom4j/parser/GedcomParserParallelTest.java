@@ -0,0 +1,183 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.parser;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.gedcom4j.exception.GedcomParserException;
+import org.gedcom4j.model.Gedcom;
+import org.junit.Test;
+
+/**
+ * Test that parsing root-level records on worker threads produces the same results as parsing them on the loading thread
+ * 
+ * @author frizbog
+ */
+public class GedcomParserParallelTest {
+
+    /**
+     * Test that every sample file loads the same way with and without worker threads, including the errors and warnings
+     * 
+     * @throws GedcomParserException
+     *             if a file can't be parsed
+     * @throws IOException
+     *             if a file can't be read
+     */
+    @Test
+    public void testAllSampleFiles() throws IOException, GedcomParserException {
+        File[] files = new File("sample").listFiles(new FilenameFilter() {
+            @Override
+            public boolean accept(File dir, String name) {
+                return name.toLowerCase().endsWith(".ged");
+            }
+        });
+        assertNotNull(files);
+        Arrays.sort(files);
+        for (File f : files) {
+            assertSameResults(f.getPath(), true);
+            assertSameResults(f.getPath(), false);
+        }
+    }
+
+    /**
+     * Test a file with enough records to fill the queue to the worker threads, with warnings issued by many of them, and with
+     * records repeated so their data is loaded into the same objects
+     * 
+     * @throws GedcomParserException
+     *             if the data can't be parsed
+     * @throws IOException
+     *             if the data can't be read
+     */
+    @Test
+    public void testManyRecords() throws IOException, GedcomParserException {
+        StringBuilder sb = new StringBuilder();
+        sb.append("0 HEAD\n1 SOUR test\n1 SUBM @SUBM1@\n1 GEDC\n2 VERS 5.5\n2 FORM LINEAGE-LINKED\n1 CHAR ANSI\n");
+        sb.append("0 @SUBM1@ SUBM\n1 NAME Submitter\n");
+        for (int i = 0; i < 3000; i++) {
+            sb.append("0 @I").append(i).append("@ INDI\n1 NAME Person /").append(i).append("/\n");
+            if (i % 3 == 0) {
+                sb.append("1 EMAIL person").append(i).append("@example.com\n");
+            }
+            if (i % 7 == 0) {
+                sb.append("1 FAMS @F").append(i).append("@\n");
+                sb.append("0 @F").append(i).append("@ FAM\n1 HUSB @I").append(i).append("@\n1 CHIL @I").append(i + 1).append("@\n");
+            }
+            if (i % 11 == 0) {
+                sb.append("0 @I").append(i / 2).append("@ INDI\n1 SEX M\n1 FOO bar\n");
+            }
+            if (i % 13 == 0) {
+                sb.append("0 _CUSTOM ").append(i).append('\n');
+            }
+        }
+        sb.append("0 TRLR\n");
+        byte[] data = sb.toString().getBytes(StandardCharsets.US_ASCII);
+
+        GedcomParser sequential = new GedcomParser();
+        sequential.load(new BufferedInputStream(new ByteArrayInputStream(data)));
+        assertFalse(sequential.getWarnings().isEmpty());
+        assertFalse(sequential.getErrors().isEmpty());
+
+        GedcomParser parallel = new GedcomParser();
+        parallel.setParserThreads(4);
+        parallel.load(new BufferedInputStream(new ByteArrayInputStream(data)));
+        assertEquals(sequential.getGedcom(), parallel.getGedcom());
+        assertEquals(sequential.getErrors(), parallel.getErrors());
+        assertEquals(sequential.getWarnings(), parallel.getWarnings());
+        assertEquals(3000, parallel.getGedcom().getIndividuals().size());
+    }
+
+    /**
+     * Test that the number of parser threads must be positive
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testParserThreadsMustBePositive() {
+        new GedcomParser().setParserThreads(0);
+    }
+
+    /**
+     * Load the file with and without worker threads and assert that the results are equal
+     * 
+     * @param filename
+     *            the name of the file to load
+     * @param strictCustomTags
+     *            whether to be strict about custom tags
+     * @throws GedcomParserException
+     *             if the file can't be parsed
+     * @throws IOException
+     *             if the file can't be read
+     */
+    private void assertSameResults(String filename, boolean strictCustomTags) throws IOException, GedcomParserException {
+        GedcomParser sequential = new GedcomParser();
+        sequential.setStrictCustomTags(strictCustomTags);
+        String sequentialFailure = load(sequential, filename);
+
+        for (int threads = 2; threads <= 4; threads += 2) {
+            GedcomParser parallel = new GedcomParser();
+            parallel.setStrictCustomTags(strictCustomTags);
+            parallel.setParserThreads(threads);
+            assertEquals(filename, sequentialFailure, load(parallel, filename));
+            if (sequentialFailure == null) {
+                assertEquals(filename, sequential.getGedcom(), parallel.getGedcom());
+                assertEquals(filename, sequential.getErrors(), parallel.getErrors());
+                assertEquals(filename, sequential.getWarnings(), parallel.getWarnings());
+            }
+        }
+    }
+
+    /**
+     * Load a file
+     * 
+     * @param gp
+     *            the parser to load with
+     * @param filename
+     *            the name of the file to load
+     * @return null if the file loaded, or a description of the exception if it could not be parsed
+     * @throws IOException
+     *             if the file can't be read
+     */
+    private String load(GedcomParser gp, String filename) throws IOException {
+        try {
+            gp.load(filename);
+            Gedcom g = gp.getGedcom();
+            assertTrue(filename, g.getHeader() != null || g.getIndividuals().isEmpty());
+            return null;
+        } catch (GedcomParserException e) {
+            return e.getClass().getName() + ": " + e.getMessage();
+        }
+    }
+}
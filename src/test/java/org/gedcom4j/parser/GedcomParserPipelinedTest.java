@@ -0,0 +1,250 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.parser;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.gedcom4j.exception.GedcomParserException;
+import org.gedcom4j.exception.ParserCancelledException;
+import org.gedcom4j.io.event.FileProgressEvent;
+import org.gedcom4j.io.event.FileProgressListener;
+import org.gedcom4j.parser.event.ParseProgressEvent;
+import org.gedcom4j.parser.event.ParseProgressListener;
+import org.junit.Test;
+
+/**
+ * Test that loading with the lines read and decoded on a separate thread produces the same results as loading on a single thread
+ * 
+ * @author frizbog
+ */
+public class GedcomParserPipelinedTest {
+
+    /**
+     * Counts the file progress notifications received. Notifications arrive on the reading thread.
+     */
+    private static class FileProgressCounter implements FileProgressListener {
+        /** The number of notifications received */
+        private final AtomicInteger notifications = new AtomicInteger();
+
+        /** The number of notifications that said the file was completely read */
+        private final AtomicInteger completions = new AtomicInteger();
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void progressNotification(FileProgressEvent e) {
+            notifications.incrementAndGet();
+            if (e.isComplete()) {
+                completions.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Test that every sample file loads the same way with and without pipelining, including the errors and warnings
+     * 
+     * @throws GedcomParserException
+     *             if a file can't be parsed
+     * @throws IOException
+     *             if a file can't be read
+     */
+    @Test
+    public void testAllSampleFiles() throws IOException, GedcomParserException {
+        File[] files = new File("sample").listFiles(new FilenameFilter() {
+            @Override
+            public boolean accept(File dir, String name) {
+                return name.toLowerCase().endsWith(".ged");
+            }
+        });
+        assertNotNull(files);
+        Arrays.sort(files);
+        for (File f : files) {
+            GedcomParser sequential = new GedcomParser();
+            String sequentialFailure = load(sequential, f.getPath());
+            for (int threads = 1; threads <= 2; threads++) {
+                GedcomParser pipelined = new GedcomParser();
+                pipelined.setPipelinedLoading(true);
+                pipelined.setParserThreads(threads);
+                assertEquals(f.getPath(), sequentialFailure, load(pipelined, f.getPath()));
+                if (sequentialFailure == null) {
+                    assertEquals(f.getPath(), sequential.getGedcom(), pipelined.getGedcom());
+                    assertEquals(f.getPath(), sequential.getErrors(), pipelined.getErrors());
+                    assertEquals(f.getPath(), sequential.getWarnings(), pipelined.getWarnings());
+                }
+            }
+        }
+    }
+
+    /**
+     * Test that cancelling from a parse progress listener stops a pipelined load
+     * 
+     * @throws GedcomParserException
+     *             if the data can't be parsed
+     * @throws IOException
+     *             if the data can't be read
+     */
+    @Test(expected = ParserCancelledException.class)
+    public void testCancellation() throws IOException, GedcomParserException {
+        final GedcomParser gp = new GedcomParser();
+        gp.setPipelinedLoading(true);
+        ParseProgressListener canceller = new ParseProgressListener() {
+            @Override
+            public void progressNotification(ParseProgressEvent e) {
+                gp.cancel();
+            }
+        };
+        gp.registerParseObserver(canceller);
+        gp.load("sample/willis-ascii.ged");
+    }
+
+    /**
+     * Test that an exception reading the data on the reading thread is thrown from the load
+     * 
+     * @throws GedcomParserException
+     *             if the data can't be parsed
+     * @throws IOException
+     *             if the sample file can't be read
+     */
+    @Test
+    public void testReadFailure() throws IOException, GedcomParserException {
+        final byte[] data = Files.readAllBytes(Paths.get("sample/willis.ged"));
+        InputStream failing = new InputStream() {
+            private int pos;
+
+            @Override
+            public int read() throws IOException {
+                if (pos >= data.length / 2) {
+                    throw new IOException("Simulated read failure");
+                }
+                return data[pos++] & 0xFF;
+            }
+        };
+        GedcomParser gp = new GedcomParser();
+        gp.setPipelinedLoading(true);
+        try {
+            gp.load(new BufferedInputStream(failing));
+            fail("Expected an IOException");
+        } catch (IOException e) {
+            assertEquals("Simulated read failure", e.getMessage());
+        }
+    }
+
+    /**
+     * Test that the file and parse progress notifications are the same with and without pipelining
+     * 
+     * @throws GedcomParserException
+     *             if the data can't be parsed
+     * @throws IOException
+     *             if the data can't be read
+     */
+    @Test
+    public void testProgressNotifications() throws IOException, GedcomParserException {
+        StringBuilder sb = new StringBuilder("0 HEAD\n1 CHAR ANSI\n");
+        for (int i = 0; i < 2000; i++) {
+            sb.append("0 @I").append(i).append("@ INDI\n1 NAME Person /").append(i).append("/\n1 SEX F\n");
+        }
+        sb.append("0 TRLR\n");
+        byte[] data = sb.toString().getBytes(StandardCharsets.US_ASCII);
+
+        int[] sequential = countNotifications(data, false);
+        int[] pipelined = countNotifications(data, true);
+        assertTrue(sequential[0] > 1);
+        assertEquals(1, pipelined[1]);
+        assertTrue(sequential[2] > 1);
+        assertEquals(Arrays.toString(sequential), Arrays.toString(pipelined));
+    }
+
+    /**
+     * Load some data and count the notifications
+     * 
+     * @param data
+     *            the data to load
+     * @param pipelinedLoading
+     *            whether to pipeline the load
+     * @return the number of file progress notifications, the number of those that said the file was complete, and the number of
+     *         parse progress notifications
+     * @throws GedcomParserException
+     *             if the data can't be parsed
+     * @throws IOException
+     *             if the data can't be read
+     */
+    private int[] countNotifications(byte[] data, boolean pipelinedLoading) throws IOException, GedcomParserException {
+        GedcomParser gp = new GedcomParser();
+        gp.setPipelinedLoading(pipelinedLoading);
+        gp.setReadNotificationRate(100);
+        gp.setParseNotificationRate(100);
+        FileProgressCounter fileProgress = new FileProgressCounter();
+        final AtomicInteger parseNotifications = new AtomicInteger();
+        ParseProgressListener parseProgress = new ParseProgressListener() {
+            @Override
+            public void progressNotification(ParseProgressEvent e) {
+                parseNotifications.incrementAndGet();
+            }
+        };
+        gp.registerFileObserver(fileProgress);
+        gp.registerParseObserver(parseProgress);
+        gp.load(new BufferedInputStream(new ByteArrayInputStream(data)));
+        assertEquals(2000, gp.getGedcom().getIndividuals().size());
+        return new int[] { fileProgress.notifications.get(), fileProgress.completions.get(), parseNotifications.get() };
+    }
+
+    /**
+     * Load a file
+     * 
+     * @param gp
+     *            the parser to load with
+     * @param filename
+     *            the name of the file to load
+     * @return null if the file loaded, or a description of the exception if it could not be parsed
+     * @throws IOException
+     *             if the file can't be read
+     */
+    private String load(GedcomParser gp, String filename) throws IOException {
+        try {
+            gp.load(filename);
+            return null;
+        } catch (GedcomParserException e) {
+            return e.getClass().getName() + ": " + e.getMessage();
+        }
+    }
+}
@@ -0,0 +1,236 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.parser;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.gedcom4j.exception.GedcomParserException;
+import org.gedcom4j.model.CustomFact;
+import org.gedcom4j.model.Family;
+import org.gedcom4j.model.Gedcom;
+import org.gedcom4j.model.HasXref;
+import org.gedcom4j.model.Header;
+import org.gedcom4j.model.Individual;
+import org.gedcom4j.model.ModelElement;
+import org.gedcom4j.model.Trailer;
+import org.junit.Test;
+
+/**
+ * Test for loading in streaming mode, where each root-level record is handed to a {@link RecordHandler} rather than kept in the
+ * {@link Gedcom}
+ * 
+ * @author frizbog
+ */
+public class GedcomParserStreamingTest {
+
+    /**
+     * A small file with cross-references and a root-level custom tag
+     */
+    private static final String SMALL_FILE = "0 HEAD\n1 SOUR test\n1 GEDC\n2 VERS 5.5.1\n2 FORM LINEAGE-LINKED\n1 CHAR ANSI\n"
+            + "0 @I1@ INDI\n1 NAME John /Doe/\n1 FAMS @F1@\n" + "0 @I2@ INDI\n1 NAME Jane /Roe/\n1 FAMS @F1@\n"
+            + "0 @F1@ FAM\n1 HUSB @I1@\n1 WIFE @I2@\n" + "0 _CUSTOM Something\n" + "0 TRLR\n";
+
+    /**
+     * A handler that keeps all the records it is handed, in order
+     */
+    private static class CollectingHandler implements RecordHandler {
+        /**
+         * The records handed over
+         */
+        private final List<ModelElement> records = new ArrayList<>();
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void handleRecord(ModelElement record) {
+            records.add(record);
+        }
+
+        /**
+         * Get a description of each record handed over - its type and xref
+         * 
+         * @return a description of each record handed over
+         */
+        List<String> describe() {
+            List<String> result = new ArrayList<>();
+            for (ModelElement r : records) {
+                result.add(r.getClass().getSimpleName() + (r instanceof HasXref ? " " + ((HasXref) r).getXref() : ""));
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Test that every record in a sample file is handed over, with the same data as when loading normally, and that none of them
+     * are kept
+     * 
+     * @throws GedcomParserException
+     *             if the file can't be parsed
+     * @throws IOException
+     *             if the file can't be read
+     */
+    @Test
+    public void testSampleFile() throws IOException, GedcomParserException {
+        GedcomParser normal = new GedcomParser();
+        normal.load("sample/willis.ged");
+
+        GedcomParser streaming = new GedcomParser();
+        CollectingHandler handler = new CollectingHandler();
+        streaming.setRecordHandler(handler);
+        streaming.load("sample/willis.ged");
+
+        Gedcom g = streaming.getGedcom();
+        assertTrue(g.getIndividuals().isEmpty());
+        assertTrue(g.getFamilies().isEmpty());
+        assertTrue(g.getSources().isEmpty());
+        assertTrue(g.getNotes().isEmpty());
+        assertTrue(g.getSubmitters().isEmpty());
+        assertSame(g.getHeader(), handler.records.get(0));
+        assertSame(g.getTrailer(), handler.records.get(handler.records.size() - 1));
+        assertEquals(normal.getErrors(), streaming.getErrors());
+        assertEquals(normal.getWarnings(), streaming.getWarnings());
+
+        int individuals = 0;
+        int families = 0;
+        for (ModelElement r : handler.records) {
+            if (r instanceof Individual) {
+                Individual i = (Individual) r;
+                Individual expected = normal.getGedcom().getIndividuals().get(i.getXref());
+                // Citations refer to placeholder sources, so only compare what doesn't refer to other records
+                assertEquals(expected.getNames().get(0).getBasic(), i.getNames().get(0).getBasic());
+                assertEquals(expected.getEvents() == null, i.getEvents() == null);
+                individuals++;
+            } else if (r instanceof Family) {
+                Family f = (Family) r;
+                Family expected = normal.getGedcom().getFamilies().get(f.getXref());
+                assertEquals(expected.getEvents() == null, f.getEvents() == null);
+                if (expected.getHusband() != null) {
+                    assertEquals(expected.getHusband().getIndividual().getXref(), f.getHusband().getIndividual().getXref());
+                }
+                families++;
+            }
+        }
+        assertEquals(normal.getGedcom().getIndividuals().size(), individuals);
+        assertEquals(normal.getGedcom().getFamilies().size(), families);
+    }
+
+    /**
+     * Test that references to other records are placeholders with just the xref set, and that root-level custom tags are handed
+     * over and not kept
+     * 
+     * @throws GedcomParserException
+     *             if the data can't be parsed
+     * @throws IOException
+     *             if the data can't be read
+     */
+    @Test
+    public void testReferencesAndCustomTags() throws IOException, GedcomParserException {
+        GedcomParser gp = new GedcomParser();
+        CollectingHandler handler = new CollectingHandler();
+        gp.setRecordHandler(handler);
+        gp.load(new BufferedInputStream(new ByteArrayInputStream(SMALL_FILE.getBytes(StandardCharsets.US_ASCII))));
+
+        assertEquals("[Header, Individual @I1@, Individual @I2@, Family @F1@, CustomFact null, Trailer]", handler.describe()
+                .toString());
+        assertTrue(handler.records.get(0) instanceof Header);
+        assertTrue(handler.records.get(5) instanceof Trailer);
+
+        Family f = (Family) handler.records.get(3);
+        Individual husband = f.getHusband().getIndividual();
+        assertEquals("@I1@", husband.getXref());
+        assertNull(husband.getNames());
+        assertEquals("@I2@", f.getWife().getIndividual().getXref());
+
+        Individual john = (Individual) handler.records.get(1);
+        assertEquals("John /Doe/", john.getNames().get(0).getBasic());
+        assertEquals("@F1@", john.getFamiliesWhereSpouse().get(0).getFamily().getXref());
+        assertNull(john.getFamiliesWhereSpouse().get(0).getFamily().getHusband());
+
+        CustomFact cf = (CustomFact) handler.records.get(4);
+        assertEquals("_CUSTOM", cf.getTag());
+        assertEquals("Something", cf.getDescription().getValue());
+        assertTrue(gp.getGedcom().getCustomFacts() == null || gp.getGedcom().getCustomFacts().isEmpty());
+        assertTrue(gp.getGedcom().getIndividuals().isEmpty());
+        assertTrue(gp.getGedcom().getFamilies().isEmpty());
+    }
+
+    /**
+     * Test that records are handed over in file order when they are parsed on worker threads
+     * 
+     * @throws GedcomParserException
+     *             if the data can't be parsed
+     * @throws IOException
+     *             if the data can't be read
+     */
+    @Test
+    public void testWorkerThreads() throws IOException, GedcomParserException {
+        StringBuilder sb = new StringBuilder();
+        sb.append("0 HEAD\n1 SOUR test\n1 GEDC\n2 VERS 5.5.1\n2 FORM LINEAGE-LINKED\n1 CHAR ANSI\n");
+        for (int i = 0; i < 2000; i++) {
+            sb.append("0 @I").append(i).append("@ INDI\n1 NAME Person /").append(i).append("/\n");
+            if (i % 7 == 0) {
+                sb.append("0 @F").append(i).append("@ FAM\n1 HUSB @I").append(i).append("@\n");
+            }
+            if (i % 100 == 0) {
+                // Same xref again - not merged when streaming
+                sb.append("0 @I").append(i).append("@ INDI\n1 SEX M\n");
+            }
+            if (i % 13 == 0) {
+                sb.append("0 _CUSTOM ").append(i).append('\n');
+            }
+        }
+        sb.append("0 TRLR\n");
+        byte[] data = sb.toString().getBytes(StandardCharsets.US_ASCII);
+
+        GedcomParser sequential = new GedcomParser();
+        CollectingHandler sequentialHandler = new CollectingHandler();
+        sequential.setRecordHandler(sequentialHandler);
+        sequential.load(new BufferedInputStream(new ByteArrayInputStream(data)));
+
+        GedcomParser parallel = new GedcomParser();
+        CollectingHandler parallelHandler = new CollectingHandler();
+        parallel.setRecordHandler(parallelHandler);
+        parallel.setParserThreads(4);
+        parallel.load(new BufferedInputStream(new ByteArrayInputStream(data)));
+
+        assertEquals(2000 + 286 + 20 + 154 + 2, sequentialHandler.records.size());
+        assertEquals(sequentialHandler.describe(), parallelHandler.describe());
+        assertEquals(sequentialHandler.records, parallelHandler.records);
+        assertTrue(parallel.getGedcom().getIndividuals().isEmpty());
+    }
+}
@@ -0,0 +1,252 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.parser;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.gedcom4j.exception.GedcomParserException;
+import org.gedcom4j.exception.ParserCancelledException;
+import org.gedcom4j.model.Family;
+import org.gedcom4j.model.Header;
+import org.gedcom4j.model.Individual;
+import org.gedcom4j.model.ModelElement;
+import org.gedcom4j.model.StringTree;
+import org.gedcom4j.model.Trailer;
+import org.junit.Test;
+
+/**
+ * Test for {@link GedcomRecordReader}
+ * 
+ * @author frizbog
+ */
+public class GedcomRecordReaderTest {
+
+    /**
+     * A small file with cross-references and a root-level custom tag
+     */
+    private static final String SMALL_FILE = "0 HEAD\n1 SOUR test\n1 GEDC\n2 VERS 5.5.1\n2 FORM LINEAGE-LINKED\n1 CHAR ANSI\n"
+            + "0 @I1@ INDI\n1 NAME John /Doe/\n1 FAMS @F1@\n" + "0 @I2@ INDI\n1 NAME Jane /Roe/\n1 FAMS @F1@\n"
+            + "0 @F1@ FAM\n1 HUSB @I1@\n1 WIFE @I2@\n" + "0 _CUSTOM Something\n" + "0 TRLR\n";
+
+    /**
+     * Test cancelling the reader
+     * 
+     * @throws GedcomParserException
+     *             if the data can't be parsed
+     * @throws IOException
+     *             if the data can't be read
+     */
+    @Test
+    public void testCancel() throws IOException, GedcomParserException {
+        try (GedcomRecordReader reader = new GedcomRecordReader(stream(SMALL_FILE))) {
+            assertTrue(reader.nextRecord() instanceof Header);
+            reader.cancel();
+            reader.nextRecord();
+            fail("Expected ParserCancelledException");
+        } catch (ParserCancelledException expected) {
+            assertEquals("File load/parse is cancelled", expected.getMessage());
+        }
+    }
+
+    /**
+     * Test that records can't be read once the reader is closed
+     * 
+     * @throws GedcomParserException
+     *             if the data can't be parsed
+     * @throws IOException
+     *             if the data can't be read
+     */
+    @Test(expected = IOException.class)
+    public void testClosed() throws IOException, GedcomParserException {
+        GedcomRecordReader reader = new GedcomRecordReader(stream(SMALL_FILE));
+        assertTrue(reader.nextRecord() instanceof Header);
+        reader.close();
+        reader.nextRecord();
+    }
+
+    /**
+     * Test reading two files side by side, one record at a time from each
+     * 
+     * @throws GedcomParserException
+     *             if a file can't be parsed
+     * @throws IOException
+     *             if a file can't be read
+     */
+    @Test
+    public void testInterleaved() throws IOException, GedcomParserException {
+        List<String> expected = new ArrayList<>();
+        expected.addAll(readAll("sample/willis.ged"));
+        expected.addAll(readAll("sample/5.5.1 sample 3.ged"));
+
+        List<String> willis = new ArrayList<>();
+        List<String> sample3 = new ArrayList<>();
+        try (GedcomRecordReader a = new GedcomRecordReader("sample/willis.ged"); GedcomRecordReader b = new GedcomRecordReader(
+                "sample/5.5.1 sample 3.ged")) {
+            StringTree sa = a.nextStringTree();
+            StringTree sb = b.nextStringTree();
+            while (sa != null || sb != null) {
+                if (sa != null) {
+                    willis.add(sa.getTag() + " " + sa.getXref());
+                    sa = a.nextStringTree();
+                }
+                if (sb != null) {
+                    sample3.add(sb.getTag() + " " + sb.getXref());
+                    sb = b.nextStringTree();
+                }
+            }
+        }
+        willis.addAll(sample3);
+        assertEquals(expected, willis);
+    }
+
+    /**
+     * Test reading the parsed records from a sample file
+     * 
+     * @throws GedcomParserException
+     *             if the file can't be parsed
+     * @throws IOException
+     *             if the file can't be read
+     */
+    @Test
+    public void testNextRecord() throws IOException, GedcomParserException {
+        GedcomParser normal = new GedcomParser();
+        normal.load("sample/willis.ged");
+
+        List<ModelElement> records = new ArrayList<>();
+        GedcomParser gp;
+        try (GedcomRecordReader reader = new GedcomRecordReader("sample/willis.ged")) {
+            gp = reader.getParser();
+            ModelElement r = reader.nextRecord();
+            while (r != null) {
+                records.add(r);
+                r = reader.nextRecord();
+            }
+            assertNull(reader.nextRecord());
+        }
+
+        assertSame(gp.getGedcom().getHeader(), records.get(0));
+        assertTrue(records.get(records.size() - 1) instanceof Trailer);
+        assertTrue(gp.getGedcom().getIndividuals().isEmpty());
+        assertTrue(gp.getGedcom().getFamilies().isEmpty());
+        assertEquals(normal.getErrors(), gp.getErrors());
+        assertEquals(normal.getWarnings(), gp.getWarnings());
+
+        int individuals = 0;
+        for (ModelElement r : records) {
+            if (r instanceof Individual) {
+                Individual i = (Individual) r;
+                assertEquals(normal.getGedcom().getIndividuals().get(i.getXref()).getNames().get(0).getBasic(), i.getNames().get(0)
+                        .getBasic());
+                individuals++;
+            }
+        }
+        assertEquals(normal.getGedcom().getIndividuals().size(), individuals);
+    }
+
+    /**
+     * Test reading the lines of each record, and mixing that with reading parsed records
+     * 
+     * @throws GedcomParserException
+     *             if the data can't be parsed
+     * @throws IOException
+     *             if the data can't be read
+     */
+    @Test
+    public void testNextStringTree() throws IOException, GedcomParserException {
+        try (GedcomRecordReader reader = new GedcomRecordReader(stream(SMALL_FILE))) {
+            assertTrue(reader.nextRecord() instanceof Header);
+
+            StringTree indi = reader.nextStringTree();
+            assertEquals("INDI", indi.getTag());
+            assertEquals("@I1@", indi.getXref());
+            assertEquals(7, indi.getLineNum());
+            assertEquals(2, indi.getChildren().size());
+            assertEquals("John /Doe/", indi.getChildren().get(0).getValue());
+            assertSame(indi, indi.getChildren().get(0).getParent());
+
+            assertEquals("@I2@", ((Individual) reader.nextRecord()).getXref());
+
+            Family f = (Family) reader.nextRecord();
+            assertEquals("@I1@", f.getHusband().getIndividual().getXref());
+            assertNull(f.getHusband().getIndividual().getNames());
+
+            StringTree custom = reader.nextStringTree();
+            assertEquals("_CUSTOM", custom.getTag());
+            assertEquals("Something", custom.getValue());
+
+            assertTrue(reader.nextRecord() instanceof Trailer);
+            assertNull(reader.nextStringTree());
+            assertNull(reader.nextRecord());
+            assertTrue(reader.getParser().getErrors().isEmpty());
+        }
+    }
+
+    /**
+     * Read the tag and xref of each root-level record in a file, on its own
+     * 
+     * @param filename
+     *            the name of the file
+     * @return the tag and xref of each root-level record
+     * @throws GedcomParserException
+     *             if the file can't be parsed
+     * @throws IOException
+     *             if the file can't be read
+     */
+    private List<String> readAll(String filename) throws IOException, GedcomParserException {
+        List<String> result = new ArrayList<>();
+        try (GedcomRecordReader reader = new GedcomRecordReader(filename)) {
+            StringTree st = reader.nextStringTree();
+            while (st != null) {
+                result.add(st.getTag() + " " + st.getXref());
+                st = reader.nextStringTree();
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Make a stream to read some data from
+     * 
+     * @param data
+     *            the data
+     * @return the stream
+     */
+    private BufferedInputStream stream(String data) {
+        return new BufferedInputStream(new ByteArrayInputStream(data.getBytes(StandardCharsets.US_ASCII)));
+    }
+}
@@ -31,6 +31,7 @@ import static org.junit.Assert.assertEquals;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.AfterClass;
 import org.junit.BeforeClass;
@@ -87,6 +88,43 @@ public class HebrewCalendarParserTest {
                 .getGedcomAbbrev(), 17));
     }
 
+    /**
+     * Test method for {@link org.gedcom4j.parser.HebrewCalendarParser#getEpochDay(int, HebrewMonth, int)}, including years past the
+     * end of the table of years
+     */
+    @Test
+    public void testGetEpochDay() {
+        assertEquals(getEpochDay(2015, Calendar.SEPTEMBER, 14), classUnderTest.getEpochDay(5776, HebrewMonth.TISHREI, 1));
+        assertEquals(getEpochDay(2016, Calendar.JULY, 19), classUnderTest.getEpochDay(5776, HebrewMonth.TAMUZ, 13));
+        assertEquals(getEpochDay(1776, Calendar.JULY, 4), classUnderTest.getEpochDay(5536, HebrewMonth.TAMUZ, 17));
+        assertEquals(getEpochDay(2016, Calendar.OCTOBER, 2), classUnderTest.getEpochDay(5776, HebrewMonth.ELUL, 29));
+
+        // Elul always has 29 days, so the 30th is the first day of the next year
+        int last = HebrewCalendarParser.LAST_TABULATED_YEAR;
+        assertEquals(classUnderTest.getEpochDay(last, HebrewMonth.ELUL, 30), classUnderTest.getEpochDay(last + 1,
+                HebrewMonth.TISHREI, 1));
+        assertEquals(classUnderTest.getEpochDay(last + 1, HebrewMonth.ELUL, 30), classUnderTest.getEpochDay(last + 2,
+                HebrewMonth.TISHREI, 1));
+    }
+
+    /**
+     * Test method for {@link org.gedcom4j.parser.HebrewCalendarParser#getMonthLength(int, HebrewMonth)}
+     */
+    @Test
+    public void testGetMonthLength() {
+        // 5776 was a 385-day leap year
+        assertEquals(30, classUnderTest.getMonthLength(5776, HebrewMonth.CHESHVAN));
+        assertEquals(30, classUnderTest.getMonthLength(5776, HebrewMonth.KISLEV));
+        assertEquals(30, classUnderTest.getMonthLength(5776, HebrewMonth.ADAR_A));
+        assertEquals(29, classUnderTest.getMonthLength(5776, HebrewMonth.ADAR));
+
+        // 5777 was a 353-day non-leap year
+        assertEquals(29, classUnderTest.getMonthLength(5777, HebrewMonth.CHESHVAN));
+        assertEquals(29, classUnderTest.getMonthLength(5777, HebrewMonth.KISLEV));
+        assertEquals(0, classUnderTest.getMonthLength(5777, HebrewMonth.ADAR_A));
+        assertEquals(29, classUnderTest.getMonthLength(5777, HebrewMonth.ADAR));
+    }
+
     /**
      * Helper method to get a gregorian date based on year, month, and day
      * 
@@ -105,4 +143,19 @@ public class HebrewCalendarParserTest {
         return c.getTime();
     }
 
+    /**
+     * Helper method to get the epoch day of a gregorian date based on year, month, and day
+     * 
+     * @param y
+     *            gregorian year
+     * @param m
+     *            gregorian month
+     * @param d
+     *            day
+     * @return the number of days since 1 Jan 1970
+     */
+    private long getEpochDay(int y, int m, int d) {
+        return TimeUnit.MILLISECONDS.toDays(getDate(y, m, d).getTime());
+    }
+
 }
@@ -0,0 +1,310 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.parser;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.gedcom4j.exception.GedcomParserException;
+import org.gedcom4j.io.encoding.Encoding;
+import org.gedcom4j.model.Family;
+import org.gedcom4j.model.Gedcom;
+import org.gedcom4j.model.Individual;
+import org.gedcom4j.parser.ReferenceReport.DanglingXref;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Test for {@link GedcomParser#loadIncrementally(String, Gedcom, LoadCheckpoint)}
+ * 
+ * @author frizbog
+ */
+public class IncrementalLoadTest {
+
+    /**
+     * The records added to the file the first time, including a family whose husband isn't in the file yet, and a line with an
+     * error in it
+     */
+    private static final String FIRST_ADDITION = "0 @NEWF1@ FAM\n1 HUSB @NEW2@\n1 CHIL @I5169@\n0 @NEW1@ INDI\n"
+            + "1 NAME Abner /Appended/\n1 BOGUS Not a valid tag\n";
+
+    /**
+     * The records added to the file the second time, including the husband of the family added the first time
+     */
+    private static final String SECOND_ADDITION = "0 @NEW2@ INDI\n1 NAME Zebulon /Appended/\n1 FAMS @NEWF1@\n";
+
+    /**
+     * Folder for the files written by the tests, which is deleted after each test
+     */
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    /**
+     * Test that loading a file that has changed before the checkpoint fails
+     * 
+     * @throws GedcomParserException
+     *             if the file can't be parsed
+     * @throws IOException
+     *             if the file can't be read
+     */
+    @Test
+    public void testChangedFile() throws IOException, GedcomParserException {
+        File file = copy("sample/willis.ged");
+        GedcomParser gp = new GedcomParser();
+        gp.loadIncrementally(file.getPath(), null, null);
+        LoadCheckpoint checkpoint = gp.getCheckpoint();
+
+        String content = new String(Files.readAllBytes(file.toPath()), StandardCharsets.ISO_8859_1);
+        Files.write(file.toPath(), ("0 @X1@ NOTE Added at the start\r\n" + content).getBytes(StandardCharsets.ISO_8859_1));
+        try {
+            new GedcomParser().loadIncrementally(file.getPath(), gp.getGedcom(), checkpoint);
+            fail("Expected an exception, since the file changed before the checkpoint");
+        } catch (GedcomParserException expected) {
+            assertTrue(expected.getMessage(), expected.getMessage().contains("line " + checkpoint.getLineNum()));
+        }
+
+        Files.write(file.toPath(), "0 HEAD\r\n0 TRLR\r\n".getBytes(StandardCharsets.ISO_8859_1));
+        try {
+            new GedcomParser().loadIncrementally(file.getPath(), gp.getGedcom(), checkpoint);
+            fail("Expected an exception, since the file got shorter");
+        } catch (GedcomParserException expected) {
+            assertTrue(expected.getMessage(), expected.getMessage().contains("shorter"));
+        }
+    }
+
+    /**
+     * Test the checkpoints, and that they can be kept between runs
+     * 
+     * @throws GedcomParserException
+     *             if the file can't be parsed
+     * @throws IOException
+     *             if the file can't be read
+     * @throws ClassNotFoundException
+     *             if the checkpoint can't be deserialized
+     */
+    @Test
+    public void testCheckpoint() throws IOException, GedcomParserException, ClassNotFoundException {
+        File file = copy("sample/willis.ged");
+        GedcomParser gp = new GedcomParser();
+        assertNull(gp.getCheckpoint());
+        gp.loadIncrementally(file.getPath(), null, null);
+        LoadCheckpoint checkpoint = gp.getCheckpoint();
+        assertEquals("At the start of the trailer", file.length() - "0 TRLR\r\n".length(), checkpoint.getOffset());
+        assertEquals(Files.readAllLines(file.toPath(), StandardCharsets.ISO_8859_1).size(), checkpoint.getLineNum());
+        assertEquals(Encoding.UTF_8, checkpoint.getEncoding());
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (ObjectOutputStream oos = new ObjectOutputStream(baos)) {
+            oos.writeObject(checkpoint);
+        }
+        try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(baos.toByteArray()))) {
+            assertEquals(checkpoint.toString(), ois.readObject().toString());
+        }
+
+        // Loading again with nothing added leaves the checkpoint where it was
+        gp.loadIncrementally(file.getPath(), gp.getGedcom(), checkpoint);
+        assertEquals(checkpoint.toString(), gp.getCheckpoint().toString());
+
+        // A file without a trailer gets a checkpoint at the end
+        Files.write(file.toPath(), "0 HEAD\n1 CHAR ASCII\n0 @I1@ INDI\n".getBytes(StandardCharsets.ISO_8859_1));
+        gp.loadIncrementally(file.getPath(), null, null);
+        assertEquals(file.length(), gp.getCheckpoint().getOffset());
+        assertEquals(4, gp.getCheckpoint().getLineNum());
+
+        gp.load(file.getPath());
+        assertNull(gp.getCheckpoint());
+
+        try {
+            gp.loadIncrementally(file.getPath(), new Gedcom(), null);
+            fail("Expected an IllegalArgumentException");
+        } catch (IllegalArgumentException expected) {
+            assertNotNull(expected.getMessage());
+        }
+    }
+
+    /**
+     * Test that loading a file incrementally, as records are added to it, gives the same result as loading the whole file each
+     * time
+     * 
+     * @throws GedcomParserException
+     *             if the file can't be parsed
+     * @throws IOException
+     *             if the file can't be read
+     */
+    @Test
+    public void testSameAsFullLoad() throws IOException, GedcomParserException {
+        assertSameAsFullLoad("sample/willis.ged", StandardCharsets.ISO_8859_1);
+        assertSameAsFullLoad("sample/willis-unicode-littleendian.ged", StandardCharsets.UTF_16LE);
+        assertSameAsFullLoad("sample/willis-unicode-bigendian.ged", StandardCharsets.UTF_16BE);
+    }
+
+    /**
+     * Add records to a file just before its trailer
+     * 
+     * @param file
+     *            the file
+     * @param records
+     *            the records to add
+     * @param charset
+     *            the charset of the file
+     * @throws IOException
+     *             if the file can't be read or written
+     */
+    private void addRecords(File file, String records, Charset charset) throws IOException {
+        String content = new String(Files.readAllBytes(file.toPath()), charset);
+        int trailer = content.lastIndexOf("0 TRLR");
+        Files.write(file.toPath(), (content.substring(0, trailer) + records + content.substring(trailer)).getBytes(charset));
+    }
+
+    /**
+     * Assert that loading a file incrementally, as records are added to it, gives the same result as loading the whole file
+     * 
+     * @param sampleFileName
+     *            the name of the sample file to start with
+     * @param charset
+     *            the charset of the file
+     * @throws GedcomParserException
+     *             if the file can't be parsed
+     * @throws IOException
+     *             if the file can't be read
+     */
+    private void assertSameAsFullLoad(String sampleFileName, Charset charset) throws IOException, GedcomParserException {
+        File file = copy(sampleFileName);
+        GedcomParser gp = new GedcomParser();
+        gp.loadIncrementally(file.getPath(), null, null);
+        Gedcom g = gp.getGedcom();
+        LoadCheckpoint checkpoint = gp.getCheckpoint();
+        GedcomParser before = assertSameAsFullLoad(file, gp, new GedcomParser());
+
+        // A different parser can carry on from the checkpoint
+        addRecords(file, FIRST_ADDITION, charset);
+        gp = new GedcomParser();
+        gp.loadIncrementally(file.getPath(), g, checkpoint);
+        assertSame(g, gp.getGedcom());
+        before = assertSameAsFullLoad(file, gp, before);
+        String bogusLine = "Line " + (checkpoint.getLineNum() + 5) + ":";
+        assertEquals(1, gp.getErrors().size() + gp.getWarnings().size());
+        assertTrue(gp.getErrors() + " " + gp.getWarnings(), (gp.getErrors() + " " + gp.getWarnings()).contains(bogusLine));
+        Family f = g.getFamilies().get("@NEWF1@");
+        assertSame(g.getIndividuals().get("@I5169@"), f.getChildren().get(0).getIndividual());
+        assertNull("Husband hasn't been added yet", f.getHusband().getIndividual().getNames());
+        checkpoint = gp.getCheckpoint();
+
+        // Loading again with nothing added still knows the husband is missing
+        gp.loadIncrementally(file.getPath(), g, checkpoint);
+        assertEquals(danglingXrefs(before), danglingXrefs(gp));
+        assertTrue(danglingXrefs(gp).contains("INDI @NEW2@"));
+
+        addRecords(file, SECOND_ADDITION, charset);
+        gp.loadIncrementally(file.getPath(), g, checkpoint);
+        assertSameAsFullLoad(file, gp, before);
+        Individual husband = g.getIndividuals().get("@NEW2@");
+        assertSame("The family added before now has its husband", husband, f.getHusband().getIndividual());
+        assertEquals("Zebulon /Appended/", husband.getNames().get(0).getBasic());
+        assertSame(f, husband.getFamiliesWhereSpouse().get(0).getFamily());
+    }
+
+    /**
+     * Assert that what an incremental load has loaded so far is the same as a full load of the file, that its errors and warnings
+     * are the ones a full load finds in the records that were added, and that it finds the same dangling xrefs as the full load
+     * 
+     * @param file
+     *            the file
+     * @param incremental
+     *            the parser that did the incremental load
+     * @param before
+     *            the parser that did a full load of the file before the records were added
+     * @return the parser that did a full load of the file
+     * @throws GedcomParserException
+     *             if the file can't be parsed
+     * @throws IOException
+     *             if the file can't be read
+     */
+    private GedcomParser assertSameAsFullLoad(File file, GedcomParser incremental, GedcomParser before) throws IOException,
+            GedcomParserException {
+        GedcomParser full = new GedcomParser();
+        full.load(file.getPath());
+        assertEquals(file.getPath(), full.getGedcom(), incremental.getGedcom());
+        List<String> errors = new ArrayList<>(full.getErrors());
+        errors.removeAll(before.getErrors());
+        assertEquals(file.getPath(), errors, incremental.getErrors());
+        List<String> warnings = new ArrayList<>(full.getWarnings());
+        warnings.removeAll(before.getWarnings());
+        assertEquals(file.getPath(), warnings, incremental.getWarnings());
+        assertEquals(file.getPath(), danglingXrefs(full), danglingXrefs(incremental));
+        return full;
+    }
+
+    /**
+     * Get the dangling xrefs in the reference report from a load
+     * 
+     * @param gp
+     *            the parser that did the load
+     * @return the tag and xref of each dangling xref, sorted
+     */
+    private List<String> danglingXrefs(GedcomParser gp) {
+        List<String> result = new ArrayList<>();
+        for (DanglingXref d : gp.getReferenceReport().getDangling()) {
+            result.add(d.getTag() + " " + d.getXref());
+        }
+        Collections.sort(result);
+        return result;
+    }
+
+    /**
+     * Copy a sample file to the temporary folder, so it can be added to
+     * 
+     * @param sampleFileName
+     *            the name of the sample file
+     * @return the copy
+     * @throws IOException
+     *             if the file can't be copied
+     */
+    private File copy(String sampleFileName) throws IOException {
+        File copy = new File(tempFolder.getRoot(), new File(sampleFileName).getName());
+        Files.write(copy.toPath(), Files.readAllBytes(new File(sampleFileName).toPath()));
+        return copy;
+    }
+}
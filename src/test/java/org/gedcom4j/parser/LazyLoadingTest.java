@@ -0,0 +1,332 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.parser;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.gedcom4j.exception.GedcomParserException;
+import org.gedcom4j.model.CustomFact;
+import org.gedcom4j.model.Family;
+import org.gedcom4j.model.FamilyChild;
+import org.gedcom4j.model.FamilySpouse;
+import org.gedcom4j.model.Gedcom;
+import org.gedcom4j.model.HasXref;
+import org.gedcom4j.model.Individual;
+import org.gedcom4j.model.ModelElement;
+import org.gedcom4j.model.Source;
+import org.gedcom4j.model.Submission;
+import org.junit.Test;
+
+/**
+ * Test for lazy loading, as turned on by {@link GedcomParser#setLazyLoading(boolean)}
+ * 
+ * @author frizbog
+ */
+public class LazyLoadingTest {
+
+    /**
+     * Test that the lazily loaded records are the same as the ones a normal load creates, in each encoding, and that the errors
+     * and warnings are the same
+     * 
+     * @throws GedcomParserException
+     *             if the file can't be parsed
+     * @throws IOException
+     *             if the file can't be read
+     */
+    @Test
+    public void testSameAsNormalLoad() throws IOException, GedcomParserException {
+        assertSameAsNormalLoad("sample/willis.ged");
+        assertSameAsNormalLoad("sample/willis-unicode-bigendian.ged");
+        assertSameAsNormalLoad("sample/willis-unicode-littleendian.ged");
+        assertSameAsNormalLoad("sample/ANSEL.GED");
+        assertSameAsNormalLoad("sample/5.5.1 sample 3.ged");
+        assertSameAsNormalLoad("sample/TGC55C.ged");
+    }
+
+    /**
+     * Test that the records are parsed only when they are accessed, and parsed again if evicted from the cache
+     * 
+     * @throws GedcomParserException
+     *             if the file can't be parsed
+     * @throws IOException
+     *             if the file can't be read
+     */
+    @Test
+    public void testParsedOnAccess() throws IOException, GedcomParserException {
+        GedcomParser gp = new GedcomParser();
+        gp.setLazyLoading(true);
+        gp.setLazyCacheSize(1);
+        gp.load("sample/willis.ged");
+        Gedcom g = gp.getGedcom();
+
+        Map<String, Individual> individuals = g.getIndividuals();
+        assertEquals(761, individuals.size());
+        assertTrue(individuals.containsKey("@I5169@"));
+        assertFalse(individuals.containsKey("@I99999@"));
+        assertEquals(null, individuals.get("@I99999@"));
+
+        Individual i1 = individuals.get("@I5169@");
+        assertNotNull(i1);
+        assertEquals("@I5169@", i1.getXref());
+        assertSame("Record should come from the cache", i1, individuals.get("@I5169@"));
+
+        Family f1 = g.getFamilies().get("@F1723@");
+        assertNotNull(f1);
+        assertSame(f1, g.getFamilies().get("@F1723@"));
+        Individual reloaded = individuals.get("@I5169@");
+        assertTrue("Record should have been evicted from the cache and parsed again", i1 != reloaded);
+        assertEquals(i1, reloaded);
+
+        // The xrefs of records referred to can be looked up in the maps
+        String husbandXref = f1.getHusband().getIndividual().getXref();
+        assertNotNull(individuals.get(husbandXref));
+
+        Source s = g.getSources().values().iterator().next();
+        assertNotNull(s);
+        assertEquals(s, g.getSources().get(s.getXref()));
+    }
+
+    /**
+     * Test that the references between families and individuals in lazily loaded records are resolved through the maps of records
+     * when asked for, and don't keep the records they refer to from being dropped from the cache
+     * 
+     * @throws GedcomParserException
+     *             if the file can't be parsed
+     * @throws IOException
+     *             if the file can't be read
+     */
+    @Test
+    public void testReferencesResolved() throws IOException, GedcomParserException {
+        GedcomParser gp = new GedcomParser();
+        gp.setLazyLoading(true);
+        gp.setLazyCacheSize(1);
+        gp.load("sample/willis.ged");
+        Gedcom g = gp.getGedcom();
+
+        FamilySpouse fs = null;
+        for (Individual i : g.getIndividuals().values()) {
+            if (i.getFamiliesWhereSpouse() != null && !i.getFamiliesWhereSpouse().isEmpty()) {
+                fs = i.getFamiliesWhereSpouse().get(0);
+                break;
+            }
+        }
+        assertNotNull(fs);
+
+        Family f = fs.getFamily();
+        assertNotNull("Family should have been loaded, not just a placeholder", f.getHusband());
+        Individual husband = f.getHusband().getIndividual();
+        assertNotNull("Husband should have been loaded, not just a placeholder", husband.getNames());
+        assertEquals(husband.getXref(), f.getHusband().getIndividual().getXref());
+
+        FamilyChild fc = null;
+        for (Individual i : g.getIndividuals().values()) {
+            if (i.getFamiliesWhereChild() != null && !i.getFamiliesWhereChild().isEmpty()) {
+                fc = i.getFamiliesWhereChild().get(0);
+                break;
+            }
+        }
+        assertNotNull(fc);
+        assertNotNull("Family should have been loaded, not just a placeholder", fc.getFamily().getChildren());
+        assertNotNull(fc.getFamily().getChildren().get(0).getIndividual().getNames());
+
+        // Only one record is cached, and the references don't hold on to the records, so they get parsed again
+        Family again = fs.getFamily();
+        assertEquals(f, again);
+        assertTrue("Family should have been dropped from the cache and parsed again", f != again);
+    }
+
+    /**
+     * Test that the maps of lazily loaded records are read-only
+     * 
+     * @throws GedcomParserException
+     *             if the file can't be parsed
+     * @throws IOException
+     *             if the file can't be read
+     */
+    @Test
+    public void testReadOnly() throws IOException, GedcomParserException {
+        GedcomParser gp = new GedcomParser();
+        gp.setLazyLoading(true);
+        gp.load("sample/willis.ged");
+        Gedcom g = gp.getGedcom();
+        try {
+            g.getIndividuals().put("@X@", new Individual());
+            fail("Expected an UnsupportedOperationException");
+        } catch (UnsupportedOperationException expected) {
+            // Good
+        }
+        try {
+            g.getFamilies().remove("@F1723@");
+            fail("Expected an UnsupportedOperationException");
+        } catch (UnsupportedOperationException expected) {
+            // Good
+        }
+        assertTrue(g.getFamilies().containsKey("@F1723@"));
+    }
+
+    /**
+     * Test that a lazily loaded {@link Gedcom} serializes as a complete, ordinary one
+     * 
+     * @throws GedcomParserException
+     *             if the file can't be parsed
+     * @throws IOException
+     *             if the file can't be read
+     * @throws ClassNotFoundException
+     *             if the serialized object can't be read back in
+     */
+    @Test
+    public void testSerialization() throws IOException, GedcomParserException, ClassNotFoundException {
+        GedcomParser gp = new GedcomParser();
+        gp.setLazyLoading(true);
+        gp.load("sample/willis.ged");
+        Gedcom g = gp.getGedcom();
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(g);
+        }
+        Gedcom copy;
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            copy = (Gedcom) in.readObject();
+        }
+        assertEquals(Gedcom.class, copy.getClass());
+        assertEquals(761, copy.getIndividuals().size());
+        assertEquals(g.getIndividuals().get("@I5169@"), copy.getIndividuals().get("@I5169@"));
+    }
+
+    /**
+     * Test the validation of the cache size
+     */
+    @Test
+    public void testCacheSize() {
+        GedcomParser gp = new GedcomParser();
+        assertFalse(gp.isLazyLoading());
+        assertEquals(10000, gp.getLazyCacheSize());
+        try {
+            gp.setLazyCacheSize(0);
+            fail("Expected an IllegalArgumentException");
+        } catch (IllegalArgumentException expected) {
+            // Good
+        }
+        gp.setLazyCacheSize(1);
+        assertEquals(1, gp.getLazyCacheSize());
+    }
+
+    /**
+     * Assert that lazily loading a file gives the same records, errors, and warnings as loading it normally
+     * 
+     * @param fileName
+     *            the name of the file to load
+     * @throws GedcomParserException
+     *             if the file can't be parsed
+     * @throws IOException
+     *             if the file can't be read
+     */
+    private void assertSameAsNormalLoad(String fileName) throws IOException, GedcomParserException {
+        // Streaming load, so the records are not linked together, just like the lazily loaded ones
+        final Map<String, ModelElement> streamed = new HashMap<>();
+        GedcomParser normal = new GedcomParser();
+        normal.setRecordHandler(new RecordHandler() {
+            @Override
+            public void handleRecord(ModelElement record) {
+                // Submissions and custom facts aren't lazily loaded
+                if (record instanceof HasXref && !(record instanceof Submission) && !(record instanceof CustomFact)) {
+                    streamed.put(((HasXref) record).getXref(), record);
+                }
+            }
+        });
+        normal.load(fileName);
+
+        GedcomParser lazy = new GedcomParser();
+        lazy.setLazyLoading(true);
+        lazy.load(fileName);
+        Gedcom g = lazy.getGedcom();
+
+        int count = 0;
+        count += assertSameRecords(fileName, streamed, g.getFamilies());
+        count += assertSameRecords(fileName, streamed, g.getIndividuals());
+        count += assertSameRecords(fileName, streamed, g.getMultimedia());
+        count += assertSameRecords(fileName, streamed, g.getNotes());
+        count += assertSameRecords(fileName, streamed, g.getRepositories());
+        count += assertSameRecords(fileName, streamed, g.getSources());
+        count += assertSameRecords(fileName, streamed, g.getSubmitters());
+        assertEquals(fileName, streamed.size(), count);
+        assertEquals(fileName, normal.getGedcom().getHeader(), g.getHeader());
+
+        // The messages are the same, but found in the order the records were parsed rather than the order of the file
+        assertEquals(fileName, sorted(normal.getErrors()), sorted(lazy.getErrors()));
+        assertEquals(fileName, sorted(normal.getWarnings()), sorted(lazy.getWarnings()));
+    }
+
+    /**
+     * Get a sorted copy of a list of messages
+     * 
+     * @param messages
+     *            the messages
+     * @return a sorted copy of the messages
+     */
+    private List<String> sorted(List<String> messages) {
+        List<String> result = new ArrayList<>(messages);
+        Collections.sort(result);
+        return result;
+    }
+
+    /**
+     * Assert that the records in a map of lazily loaded records are the same as the ones from a normal load
+     * 
+     * @param fileName
+     *            the name of the file the records came from
+     * @param expected
+     *            the records from the normal load, keyed by xref
+     * @param actual
+     *            the map of lazily loaded records
+     * @return the number of records in the map
+     */
+    private int assertSameRecords(String fileName, Map<String, ModelElement> expected, Map<String, ? extends ModelElement> actual) {
+        for (Entry<String, ? extends ModelElement> e : actual.entrySet()) {
+            assertEquals(fileName + " " + e.getKey(), expected.get(e.getKey()), e.getValue());
+        }
+        return actual.size();
+    }
+}
@@ -0,0 +1,295 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.parser;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.nio.charset.StandardCharsets;
+
+import org.gedcom4j.exception.GedcomParserException;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+/**
+ * Test for {@link LineTokenizer}
+ * 
+ * @author frizbog
+ */
+public class LineTokenizerTest {
+
+    /**
+     * A rule that can be used to check exceptions
+     */
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    /**
+     * The class under test
+     */
+    private final LineTokenizer lt = new LineTokenizer(new StringCanonicalizer());
+
+    /**
+     * Test for {@link LineTokenizer#tokenize(byte[], int, int, int)}, with the line in the middle of a buffer holding other lines
+     * 
+     * @throws GedcomParserException
+     *             if anything goes wrong
+     */
+    @Test
+    public void testBytes() throws GedcomParserException {
+        tokenizeBytes("4 @XREF@ TAGG additional stuff", 5);
+        assertEquals(4, lt.level);
+        assertEquals("@XREF@", lt.id);
+        assertEquals("TAGG", lt.tag);
+        assertNull(lt.knownTag);
+        assertEquals("additional stuff", lt.remainder);
+
+        tokenizeBytes("12 NAME J\u00F6rg /M\u00FCller/ \u4E2D\u6587", 6);
+        assertEquals(12, lt.level);
+        assertNull(lt.id);
+        assertSame(Tag.NAME, lt.knownTag);
+        assertSame(Tag.NAME.tagText, lt.tag);
+        assertEquals("J\u00F6rg /M\u00FCller/ \u4E2D\u6587", lt.remainder);
+
+        tokenizeBytes("1 _CUSTOM", 7);
+        assertEquals(1, lt.level);
+        assertNull(lt.id);
+        assertEquals("_CUSTOM", lt.tag);
+        assertNull(lt.knownTag);
+        assertNull(lt.remainder);
+    }
+
+    /**
+     * Negative test case for {@link LineTokenizer#tokenize(byte[], int, int, int)} when the level is non-numeric
+     * 
+     * @throws GedcomParserException
+     *             if anything goes wrong
+     */
+    @Test
+    public void testBytesNegativeBadLevel() throws GedcomParserException {
+        thrown.expect(GedcomParserException.class);
+        thrown.expectMessage("Line 5 does not begin with a 1 or 2 digit number for the level followed by a space: BAD TAGG");
+        tokenizeBytes("BAD TAGG additional stuff", 5);
+    }
+
+    /**
+     * Negative test case for {@link LineTokenizer#tokenize(byte[], int, int, int)} when the xref is not terminated
+     * 
+     * @throws GedcomParserException
+     *             if anything goes wrong
+     */
+    @Test
+    public void testBytesNegativeBadXref() throws GedcomParserException {
+        thrown.expect(GedcomParserException.class);
+        thrown.expectMessage("XRef ID begins with @ sign but is not terminated with one on line 5");
+        tokenizeBytes("4 @XREF TAGG additional stuff", 5);
+    }
+
+    /**
+     * Negative test case for {@link LineTokenizer#tokenize(byte[], int, int, int)} when there is no tag
+     * 
+     * @throws GedcomParserException
+     *             if anything goes wrong
+     */
+    @Test
+    public void testBytesNegativeNothingAfterXref() throws GedcomParserException {
+        thrown.expect(GedcomParserException.class);
+        thrown.expectMessage("All GEDCOM lines are required to have a tag value, but no tag could be found on line 5");
+        tokenizeBytes("4 @XREF@", 5);
+    }
+
+    /**
+     * Test that custom tags are canonicalized, so repeated custom tags share one string instance
+     * 
+     * @throws GedcomParserException
+     *             if anything goes wrong
+     */
+    @Test
+    public void testCustomTagCanonicalized() throws GedcomParserException {
+        lt.tokenize("1 _CUSTOM first", 5);
+        String firstTag = lt.tag;
+        assertNull(lt.knownTag);
+        lt.tokenize("1 _CUSTOM second", 6);
+        assertEquals("_CUSTOM", lt.tag);
+        assertSame(firstTag, lt.tag);
+        assertNull(lt.knownTag);
+    }
+
+    /**
+     * Test that known tags are resolved to the {@link Tag} enumeration and its text
+     * 
+     * @throws GedcomParserException
+     *             if anything goes wrong
+     */
+    @Test
+    public void testKnownTags() throws GedcomParserException {
+        for (Tag t : Tag.values()) {
+            if (t != Tag.UNRECOGNIZED) {
+                lt.tokenize("2 " + t.tagText + " value", 5);
+                assertSame(t, lt.knownTag);
+                assertSame(t.tagText, lt.tag);
+                assertEquals("value", lt.remainder);
+            }
+        }
+        lt.tokenize("0 @I1@ INDI", 5);
+        assertSame(Tag.INDIVIDUAL, lt.knownTag);
+        assertSame(Tag.INDIVIDUAL.tagText, lt.tag);
+    }
+
+    /**
+     * Negative test case when the level is non-numeric
+     * 
+     * @throws GedcomParserException
+     *             if anything goes wrong
+     */
+    @Test
+    public void testNegativeBadLevel() throws GedcomParserException {
+        thrown.expect(GedcomParserException.class);
+        thrown.expectMessage("Line 5 does not begin with a 1 or 2 digit number for the level followed by a space:");
+        lt.tokenize("BAD TAGG additional stuff", 5);
+    }
+
+    /**
+     * Negative test case when the xref is not terminated
+     * 
+     * @throws GedcomParserException
+     *             if anything goes wrong
+     */
+    @Test
+    public void testNegativeBadXref() throws GedcomParserException {
+        thrown.expect(GedcomParserException.class);
+        thrown.expectMessage("XRef ID begins with @ sign but is not terminated with one on line 5");
+        lt.tokenize("4 @XREF TAGG additional stuff", 5);
+    }
+
+    /**
+     * Negative test case when there is nothing after the level
+     * 
+     * @throws GedcomParserException
+     *             if anything goes wrong
+     */
+    @Test
+    public void testNegativeNothingAfterLevel() throws GedcomParserException {
+        thrown.expect(GedcomParserException.class);
+        thrown.expectMessage("All GEDCOM lines are required to have a tag value, but no tag could be found on line 5");
+        lt.tokenize("10 ", 5);
+    }
+
+    /**
+     * Negative test case when there is no tag
+     * 
+     * @throws GedcomParserException
+     *             if anything goes wrong
+     */
+    @Test
+    public void testNegativeNothingAfterXref() throws GedcomParserException {
+        thrown.expect(GedcomParserException.class);
+        thrown.expectMessage("All GEDCOM lines are required to have a tag value, but no tag could be found on line 5");
+        lt.tokenize("4 @XREF@", 5);
+    }
+
+    /**
+     * Simple happy-path positive test for {@link LineTokenizer#tokenize(String, int)}
+     * 
+     * @throws GedcomParserException
+     *             if anything goes wrong
+     */
+    @Test
+    public void testPositive() throws GedcomParserException {
+        lt.tokenize("4 @XREF@ TAGG additional stuff", 5);
+        assertEquals(4, lt.level);
+        assertEquals("@XREF@", lt.id);
+        assertEquals("TAGG", lt.tag);
+        assertEquals("additional stuff", lt.remainder);
+    }
+
+    /**
+     * Simple happy-path positive test for {@link LineTokenizer#tokenize(String, int)}
+     * 
+     * @throws GedcomParserException
+     *             if anything goes wrong
+     */
+    @Test
+    public void testPositiveNothingAfterTag() throws GedcomParserException {
+        lt.tokenize("4 TAGG", 5);
+        assertEquals(4, lt.level);
+        assertNull(lt.id);
+        assertEquals("TAGG", lt.tag);
+        assertNull(lt.remainder);
+    }
+
+    /**
+     * Simple happy-path positive test for {@link LineTokenizer#tokenize(String, int)}
+     * 
+     * @throws GedcomParserException
+     *             if anything goes wrong
+     */
+    @Test
+    public void testPositiveNoXref() throws GedcomParserException {
+        lt.tokenize("4 TAGG additional stuff", 5);
+        assertEquals(4, lt.level);
+        assertNull(lt.id);
+        assertEquals("TAGG", lt.tag);
+        assertEquals("additional stuff", lt.remainder);
+    }
+
+    /**
+     * Test that nothing from a previous line is left behind when the tokenizer is reused
+     * 
+     * @throws GedcomParserException
+     *             if anything goes wrong
+     */
+    @Test
+    public void testReuse() throws GedcomParserException {
+        lt.tokenize("0 @I1@ INDI stuff", 5);
+        lt.tokenize("12 _FOO", 6);
+        assertEquals(12, lt.level);
+        assertNull(lt.id);
+        assertEquals("_FOO", lt.tag);
+        assertNull(lt.knownTag);
+        assertNull(lt.remainder);
+    }
+
+    /**
+     * Tokenize a line as UTF-8 bytes, in the middle of a buffer that has other lines before and after it
+     * 
+     * @param line
+     *            the line to tokenize
+     * @param lineNum
+     *            which line in the file this is
+     * @throws GedcomParserException
+     *             if the line cannot be split into pieces
+     */
+    private void tokenizeBytes(String line, int lineNum) throws GedcomParserException {
+        byte[] before = "0 @I1@ INDI\n".getBytes(StandardCharsets.UTF_8);
+        byte[] bytes = (new String(before, StandardCharsets.UTF_8) + line + "\n1 NAME After /Line/\n").getBytes(
+                StandardCharsets.UTF_8);
+        lt.tokenize(bytes, before.length, before.length + line.getBytes(StandardCharsets.UTF_8).length, lineNum);
+    }
+}
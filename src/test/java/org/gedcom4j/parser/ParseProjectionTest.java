@@ -0,0 +1,273 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.parser;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.gedcom4j.exception.GedcomParserException;
+import org.gedcom4j.model.Family;
+import org.gedcom4j.model.FamilyEvent;
+import org.gedcom4j.model.Gedcom;
+import org.gedcom4j.model.Header;
+import org.gedcom4j.model.Individual;
+import org.gedcom4j.model.IndividualEvent;
+import org.gedcom4j.model.ModelElement;
+import org.gedcom4j.model.Trailer;
+import org.gedcom4j.model.enumerations.FamilyEventType;
+import org.gedcom4j.model.enumerations.IndividualEventType;
+import org.junit.Test;
+
+/**
+ * Test for {@link ParseProjection}
+ * 
+ * @author frizbog
+ */
+public class ParseProjectionTest {
+
+    /**
+     * Test excluding all custom tags, which unlike {@link GedcomParser#setIgnoreCustomTags(boolean)} also skips the ones beneath
+     * simple values
+     * 
+     * @throws GedcomParserException
+     *             if the file can't be parsed
+     * @throws IOException
+     *             if the file can't be read
+     */
+    @Test
+    public void testExcludeCustomTags() throws IOException, GedcomParserException {
+        GedcomParser normal = new GedcomParser();
+        normal.load("sample/customtagstorture.ged");
+
+        ParseProjection p = new ParseProjection();
+        p.addExclude("_*");
+        GedcomParser projected = new GedcomParser();
+        projected.setProjection(p);
+        projected.load("sample/customtagstorture.ged");
+
+        Gedcom g = projected.getGedcom();
+        assertEquals(normal.getGedcom().getIndividuals().toString(), g.getIndividuals().toString());
+        assertEquals(normal.getGedcom().getFamilies().keySet(), g.getFamilies().keySet());
+        assertTrue(g.getCustomFacts() == null || g.getCustomFacts().isEmpty());
+        Individual i = g.getIndividuals().get("@I00@");
+        assertNotNull(normal.getGedcom().getIndividuals().get("@I00@").getSex().getCustomFacts());
+        assertEquals("M", i.getSex().getValue());
+        assertNull(i.getSex().getCustomFacts());
+        assertNull(i.getNames().get(0).getGivenName().getCustomFacts());
+        assertNull(i.getEvents().get(0).getDate().getCustomFacts());
+        assertNull(i.getCustomFacts());
+        // The header is always loaded in full
+        assertNotNull(g.getHeader().getSourceSystem().getCustomFacts());
+    }
+
+    /**
+     * Test invalid patterns and record types
+     */
+    @Test
+    public void testInvalid() {
+        ParseProjection p = new ParseProjection();
+        for (String pattern : new String[] { null, "", "INDI..NAME", "INDI.", ".NAME" }) {
+            try {
+                p.addInclude(pattern);
+                fail("Expected IllegalArgumentException for " + pattern);
+            } catch (IllegalArgumentException expected) {
+                assertNotNull(expected.getMessage());
+            }
+            try {
+                p.addExclude(pattern);
+                fail("Expected IllegalArgumentException for " + pattern);
+            } catch (IllegalArgumentException expected) {
+                assertNotNull(expected.getMessage());
+            }
+        }
+        try {
+            p.addRecordType("");
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException expected) {
+            assertNotNull(expected.getMessage());
+        }
+        assertTrue(p.getIncludes().isEmpty());
+        assertTrue(p.getExcludes().isEmpty());
+        assertTrue(p.getRecordTypes().isEmpty());
+    }
+
+    /**
+     * Test loading only some of the data in a sample file
+     * 
+     * @throws GedcomParserException
+     *             if the file can't be parsed
+     * @throws IOException
+     *             if the file can't be read
+     */
+    @Test
+    public void testLoad() throws IOException, GedcomParserException {
+        GedcomParser normal = new GedcomParser();
+        normal.load("sample/willis.ged");
+        Gedcom n = normal.getGedcom();
+
+        ParseProjection p = new ParseProjection();
+        p.addRecordType("INDI");
+        p.addRecordType("FAM");
+        for (String s : new String[] { "INDI.NAME", "INDI.SEX", "INDI.FAMC", "INDI.FAMS", "INDI.BIRT.DATE", "INDI.BIRT.PLAC",
+                "INDI.DEAT.DATE", "INDI.DEAT.PLAC", "FAM.HUSB", "FAM.WIFE", "FAM.CHIL", "FAM.MARR.DATE", "FAM.MARR.PLAC" }) {
+            p.addInclude(s);
+        }
+        p.addExclude("**.SOUR");
+        GedcomParser gp = new GedcomParser();
+        gp.setProjection(p);
+        gp.load("sample/willis.ged");
+        Gedcom g = gp.getGedcom();
+
+        assertEquals(n.getHeader(), g.getHeader());
+        assertEquals(n.getTrailer(), g.getTrailer());
+        assertTrue(g.getSources().isEmpty());
+        assertTrue(g.getNotes().isEmpty());
+        assertTrue(g.getMultimedia().isEmpty());
+        assertTrue(g.getRepositories().isEmpty());
+
+        assertEquals(n.getIndividuals().keySet(), g.getIndividuals().keySet());
+        for (Individual i : g.getIndividuals().values()) {
+            Individual ni = n.getIndividuals().get(i.getXref());
+            assertEquals(ni.getNames().get(0).getBasic(), i.getNames().get(0).getBasic());
+            assertNull(i.getNames().get(0).getCitations());
+            assertEquals(ni.getSex().getValue(), i.getSex().getValue());
+            assertEquals(ni.getFamiliesWhereSpouse(), i.getFamiliesWhereSpouse());
+            assertNull(i.getCitations());
+            assertNull(i.getNoteStructures());
+            assertNull(i.getChangeDate());
+            if (i.getEvents() != null) {
+                for (IndividualEvent e : i.getEvents()) {
+                    assertTrue(e.getType() == IndividualEventType.BIRTH || e.getType() == IndividualEventType.DEATH);
+                    assertNull(e.getCitations());
+                    assertNull(e.getNoteStructures());
+                }
+            }
+        }
+
+        assertEquals(n.getFamilies().keySet(), g.getFamilies().keySet());
+        for (Family f : g.getFamilies().values()) {
+            Family nf = n.getFamilies().get(f.getXref());
+            if (nf.getHusband() != null) {
+                assertEquals(nf.getHusband().getIndividual().getXref(), f.getHusband().getIndividual().getXref());
+            }
+            assertEquals(nf.getChildren() == null, f.getChildren() == null);
+            if (f.getEvents() != null) {
+                for (FamilyEvent e : f.getEvents()) {
+                    assertEquals(FamilyEventType.MARRIAGE, e.getType());
+                }
+            }
+        }
+    }
+
+    /**
+     * Test matching tag paths against patterns
+     */
+    @Test
+    public void testMatch() {
+        ParseProjection p = new ParseProjection();
+        p.addInclude("INDI.BIRT");
+        p.addInclude("INDI.*.DATE");
+        p.addExclude("INDI.*.SOUR");
+        p.addExclude("_*");
+        p.addExclude("**.NOTE.CONT");
+
+        assertEquals(ParseProjection.INCLUDE, p.match(new String[] { "HEAD", "_CUSTOM" }, 2, false));
+        assertEquals(ParseProjection.INCLUDE, p.match(new String[] { "TRLR" }, 1, false));
+        assertEquals(ParseProjection.KEEP, p.match(new String[] { "INDI" }, 1, false));
+        assertEquals(ParseProjection.SKIP, p.match(new String[] { "FAM" }, 1, false));
+        assertEquals(ParseProjection.SKIP, p.match(new String[] { "_ROOT" }, 1, false));
+        assertEquals(ParseProjection.INCLUDE, p.match(new String[] { "INDI", "BIRT" }, 2, false));
+        assertEquals(ParseProjection.KEEP, p.match(new String[] { "INDI", "DEAT" }, 2, false));
+        assertEquals(ParseProjection.KEEP, p.match(new String[] { "INDI", "NAME" }, 2, false));
+        assertEquals(ParseProjection.SKIP, p.match(new String[] { "INDI", "NAME", "GIVN" }, 3, false));
+        assertEquals(ParseProjection.INCLUDE, p.match(new String[] { "INDI", "DEAT", "DATE" }, 3, false));
+        assertEquals(ParseProjection.SKIP, p.match(new String[] { "INDI", "DEAT", "PLAC" }, 3, false));
+        assertEquals(ParseProjection.INCLUDE, p.match(new String[] { "INDI", "BIRT", "PLAC" }, 3, true));
+        assertEquals(ParseProjection.SKIP, p.match(new String[] { "INDI", "BIRT", "SOUR" }, 3, true));
+        assertEquals(ParseProjection.SKIP, p.match(new String[] { "INDI", "BIRT", "_UID" }, 3, true));
+        assertEquals(ParseProjection.SKIP, p.match(new String[] { "INDI", "BIRT", "NOTE", "CONT" }, 4, true));
+        assertEquals(ParseProjection.INCLUDE, p.match(new String[] { "INDI", "BIRT", "NOTE", "CONC" }, 4, true));
+        assertEquals(ParseProjection.INCLUDE, p.match(new String[] { "INDI", "BIRT", "SOUR" }, 2, false));
+
+        ParseProjection types = new ParseProjection();
+        types.addRecordType("SOUR");
+        types.addInclude("**");
+        assertEquals(ParseProjection.INCLUDE, types.match(new String[] { "SOUR" }, 1, false));
+        assertEquals(ParseProjection.SKIP, types.match(new String[] { "INDI" }, 1, false));
+        assertEquals(ParseProjection.INCLUDE, types.match(new String[] { "SOUR", "TITL" }, 2, false));
+        assertTrue(types.keepsRecordType("SOUR"));
+        assertFalse(types.keepsRecordType("INDI"));
+        assertTrue(p.keepsRecordType("INDI"));
+        assertFalse(p.keepsRecordType("FAM"));
+        assertFalse(p.keepsRecordType("_ROOT"));
+    }
+
+    /**
+     * Test reading records one at a time with a projection, where skipped lines are not checked
+     * 
+     * @throws GedcomParserException
+     *             if the data can't be parsed
+     * @throws IOException
+     *             if the data can't be read
+     */
+    @Test
+    public void testRecordReader() throws IOException, GedcomParserException {
+        String data = "0 HEAD\n1 SOUR test\n1 GEDC\n2 VERS 5.5.1\n2 FORM LINEAGE-LINKED\n1 CHAR ANSI\n"
+                + "0 @I1@ INDI\n1 NAME John /Doe/\n1 FAMS @F1@\n" + "0 @F1@ FAM\n1 HUSB @I1@\n1 _MISC\nnot a proper line\n"
+                + "1 MARR\n2 DATE 1 JAN 1900\n" + "0 @I2@ INDI\n1 NAME Jane /Roe/\n" + "0 TRLR\n";
+        ParseProjection p = new ParseProjection();
+        p.addRecordType("FAM");
+        p.addExclude("_*");
+        GedcomParser gp = new GedcomParser();
+        gp.setProjection(p);
+        try (GedcomRecordReader reader = new GedcomRecordReader(gp, new BufferedInputStream(new ByteArrayInputStream(data.getBytes(
+                StandardCharsets.US_ASCII))))) {
+            assertTrue(reader.nextRecord() instanceof Header);
+            ModelElement r = reader.nextRecord();
+            assertTrue(r instanceof Family);
+            Family f = (Family) r;
+            assertEquals("@F1@", f.getXref());
+            assertEquals("@I1@", f.getHusband().getIndividual().getXref());
+            assertNull(f.getCustomFacts());
+            assertEquals("1 JAN 1900", f.getEvents().get(0).getDate().getValue());
+            assertTrue(reader.nextRecord() instanceof Trailer);
+            assertNull(reader.nextRecord());
+        }
+        assertTrue(gp.getErrors().isEmpty());
+        assertTrue(gp.getWarnings().isEmpty());
+        assertFalse(gp.getGedcom().getIndividuals().containsKey("@I2@"));
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.parser;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.gedcom4j.exception.GedcomParserException;
+import org.gedcom4j.io.event.FileProgressEvent;
+import org.gedcom4j.io.event.FileProgressListener;
+import org.gedcom4j.io.reader.GedcomFileReader;
+import org.junit.Test;
+
+/**
+ * Test for {@link PipelinedLineReader}
+ * 
+ * @author frizbog
+ */
+public class PipelinedLineReaderTest {
+
+    /**
+     * Test that warnings issued while reading past the last line, after the last batch of lines has been handed over, still reach
+     * the root parser
+     * 
+     * @throws IOException
+     *             if the data can't be read
+     * @throws GedcomParserException
+     *             if the data can't be decoded
+     */
+    @Test
+    public void testWarningsAfterLastLine() throws IOException, GedcomParserException {
+        GedcomParser gp = new GedcomParser();
+        final PipelinedLineReader r = new PipelinedLineReader(gp);
+        // The file reader's final progress notification comes while it reads past the last line, on the reading thread
+        FileProgressListener warnAtEnd = new FileProgressListener() {
+            /**
+             * {@inheritDoc}
+             */
+            @Override
+            public void progressNotification(FileProgressEvent e) {
+                if (e.isComplete()) {
+                    r.getDecodingParser().getWarnings().add("Issued after the last line");
+                }
+            }
+        };
+        gp.registerFileObserver(warnAtEnd);
+        GedcomFileReader gfr = new GedcomFileReader(r.getDecodingParser(), new BufferedInputStream(new ByteArrayInputStream(
+                "0 HEAD\n1 CHAR UTF-8\n0 TRLR\n".getBytes(StandardCharsets.UTF_8))));
+        try {
+            r.start(gfr);
+            assertEquals("0 HEAD", r.nextLine());
+            assertEquals("1 CHAR UTF-8", r.nextLine());
+            assertEquals("0 TRLR", r.nextLine());
+            assertNull(r.nextLine());
+            assertEquals(Arrays.asList("Issued after the last line"), gp.getWarnings());
+            assertNull(r.nextLine());
+            assertEquals(1, gp.getWarnings().size());
+        } finally {
+            r.shutdown();
+        }
+    }
+}
@@ -0,0 +1,297 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.parser;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.gedcom4j.exception.GedcomParserException;
+import org.gedcom4j.model.Family;
+import org.gedcom4j.model.HasXref;
+import org.gedcom4j.model.Individual;
+import org.gedcom4j.model.ModelElement;
+import org.gedcom4j.parser.ReferenceReport.DanglingXref;
+import org.gedcom4j.parser.ReferenceReport.DuplicateXref;
+import org.junit.Test;
+
+/**
+ * Test for the {@link ReferenceReport} produced by the link phase of a load
+ * 
+ * @author frizbog
+ */
+public class ReferenceReportTest {
+
+    /**
+     * The start of each test file
+     */
+    private static final String HEAD = "0 HEAD\n1 SOUR test\n1 SUBM @SUBM1@\n1 GEDC\n2 VERS 5.5.1\n2 FORM LINEAGE-LINKED\n1 CHAR ANSI\n"
+            + "0 @SUBM1@ SUBM\n1 NAME Submitter\n";
+
+    /**
+     * Test that every kind of reference to a missing record is found, along with the records containing them, and that records
+     * defined twice are found, while forward references to records that are defined are not reported
+     * 
+     * @throws GedcomParserException
+     *             if the data can't be parsed
+     * @throws IOException
+     *             if the data can't be read
+     */
+    @Test
+    public void testDanglingAndDuplicates() throws IOException, GedcomParserException {
+        String data = HEAD // Lines 1-9
+                + "0 @I1@ INDI\n1 NAME Alice /Smith/\n1 FAMS @F1@\n1 FAMC @F9@\n" // Lines 10-13
+                + "1 BIRT\n2 DATE 1 JAN 1900\n2 SOUR @S9@\n" // Lines 14-16
+                + "2 OBJE @M9@\n1 NOTE @N9@\n" // Lines 17-18
+                + "0 @F1@ FAM\n1 WIFE @I1@\n1 HUSB @I9@\n1 CHIL @I2@\n" // Lines 19-22
+                + "0 @I2@ INDI\n1 NAME Bob /Smith/\n1 FAMC @F1@\n" // Lines 23-25
+                + "0 @I1@ INDI\n1 SEX F\n" // Lines 26-27
+                + "0 @F1@ FAM\n1 MARR Y\n" // Lines 28-29
+                + "0 @I3@ INDI\n1 ASSO @I9@\n2 RELA Friend\n" // Lines 30-32
+                + "0 TRLR\n";
+        GedcomParser gp = load(data, 1);
+        ReferenceReport report = gp.getReferenceReport();
+        assertNotNull(report);
+
+        List<DanglingXref> dangling = report.getDangling();
+        assertEquals("[INDI @I9@, FAM @F9@, OBJE @M9@, NOTE @N9@, SOUR @S9@]", describe(dangling));
+        Individual alice = gp.getGedcom().getIndividuals().get("@I1@");
+        Family family = gp.getGedcom().getFamilies().get("@F1@");
+        assertEquals(1, dangling.get(0).getReferrers().size());
+        assertSame(family, dangling.get(0).getReferrers().get(0));
+        assertSame(gp.getGedcom().getIndividuals().get("@I9@"), dangling.get(0).getPlaceholder());
+        assertSame(family.getHusband().getIndividual(), dangling.get(0).getPlaceholder());
+        for (DanglingXref d : dangling.subList(1, dangling.size())) {
+            assertEquals(1, d.getReferrers().size());
+            assertSame(alice, d.getReferrers().get(0));
+        }
+
+        List<DuplicateXref> duplicates = report.getDuplicates();
+        assertEquals(2, duplicates.size());
+        assertEquals("INDI", duplicates.get(0).getTag());
+        assertEquals("@I1@", duplicates.get(0).getXref());
+        assertEquals(26, duplicates.get(0).getLineNum());
+        assertEquals("FAM", duplicates.get(1).getTag());
+        assertEquals("@F1@", duplicates.get(1).getXref());
+        assertEquals(28, duplicates.get(1).getLineNum());
+    }
+
+    /**
+     * Test that records that are defined with nothing in them aren't mistaken for dangling xrefs, and that defining them twice is
+     * reported
+     * 
+     * @throws GedcomParserException
+     *             if the data can't be parsed
+     * @throws IOException
+     *             if the data can't be read
+     */
+    @Test
+    public void testEmptyRecords() throws IOException, GedcomParserException {
+        String data = HEAD // Lines 1-9
+                + "0 @I1@ INDI\n0 @F1@ FAM\n1 HUSB @I1@\n1 WIFE @I2@\n" // Lines 10-13
+                + "0 @I1@ INDI\n0 @S1@ SOUR\n0 @S1@ SOUR\n" // Lines 14-16
+                + "0 TRLR\n";
+        ReferenceReport report = load(data, 1).getReferenceReport();
+        assertEquals("[INDI @I2@]", describe(report.getDangling()));
+        assertEquals(2, report.getDuplicates().size());
+        assertEquals("INDI", report.getDuplicates().get(0).getTag());
+        assertEquals(14, report.getDuplicates().get(0).getLineNum());
+        assertEquals("SOUR", report.getDuplicates().get(1).getTag());
+        assertEquals(16, report.getDuplicates().get(1).getLineNum());
+    }
+
+    /**
+     * Test that the link phase gives the same report when it runs on several threads as on one, with enough records to be split
+     * into several slices
+     * 
+     * @throws GedcomParserException
+     *             if the data can't be parsed
+     * @throws IOException
+     *             if the data can't be read
+     */
+    @Test
+    public void testParallel() throws IOException, GedcomParserException {
+        StringBuilder sb = new StringBuilder(HEAD);
+        for (int i = 0; i < 10000; i++) {
+            sb.append("0 @I").append(i).append("@ INDI\n1 NAME Person /").append(i).append("/\n");
+            sb.append("1 FAMS @F").append(i).append("@\n");
+            if (i % 500 == 0) {
+                sb.append("1 FAMC @F").append(i + 100000).append("@\n");
+            }
+            if (i % 3 == 0) {
+                sb.append("0 @F").append(i).append("@ FAM\n1 HUSB @I").append(i).append("@\n");
+            }
+            if (i % 1000 == 0) {
+                sb.append("0 @I").append(i / 2).append("@ INDI\n1 SEX M\n");
+            }
+        }
+        sb.append("0 TRLR\n");
+        ReferenceReport sequential = load(sb.toString(), 1).getReferenceReport();
+        ReferenceReport parallel = load(sb.toString(), 4).getReferenceReport();
+        assertEquals(6666 + 20, sequential.getDangling().size());
+        assertEquals(10, sequential.getDuplicates().size());
+        // The records can be added to the maps in a different order when parsed in parallel, so the order of the report can differ
+        assertEquals(referrers(sequential.getDangling()), referrers(parallel.getDangling()));
+        assertEquals(sequential.getDuplicates().toString(), parallel.getDuplicates().toString());
+    }
+
+    /**
+     * Test that references to records of types that a projection leaves out aren't reported as dangling, since they aren't
+     * missing from the file
+     * 
+     * @throws GedcomParserException
+     *             if the file can't be parsed
+     * @throws IOException
+     *             if the file can't be read
+     */
+    @Test
+    public void testProjection() throws IOException, GedcomParserException {
+        ParseProjection p = new ParseProjection();
+        p.addRecordType("INDI");
+        p.addRecordType("FAM");
+        GedcomParser gp = new GedcomParser();
+        gp.setProjection(p);
+        gp.load("sample/willis.ged");
+        assertTrue("There are placeholders for the sources", gp.getGedcom().getSources().size() > 0);
+        assertTrue(gp.getReferenceReport().isClean());
+
+        String data = HEAD + "0 @I1@ INDI\n1 FAMS @F1@\n1 FAMC @F9@\n1 NOTE @N1@\n0 @F1@ FAM\n1 HUSB @I1@\n0 @N1@ NOTE Note\n"
+                + "0 TRLR\n";
+        gp.load(new BufferedInputStream(new ByteArrayInputStream(data.getBytes(StandardCharsets.US_ASCII))));
+        assertEquals("[FAM @F9@]", describe(gp.getReferenceReport().getDangling()));
+    }
+
+    /**
+     * Test the reports for sample files. The willis file defines its submitter with nothing in it, which doesn't make it dangling.
+     * 
+     * @throws GedcomParserException
+     *             if a file can't be parsed
+     * @throws IOException
+     *             if a file can't be read
+     */
+    @Test
+    public void testSampleFiles() throws IOException, GedcomParserException {
+        GedcomParser gp = new GedcomParser();
+        gp.load("sample/TGC551.ged");
+        assertTrue(gp.getReferenceReport().isClean());
+
+        gp.load("sample/willis.ged");
+        assertTrue(gp.getReferenceReport().isClean());
+    }
+
+    /**
+     * Test that there is no report when loading in streaming mode, where records aren't kept to be linked
+     * 
+     * @throws GedcomParserException
+     *             if the file can't be parsed
+     * @throws IOException
+     *             if the file can't be read
+     */
+    @Test
+    public void testStreaming() throws IOException, GedcomParserException {
+        GedcomParser gp = new GedcomParser();
+        gp.setRecordHandler(new RecordHandler() {
+
+            /**
+             * {@inheritDoc}
+             */
+            @Override
+            public void handleRecord(ModelElement record) {
+                // Nothing to do
+            }
+        });
+        gp.load("sample/willis.ged");
+        assertNull(gp.getReferenceReport());
+    }
+
+    /**
+     * Describe dangling xrefs by their tags and xrefs
+     * 
+     * @param dangling
+     *            the dangling xrefs
+     * @return the tag and xref of each one
+     */
+    private String describe(List<DanglingXref> dangling) {
+        List<String> result = new ArrayList<>();
+        for (DanglingXref d : dangling) {
+            result.add(d.getTag() + " " + d.getXref());
+        }
+        return result.toString();
+    }
+
+    /**
+     * Load GEDCOM data
+     * 
+     * @param data
+     *            the data
+     * @param threads
+     *            the number of threads to parse and link on
+     * @return the parser that loaded the data
+     * @throws GedcomParserException
+     *             if the data can't be parsed
+     * @throws IOException
+     *             if the data can't be read
+     */
+    private GedcomParser load(String data, int threads) throws IOException, GedcomParserException {
+        GedcomParser gp = new GedcomParser();
+        gp.setParserThreads(threads);
+        gp.load(new BufferedInputStream(new ByteArrayInputStream(data.getBytes(StandardCharsets.US_ASCII))));
+        return gp;
+    }
+
+    /**
+     * Get the xrefs of the records referring to each dangling xref
+     * 
+     * @param dangling
+     *            the dangling xrefs
+     * @return the xrefs of the referrers, sorted, keyed by the tag and xref of each dangling xref
+     */
+    private Map<String, List<String>> referrers(List<DanglingXref> dangling) {
+        Map<String, List<String>> result = new TreeMap<>();
+        for (DanglingXref d : dangling) {
+            List<String> xrefs = new ArrayList<>();
+            for (ModelElement r : d.getReferrers()) {
+                xrefs.add(((HasXref) r).getXref());
+            }
+            Collections.sort(xrefs);
+            result.put(d.getTag() + " " + d.getXref(), xrefs);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.parser;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.gedcom4j.exception.GedcomParserException;
+import org.gedcom4j.model.Gedcom;
+
+/**
+ * A benchmark (run through its main method, not as a unit test) of how much heap is retained by a loaded {@link Gedcom} with and
+ * without canonicalizing the values across the whole load. A pool size of 0 matches the old behavior closely, where each root-level
+ * record got a fresh pool and almost nothing was shared between records.
+ * 
+ * @author frizbog
+ */
+public final class StringCanonicalizerBenchmark {
+
+    /**
+     * Some place names to repeat through the generated file
+     */
+    private static final String[] PLACES = { "Springfield, Sangamon, Illinois, USA", "Boston, Suffolk, Massachusetts, USA",
+            "York, Yorkshire, England", "Cork, County Cork, Ireland", "Hamburg, Germany", "Toronto, York, Ontario, Canada" };
+
+    /**
+     * Private constructor - this class is only run through its main method
+     */
+    private StringCanonicalizerBenchmark() {
+        // Nothing to do
+    }
+
+    /**
+     * Run the benchmark
+     * 
+     * @param args
+     *            command line arguments - the first (optional) one is the number of individuals to generate
+     * @throws IOException
+     *             if the data can't be read
+     * @throws GedcomParserException
+     *             if the data can't be parsed
+     */
+    @SuppressWarnings("PMD.SystemPrintln")
+    public static void main(String[] args) throws IOException, GedcomParserException {
+        int individuals = args.length > 0 ? Integer.parseInt(args[0]) : 200000;
+        byte[] data = generate(individuals);
+        System.out.println("Generated " + individuals + " individuals, " + data.length + " bytes");
+        for (int maxPoolSize : new int[] { 0, StringCanonicalizer.DEFAULT_MAX_POOL_SIZE, 0,
+                StringCanonicalizer.DEFAULT_MAX_POOL_SIZE }) {
+            long before = usedHeap();
+            GedcomParser gp = new GedcomParser();
+            StringCanonicalizer canonicalizer = new StringCanonicalizer(maxPoolSize);
+            gp.setStringCanonicalizer(canonicalizer);
+            long start = System.nanoTime();
+            gp.load(new BufferedInputStream(new ByteArrayInputStream(data)));
+            long elapsed = System.nanoTime() - start;
+            Gedcom g = gp.getGedcom();
+            long retained = usedHeap() - before;
+            System.out.println("Max pool size " + maxPoolSize + ": " + retained / 1024 / 1024 + "MB retained, loaded in " + elapsed
+                    / 1000000 + "ms, " + canonicalizer + ", " + g.getIndividuals().size() + " individuals");
+        }
+    }
+
+    /**
+     * Generate a file with lots of repeated values
+     * 
+     * @param individuals
+     *            the number of individuals
+     * @return the bytes of the file
+     */
+    private static byte[] generate(int individuals) {
+        StringBuilder sb = new StringBuilder("0 HEAD\n1 SOUR benchmark\n1 GEDC\n2 VERS 5.5.1\n2 FORM LINEAGE-LINKED\n1 CHAR UTF-8\n");
+        for (int i = 0; i < individuals; i++) {
+            sb.append("0 @I").append(i).append("@ INDI\n1 NAME John /Smith/\n2 GIVN John\n2 SURN Smith\n1 SEX ").append(i % 2 == 0
+                    ? 'M' : 'F').append("\n1 BIRT\n2 DATE ").append(1 + i % 28).append(" MAR ").append(1800 + i % 100).append(
+                            "\n2 PLAC ").append(PLACES[i % PLACES.length]).append("\n1 DEAT Y\n2 PLAC ").append(PLACES[(i + 1)
+                                    % PLACES.length]).append("\n2 SOUR @S").append(i % 50).append("@\n3 PAGE Page ").append(i
+                                            % 300).append("\n3 QUAY 3\n");
+        }
+        for (int i = 0; i < 50; i++) {
+            sb.append("0 @S").append(i).append("@ SOUR\n1 TITL Parish register ").append(i).append('\n');
+        }
+        sb.append("0 TRLR\n");
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Get the amount of heap in use, after garbage collecting as much as possible
+     * 
+     * @return the number of bytes of heap in use
+     */
+    @SuppressWarnings("PMD.DoNotCallGarbageCollectionExplicitly")
+    private static long usedHeap() {
+        Runtime rt = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return rt.totalMemory() - rt.freeMemory();
+    }
+}
@@ -27,12 +27,17 @@
 package org.gedcom4j.parser;
 
 import static org.junit.Assert.assertEquals;
-import static org.junit.Assert.assertNotNull;
-import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Random;
 
+import org.gedcom4j.exception.GedcomParserException;
+import org.gedcom4j.model.Individual;
 import org.gedcom4j.parser.StringCanonicalizer.CanonicalizedString;
 import org.junit.Before;
 import org.junit.Test;
@@ -47,7 +52,7 @@ public class StringCanonicalizerTest {
     /**
      * The class under test
      */
-    StringCanonicalizer classUnderTest = new StringCanonicalizer();
+    StringCanonicalizer classUnderTest = new StringCanonicalizer(500);
 
     /**
      * A randomizer that always uses the same seed value for repeated pseudo-random sequences
@@ -63,39 +68,119 @@ public class StringCanonicalizerTest {
     }
 
     /**
-     * Test with a larger population that should exceed the pool size, but some of the entries should be below the usage threshold,
-     * which means eviction should get triggered
+     * Test that values are canonicalized across all the records of a load, and that a supplied pool is shared across loads
+     * 
+     * @throws IOException
+     *             if the file can't be read
+     * @throws GedcomParserException
+     *             if the file can't be parsed
+     */
+    @Test
+    public void testCanonicalizationAcrossRecordsAndLoads() throws IOException, GedcomParserException {
+        GedcomParser gp = new GedcomParser();
+        gp.load("sample/willis.ged");
+        List<String> sexes = new ArrayList<>();
+        for (Individual i : gp.getGedcom().getIndividuals().values()) {
+            if (i.getSex() != null && "M".equals(i.getSex().getValue())) {
+                sexes.add(i.getSex().getValue());
+            }
+        }
+        assertTrue(sexes.size() > 1);
+        for (String s : sexes) {
+            assertSame(sexes.get(0), s);
+        }
+        StringCanonicalizer firstPool = gp.getStringCanonicalizer();
+        assertTrue(firstPool.getHits() > 0);
+
+        // Each load gets its own pool by default
+        gp.load("sample/willis.ged");
+        assertNotSame(firstPool, gp.getStringCanonicalizer());
+
+        // ...unless one is supplied, in which case the second load finds the values already pooled
+        gp.setStringCanonicalizer(classUnderTest);
+        gp.load("sample/willis.ged");
+        long hitsAfterFirstLoad = classUnderTest.getHits();
+        long missesAfterFirstLoad = classUnderTest.getMisses();
+        GedcomParser gp2 = new GedcomParser();
+        gp2.setStringCanonicalizer(classUnderTest);
+        gp2.load("sample/willis.ged");
+        assertSame(classUnderTest, gp2.getStringCanonicalizer());
+        assertTrue(classUnderTest.getMisses() - missesAfterFirstLoad < classUnderTest.getHits() - hitsAfterFirstLoad);
+    }
+
+    /**
+     * Test that lookups from several threads at once get consistent results and statistics
+     * 
+     * @throws InterruptedException
+     *             if the test is interrupted waiting for the threads
+     */
+    @Test
+    public void testConcurrentUse() throws InterruptedException {
+        final int lookupsPerThread = 50000;
+        final String[][] results = new String[4][lookupsPerThread];
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < results.length; t++) {
+            final String[] threadResults = results[t];
+            threads.add(new Thread() {
+                @Override
+                public void run() {
+                    Random r = new Random(42);
+                    for (int i = 0; i < lookupsPerThread; i++) {
+                        threadResults[i] = classUnderTest.getCanonicalVersion(Integer.toString(r.nextInt(2000)));
+                    }
+                }
+            });
+        }
+        for (Thread t : threads) {
+            t.start();
+        }
+        for (Thread t : threads) {
+            t.join();
+        }
+        assertEquals(results.length * lookupsPerThread, classUnderTest.getHits() + classUnderTest.getMisses());
+        assertTrue(classUnderTest.getSize() <= classUnderTest.getMaxPoolSize());
+        assertEquals(classUnderTest.getSize(), classUnderTest.stringPool.size());
+        Random r = new Random(42);
+        for (int i = 0; i < lookupsPerThread; i++) {
+            String expected = Integer.toString(r.nextInt(2000));
+            for (String[] threadResults : results) {
+                assertEquals(expected, threadResults[i]);
+            }
+        }
+    }
+
+    /**
+     * Test with a larger population that should exceed the pool size, so the pool should stay at its maximum size, with entries
+     * being evicted to make room for the more frequently used values
      */
     @Test
     public void testLargerPopulation() {
-        // Load the string pool
-        final int numValues = classUnderTest.getMaxPoolSize() + 100;
+        final int numValues = classUnderTest.getMaxPoolSize() * 3;
+        long lookups = 0;
         for (int values = 0; values < numValues; values++) {
             for (int uses = 0; uses < 20 + random.nextInt(20); uses++) {
                 String s = Integer.toString(values);
                 String c = classUnderTest.getCanonicalVersion(s);
                 assertEquals(s, c);
+                lookups++;
             }
         }
 
-        assertEquals(1, classUnderTest.numEvictions);
-        assertNull(classUnderTest.stringPool.get("499"));
-        CanonicalizedString c = classUnderTest.stringPool.get("498");
-        assertNotNull(c);
-        assertEquals("498", c.value);
-        assertEquals(25, c.count);
+        assertEquals(lookups, classUnderTest.getHits() + classUnderTest.getMisses());
+        assertEquals(classUnderTest.getMaxPoolSize(), classUnderTest.getSize());
+        assertEquals(classUnderTest.getSize(), classUnderTest.stringPool.size());
+        assertTrue(classUnderTest.getEvictions() > 0);
 
-        // Make sure we get canonical versions
+        // Make sure we get canonical versions of everything in the pool
         for (int values = 0; values < numValues; values++) {
             String s = Integer.toString(values);
-            String c2 = classUnderTest.getCanonicalVersion(s);
-            assertEquals(s, c2);
-            StringCanonicalizer.CanonicalizedString cv = classUnderTest.stringPool.get(s);
+            CanonicalizedString cv = classUnderTest.stringPool.get(s);
             if (cv != null) {
+                String c2 = classUnderTest.getCanonicalVersion(s);
+                assertEquals(s, c2);
                 assertSame(cv.value, c2);
             }
         }
-
     }
 
     /**
@@ -121,6 +206,39 @@ public class StringCanonicalizerTest {
             assertEquals(c, canons[values]);
             assertSame(c, canons[values]);
         }
+        assertEquals(0, classUnderTest.getEvictions());
+    }
+
+    /**
+     * Test that a long run of values that are only used once does not flush the frequently used values out of a full pool
+     */
+    @Test
+    public void testScanResistance() {
+        // Fill the pool, with the first 100 values being used a lot
+        String[] canons = new String[100];
+        for (int values = 0; values < classUnderTest.getMaxPoolSize(); values++) {
+            String s = "value" + values;
+            String c = classUnderTest.getCanonicalVersion(s);
+            if (values < canons.length) {
+                canons[values] = c;
+                for (int uses = 0; uses < 10; uses++) {
+                    assertSame(c, classUnderTest.getCanonicalVersion(new String(s)));
+                }
+            }
+        }
+        assertEquals(classUnderTest.getMaxPoolSize(), classUnderTest.getSize());
+
+        // Now a long run of one-off values, interspersed with the popular ones
+        for (int i = 0; i < 100000; i++) {
+            String s = "one-off" + i;
+            assertEquals(s, classUnderTest.getCanonicalVersion(s));
+            if (i % 10 == 0) {
+                classUnderTest.getCanonicalVersion("value" + i / 10 % canons.length);
+            }
+        }
+        for (int values = 0; values < canons.length; values++) {
+            assertSame(canons[values], classUnderTest.getCanonicalVersion(new String("value" + values)));
+        }
     }
 
     /**
@@ -150,43 +268,18 @@ public class StringCanonicalizerTest {
     }
 
     /**
-     * Test with a larger population that should exceed the pool size, but some of the entries should be below the usage threshold,
-     * which means eviction should get triggered
+     * Test that a pool with a maximum size of zero canonicalizes nothing
      */
     @Test
-    public void testVeryLargePopulation() {
-        // Load the string pool
-        final int numValues = classUnderTest.getMaxPoolSize() * 3;
-        for (int values = 0; values < numValues; values++) {
-            for (int uses = 0; uses < 20 + random.nextInt(20); uses++) {
-                String s = Integer.toString(values);
-                String c = classUnderTest.getCanonicalVersion(s);
-                assertEquals(s, c);
-            }
-        }
-
-        assertEquals(8, classUnderTest.numEvictions);
-        /*
-         * Because we used a java.util.Random with a fixed seed, which items remain in the pool should be predictable, so these
-         * asserts should be safe
-         */
-        assertNull(classUnderTest.stringPool.get("499"));
-        CanonicalizedString c = classUnderTest.stringPool.get("498");
-        assertNotNull(c);
-        assertEquals("498", c.value);
-        assertEquals(25, c.count);
-
-        // Make sure we get canonical versions
-        for (int values = 0; values < numValues; values++) {
-            String s = Integer.toString(values);
-            StringCanonicalizer.CanonicalizedString cv = classUnderTest.stringPool.get(s);
-            if (cv != null) {
-                String c2 = classUnderTest.getCanonicalVersion(s);
-                assertEquals(s, c2);
-                assertSame(cv.value, c2);
-            }
-        }
-
+    public void testZeroSizePool() {
+        StringCanonicalizer sc = new StringCanonicalizer(0);
+        String s = new String("abc");
+        assertSame(s, sc.getCanonicalVersion(s));
+        assertSame(s, sc.getCanonicalVersion(s));
+        String s2 = new String("abc");
+        assertSame(s2, sc.getCanonicalVersion(s2));
+        assertEquals(0, sc.getSize());
+        assertEquals(3, sc.getMisses());
     }
 
 }
@@ -0,0 +1,208 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.parser;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.gedcom4j.exception.GedcomParserException;
+import org.gedcom4j.model.StringTree;
+import org.junit.Test;
+
+/**
+ * Test for {@link StringTreeArena}
+ * 
+ * @author frizbog
+ */
+public class StringTreeArenaTest {
+
+    /**
+     * Test adding nodes and walking the tree
+     */
+    @Test
+    public void testAddNodes() {
+        StringTreeArena t = new StringTreeArena();
+        assertEquals(1, t.getSize());
+        assertEquals(-1, t.getLevel(StringTreeArena.CONTAINER));
+        assertFalse(t.hasChildren(StringTreeArena.CONTAINER));
+
+        int indi = t.addNode(StringTreeArena.CONTAINER, 0, 1, "@I1@", "INDI", Tag.INDIVIDUAL, null);
+        int name = t.addNode(indi, 1, 2, null, "NAME", Tag.NAME, "John /Doe/");
+        int sex = t.addNode(indi, 1, 3, null, "SEX", Tag.SEX, "M");
+        int custom = t.addNode(indi, 1, 4, null, "_FOO", Tag.UNRECOGNIZED, "Bar");
+
+        assertEquals(5, t.getSize());
+        assertEquals(1, t.getChildCount(StringTreeArena.CONTAINER));
+        assertEquals(indi, t.getFirstChild(StringTreeArena.CONTAINER));
+        assertEquals(StringTreeArena.NONE, t.getNextSibling(indi));
+        assertEquals(3, t.getChildCount(indi));
+        assertEquals(name, t.getFirstChild(indi));
+        assertEquals(sex, t.getNextSibling(name));
+        assertEquals(custom, t.getNextSibling(sex));
+        assertEquals(StringTreeArena.NONE, t.getNextSibling(custom));
+        assertEquals(indi, t.getParent(sex));
+        assertEquals(StringTreeArena.CONTAINER, t.getParent(indi));
+        assertEquals(StringTreeArena.NONE, t.getParent(StringTreeArena.CONTAINER));
+
+        assertEquals("@I1@", t.getXref(indi));
+        assertEquals(Tag.INDIVIDUAL, t.getKnownTag(indi));
+        assertEquals("NAME", t.getTag(name));
+        assertEquals("John /Doe/", t.getValue(name));
+        assertEquals(1, t.getLevel(sex));
+        assertEquals(3, t.getLineNum(sex));
+        assertEquals(Tag.UNRECOGNIZED, t.getKnownTag(custom));
+        assertEquals("_FOO", t.getTag(custom));
+        assertFalse(t.hasChildren(custom));
+    }
+
+    /**
+     * Test that the tree makes more room as nodes are added, and that a copy is independent of the original
+     */
+    @Test
+    public void testGrowAndCopy() {
+        StringTreeArena t = new StringTreeArena();
+        int root = t.addNode(StringTreeArena.CONTAINER, 0, 1, "@N1@", "NOTE", Tag.NOTE, "Line 1");
+        for (int i = 2; i <= 1000; i++) {
+            t.addNode(root, 1, i, null, "CONT", Tag.CONTINUATION, "Line " + i);
+        }
+        assertEquals(1001, t.getSize());
+        assertEquals(999, t.getChildCount(root));
+
+        StringTreeArena copy = t.copy();
+        t.reset();
+        assertEquals(1, t.getSize());
+        assertFalse(t.hasChildren(StringTreeArena.CONTAINER));
+
+        assertEquals(1001, copy.getSize());
+        assertEquals(root, copy.getFirstChild(StringTreeArena.CONTAINER));
+        int last = StringTreeArena.NONE;
+        for (int ch = copy.getFirstChild(root); ch != StringTreeArena.NONE; ch = copy.getNextSibling(ch)) {
+            last = ch;
+        }
+        assertEquals("Line 1000", copy.getValue(last));
+        assertEquals(1000, copy.getLineNum(last));
+    }
+
+    /**
+     * Test that nodes can be added without a parent
+     */
+    @Test
+    public void testOrphan() {
+        StringTreeArena t = new StringTreeArena();
+        int orphan = t.addNode(StringTreeArena.NONE, 2, 1, null, "DATE", Tag.DATE, "1 JAN 1900");
+        int cont = t.addNode(orphan, 3, 2, null, "CONT", Tag.CONTINUATION, "more");
+        assertEquals(StringTreeArena.NONE, t.getParent(orphan));
+        assertFalse(t.hasChildren(StringTreeArena.CONTAINER));
+        assertEquals(cont, t.getFirstChild(orphan));
+    }
+
+    /**
+     * Test that the tree is reused when it is reset, with no leftovers from the previous record
+     */
+    @Test
+    public void testReset() {
+        StringTreeArena t = new StringTreeArena();
+        int first = t.addNode(StringTreeArena.CONTAINER, 0, 1, "@I1@", "INDI", Tag.INDIVIDUAL, null);
+        t.addNode(first, 1, 2, null, "NAME", Tag.NAME, "John /Doe/");
+        t.reset();
+        int second = t.addNode(StringTreeArena.CONTAINER, 0, 3, "@F1@", "FAM", Tag.FAMILY, null);
+        assertEquals(first, second);
+        assertEquals("@F1@", t.getXref(second));
+        assertFalse(t.hasChildren(second));
+        assertEquals(1, t.getChildCount(StringTreeArena.CONTAINER));
+    }
+
+    /**
+     * Test making a {@link StringTree} from a node
+     */
+    @Test
+    public void testToStringTree() {
+        StringTreeArena t = new StringTreeArena();
+        int indi = t.addNode(StringTreeArena.CONTAINER, 0, 1, "@I1@", "INDI", Tag.INDIVIDUAL, null);
+        t.addNode(indi, 1, 2, null, "NAME", Tag.NAME, "John /Doe/");
+        int custom = t.addNode(indi, 1, 3, null, "_FOO", Tag.UNRECOGNIZED, "Bar");
+        t.addNode(custom, 2, 4, null, "_BAZ", Tag.UNRECOGNIZED, null);
+
+        StringTree st = t.toStringTree(indi);
+        assertNull(st.getParent());
+        assertEquals(0, st.getLevel());
+        assertEquals(1, st.getLineNum());
+        assertEquals("@I1@", st.getXref());
+        assertEquals("INDI", st.getTag());
+        assertNull(st.getValue());
+        assertEquals(2, st.getChildren().size());
+
+        StringTree name = st.getChildren().get(0);
+        assertSame(st, name.getParent());
+        assertEquals("NAME", name.getTag());
+        assertEquals("John /Doe/", name.getValue());
+        assertNull(name.getChildren());
+
+        StringTree foo = st.getChildren().get(1);
+        assertEquals("_FOO", foo.getTag());
+        assertEquals(1, foo.getChildren().size());
+        assertEquals("_BAZ", foo.getChildren().get(0).getTag());
+        assertEquals(4, foo.getChildren().get(0).getLineNum());
+    }
+
+    /**
+     * Test that the {@link StringTreeBuilder} builds into the tree, and reuses it after being reset
+     * 
+     * @throws GedcomParserException
+     *             if the lines can't be parsed
+     */
+    @Test
+    public void testBuilderReuse() throws GedcomParserException {
+        GedcomParser gp = new GedcomParser();
+        StringTreeBuilder stb = new StringTreeBuilder(gp);
+        stb.appendLine("0 @I1@ INDI");
+        stb.appendLine("1 NAME John /Doe/");
+        stb.appendLine("2 SURN Doe");
+        stb.appendLine("1 _CUSTOM Value");
+        StringTreeArena t = stb.getTree();
+        int indi = t.getFirstChild(StringTreeArena.CONTAINER);
+        assertEquals(Tag.INDIVIDUAL, t.getKnownTag(indi));
+        assertEquals(2, t.getChildCount(indi));
+        int name = t.getFirstChild(indi);
+        assertEquals("SURN", t.getTag(t.getFirstChild(name)));
+        assertEquals(3, t.getLineNum(t.getFirstChild(name)));
+        assertEquals("_CUSTOM", t.getTag(t.getNextSibling(name)));
+        assertTrue(gp.getErrors().isEmpty());
+
+        stb.reset();
+        assertSame(t, stb.getTree());
+        stb.appendLine("0 @F1@ FAM");
+        int fam = t.getFirstChild(StringTreeArena.CONTAINER);
+        assertEquals(1, t.getChildCount(StringTreeArena.CONTAINER));
+        assertEquals("@F1@", t.getXref(fam));
+        assertFalse(t.hasChildren(fam));
+        assertEquals(2, t.getSize());
+    }
+}
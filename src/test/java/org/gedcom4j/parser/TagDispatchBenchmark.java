@@ -0,0 +1,160 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.parser;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.gedcom4j.exception.GedcomParserException;
+
+/**
+ * A benchmark (run through its main method, not as a unit test) of how long it takes to turn the trees of lines for the root-level
+ * records into the object model, which is where the sub-parsers dispatch on each child node's tag. The trees are built once up
+ * front, so the "dispatch" timings exclude reading and tokenizing the file; the "full load" timings include everything.
+ * 
+ * @author frizbog
+ */
+public final class TagDispatchBenchmark {
+
+    /**
+     * The files to run the benchmark against, unless others are supplied on the command line
+     */
+    private static final String[] DEFAULT_FILES = { "sample/willis.ged", "sample/5.5.1 sample 3.ged" };
+
+    /**
+     * How many times to process each file before timing begins, so the JIT has settled down
+     */
+    private static final int WARMUP_ITERATIONS = 30;
+
+    /**
+     * How many times to process each file while timing
+     */
+    private static final int MEASURED_ITERATIONS = 50;
+
+    /**
+     * Private constructor - this class is only run through its main method
+     */
+    private TagDispatchBenchmark() {
+        // Nothing to do
+    }
+
+    /**
+     * Run the benchmark
+     * 
+     * @param args
+     *            command line arguments - the names of the (UTF-8 or ASCII) files to use, if not the defaults
+     * @throws IOException
+     *             if the data can't be read
+     * @throws GedcomParserException
+     *             if the data can't be parsed
+     */
+    @SuppressWarnings("PMD.SystemPrintln")
+    public static void main(String[] args) throws IOException, GedcomParserException {
+        for (String fileName : args.length > 0 ? args : DEFAULT_FILES) {
+            byte[] data = Files.readAllBytes(Paths.get(fileName));
+            List<StringTreeArena> records = buildRecords(new String(data, StandardCharsets.UTF_8));
+            for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+                dispatch(records);
+                fullLoad(data);
+            }
+            long dispatchNanos = 0;
+            long loadNanos = 0;
+            for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+                long start = System.nanoTime();
+                dispatch(records);
+                long middle = System.nanoTime();
+                fullLoad(data);
+                loadNanos += System.nanoTime() - middle;
+                dispatchNanos += middle - start;
+            }
+            System.out.printf("%s: %d records, dispatch %.2f ms/op, full load %.2f ms/op%n", fileName, records.size(),
+                    dispatchNanos / 1e6 / MEASURED_ITERATIONS, loadNanos / 1e6 / MEASURED_ITERATIONS);
+        }
+    }
+
+    /**
+     * Build the trees for all the root-level records in a file
+     * 
+     * @param text
+     *            the text of the file
+     * @return the trees holding the root-level records
+     * @throws GedcomParserException
+     *             if a line can't be parsed
+     */
+    private static List<StringTreeArena> buildRecords(String text) throws GedcomParserException {
+        List<StringTreeArena> result = new ArrayList<>();
+        GedcomParser gp = new GedcomParser();
+        StringTreeBuilder stb = new StringTreeBuilder(gp);
+        for (String line : text.replace("\uFEFF", "").split("\r\n|\r|\n")) {
+            if (line.startsWith("0 ") && stb.getTree().hasChildren(StringTreeArena.CONTAINER)) {
+                result.add(stb.getTree().copy());
+                stb.reset();
+            }
+            stb.appendLine(line);
+        }
+        if (stb.getTree().hasChildren(StringTreeArena.CONTAINER)) {
+            result.add(stb.getTree().copy());
+        }
+        return result;
+    }
+
+    /**
+     * Load the root-level records into a fresh object model
+     * 
+     * @param records
+     *            the trees holding the root-level records
+     * @throws GedcomParserException
+     *             if the records can't be loaded
+     */
+    private static void dispatch(List<StringTreeArena> records) throws GedcomParserException {
+        GedcomParser gp = new GedcomParser();
+        for (StringTreeArena record : records) {
+            gp.loadRootItem(record, record.getFirstChild(StringTreeArena.CONTAINER));
+        }
+    }
+
+    /**
+     * Load the whole file from its bytes
+     * 
+     * @param data
+     *            the bytes of the file
+     * @throws IOException
+     *             if the data can't be read
+     * @throws GedcomParserException
+     *             if the data can't be parsed
+     */
+    private static void fullLoad(byte[] data) throws IOException, GedcomParserException {
+        GedcomParser gp = new GedcomParser();
+        gp.load(new BufferedInputStream(new ByteArrayInputStream(data)));
+    }
+}
@@ -29,8 +29,12 @@ package org.gedcom4j.parser;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
+import java.nio.charset.StandardCharsets;
+
 import org.junit.Test;
 
 /**
@@ -57,6 +61,45 @@ public class TagTest {
         assertFalse(Tag.HEADER.equalsText(null));
     }
 
+    /**
+     * Test for {@link Tag#forText(String)}
+     */
+    @Test
+    public void testForText() {
+        for (Tag t : Tag.values()) {
+            if (t != Tag.UNRECOGNIZED) {
+                assertSame(t, Tag.forText(t.tagText));
+                assertSame(t, Tag.forText(new String(t.tagText)));
+            }
+        }
+        assertSame(Tag.DATA, Tag.forText("DATA"));
+        assertSame(Tag.UNRECOGNIZED, Tag.forText("_CUSTOM"));
+        assertSame(Tag.UNRECOGNIZED, Tag.forText("FRYINGPAN"));
+        assertSame(Tag.UNRECOGNIZED, Tag.forText(""));
+        assertSame(Tag.UNRECOGNIZED, Tag.forText(null));
+    }
+
+    /**
+     * Test for {@link Tag#forText(byte[], int, int, int)}
+     */
+    @Test
+    public void testForTextBytes() {
+        byte[] line = "0 @I1@ INDI \u00C9".getBytes(StandardCharsets.UTF_8);
+        assertSame(Tag.INDIVIDUAL, Tag.forText(line, 7, 11, "INDI".hashCode()));
+        assertNull(Tag.forText(line, 7, 10, "IND".hashCode()));
+        assertNull(Tag.forText(line, 12, 14, 31 * line[12] + line[13]));
+    }
+
+    /**
+     * Test for {@link Tag#forText(String, int, int, int)}
+     */
+    @Test
+    public void testForTextRegion() {
+        String line = "0 @I1@ INDI";
+        assertSame(Tag.INDIVIDUAL, Tag.forText(line, 7, 11, "INDI".hashCode()));
+        assertNull(Tag.forText(line, 7, 10, "IND".hashCode()));
+    }
+
     /**
      * Test of tag count
      */
@@ -0,0 +1,314 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.snapshot;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.gedcom4j.exception.GedcomParserException;
+import org.gedcom4j.model.Family;
+import org.gedcom4j.model.FamilyChild;
+import org.gedcom4j.model.FamilySpouse;
+import org.gedcom4j.model.Gedcom;
+import org.gedcom4j.model.Individual;
+import org.gedcom4j.model.IndividualReference;
+import org.gedcom4j.model.Submitter;
+import org.gedcom4j.parser.GedcomParser;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Test for {@link GedcomSnapshotWriter} and {@link GedcomSnapshotReader}
+ * 
+ * @author frizbog
+ */
+public class GedcomSnapshotTest {
+
+    /**
+     * Folder for the files written by the tests, which is deleted after each test
+     */
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    /**
+     * Test that references between records come back as references to the same objects, and that a long chain of them doesn't
+     * overflow the stack
+     * 
+     * @throws IOException
+     *             if the snapshot can't be written or read
+     */
+    @Test
+    public void testLongLineage() throws IOException {
+        Gedcom g = new Gedcom();
+        Individual parent = null;
+        for (int i = 0; i < 20000; i++) {
+            Individual child = new Individual();
+            child.setXref("@I" + i + "@");
+            g.getIndividuals().put(child.getXref(), child);
+            if (parent != null) {
+                Family f = new Family();
+                f.setXref("@F" + i + "@");
+                f.setHusband(new IndividualReference(parent));
+                f.getChildren(true).add(new IndividualReference(child));
+                g.getFamilies().put(f.getXref(), f);
+                FamilySpouse fams = new FamilySpouse();
+                fams.setFamily(f);
+                parent.getFamiliesWhereSpouse(true).add(fams);
+                FamilyChild famc = new FamilyChild();
+                famc.setFamily(f);
+                child.getFamiliesWhereChild(true).add(famc);
+            }
+            parent = child;
+        }
+
+        Gedcom copy = new GedcomSnapshotReader().read(ByteBuffer.wrap(write(g)));
+        assertEquals(20000, copy.getIndividuals().size());
+        assertEquals(19999, copy.getFamilies().size());
+        for (int i = 1; i < 20000; i++) {
+            Individual child = copy.getIndividuals().get("@I" + i + "@");
+            Family f = child.getFamiliesWhereChild().get(0).getFamily();
+            assertSame(copy.getFamilies().get("@F" + i + "@"), f);
+            Individual father = f.getHusband().getIndividual();
+            assertSame(copy.getIndividuals().get("@I" + (i - 1) + "@"), father);
+            assertSame(f, father.getFamiliesWhereSpouse().get(0).getFamily());
+        }
+    }
+
+    /**
+     * Test that data which can't be a snapshot, or is a truncated or corrupt snapshot, is refused
+     * 
+     * @throws IOException
+     *             if the snapshot can't be written
+     * @throws GedcomParserException
+     *             if the sample file can't be parsed
+     */
+    @Test
+    public void testNotASnapshot() throws IOException, GedcomParserException {
+        assertRefused("Not a gedcom4j snapshot".getBytes(StandardCharsets.US_ASCII));
+        assertRefused(new byte[0]);
+
+        byte[] snapshot = write(load("sample/allged.ged"));
+        assertRefused(Arrays.copyOf(snapshot, snapshot.length - 1));
+        assertRefused(Arrays.copyOf(snapshot, snapshot.length / 2));
+        byte[] longer = Arrays.copyOf(snapshot, snapshot.length + 1);
+        assertRefused(longer);
+
+        // Change the version, as though the snapshot came from a different version of gedcom4j
+        byte[] older = snapshot.clone();
+        older[SnapshotFormat.MAGIC.length + 3]--;
+        try {
+            new GedcomSnapshotReader().read(new ByteArrayInputStream(older));
+            fail("Expected an IOException");
+        } catch (IOException expected) {
+            assertTrue(expected.getMessage(), expected.getMessage().contains("version " + (SnapshotFormat.VERSION - 1)));
+        }
+
+        // Change the kind of the first record to one that doesn't exist
+        byte[] badKind = snapshot.clone();
+        badKind[firstRecordKind(snapshot)] = 99;
+        assertRefused(badKind);
+    }
+
+    /**
+     * Test writing and reading back some sample files, in various encodings and with custom tags
+     * 
+     * @throws IOException
+     *             if the snapshot can't be written or read
+     * @throws GedcomParserException
+     *             if a sample file can't be parsed
+     */
+    @Test
+    public void testRoundTrip() throws IOException, GedcomParserException {
+        assertRoundTrip("sample/willis.ged");
+        assertRoundTrip("sample/allged.ged");
+        assertRoundTrip("sample/TGC55C.ged");
+        assertRoundTrip("sample/customtagstorture.ged");
+        assertRoundTrip("sample/willis-unicode-littleendian.ged");
+        assertRoundTrip("sample/issue102_99levels.ged");
+    }
+
+    /**
+     * Test that the links between records survive the round trip as links to the same objects, just as the parser made them
+     * 
+     * @throws IOException
+     *             if the snapshot can't be written or read
+     * @throws GedcomParserException
+     *             if the sample file can't be parsed
+     */
+    @Test
+    public void testSharedReferences() throws IOException, GedcomParserException {
+        String snapshot = tempFolder.newFile("willis.g4j").getPath();
+        new GedcomSnapshotWriter(load("sample/willis.ged")).write(snapshot);
+        Gedcom copy = new GedcomSnapshotReader().read(snapshot);
+
+        int checked = 0;
+        for (Family f : copy.getFamilies().values()) {
+            if (f.getHusband() != null) {
+                Individual husband = f.getHusband().getIndividual();
+                assertSame(copy.getIndividuals().get(husband.getXref()), husband);
+                checked++;
+            }
+        }
+        assertTrue(checked > 0);
+        Submitter submitter = copy.getHeader().getSubmitterReference().getSubmitter();
+        assertNotNull(submitter);
+        assertSame(copy.getSubmitters().get(submitter.getXref()), submitter);
+    }
+
+    /**
+     * Test that a lazily loaded {@link Gedcom} is written with all its records
+     * 
+     * @throws IOException
+     *             if the snapshot can't be written or read
+     * @throws GedcomParserException
+     *             if the sample file can't be parsed
+     */
+    @Test
+    public void testLazyLoaded() throws IOException, GedcomParserException {
+        GedcomParser gp = new GedcomParser();
+        gp.setLazyLoading(true);
+        gp.load("sample/willis.ged");
+        Gedcom lazy = gp.getGedcom();
+
+        Gedcom copy = new GedcomSnapshotReader().read(ByteBuffer.wrap(write(lazy)));
+        assertEquals(Gedcom.class, copy.getClass());
+        assertEquals(new Gedcom(lazy), copy);
+    }
+
+    /**
+     * Assert that data is refused by the reader
+     * 
+     * @param bytes
+     *            the data
+     */
+    private void assertRefused(byte[] bytes) {
+        try {
+            new GedcomSnapshotReader().read(ByteBuffer.wrap(bytes));
+            fail("Expected an IOException");
+        } catch (IOException expected) {
+            // Good
+        }
+    }
+
+    /**
+     * Assert that a file comes back from a snapshot just as it was loaded
+     * 
+     * @param fileName
+     *            the name of the file
+     * @throws IOException
+     *             if the snapshot can't be written or read
+     * @throws GedcomParserException
+     *             if the file can't be parsed
+     */
+    private void assertRoundTrip(String fileName) throws IOException, GedcomParserException {
+        Gedcom g = load(fileName);
+        Gedcom copy = new GedcomSnapshotReader().read(new ByteArrayInputStream(write(g)));
+        assertEquals(fileName, g, copy);
+    }
+
+    /**
+     * Find the kind of the first record in a snapshot, by skipping over the string table and the count of records
+     * 
+     * @param snapshot
+     *            the snapshot
+     * @return the position of the byte holding the kind of the first record
+     */
+    private int firstRecordKind(byte[] snapshot) {
+        int[] pos = { SnapshotFormat.MAGIC.length + 4 };
+        int strings = readVarint(snapshot, pos);
+        for (int i = 0; i < strings; i++) {
+            int length = readVarint(snapshot, pos);
+            pos[0] += length;
+        }
+        readVarint(snapshot, pos);
+        return pos[0];
+    }
+
+    /**
+     * Load a file
+     * 
+     * @param fileName
+     *            the name of the file
+     * @return the data loaded from the file
+     * @throws IOException
+     *             if the file can't be read
+     * @throws GedcomParserException
+     *             if the file can't be parsed
+     */
+    private Gedcom load(String fileName) throws IOException, GedcomParserException {
+        GedcomParser gp = new GedcomParser();
+        gp.load(fileName);
+        return gp.getGedcom();
+    }
+
+    /**
+     * Read an unsigned variable-length int from a snapshot
+     * 
+     * @param snapshot
+     *            the snapshot
+     * @param pos
+     *            a one-element array holding the position to read from, which is moved past the int
+     * @return the int
+     */
+    private int readVarint(byte[] snapshot, int[] pos) {
+        int result = 0;
+        int shift = 0;
+        int b;
+        do {
+            b = snapshot[pos[0]++];
+            result |= (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return result;
+    }
+
+    /**
+     * Write a snapshot
+     * 
+     * @param g
+     *            the data to write
+     * @return the snapshot
+     * @throws IOException
+     *             if the snapshot can't be written
+     */
+    private byte[] write(Gedcom g) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new GedcomSnapshotWriter(g).write(out);
+        return out.toByteArray();
+    }
+}
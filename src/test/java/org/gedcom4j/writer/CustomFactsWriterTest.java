@@ -31,6 +31,7 @@ import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 
 import java.io.BufferedReader;
+import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
 import java.util.ArrayList;
@@ -41,7 +42,9 @@ import org.gedcom4j.exception.GedcomWriterException;
 import org.gedcom4j.model.Gedcom;
 import org.gedcom4j.parser.GedcomParser;
 import org.gedcom4j.validate.Validator;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 /**
  * Test for writing custom tags out (after reading them)
@@ -50,6 +53,12 @@ import org.junit.Test;
  */
 public class CustomFactsWriterTest {
 
+    /**
+     * Folder for the files written by the tests, which is deleted after each test
+     */
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
     /**
      * Test loading a file full of custom tags, rewriting it, and comparing
      * 
@@ -77,7 +86,8 @@ public class CustomFactsWriterTest {
 
         GedcomWriter gw = new GedcomWriter(g);
         gw.setValidationSuppressed(true);
-        gw.write("tmp/ftmcustomtags.ged");
+        File written = tempFolder.newFile("ftmcustomtags.ged");
+        gw.write(written);
 
         // Read all the lines of the original
         List<String> original = new ArrayList<>();
@@ -91,7 +101,7 @@ public class CustomFactsWriterTest {
 
         // Read all the lines of the copy
         List<String> copy = new ArrayList<>();
-        try (FileReader fr = new FileReader("tmp/ftmcustomtags.ged"); BufferedReader br = new BufferedReader(fr)) {
+        try (FileReader fr = new FileReader(written); BufferedReader br = new BufferedReader(fr)) {
             String s = br.readLine();
             while (s != null) {
                 copy.add(s);
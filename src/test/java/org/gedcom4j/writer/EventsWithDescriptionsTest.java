@@ -31,6 +31,7 @@ import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.fail;
 
+import java.io.File;
 import java.io.IOException;
 import java.util.List;
 
@@ -42,7 +43,9 @@ import org.gedcom4j.model.IndividualEvent;
 import org.gedcom4j.model.enumerations.IndividualEventType;
 import org.gedcom4j.parser.GedcomParser;
 import org.gedcom4j.validate.Validator.Finding;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 /**
  * Test how things are written when there are individual events with descriptions, which are allowed by the parser (despite being
@@ -52,6 +55,12 @@ import org.junit.Test;
  */
 public class EventsWithDescriptionsTest {
 
+    /**
+     * Folder for the files written by the tests, which is deleted after each test
+     */
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
     /**
      * Test that if we load a file with non-standard event tags, and write it back out, the non-standard descriptions after the
      * event tags should not be there any more.
@@ -84,7 +93,7 @@ public class EventsWithDescriptionsTest {
         assertNotNull(eBefore.getDescription());
 
         // Write the file back out in standard format
-        String fn = "tmp/" + this.getClass().getName() + ".ged";
+        String fn = new File(tempFolder.getRoot(), this.getClass().getName() + ".ged").getPath();
         GedcomWriter gw = new GedcomWriter(gBefore);
         gw.setValidationSuppressed(true);
         gw.write(fn);
@@ -143,7 +152,7 @@ public class EventsWithDescriptionsTest {
         assertNotNull(eBefore.getDescription());
 
         // Attempt to write the file back out in standard format
-        String fn = "tmp/" + this.getClass().getName() + ".ged";
+        String fn = new File(tempFolder.getRoot(), this.getClass().getName() + ".ged").getPath();
         GedcomWriter gw = new GedcomWriter(gBefore);
         try {
             gw.write(fn);
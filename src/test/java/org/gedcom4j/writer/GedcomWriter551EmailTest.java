@@ -28,6 +28,7 @@ package org.gedcom4j.writer;
 
 import static org.junit.Assert.assertTrue;
 
+import java.io.File;
 import java.io.IOException;
 
 import org.gedcom4j.exception.GedcomWriterException;
@@ -39,7 +40,9 @@ import org.gedcom4j.model.StringWithCustomFacts;
 import org.gedcom4j.model.Submitter;
 import org.gedcom4j.model.TestHelper;
 import org.gedcom4j.model.enumerations.SupportedVersion;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 /**
  * Test some specific stuff for GEDCOM 5.5.1 - focused on emails
@@ -49,6 +52,12 @@ import org.junit.Test;
  */
 public class GedcomWriter551EmailTest {
 
+    /**
+     * Folder for the files written by the tests, which is deleted after each test
+     */
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
     /**
      * Test writing with corporation in header, corporation has emails, under v5.5.1
      * 
@@ -74,7 +83,7 @@ public class GedcomWriter551EmailTest {
 
         // Switch to 5.5.1, all should be fine
         g.getHeader().getGedcomVersion().setVersionNumber(SupportedVersion.V5_5_1);
-        gw.write("tmp/delete-me.ged");
+        gw.write(tempFolder.newFile());
 
     }
 
@@ -100,7 +109,7 @@ public class GedcomWriter551EmailTest {
 
         // Email addresses
         c.getEmails(true).add(new StringWithCustomFacts("Not allowed under 5.5"));
-        gw.write("tmp/delete-me.ged");
+        gw.write(tempFolder.newFile());
     }
 
     /**
@@ -124,7 +133,7 @@ public class GedcomWriter551EmailTest {
         assertTrue(gw.lines.isEmpty());
 
         // No emails, should be ok
-        gw.write("tmp/delete-me.ged");
+        gw.write(tempFolder.newFile());
     }
 
     /**
@@ -151,7 +160,7 @@ public class GedcomWriter551EmailTest {
 
         // Switch to 5.5.1, all should be fine
         g.getHeader().getGedcomVersion().setVersionNumber(SupportedVersion.V5_5_1);
-        gw.write("tmp/delete-me.ged");
+        gw.write(tempFolder.newFile());
     }
 
     /**
@@ -175,7 +184,7 @@ public class GedcomWriter551EmailTest {
 
         // Email addresses
         r.getEmails(true).add(new StringWithCustomFacts("Not allowed under 5.5"));
-        gw.write("tmp/delete-me.ged");
+        gw.write(tempFolder.newFile());
     }
 
     /**
@@ -198,7 +207,7 @@ public class GedcomWriter551EmailTest {
         assertTrue(gw.lines.isEmpty());
 
         // No emails on Repository, all should be ok
-        gw.write("tmp/delete-me.ged");
+        gw.write(tempFolder.newFile());
     }
 
     /**
@@ -226,7 +235,7 @@ public class GedcomWriter551EmailTest {
 
         // Switch to 5.5.1, all should be fine
         g.getHeader().getGedcomVersion().setVersionNumber(SupportedVersion.V5_5_1);
-        gw.write("tmp/delete-me.ged");
+        gw.write(tempFolder.newFile());
     }
 
     /**
@@ -251,7 +260,7 @@ public class GedcomWriter551EmailTest {
 
         // Email addresses
         s.getEmails(true).add(new StringWithCustomFacts("Not allowed under 5.5"));
-        gw.write("tmp/delete-me.ged");
+        gw.write(tempFolder.newFile());
     }
 
     /**
@@ -275,7 +284,7 @@ public class GedcomWriter551EmailTest {
         assertTrue(gw.lines.isEmpty());
 
         // No emails on submitter, should be good
-        gw.write("tmp/delete-me.ged");
+        gw.write(tempFolder.newFile());
     }
 
 }
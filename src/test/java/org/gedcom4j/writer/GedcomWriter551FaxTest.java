@@ -28,6 +28,7 @@ package org.gedcom4j.writer;
 
 import static org.junit.Assert.assertTrue;
 
+import java.io.File;
 import java.io.IOException;
 
 import org.gedcom4j.exception.GedcomWriterException;
@@ -39,7 +40,9 @@ import org.gedcom4j.model.StringWithCustomFacts;
 import org.gedcom4j.model.Submitter;
 import org.gedcom4j.model.TestHelper;
 import org.gedcom4j.model.enumerations.SupportedVersion;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 /**
  * More tests for {@link GedcomWriter}, checking 5.5 vs 5.5.1 compatibility - focused on fax numbers.
@@ -48,6 +51,12 @@ import org.junit.Test;
  */
 public class GedcomWriter551FaxTest {
 
+    /**
+     * Folder for the files written by the tests, which is deleted after each test
+     */
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
     /**
      * Test compatibility check with the corporation data with 5.5 vs 5.5.1
      * 
@@ -72,7 +81,7 @@ public class GedcomWriter551FaxTest {
 
         // Switch to 5.5.1, all should be fine
         g.getHeader().getGedcomVersion().setVersionNumber(SupportedVersion.V5_5_1);
-        gw.write("tmp/delete-me.ged");
+        gw.write(tempFolder.newFile());
     }
 
     /**
@@ -95,7 +104,7 @@ public class GedcomWriter551FaxTest {
         assertTrue(gw.lines.isEmpty());
         // Fax numbers
         c.getFaxNumbers(true).add(new StringWithCustomFacts("Not allowed under 5.5"));
-        gw.write("tmp/delete-me.ged");
+        gw.write(tempFolder.newFile());
     }
 
     /**
@@ -118,7 +127,7 @@ public class GedcomWriter551FaxTest {
         assertTrue(gw.lines.isEmpty());
 
         // No faxes, should be fine
-        gw.write("tmp/delete-me.ged");
+        gw.write(tempFolder.newFile());
     }
 
     /**
@@ -145,7 +154,7 @@ public class GedcomWriter551FaxTest {
 
         // Switch to 5.5.1, all should be fine
         g.getHeader().getGedcomVersion().setVersionNumber(SupportedVersion.V5_5_1);
-        gw.write("tmp/delete-me.ged");
+        gw.write(tempFolder.newFile());
     }
 
     /**
@@ -169,7 +178,7 @@ public class GedcomWriter551FaxTest {
 
         // Fax numbers
         r.getFaxNumbers(true).add(new StringWithCustomFacts("Not allowed under 5.5"));
-        gw.write("tmp/delete-me.ged");
+        gw.write(tempFolder.newFile());
 
     }
 
@@ -193,7 +202,7 @@ public class GedcomWriter551FaxTest {
         assertTrue(gw.lines.isEmpty());
 
         // No faxes on repository, should be ok
-        gw.write("tmp/delete-me.ged");
+        gw.write(tempFolder.newFile());
     }
 
     /**
@@ -221,7 +230,7 @@ public class GedcomWriter551FaxTest {
 
         // Switch to 5.5.1, all should be fine
         g.getHeader().getGedcomVersion().setVersionNumber(SupportedVersion.V5_5_1);
-        gw.write("tmp/delete-me.ged");
+        gw.write(tempFolder.newFile());
     }
 
     /**
@@ -246,7 +255,7 @@ public class GedcomWriter551FaxTest {
 
         // Fax numbers
         s.getFaxNumbers(true).add(new StringWithCustomFacts("Not allowed under 5.5"));
-        gw.write("tmp/delete-me.ged");
+        gw.write(tempFolder.newFile());
     }
 
     /**
@@ -270,7 +279,7 @@ public class GedcomWriter551FaxTest {
         assertTrue(gw.lines.isEmpty());
 
         // No faxes on submitter, should be good
-        gw.write("tmp/delete-me.ged");
+        gw.write(tempFolder.newFile());
     }
 
 }
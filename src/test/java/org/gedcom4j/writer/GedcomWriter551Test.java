@@ -32,6 +32,7 @@ import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import java.io.File;
 import java.io.IOException;
 
 import org.gedcom4j.exception.GedcomParserException;
@@ -51,7 +52,9 @@ import org.gedcom4j.parser.GedcomParser;
 import org.gedcom4j.validate.Severity;
 import org.gedcom4j.validate.Validator;
 import org.gedcom4j.validate.Validator.Finding;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 /**
  * Test some miscellaneous spec-specific stuff for GEDCOM 5.5.1 vs GEDCOM 5.5.
@@ -61,6 +64,12 @@ import org.junit.Test;
  */
 public class GedcomWriter551Test {
 
+    /**
+     * Folder for the files written by the tests, which is deleted after each test
+     */
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
     /**
      * Test that Blob data is disallowed with 5.5.1
      * 
@@ -84,7 +93,7 @@ public class GedcomWriter551Test {
         g.getMultimedia().put(m.getXref(), m);
         m.getBlob(true).add("Blob data only allowed with 5.5");
         try {
-            gw.write("tmp/delete-me.ged");
+            gw.write(tempFolder.newFile());
             if (!gw.getValidator().getResults().getAllFindings().isEmpty()) {
                 System.out.println(this.getClass().getName() + " found " + gw.getValidator().getResults().getAllFindings().size()
                         + " validation findings:");
@@ -105,14 +114,14 @@ public class GedcomWriter551Test {
 
         // Set to 5.5 and all should be fine
         g.getHeader().getGedcomVersion().setVersionNumber(SupportedVersion.V5_5);
-        gw.write("tmp/delete-me.ged");
+        gw.write(tempFolder.newFile());
 
         // Set back to 5.5.1, clear the blob and embedded format, and all should
         // be fine
         g.getHeader().getGedcomVersion().setVersionNumber(SupportedVersion.V5_5_1);
         m.getBlob().clear();
         m.setEmbeddedMediaFormat((String) null);
-        gw.write("tmp/delete-me.ged");
+        gw.write(tempFolder.newFile());
 
     }
 
@@ -149,11 +158,12 @@ public class GedcomWriter551Test {
         e.getPlace().setLongitude("+19\u00B0 56' 21.48\"");
 
         // Write the test data
-        gw.write("tmp/writertest551.ged");
+        File written = tempFolder.newFile("writertest551.ged");
+        gw.write(written);
 
         // Read it back
         GedcomParser gp = new GedcomParser();
-        gp.load("tmp/writertest551.ged");
+        gp.load(written.getPath());
         assertTrue(gp.getErrors().isEmpty());
         assertTrue(gp.getWarnings().isEmpty());
 
@@ -196,7 +206,7 @@ public class GedcomWriter551Test {
 
         // Switch to 5.5.1, all should be fine
         g.getHeader().getGedcomVersion().setVersionNumber(SupportedVersion.V5_5_1);
-        gw.write("tmp/delete-me.ged");
+        gw.write(tempFolder.newFile());
 
     }
 
@@ -217,7 +227,7 @@ public class GedcomWriter551Test {
         GedcomWriter gw = new GedcomWriter(g);
         gw.setValidationSuppressed(false);
         assertTrue(gw.lines.isEmpty());
-        gw.write("tmp/delete-me.ged");
+        gw.write(tempFolder.newFile());
 
     }
 
@@ -240,7 +250,7 @@ public class GedcomWriter551Test {
 
         // Only one line of copyright data, should be fine
         g.getHeader().getGedcomVersion().setVersionNumber(SupportedVersion.V5_5);
-        gw.write("tmp/delete-me.ged");
+        gw.write(tempFolder.newFile());
 
     }
 
@@ -275,11 +285,12 @@ public class GedcomWriter551Test {
 
         // Write it
         GedcomWriter gw = new GedcomWriter(g1);
-        gw.write("tmp/writertest551.ged");
+        File written = tempFolder.newFile("writertest551.ged");
+        gw.write(written);
 
         // Read it back
         GedcomParser gp = new GedcomParser();
-        gp.load("tmp/writertest551.ged");
+        gp.load(written.getPath());
         assertNotNull(gp.getGedcom());
 
         // See if we read back what we originally built
@@ -329,39 +340,39 @@ public class GedcomWriter551Test {
         assertTrue(gw.lines.isEmpty());
 
         // Try basic scenario first before perturbing name with variations
-        gw.write("tmp/delete-me.ged");
+        gw.write(tempFolder.newFile());
 
         // Add a malformed phonetic variation
         PersonalNameVariation pnv = new PersonalNameVariation();
         pn.getPhonetic(true).add(pnv);
         try {
-            gw.write("tmp/delete-me.ged");
+            gw.write(tempFolder.newFile());
             fail("Expected to get a GedcomWriterException due to missing field on personal name variation");
         } catch (GedcomWriterException expected) {
             assertTrue(expected.getMessage().toLowerCase().contains("required value for tag fone"));
         }
         // Now fix it
         pnv.setVariation("Byorn /Yorgen/");
-        gw.write("tmp/delete-me.ged");
+        gw.write(tempFolder.newFile());
         // Now fiddle with it further
         pnv.setVariationType("Typed it like it sounds, duh");
-        gw.write("tmp/delete-me.ged");
+        gw.write(tempFolder.newFile());
 
         // Add a bad romanized variation
         pnv = new PersonalNameVariation();
         pn.getRomanized(true).add(pnv);
         try {
-            gw.write("tmp/delete-me.ged");
+            gw.write(tempFolder.newFile());
             fail("Expected to get a GedcomWriterException due to missing field on personal name variation");
         } catch (GedcomWriterException expected) {
             assertTrue(expected.getMessage().toLowerCase().contains("required value for tag romn"));
         }
         // Now Fix it
         pnv.setVariation("Bjorn /Jorgen/");
-        gw.write("tmp/delete-me.ged");
+        gw.write(tempFolder.newFile());
         // Now fiddle with it further
         pnv.setVariationType("Removed the slashes from the O's");
-        gw.write("tmp/delete-me.ged");
+        gw.write(tempFolder.newFile());
 
     }
 
@@ -384,7 +395,7 @@ public class GedcomWriter551Test {
 
         // Switch to 5.5.1, all should be fine
         g.getHeader().getGedcomVersion().setVersionNumber(SupportedVersion.V5_5_1);
-        gw.write("tmp/delete-me.ged");
+        gw.write(tempFolder.newFile());
     }
 
     /**
@@ -403,7 +414,7 @@ public class GedcomWriter551Test {
         g.getHeader().getGedcomVersion().setVersionNumber(SupportedVersion.V5_5);
         g.getHeader().getCharacterSet().setCharacterSetName("UTF-8");
         assertTrue(gw.lines.isEmpty());
-        gw.write("tmp/delete-me.ged");
+        gw.write(tempFolder.newFile());
     }
 
     /**
@@ -423,7 +434,7 @@ public class GedcomWriter551Test {
         assertTrue(gw.lines.isEmpty());
 
         // Character set is default, should be good
-        gw.write("tmp/delete-me.ged");
+        gw.write(tempFolder.newFile());
     }
 
 }
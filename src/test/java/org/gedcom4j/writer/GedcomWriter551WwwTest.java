@@ -28,6 +28,7 @@ package org.gedcom4j.writer;
 
 import static org.junit.Assert.assertTrue;
 
+import java.io.File;
 import java.io.IOException;
 
 import org.gedcom4j.exception.GedcomWriterException;
@@ -39,7 +40,9 @@ import org.gedcom4j.model.StringWithCustomFacts;
 import org.gedcom4j.model.Submitter;
 import org.gedcom4j.model.TestHelper;
 import org.gedcom4j.model.enumerations.SupportedVersion;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 /**
  * Test case for {@link GedcomWriter} and support for v5.5 and v5.5.1. Focused on WWW Urls.
@@ -48,6 +51,12 @@ import org.junit.Test;
  */
 public class GedcomWriter551WwwTest {
 
+    /**
+     * Folder for the files written by the tests, which is deleted after each test
+     */
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
     /**
      * Test compatibility check with the corporation data with 5.5 vs 5.5.1
      * 
@@ -72,7 +81,7 @@ public class GedcomWriter551WwwTest {
 
         // Switch to 5.5.1, all should be fine
         g.getHeader().getGedcomVersion().setVersionNumber(SupportedVersion.V5_5_1);
-        gw.write("tmp/delete-me.ged");
+        gw.write(tempFolder.newFile());
 
     }
 
@@ -97,7 +106,7 @@ public class GedcomWriter551WwwTest {
 
         // WWW urls
         c.getWwwUrls(true).add(new StringWithCustomFacts("Not allowed under 5.5"));
-        gw.write("tmp/delete-me.ged");
+        gw.write(tempFolder.newFile());
     }
 
     /**
@@ -120,7 +129,7 @@ public class GedcomWriter551WwwTest {
         assertTrue(gw.lines.isEmpty());
 
         // No www URL's, all should be fine
-        gw.write("tmp/delete-me.ged");
+        gw.write(tempFolder.newFile());
     }
 
     /**
@@ -147,7 +156,7 @@ public class GedcomWriter551WwwTest {
 
         // Switch to 5.5.1, all should be fine
         g.getHeader().getGedcomVersion().setVersionNumber(SupportedVersion.V5_5_1);
-        gw.write("tmp/delete-me.ged");
+        gw.write(tempFolder.newFile());
 
     }
 
@@ -172,7 +181,7 @@ public class GedcomWriter551WwwTest {
 
         // WWW urls
         r.getWwwUrls(true).add(new StringWithCustomFacts("Not allowed under 5.5"));
-        gw.write("tmp/delete-me.ged");
+        gw.write(tempFolder.newFile());
     }
 
     /**
@@ -195,7 +204,7 @@ public class GedcomWriter551WwwTest {
         assertTrue(gw.lines.isEmpty());
 
         // Repository has no www urls, should be ok
-        gw.write("tmp/delete-me.ged");
+        gw.write(tempFolder.newFile());
     }
 
     /**
@@ -223,7 +232,7 @@ public class GedcomWriter551WwwTest {
 
         // Switch to 5.5.1, all should be fine
         g.getHeader().getGedcomVersion().setVersionNumber(SupportedVersion.V5_5_1);
-        gw.write("tmp/delete-me.ged");
+        gw.write(tempFolder.newFile());
     }
 
     /**
@@ -248,7 +257,7 @@ public class GedcomWriter551WwwTest {
 
         // WWW urls
         s.getWwwUrls(true).add(new StringWithCustomFacts("Not allowed under 5.5"));
-        gw.write("tmp/delete-me.ged");
+        gw.write(tempFolder.newFile());
     }
 
     /**
@@ -272,7 +281,7 @@ public class GedcomWriter551WwwTest {
         assertTrue(gw.lines.isEmpty());
 
         // No WWW Urls on submitter, should be good
-        gw.write("tmp/delete-me.ged");
+        gw.write(tempFolder.newFile());
     }
 
 }
@@ -53,7 +53,9 @@ import org.gedcom4j.validate.Validator;
 import org.gedcom4j.validate.Validator.Finding;
 import org.gedcom4j.writer.event.ConstructProgressEvent;
 import org.gedcom4j.writer.event.ConstructProgressListener;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 /**
  * Test the ability to receive notifications about GEDCOM string construction, and to cancel the operation
@@ -63,6 +65,12 @@ import org.junit.Test;
 @SuppressWarnings("PMD.TooManyMethods")
 public class GedcomWriterFileProgressAndCancellationTest implements ConstructProgressListener, FileProgressListener {
 
+    /**
+     * Folder for the files written by the tests, which is deleted after each test
+     */
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
     /**
      * The number of notifications we are going to cancel after, when we're testing cancellation
      */
@@ -437,7 +445,7 @@ public class GedcomWriterFileProgressAndCancellationTest implements ConstructPro
         gw.registerFileObserver(this);
         gw.setValidationSuppressed(true);
         try {
-            gw.write(new FileOutputStream("tmp/foo-unicode-little-endian.ged"));
+            gw.write(new FileOutputStream(tempFolder.newFile("foo-unicode-little-endian.ged")));
         } catch (GedcomWriterException e) {
             for (Finding f : gw.getValidator().getResults().getAllFindings()) {
                 System.out.println(f);
@@ -476,7 +484,7 @@ public class GedcomWriterFileProgressAndCancellationTest implements ConstructPro
         gw.registerConstructObserver(this);
         gw.registerFileObserver(this);
         try {
-            gw.write(new FileOutputStream("tmp/foo-unicode-little-endian.ged"));
+            gw.write(new FileOutputStream(tempFolder.newFile("foo-unicode-little-endian.ged")));
         } catch (GedcomWriterException e) {
             for (Finding f : gw.getValidator().getResults().getAllFindings()) {
                 System.out.println(f);
@@ -527,7 +535,7 @@ public class GedcomWriterFileProgressAndCancellationTest implements ConstructPro
         assertTrue(constructNotificationCount > TEST_CANCELLATION_COUNT);
         assertTrue(fileNotificationCount > TEST_CANCELLATION_COUNT);
         assertEquals(20945, linesConstructed);
-        assertEquals(581632, bytesWritten);
+        assertEquals(607928, bytesWritten);
     }
 
     /**
@@ -568,7 +576,7 @@ public class GedcomWriterFileProgressAndCancellationTest implements ConstructPro
         assertTrue(constructNotificationCount > TEST_CANCELLATION_COUNT);
         assertTrue(fileNotificationCount > TEST_CANCELLATION_COUNT);
         assertEquals(20945, linesConstructed);
-        assertEquals(557056, bytesWritten);
+        assertEquals(586983, bytesWritten);
     }
 
     /**
@@ -0,0 +1,298 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.writer;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+
+import org.gedcom4j.exception.GedcomParserException;
+import org.gedcom4j.exception.GedcomWriterException;
+import org.gedcom4j.exception.WriterCancelledException;
+import org.gedcom4j.io.encoding.Encoding;
+import org.gedcom4j.io.event.FileProgressEvent;
+import org.gedcom4j.io.event.FileProgressListener;
+import org.gedcom4j.io.writer.LineTerminator;
+import org.gedcom4j.model.AbstractEvent;
+import org.gedcom4j.model.CharacterSet;
+import org.gedcom4j.model.Gedcom;
+import org.gedcom4j.model.GedcomVersion;
+import org.gedcom4j.model.Individual;
+import org.gedcom4j.model.StringWithCustomFacts;
+import org.gedcom4j.model.enumerations.SupportedVersion;
+import org.gedcom4j.parser.GedcomParser;
+import org.gedcom4j.validate.Validator;
+import org.junit.Test;
+
+/**
+ * Test for writing GEDCOM data with {@link GedcomWriter#setStreaming(boolean)} turned on, which streams each line to the output as
+ * it is constructed rather than staging all the lines first
+ * 
+ * @author frizbog
+ */
+public class GedcomWriterStreamingTest implements FileProgressListener {
+
+    /**
+     * The writer being tested
+     */
+    private GedcomWriter gw;
+
+    /**
+     * The number of file progress notifications received
+     */
+    private int fileNotificationCount;
+
+    /**
+     * The last file progress event received
+     */
+    private FileProgressEvent lastFileProgressEvent;
+
+    /**
+     * Cancel the writer after this many file progress notifications
+     */
+    private int fileCancelAfter = Integer.MAX_VALUE;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void progressNotification(FileProgressEvent e) {
+        fileNotificationCount++;
+        lastFileProgressEvent = e;
+        if (fileNotificationCount > fileCancelAfter) {
+            gw.cancel();
+        }
+    }
+
+    /**
+     * Test that cancelling a streaming write stops it
+     * 
+     * @throws IOException
+     *             if the file can't be read
+     * @throws GedcomParserException
+     *             if the file can't be parsed
+     * @throws GedcomWriterException
+     *             if the file can't be written (or is cancelled)
+     */
+    @Test(expected = WriterCancelledException.class)
+    public void testCancellation() throws IOException, GedcomParserException, GedcomWriterException {
+        gw = new GedcomWriter(loadAndCleanUp(Encoding.ASCII));
+        gw.setValidationSuppressed(true);
+        gw.setStreaming(true);
+        gw.registerFileObserver(this);
+        fileCancelAfter = 5;
+        gw.write(new ByteArrayOutputStream());
+    }
+
+    /**
+     * Test that streaming ANSEL data produces exactly the same bytes as writing staged lines
+     * 
+     * @throws IOException
+     *             if the file can't be read
+     * @throws GedcomParserException
+     *             if the file can't be parsed
+     * @throws GedcomWriterException
+     *             if the file can't be written
+     */
+    @Test
+    public void testStreamingMatchesStagedAnsel() throws IOException, GedcomParserException, GedcomWriterException {
+        assertStreamingMatchesStaged(Encoding.ANSEL, true);
+    }
+
+    /**
+     * Test that streaming ASCII data produces exactly the same bytes as writing staged lines
+     * 
+     * @throws IOException
+     *             if the file can't be read
+     * @throws GedcomParserException
+     *             if the file can't be parsed
+     * @throws GedcomWriterException
+     *             if the file can't be written
+     */
+    @Test
+    public void testStreamingMatchesStagedAscii() throws IOException, GedcomParserException, GedcomWriterException {
+        assertStreamingMatchesStaged(Encoding.ASCII, true);
+    }
+
+    /**
+     * Test that streaming big-endian UNICODE data produces exactly the same bytes as writing staged lines
+     * 
+     * @throws IOException
+     *             if the file can't be read
+     * @throws GedcomParserException
+     *             if the file can't be parsed
+     * @throws GedcomWriterException
+     *             if the file can't be written
+     */
+    @Test
+    public void testStreamingMatchesStagedUnicodeBigEndian() throws IOException, GedcomParserException, GedcomWriterException {
+        assertStreamingMatchesStaged(Encoding.UNICODE_BIG_ENDIAN, false);
+    }
+
+    /**
+     * Test that streaming little-endian UNICODE data produces exactly the same bytes as writing staged lines
+     * 
+     * @throws IOException
+     *             if the file can't be read
+     * @throws GedcomParserException
+     *             if the file can't be parsed
+     * @throws GedcomWriterException
+     *             if the file can't be written
+     */
+    @Test
+    public void testStreamingMatchesStagedUnicodeLittleEndian() throws IOException, GedcomParserException, GedcomWriterException {
+        assertStreamingMatchesStaged(Encoding.UNICODE_LITTLE_ENDIAN, true);
+    }
+
+    /**
+     * Test that streaming UTF-8 data produces exactly the same bytes as writing staged lines, and that the lines are not staged
+     * 
+     * @throws IOException
+     *             if the file can't be read
+     * @throws GedcomParserException
+     *             if the file can't be parsed
+     * @throws GedcomWriterException
+     *             if the file can't be written
+     */
+    @Test
+    public void testStreamingMatchesStagedUtf8() throws IOException, GedcomParserException, GedcomWriterException {
+        assertStreamingMatchesStaged(Encoding.UTF_8, true);
+    }
+
+    /**
+     * Test that streaming to a channel produces exactly the same bytes as writing staged lines to an output stream
+     * 
+     * @throws IOException
+     *             if the file can't be read
+     * @throws GedcomParserException
+     *             if the file can't be parsed
+     * @throws GedcomWriterException
+     *             if the file can't be written
+     */
+    @Test
+    public void testStreamingToChannel() throws IOException, GedcomParserException, GedcomWriterException {
+        Gedcom g = loadAndCleanUp(Encoding.ANSEL);
+
+        gw = new GedcomWriter(g);
+        gw.setValidationSuppressed(true);
+        ByteArrayOutputStream staged = new ByteArrayOutputStream();
+        gw.write(staged);
+
+        gw = new GedcomWriter(g);
+        gw.setValidationSuppressed(true);
+        gw.setStreaming(true);
+        ByteArrayOutputStream streamed = new ByteArrayOutputStream();
+        try (WritableByteChannel channel = Channels.newChannel(streamed)) {
+            gw.write(channel);
+        }
+
+        assertArrayEquals(staged.toByteArray(), streamed.toByteArray());
+    }
+
+    /**
+     * Write the same data with and without streaming, and assert the bytes written are identical and that the file progress
+     * notifications report the same totals
+     * 
+     * @param encoding
+     *            the encoding to write
+     * @param littleEndian
+     *            whether to use little-endian byte ordering for unicode
+     * @throws IOException
+     *             if the file can't be read
+     * @throws GedcomParserException
+     *             if the file can't be parsed
+     * @throws GedcomWriterException
+     *             if the file can't be written
+     */
+    private void assertStreamingMatchesStaged(Encoding encoding, boolean littleEndian) throws IOException, GedcomParserException,
+            GedcomWriterException {
+        Gedcom g = loadAndCleanUp(encoding);
+
+        gw = new GedcomWriter(g);
+        gw.setValidationSuppressed(true);
+        gw.setLineTerminator(LineTerminator.CRLF);
+        gw.setUseLittleEndianForUnicode(littleEndian);
+        gw.registerFileObserver(this);
+        ByteArrayOutputStream staged = new ByteArrayOutputStream();
+        gw.write(staged);
+        FileProgressEvent stagedEvent = lastFileProgressEvent;
+
+        gw = new GedcomWriter(g);
+        gw.setValidationSuppressed(true);
+        gw.setLineTerminator(LineTerminator.CRLF);
+        gw.setUseLittleEndianForUnicode(littleEndian);
+        gw.setStreaming(true);
+        gw.registerFileObserver(this);
+        ByteArrayOutputStream streamed = new ByteArrayOutputStream();
+        gw.write(streamed);
+
+        assertTrue("Lines should not be staged when streaming", gw.lines.isEmpty());
+        assertArrayEquals(staged.toByteArray(), streamed.toByteArray());
+        assertTrue(lastFileProgressEvent.isComplete());
+        assertEquals(stagedEvent.getLinesProcessed(), lastFileProgressEvent.getLinesProcessed());
+        assertEquals(streamed.size(), lastFileProgressEvent.getBytesProcessed());
+    }
+
+    /**
+     * Load the sample file and clean it up so it can be written in the desired encoding
+     * 
+     * @param encoding
+     *            the encoding to write
+     * @return the cleaned-up {@link Gedcom}
+     * @throws IOException
+     *             if the file can't be read
+     * @throws GedcomParserException
+     *             if the file can't be parsed
+     */
+    private Gedcom loadAndCleanUp(Encoding encoding) throws IOException, GedcomParserException {
+        GedcomParser gp = new GedcomParser();
+        gp.load("sample/willis-ascii.ged");
+        Gedcom g = gp.getGedcom();
+        CharacterSet characterSet = new CharacterSet();
+        characterSet.setCharacterSetName(new StringWithCustomFacts(encoding.getCharacterSetName()));
+        g.getHeader().setCharacterSet(characterSet);
+        GedcomVersion gedcomVersion = new GedcomVersion();
+        gedcomVersion.setVersionNumber(SupportedVersion.V5_5_1);
+        g.getHeader().setGedcomVersion(gedcomVersion);
+        for (Individual i : g.getIndividuals().values()) {
+            if (i.getEvents() != null) {
+                for (AbstractEvent e : i.getEvents()) {
+                    e.setDescription((String) null);
+                }
+            }
+        }
+        Validator gv = new Validator(g);
+        gv.setAutoRepairResponder(Validator.AUTO_REPAIR_ALL);
+        gv.validate();
+        return g;
+    }
+}
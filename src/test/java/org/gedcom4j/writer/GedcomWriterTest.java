@@ -51,7 +51,9 @@ import org.gedcom4j.model.Individual;
 import org.gedcom4j.model.NoteRecord;
 import org.gedcom4j.parser.GedcomParser;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 /**
  * A test for the {@link GedcomWriter} class. The majority of the testing done by this class is done by reading the torture test
@@ -85,6 +87,12 @@ public class GedcomWriterTest {
      */
     private List<String> readbackLines;
 
+    /**
+     * Folder for the files written by the tests, which is deleted after each test
+     */
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
     /**
      * Constructor. Does some test fixture initialization once for the whole class rather than in setUp().
      * 
@@ -104,9 +112,7 @@ public class GedcomWriterTest {
 
         GedcomWriter gw = new GedcomWriter(gedcomOrig);
         gw.setValidationSuppressed(true);
-        File tmpDir = new File("tmp");
-        tmpDir.mkdirs();
-        File tempFile = new File("tmp/gedcom4j.writertest.ged");
+        File tempFile = File.createTempFile("gedcom4j.writertest", ".ged");
         gw.write(tempFile);
 
         try (FileInputStream byteStream = new FileInputStream(tempFile);
@@ -133,6 +139,7 @@ public class GedcomWriterTest {
             System.err.println(e);
         }
         assertTrue(p.getErrors().isEmpty());
+        assertTrue(tempFile.delete());
     }
 
     /**
@@ -375,7 +382,7 @@ public class GedcomWriterTest {
         Gedcom g = new Gedcom();
         GedcomWriter gw = new GedcomWriter(g);
         gw.setValidationSuppressed(true);
-        File tempFile = new File("tmp/gedcom4j.emptywritertest.ged");
+        File tempFile = tempFolder.newFile("gedcom4j.emptywritertest.ged");
         gw.write(tempFile);
 
         // Read back the empty file and check its contents